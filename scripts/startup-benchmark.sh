@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Benchmark de arranque: mide el tiempo desde que se lanza la JVM hasta la primera
+# respuesta 200 de /actuator/health (time-to-first-request), N veces por modo.
+#
+# Uso:
+#   DB_URL=jdbc:mysql://localhost:3306/edira DB_USER=... DB_PASS=... \
+#     scripts/startup-benchmark.sh [runs] [modo...]
+#
+# Modos:
+#   jar  -> target/edira-api-0.0.1-SNAPSHOT.jar (./mvnw -DskipTests package)
+#   cds  -> target/cds con AOT + AppCDS        (./mvnw -Pcds -DskipTests package)
+#
+# Siempre con perfil prod, mismo puerto y la misma base, para que sea reproducible.
+set -euo pipefail
+
+RUNS="${1:-5}"
+shift || true
+if [[ $# -gt 0 ]]; then MODES=("$@"); else MODES=(jar cds); fi
+
+PORT="${PORT:-18080}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+JAR_NAME="edira-api-0.0.1-SNAPSHOT.jar"
+HEALTH_URL="http://localhost:${PORT}/actuator/health"
+
+command_for() {
+  case "$1" in
+    jar) echo "$JAVA -Dspring.profiles.active=prod -jar $ROOT/target/$JAR_NAME" ;;
+    cds) echo "$JAVA -XX:SharedArchiveFile=$ROOT/target/cds/application.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=prod -jar $ROOT/target/cds/$JAR_NAME" ;;
+    *) echo "modo desconocido: $1" >&2; exit 1 ;;
+  esac
+}
+
+now_ms() { date +%s%3N; }
+
+for mode in "${MODES[@]}"; do
+  cmd="$(command_for "$mode")"
+  samples=()
+  for ((i = 1; i <= RUNS; i++)); do
+    start="$(now_ms)"
+    PORT="$PORT" $cmd >"/tmp/edira-startup-$mode-$i.log" 2>&1 &
+    pid=$!
+    until curl -fs -o /dev/null "$HEALTH_URL"; do
+      if ! kill -0 "$pid" 2>/dev/null; then
+        echo "[$mode] la app terminó antes de responder, ver /tmp/edira-startup-$mode-$i.log" >&2
+        exit 1
+      fi
+      sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    samples+=("$elapsed")
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+    echo "[$mode] run $i: ${elapsed} ms"
+  done
+  sorted=($(printf '%s\n' "${samples[@]}" | sort -n))
+  median="${sorted[$(( ${#sorted[@]} / 2 ))]}"
+  echo "[$mode] time-to-first-request mediana=${median} ms min=${sorted[0]} ms max=${sorted[-1]} ms (n=$RUNS)"
+done
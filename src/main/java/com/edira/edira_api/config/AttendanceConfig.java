@@ -0,0 +1,24 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.service.attendance.AttendanceProperties;
+import com.edira.edira_api.service.attendance.AttendanceService;
+import com.edira.edira_api.service.attendance.CheckInBuffer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/*
+ * Asistencia (/courses/{id}/attendance). Los check-ins de los alumnos pasan por un buffer que los
+ * escribe de a lote por sesión.
+ */
+@Configuration
+@EnableConfigurationProperties(AttendanceProperties.class)
+public class AttendanceConfig {
+
+    @Bean
+    CheckInBuffer checkInBuffer(AttendanceService service, AttendanceProperties properties) {
+        return new CheckInBuffer(service, properties, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,36 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.web.batch.BatchDispatcher;
+import com.edira.edira_api.web.batch.BatchProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.security.web.firewall.HttpFirewall;
+import org.springframework.security.web.firewall.StrictHttpFirewall;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/*
+ * Endpoint /batch (edira.batch.enabled=false lo apaga: BatchController responde 404).
+ */
+@Configuration
+@EnableConfigurationProperties(BatchProperties.class)
+@ConditionalOnProperty(prefix = "edira.batch", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BatchConfig {
+
+    @Bean
+    BatchDispatcher batchDispatcher(DispatcherServlet dispatcherServlet, WebInvocationPrivilegeEvaluator privilegeEvaluator,
+                                    ObjectProvider<HttpFirewall> firewall, ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager, BatchProperties properties) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setTimeout((int) properties.transactionTimeout().toSeconds());
+        // el mismo firewall que usa la cadena de filtros si hay uno declarado; si no, el de por defecto
+        return new BatchDispatcher(dispatcherServlet, privilegeEvaluator, firewall.getIfAvailable(StrictHttpFirewall::new),
+                objectMapper, transactionTemplate, properties);
+    }
+}
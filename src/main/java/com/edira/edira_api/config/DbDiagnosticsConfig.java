@@ -0,0 +1,72 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.persistence.diagnostics.ConnectionRouteInterceptor;
+import com.edira.edira_api.persistence.diagnostics.ConnectionTrackingProperties;
+import com.edira.edira_api.persistence.diagnostics.ConnectionUsageRegistry;
+import com.edira.edira_api.persistence.diagnostics.SqlStatsFilter;
+import com.edira.edira_api.persistence.diagnostics.SqlStatsProperties;
+import com.edira.edira_api.persistence.diagnostics.TrackingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/*
+ * Rastreo de conexiones JDBC por endpoint / @Transactional y estadísticas SQL por request.
+ * Se apaga con edira.db.tracking.enabled=false (queda el DataSource de Hikari tal cual);
+ * solo las estadísticas por request con edira.db.sql-stats.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties({ConnectionTrackingProperties.class, SqlStatsProperties.class})
+@ConditionalOnProperty(prefix = "edira.db.tracking", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DbDiagnosticsConfig {
+
+    @Bean
+    ConnectionUsageRegistry connectionUsageRegistry(MeterRegistry meterRegistry,
+                                                    ConnectionTrackingProperties properties) {
+        return new ConnectionUsageRegistry(meterRegistry, properties);
+    }
+
+    // static: los BeanPostProcessor se registran antes que el resto de la configuración
+    @Bean
+    static BeanPostProcessor trackingDataSourcePostProcessor(ObjectProvider<ConnectionUsageRegistry> registry,
+                                                             ObjectProvider<SqlStatsProperties> sqlStats) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TrackingDataSource)) {
+                    return new TrackingDataSource(dataSource, registry.getObject(), sqlStats.getObject().enabled());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Antes que la cadena de Spring Security para que los 401/403 también tengan scope
+    @Bean
+    @ConditionalOnProperty(prefix = "edira.db.sql-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+    FilterRegistrationBean<SqlStatsFilter> sqlStatsFilter(SqlStatsProperties properties) {
+        FilterRegistrationBean<SqlStatsFilter> registration = new FilterRegistrationBean<>(new SqlStatsFilter(properties));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    WebMvcConfigurer connectionRouteConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ConnectionRouteInterceptor());
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.service.course.EnrollmentProperties;
+import com.edira.edira_api.service.course.EnrollmentService;
+import com.edira.edira_api.service.course.WaitlistPromoter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Cursos y matrículas (/courses). El promotor de listas de espera corre con @ClusterScheduled.
+ */
+@Configuration
+@EnableConfigurationProperties(EnrollmentProperties.class)
+public class EnrollmentConfig {
+
+    @Bean
+    WaitlistPromoter waitlistPromoter(EnrollmentService service) {
+        return new WaitlistPromoter(service);
+    }
+}
@@ -0,0 +1,13 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.service.gradebook.GradebookProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Evaluaciones y notas (/courses/{id}/evaluations, /courses/{id}/gradebook).
+ */
+@Configuration
+@EnableConfigurationProperties(GradebookProperties.class)
+public class GradebookConfig {
+}
@@ -0,0 +1,112 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.shared.health.HealthChecker;
+import com.edira.edira_api.shared.health.HealthProperties;
+import com.edira.edira_api.shared.health.HealthSnapshot;
+import com.edira.edira_api.shared.health.HealthSnapshot.Component;
+import com.edira.edira_api.shared.health.HealthSnapshot.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Health cacheado: /health/live, /health/ready y el indicador "db" de /actuator/health leen
+ * el último chequeo de HealthChecker en vez de ir a MySQL en cada probe.
+ */
+@Configuration
+@EnableConfigurationProperties(HealthProperties.class)
+public class HealthConfig {
+
+    @Bean
+    HealthChecker healthChecker(DataSource dataSource, ObjectProvider<Flyway> flyway, ApplicationAvailability availability,
+                                HealthProperties properties, ObjectMapper objectMapper) {
+        HikariDataSource hikari = unwrapHikari(dataSource);
+        return new HealthChecker(dataSource, () -> poolStats(hikari), schemaCheck(flyway.getIfAvailable()),
+                availability, properties, objectMapper, Clock.systemUTC());
+    }
+
+    // Mismo nombre que el de Spring Boot: reemplaza al DataSourceHealthIndicator, que hace un query por llamada
+    @Bean
+    HealthIndicator dbHealthIndicator(HealthChecker checker) {
+        return () -> {
+            HealthSnapshot snapshot = checker.snapshot();
+            if (snapshot == null) {
+                return Health.unknown().withDetail("reason", "sin chequeo todavía").build();
+            }
+            Map<String, Object> details = new LinkedHashMap<>(snapshot.components());
+            details.put("checkedAt", snapshot.checkedAt());
+            return (snapshot.ready() ? Health.up() : Health.outOfService()).withDetails(details).build();
+        };
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static HealthChecker.PoolStats poolStats(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari == null ? null : hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return null;
+        }
+        int max = hikari.getMaximumPoolSize();
+        return new HealthChecker.PoolStats() {
+            @Override
+            public int active() {
+                return pool.getActiveConnections();
+            }
+
+            @Override
+            public int idle() {
+                return pool.getIdleConnections();
+            }
+
+            @Override
+            public int waiting() {
+                return pool.getThreadsAwaitingConnection();
+            }
+
+            @Override
+            public int max() {
+                return max;
+            }
+        };
+    }
+
+    private static HealthChecker.SchemaCheck schemaCheck(Flyway flyway) {
+        if (flyway == null) {
+            return () -> new Component(Status.UP, Map.of("flyway", "deshabilitado"));
+        }
+        return () -> {
+            MigrationInfoService info = flyway.info();
+            MigrationInfo current = info.current();
+            int pending = info.pending().length;
+            boolean failed = Arrays.stream(info.all()).anyMatch(migration -> migration.getState().isFailed());
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("version", current == null ? null : current.getVersion().getVersion());
+            details.put("pending", pending);
+            details.put("failed", failed);
+            return new Component(pending == 0 && !failed ? Status.UP : Status.DOWN, details);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.persistence.idempotency.IdempotencyKeyRepository;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
+import com.edira.edira_api.shared.idempotency.IdempotencyFilter;
+import com.edira.edira_api.shared.idempotency.IdempotencyKeyPurger;
+import com.edira.edira_api.shared.idempotency.IdempotencyProperties;
+import com.edira.edira_api.shared.idempotency.IdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/*
+ * Idempotency-Key (edira.idempotency.enabled=false lo apaga).
+ * El filtro va después de la cadena de Spring Security y de TenantFilter.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "edira.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    IdempotencyStore idempotencyStore(IdempotencyKeyRepository repository, IdempotencyProperties properties) {
+        return new IdempotencyStore(repository, properties, Clock.systemUTC());
+    }
+
+    @Bean
+    FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store, IdempotencyProperties properties,
+                                                                ApiErrorWriter apiErrorWriter, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(store, properties, apiErrorWriter, meterRegistry));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 10);
+        return registration;
+    }
+
+    @Bean
+    IdempotencyKeyPurger idempotencyKeyPurger(IdempotencyKeyRepository repository, IdempotencyProperties properties) {
+        return new IdempotencyKeyPurger(repository, properties, Clock.systemUTC());
+    }
+}
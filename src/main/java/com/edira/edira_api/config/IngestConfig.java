@@ -0,0 +1,13 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.shared.ingest.IngestProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Cargas masivas por streaming (POST /students/import, POST /rosters/import).
+ */
+@Configuration
+@EnableConfigurationProperties(IngestProperties.class)
+public class IngestConfig {
+}
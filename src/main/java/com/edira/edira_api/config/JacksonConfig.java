@@ -0,0 +1,48 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.shared.BinaryFormats;
+import com.edira.edira_api.shared.error.ApiErrorHttpMessageConverter;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/*
+ * Serialización:
+ * - Blackbird reemplaza el acceso por reflexión a getters/accessors de records por lambdas
+ *   generadas (LambdaMetafactory); Boot lo registra en el ObjectMapper por ser un bean Module.
+ * - El converter de ApiError queda delante del de Jackson (HttpMessageConverters pone primero
+ *   los beans HttpMessageConverter).
+ * - CBOR y Smile (request y response, por Accept / Content-Type) con una copia del ObjectMapper
+ *   de Boot, así comparten módulos y configuración con JSON. Reemplazan a los converters por
+ *   defecto de Spring MVC, que usan un ObjectMapper propio.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    ApiErrorHttpMessageConverter apiErrorHttpMessageConverter(ApiErrorWriter apiErrorWriter) {
+        return new ApiErrorHttpMessageConverter(apiErrorWriter);
+    }
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(BinaryFormats.copyOf(objectMapper, new CBORFactory()));
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(BinaryFormats.copyOf(objectMapper, new SmileFactory()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.persistence.job.JobRepository;
+import com.edira.edira_api.service.job.JobHandler;
+import com.edira.edira_api.service.job.JobProperties;
+import com.edira.edira_api.service.job.JobWorker;
+import com.edira.edira_api.shared.cluster.ClusterNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.List;
+
+/*
+ * Jobs asíncronos. edira.jobs.worker-enabled=false deja el nodo solo encolando y consultando.
+ */
+@Configuration
+@EnableConfigurationProperties(JobProperties.class)
+public class JobConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "edira.jobs", name = "worker-enabled", havingValue = "true", matchIfMissing = true)
+    JobWorker jobWorker(JobRepository repository, List<JobHandler> handlers, JobProperties properties,
+                        ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                        ClusterNode clusterNode) {
+        TransactionTemplate claim = new TransactionTemplate(transactionManager);
+        claim.setTimeout(5);
+        String nodeId = properties.nodeId().isBlank() ? clusterNode.id() : properties.nodeId();
+        return new JobWorker(repository, handlers, properties, objectMapper, claim, Clock.systemUTC(), nodeId);
+    }
+}
@@ -1,13 +1,21 @@
 package com.edira.edira_api.config;
 
 
+import com.edira.edira_api.shared.BinaryFormats;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.annotations.servers.Server;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import org.springdoc.core.customizers.OpenApiCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Set;
+
 @Configuration
 @OpenAPIDefinition(
         info = @Info(
@@ -24,4 +32,53 @@ import org.springframework.context.annotation.Configuration;
         type = SecuritySchemeType.HTTP,
         scheme = "basic"
 )
-public class OpenApiConfig { }
+public class OpenApiConfig {
+
+    //Todo body/respuesta JSON estructurado (objeto o lista) se publica también en CBOR y Smile
+    @Bean
+    OpenApiCustomizer binaryMediaTypesCustomizer() {
+        return openApi -> {
+            if (openApi.getPaths() == null) {
+                return;
+            }
+            openApi.getPaths().values().forEach(path -> path.readOperations().forEach(operation -> {
+                if (operation.getRequestBody() != null) {
+                    addBinaryFormats(operation.getRequestBody().getContent());
+                }
+                if (operation.getResponses() != null) {
+                    operation.getResponses().values().forEach(response -> addBinaryFormats(response.getContent()));
+                }
+            }));
+        };
+    }
+
+    private static void addBinaryFormats(Content content) {
+        if (content == null) {
+            return;
+        }
+        Schema<?> schema = content.values().stream()
+                .map(MediaType::getSchema)
+                .filter(OpenApiConfig::isStructured)
+                .findFirst()
+                .orElse(null);
+        if (schema == null) {
+            return;
+        }
+        BinaryFormats.ALL.forEach(binary ->
+                content.putIfAbsent(binary.toString(), new MediaType().schema(schema)));
+    }
+
+    // $ref, objeto o arreglo; los String (text/plain) quedan solo como están
+    private static boolean isStructured(Schema<?> schema) {
+        if (schema == null) {
+            return false;
+        }
+        if (schema.get$ref() != null) {
+            return true;
+        }
+        Set<String> types = schema.getTypes();
+        String type = schema.getType();
+        return "object".equals(type) || "array".equals(type)
+                || (types != null && (types.contains("object") || types.contains("array")));
+    }
+}
@@ -0,0 +1,25 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.shared.profiling.JfrProperties;
+import com.edira.edira_api.shared.profiling.JfrRecorder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/*
+ * Grabaciones JFR bajo demanda en /admin/diagnostics/jfr.
+ * Se apaga con edira.profiling.jfr.enabled=false (los endpoints responden 404).
+ */
+@Configuration
+@EnableConfigurationProperties(JfrProperties.class)
+@ConditionalOnProperty(prefix = "edira.profiling.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProfilingConfig {
+
+    @Bean
+    JfrRecorder jfrRecorder(JfrProperties properties) {
+        return new JfrRecorder(properties, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,13 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.service.risk.RiskProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Riesgo académico (/students/risk, job student-risk-scoring).
+ */
+@Configuration
+@EnableConfigurationProperties(RiskProperties.class)
+public class RiskConfig {
+}
@@ -0,0 +1,35 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.persistence.scheduling.SchedulerLeaseRepository;
+import com.edira.edira_api.shared.cluster.ClusterNode;
+import com.edira.edira_api.shared.scheduling.ClusterScheduledAspect;
+import com.edira.edira_api.shared.scheduling.SchedulingProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+
+/*
+ * Tareas periódicas (@Scheduled): purga de Idempotency-Key, recuperación de jobs, etc.
+ * Las marcadas @ClusterScheduled se coordinan entre nodos con leases en scheduler_lease.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(SchedulingProperties.class)
+public class SchedulingConfig {
+
+    @Bean
+    ClusterNode clusterNode(@Value("${edira.cluster.node-id:}") String nodeId) {
+        return ClusterNode.of(nodeId);
+    }
+
+    @Bean
+    ClusterScheduledAspect clusterScheduledAspect(SchedulerLeaseRepository repository, SchedulingProperties properties,
+                                                  ClusterNode clusterNode, Environment environment) {
+        return new ClusterScheduledAspect(repository, properties, clusterNode, environment, Clock.systemUTC());
+    }
+}
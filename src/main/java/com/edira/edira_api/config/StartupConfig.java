@@ -0,0 +1,83 @@
+package com.edira.edira_api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+
+import java.lang.management.ManagementFactory;
+
+/*
+ * Ajustes de arranque. En prod (edira.startup.defer-docs=true) los beans de springdoc
+ * quedan lazy: no hacen falta para atender tráfico y se crean con el primer request a la doc.
+ * El tiempo hasta "listo" se loguea para comparar con scripts/startup-benchmark.sh.
+ *
+ * edira.flyway.migrate-on-startup=false deja a Flyway configurado pero sin migrar: lo usa el
+ * training run de AppCDS (con AOT los beans de Flyway quedan fijos y spring.flyway.enabled no
+ * se reevalúa) y sirve si las migraciones se corren aparte antes del deploy.
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupConfig.class);
+
+    private static final String DOCS_PACKAGE = "org.springdoc.";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "edira.startup", name = "defer-docs", havingValue = "true")
+    static BeanFactoryPostProcessor deferDocsBeans() {
+        return beanFactory -> {
+            int deferred = 0;
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (!definition.isLazyInit() && isDocsBean(definition)) {
+                    definition.setLazyInit(true);
+                    deferred++;
+                }
+            }
+            log.debug("Beans de springdoc diferidos: {}", deferred);
+        };
+    }
+
+    // Los beans de auto-config son métodos @Bean: no tienen clase propia, se mira quién los declara
+    private static boolean isDocsBean(BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (className != null && className.startsWith(DOCS_PACKAGE)) {
+            return true;
+        }
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            return factoryMethod != null && factoryMethod.getDeclaringClassName().startsWith(DOCS_PACKAGE);
+        }
+        return false;
+    }
+
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(Environment environment) {
+        return flyway -> {
+            if (environment.getProperty("edira.flyway.migrate-on-startup", Boolean.class, true)) {
+                flyway.migrate();
+            } else {
+                log.info("Migraciones Flyway omitidas (edira.flyway.migrate-on-startup=false)");
+            }
+        };
+    }
+
+    @Bean
+    ApplicationListener<ApplicationReadyEvent> startupTimeLogger() {
+        return event -> {
+            long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            log.info("STARTUP_READY sinceJvmStartMs={} contextMs={}",
+                    sinceJvmStart, event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1);
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.persistence.tenant.TenantRepository;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
+import com.edira.edira_api.shared.tenant.TenantDirectory;
+import com.edira.edira_api.shared.tenant.TenantFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/*
+ * Tenant por request (X-Tenant-Id), validado contra la tabla tenant. Después de Spring Security
+ * (un cliente sin autenticar recibe 401 sin poder sondear qué ids existen) y antes de la
+ * idempotencia: todo lo que corre después (servicios, logs) ya ve TenantContext fijado.
+ */
+@Configuration
+public class TenantConfig {
+
+    @Bean
+    TenantDirectory tenantDirectory(TenantRepository repository,
+                                    @Value("${edira.tenant.cache-ttl:60s}") Duration cacheTtl) {
+        return new TenantDirectory(repository, cacheTtl, Clock.systemUTC());
+    }
+
+    @Bean
+    FilterRegistrationBean<TenantFilter> tenantFilter(ApiErrorWriter apiErrorWriter, TenantDirectory tenantDirectory) {
+        FilterRegistrationBean<TenantFilter> registration =
+                new FilterRegistrationBean<>(new TenantFilter(apiErrorWriter, tenantDirectory));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 5);
+        return registration;
+    }
+}
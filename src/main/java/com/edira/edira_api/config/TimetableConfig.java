@@ -0,0 +1,28 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.persistence.timetable.SectionRepository;
+import com.edira.edira_api.service.timetable.ScheduleIndex;
+import com.edira.edira_api.service.timetable.SectionOutboxRelay;
+import com.edira.edira_api.service.timetable.SectionProperties;
+import com.edira.edira_api.service.timetable.TimetableProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/*
+ * Horarios (/teachers, /rooms, /timetables, job timetable-generate) y secciones con horario fijo
+ * (/sections). El relay del outbox de secciones corre en todos los nodos; su purga, con @ClusterScheduled.
+ */
+@Configuration
+@EnableConfigurationProperties({TimetableProperties.class, SectionProperties.class})
+public class TimetableConfig {
+
+    @Bean
+    SectionOutboxRelay sectionOutboxRelay(SectionRepository repository, ScheduleIndex index, ObjectMapper objectMapper,
+                                          SectionProperties properties) {
+        return new SectionOutboxRelay(repository, index, objectMapper, properties, Clock.systemUTC());
+    }
+}
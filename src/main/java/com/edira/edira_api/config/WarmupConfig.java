@@ -0,0 +1,45 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.shared.warmup.WarmupProperties;
+import com.edira.edira_api.shared.warmup.WarmupRunner;
+import com.edira.edira_api.shared.warmup.WarmupTraffic;
+import com.edira.edira_api.shared.warmup.WarmupTrafficFilter;
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+/*
+ * Warm-up del JIT antes de declarar readiness (edira.warmup.enabled=true en prod).
+ * El filtro y el predicado se registran siempre: sin token válido no hacen nada.
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfig {
+
+    // Primero de todos, para que observabilidad y SqlStatsFilter ya vean el request marcado
+    @Bean
+    FilterRegistrationBean<WarmupTrafficFilter> warmupTrafficFilter() {
+        FilterRegistrationBean<WarmupTrafficFilter> registration = new FilterRegistrationBean<>(new WarmupTrafficFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // http.server.requests no cuenta el tráfico de warm-up
+    @Bean
+    ObservationPredicate warmupObservationPredicate() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && WarmupTraffic.isWarmup(request.getCarrier()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "edira.warmup", name = "enabled", havingValue = "true")
+    WarmupRunner warmupRunner(ApplicationContext context, WarmupProperties properties) {
+        return new WarmupRunner(context, properties);
+    }
+}
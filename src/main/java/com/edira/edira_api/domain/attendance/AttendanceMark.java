@@ -0,0 +1,7 @@
+package com.edira.edira_api.domain.attendance;
+
+/**
+ * Estado de un alumno en una sesión.
+ */
+public record AttendanceMark(long studentId, AttendanceStatus status) {
+}
@@ -0,0 +1,25 @@
+package com.edira.edira_api.domain.attendance;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Totales de asistencia por período de un tenant, un curso o un alumno (en todos sus cursos).
+ * {@code absenceRate} = ausentes / registrados; los atrasos cuentan como asistencia.
+ */
+public record AttendanceRollup(Scope scope, long id, RollupGranularity granularity, List<Point> points) {
+
+    public enum Scope {
+        TENANT,
+        COURSE,
+        STUDENT
+    }
+
+    public record Point(LocalDate periodStart, long present, long absent, long late, double absenceRate) {
+
+        public static Point of(LocalDate periodStart, long present, long absent, long late) {
+            long marked = present + absent + late;
+            return new Point(periodStart, present, absent, late, marked == 0 ? 0 : (double) absent / marked);
+        }
+    }
+}
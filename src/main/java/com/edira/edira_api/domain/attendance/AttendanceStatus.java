@@ -0,0 +1,7 @@
+package com.edira.edira_api.domain.attendance;
+
+public enum AttendanceStatus {
+    PRESENT,
+    ABSENT,
+    LATE
+}
@@ -0,0 +1,17 @@
+package com.edira.edira_api.domain.attendance;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de un check-in, ya escrito en la base. {@code status} es el estado que quedó
+ * registrado (sin status si el alumno no tiene matrícula en el curso).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CheckInReceipt(long sessionId, long studentId, AttendanceStatus status, Result result) {
+
+    public enum Result {
+        CHECKED_IN,
+        ALREADY_CHECKED_IN,
+        NOT_ENROLLED
+    }
+}
@@ -0,0 +1,10 @@
+package com.edira.edira_api.domain.attendance;
+
+import java.time.Instant;
+
+/**
+ * Sesión de clase de un curso con cuántos alumnos quedaron en cada estado. Los alumnos sin
+ * registro en la sesión no cuentan en ninguno.
+ */
+public record ClassSession(long id, long courseId, Instant startsAt, int present, int absent, int late) {
+}
@@ -0,0 +1,12 @@
+package com.edira.edira_api.domain.attendance;
+
+/**
+ * Período de los totales de asistencia. TERM es el período académico (ver
+ * {@code edira.attendance.term-start-months}).
+ */
+public enum RollupGranularity {
+    DAY,
+    WEEK,
+    MONTH,
+    TERM
+}
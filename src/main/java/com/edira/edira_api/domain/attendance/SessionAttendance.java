@@ -0,0 +1,9 @@
+package com.edira.edira_api.domain.attendance;
+
+import java.util.List;
+
+/**
+ * Sesión con el estado de cada alumno registrado, ordenados por ordinal en el curso.
+ */
+public record SessionAttendance(ClassSession session, List<AttendanceMark> marks) {
+}
@@ -0,0 +1,26 @@
+package com.edira.edira_api.domain.attendance;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Historial de asistencia de un alumno en un curso: una entrada por sesión del rango, sin
+ * {@code status} si no fue registrado en ella, y los totales.
+ */
+public record StudentAttendance(
+        long courseId,
+        long studentId,
+        int sessions,
+        int present,
+        int absent,
+        int late,
+        int unmarked,
+        List<Entry> history
+) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Entry(long sessionId, Instant startsAt, AttendanceStatus status) {
+    }
+}
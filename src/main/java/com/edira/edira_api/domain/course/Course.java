@@ -0,0 +1,7 @@
+package com.edira.edira_api.domain.course;
+
+/**
+ * Curso con su ocupación: {@code enrolled} asientos tomados de {@code capacity}, más la lista de espera.
+ */
+public record Course(long id, String code, String name, int capacity, int enrolled, int waitlisted) {
+}
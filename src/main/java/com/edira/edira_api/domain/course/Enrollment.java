@@ -0,0 +1,21 @@
+package com.edira.edira_api.domain.course;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Matrícula de un alumno en un curso. {@code seatNo} solo si está ENROLLED;
+ * {@code waitlistPosition} (1 = el próximo en entrar) solo si está WAITLISTED.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Enrollment(
+        long id,
+        long courseId,
+        long studentId,
+        EnrollmentStatus status,
+        Integer seatNo,
+        Integer waitlistPosition,
+        Instant createdAt
+) {
+}
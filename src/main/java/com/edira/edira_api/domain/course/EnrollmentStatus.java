@@ -0,0 +1,6 @@
+package com.edira.edira_api.domain.course;
+
+public enum EnrollmentStatus {
+    ENROLLED,
+    WAITLISTED
+}
@@ -0,0 +1,10 @@
+package com.edira.edira_api.domain.gradebook;
+
+import java.util.List;
+
+/**
+ * Fórmula de nota final vigente en un curso. {@code variables} son los nombres que usa (códigos
+ * de evaluación y {@code weighted}), en orden de aparición.
+ */
+public record CourseFormula(long courseId, int version, String formula, List<String> variables) {
+}
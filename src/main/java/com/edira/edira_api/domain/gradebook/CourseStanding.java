@@ -0,0 +1,16 @@
+package com.edira.edira_api.domain.gradebook;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Ranking del curso: cuántos alumnos tienen promedio, la mediana y los primeros puestos.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CourseStanding(long courseId, int ranked, BigDecimal median, List<Entry> top) {
+
+    public record Entry(long studentId, BigDecimal average, Standing standing) {
+    }
+}
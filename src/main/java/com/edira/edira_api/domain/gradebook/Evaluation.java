@@ -0,0 +1,8 @@
+package com.edira.edira_api.domain.gradebook;
+
+/**
+ * Evaluación de un curso. {@code weight} es relativo: el promedio divide por la suma de los pesos
+ * de lo que el alumno ya tiene evaluado.
+ */
+public record Evaluation(long id, long courseId, String code, String name, int weight) {
+}
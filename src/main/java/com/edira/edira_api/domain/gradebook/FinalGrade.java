@@ -0,0 +1,10 @@
+package com.edira.edira_api.domain.gradebook;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/** Nota final de un alumno según la fórmula {@code formulaVersion}; sin {@code score} si la fórmula no da nota. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FinalGrade(long studentId, BigDecimal score, int formulaVersion) {
+}
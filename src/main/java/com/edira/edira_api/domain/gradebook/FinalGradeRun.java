@@ -0,0 +1,8 @@
+package com.edira.edira_api.domain.gradebook;
+
+/**
+ * Resultado de recalcular las notas finales de un curso: {@code students} matriculados,
+ * {@code graded} con nota final y el tiempo total en milisegundos.
+ */
+public record FinalGradeRun(long courseId, int formulaVersion, int students, int graded, long elapsedMs) {
+}
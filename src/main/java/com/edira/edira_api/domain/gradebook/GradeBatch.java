@@ -0,0 +1,8 @@
+package com.edira.edira_api.domain.gradebook;
+
+/**
+ * Resultado de cargar notas de una evaluación: {@code graded} alumnos recibidos, {@code changed}
+ * con una nota distinta a la que tenían (solo esos tocan los promedios).
+ */
+public record GradeBatch(long evaluationId, int graded, int changed) {
+}
@@ -0,0 +1,9 @@
+package com.edira.edira_api.domain.gradebook;
+
+/**
+ * Posición de un promedio en el curso: {@code rank} 1 = el más alto (empates comparten puesto),
+ * sobre {@code ranked} alumnos con promedio. {@code percentile} = % de alumnos por debajo, con
+ * los empatados contados a medias.
+ */
+public record Standing(int rank, int ranked, double percentile) {
+}
@@ -0,0 +1,26 @@
+package com.edira.edira_api.domain.gradebook;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Notas de un alumno en un curso: una entrada por evaluación (sin {@code score} si aún no tiene
+ * nota), el promedio ponderado de lo evaluado y su posición entre los alumnos con promedio.
+ * Sin notas no hay promedio ni posición.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StudentGrades(
+        long courseId,
+        long studentId,
+        BigDecimal average,
+        long gradedWeight,
+        Standing standing,
+        List<Entry> grades
+) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Entry(long evaluationId, String code, String name, int weight, BigDecimal score) {
+    }
+}
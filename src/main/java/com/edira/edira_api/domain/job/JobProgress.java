@@ -0,0 +1,9 @@
+package com.edira.edira_api.domain.job;
+
+/**
+ * Avance informado por el job ({@code total} null = desconocido).
+ */
+public record JobProgress(long done, Long total, String message) {
+
+    public static final JobProgress NONE = new JobProgress(0, null, null);
+}
@@ -0,0 +1,17 @@
+package com.edira.edira_api.domain.job;
+
+/**
+ * Ciclo de vida de un job: QUEUED → RUNNING → SUCCEEDED | FAILED | CANCELLED.
+ * Un RUNNING cuyo lease vence vuelve a QUEUED (o FAILED si agotó los intentos).
+ */
+public enum JobState {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED;
+
+    public boolean finished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
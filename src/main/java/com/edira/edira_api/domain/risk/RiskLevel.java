@@ -0,0 +1,12 @@
+package com.edira.edira_api.domain.risk;
+
+/** Tramo del puntaje de riesgo: bajo 30, de 30 a 59 y desde 60. */
+public enum RiskLevel {
+    LOW,
+    MEDIUM,
+    HIGH;
+
+    public static RiskLevel of(int score) {
+        return score >= 60 ? HIGH : score >= 30 ? MEDIUM : LOW;
+    }
+}
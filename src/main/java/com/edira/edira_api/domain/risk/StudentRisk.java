@@ -0,0 +1,25 @@
+package com.edira.edira_api.domain.risk;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Riesgo académico de un alumno en el período en curso, con los datos que lo explican. Sin
+ * {@code attendanceRate}, {@code gradeAverage} o {@code gradeTrend} si aún no hay con qué
+ * calcularlos (esa parte no suma riesgo).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StudentRisk(
+        long studentId,
+        int score,
+        RiskLevel level,
+        BigDecimal attendanceRate,
+        BigDecimal gradeAverage,
+        BigDecimal gradeTrend,
+        int dueEvaluations,
+        int missingEvaluations,
+        Instant computedAt
+) {
+}
@@ -0,0 +1,7 @@
+package com.edira.edira_api.domain.student;
+
+/**
+ * Alumno a crear (aún sin id). {@code externalId} es el identificador del sistema de origen, opcional.
+ */
+public record NewStudent(String externalId, String firstName, String lastName, String email) {
+}
@@ -0,0 +1,7 @@
+package com.edira.edira_api.domain.student;
+
+/**
+ * Alumno tal como está en student (lectura).
+ */
+public record Student(long id, String externalId, String firstName, String lastName, String email, String status) {
+}
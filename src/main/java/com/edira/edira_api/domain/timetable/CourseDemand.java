@@ -0,0 +1,8 @@
+package com.edira.edira_api.domain.timetable;
+
+/**
+ * Lo que el horario debe darle a un curso: {@code weeklyLessons} bloques con su profesor, en salas
+ * para {@code students} alumnos (el cupo del curso).
+ */
+public record CourseDemand(long courseId, long teacherId, int weeklyLessons, int students) {
+}
@@ -0,0 +1,11 @@
+package com.edira.edira_api.domain.timetable;
+
+import java.time.LocalTime;
+
+/**
+ * Sección de un curso con horario fijo: el día {@code day} (0 = primer día de la semana) de
+ * {@code start} a {@code end}, en la sala y con el profesor indicados (cualquiera puede faltar).
+ */
+public record CourseSection(long id, long courseId, String code, Long roomId, Long teacherId, int day,
+                            LocalTime start, LocalTime end) {
+}
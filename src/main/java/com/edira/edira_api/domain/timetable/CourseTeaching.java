@@ -0,0 +1,7 @@
+package com.edira.edira_api.domain.timetable;
+
+/**
+ * Profesor del curso y bloques por semana que el horario le debe dar.
+ */
+public record CourseTeaching(long courseId, long teacherId, int weeklyLessons) {
+}
@@ -0,0 +1,7 @@
+package com.edira.edira_api.domain.timetable;
+
+/**
+ * Sala con su capacidad en alumnos.
+ */
+public record Room(long id, String code, String name, int capacity) {
+}
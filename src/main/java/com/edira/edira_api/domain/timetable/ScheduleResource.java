@@ -0,0 +1,9 @@
+package com.edira.edira_api.domain.timetable;
+
+/**
+ * Recurso que una sección ocupa y que no puede estar en dos secciones a la vez.
+ */
+public enum ScheduleResource {
+    ROOM,
+    TEACHER
+}
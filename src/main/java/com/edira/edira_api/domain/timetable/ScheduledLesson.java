@@ -0,0 +1,7 @@
+package com.edira.edira_api.domain.timetable;
+
+/**
+ * Bloque {@code lessonNo} del curso en el horario: día (desde 0), bloque del día (desde 0) y sala.
+ */
+public record ScheduledLesson(long courseId, int lessonNo, int day, int slot, long roomId, long teacherId) {
+}
@@ -0,0 +1,4 @@
+package com.edira.edira_api.domain.timetable;
+
+public record Teacher(long id, String code, String name) {
+}
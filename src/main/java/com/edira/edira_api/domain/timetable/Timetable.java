@@ -0,0 +1,27 @@
+package com.edira.edira_api.domain.timetable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * Horario generado. {@code hardViolations} 0 = se puede usar tal cual; {@code softPenalty} cuenta
+ * preferencias no cumplidas. {@code lessons} es null en los resúmenes.
+ */
+@JsonInclude(NON_NULL)
+public record Timetable(
+        long id,
+        Long jobId,
+        int days,
+        int slotsPerDay,
+        int hardViolations,
+        int softPenalty,
+        long moves,
+        long elapsedMs,
+        Instant createdAt,
+        List<ScheduledLesson> lessons
+) {
+}
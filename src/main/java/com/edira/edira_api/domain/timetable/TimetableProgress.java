@@ -0,0 +1,25 @@
+package com.edira.edira_api.domain.timetable;
+
+import com.edira.edira_api.domain.job.JobState;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * Avance de una generación de horario: el mejor horario encontrado hasta ahora por cualquiera de
+ * los hilos. Si el job corre en otro nodo o sigue en cola, solo vienen {@code state},
+ * {@code elapsedMs} y {@code message} (el último avance guardado). {@code timetableId} solo
+ * cuando el job terminó y guardó el horario.
+ */
+@JsonInclude(NON_NULL)
+public record TimetableProgress(
+        long jobId,
+        JobState state,
+        Long elapsedMs,
+        Integer hardViolations,
+        Integer softPenalty,
+        Long moves,
+        String message,
+        Long timetableId
+) {
+}
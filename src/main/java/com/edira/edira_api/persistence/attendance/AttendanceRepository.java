@@ -0,0 +1,229 @@
+package com.edira.edira_api.persistence.attendance;
+
+import com.edira.edira_api.domain.attendance.ClassSession;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * Acceso JDBC a class_session y course_roster. Los bitmaps viajan como blobs en el formato
+ * portable de Roaring (ver {@link SessionBitmaps}); los métodos {@code lock*} deben correr dentro
+ * de la transacción de {@code AttendanceService}.
+ */
+@Repository
+public class AttendanceRepository {
+
+    /** Recibe cada sesión del rango con sus bitmaps, en orden de {@code starts_at}. */
+    @FunctionalInterface
+    public interface SessionHandler {
+        void accept(ClassSession session, SessionBitmaps bitmaps);
+    }
+
+    private static final String SESSION_COLUMNS = "id, course_id, starts_at, present_count, absent_count, late_count";
+
+    private static final RowMapper<ClassSession> SESSION_MAPPER = (rs, rowNum) -> new ClassSession(
+            rs.getLong("id"), rs.getLong("course_id"), rs.getTimestamp("starts_at").toInstant(),
+            rs.getInt("present_count"), rs.getInt("absent_count"), rs.getInt("late_count"));
+
+    private static final RowMapper<SessionBitmaps> BITMAPS_MAPPER = (rs, rowNum) -> SessionBitmaps.wrap(
+            rs.getBytes("present"), rs.getBytes("absent"), rs.getBytes("late"));
+
+    private final JdbcTemplate jdbc;
+
+    public AttendanceRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public long insertSession(long tenantId, long courseId, Instant startsAt, String createdBy) {
+        byte[] empty = SessionBitmaps.serialize(SessionBitmaps.empty().present());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                            INSERT INTO class_session (tenant_id, course_id, starts_at, present, absent, late, created_by)
+                            VALUES (?, ?, ?, ?, ?, ?, ?)""",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, tenantId);
+            ps.setLong(2, courseId);
+            ps.setTimestamp(3, Timestamp.from(startsAt));
+            ps.setBytes(4, empty);
+            ps.setBytes(5, empty);
+            ps.setBytes(6, empty);
+            ps.setString(7, createdBy);
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    public Optional<ClassSession> findSession(long tenantId, long courseId, long sessionId) {
+        return jdbc.query("SELECT " + SESSION_COLUMNS + " FROM class_session WHERE tenant_id = ? AND course_id = ? AND id = ?",
+                SESSION_MAPPER, tenantId, courseId, sessionId).stream().findFirst();
+    }
+
+    /** Sesiones del curso en [from, to), sin leer los blobs. */
+    public List<ClassSession> findSessions(long tenantId, long courseId, Instant from, Instant to) {
+        return jdbc.query("SELECT " + SESSION_COLUMNS + """
+                         FROM class_session
+                        WHERE tenant_id = ? AND course_id = ? AND starts_at >= ? AND starts_at < ?
+                        ORDER BY starts_at""",
+                SESSION_MAPPER, tenantId, courseId, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    public Optional<SessionBitmaps> findBitmaps(long sessionId) {
+        return jdbc.query("SELECT present, absent, late FROM class_session WHERE id = ?", BITMAPS_MAPPER, sessionId)
+                .stream().findFirst();
+    }
+
+    public Optional<SessionBitmaps> lockBitmaps(long tenantId, long courseId, long sessionId) {
+        return jdbc.query("""
+                        SELECT present, absent, late FROM class_session
+                         WHERE tenant_id = ? AND course_id = ? AND id = ?
+                           FOR UPDATE""",
+                BITMAPS_MAPPER, tenantId, courseId, sessionId).stream().findFirst();
+    }
+
+    public void updateBitmaps(long sessionId, SessionBitmaps bitmaps, String updatedBy) {
+        jdbc.update("""
+                        UPDATE class_session
+                           SET present = ?, absent = ?, late = ?,
+                               present_count = ?, absent_count = ?, late_count = ?, updated_by = ?
+                         WHERE id = ?""",
+                SessionBitmaps.serialize(bitmaps.present()), SessionBitmaps.serialize(bitmaps.absent()),
+                SessionBitmaps.serialize(bitmaps.late()), bitmaps.present().getCardinality(),
+                bitmaps.absent().getCardinality(), bitmaps.late().getCardinality(), updatedBy, sessionId);
+    }
+
+    /** Recorre las sesiones del curso en [from, to) fila por fila, sin juntarlas en una lista. */
+    public void forEachSession(long courseId, Instant from, Instant to, SessionHandler handler) {
+        jdbc.query("SELECT " + SESSION_COLUMNS + """
+                        , present, absent, late
+                         FROM class_session
+                        WHERE course_id = ? AND starts_at >= ? AND starts_at < ?
+                        ORDER BY starts_at""",
+                rs -> {
+                    handler.accept(SESSION_MAPPER.mapRow(rs, 0), BITMAPS_MAPPER.mapRow(rs, 0));
+                }, courseId, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    /**
+     * Como {@link #forEachSession} pero con todas las sesiones del curso, tomadas con lock de fila
+     * en orden de id: mientras dura la transacción nadie registra asistencia en el curso.
+     */
+    public void forEachSessionLocked(long courseId, SessionHandler handler) {
+        jdbc.query("SELECT " + SESSION_COLUMNS + """
+                        , present, absent, late
+                         FROM class_session
+                        WHERE course_id = ?
+                        ORDER BY id
+                          FOR UPDATE""",
+                rs -> {
+                    handler.accept(SESSION_MAPPER.mapRow(rs, 0), BITMAPS_MAPPER.mapRow(rs, 0));
+                }, courseId);
+    }
+
+    /** Cursos del tenant con al menos una sesión, en orden de id. */
+    public List<Long> findCoursesWithSessions(long tenantId) {
+        return jdbc.queryForList("SELECT DISTINCT course_id FROM class_session WHERE tenant_id = ? ORDER BY course_id",
+                Long.class, tenantId);
+    }
+
+    public OptionalInt findOrdinal(long courseId, long studentId) {
+        List<Integer> ordinal = jdbc.queryForList(
+                "SELECT ordinal FROM course_roster WHERE course_id = ? AND student_id = ?",
+                Integer.class, courseId, studentId);
+        return ordinal.isEmpty() ? OptionalInt.empty() : OptionalInt.of(ordinal.get(0));
+    }
+
+    /** student_id → ordinal de los que ya están en el roster del curso. */
+    public Map<Long, Integer> findOrdinals(long courseId, Collection<Long> studentIds) {
+        Map<Long, Integer> ordinals = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return ordinals;
+        }
+        List<Object> args = new ArrayList<>(studentIds.size() + 1);
+        args.add(courseId);
+        args.addAll(studentIds);
+        jdbc.query("SELECT student_id, ordinal FROM course_roster WHERE course_id = ? AND student_id IN ("
+                        + placeholders(studentIds.size()) + ")",
+                rs -> {
+                    ordinals.put(rs.getLong(1), rs.getInt(2));
+                }, args.toArray());
+        return ordinals;
+    }
+
+    /** Roster completo: posición = ordinal, valor = student_id (0 en un hueco, que no debería haber). */
+    public long[] findRoster(long courseId) {
+        long[][] roster = {new long[0]};
+        jdbc.query("SELECT ordinal, student_id FROM course_roster WHERE course_id = ? ORDER BY ordinal DESC",
+                rs -> {
+                    int ordinal = rs.getInt(1);
+                    if (roster[0].length == 0) {
+                        roster[0] = new long[ordinal + 1];
+                    }
+                    roster[0][ordinal] = rs.getLong(2);
+                }, courseId);
+        return roster[0];
+    }
+
+    /**
+     * Tamaño actual del roster con lock de fila: quien asigna ordinales a un curso espera a que
+     * termine el anterior, así dos transacciones no toman el mismo ordinal.
+     */
+    public int lockRosterSize(long courseId) {
+        // Sin INSERT IGNORE: un curso que no existe (FK) da error en vez de un warning
+        jdbc.update("""
+                        INSERT INTO course_roster_size (course_id) VALUES (?)
+                        ON DUPLICATE KEY UPDATE course_id = course_id""", courseId);
+        return jdbc.queryForObject("SELECT size FROM course_roster_size WHERE course_id = ? FOR UPDATE",
+                Integer.class, courseId);
+    }
+
+    /** Agrega los alumnos al final del roster (ordinales {@code firstOrdinal, firstOrdinal + 1, ...}). */
+    public void appendToRoster(long courseId, int firstOrdinal, List<Long> studentIds) {
+        List<Object> args = new ArrayList<>(studentIds.size() * 3);
+        for (int i = 0; i < studentIds.size(); i++) {
+            Collections.addAll(args, courseId, firstOrdinal + i, studentIds.get(i));
+        }
+        jdbc.update("INSERT INTO course_roster (course_id, ordinal, student_id) VALUES "
+                + String.join(",", Collections.nCopies(studentIds.size(), "(?, ?, ?)")), args.toArray());
+        jdbc.update("UPDATE course_roster_size SET size = ? WHERE course_id = ?",
+                firstOrdinal + studentIds.size(), courseId);
+    }
+
+    /** Cuáles de estos alumnos tienen hoy una matrícula ENROLLED en el curso. */
+    public Set<Long> findEnrolled(long courseId, Collection<Long> studentIds) {
+        Set<Long> found = new HashSet<>();
+        if (studentIds.isEmpty()) {
+            return found;
+        }
+        List<Object> args = new ArrayList<>(studentIds.size() + 1);
+        args.add(courseId);
+        args.addAll(studentIds);
+        jdbc.query("SELECT student_id FROM enrollment WHERE course_id = ? AND status = 'ENROLLED' AND student_id IN ("
+                        + placeholders(studentIds.size()) + ")",
+                rs -> {
+                    found.add(rs.getLong(1));
+                }, args.toArray());
+        return found;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.edira.edira_api.persistence.attendance;
+
+import com.edira.edira_api.domain.attendance.AttendanceRollup.Point;
+import com.edira.edira_api.domain.attendance.RollupGranularity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Acceso JDBC a attendance_rollup. Las escrituras corren dentro de la transacción que cambia los
+ * bitmaps (ver {@code AttendanceRollupService}) y van en INSERT multi-fila de a {@value #CHUNK}.
+ */
+@Repository
+public class AttendanceRollupRepository {
+
+    /** Fila (o diferencia a sumar) de un alumno, o del curso con {@code studentId} 0. */
+    public record RollupRow(long studentId, RollupGranularity granularity, LocalDate periodStart,
+                            int present, int absent, int late) {
+    }
+
+    private static final int CHUNK = 1000;
+
+    // Alias de fila (MySQL 8.0.19+) en lugar de VALUES(), que está deprecado en ON DUPLICATE KEY UPDATE
+    private static final String ADD_ON_DUPLICATE = " AS d ON DUPLICATE KEY UPDATE"
+            + " present = attendance_rollup.present + d.present,"
+            + " absent = attendance_rollup.absent + d.absent,"
+            + " late = attendance_rollup.late + d.late";
+
+    private static final RowMapper<Point> POINT_MAPPER = (rs, rowNum) -> Point.of(
+            rs.getDate("period_start").toLocalDate(), rs.getLong("present"), rs.getLong("absent"), rs.getLong("late"));
+
+    private final JdbcTemplate jdbc;
+
+    public AttendanceRollupRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Suma las diferencias a las filas existentes (o las crea). Las filas van en el orden recibido:
+     * quien llama las ordena por clave para que dos transacciones no se bloqueen en orden cruzado.
+     */
+    public void addDeltas(long tenantId, long courseId, List<RollupRow> deltas) {
+        for (int from = 0; from < deltas.size(); from += CHUNK) {
+            List<RollupRow> chunk = deltas.subList(from, Math.min(from + CHUNK, deltas.size()));
+            jdbc.update(insert(chunk.size()) + ADD_ON_DUPLICATE, args(tenantId, courseId, chunk));
+        }
+    }
+
+    /** Reemplaza todos los totales del curso (rebuild): correrlo dos veces deja lo mismo. */
+    public void replaceCourse(long tenantId, long courseId, List<RollupRow> totals) {
+        jdbc.update("DELETE FROM attendance_rollup WHERE course_id = ?", courseId);
+        for (int from = 0; from < totals.size(); from += CHUNK) {
+            List<RollupRow> chunk = totals.subList(from, Math.min(from + CHUNK, totals.size()));
+            jdbc.update(insert(chunk.size()), args(tenantId, courseId, chunk));
+        }
+    }
+
+    /** Totales de un alumno del curso (0 = el curso) en [from, to]. */
+    public List<Point> findCourse(long courseId, long studentId, RollupGranularity granularity,
+                                  LocalDate from, LocalDate to) {
+        return jdbc.query("""
+                        SELECT period_start, present, absent, late FROM attendance_rollup
+                         WHERE course_id = ? AND student_id = ? AND granularity = ?
+                           AND period_start BETWEEN ? AND ?
+                         ORDER BY period_start""",
+                POINT_MAPPER, courseId, studentId, granularity.name(), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /** Totales sumados sobre los cursos del tenant: de un alumno, o del tenant con {@code studentId} 0. */
+    public List<Point> sumOverCourses(long tenantId, long studentId, RollupGranularity granularity,
+                                      LocalDate from, LocalDate to) {
+        return jdbc.query("""
+                        SELECT period_start, SUM(present) AS present, SUM(absent) AS absent, SUM(late) AS late
+                          FROM attendance_rollup
+                         WHERE tenant_id = ? AND student_id = ? AND granularity = ?
+                           AND period_start BETWEEN ? AND ?
+                         GROUP BY period_start
+                         ORDER BY period_start""",
+                POINT_MAPPER, tenantId, studentId, granularity.name(), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    private static String insert(int rows) {
+        return "INSERT INTO attendance_rollup "
+                + "(tenant_id, course_id, student_id, granularity, period_start, present, absent, late) VALUES "
+                + String.join(",", Collections.nCopies(rows, "(?, ?, ?, ?, ?, ?, ?, ?)"));
+    }
+
+    private static Object[] args(long tenantId, long courseId, List<RollupRow> rows) {
+        List<Object> args = new ArrayList<>(rows.size() * 8);
+        for (RollupRow row : rows) {
+            Collections.addAll(args, tenantId, courseId, row.studentId(), row.granularity().name(),
+                    Date.valueOf(row.periodStart()), row.present(), row.absent(), row.late());
+        }
+        return args.toArray();
+    }
+}
@@ -0,0 +1,93 @@
+package com.edira.edira_api.persistence.attendance;
+
+import com.edira.edira_api.domain.attendance.AttendanceStatus;
+import org.roaringbitmap.buffer.BufferFastAggregation;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Los tres bitmaps de una sesión (presentes, ausentes, atrasados) sobre el ordinal del alumno en
+ * el curso. Leídos desde la base son vistas sobre los bytes, sin deserializar: consultar un
+ * ordinal con {@link #statusOf} no copia nada. Para registrar se crea una copia con {@link #with}.
+ */
+public record SessionBitmaps(ImmutableRoaringBitmap present, ImmutableRoaringBitmap absent,
+                             ImmutableRoaringBitmap late) {
+
+    private static final SessionBitmaps EMPTY = new SessionBitmaps(new MutableRoaringBitmap(),
+            new MutableRoaringBitmap(), new MutableRoaringBitmap());
+
+    public static SessionBitmaps empty() {
+        return EMPTY;
+    }
+
+    /** Vistas sobre los blobs de class_session (formato portable de Roaring). */
+    public static SessionBitmaps wrap(byte[] present, byte[] absent, byte[] late) {
+        return new SessionBitmaps(view(present), view(absent), view(late));
+    }
+
+    /** Estado del ordinal en la sesión, o null si no fue registrado. */
+    public AttendanceStatus statusOf(int ordinal) {
+        if (present.contains(ordinal)) {
+            return AttendanceStatus.PRESENT;
+        }
+        if (late.contains(ordinal)) {
+            return AttendanceStatus.LATE;
+        }
+        if (absent.contains(ordinal)) {
+            return AttendanceStatus.ABSENT;
+        }
+        return null;
+    }
+
+    public ImmutableRoaringBitmap of(AttendanceStatus status) {
+        return switch (status) {
+            case PRESENT -> present;
+            case ABSENT -> absent;
+            case LATE -> late;
+        };
+    }
+
+    /** Todos los ordinales registrados en la sesión, en cualquier estado. */
+    public ImmutableRoaringBitmap marked() {
+        return BufferFastAggregation.or(present, absent, late);
+    }
+
+    /**
+     * Copia con los estados dados (ordinal → estado). Cada ordinal queda en un solo bitmap: se
+     * quita de los tres y se agrega al suyo, con operaciones de conjunto y no bit a bit.
+     */
+    public SessionBitmaps with(Map<Integer, AttendanceStatus> marks) {
+        MutableRoaringBitmap touched = new MutableRoaringBitmap();
+        MutableRoaringBitmap[] added = {new MutableRoaringBitmap(), new MutableRoaringBitmap(), new MutableRoaringBitmap()};
+        marks.forEach((ordinal, status) -> {
+            touched.add(ordinal);
+            added[status.ordinal()].add(ordinal);
+        });
+        return new SessionBitmaps(
+                apply(present, touched, added[AttendanceStatus.PRESENT.ordinal()]),
+                apply(absent, touched, added[AttendanceStatus.ABSENT.ordinal()]),
+                apply(late, touched, added[AttendanceStatus.LATE.ordinal()]));
+    }
+
+    public static byte[] serialize(ImmutableRoaringBitmap bitmap) {
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+        bitmap.serialize(buffer);
+        return buffer.array();
+    }
+
+    private static MutableRoaringBitmap apply(ImmutableRoaringBitmap current, ImmutableRoaringBitmap touched,
+                                              ImmutableRoaringBitmap added) {
+        MutableRoaringBitmap next = ImmutableRoaringBitmap.andNot(current, touched);
+        next.or(added);
+        // Los rangos de ordinales consecutivos (un curso casi todo presente) quedan como runs
+        next.runOptimize();
+        return next;
+    }
+
+    private static ImmutableRoaringBitmap view(byte[] bytes) {
+        return new ImmutableRoaringBitmap(ByteBuffer.wrap(bytes));
+    }
+}
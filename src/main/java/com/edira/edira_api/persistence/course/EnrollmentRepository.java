@@ -0,0 +1,339 @@
+package com.edira.edira_api.persistence.course;
+
+import com.edira.edira_api.domain.course.Course;
+import com.edira.edira_api.domain.course.Enrollment;
+import com.edira.edira_api.domain.course.EnrollmentStatus;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Acceso JDBC a course, course_seat y enrollment. Los métodos {@code lock*} toman locks de fila y
+ * deben correr dentro de la transacción de {@code EnrollmentService}; los de asientos y lista de
+ * espera usan {@code SKIP LOCKED}: una fila que otra transacción tiene tomada no se espera, se salta.
+ */
+@Repository
+public class EnrollmentRepository {
+
+    /** Matrícula bloqueada para darla de baja: su asiento, si tiene. */
+    public record HeldEnrollment(long id, EnrollmentStatus status, Integer seatNo) {
+    }
+
+    private static final String ENROLLMENT_COLUMNS = """
+            e.id, e.course_id, e.student_id, e.status, s.seat_no, e.created_at,
+            CASE WHEN e.status = 'WAITLISTED' THEN
+                 (SELECT COUNT(*) FROM enrollment w
+                   WHERE w.course_id = e.course_id AND w.status = 'WAITLISTED' AND w.id <= e.id)
+            END AS waitlist_position""";
+
+    private final JdbcTemplate jdbc;
+
+    public EnrollmentRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public long insertCourse(long tenantId, String code, String name, int capacity, String createdBy) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO course (tenant_id, code, name, capacity, created_by) VALUES (?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, tenantId);
+            ps.setString(2, code);
+            ps.setString(3, name);
+            ps.setInt(4, capacity);
+            ps.setString(5, createdBy);
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    public Optional<Course> findCourse(long tenantId, long courseId) {
+        return jdbc.query("""
+                        SELECT c.id, c.code, c.name, c.capacity,
+                               (SELECT COUNT(*) FROM course_seat s
+                                 WHERE s.course_id = c.id AND s.enrollment_id IS NOT NULL) AS enrolled,
+                               (SELECT COUNT(*) FROM enrollment e
+                                 WHERE e.course_id = c.id AND e.status = 'WAITLISTED') AS waitlisted
+                          FROM course c
+                         WHERE c.tenant_id = ? AND c.id = ?""",
+                (rs, rowNum) -> new Course(rs.getLong("id"), rs.getString("code"), rs.getString("name"),
+                        rs.getInt("capacity"), rs.getInt("enrolled"), rs.getInt("waitlisted")),
+                tenantId, courseId).stream().findFirst();
+    }
+
+    /** Ids de curso por código dentro del tenant; los que no existen no vienen en el mapa. */
+    public Map<String, Long> findCourseIdsByCode(long tenantId, Collection<String> codes) {
+        Map<String, Long> ids = new HashMap<>();
+        if (codes.isEmpty()) {
+            return ids;
+        }
+        List<Object> args = new ArrayList<>(codes.size() + 1);
+        args.add(tenantId);
+        args.addAll(codes);
+        jdbc.query("SELECT id, code FROM course WHERE tenant_id = ? AND code IN (" + placeholders(codes.size()) + ")",
+                rs -> {
+                    ids.put(rs.getString("code"), rs.getLong("id"));
+                }, args.toArray());
+        return ids;
+    }
+
+    public boolean courseExists(long tenantId, long courseId) {
+        return exists("SELECT EXISTS(SELECT 1 FROM course WHERE tenant_id = ? AND id = ?)", tenantId, courseId);
+    }
+
+    public boolean studentExists(long tenantId, long studentId) {
+        return exists("SELECT EXISTS(SELECT 1 FROM student WHERE tenant_id = ? AND id = ?)", tenantId, studentId);
+    }
+
+    /** Bloquea la fila del curso (cambios de cupo) y devuelve el cupo actual. */
+    public OptionalInt lockCourseCapacity(long tenantId, long courseId) {
+        return jdbc.query("SELECT capacity FROM course WHERE tenant_id = ? AND id = ? FOR UPDATE",
+                        (rs, rowNum) -> rs.getInt(1), tenantId, courseId)
+                .stream().mapToInt(Integer::intValue).findFirst();
+    }
+
+    public void updateCapacity(long courseId, int capacity, String updatedBy) {
+        jdbc.update("UPDATE course SET capacity = ?, updated_by = ? WHERE id = ?", capacity, updatedBy, courseId);
+    }
+
+    public int maxSeatNo(long courseId) {
+        Integer max = jdbc.queryForObject("SELECT COALESCE(MAX(seat_no), 0) FROM course_seat WHERE course_id = ?",
+                Integer.class, courseId);
+        return max == null ? 0 : max;
+    }
+
+    /** Crea {@code count} asientos libres numerados desde {@code firstSeatNo}. */
+    public void addSeats(long courseId, int firstSeatNo, int count) {
+        List<Integer> seats = IntStream.range(firstSeatNo, firstSeatNo + count).boxed().toList();
+        jdbc.batchUpdate("INSERT INTO course_seat (course_id, seat_no) VALUES (?, ?)", seats, 500,
+                (ps, seatNo) -> {
+                    ps.setLong(1, courseId);
+                    ps.setInt(2, seatNo);
+                });
+    }
+
+    /**
+     * Bloquea hasta {@code limit} asientos libres que ninguna otra transacción tenga tomados:
+     * los de número más bajo para matricular, los más altos para reducir el cupo.
+     */
+    public List<Integer> lockFreeSeats(long courseId, int limit, boolean highestFirst) {
+        return jdbc.queryForList("""
+                        SELECT seat_no FROM course_seat
+                         WHERE course_id = ? AND enrollment_id IS NULL
+                         ORDER BY seat_no %s
+                         LIMIT ?
+                         FOR UPDATE SKIP LOCKED""".formatted(highestFirst ? "DESC" : "ASC"),
+                Integer.class, courseId, limit);
+    }
+
+    public void deleteSeats(long courseId, List<Integer> seatNos) {
+        jdbc.batchUpdate("DELETE FROM course_seat WHERE course_id = ? AND seat_no = ? AND enrollment_id IS NULL",
+                seatNos, seatNos.size(), (ps, seatNo) -> {
+                    ps.setLong(1, courseId);
+                    ps.setInt(2, seatNo);
+                });
+    }
+
+    public void assignSeat(long courseId, int seatNo, long enrollmentId, Instant now) {
+        jdbc.update("UPDATE course_seat SET enrollment_id = ?, claimed_at = ? WHERE course_id = ? AND seat_no = ?",
+                enrollmentId, Timestamp.from(now), courseId, seatNo);
+    }
+
+    /** Asigna {@code seatNos[i]} a {@code enrollmentIds[i]} en un solo UPDATE. */
+    public void assignSeats(long courseId, List<Integer> seatNos, List<Long> enrollmentIds, Instant now) {
+        StringBuilder sql = new StringBuilder("UPDATE course_seat SET enrollment_id = CASE seat_no");
+        List<Object> args = new ArrayList<>(enrollmentIds.size() * 3 + 2);
+        for (int i = 0; i < enrollmentIds.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+            args.add(seatNos.get(i));
+            args.add(enrollmentIds.get(i));
+        }
+        sql.append(" END, claimed_at = ? WHERE course_id = ? AND seat_no IN (")
+                .append(placeholders(enrollmentIds.size())).append(')');
+        args.add(Timestamp.from(now));
+        args.add(courseId);
+        args.addAll(seatNos.subList(0, enrollmentIds.size()));
+        jdbc.update(sql.toString(), args.toArray());
+    }
+
+    public void releaseSeat(long courseId, int seatNo) {
+        jdbc.update("UPDATE course_seat SET enrollment_id = NULL, claimed_at = NULL WHERE course_id = ? AND seat_no = ?",
+                courseId, seatNo);
+    }
+
+    /**
+     * INSERT sobre uk_enrollment_course_student: si el alumno ya tiene matrícula en el curso se
+     * devuelve vacío. El duplicado se detecta por la excepción y no por el update count (con
+     * useAffectedRows=false un ON DUPLICATE KEY UPDATE sin cambios también cuenta 1); en MySQL el
+     * error solo deshace la sentencia, la transacción sigue. Una FK rota o un valor truncado sí
+     * propagan, no quedan como warning como con INSERT IGNORE.
+     */
+    public OptionalLong insertEnrollment(long tenantId, long courseId, long studentId, EnrollmentStatus status,
+                                         String createdBy) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        try {
+            jdbc.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement("""
+                                INSERT INTO enrollment (tenant_id, course_id, student_id, status, created_by)
+                                VALUES (?, ?, ?, ?, ?)""",
+                        Statement.RETURN_GENERATED_KEYS);
+                ps.setLong(1, tenantId);
+                ps.setLong(2, courseId);
+                ps.setLong(3, studentId);
+                ps.setString(4, status.name());
+                ps.setString(5, createdBy);
+                return ps;
+            }, keys);
+        } catch (DuplicateKeyException duplicate) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(keys.getKey().longValue());
+    }
+
+    /**
+     * Matrículas WAITLISTED nuevas en un INSERT multi-fila; los ya matriculados se saltan con un
+     * ON DUPLICATE KEY UPDATE que no cambia nada. No INSERT IGNORE: ese también convierte en
+     * warnings una FK rota o un valor truncado y la fila se pierde sin error. No devuelve el update
+     * count: con useAffectedRows=false un duplicado (otra transacción matriculó al alumno recién)
+     * también cuenta 1; las filas nuevas se cuentan releyendo con {@link #findEnrolledStudents}.
+     */
+    public void insertWaitlisted(long tenantId, long courseId, Collection<Long> studentIds, String createdBy) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(studentIds.size() * 4);
+        for (long studentId : studentIds) {
+            Collections.addAll(args, tenantId, courseId, studentId, createdBy);
+        }
+        jdbc.update("INSERT INTO enrollment (tenant_id, course_id, student_id, status, created_by) VALUES "
+                + String.join(",", Collections.nCopies(studentIds.size(), "(?, ?, ?, 'WAITLISTED', ?)"))
+                + " ON DUPLICATE KEY UPDATE id = id", args.toArray());
+    }
+
+    /** Cuáles de estos alumnos ya tienen matrícula (en cualquier estado) en el curso. */
+    public Set<Long> findEnrolledStudents(long courseId, Collection<Long> studentIds) {
+        Set<Long> found = new HashSet<>();
+        if (studentIds.isEmpty()) {
+            return found;
+        }
+        List<Object> args = new ArrayList<>(studentIds.size() + 1);
+        args.add(courseId);
+        args.addAll(studentIds);
+        jdbc.query("SELECT student_id FROM enrollment WHERE course_id = ? AND student_id IN ("
+                        + placeholders(studentIds.size()) + ")",
+                rs -> {
+                    found.add(rs.getLong(1));
+                }, args.toArray());
+        return found;
+    }
+
+    public void markEnrolled(Collection<Long> enrollmentIds) {
+        jdbc.update("UPDATE enrollment SET status = 'ENROLLED' WHERE id IN (" + placeholders(enrollmentIds.size()) + ")",
+                enrollmentIds.toArray());
+    }
+
+    public void updateStatus(long enrollmentId, EnrollmentStatus status) {
+        jdbc.update("UPDATE enrollment SET status = ? WHERE id = ?", status.name(), enrollmentId);
+    }
+
+    public void deleteEnrollment(long enrollmentId) {
+        jdbc.update("DELETE FROM enrollment WHERE id = ?", enrollmentId);
+    }
+
+    public Optional<Enrollment> findEnrollment(long tenantId, long courseId, long studentId) {
+        return jdbc.query("SELECT " + ENROLLMENT_COLUMNS
+                        + " FROM enrollment e LEFT JOIN course_seat s ON s.enrollment_id = e.id"
+                        + " WHERE e.tenant_id = ? AND e.course_id = ? AND e.student_id = ?",
+                (rs, rowNum) -> new Enrollment(
+                        rs.getLong("id"),
+                        rs.getLong("course_id"),
+                        rs.getLong("student_id"),
+                        EnrollmentStatus.valueOf(rs.getString("status")),
+                        rs.getObject("seat_no", Integer.class),
+                        rs.getObject("waitlist_position", Integer.class),
+                        rs.getTimestamp("created_at").toInstant()),
+                tenantId, courseId, studentId).stream().findFirst();
+    }
+
+    /** Bloquea la matrícula y su asiento (si tiene) para darla de baja. */
+    public Optional<HeldEnrollment> lockEnrollment(long tenantId, long courseId, long studentId) {
+        return jdbc.query("""
+                        SELECT e.id, e.status, s.seat_no
+                          FROM enrollment e
+                          LEFT JOIN course_seat s ON s.enrollment_id = e.id
+                         WHERE e.tenant_id = ? AND e.course_id = ? AND e.student_id = ?
+                         FOR UPDATE""",
+                (rs, rowNum) -> new HeldEnrollment(rs.getLong("id"), EnrollmentStatus.valueOf(rs.getString("status")),
+                        rs.getObject("seat_no", Integer.class)),
+                tenantId, courseId, studentId).stream().findFirst();
+    }
+
+    /** Lectura sin lock: el primero de la lista de espera entre las matrículas confirmadas y las propias. */
+    public OptionalLong findWaitlistHead(long courseId) {
+        return jdbc.queryForList("SELECT id FROM enrollment WHERE course_id = ? AND status = 'WAITLISTED' ORDER BY id LIMIT 1",
+                        Long.class, courseId)
+                .stream().mapToLong(Long::longValue).findFirst();
+    }
+
+    /** Bloquea esa matrícula si sigue en espera; false si otra transacción la tiene tomada o ya no espera. */
+    public boolean lockWaitlisted(long enrollmentId) {
+        return !jdbc.queryForList("SELECT id FROM enrollment WHERE id = ? AND status = 'WAITLISTED' FOR UPDATE SKIP LOCKED",
+                Long.class, enrollmentId).isEmpty();
+    }
+
+    /**
+     * Bloquea al primero de la lista de espera. Se salta a quien otra transacción tenga tomado
+     * (una matrícula que todavía no confirma o una baja en curso); el orden es por id.
+     */
+    public OptionalLong lockWaitlistHead(long courseId) {
+        return lockWaitlistHeads(courseId, 1).stream().mapToLong(Long::longValue).findFirst();
+    }
+
+    /** Como {@link #lockWaitlistHead} pero los primeros {@code limit} de la lista. */
+    public List<Long> lockWaitlistHeads(long courseId, int limit) {
+        return jdbc.queryForList("""
+                        SELECT id FROM enrollment
+                         WHERE course_id = ? AND status = 'WAITLISTED'
+                         ORDER BY id
+                         LIMIT ?
+                         FOR UPDATE SKIP LOCKED""", Long.class, courseId, limit);
+    }
+
+    /** Cursos con asientos libres y gente esperando (quedan así tras un rollback o si el primero estaba tomado). */
+    public List<Long> findCoursesWithPromotableWaitlist(int limit) {
+        return jdbc.queryForList("""
+                        SELECT c.id FROM course c
+                         WHERE EXISTS (SELECT 1 FROM enrollment e WHERE e.course_id = c.id AND e.status = 'WAITLISTED')
+                           AND EXISTS (SELECT 1 FROM course_seat s WHERE s.course_id = c.id AND s.enrollment_id IS NULL)
+                         ORDER BY c.id
+                         LIMIT ?""", Long.class, limit);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private boolean exists(String sql, Object... args) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(sql, Boolean.class, args));
+    }
+}
@@ -0,0 +1,11 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import java.util.List;
+
+/**
+ * Sentencia ejecutada con sus parámetros (por índice JDBC, empezando en 1 → posición 0).
+ * Solo se arma cuando un scope pidió capturar (ver {@link RequestSqlStats#captureStatements()}),
+ * lo usan los tests que revisan planes de ejecución.
+ */
+public record CapturedStatement(String sql, List<Object> parameters) {
+}
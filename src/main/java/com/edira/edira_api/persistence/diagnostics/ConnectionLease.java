@@ -0,0 +1,67 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estado de una conexión mientras está fuera del pool: quién la tomó, cuánto esperó,
+ * cuántas sentencias ejecutó y (si fue muestreado) el stack de quien la pidió.
+ */
+final class ConnectionLease {
+
+    static final String NO_TRANSACTION = "-";
+
+    final long id;
+    final String route;
+    final String thread;
+    final Instant acquiredAt;
+    final long acquiredAtNanos;
+    final long acquireWaitNanos;
+    final StackTraceElement[] callSite;
+    final boolean warmup;
+    final AtomicInteger statements = new AtomicInteger();
+
+    // El nombre de la tx (@Transactional) recién existe después del doBegin del
+    // TransactionManager, por eso se captura en la primera sentencia y no al adquirir.
+    private volatile String transaction;
+
+    ConnectionLease(long id, String route, long acquireWaitNanos, StackTraceElement[] callSite, boolean warmup) {
+        this.id = id;
+        this.route = route;
+        this.thread = Thread.currentThread().getName();
+        this.acquiredAt = Instant.now();
+        this.acquiredAtNanos = System.nanoTime();
+        this.acquireWaitNanos = acquireWaitNanos;
+        this.callSite = callSite;
+        this.warmup = warmup;
+    }
+
+    void onStatement() {
+        statements.incrementAndGet();
+        if (transaction == null) {
+            transaction = currentTransactionName();
+        }
+    }
+
+    String transaction() {
+        String tx = transaction;
+        return tx != null ? tx : NO_TRANSACTION;
+    }
+
+    long heldNanos(long nowNanos) {
+        return nowNanos - acquiredAtNanos;
+    }
+
+    // "com.edira...EnrollmentService.enroll" -> "EnrollmentService.enroll"
+    private static String currentTransactionName() {
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name == null) {
+            return NO_TRANSACTION;
+        }
+        int lastDot = name.lastIndexOf('.');
+        int classDot = lastDot > 0 ? name.lastIndexOf('.', lastDot - 1) : -1;
+        return classDot >= 0 ? name.substring(classDot + 1) : name;
+    }
+}
@@ -0,0 +1,29 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+/**
+ * Dueño "lógico" de las conexiones que toma el hilo actual (ruta HTTP).
+ * Lo setea {@link ConnectionRouteInterceptor} al entrar al handler y se limpia al terminar.
+ * Fuera de un request (schedulers, jobs) el dueño es {@link #BACKGROUND}.
+ */
+public final class ConnectionOwnerContext {
+
+    public static final String BACKGROUND = "background";
+
+    private static final ThreadLocal<String> ROUTE = new ThreadLocal<>();
+
+    private ConnectionOwnerContext() {
+    }
+
+    public static void setRoute(String route) {
+        ROUTE.set(route);
+    }
+
+    public static void clear() {
+        ROUTE.remove();
+    }
+
+    public static String currentRoute() {
+        String route = ROUTE.get();
+        return route != null ? route : BACKGROUND;
+    }
+}
@@ -0,0 +1,28 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Marca el hilo con la ruta del handler (patrón, no la URI concreta) para que
+ * las conexiones tomadas durante el request queden atribuidas a ese endpoint.
+ * Se usa el patrón para no explotar la cardinalidad de tags en métricas.
+ */
+public class ConnectionRouteInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : "unmapped";
+        ConnectionOwnerContext.setRoute(request.getMethod() + " " + path);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        ConnectionOwnerContext.clear();
+    }
+}
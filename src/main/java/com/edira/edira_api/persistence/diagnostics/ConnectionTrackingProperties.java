@@ -0,0 +1,23 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuración del rastreo de conexiones JDBC (prefijo {@code edira.db.tracking}).
+ *
+ * @param enabled           envuelve el DataSource con el rastreador
+ * @param longHoldThreshold desde cuánto una conexión tomada se considera "larga"
+ * @param stackSampleRate   fracción (0..1) de adquisiciones a las que se les captura el stack
+ * @param recentLongHolds   cuántas retenciones largas recientes se guardan para el endpoint admin
+ */
+@ConfigurationProperties(prefix = "edira.db.tracking")
+public record ConnectionTrackingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2s") Duration longHoldThreshold,
+        @DefaultValue("0.05") double stackSampleRate,
+        @DefaultValue("50") int recentLongHolds
+) {
+}
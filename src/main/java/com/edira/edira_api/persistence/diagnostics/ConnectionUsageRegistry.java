@@ -0,0 +1,197 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import com.edira.edira_api.shared.warmup.WarmupTraffic;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Acumula el uso de conexiones por dueño (ruta HTTP + método @Transactional) y lo publica
+ * en Micrometer. También mantiene las conexiones tomadas en este momento, que es lo que
+ * interesa mirar cuando el pool de Hikari se queda seco. Las conexiones del tráfico sintético
+ * de warm-up cuentan como tomadas pero no entran en las métricas por dueño ni en las de espera:
+ * esas describen el tráfico real de cada endpoint.
+ */
+public class ConnectionUsageRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionUsageRegistry.class);
+
+    // Se recorta el stack para no inflar la respuesta del endpoint admin
+    private static final int MAX_CALL_SITE_FRAMES = 40;
+
+    private final MeterRegistry meters;
+    private final long longHoldThresholdNanos;
+    private final double stackSampleRate;
+    private final int recentLongHoldsCapacity;
+
+    private final AtomicLong leaseIds = new AtomicLong();
+    private final Map<Long, ConnectionLease> active = new ConcurrentHashMap<>();
+    private final Map<OwnerKey, OwnerStats> owners = new ConcurrentHashMap<>();
+    private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+    private final Deque<ConnectionUsageReport.HeldConnection> recentLongHolds = new ArrayDeque<>();
+
+    public ConnectionUsageRegistry(MeterRegistry meters, ConnectionTrackingProperties properties) {
+        this.meters = meters;
+        this.longHoldThresholdNanos = properties.longHoldThreshold().toNanos();
+        this.stackSampleRate = properties.stackSampleRate();
+        this.recentLongHoldsCapacity = Math.max(1, properties.recentLongHolds());
+    }
+
+    ConnectionLease open(long acquireWaitNanos) {
+        String route = ConnectionOwnerContext.currentRoute();
+        boolean warmup = WarmupTraffic.isActive();
+        StackTraceElement[] callSite = !warmup && shouldSample() ? new Throwable().getStackTrace() : null;
+        ConnectionLease lease = new ConnectionLease(leaseIds.incrementAndGet(), route, acquireWaitNanos, callSite, warmup);
+        active.put(lease.id, lease);
+        if (warmup) {
+            return lease;
+        }
+        acquireTimers.computeIfAbsent(route, r -> Timer.builder("edira.db.connection.acquire")
+                        .description("Espera para obtener una conexión del pool")
+                        .tag("route", r)
+                        .register(meters))
+                .record(acquireWaitNanos, TimeUnit.NANOSECONDS);
+        return lease;
+    }
+
+    void close(ConnectionLease lease) {
+        if (active.remove(lease.id) == null) {
+            return; // doble close
+        }
+        if (lease.warmup) {
+            return;
+        }
+        long held = lease.heldNanos(System.nanoTime());
+        OwnerKey key = new OwnerKey(lease.route, lease.transaction());
+        OwnerStats stats = owners.computeIfAbsent(key, this::newStats);
+        stats.record(lease, held);
+
+        if (held >= longHoldThresholdNanos) {
+            stats.longHolds.increment();
+            stats.longHoldCounter.increment();
+            ConnectionUsageReport.HeldConnection view = toView(lease, held);
+            synchronized (recentLongHolds) {
+                if (recentLongHolds.size() == recentLongHoldsCapacity) {
+                    recentLongHolds.removeLast();
+                }
+                recentLongHolds.addFirst(view);
+            }
+            log.warn("LONG_CONNECTION_HOLD route={} tx={} heldMs={} statements={} sampledStack={}",
+                    lease.route, key.transaction(), view.heldMs(), view.statements(), lease.callSite != null);
+        }
+    }
+
+    public ConnectionUsageReport snapshot() {
+        long now = System.nanoTime();
+        List<ConnectionUsageReport.OwnerUsage> ownerViews = owners.entrySet().stream()
+                .map(e -> e.getValue().toView(e.getKey()))
+                .sorted(Comparator.comparingDouble(ConnectionUsageReport.OwnerUsage::maxHoldMs).reversed())
+                .toList();
+        List<ConnectionUsageReport.HeldConnection> activeViews = active.values().stream()
+                .sorted(Comparator.comparingLong(l -> l.acquiredAtNanos))
+                .map(l -> toView(l, l.heldNanos(now)))
+                .toList();
+        List<ConnectionUsageReport.HeldConnection> longHolds;
+        synchronized (recentLongHolds) {
+            longHolds = List.copyOf(recentLongHolds);
+        }
+        return new ConnectionUsageReport(Instant.now(), TimeUnit.NANOSECONDS.toMillis(longHoldThresholdNanos),
+                ownerViews, activeViews, longHolds);
+    }
+
+    private boolean shouldSample() {
+        return stackSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < stackSampleRate;
+    }
+
+    private OwnerStats newStats(OwnerKey key) {
+        return new OwnerStats(
+                Timer.builder("edira.db.connection.hold")
+                        .description("Tiempo que una conexión estuvo fuera del pool")
+                        .tag("route", key.route())
+                        .tag("tx", key.transaction())
+                        .register(meters),
+                DistributionSummary.builder("edira.db.connection.statements")
+                        .description("Sentencias ejecutadas por conexión tomada")
+                        .tag("route", key.route())
+                        .tag("tx", key.transaction())
+                        .register(meters),
+                Counter.builder("edira.db.connection.long.holds")
+                        .description("Conexiones retenidas sobre el umbral configurado")
+                        .tag("route", key.route())
+                        .tag("tx", key.transaction())
+                        .register(meters));
+    }
+
+    private static ConnectionUsageReport.HeldConnection toView(ConnectionLease lease, long heldNanos) {
+        List<String> callSite = lease.callSite == null ? List.of() : Arrays.stream(lease.callSite)
+                .filter(f -> !f.getClassName().startsWith(ConnectionUsageRegistry.class.getPackageName()))
+                .limit(MAX_CALL_SITE_FRAMES)
+                .map(StackTraceElement::toString)
+                .toList();
+        return new ConnectionUsageReport.HeldConnection(lease.id, lease.route, lease.transaction(), lease.thread,
+                lease.acquiredAt, TimeUnit.NANOSECONDS.toMillis(heldNanos), lease.statements.get(), callSite);
+    }
+
+    private record OwnerKey(String route, String transaction) {
+    }
+
+    private static final class OwnerStats {
+        final Timer holdTimer;
+        final DistributionSummary statementSummary;
+        final Counter longHoldCounter;
+        final LongAdder acquisitions = new LongAdder();
+        final LongAdder acquireWaitNanos = new LongAdder();
+        final LongAccumulator maxAcquireWaitNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder holdNanos = new LongAdder();
+        final LongAccumulator maxHoldNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder statements = new LongAdder();
+        final LongAdder longHolds = new LongAdder();
+
+        OwnerStats(Timer holdTimer, DistributionSummary statementSummary, Counter longHoldCounter) {
+            this.holdTimer = holdTimer;
+            this.statementSummary = statementSummary;
+            this.longHoldCounter = longHoldCounter;
+        }
+
+        void record(ConnectionLease lease, long heldNanos) {
+            int count = lease.statements.get();
+            acquisitions.increment();
+            acquireWaitNanos.add(lease.acquireWaitNanos);
+            maxAcquireWaitNanos.accumulate(lease.acquireWaitNanos);
+            holdNanos.add(heldNanos);
+            maxHoldNanos.accumulate(heldNanos);
+            statements.add(count);
+            holdTimer.record(heldNanos, TimeUnit.NANOSECONDS);
+            statementSummary.record(count);
+        }
+
+        ConnectionUsageReport.OwnerUsage toView(OwnerKey key) {
+            long n = Math.max(1, acquisitions.sum());
+            return new ConnectionUsageReport.OwnerUsage(key.route(), key.transaction(), acquisitions.sum(),
+                    millis(acquireWaitNanos.sum() / (double) n), millis(maxAcquireWaitNanos.get()),
+                    millis(holdNanos.sum() / (double) n), millis(maxHoldNanos.get()),
+                    statements.sum(), longHolds.sum());
+        }
+
+        private static double millis(double nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0; // 2 decimales
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(name = "ConnectionUsageReport", description = "Uso de conexiones JDBC por endpoint y por método @Transactional")
+public record ConnectionUsageReport(
+        Instant generatedAt,
+        @Schema(description = "Umbral desde el que una retención se marca como larga (ms)")
+        long longHoldThresholdMs,
+        @Schema(description = "Estadística acumulada por (ruta, transacción)")
+        List<OwnerUsage> owners,
+        @Schema(description = "Conexiones que están fuera del pool en este momento, de la más antigua a la más nueva")
+        List<HeldConnection> active,
+        @Schema(description = "Últimas retenciones largas ya devueltas al pool")
+        List<HeldConnection> recentLongHolds
+) {
+
+    public record OwnerUsage(
+            String route,
+            String transaction,
+            long acquisitions,
+            double avgAcquireWaitMs,
+            double maxAcquireWaitMs,
+            double avgHoldMs,
+            double maxHoldMs,
+            long statements,
+            long longHolds
+    ) {
+    }
+
+    public record HeldConnection(
+            long leaseId,
+            String route,
+            String transaction,
+            String thread,
+            Instant acquiredAt,
+            long heldMs,
+            int statements,
+            @Schema(description = "Stack del punto de adquisición (solo si la adquisición fue muestreada)")
+            List<String> callSite
+    ) {
+    }
+}
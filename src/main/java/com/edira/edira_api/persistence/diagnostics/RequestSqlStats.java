@@ -0,0 +1,99 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contador de sentencias y tiempo SQL de un scope (un request, o un test con presupuesto).
+ * Los scopes se anidan: lo que se registra en el interno también suma en el padre,
+ * así un test que envuelve varias llamadas MockMvc ve el total.
+ * No es thread-safe a propósito: un scope vive en un solo hilo.
+ */
+public final class RequestSqlStats {
+
+    private final RequestSqlStats parent;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int statements;
+    private long sqlNanos;
+    private String topShape;
+    private int topShapeCount;
+    private List<CapturedStatement> captured;
+
+    RequestSqlStats(RequestSqlStats parent) {
+        this.parent = parent;
+    }
+
+    RequestSqlStats parent() {
+        return parent;
+    }
+
+    void record(String sql, long nanos, List<Object> parameters) {
+        String shape = SqlShape.of(sql);
+        for (RequestSqlStats s = this; s != null; s = s.parent) {
+            s.add(shape, nanos);
+            if (s.captured != null) {
+                s.captured.add(new CapturedStatement(sql, parameters == null ? List.of() : parameters));
+            }
+        }
+    }
+
+    /**
+     * Además de contar, guarda cada sentencia con sus parámetros. Caro: pensado para tests.
+     */
+    public void captureStatements() {
+        if (captured == null) {
+            captured = new ArrayList<>();
+        }
+    }
+
+    boolean capturing() {
+        for (RequestSqlStats s = this; s != null; s = s.parent) {
+            if (s.captured != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<CapturedStatement> captured() {
+        return captured == null ? List.of() : List.copyOf(captured);
+    }
+
+    private void add(String shape, long nanos) {
+        statements++;
+        sqlNanos += nanos;
+        int count = shapes.merge(shape, 1, Integer::sum);
+        if (count > topShapeCount) {
+            topShapeCount = count;
+            topShape = shape;
+        }
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long sqlMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(sqlNanos);
+    }
+
+    public int distinctShapes() {
+        return shapes.size();
+    }
+
+    /** Cuántas veces se ejecutó la forma más repetida (1 = sin repeticiones). */
+    public int maxRepeats() {
+        return topShapeCount;
+    }
+
+    public String mostRepeatedShape() {
+        return topShape;
+    }
+
+    public String summary() {
+        return "statements=" + statements + " sqlMs=" + sqlMillis() + " maxRepeats=" + topShapeCount;
+    }
+}
@@ -0,0 +1,59 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import java.util.List;
+
+/**
+ * Scope de estadísticas SQL del hilo actual. Lo abre {@link SqlStatsFilter} por request
+ * (y los tests con presupuesto de queries); las sentencias solo se instrumentan
+ * si hay un scope abierto, así los jobs en background no pagan el proxy.
+ */
+public final class SqlRequestContext {
+
+    private static final String NO_SCOPE = "-";
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private SqlRequestContext() {
+    }
+
+    public static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end(RequestSqlStats stats) {
+        RequestSqlStats parent = stats.parent();
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    static void record(String sql, long nanos) {
+        record(sql, nanos, null);
+    }
+
+    static void record(String sql, long nanos, List<Object> parameters) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.record(sql, nanos, parameters);
+        }
+    }
+
+    static boolean capturing() {
+        RequestSqlStats stats = CURRENT.get();
+        return stats != null && stats.capturing();
+    }
+
+    /** Resumen para adjuntar a las líneas de log de error ({@code sql=...}). */
+    public static String summary() {
+        RequestSqlStats stats = CURRENT.get();
+        return stats != null ? stats.summary() : NO_SCOPE;
+    }
+}
@@ -0,0 +1,89 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+/**
+ * Normaliza una sentencia SQL a su "forma": literales a {@code ?}, listas IN colapsadas
+ * y espacios compactados. Dos sentencias con la misma forma dentro de un request son
+ * la firma típica de un N+1 (mismo SELECT, distinto id).
+ */
+public final class SqlShape {
+
+    private static final int MAX_LENGTH = 500;
+
+    private SqlShape() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(Math.min(sql.length(), MAX_LENGTH));
+        int i = 0;
+        int n = sql.length();
+        boolean lastSpace = false;
+        while (i < n && out.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                // literal de texto (con '' o \' escapados) -> ?
+                i = skipQuoted(sql, i, c);
+                out.append('?');
+                lastSpace = false;
+                continue;
+            }
+            if (Character.isDigit(c) && !partOfIdentifier(out)) {
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+                lastSpace = false;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                if (!lastSpace && out.length() > 0) {
+                    out.append(' ');
+                }
+                lastSpace = true;
+                i++;
+                continue;
+            }
+            out.append(Character.toLowerCase(c));
+            lastSpace = false;
+            i++;
+        }
+        return collapseInLists(out.toString().trim());
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == quote) {
+                if (i + 1 < n && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return n;
+    }
+
+    // "t1.col2" o "tabla_2": el dígito es parte de un identificador, no un literal
+    private static boolean partOfIdentifier(StringBuilder out) {
+        if (out.isEmpty()) {
+            return false;
+        }
+        char prev = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_' || prev == '`';
+    }
+
+    // "in (?, ?, ?)" -> "in (?)" para que el largo de la lista no genere formas distintas
+    private static String collapseInLists(String shape) {
+        return shape.replaceAll("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)", "(?)");
+    }
+}
@@ -0,0 +1,57 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Abre un scope de estadísticas SQL por request y, al terminar, avisa si el request
+ * pasó los umbrales de sentencias, de tiempo SQL o de repeticiones (N+1).
+ */
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatsFilter.class);
+
+    private final SqlStatsProperties properties;
+
+    public SqlStatsFilter(SqlStatsProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        RequestSqlStats stats = SqlRequestContext.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlRequestContext.end(stats);
+            report(request, response, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response, RequestSqlStats stats) {
+        if (stats.statements() == 0) {
+            return;
+        }
+        boolean nPlusOne = stats.maxRepeats() >= properties.repeatThreshold();
+        boolean tooMany = stats.statements() >= properties.statementThreshold();
+        boolean tooSlow = stats.sqlMillis() >= properties.sqlTimeThreshold().toMillis();
+        if (nPlusOne) {
+            log.warn("SQL_N_PLUS_ONE {} path={} status={} {} shape=\"{}\"",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    stats.summary(), stats.mostRepeatedShape());
+        } else if (tooMany || tooSlow) {
+            log.warn("SQL_BUDGET_EXCEEDED {} path={} status={} {}",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), stats.summary());
+        } else if (log.isDebugEnabled()) {
+            log.debug("SQL {} path={} {}", request.getMethod(), request.getRequestURI(), stats.summary());
+        }
+    }
+}
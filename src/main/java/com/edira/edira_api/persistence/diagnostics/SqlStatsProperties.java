@@ -0,0 +1,23 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Umbrales de las estadísticas SQL por request (prefijo {@code edira.db.sql-stats}).
+ *
+ * @param enabled            mide sentencias y tiempo SQL de cada request
+ * @param statementThreshold sentencias por request desde las que se loguea un warning
+ * @param repeatThreshold    repeticiones de una misma forma de sentencia que se consideran N+1
+ * @param sqlTimeThreshold   tiempo SQL acumulado por request desde el que se loguea un warning
+ */
+@ConfigurationProperties(prefix = "edira.db.sql-stats")
+public record SqlStatsProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("50") int statementThreshold,
+        @DefaultValue("10") int repeatThreshold,
+        @DefaultValue("500ms") Duration sqlTimeThreshold
+) {
+}
@@ -0,0 +1,210 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DataSource que envuelve al pool real y registra, por cada conexión prestada,
+ * la espera de adquisición, el tiempo retenida y cuántas sentencias se prepararon.
+ * Si hay un scope de {@link SqlRequestContext} abierto, además mide cada ejecución
+ * (tiempo y forma de la sentencia) para las estadísticas por request.
+ * Extiende {@link DelegatingDataSource} para que el auto-config de métricas de Hikari
+ * lo siga pudiendo desenvolver.
+ */
+public class TrackingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    private final ConnectionUsageRegistry registry;
+    private final boolean statementTiming;
+
+    public TrackingDataSource(DataSource target, ConnectionUsageRegistry registry) {
+        this(target, registry, true);
+    }
+
+    public TrackingDataSource(DataSource target, ConnectionUsageRegistry registry, boolean statementTiming) {
+        super(target);
+        this.registry = registry;
+        this.statementTiming = statementTiming;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        return track(connection, System.nanoTime() - start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        return track(connection, System.nanoTime() - start);
+    }
+
+    private Connection track(Connection connection, long acquireWaitNanos) {
+        ConnectionLease lease = registry.open(acquireWaitNanos);
+        return (Connection) Proxy.newProxyInstance(
+                TrackingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new TrackedConnectionHandler(connection, lease, registry, statementTiming));
+    }
+
+    private static final class TrackedConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final ConnectionLease lease;
+        private final ConnectionUsageRegistry registry;
+        private final boolean statementTiming;
+
+        TrackedConnectionHandler(Connection target, ConnectionLease lease, ConnectionUsageRegistry registry,
+                                 boolean statementTiming) {
+            this.target = target;
+            this.lease = lease;
+            this.registry = registry;
+            this.statementTiming = statementTiming;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TrackedConnection[" + lease.id + ", " + target + "]";
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    try {
+                        return invokeTarget(target, method, args);
+                    } finally {
+                        registry.close(lease);
+                    }
+                default:
+                    if (STATEMENT_FACTORIES.contains(name)) {
+                        lease.onStatement();
+                        Object statement = invokeTarget(target, method, args);
+                        if (statementTiming && SqlRequestContext.current() != null) {
+                            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                            return timed((Statement) statement, sql, (Connection) proxy);
+                        }
+                        return statement;
+                    }
+            }
+            return invokeTarget(target, method, args);
+        }
+    }
+
+    // El proxy implementa la interfaz más específica que devolvió el driver
+    private static Statement timed(Statement statement, String sql, Connection connection) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+                TrackingDataSource.class.getClassLoader(),
+                new Class<?>[]{type},
+                new TimedStatementHandler(statement, sql, connection, SqlRequestContext.capturing()));
+    }
+
+    private static final class TimedStatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final Connection connection;
+        // Parámetros bindeados, solo si algún scope está capturando (tests de planes)
+        private final List<Object> parameters;
+
+        TimedStatementHandler(Statement target, String preparedSql, Connection connection, boolean capture) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.connection = connection;
+            this.parameters = capture ? new ArrayList<>() : null;
+        }
+
+        private void bind(String setter, Object[] args) {
+            int index = (Integer) args[0] - 1;
+            while (parameters.size() <= index) {
+                parameters.add(null);
+            }
+            // setNull(idx, sqlType): el segundo argumento es el tipo, no el valor
+            parameters.set(index, "setNull".equals(setter) ? null : args[1]);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connection;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "clearParameters":
+                    if (parameters != null) {
+                        parameters.clear();
+                    }
+                    break;
+                default:
+                    if (name.startsWith("execute")) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                        long start = System.nanoTime();
+                        try {
+                            return invokeTarget(target, method, args);
+                        } finally {
+                            SqlRequestContext.record(sql, System.nanoTime() - start,
+                                    parameters == null ? null : Arrays.asList(parameters.toArray()));
+                        }
+                    }
+                    if (parameters != null && name.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer) {
+                        bind(name, args);
+                    }
+            }
+            return invokeTarget(target, method, args);
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.edira.edira_api.persistence.gradebook;
+
+import com.edira.edira_api.domain.gradebook.Evaluation;
+import com.edira.edira_api.domain.gradebook.StudentGrades;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Acceso JDBC a evaluation, grade, grade_aggregate y gradebook_course. Las notas viajan en décimas
+ * ({@code 5.5} = 55); los métodos {@code lock*} deben correr dentro de la transacción de
+ * {@code GradebookService}.
+ */
+@Repository
+public class GradebookRepository {
+
+    /** Sumas corridas de un alumno en el curso (ver V10__gradebook.sql). */
+    public record Aggregate(long weightedSum, long weightTotal, int gradedCount) {
+
+        public static final Aggregate EMPTY = new Aggregate(0, 0, 0);
+    }
+
+    /** Recibe las sumas de cada alumno del curso con al menos una nota. */
+    @FunctionalInterface
+    public interface AggregateHandler {
+        void accept(long studentId, long weightedSum, long weightTotal);
+    }
+
+    private static final RowMapper<Evaluation> EVALUATION_MAPPER = (rs, rowNum) -> new Evaluation(
+            rs.getLong("id"), rs.getLong("course_id"), rs.getString("code"), rs.getString("name"), rs.getInt("weight"));
+
+    private static final String EVALUATION_COLUMNS = "id, course_id, code, name, weight";
+
+    private final JdbcTemplate jdbc;
+
+    public GradebookRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public long insertEvaluation(long tenantId, long courseId, String code, String name, int weight, String createdBy) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                            INSERT INTO evaluation (tenant_id, course_id, code, name, weight, created_by)
+                            VALUES (?, ?, ?, ?, ?, ?)""",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, tenantId);
+            ps.setLong(2, courseId);
+            ps.setString(3, code);
+            ps.setString(4, name);
+            ps.setInt(5, weight);
+            ps.setString(6, createdBy);
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    public Optional<Evaluation> findEvaluation(long tenantId, long courseId, long evaluationId) {
+        return jdbc.query("SELECT " + EVALUATION_COLUMNS + " FROM evaluation WHERE tenant_id = ? AND course_id = ? AND id = ?",
+                EVALUATION_MAPPER, tenantId, courseId, evaluationId).stream().findFirst();
+    }
+
+    public List<Evaluation> findEvaluations(long tenantId, long courseId) {
+        return jdbc.query("SELECT " + EVALUATION_COLUMNS + " FROM evaluation WHERE tenant_id = ? AND course_id = ? ORDER BY id",
+                EVALUATION_MAPPER, tenantId, courseId);
+    }
+
+    public void updateEvaluation(long evaluationId, String code, String name, int weight, String updatedBy) {
+        jdbc.update("UPDATE evaluation SET code = ?, name = ?, weight = ?, updated_by = ? WHERE id = ?",
+                code, name, weight, updatedBy, evaluationId);
+    }
+
+    /**
+     * Versión del gradebook del curso con lock de fila: las escrituras de notas y pesos del curso
+     * esperan a la anterior, así las sumas corridas se leen y se escriben sin pisarse.
+     */
+    public long lockVersion(long courseId) {
+        // Sin INSERT IGNORE: un curso que no existe (FK) da error en vez de un warning
+        jdbc.update("""
+                        INSERT INTO gradebook_course (course_id) VALUES (?)
+                        ON DUPLICATE KEY UPDATE course_id = course_id""", courseId);
+        return jdbc.queryForObject("SELECT version FROM gradebook_course WHERE course_id = ? FOR UPDATE",
+                Long.class, courseId);
+    }
+
+    public void updateVersion(long courseId, long version) {
+        jdbc.update("UPDATE gradebook_course SET version = ? WHERE course_id = ?", version, courseId);
+    }
+
+    /** Versión actual (0 si el curso nunca tuvo notas), sin lock. */
+    public long findVersion(long courseId) {
+        List<Long> version = jdbc.queryForList("SELECT version FROM gradebook_course WHERE course_id = ?",
+                Long.class, courseId);
+        return version.isEmpty() ? 0 : version.get(0);
+    }
+
+    /** student_id → nota en décimas de los que ya tienen nota en la evaluación. */
+    public Map<Long, Integer> findScores(long evaluationId, Collection<Long> studentIds) {
+        Map<Long, Integer> scores = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return scores;
+        }
+        List<Object> args = new ArrayList<>(studentIds.size() + 1);
+        args.add(evaluationId);
+        args.addAll(studentIds);
+        jdbc.query("SELECT student_id, score FROM grade WHERE evaluation_id = ? AND student_id IN ("
+                        + placeholders(studentIds.size()) + ")",
+                rs -> {
+                    scores.put(rs.getLong(1), tenths(rs.getBigDecimal(2)));
+                }, args.toArray());
+        return scores;
+    }
+
+    /** Inserta o reemplaza las notas (décimas) en un solo INSERT multi-fila. */
+    public void upsertGrades(long courseId, long evaluationId, Map<Long, Integer> scores, String updatedBy) {
+        if (scores.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(scores.size() * 5);
+        scores.forEach((studentId, score) -> Collections.addAll(args, evaluationId, studentId, courseId,
+                BigDecimal.valueOf(score, 1), updatedBy));
+        jdbc.update("INSERT INTO grade (evaluation_id, student_id, course_id, score, updated_by) VALUES "
+                        + String.join(",", Collections.nCopies(scores.size(), "(?, ?, ?, ?, ?)"))
+                        + " AS g ON DUPLICATE KEY UPDATE score = g.score, updated_by = g.updated_by",
+                args.toArray());
+    }
+
+    public Map<Long, Aggregate> findAggregates(long courseId, Collection<Long> studentIds) {
+        Map<Long, Aggregate> aggregates = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return aggregates;
+        }
+        List<Object> args = new ArrayList<>(studentIds.size() + 1);
+        args.add(courseId);
+        args.addAll(studentIds);
+        jdbc.query("SELECT student_id, weighted_sum, weight_total, graded_count FROM grade_aggregate"
+                        + " WHERE course_id = ? AND student_id IN (" + placeholders(studentIds.size()) + ")",
+                rs -> {
+                    aggregates.put(rs.getLong(1), new Aggregate(rs.getLong(2), rs.getLong(3), rs.getInt(4)));
+                }, args.toArray());
+        return aggregates;
+    }
+
+    /**
+     * Guarda las sumas ya calculadas de estos alumnos. Las filas van en el orden recibido: quien
+     * llama las ordena por alumno.
+     */
+    public void upsertAggregates(long tenantId, long courseId, Map<Long, Aggregate> aggregates) {
+        if (aggregates.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(aggregates.size() * 6);
+        aggregates.forEach((studentId, aggregate) -> Collections.addAll(args, courseId, studentId, tenantId,
+                aggregate.weightedSum(), aggregate.weightTotal(), aggregate.gradedCount()));
+        jdbc.update("INSERT INTO grade_aggregate (course_id, student_id, tenant_id, weighted_sum, weight_total, graded_count) VALUES "
+                        + String.join(",", Collections.nCopies(aggregates.size(), "(?, ?, ?, ?, ?, ?)"))
+                        + " AS a ON DUPLICATE KEY UPDATE weighted_sum = a.weighted_sum,"
+                        + " weight_total = a.weight_total, graded_count = a.graded_count",
+                args.toArray());
+    }
+
+    /**
+     * Cambio de peso de una evaluación: ajusta en un UPDATE las sumas de todos los alumnos con nota
+     * en ella ({@code weighted_sum} guarda décimas, de ahí el × 10).
+     *
+     * @return alumnos ajustados
+     */
+    public int reweigh(long evaluationId, int weightDelta) {
+        return jdbc.update("""
+                        UPDATE grade_aggregate a
+                          JOIN grade g ON g.course_id = a.course_id AND g.student_id = a.student_id
+                           SET a.weighted_sum = a.weighted_sum + ? * g.score * 10,
+                               a.weight_total = a.weight_total + ?
+                         WHERE g.evaluation_id = ?""",
+                weightDelta, weightDelta, evaluationId);
+    }
+
+    public Optional<Aggregate> findAggregate(long courseId, long studentId) {
+        return jdbc.query("SELECT weighted_sum, weight_total, graded_count FROM grade_aggregate WHERE course_id = ? AND student_id = ?",
+                (rs, rowNum) -> new Aggregate(rs.getLong(1), rs.getLong(2), rs.getInt(3)), courseId, studentId)
+                .stream().findFirst();
+    }
+
+    /** Sumas de todos los alumnos del curso con nota, fila por fila (rebuild del ranking). */
+    public void forEachAggregate(long courseId, AggregateHandler handler) {
+        jdbc.query("SELECT student_id, weighted_sum, weight_total FROM grade_aggregate WHERE course_id = ? AND weight_total > 0",
+                rs -> {
+                    handler.accept(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+                }, courseId);
+    }
+
+    /** Los {@code limit} mejores promedios del curso (empates por id de alumno). */
+    public List<Long> findTopStudents(long courseId, int limit) {
+        return jdbc.queryForList("""
+                        SELECT student_id FROM grade_aggregate
+                         WHERE course_id = ? AND weight_total > 0
+                         ORDER BY weighted_sum / weight_total DESC, student_id
+                         LIMIT ?""",
+                Long.class, courseId, limit);
+    }
+
+    /** Todas las evaluaciones del curso con la nota del alumno (null si aún no tiene). */
+    public List<StudentGrades.Entry> findStudentGrades(long tenantId, long courseId, long studentId) {
+        return jdbc.query("""
+                        SELECT e.id, e.code, e.name, e.weight, g.score
+                          FROM evaluation e
+                          LEFT JOIN grade g ON g.evaluation_id = e.id AND g.student_id = ?
+                         WHERE e.tenant_id = ? AND e.course_id = ?
+                         ORDER BY e.id""",
+                (rs, rowNum) -> new StudentGrades.Entry(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getInt(4), rs.getBigDecimal(5)),
+                studentId, tenantId, courseId);
+    }
+
+    /** Cuáles de estos alumnos tienen hoy una matrícula ENROLLED en el curso. */
+    public Set<Long> findEnrolled(long courseId, Collection<Long> studentIds) {
+        Set<Long> found = new HashSet<>();
+        if (studentIds.isEmpty()) {
+            return found;
+        }
+        List<Object> args = new ArrayList<>(studentIds.size() + 1);
+        args.add(courseId);
+        args.addAll(studentIds);
+        jdbc.query("SELECT student_id FROM enrollment WHERE course_id = ? AND status = 'ENROLLED' AND student_id IN ("
+                        + placeholders(studentIds.size()) + ")",
+                rs -> {
+                    found.add(rs.getLong(1));
+                }, args.toArray());
+        return found;
+    }
+
+    private static int tenths(BigDecimal score) {
+        return score.movePointRight(1).intValueExact();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.edira.edira_api.persistence.gradebook;
+
+import com.edira.edira_api.domain.gradebook.FinalGrade;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a grading_formula y final_grade, y lectura de las notas de todo un curso para
+ * recalcular. Las notas viajan en décimas como en {@link GradebookRepository}.
+ */
+@Repository
+public class GradingFormulaRepository {
+
+    /** Una versión guardada de la fórmula del curso. */
+    public record StoredFormula(int version, String source) {
+    }
+
+    /** Recibe cada nota del curso con el código de su evaluación. */
+    @FunctionalInterface
+    public interface ScoreHandler {
+        void accept(long studentId, String code, int tenths);
+    }
+
+    private static final int INSERT_CHUNK = 1000;
+
+    private final JdbcTemplate jdbc;
+
+    public GradingFormulaRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<StoredFormula> findCurrent(long tenantId, long courseId) {
+        return jdbc.query("""
+                        SELECT version, source FROM grading_formula
+                         WHERE tenant_id = ? AND course_id = ?
+                         ORDER BY version DESC LIMIT 1""",
+                (rs, rowNum) -> new StoredFormula(rs.getInt(1), rs.getString(2)), tenantId, courseId)
+                .stream().findFirst();
+    }
+
+    /** Guarda una versión nueva; quien llama tiene el lock del curso ({@link GradebookRepository#lockVersion}). */
+    public void insert(long tenantId, long courseId, int version, String source, String createdBy) {
+        jdbc.update("INSERT INTO grading_formula (course_id, version, tenant_id, source, created_by) VALUES (?, ?, ?, ?, ?)",
+                courseId, version, tenantId, source, createdBy);
+    }
+
+    /** Cursos del tenant con fórmula (job de recálculo). */
+    public List<Long> findCoursesWithFormula(long tenantId) {
+        return jdbc.queryForList("SELECT DISTINCT course_id FROM grading_formula WHERE tenant_id = ? ORDER BY course_id",
+                Long.class, tenantId);
+    }
+
+    /** Alumnos con matrícula ENROLLED en el curso, ordenados por id. */
+    public long[] findEnrolledStudents(long courseId) {
+        return jdbc.queryForList("SELECT student_id FROM enrollment WHERE course_id = ? AND status = 'ENROLLED' ORDER BY student_id",
+                Long.class, courseId).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /** Todas las notas del curso, fila por fila. */
+    public void forEachScore(long courseId, ScoreHandler handler) {
+        jdbc.query("""
+                        SELECT g.student_id, e.code, g.score
+                          FROM grade g
+                          JOIN evaluation e ON e.id = g.evaluation_id
+                         WHERE g.course_id = ?""",
+                rs -> {
+                    handler.accept(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3).movePointRight(1).intValueExact());
+                }, courseId);
+    }
+
+    /**
+     * Reemplaza las notas finales del curso.
+     *
+     * @param tenths una por alumno de {@code studentIds}, en décimas; negativa = sin nota
+     */
+    public void replaceFinalGrades(long tenantId, long courseId, int formulaVersion, long[] studentIds, int[] tenths) {
+        jdbc.update("DELETE FROM final_grade WHERE course_id = ?", courseId);
+        for (int from = 0; from < studentIds.length; from += INSERT_CHUNK) {
+            int to = Math.min(studentIds.length, from + INSERT_CHUNK);
+            List<Object> args = new ArrayList<>((to - from) * 5);
+            for (int i = from; i < to; i++) {
+                Collections.addAll(args, courseId, studentIds[i], tenantId, formulaVersion,
+                        tenths[i] < 0 ? null : BigDecimal.valueOf(tenths[i], 1));
+            }
+            jdbc.update("INSERT INTO final_grade (course_id, student_id, tenant_id, formula_version, score) VALUES "
+                            + String.join(",", Collections.nCopies(to - from, "(?, ?, ?, ?, ?)")),
+                    args.toArray());
+        }
+    }
+
+    public List<FinalGrade> findFinalGrades(long tenantId, long courseId) {
+        return jdbc.query("""
+                        SELECT student_id, score, formula_version FROM final_grade
+                         WHERE tenant_id = ? AND course_id = ?
+                         ORDER BY student_id""",
+                (rs, rowNum) -> new FinalGrade(rs.getLong(1), rs.getBigDecimal(2), rs.getInt(3)),
+                tenantId, courseId);
+    }
+}
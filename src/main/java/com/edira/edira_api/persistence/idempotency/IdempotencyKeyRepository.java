@@ -0,0 +1,104 @@
+package com.edira.edira_api.persistence.idempotency;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a idempotency_key. El reclamo de una key es un INSERT sobre la PK
+ * (tenant_id, idem_key): el que inserta ejecuta, el resto ve la fila existente.
+ * El que reclama guarda un claim_token; completar, renovar y liberar solo tocan la fila
+ * si el token sigue siendo el suyo (si el lease venció y otro la reclamó, no la pisa).
+ * Las fechas se calculan en Java (mismo reloj para escribir, comparar y purgar).
+ */
+@Repository
+public class IdempotencyKeyRepository {
+
+    private static final RowMapper<IdempotencyRecord> ROW_MAPPER = (rs, rowNum) -> new IdempotencyRecord(
+            rs.getLong("tenant_id"),
+            rs.getString("idem_key"),
+            rs.getBytes("request_hash"),
+            "COMPLETED".equals(rs.getString("state")),
+            rs.getInt("status_code"),
+            rs.getString("content_type"),
+            rs.getString("location"),
+            rs.getBytes("body"),
+            rs.getTimestamp("expires_at").toInstant());
+
+    private final JdbcTemplate jdbc;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<IdempotencyRecord> find(long tenantId, String key) {
+        return jdbc.query("""
+                        SELECT tenant_id, idem_key, request_hash, state, status_code, content_type, location, body, expires_at
+                          FROM idempotency_key
+                         WHERE tenant_id = ? AND idem_key = ?""",
+                ROW_MAPPER, tenantId, key).stream().findFirst();
+    }
+
+    /**
+     * Intenta quedarse con la key. Vacío = reclamada por este request con {@code claimToken}
+     * (fila IN_PROGRESS hasta {@code leaseUntil}); si no, la fila vigente de otro request.
+     * Una fila vencida (p.ej. IN_PROGRESS de un nodo que murió) se borra y se reintenta una vez.
+     */
+    public Optional<IdempotencyRecord> claim(long tenantId, String key, byte[] requestHash, String claimToken,
+                                             Instant now, Instant leaseUntil) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                jdbc.update("""
+                                INSERT INTO idempotency_key (tenant_id, idem_key, request_hash, state, claim_token, expires_at)
+                                VALUES (?, ?, ?, 'IN_PROGRESS', ?, ?)""",
+                        tenantId, key, requestHash, claimToken, Timestamp.from(leaseUntil));
+                return Optional.empty();
+            } catch (DuplicateKeyException duplicate) {
+                Optional<IdempotencyRecord> existing = find(tenantId, key);
+                if (existing.isPresent() && !existing.get().expired(now)) {
+                    return existing;
+                }
+                jdbc.update("DELETE FROM idempotency_key WHERE tenant_id = ? AND idem_key = ? AND expires_at <= ?",
+                        tenantId, key, Timestamp.from(now));
+            }
+        }
+        return find(tenantId, key);
+    }
+
+    // false = la fila ya no es de este request (lease vencido y reclamado por otro)
+    public boolean complete(IdempotencyRecord record, String claimToken) {
+        return jdbc.update("""
+                        UPDATE idempotency_key
+                           SET state = 'COMPLETED', claim_token = NULL, status_code = ?, content_type = ?, location = ?,
+                               body = ?, expires_at = ?
+                         WHERE tenant_id = ? AND idem_key = ? AND state = 'IN_PROGRESS' AND claim_token = ?""",
+                record.status(), record.contentType(), record.location(), record.body(),
+                Timestamp.from(record.expiresAt()), record.tenantId(), record.key(), claimToken) == 1;
+    }
+
+    // Extiende el lease mientras el handler sigue corriendo; false = la fila ya no es de este request
+    public boolean renew(long tenantId, String key, String claimToken, Instant leaseUntil) {
+        return jdbc.update("""
+                        UPDATE idempotency_key SET expires_at = ?
+                         WHERE tenant_id = ? AND idem_key = ? AND state = 'IN_PROGRESS' AND claim_token = ?""",
+                Timestamp.from(leaseUntil), tenantId, key, claimToken) == 1;
+    }
+
+    // El request no dejó respuesta guardable (5xx, excepción, body muy grande): la key queda libre
+    public void release(long tenantId, String key, String claimToken) {
+        jdbc.update("""
+                        DELETE FROM idempotency_key
+                         WHERE tenant_id = ? AND idem_key = ? AND state = 'IN_PROGRESS' AND claim_token = ?""",
+                tenantId, key, claimToken);
+    }
+
+    // Un lote por llamada (DELETE ... LIMIT usa idx_idempotency_expires); devuelve filas borradas
+    public int deleteExpired(Instant now, int batchSize) {
+        return jdbc.update("DELETE FROM idempotency_key WHERE expires_at <= ? LIMIT ?", Timestamp.from(now), batchSize);
+    }
+}
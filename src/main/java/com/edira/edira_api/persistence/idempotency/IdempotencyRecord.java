@@ -0,0 +1,34 @@
+package com.edira.edira_api.persistence.idempotency;
+
+import java.security.MessageDigest;
+import java.time.Instant;
+
+/**
+ * Fila de idempotency_key. Mientras el primer request corre queda {@code completed=false}
+ * y sin respuesta; al terminar guarda status, headers relevantes y body tal cual se enviaron.
+ */
+public record IdempotencyRecord(
+        long tenantId,
+        String key,
+        byte[] requestHash,
+        boolean completed,
+        int status,
+        String contentType,
+        String location,
+        byte[] body,
+        Instant expiresAt
+) {
+
+    public static IdempotencyRecord completed(long tenantId, String key, byte[] requestHash, int status,
+                                              String contentType, String location, byte[] body, Instant expiresAt) {
+        return new IdempotencyRecord(tenantId, key, requestHash, true, status, contentType, location, body, expiresAt);
+    }
+
+    public boolean sameRequest(byte[] otherHash) {
+        return MessageDigest.isEqual(requestHash, otherHash);
+    }
+
+    public boolean expired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
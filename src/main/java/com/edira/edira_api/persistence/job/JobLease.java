@@ -0,0 +1,7 @@
+package com.edira.edira_api.persistence.job;
+
+/**
+ * Quién corre el job y en qué intento. Toda escritura de un worker filtra por los tres campos.
+ */
+public record JobLease(long jobId, String owner, int attempt) {
+}
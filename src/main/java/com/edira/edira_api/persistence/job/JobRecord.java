@@ -0,0 +1,35 @@
+package com.edira.edira_api.persistence.job;
+
+import com.edira.edira_api.domain.job.JobProgress;
+import com.edira.edira_api.domain.job.JobState;
+import com.edira.edira_api.shared.error.ApiError;
+
+import java.time.Instant;
+
+/**
+ * Fila de job sin el resultado (el MEDIUMBLOB se lee aparte, solo al descargarlo).
+ */
+public record JobRecord(
+        long id,
+        long tenantId,
+        String type,
+        JobState state,
+        String payload,
+        JobProgress progress,
+        boolean cancelRequested,
+        int attempts,
+        String leaseOwner,
+        boolean hasResult,
+        String resultType,
+        ApiError error,
+        String createdBy,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt
+) {
+
+    /** Lease de la toma actual (el intento es el token que impide escribir a un nodo que lo perdió). */
+    public JobLease lease() {
+        return new JobLease(id, leaseOwner, attempts);
+    }
+}
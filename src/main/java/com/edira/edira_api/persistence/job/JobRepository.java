@@ -0,0 +1,240 @@
+package com.edira.edira_api.persistence.job;
+
+import com.edira.edira_api.domain.job.JobProgress;
+import com.edira.edira_api.domain.job.JobState;
+import com.edira.edira_api.shared.error.ApiError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a job. La toma usa {@code FOR UPDATE SKIP LOCKED} (dos nodos nunca ven la misma
+ * fila QUEUED) y cada escritura de un worker filtra por su {@link JobLease}: si el lease venció y
+ * otro nodo tomó el job, el UPDATE no afecta filas y el worker se entera de que lo perdió.
+ * Las fechas se calculan en Java (mismo reloj para leases, recuperación y purga).
+ */
+@Repository
+public class JobRepository {
+
+    private static final String COLUMNS = """
+            id, tenant_id, type, state, payload, progress_done, progress_total, progress_message, cancel_requested,
+            attempts, lease_owner, result IS NOT NULL AS has_result, result_type, error, created_by,
+            created_at, started_at, finished_at""";
+
+    /** Resultado descargable de un job. */
+    public record StoredResult(JobState state, String contentType, byte[] body) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+    private final RowMapper<JobRecord> rowMapper;
+
+    public JobRepository(JdbcTemplate jdbc, ObjectMapper objectMapper) {
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+        this.rowMapper = (rs, rowNum) -> {
+            long total = rs.getLong("progress_total");
+            return new JobRecord(
+                    rs.getLong("id"),
+                    rs.getLong("tenant_id"),
+                    rs.getString("type"),
+                    JobState.valueOf(rs.getString("state")),
+                    rs.getString("payload"),
+                    new JobProgress(rs.getLong("progress_done"), rs.wasNull() ? null : total, rs.getString("progress_message")),
+                    rs.getBoolean("cancel_requested"),
+                    rs.getInt("attempts"),
+                    rs.getString("lease_owner"),
+                    rs.getBoolean("has_result"),
+                    rs.getString("result_type"),
+                    readError(rs.getString("error")),
+                    rs.getString("created_by"),
+                    instant(rs.getTimestamp("created_at")),
+                    instant(rs.getTimestamp("started_at")),
+                    instant(rs.getTimestamp("finished_at")));
+        };
+    }
+
+    public long insert(long tenantId, String type, String payload, String createdBy) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO job (tenant_id, type, payload, created_by) VALUES (?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, tenantId);
+            ps.setString(2, type);
+            ps.setString(3, payload);
+            ps.setString(4, createdBy);
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    public Optional<JobRecord> find(long tenantId, long id) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM job WHERE tenant_id = ? AND id = ?", rowMapper, tenantId, id)
+                .stream().findFirst();
+    }
+
+    public Optional<StoredResult> findResult(long tenantId, long id) {
+        return jdbc.query("SELECT state, result_type, result FROM job WHERE tenant_id = ? AND id = ?",
+                (rs, rowNum) -> new StoredResult(JobState.valueOf(rs.getString("state")), rs.getString("result_type"),
+                        rs.getBytes("result")), tenantId, id).stream().findFirst();
+    }
+
+    /**
+     * Bloquea hasta {@code limit} jobs QUEUED que ningún otro nodo tenga tomados, sin los de
+     * {@code skipTenants} (los que ya tienen el cupo lleno en este nodo).
+     * Debe correr dentro de la transacción que después llama a {@link #markRunning}.
+     */
+    public List<JobRecord> lockQueued(int limit, Collection<Long> skipTenants) {
+        List<Object> args = new ArrayList<>(skipTenants);
+        args.add(limit);
+        String skip = skipTenants.isEmpty() ? ""
+                : " AND tenant_id NOT IN (" + String.join(",", Collections.nCopies(skipTenants.size(), "?")) + ")";
+        return jdbc.query("SELECT " + COLUMNS + " FROM job WHERE state = 'QUEUED'" + skip
+                + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED", rowMapper, args.toArray());
+    }
+
+    /** Pasa a RUNNING los jobs bloqueados; cada uno queda con attempts + 1. */
+    public void markRunning(List<Long> ids, String owner, Instant leaseUntil, Instant now) {
+        jdbc.batchUpdate("""
+                        UPDATE job
+                           SET state = 'RUNNING', lease_owner = ?, lease_expires_at = ?, attempts = attempts + 1,
+                               started_at = COALESCE(started_at, ?)
+                         WHERE id = ? AND state = 'QUEUED'""",
+                ids, ids.size(), (ps, id) -> {
+                    ps.setString(1, owner);
+                    ps.setTimestamp(2, Timestamp.from(leaseUntil));
+                    ps.setTimestamp(3, Timestamp.from(now));
+                    ps.setLong(4, id);
+                });
+    }
+
+    /** Renueva el lease y guarda el avance. false = el lease ya no es de este worker. */
+    public boolean heartbeat(JobLease lease, Instant leaseUntil, JobProgress progress) {
+        return jdbc.update("""
+                        UPDATE job
+                           SET lease_expires_at = ?, progress_done = ?, progress_total = ?, progress_message = ?
+                         WHERE id = ? AND lease_owner = ? AND attempts = ? AND state = 'RUNNING'""",
+                Timestamp.from(leaseUntil), progress.done(), progress.total(), truncate(progress.message()),
+                lease.jobId(), lease.owner(), lease.attempt()) == 1;
+    }
+
+    public List<Long> findCancelRequested(String owner) {
+        return jdbc.queryForList("SELECT id FROM job WHERE lease_owner = ? AND state = 'RUNNING' AND cancel_requested",
+                Long.class, owner);
+    }
+
+    /** Cierra el job. false = el lease ya no es de este worker y no se escribió nada. */
+    public boolean finish(JobLease lease, JobState state, JobProgress progress, String resultType, byte[] result,
+                          ApiError error, Instant now) {
+        return jdbc.update("""
+                        UPDATE job
+                           SET state = ?, progress_done = ?, progress_total = ?, progress_message = ?,
+                               result_type = ?, result = ?, error = ?, finished_at = ?,
+                               lease_owner = NULL, lease_expires_at = NULL
+                         WHERE id = ? AND lease_owner = ? AND attempts = ? AND state = 'RUNNING'""",
+                state.name(), progress.done(), progress.total(), truncate(progress.message()),
+                resultType, result, writeError(error), Timestamp.from(now),
+                lease.jobId(), lease.owner(), lease.attempt()) == 1;
+    }
+
+    /** Cierra un job que todavía no corrió (tipo desconocido, cancelado antes de tomarlo). */
+    public void finishQueued(long id, JobState state, ApiError error, Instant now) {
+        jdbc.update("UPDATE job SET state = ?, error = ?, finished_at = ? WHERE id = ? AND state = 'QUEUED'",
+                state.name(), writeError(error), Timestamp.from(now), id);
+    }
+
+    /**
+     * Cancelación pedida por el cliente: un QUEUED se cancela de inmediato; un RUNNING queda
+     * marcado y su worker lo ve en el próximo heartbeat. 0 = el job ya había terminado (o no existe).
+     */
+    public int requestCancel(long tenantId, long id, Instant now) {
+        // MySQL aplica el SET de izquierda a derecha: finished_at se calcula antes de cambiar state
+        return jdbc.update("""
+                        UPDATE job
+                           SET finished_at = CASE WHEN state = 'QUEUED' THEN ? ELSE finished_at END,
+                               cancel_requested = TRUE,
+                               state = CASE WHEN state = 'QUEUED' THEN 'CANCELLED' ELSE state END
+                         WHERE tenant_id = ? AND id = ? AND state IN ('QUEUED', 'RUNNING')""",
+                Timestamp.from(now), tenantId, id);
+    }
+
+    /**
+     * Jobs RUNNING con lease vencido (el nodo murió o quedó aislado): vuelven a QUEUED, o pasan a
+     * FAILED con {@code exhausted} si ya agotaron {@code maxAttempts}, o a CANCELLED si se había pedido.
+     */
+    public int recoverExpired(Instant now, int maxAttempts, ApiError exhausted, int limit) {
+        return jdbc.update("""
+                        UPDATE job
+                           SET error = CASE WHEN NOT cancel_requested AND attempts >= ?
+                                            THEN JSON_SET(CAST(? AS JSON), '$.path', CONCAT('/jobs/', id)) ELSE error END,
+                               finished_at = CASE WHEN cancel_requested OR attempts >= ? THEN ? ELSE NULL END,
+                               state = CASE WHEN cancel_requested THEN 'CANCELLED'
+                                            WHEN attempts >= ? THEN 'FAILED' ELSE 'QUEUED' END,
+                               lease_owner = NULL, lease_expires_at = NULL
+                         WHERE state = 'RUNNING' AND lease_expires_at < ?
+                         LIMIT ?""",
+                maxAttempts, writeError(exhausted), maxAttempts, Timestamp.from(now), maxAttempts,
+                Timestamp.from(now), limit);
+    }
+
+    /** Apagado ordenado: los jobs de este nodo vuelven a la cola sin gastar el intento. */
+    public int releaseOwned(String owner, Instant now) {
+        return jdbc.update("""
+                        UPDATE job
+                           SET finished_at = CASE WHEN cancel_requested THEN ? ELSE NULL END,
+                               state = CASE WHEN cancel_requested THEN 'CANCELLED' ELSE 'QUEUED' END,
+                               attempts = GREATEST(attempts - 1, 0), lease_owner = NULL, lease_expires_at = NULL
+                         WHERE lease_owner = ? AND state = 'RUNNING'""",
+                Timestamp.from(now), owner);
+    }
+
+    public int deleteFinishedBefore(Instant cutoff, int batchSize) {
+        return jdbc.update("DELETE FROM job WHERE finished_at < ? LIMIT ?", Timestamp.from(cutoff), batchSize);
+    }
+
+    private ApiError readError(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, ApiError.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String writeError(ApiError error) {
+        if (error == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(error);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= 255 ? message : message.substring(0, 255);
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
@@ -0,0 +1,220 @@
+package com.edira.edira_api.persistence.risk;
+
+import com.edira.edira_api.domain.risk.RiskLevel;
+import com.edira.edira_api.domain.risk.StudentRisk;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+/**
+ * Acceso JDBC para el puntaje de riesgo. Las lecturas de datos de origen van por rango de id de
+ * alumno ({@code BETWEEN from AND to}) con cursor de streaming: las filas llegan de a una a un
+ * callback con primitivos, sin cargar el resultado ni armar un objeto por fila.
+ */
+@Repository
+public class RiskRepository {
+
+    /** Hasta dónde llegó la última corrida del tenant. */
+    public record RunState(Instant watermark, LocalDate termStart) {
+    }
+
+    @FunctionalInterface
+    public interface AttendanceHandler {
+        void accept(long studentId, int present, int absent, int late);
+    }
+
+    @FunctionalInterface
+    public interface GradeHandler {
+        /** @param evaluatedAt epoch millis de la creación de la evaluación */
+        void accept(long studentId, int tenths, long evaluatedAt);
+    }
+
+    @FunctionalInterface
+    public interface DueHandler {
+        void accept(long studentId, int due, int missing);
+    }
+
+    private static final int INSERT_CHUNK = 1000;
+
+    private static final RowMapper<StudentRisk> RISK_MAPPER = (rs, rowNum) -> new StudentRisk(
+            rs.getLong("student_id"), rs.getInt("score"), RiskLevel.valueOf(rs.getString("level")),
+            rs.getBigDecimal("attendance_rate"), rs.getBigDecimal("grade_average"), rs.getBigDecimal("grade_trend"),
+            rs.getInt("due_evaluations"), rs.getInt("missing_evaluations"), rs.getTimestamp("computed_at").toInstant());
+
+    private static final String RISK_COLUMNS = "student_id, score, level, attendance_rate, grade_average, grade_trend,"
+            + " due_evaluations, missing_evaluations, computed_at";
+
+    private final JdbcTemplate jdbc;
+
+    public RiskRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Hora de la base: la marca de agua sale del mismo reloj que escribe los updated_at. */
+    public Instant now() {
+        return jdbc.queryForObject("SELECT CURRENT_TIMESTAMP(3)", Timestamp.class).toInstant();
+    }
+
+    public Optional<RunState> findRun(long tenantId) {
+        return jdbc.query("SELECT watermark, term_start FROM risk_run WHERE tenant_id = ?",
+                (rs, rowNum) -> new RunState(rs.getTimestamp(1).toInstant(), rs.getDate(2).toLocalDate()), tenantId)
+                .stream().findFirst();
+    }
+
+    public void saveRun(long tenantId, Instant watermark, LocalDate termStart) {
+        jdbc.update("""
+                        INSERT INTO risk_run (tenant_id, watermark, term_start) VALUES (?, ?, ?) AS r
+                        ON DUPLICATE KEY UPDATE watermark = r.watermark, term_start = r.term_start""",
+                tenantId, Timestamp.from(watermark), Date.valueOf(termStart));
+    }
+
+    public long countStudents(long tenantId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM student WHERE tenant_id = ?", Long.class, tenantId);
+    }
+
+    /** Próximo tramo de ids del tenant (paginación por id, idx_student_tenant_id). */
+    public long[] findStudentIdsAfter(long tenantId, long afterId, int limit) {
+        return jdbc.queryForList("SELECT id FROM student WHERE tenant_id = ? AND id > ? ORDER BY id LIMIT ?",
+                Long.class, tenantId, afterId, limit).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Alumnos cuyo riesgo pudo cambiar desde {@code since}, ordenados: asistencia o matrícula
+     * propias, el propio alumno, o cualquier nota o evaluación de un curso en que está (una nota
+     * nueva de otro cambia las evaluaciones que le faltan).
+     */
+    public long[] findChangedStudents(long tenantId, Instant since) {
+        Timestamp from = Timestamp.from(since);
+        LongStream.Builder ids = LongStream.builder();
+        stream("""
+                        SELECT student_id FROM attendance_rollup
+                         WHERE tenant_id = ? AND updated_at >= ? AND student_id <> 0
+                        UNION
+                        SELECT student_id FROM enrollment WHERE tenant_id = ? AND updated_at >= ?
+                        UNION
+                        SELECT id FROM student WHERE tenant_id = ? AND updated_at >= ?
+                        UNION
+                        SELECT en.student_id
+                          FROM enrollment en
+                          JOIN (SELECT e.course_id FROM grade g JOIN evaluation e ON e.id = g.evaluation_id
+                                 WHERE g.updated_at >= ? AND e.tenant_id = ?
+                                UNION
+                                SELECT course_id FROM evaluation WHERE tenant_id = ? AND updated_at >= ?) changed
+                            ON changed.course_id = en.course_id
+                        ORDER BY 1""",
+                rs -> {
+                    ids.add(rs.getLong(1));
+                }, tenantId, from, tenantId, from, tenantId, from, from, tenantId, tenantId, from);
+        return ids.build().toArray();
+    }
+
+    /** Totales del período (TERM) de cada alumno del rango, sumados sobre sus cursos. */
+    public void forEachAttendance(long tenantId, LocalDate termStart, long fromStudent, long toStudent,
+                                  AttendanceHandler handler) {
+        stream("""
+                        SELECT student_id, SUM(present), SUM(absent), SUM(late)
+                          FROM attendance_rollup
+                         WHERE tenant_id = ? AND student_id BETWEEN ? AND ?
+                           AND granularity = 'TERM' AND period_start = ?
+                         GROUP BY student_id""",
+                rs -> {
+                    handler.accept(rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+                }, tenantId, fromStudent, toStudent, Date.valueOf(termStart));
+    }
+
+    /** Notas del período de los alumnos del rango, con la fecha de su evaluación. */
+    public void forEachGrade(long tenantId, Instant termStart, long fromStudent, long toStudent, GradeHandler handler) {
+        stream("""
+                        SELECT g.student_id, g.score, e.created_at
+                          FROM grade g
+                          JOIN evaluation e ON e.id = g.evaluation_id
+                         WHERE g.student_id BETWEEN ? AND ? AND e.tenant_id = ? AND e.created_at >= ?""",
+                rs -> {
+                    handler.accept(rs.getLong(1), rs.getBigDecimal(2).movePointRight(1).intValueExact(),
+                            rs.getTimestamp(3).getTime());
+                }, fromStudent, toStudent, tenantId, Timestamp.from(termStart));
+    }
+
+    /**
+     * Por alumno del rango: evaluaciones del período ya en corrección (alguien tiene nota) en sus
+     * cursos ENROLLED, y cuántas de esas no tiene.
+     */
+    public void forEachDue(long tenantId, Instant termStart, long fromStudent, long toStudent, DueHandler handler) {
+        stream("""
+                        SELECT en.student_id, COUNT(*), SUM(g.student_id IS NULL)
+                          FROM enrollment en
+                          JOIN evaluation e ON e.course_id = en.course_id AND e.created_at >= ?
+                          LEFT JOIN grade g ON g.evaluation_id = e.id AND g.student_id = en.student_id
+                         WHERE en.tenant_id = ? AND en.student_id BETWEEN ? AND ? AND en.status = 'ENROLLED'
+                           AND EXISTS (SELECT 1 FROM grade d WHERE d.evaluation_id = e.id)
+                         GROUP BY en.student_id""",
+                rs -> {
+                    handler.accept(rs.getLong(1), rs.getInt(2), rs.getInt(3));
+                }, Timestamp.from(termStart), tenantId, fromStudent, toStudent);
+    }
+
+    /** Inserta o reemplaza los puntajes en INSERT multi-fila de a {@value #INSERT_CHUNK}. */
+    public void upsertScores(long tenantId, RiskScoreBatch batch) {
+        for (int from = 0; from < batch.size(); from += INSERT_CHUNK) {
+            int to = Math.min(batch.size(), from + INSERT_CHUNK);
+            List<Object> args = new ArrayList<>((to - from) * 9);
+            for (int i = from; i < to; i++) {
+                Collections.addAll(args, batch.studentIds()[i], tenantId, batch.scores()[i],
+                        RiskLevel.of(batch.scores()[i]).name(), decimal(batch.attendanceRates()[i], 3),
+                        decimal(batch.gradeAverages()[i], 2), decimal(batch.gradeTrends()[i], 2),
+                        batch.dueEvaluations()[i], batch.missingEvaluations()[i]);
+            }
+            jdbc.update("INSERT INTO student_risk (student_id, tenant_id, score, level, attendance_rate, grade_average,"
+                            + " grade_trend, due_evaluations, missing_evaluations) VALUES "
+                            + String.join(",", Collections.nCopies(to - from, "(?, ?, ?, ?, ?, ?, ?, ?, ?)"))
+                            + " AS r ON DUPLICATE KEY UPDATE score = r.score, level = r.level,"
+                            + " attendance_rate = r.attendance_rate, grade_average = r.grade_average,"
+                            + " grade_trend = r.grade_trend, due_evaluations = r.due_evaluations,"
+                            + " missing_evaluations = r.missing_evaluations",
+                    args.toArray());
+        }
+    }
+
+    public Optional<StudentRisk> findRisk(long tenantId, long studentId) {
+        return jdbc.query("SELECT " + RISK_COLUMNS + " FROM student_risk WHERE tenant_id = ? AND student_id = ?",
+                RISK_MAPPER, tenantId, studentId).stream().findFirst();
+    }
+
+    /** Los de mayor puntaje del tenant desde {@code minScore}. */
+    public List<StudentRisk> findTop(long tenantId, int minScore, int limit) {
+        return jdbc.query("SELECT " + RISK_COLUMNS + " FROM student_risk WHERE tenant_id = ? AND score >= ?"
+                        + " ORDER BY score DESC, student_id LIMIT ?",
+                RISK_MAPPER, tenantId, minScore, limit);
+    }
+
+    // Connector/J trae las filas de a una desde el socket solo con TYPE_FORWARD_ONLY, CONCUR_READ_ONLY
+    // y fetch size Integer.MIN_VALUE; con otro valor lee el resultado completo a memoria
+    private void stream(String sql, RowCallbackHandler handler, Object... args) {
+        jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            new ArgumentPreparedStatementSetter(args).setValues(ps);
+            return ps;
+        }, handler);
+    }
+
+    private static BigDecimal decimal(double value, int scale) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,25 @@
+package com.edira.edira_api.persistence.risk;
+
+/**
+ * Puntajes de un tramo de alumnos en columnas: la posición {@code i} de cada arreglo es el alumno
+ * {@code studentIds[i]}. NaN en los {@code double[]} = sin dato (NULL).
+ */
+public record RiskScoreBatch(
+        long[] studentIds,
+        int[] scores,
+        double[] attendanceRates,
+        double[] gradeAverages,
+        double[] gradeTrends,
+        int[] dueEvaluations,
+        int[] missingEvaluations
+) {
+
+    public static RiskScoreBatch of(int size) {
+        return new RiskScoreBatch(new long[size], new int[size], new double[size], new double[size], new double[size],
+                new int[size], new int[size]);
+    }
+
+    public int size() {
+        return studentIds.length;
+    }
+}
@@ -0,0 +1,88 @@
+package com.edira.edira_api.persistence.scheduling;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.OptionalLong;
+
+/**
+ * Acceso JDBC a scheduler_lease. Tomar y renovar son un solo UPDATE condicional (atómico en
+ * InnoDB): solo gana quien ya era dueño o quien encuentra la fila vencida. El token (fencing)
+ * sube cuando la fila cambia de dueño y se mantiene al renovar.
+ */
+@Repository
+public class SchedulerLeaseRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public SchedulerLeaseRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Toma (o renueva, si ya es de {@code owner}) el lease hasta {@code until}.
+     * Vacío = lo tiene otro nodo vigente; si no, el token de fencing de esta tenencia.
+     */
+    public OptionalLong tryAcquire(String name, String owner, Instant now, Instant until) {
+        // MySQL aplica el SET de izquierda a derecha: token y acquired_at miran el dueño anterior
+        int updated = jdbc.update("""
+                        UPDATE scheduler_lease
+                           SET token = IF(owner <=> ?, token, token + 1),
+                               acquired_at = IF(owner <=> ?, acquired_at, ?),
+                               owner = ?, expires_at = ?
+                         WHERE name = ? AND (owner <=> ? OR expires_at <= ?)""",
+                owner, owner, Timestamp.from(now), owner, Timestamp.from(until), name, owner, Timestamp.from(now));
+        if (updated == 0) {
+            // Lease nuevo. Si otro nodo lo insertó primero no se toca su fila y el SELECT de abajo no la
+            // ve como propia; sin INSERT IGNORE, un nombre truncado o un error de datos sí propagan
+            jdbc.update("""
+                            INSERT INTO scheduler_lease (name, owner, token, expires_at, acquired_at)
+                            VALUES (?, ?, 1, ?, ?)
+                            ON DUPLICATE KEY UPDATE name = name""",
+                    name, owner, Timestamp.from(until), Timestamp.from(now));
+        }
+        Long token = jdbc.query("SELECT token FROM scheduler_lease WHERE name = ? AND owner = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, name, owner);
+        return token == null ? OptionalLong.empty() : OptionalLong.of(token);
+    }
+
+    /** Extiende el lease solo si sigue siendo de {@code owner} con el mismo token. */
+    public boolean renew(String name, String owner, long token, Instant until) {
+        return jdbc.update("UPDATE scheduler_lease SET expires_at = ? WHERE name = ? AND owner = ? AND token = ?",
+                Timestamp.from(until), name, owner, token) == 1;
+    }
+
+    /** Suelta el lease (queda vencido para el próximo que lo pida). */
+    public void release(String name, String owner, long token, Instant now) {
+        jdbc.update("UPDATE scheduler_lease SET owner = NULL, expires_at = ? WHERE name = ? AND owner = ? AND token = ?",
+                Timestamp.from(now), name, owner, token);
+    }
+
+    /** Suelta el lease si es de {@code owner}, sin importar el token (reparto de shards). */
+    public void releaseIfOwned(String name, String owner, Instant now) {
+        jdbc.update("UPDATE scheduler_lease SET owner = NULL, expires_at = ? WHERE name = ? AND owner = ?",
+                Timestamp.from(now), name, owner);
+    }
+
+    /** Latido del nodo (fila {@code node:<owner>}) para contar nodos vivos. */
+    public void touchNode(String owner, Instant until) {
+        jdbc.update("""
+                        INSERT INTO scheduler_lease (name, owner, expires_at) VALUES (?, ?, ?)
+                        ON DUPLICATE KEY UPDATE owner = ?, expires_at = ?""",
+                "node:" + owner, owner, Timestamp.from(until), owner, Timestamp.from(until));
+    }
+
+    /** Borra latidos de nodos que ya no existen (cada reinicio trae un node id nuevo). */
+    public int deleteStaleNodes(Instant cutoff) {
+        return jdbc.update("DELETE FROM scheduler_lease WHERE name LIKE 'node:%' AND expires_at < ?", Timestamp.from(cutoff));
+    }
+
+    public int countLiveNodes(Instant now) {
+        Integer count = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM scheduler_lease WHERE name LIKE 'node:%' AND expires_at > ?",
+                Integer.class, Timestamp.from(now));
+        return count == null ? 0 : count;
+    }
+}
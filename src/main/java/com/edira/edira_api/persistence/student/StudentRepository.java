@@ -0,0 +1,120 @@
+package com.edira.edira_api.persistence.student;
+
+import com.edira.edira_api.domain.student.NewStudent;
+import com.edira.edira_api.domain.student.Student;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Acceso JDBC a student para cargas masivas (sin pasar por JPA: un INSERT por lote).
+ */
+@Repository
+public class StudentRepository {
+
+    public enum InsertOutcome { CREATED, DUPLICATE }
+
+    private static final RowMapper<Student> ROW_MAPPER = (rs, rowNum) -> new Student(
+            rs.getLong("id"),
+            rs.getString("external_id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"),
+            rs.getString("status"));
+
+    private final JdbcTemplate jdbc;
+
+    public StudentRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Inserta el lote; un email repetido (en la tabla o dentro del mismo lote) no corta el lote,
+     * vuelve como {@link InsertOutcome#DUPLICATE}. ON DUPLICATE KEY UPDATE sin cambios en vez de
+     * INSERT IGNORE: ese también convierte en warnings una FK rota (p.ej. un tenant que no existe)
+     * o un valor truncado. Como con useAffectedRows=false un duplicado también cuenta 1, los
+     * duplicados se deciden con los emails que ya existían antes del INSERT.
+     */
+    public InsertOutcome[] insertIgnoringDuplicates(long tenantId, List<NewStudent> students, String createdBy) {
+        Set<String> seen = new HashSet<>(
+                findIdsByEmail(tenantId, students.stream().map(NewStudent::email).toList()).keySet());
+        jdbc.batchUpdate("""
+                        INSERT INTO student (tenant_id, external_id, first_name, last_name, email, created_by)
+                        VALUES (?, ?, ?, ?, ?, ?)
+                        ON DUPLICATE KEY UPDATE id = id""",
+                students, students.size(), (ps, student) -> {
+                    ps.setLong(1, tenantId);
+                    ps.setString(2, student.externalId());
+                    ps.setString(3, student.firstName());
+                    ps.setString(4, student.lastName());
+                    ps.setString(5, student.email());
+                    ps.setString(6, createdBy);
+                });
+        InsertOutcome[] outcomes = new InsertOutcome[students.size()];
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = seen.add(students.get(i).email()) ? InsertOutcome.CREATED : InsertOutcome.DUPLICATE;
+        }
+        return outcomes;
+    }
+
+    /**
+     * Un solo INSERT multi-fila (un round trip sin depender de rewriteBatchedStatements); los
+     * emails que ya existían se saltan con un ON DUPLICATE KEY UPDATE sin cambios. No devuelve el
+     * update count (un duplicado también cuenta 1): los nuevos se cuentan con {@link #findIdsByEmail}.
+     */
+    public void insertAll(long tenantId, List<NewStudent> students, String createdBy) {
+        if (students.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(students.size() * 6);
+        for (NewStudent student : students) {
+            Collections.addAll(args, tenantId, student.externalId(), student.firstName(), student.lastName(),
+                    student.email(), createdBy);
+        }
+        jdbc.update("INSERT INTO student (tenant_id, external_id, first_name, last_name, email, created_by) VALUES "
+                + String.join(",", Collections.nCopies(students.size(), "(?, ?, ?, ?, ?, ?)"))
+                + " ON DUPLICATE KEY UPDATE id = id", args.toArray());
+    }
+
+    /** Ids por email (ya normalizado) dentro del tenant; los que no existen no vienen en el mapa. */
+    public Map<String, Long> findIdsByEmail(long tenantId, Collection<String> emails) {
+        Map<String, Long> ids = new HashMap<>();
+        if (emails.isEmpty()) {
+            return ids;
+        }
+        List<Object> args = new ArrayList<>(emails.size() + 1);
+        args.add(tenantId);
+        args.addAll(emails);
+        jdbc.query("SELECT id, email FROM student WHERE tenant_id = ? AND email IN ("
+                        + String.join(",", Collections.nCopies(emails.size(), "?")) + ")",
+                rs -> {
+                    ids.put(rs.getString("email"), rs.getLong("id"));
+                }, args.toArray());
+        return ids;
+    }
+
+    public long countByTenant(long tenantId) {
+        Long count = jdbc.queryForObject("SELECT COUNT(*) FROM student WHERE tenant_id = ?", Long.class, tenantId);
+        return count == null ? 0 : count;
+    }
+
+    /** Página por keyset (id > afterId): cada página es un range scan corto, sin OFFSET. */
+    public List<Student> findPageAfter(long tenantId, long afterId, int limit) {
+        return jdbc.query("""
+                        SELECT id, external_id, first_name, last_name, email, status
+                          FROM student
+                         WHERE tenant_id = ? AND id > ?
+                         ORDER BY id
+                         LIMIT ?""",
+                ROW_MAPPER, tenantId, afterId, limit);
+    }
+}
@@ -0,0 +1,25 @@
+package com.edira.edira_api.persistence.tenant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a tenant para validar {@code X-Tenant-Id} (ver TenantDirectory).
+ */
+@Repository
+public class TenantRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public TenantRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // ACTIVE / INACTIVE; vacío si el id no existe
+    public Optional<String> findStatus(long tenantId) {
+        return jdbc.queryForList("SELECT status FROM tenant WHERE id = ?", String.class, tenantId)
+                .stream().findFirst();
+    }
+}
@@ -0,0 +1,156 @@
+package com.edira.edira_api.persistence.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseSection;
+import com.edira.edira_api.domain.timetable.ScheduleResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Acceso JDBC a course_section, a la versión de horario de salas y profesores y a los eventos
+ * course_section de domain_event_outbox.
+ */
+@Repository
+public class SectionRepository {
+
+    /** aggregate_type de los eventos de secciones en domain_event_outbox. */
+    public static final String AGGREGATE = "course_section";
+
+    private static final String COLUMNS = "id, course_id, code, room_id, teacher_id, day_of_week, start_minute, end_minute";
+
+    private static final RowMapper<CourseSection> MAPPER = (rs, rowNum) -> new CourseSection(
+            rs.getLong("id"), rs.getLong("course_id"), rs.getString("code"), rs.getObject("room_id", Long.class),
+            rs.getObject("teacher_id", Long.class), rs.getInt("day_of_week"), minute(rs.getInt("start_minute")),
+            minute(rs.getInt("end_minute")));
+
+    /** Un evento leído del outbox; {@code payload} es el JSON tal cual. */
+    public record OutboxEvent(long id, Long tenantId, String eventType, String payload) {
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public SectionRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Toma la fila de la sala o profesor hasta el fin de la transacción y devuelve su versión. */
+    public OptionalLong lockVersion(long tenantId, ScheduleResource kind, long id) {
+        return jdbc.queryForList("SELECT schedule_version FROM " + table(kind) + " WHERE tenant_id = ? AND id = ? FOR UPDATE",
+                        Long.class, tenantId, id)
+                .stream().mapToLong(Long::longValue).findFirst();
+    }
+
+    public OptionalLong findVersion(long tenantId, ScheduleResource kind, long id) {
+        return jdbc.queryForList("SELECT schedule_version FROM " + table(kind) + " WHERE tenant_id = ? AND id = ?",
+                        Long.class, tenantId, id)
+                .stream().mapToLong(Long::longValue).findFirst();
+    }
+
+    public void bumpVersion(ScheduleResource kind, long id) {
+        jdbc.update("UPDATE " + table(kind) + " SET schedule_version = schedule_version + 1 WHERE id = ?", id);
+    }
+
+    public long insertSection(long tenantId, long courseId, String code, Long roomId, Long teacherId, int day,
+                              int startMinute, int endMinute, String createdBy) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                    INSERT INTO course_section (tenant_id, course_id, code, room_id, teacher_id, day_of_week,
+                                                start_minute, end_minute, created_by, updated_by)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""", Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, tenantId);
+            ps.setLong(2, courseId);
+            ps.setString(3, code);
+            ps.setObject(4, roomId);
+            ps.setObject(5, teacherId);
+            ps.setInt(6, day);
+            ps.setInt(7, startMinute);
+            ps.setInt(8, endMinute);
+            ps.setString(9, createdBy);
+            ps.setString(10, createdBy);
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    public void updateSection(long sectionId, String code, Long roomId, Long teacherId, int day, int startMinute,
+                              int endMinute, String updatedBy) {
+        jdbc.update("""
+                        UPDATE course_section
+                           SET code = ?, room_id = ?, teacher_id = ?, day_of_week = ?, start_minute = ?, end_minute = ?,
+                               updated_by = ?
+                         WHERE id = ?""",
+                code, roomId, teacherId, day, startMinute, endMinute, updatedBy, sectionId);
+    }
+
+    public void deleteSection(long sectionId) {
+        jdbc.update("DELETE FROM course_section WHERE id = ?", sectionId);
+    }
+
+    public Optional<CourseSection> findSection(long tenantId, long sectionId) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM course_section WHERE tenant_id = ? AND id = ?",
+                MAPPER, tenantId, sectionId).stream().findFirst();
+    }
+
+    public Optional<CourseSection> lockSection(long tenantId, long sectionId) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM course_section WHERE tenant_id = ? AND id = ? FOR UPDATE",
+                MAPPER, tenantId, sectionId).stream().findFirst();
+    }
+
+    /** Todas las secciones que ocupan la sala o el profesor (idx_course_section_room / _teacher). */
+    public List<CourseSection> findByResource(long tenantId, ScheduleResource kind, long id) {
+        String column = kind == ScheduleResource.ROOM ? "room_id" : "teacher_id";
+        return jdbc.query("SELECT " + COLUMNS + " FROM course_section WHERE " + column + " = ? AND tenant_id = ?",
+                MAPPER, id, tenantId);
+    }
+
+    public void insertEvent(long tenantId, long sectionId, String eventType, String payload) {
+        jdbc.update("""
+                        INSERT INTO domain_event_outbox (tenant_id, aggregate_type, aggregate_id, event_type, payload)
+                        VALUES (?, ?, ?, ?, ?)""",
+                tenantId, AGGREGATE, Long.toString(sectionId), eventType, payload);
+    }
+
+    /** Eventos de secciones con id mayor que {@code afterId}, en orden de id. */
+    public List<OutboxEvent> findEventsAfter(long afterId, int limit) {
+        return jdbc.query("""
+                        SELECT id, tenant_id, event_type, payload
+                          FROM domain_event_outbox
+                         WHERE aggregate_type = ? AND id > ?
+                         ORDER BY id
+                         LIMIT ?""",
+                (rs, rowNum) -> new OutboxEvent(rs.getLong(1), rs.getObject(2, Long.class), rs.getString(3),
+                        rs.getString(4)), AGGREGATE, afterId, limit);
+    }
+
+    public long maxEventId() {
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM domain_event_outbox WHERE aggregate_type = ?",
+                Long.class, AGGREGATE);
+        return max != null ? max : 0L;
+    }
+
+    /** Borra hasta {@code limit} eventos de secciones anteriores a {@code before}. */
+    public int deleteEventsBefore(Instant before, int limit) {
+        return jdbc.update("DELETE FROM domain_event_outbox WHERE aggregate_type = ? AND occurred_at < ? ORDER BY id LIMIT ?",
+                AGGREGATE, Timestamp.from(before), limit);
+    }
+
+    private static String table(ScheduleResource kind) {
+        return kind == ScheduleResource.ROOM ? "room" : "teacher";
+    }
+
+    private static LocalTime minute(int minuteOfDay) {
+        return LocalTime.ofSecondOfDay(minuteOfDay * 60L);
+    }
+}
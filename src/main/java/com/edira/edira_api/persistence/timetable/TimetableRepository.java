@@ -0,0 +1,156 @@
+package com.edira.edira_api.persistence.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseDemand;
+import com.edira.edira_api.domain.timetable.CourseTeaching;
+import com.edira.edira_api.domain.timetable.Room;
+import com.edira.edira_api.domain.timetable.ScheduledLesson;
+import com.edira.edira_api.domain.timetable.Teacher;
+import com.edira.edira_api.domain.timetable.Timetable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Acceso JDBC a profesores, salas, carga semanal de los cursos y horarios generados.
+ */
+@Repository
+public class TimetableRepository {
+
+    private static final String TIMETABLE_COLUMNS = "id, job_id, days, slots_per_day, hard_violations, soft_penalty,"
+            + " moves, elapsed_ms, created_at";
+
+    private static final RowMapper<Timetable> TIMETABLE_MAPPER = (rs, rowNum) -> new Timetable(
+            rs.getLong("id"), rs.getObject("job_id", Long.class), rs.getInt("days"), rs.getInt("slots_per_day"),
+            rs.getInt("hard_violations"), rs.getInt("soft_penalty"), rs.getLong("moves"), rs.getLong("elapsed_ms"),
+            rs.getTimestamp("created_at").toInstant(), null);
+
+    private final JdbcTemplate jdbc;
+
+    public TimetableRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public long insertTeacher(long tenantId, String code, String name, String createdBy) {
+        return insert("INSERT INTO teacher (tenant_id, code, name, created_by) VALUES (?, ?, ?, ?)",
+                tenantId, code, name, createdBy);
+    }
+
+    public Optional<Teacher> findTeacher(long tenantId, long teacherId) {
+        return jdbc.query("SELECT id, code, name FROM teacher WHERE tenant_id = ? AND id = ?",
+                (rs, rowNum) -> new Teacher(rs.getLong(1), rs.getString(2), rs.getString(3)), tenantId, teacherId)
+                .stream().findFirst();
+    }
+
+    public long insertRoom(long tenantId, String code, String name, int capacity, String createdBy) {
+        return insert("INSERT INTO room (tenant_id, code, name, capacity, created_by) VALUES (?, ?, ?, ?, ?)",
+                tenantId, code, name, capacity, createdBy);
+    }
+
+    public Optional<Room> findRoom(long tenantId, long roomId) {
+        return jdbc.query("SELECT id, code, name, capacity FROM room WHERE tenant_id = ? AND id = ?",
+                (rs, rowNum) -> new Room(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4)),
+                tenantId, roomId).stream().findFirst();
+    }
+
+    public List<Room> findRooms(long tenantId) {
+        return jdbc.query("SELECT id, code, name, capacity FROM room WHERE tenant_id = ? ORDER BY id",
+                (rs, rowNum) -> new Room(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4)), tenantId);
+    }
+
+    public void upsertTeaching(long tenantId, long courseId, long teacherId, int weeklyLessons, String updatedBy) {
+        jdbc.update("""
+                        INSERT INTO course_teaching (course_id, tenant_id, teacher_id, weekly_lessons, updated_by)
+                        VALUES (?, ?, ?, ?, ?) AS r
+                        ON DUPLICATE KEY UPDATE teacher_id = r.teacher_id, weekly_lessons = r.weekly_lessons,
+                                                updated_by = r.updated_by""",
+                courseId, tenantId, teacherId, weeklyLessons, updatedBy);
+    }
+
+    public Optional<CourseTeaching> findTeaching(long tenantId, long courseId) {
+        return jdbc.query("SELECT course_id, teacher_id, weekly_lessons FROM course_teaching"
+                                + " WHERE tenant_id = ? AND course_id = ?",
+                        (rs, rowNum) -> new CourseTeaching(rs.getLong(1), rs.getLong(2), rs.getInt(3)),
+                        tenantId, courseId)
+                .stream().findFirst();
+    }
+
+    /** Cursos del tenant con profesor y bloques semanales, con su cupo como tamaño. */
+    public List<CourseDemand> findDemands(long tenantId) {
+        return jdbc.query("""
+                        SELECT ct.course_id, ct.teacher_id, ct.weekly_lessons, c.capacity
+                          FROM course_teaching ct
+                          JOIN course c ON c.id = ct.course_id
+                         WHERE ct.tenant_id = ?
+                         ORDER BY ct.course_id""",
+                (rs, rowNum) -> new CourseDemand(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4)), tenantId);
+    }
+
+    public long insertTimetable(long tenantId, Long jobId, int days, int slotsPerDay, int hardViolations,
+                                int softPenalty, long moves, long elapsedMs, String createdBy) {
+        return insert("""
+                        INSERT INTO timetable (tenant_id, job_id, days, slots_per_day, hard_violations, soft_penalty,
+                                               moves, elapsed_ms, created_by)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""",
+                tenantId, jobId, days, slotsPerDay, hardViolations, softPenalty, moves, elapsedMs, createdBy);
+    }
+
+    public void insertLessons(long timetableId, List<ScheduledLesson> lessons) {
+        jdbc.batchUpdate("""
+                        INSERT INTO timetable_lesson (timetable_id, course_id, lesson_no, day_of_week, slot, room_id, teacher_id)
+                        VALUES (?, ?, ?, ?, ?, ?, ?)""", lessons, 1000,
+                (ps, lesson) -> {
+                    ps.setLong(1, timetableId);
+                    ps.setLong(2, lesson.courseId());
+                    ps.setInt(3, lesson.lessonNo());
+                    ps.setInt(4, lesson.day());
+                    ps.setInt(5, lesson.slot());
+                    ps.setLong(6, lesson.roomId());
+                    ps.setLong(7, lesson.teacherId());
+                });
+    }
+
+    public Optional<Timetable> findTimetable(long tenantId, long timetableId) {
+        return jdbc.query("SELECT " + TIMETABLE_COLUMNS + " FROM timetable WHERE tenant_id = ? AND id = ?",
+                TIMETABLE_MAPPER, tenantId, timetableId).stream().findFirst();
+    }
+
+    public Optional<Timetable> findLatest(long tenantId) {
+        return jdbc.query("SELECT " + TIMETABLE_COLUMNS + " FROM timetable WHERE tenant_id = ? ORDER BY id DESC LIMIT 1",
+                TIMETABLE_MAPPER, tenantId).stream().findFirst();
+    }
+
+    public OptionalLong findIdByJob(long tenantId, long jobId) {
+        return jdbc.queryForList("SELECT id FROM timetable WHERE job_id = ? AND tenant_id = ?", Long.class, jobId, tenantId)
+                .stream().mapToLong(Long::longValue).findFirst();
+    }
+
+    public List<ScheduledLesson> findLessons(long timetableId) {
+        return jdbc.query("""
+                        SELECT course_id, lesson_no, day_of_week, slot, room_id, teacher_id
+                          FROM timetable_lesson
+                         WHERE timetable_id = ?
+                         ORDER BY day_of_week, slot, room_id""",
+                (rs, rowNum) -> new ScheduledLesson(rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getInt(4),
+                        rs.getLong(5), rs.getLong(6)), timetableId);
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+}
@@ -1,8 +1,8 @@
 package com.edira.edira_api.security;
 
 import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
 import com.edira.edira_api.shared.error.ErrorCode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -15,10 +15,10 @@ import java.io.IOException;
 @Component
 public class ApiErrorAccessDeniedHandler implements AccessDeniedHandler {
 
-    private final ObjectMapper objectMapper;
+    private final ApiErrorWriter apiErrorWriter;
 
-    public ApiErrorAccessDeniedHandler(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public ApiErrorAccessDeniedHandler(ApiErrorWriter apiErrorWriter) {
+        this.apiErrorWriter = apiErrorWriter;
     }
 
     @Override
@@ -30,10 +30,7 @@ public class ApiErrorAccessDeniedHandler implements AccessDeniedHandler {
         String path = request.getRequestURI();
         int status = HttpServletResponse.SC_FORBIDDEN;
         ApiError body = ApiError.of(status, ErrorCode.FORBIDDEN, "Acceso denegado", path);
-        response.setStatus(status);
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        objectMapper.writeValue(response.getOutputStream(), body);
+        apiErrorWriter.write(body, request, response);
 
     }
 }
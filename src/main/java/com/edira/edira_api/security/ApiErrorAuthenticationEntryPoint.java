@@ -1,8 +1,9 @@
 package com.edira.edira_api.security;
 
+import com.edira.edira_api.persistence.diagnostics.SqlRequestContext;
 import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
 import com.edira.edira_api.shared.error.ErrorCode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -20,10 +21,10 @@ public class ApiErrorAuthenticationEntryPoint implements AuthenticationEntryPoin
     private static final Logger log =
             LoggerFactory.getLogger(ApiErrorAuthenticationEntryPoint.class);
 
-    private final ObjectMapper objectMapper;
+    private final ApiErrorWriter apiErrorWriter;
 
-    public ApiErrorAuthenticationEntryPoint(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public ApiErrorAuthenticationEntryPoint(ApiErrorWriter apiErrorWriter) {
+        this.apiErrorWriter = apiErrorWriter;
     }
 
     @Override
@@ -34,11 +35,8 @@ public class ApiErrorAuthenticationEntryPoint implements AuthenticationEntryPoin
         String path = request.getRequestURI();
         int status = HttpServletResponse.SC_UNAUTHORIZED;
         ApiError body = ApiError.of(status, ErrorCode.UNAUTHORIZED, "No autenticado. Inicia sesión.", path);
-        response.setStatus(status);
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        objectMapper.writeValue(response.getOutputStream(), body);
-        log.warn("401 UNAUTHORIZED path={} errorId={}", path, body.errorId());
+        apiErrorWriter.write(body, request, response);
+        log.warn("401 UNAUTHORIZED path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary());
 
     }
 }
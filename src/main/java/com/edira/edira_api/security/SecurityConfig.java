@@ -5,7 +5,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
-
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+/*
+ * Límite de confianza del tenant: X-Tenant-Id lo manda el cliente y TenantFilter (después de esta
+ * cadena) solo comprueba que el tenant exista y esté ACTIVE. Mientras la autenticación no salga de
+ * user_account no hay relación usuario-tenant que revisar: cualquier usuario autenticado puede
+ * operar sobre cualquier tenant activo. Expuesto fuera de la red interna, el gateway debe fijar
+ * el header desde la identidad del cliente y descartar el que venga en el request.
+ */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -30,7 +38,7 @@ public class SecurityConfig {
 
                 // qué paths no requieren auth (para poder levantar y revisar health/docs)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/actuator/health", "/v3/api-docs/**", "/swagger-ui/**").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/health/live", "/health/ready", "/v3/api-docs/**", "/v3/api-docs.yaml", "/swagger-ui/**").permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
@@ -38,6 +46,9 @@ public class SecurityConfig {
                 // habilita Basic para poder probar fácil con usuario por defecto de Spring
                 .httpBasic(org.springframework.security.config.Customizer.withDefaults())
 
+                // tráfico sintético de warm-up (solo loopback + token por arranque)
+                .addFilterBefore(new WarmupAuthenticationFilter(), BasicAuthenticationFilter.class)
+
                 .build();
     }
 
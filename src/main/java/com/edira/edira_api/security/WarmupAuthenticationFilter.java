@@ -0,0 +1,38 @@
+package com.edira.edira_api.security;
+
+import com.edira.edira_api.shared.warmup.WarmupTraffic;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Autentica los requests de warm-up (ya validados por WarmupTrafficFilter) con un principal
+ * sin roles de negocio: pasa los endpoints "authenticated()" y en /admin/** recibe 403,
+ * así el warm-up recorre tanto el camino feliz como el AccessDeniedHandler.
+ */
+public class WarmupAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final List<SimpleGrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_WARMUP"));
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        if (WarmupTraffic.isWarmup(request)
+                && !"true".equals(request.getHeader(WarmupTraffic.ANONYMOUS_HEADER))
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated("warmup", null, AUTHORITIES));
+            SecurityContextHolder.setContext(context);
+        }
+        chain.doFilter(request, response);
+    }
+}
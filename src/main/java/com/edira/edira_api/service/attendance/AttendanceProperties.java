@@ -0,0 +1,33 @@
+package com.edira.edira_api.service.attendance;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Asistencia (prefijo {@code edira.attendance}).
+ *
+ * @param lateAfter              un check-in después de inicio + lateAfter queda LATE
+ * @param checkInFlushInterval   cada cuánto se escriben los check-ins acumulados de cada sesión
+ * @param checkInMaxBatch        check-ins de una sesión que disparan la escritura sin esperar el intervalo
+ * @param checkInMaxPending      check-ins sin escribir en el nodo; por encima se responde 503
+ * @param checkInFlushConcurrency escrituras simultáneas (conexiones del pool que ocupa el buffer)
+ * @param checkInAckTimeout      espera máxima de un check-in por su escritura
+ * @param rollupZone             zona en que se cuentan los días, semanas y meses de los totales
+ * @param termStartMonths        meses en que empieza cada período académico (el día 1)
+ */
+@ConfigurationProperties(prefix = "edira.attendance")
+public record AttendanceProperties(
+        @DefaultValue("10m") Duration lateAfter,
+        @DefaultValue("10ms") Duration checkInFlushInterval,
+        @DefaultValue("500") int checkInMaxBatch,
+        @DefaultValue("20000") int checkInMaxPending,
+        @DefaultValue("4") int checkInFlushConcurrency,
+        @DefaultValue("5s") Duration checkInAckTimeout,
+        @DefaultValue("America/Santiago") ZoneId rollupZone,
+        @DefaultValue({"3", "8"}) List<Integer> termStartMonths
+) {
+}
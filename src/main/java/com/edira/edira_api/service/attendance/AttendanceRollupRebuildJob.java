@@ -0,0 +1,46 @@
+package com.edira.edira_api.service.attendance;
+
+import com.edira.edira_api.service.job.JobContext;
+import com.edira.edira_api.service.job.JobHandler;
+import com.edira.edira_api.service.job.JobResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Job {@value #TYPE}: recalcula los totales de asistencia desde los bitmaps. Con
+ * {@code {"courseId": 12}} solo ese curso; sin payload, todos los cursos del tenant con sesiones,
+ * uno por transacción. Se puede repetir: cada curso queda reemplazado, no sumado.
+ */
+@Component
+public class AttendanceRollupRebuildJob implements JobHandler {
+
+    static final String TYPE = "attendance-rollup-rebuild";
+
+    private final AttendanceRollupService rollups;
+
+    public AttendanceRollupRebuildJob(AttendanceRollupService rollups) {
+        this.rollups = rollups;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public JobResult run(JobContext context) {
+        JsonNode courseId = context.payload().path("courseId");
+        List<Long> courses = courseId.canConvertToLong()
+                ? List.of(courseId.asLong())
+                : rollups.coursesWithAttendance(context.tenantId());
+        long done = 0;
+        for (long course : courses) {
+            context.checkCancelled();
+            rollups.rebuildCourse(context.tenantId(), course);
+            context.progress(++done, (long) courses.size(), "cursos recalculados");
+        }
+        return JobResult.NONE;
+    }
+}
@@ -0,0 +1,239 @@
+package com.edira.edira_api.service.attendance;
+
+import com.edira.edira_api.domain.attendance.AttendanceRollup;
+import com.edira.edira_api.domain.attendance.AttendanceRollup.Point;
+import com.edira.edira_api.domain.attendance.AttendanceRollup.Scope;
+import com.edira.edira_api.domain.attendance.AttendanceStatus;
+import com.edira.edira_api.domain.attendance.RollupGranularity;
+import com.edira.edira_api.persistence.attendance.AttendanceRepository;
+import com.edira.edira_api.persistence.attendance.AttendanceRollupRepository;
+import com.edira.edira_api.persistence.attendance.AttendanceRollupRepository.RollupRow;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totales de asistencia por día, semana, mes y período académico (ver V9__attendance_rollup.sql).
+ * <p>
+ * {@link #record} corre dentro de la transacción que cambia los bitmaps de la sesión y suma la
+ * diferencia de cada alumno que cambió de estado: los totales quedan confirmados junto con la
+ * asistencia o no quedan, así que un reintento no los cuenta dos veces. {@link #rebuildCourse}
+ * los recalcula desde los bitmaps y reemplaza los del curso (backfill o reparación).
+ */
+@Service
+public class AttendanceRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceRollupService.class);
+
+    // Para los rangos sin from/to (DATE de MySQL admite todo el rango)
+    private static final LocalDate FIRST_DAY = LocalDate.of(1970, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+    // Por alumno no hay DAY: serían tantas filas como la asistencia misma (el día a día sale de los bitmaps)
+    private static final List<RollupGranularity> STUDENT_GRANULARITIES =
+            List.of(RollupGranularity.WEEK, RollupGranularity.MONTH, RollupGranularity.TERM);
+
+    // Orden de la PK (course_id, student_id, granularity, period_start): todas las transacciones
+    // toman las filas en el mismo orden y no se cruzan
+    private static final Comparator<RollupRow> KEY_ORDER = Comparator.comparingLong(RollupRow::studentId)
+            .thenComparing(row -> row.granularity().name())
+            .thenComparing(RollupRow::periodStart);
+
+    /** Cambio de estado de un alumno en una sesión; null = sin registro. */
+    public record StatusChange(long studentId, AttendanceStatus before, AttendanceStatus after) {
+    }
+
+    private final AttendanceRollupRepository repository;
+    private final AttendanceRepository attendance;
+    private final EnrollmentRepository enrollments;
+    private final TransactionTemplate rebuildTemplate;
+    private final AttendanceProperties properties;
+    private final int[] termStartMonths;
+
+    public AttendanceRollupService(AttendanceRollupRepository repository, AttendanceRepository attendance,
+                                   EnrollmentRepository enrollments, PlatformTransactionManager transactionManager,
+                                   AttendanceProperties properties) {
+        this.repository = repository;
+        this.attendance = attendance;
+        this.enrollments = enrollments;
+        // REPEATABLE READ a propósito: el SELECT ... FOR UPDATE de las sesiones toma también el hueco
+        // del índice del curso, así una sesión nueva espera al rebuild en vez de quedar fuera de él
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.properties = properties;
+        this.termStartMonths = properties.termStartMonths().stream().mapToInt(Integer::intValue).sorted().toArray();
+        if (termStartMonths.length == 0 || termStartMonths[0] < 1 || termStartMonths[termStartMonths.length - 1] > 12) {
+            throw new IllegalArgumentException("edira.attendance.term-start-months debe tener meses entre 1 y 12.");
+        }
+    }
+
+    /**
+     * Suma los cambios de una sesión a los totales del curso y de cada alumno. Debe correr en la
+     * misma transacción que guarda los bitmaps.
+     */
+    public void record(long tenantId, long courseId, Instant startsAt, List<StatusChange> changes) {
+        LocalDate day = startsAt.atZone(properties.rollupZone()).toLocalDate();
+        int[] course = new int[AttendanceStatus.values().length];
+        List<RollupRow> rows = new ArrayList<>();
+        for (StatusChange change : changes) {
+            if (change.before() == change.after()) {
+                continue;
+            }
+            int[] delta = new int[AttendanceStatus.values().length];
+            if (change.before() != null) {
+                delta[change.before().ordinal()]--;
+            }
+            if (change.after() != null) {
+                delta[change.after().ordinal()]++;
+            }
+            for (int i = 0; i < delta.length; i++) {
+                course[i] += delta[i];
+            }
+            for (RollupGranularity granularity : STUDENT_GRANULARITIES) {
+                rows.add(row(change.studentId(), granularity, periodStart(granularity, day), delta));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            rows.add(row(0, granularity, periodStart(granularity, day), course));
+        }
+        rows.sort(KEY_ORDER);
+        repository.addDeltas(tenantId, courseId, rows);
+    }
+
+    /**
+     * Recalcula los totales del curso desde los bitmaps de todas sus sesiones, con las sesiones
+     * tomadas con lock para que no cambien ni aparezcan otras a mitad de camino.
+     *
+     * @return filas escritas
+     */
+    public int rebuildCourse(long tenantId, long courseId) {
+        checkCourse(tenantId, courseId);
+        Integer written = rebuildTemplate.execute(tx -> {
+            Map<RollupKey, int[]> totals = new HashMap<>();
+            long[][] roster = {null};
+            attendance.forEachSessionLocked(courseId, (session, bitmaps) -> {
+                if (roster[0] == null) {
+                    // después del lock de las sesiones: el roster ya tiene todo ordinal que aparezca en ellas
+                    roster[0] = attendance.findRoster(courseId);
+                }
+                LocalDate day = session.startsAt().atZone(properties.rollupZone()).toLocalDate();
+                for (AttendanceStatus status : AttendanceStatus.values()) {
+                    ImmutableRoaringBitmap bitmap = bitmaps.of(status);
+                    for (RollupGranularity granularity : RollupGranularity.values()) {
+                        LocalDate period = periodStart(granularity, day);
+                        totals.computeIfAbsent(new RollupKey(0, granularity, period), k -> new int[3])
+                                [status.ordinal()] += bitmap.getCardinality();
+                    }
+                    bitmap.forEach((int ordinal) -> {
+                        for (RollupGranularity granularity : STUDENT_GRANULARITIES) {
+                            totals.computeIfAbsent(new RollupKey(roster[0][ordinal], granularity,
+                                    periodStart(granularity, day)), k -> new int[3])[status.ordinal()]++;
+                        }
+                    });
+                }
+            });
+            List<RollupRow> rows = new ArrayList<>(totals.size());
+            totals.forEach((key, counts) -> rows.add(row(key.studentId(), key.granularity(), key.periodStart(), counts)));
+            rows.sort(KEY_ORDER);
+            repository.replaceCourse(tenantId, courseId, rows);
+            return rows.size();
+        });
+        log.info("ATTENDANCE_ROLLUP_REBUILD tenant={} course={} rows={}", tenantId, courseId, written);
+        return written;
+    }
+
+    /** Cursos del tenant con asistencia, para reconstruirlos uno por uno. */
+    public List<Long> coursesWithAttendance(long tenantId) {
+        return attendance.findCoursesWithSessions(tenantId);
+    }
+
+    public AttendanceRollup tenant(long tenantId, RollupGranularity granularity, LocalDate from, LocalDate to) {
+        return new AttendanceRollup(Scope.TENANT, tenantId, granularity,
+                repository.sumOverCourses(tenantId, 0, granularity, orFirst(from), orLast(to)));
+    }
+
+    public AttendanceRollup course(long tenantId, long courseId, RollupGranularity granularity,
+                                   LocalDate from, LocalDate to) {
+        checkCourse(tenantId, courseId);
+        return new AttendanceRollup(Scope.COURSE, courseId, granularity,
+                repository.findCourse(courseId, 0, granularity, orFirst(from), orLast(to)));
+    }
+
+    /** Totales del alumno sumando todos sus cursos del tenant. */
+    public AttendanceRollup student(long tenantId, long studentId, RollupGranularity granularity,
+                                    LocalDate from, LocalDate to) {
+        if (!STUDENT_GRANULARITIES.contains(granularity)) {
+            throw new IllegalArgumentException("Por alumno los totales van por " + STUDENT_GRANULARITIES
+                    + "; el detalle por sesión está en /courses/{id}/attendance/students/" + studentId + ".");
+        }
+        if (!enrollments.studentExists(tenantId, studentId)) {
+            throw new NotFoundException("Alumno " + studentId + " no encontrado.");
+        }
+        List<Point> points = repository.sumOverCourses(tenantId, studentId, granularity, orFirst(from), orLast(to));
+        return new AttendanceRollup(Scope.STUDENT, studentId, granularity, points);
+    }
+
+    /** Inicio del período académico de hoy, en la zona de los totales. */
+    public LocalDate currentTermStart() {
+        return periodStart(RollupGranularity.TERM, LocalDate.now(properties.rollupZone()));
+    }
+
+    /** Inicio del período que contiene el día: el mismo día, el lunes, el primero del mes o del período académico. */
+    LocalDate periodStart(RollupGranularity granularity, LocalDate day) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+            case TERM -> {
+                for (int i = termStartMonths.length - 1; i >= 0; i--) {
+                    if (termStartMonths[i] <= day.getMonthValue()) {
+                        yield LocalDate.of(day.getYear(), termStartMonths[i], 1);
+                    }
+                }
+                // antes del primer período del año: sigue el último del año anterior
+                yield LocalDate.of(day.getYear() - 1, termStartMonths[termStartMonths.length - 1], 1);
+            }
+        };
+    }
+
+    private record RollupKey(long studentId, RollupGranularity granularity, LocalDate periodStart) {
+    }
+
+    private static RollupRow row(long studentId, RollupGranularity granularity, LocalDate period, int[] counts) {
+        return new RollupRow(studentId, granularity, period, counts[AttendanceStatus.PRESENT.ordinal()],
+                counts[AttendanceStatus.ABSENT.ordinal()], counts[AttendanceStatus.LATE.ordinal()]);
+    }
+
+    private void checkCourse(long tenantId, long courseId) {
+        if (!enrollments.courseExists(tenantId, courseId)) {
+            throw new NotFoundException("Curso " + courseId + " no encontrado.");
+        }
+    }
+
+    private static LocalDate orFirst(LocalDate from) {
+        return from == null ? FIRST_DAY : from;
+    }
+
+    private static LocalDate orLast(LocalDate to) {
+        return to == null ? LAST_DAY : to;
+    }
+}
@@ -0,0 +1,232 @@
+package com.edira.edira_api.service.attendance;
+
+import com.edira.edira_api.domain.attendance.AttendanceMark;
+import com.edira.edira_api.domain.attendance.AttendanceStatus;
+import com.edira.edira_api.domain.attendance.CheckInReceipt;
+import com.edira.edira_api.domain.attendance.ClassSession;
+import com.edira.edira_api.domain.attendance.SessionAttendance;
+import com.edira.edira_api.domain.attendance.StudentAttendance;
+import com.edira.edira_api.persistence.attendance.AttendanceRepository;
+import com.edira.edira_api.persistence.attendance.SessionBitmaps;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.service.attendance.AttendanceRollupService.StatusChange;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * Asistencia guardada como bitmaps por sesión (ver V8__attendance.sql): una sesión de un curso de
+ * 40 alumnos ocupa unas decenas de bytes en lugar de 40 filas.
+ * <p>
+ * Cada alumno tiene un ordinal fijo en el curso (course_roster) que se asigna la primera vez que se
+ * le registra asistencia. Los ordinales nuevos van al final y no se reutilizan, así las sesiones ya
+ * guardadas no cambian cuando alguien entra a mitad de semestre o se da de baja.
+ * <p>
+ * Registrar es leer los bitmaps de la sesión con lock de fila, aplicarles los cambios y guardarlos:
+ * una escritura por sesión sin importar cuántos alumnos se registran. En la misma transacción se
+ * actualizan los totales para dashboards ({@link AttendanceRollupService}).
+ */
+@Service
+public class AttendanceService {
+
+    // Rango de TIMESTAMP en MySQL, para los historiales sin from/to
+    private static final Instant FAR_PAST = Instant.parse("1970-01-01T00:00:01Z");
+    private static final Instant FAR_FUTURE = Instant.parse("2038-01-19T03:14:07Z");
+
+    // updated_by de las escrituras del buffer de check-in: un lote mezcla alumnos
+    private static final String CHECK_IN_USER = "check-in";
+
+    private final AttendanceRepository repository;
+    private final EnrollmentRepository enrollments;
+    private final AttendanceRollupService rollups;
+    private final TransactionTemplate transactionTemplate;
+    private final AttendanceProperties properties;
+
+    public AttendanceService(AttendanceRepository repository, EnrollmentRepository enrollments,
+                             AttendanceRollupService rollups, PlatformTransactionManager transactionManager,
+                             AttendanceProperties properties) {
+        this.repository = repository;
+        this.enrollments = enrollments;
+        this.rollups = rollups;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.properties = properties;
+    }
+
+    /** Sesión nueva sin registros. 409 si el curso ya tiene una sesión a esa hora. */
+    public ClassSession createSession(long tenantId, long courseId, Instant startsAt, String user) {
+        checkCourse(tenantId, courseId);
+        long id = repository.insertSession(tenantId, courseId, startsAt.truncatedTo(ChronoUnit.MILLIS), user);
+        return getSessionSummary(tenantId, courseId, id);
+    }
+
+    public List<ClassSession> listSessions(long tenantId, long courseId, Instant from, Instant to) {
+        checkCourse(tenantId, courseId);
+        return repository.findSessions(tenantId, courseId, from == null ? FAR_PAST : from, to == null ? FAR_FUTURE : to);
+    }
+
+    /** La sesión con el estado de cada alumno registrado (los ordinales se traducen con el roster). */
+    public SessionAttendance getSession(long tenantId, long courseId, long sessionId) {
+        ClassSession session = getSessionSummary(tenantId, courseId, sessionId);
+        SessionBitmaps bitmaps = repository.findBitmaps(sessionId).orElse(SessionBitmaps.empty());
+        long[] roster = repository.findRoster(courseId);
+        ImmutableRoaringBitmap marked = bitmaps.marked();
+        List<AttendanceMark> marks = new ArrayList<>(marked.getCardinality());
+        marked.forEach((int ordinal) -> marks.add(new AttendanceMark(roster[ordinal], bitmaps.statusOf(ordinal))));
+        return new SessionAttendance(session, marks);
+    }
+
+    /**
+     * Registra el estado de varios alumnos en la sesión (reemplaza el que tuvieran). Los alumnos que
+     * aún no están en el roster del curso deben tener matrícula ENROLLED; se les asigna ordinal acá.
+     */
+    public ClassSession mark(long tenantId, long courseId, long sessionId, Map<Long, AttendanceStatus> marks,
+                             String user) {
+        ClassSession session = getSessionSummary(tenantId, courseId, sessionId);
+        transactionTemplate.executeWithoutResult(status -> {
+            // La sesión primero y después el roster: el mismo orden en todas las escrituras
+            SessionBitmaps current = repository.lockBitmaps(tenantId, courseId, sessionId)
+                    .orElseThrow(() -> sessionNotFound(courseId, sessionId));
+            Map<Long, Integer> ordinals = ordinals(courseId, marks.keySet(), true);
+            Map<Integer, AttendanceStatus> byOrdinal = new HashMap<>(marks.size() * 2);
+            List<StatusChange> changes = new ArrayList<>(marks.size());
+            marks.forEach((studentId, attendance) -> {
+                int ordinal = ordinals.get(studentId);
+                byOrdinal.put(ordinal, attendance);
+                changes.add(new StatusChange(studentId, current.statusOf(ordinal), attendance));
+            });
+            repository.updateBitmaps(sessionId, current.with(byOrdinal), user);
+            rollups.record(tenantId, courseId, session.startsAt(), changes);
+        });
+        return getSessionSummary(tenantId, courseId, sessionId);
+    }
+
+    /**
+     * Check-in de varios alumnos en una sola escritura (lo usa {@link CheckInBuffer}). Queda PRESENT,
+     * o LATE si llegó después de inicio + {@code lateAfter}; un alumno ya PRESENT o LATE no cambia
+     * (toques repetidos), uno marcado ABSENT sí. Cuando vuelve, los cambios ya están confirmados.
+     *
+     * @param arrivals alumno → hora en que hizo check-in
+     */
+    public Map<Long, CheckInReceipt> checkIn(long tenantId, long courseId, long sessionId, Map<Long, Instant> arrivals) {
+        ClassSession session = getSessionSummary(tenantId, courseId, sessionId);
+        Instant lateFrom = session.startsAt().plus(properties.lateAfter());
+        return transactionTemplate.execute(status -> {
+            SessionBitmaps current = repository.lockBitmaps(tenantId, courseId, sessionId)
+                    .orElseThrow(() -> sessionNotFound(courseId, sessionId));
+            Map<Long, Integer> ordinals = ordinals(courseId, arrivals.keySet(), false);
+            Map<Integer, AttendanceStatus> changes = new HashMap<>(arrivals.size() * 2);
+            Map<Long, CheckInReceipt> receipts = new HashMap<>(arrivals.size() * 2);
+            List<StatusChange> rollupChanges = new ArrayList<>(arrivals.size());
+            arrivals.forEach((studentId, at) -> {
+                Integer ordinal = ordinals.get(studentId);
+                AttendanceStatus previous = ordinal == null ? null : current.statusOf(ordinal);
+                CheckInReceipt receipt;
+                if (ordinal == null) {
+                    receipt = new CheckInReceipt(sessionId, studentId, null, CheckInReceipt.Result.NOT_ENROLLED);
+                } else if (previous == AttendanceStatus.PRESENT || previous == AttendanceStatus.LATE) {
+                    receipt = new CheckInReceipt(sessionId, studentId, previous, CheckInReceipt.Result.ALREADY_CHECKED_IN);
+                } else {
+                    AttendanceStatus arrived = at.isAfter(lateFrom) ? AttendanceStatus.LATE : AttendanceStatus.PRESENT;
+                    changes.put(ordinal, arrived);
+                    rollupChanges.add(new StatusChange(studentId, previous, arrived));
+                    receipt = new CheckInReceipt(sessionId, studentId, arrived, CheckInReceipt.Result.CHECKED_IN);
+                }
+                receipts.put(studentId, receipt);
+            });
+            if (!changes.isEmpty()) {
+                repository.updateBitmaps(sessionId, current.with(changes), CHECK_IN_USER);
+                rollups.record(tenantId, courseId, session.startsAt(), rollupChanges);
+            }
+            return receipts;
+        });
+    }
+
+    /**
+     * Historial del alumno en el curso, sesiones en [from, to). Cada sesión se resuelve con una
+     * consulta de pertenencia a los bitmaps sobre los bytes leídos, sin deserializarlos.
+     */
+    public StudentAttendance studentHistory(long tenantId, long courseId, long studentId, Instant from, Instant to) {
+        checkCourse(tenantId, courseId);
+        if (!enrollments.studentExists(tenantId, studentId)) {
+            throw new NotFoundException("Alumno " + studentId + " no encontrado.");
+        }
+        // Sin ordinal nunca fue registrado: todas las sesiones quedan sin estado
+        OptionalInt ordinal = repository.findOrdinal(courseId, studentId);
+        int[] totals = new int[AttendanceStatus.values().length];
+        List<StudentAttendance.Entry> history = new ArrayList<>();
+        repository.forEachSession(courseId, from == null ? FAR_PAST : from, to == null ? FAR_FUTURE : to,
+                (session, bitmaps) -> {
+                    AttendanceStatus attendance = ordinal.isPresent() ? bitmaps.statusOf(ordinal.getAsInt()) : null;
+                    if (attendance != null) {
+                        totals[attendance.ordinal()]++;
+                    }
+                    history.add(new StudentAttendance.Entry(session.id(), session.startsAt(), attendance));
+                });
+        int present = totals[AttendanceStatus.PRESENT.ordinal()];
+        int absent = totals[AttendanceStatus.ABSENT.ordinal()];
+        int late = totals[AttendanceStatus.LATE.ordinal()];
+        return new StudentAttendance(courseId, studentId, history.size(), present, absent, late,
+                history.size() - present - absent - late, history);
+    }
+
+    /*
+     * Ordinal de cada alumno; los que faltan se agregan al final del roster bajo el lock de
+     * course_roster_size. Los que no están en el roster ni matriculados quedan fuera del resultado,
+     * o cortan con 400 si {@code rejectUnenrolled}.
+     */
+    private Map<Long, Integer> ordinals(long courseId, Set<Long> studentIds, boolean rejectUnenrolled) {
+        Map<Long, Integer> ordinals = repository.findOrdinals(courseId, studentIds);
+        if (ordinals.size() == studentIds.size()) {
+            return ordinals;
+        }
+        List<Long> missing = studentIds.stream().filter(id -> !ordinals.containsKey(id)).sorted().toList();
+        Set<Long> enrolled = repository.findEnrolled(courseId, missing);
+        if (enrolled.size() < missing.size() && rejectUnenrolled) {
+            List<Long> rejected = missing.stream().filter(id -> !enrolled.contains(id)).limit(10).toList();
+            throw new IllegalArgumentException("Alumnos sin matrícula en el curso " + courseId + ": " + rejected + ".");
+        }
+        if (enrolled.isEmpty()) {
+            return ordinals;
+        }
+        int size = repository.lockRosterSize(courseId);
+        // Otra transacción pudo asignarlos mientras esperábamos el lock
+        Map<Long, Integer> again = repository.findOrdinals(courseId, enrolled);
+        ordinals.putAll(again);
+        List<Long> append = missing.stream().filter(id -> enrolled.contains(id) && !again.containsKey(id)).toList();
+        if (!append.isEmpty()) {
+            repository.appendToRoster(courseId, size, append);
+            for (int i = 0; i < append.size(); i++) {
+                ordinals.put(append.get(i), size + i);
+            }
+        }
+        return ordinals;
+    }
+
+    private ClassSession getSessionSummary(long tenantId, long courseId, long sessionId) {
+        return repository.findSession(tenantId, courseId, sessionId)
+                .orElseThrow(() -> sessionNotFound(courseId, sessionId));
+    }
+
+    private void checkCourse(long tenantId, long courseId) {
+        if (!enrollments.courseExists(tenantId, courseId)) {
+            throw new NotFoundException("Curso " + courseId + " no encontrado.");
+        }
+    }
+
+    private static NotFoundException sessionNotFound(long courseId, long sessionId) {
+        return new NotFoundException("Sesión " + sessionId + " no encontrada en el curso " + courseId + ".");
+    }
+}
@@ -0,0 +1,198 @@
+package com.edira.edira_api.service.attendance;
+
+import com.edira.edira_api.domain.attendance.CheckInReceipt;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Junta los check-ins de cada sesión y los escribe de a lote (group commit): al empezar una clase
+ * llegan cientos de check-ins en segundos y cada uno por separado sería una transacción sobre la
+ * misma fila de class_session, con todos esperando conexión del pool.
+ * <p>
+ * Cada {@code checkInFlushInterval}, o apenas una sesión junta {@code checkInMaxBatch} check-ins,
+ * el lote va en una sola llamada a {@link AttendanceService#checkIn}. El future de cada check-in se
+ * completa recién después del commit. Hay a lo sumo una escritura en curso por sesión (lo que
+ * llega mientras tanto espera al siguiente lote) y {@code checkInFlushConcurrency} en total.
+ * <p>
+ * Un toque repetido del mismo alumno en el mismo lote devuelve el mismo future; en lotes distintos
+ * lo resuelve {@code checkIn} (ALREADY_CHECKED_IN). Lo pendiente vive solo en memoria: si el nodo
+ * se cae antes de escribirlo el cliente no recibió confirmación y reintenta.
+ */
+public class CheckInBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckInBuffer.class);
+
+    private record Key(long tenantId, long courseId, long sessionId) {
+    }
+
+    private record Pending(Instant at, CompletableFuture<CheckInReceipt> ack) {
+    }
+
+    // Lote abierto de una sesión; closed = ya lo tomó una escritura y no admite más
+    private static final class Batch {
+        final Map<Long, Pending> entries = new LinkedHashMap<>();
+        boolean closed;
+    }
+
+    private final AttendanceService service;
+    private final AttendanceProperties properties;
+    private final Clock clock;
+    private final Map<Key, Batch> open = new ConcurrentHashMap<>();
+    private final Set<Key> flushing = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Semaphore writers;
+    private final ExecutorService flushers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("check-in-", 0).factory());
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("check-in-ticker").daemon().factory());
+    private volatile boolean stopping;
+
+    public CheckInBuffer(AttendanceService service, AttendanceProperties properties, Clock clock) {
+        this.service = service;
+        this.properties = properties;
+        this.clock = clock;
+        this.writers = new Semaphore(properties.checkInFlushConcurrency());
+        long interval = properties.checkInFlushInterval().toNanos();
+        ticker.scheduleWithFixedDelay(this::flushAll, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Encola el check-in. El future se completa con el resultado ya confirmado en la base, o con
+     * la excepción de la escritura (sesión inexistente, base caída).
+     *
+     * @throws RejectedExecutionException si hay demasiados check-ins pendientes o el nodo se está apagando
+     */
+    public CompletableFuture<CheckInReceipt> submit(long tenantId, long courseId, long sessionId, long studentId) {
+        Key key = new Key(tenantId, courseId, sessionId);
+        while (true) {
+            if (stopping) {
+                throw new RejectedExecutionException("El nodo se está apagando.");
+            }
+            Batch batch = open.computeIfAbsent(key, k -> new Batch());
+            boolean full;
+            CompletableFuture<CheckInReceipt> ack;
+            synchronized (batch) {
+                if (batch.closed) {
+                    continue;  // una escritura acaba de tomar este lote: va al siguiente
+                }
+                Pending repeated = batch.entries.get(studentId);
+                if (repeated != null) {
+                    return repeated.ack();
+                }
+                if (pending.incrementAndGet() > properties.checkInMaxPending()) {
+                    pending.decrementAndGet();
+                    throw new RejectedExecutionException("Demasiados check-ins pendientes; reintentar.");
+                }
+                ack = new CompletableFuture<>();
+                batch.entries.put(studentId, new Pending(clock.instant(), ack));
+                full = batch.entries.size() >= properties.checkInMaxBatch();
+            }
+            if (full) {
+                flush(key);
+            }
+            return ack;
+        }
+    }
+
+    /** Espera máxima sugerida para un future de {@link #submit}. */
+    public Duration ackTimeout() {
+        return properties.checkInAckTimeout();
+    }
+
+    /** Check-ins aceptados que todavía no se escribieron. */
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    private void flushAll() {
+        for (Key key : open.keySet()) {
+            flush(key);
+        }
+    }
+
+    // Lanza la escritura del lote de la sesión, salvo que ya haya una en curso (ésa relanza al terminar)
+    private void flush(Key key) {
+        if (!flushing.add(key)) {
+            return;
+        }
+        try {
+            flushers.execute(() -> {
+                try {
+                    write(key);
+                } finally {
+                    flushing.remove(key);
+                }
+                Batch next = open.get(key);
+                if (next != null && size(next) >= properties.checkInMaxBatch()) {
+                    flush(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            flushing.remove(key);  // apagándose: shutdown escribe lo que quede
+        }
+    }
+
+    private void write(Key key) {
+        Batch batch = open.remove(key);
+        if (batch == null) {
+            return;
+        }
+        Map<Long, Pending> entries;
+        synchronized (batch) {
+            batch.closed = true;
+            entries = batch.entries;
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<Long, Instant> arrivals = new LinkedHashMap<>(entries.size() * 2);
+        entries.forEach((studentId, entry) -> arrivals.put(studentId, entry.at()));
+        writers.acquireUninterruptibly();
+        try {
+            long began = System.nanoTime();
+            Map<Long, CheckInReceipt> receipts = service.checkIn(key.tenantId(), key.courseId(), key.sessionId(), arrivals);
+            entries.forEach((studentId, entry) -> entry.ack().complete(receipts.get(studentId)));
+            log.debug("CHECK_IN_FLUSH session={} entries={} ms={}", key.sessionId(), entries.size(),
+                    (System.nanoTime() - began) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("CHECK_IN_FLUSH_FAILED session={} entries={}", key.sessionId(), entries.size(), e);
+            entries.values().forEach(entry -> entry.ack().completeExceptionally(e));
+        } finally {
+            writers.release();
+            pending.addAndGet(-entries.size());
+        }
+    }
+
+    private static int size(Batch batch) {
+        synchronized (batch) {
+            return batch.entries.size();
+        }
+    }
+
+    /** Deja de aceptar check-ins y escribe lo pendiente antes de cerrar el contexto. */
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        ticker.shutdownNow();
+        flushers.close();  // espera las escrituras en curso
+        for (Key key : open.keySet()) {
+            write(key);
+        }
+    }
+}
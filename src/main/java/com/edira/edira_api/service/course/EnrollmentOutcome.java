@@ -0,0 +1,21 @@
+package com.edira.edira_api.service.course;
+
+import com.edira.edira_api.domain.course.Enrollment;
+
+/**
+ * Resultado de matricular. {@link Result#FULL} no es una excepción: el curso sin cupo es el caso
+ * normal de una apertura de matrículas y el controller lo responde como 409 directamente.
+ */
+public record EnrollmentOutcome(Result result, Enrollment enrollment) {
+
+    public enum Result {
+        /** Matrícula nueva (ENROLLED o WAITLISTED). */
+        CREATED,
+        /** El alumno ya estaba matriculado o esperando; se devuelve tal cual. */
+        EXISTING,
+        /** Sin asiento libre y sin lista de espera pedida; no se guarda nada. */
+        FULL
+    }
+
+    static final EnrollmentOutcome FULL = new EnrollmentOutcome(Result.FULL, null);
+}
@@ -0,0 +1,21 @@
+package com.edira.edira_api.service.course;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Cursos y matrículas (prefijo {@code edira.enrollment}).
+ *
+ * @param maxCapacity     cupo máximo de un curso (una fila de course_seat por asiento)
+ * @param promoteInterval cada cuánto se revisan cursos con asientos libres y lista de espera
+ * @param promoteBatch    cursos por revisión
+ */
+@ConfigurationProperties(prefix = "edira.enrollment")
+public record EnrollmentProperties(
+        @DefaultValue("5000") int maxCapacity,
+        @DefaultValue("30s") Duration promoteInterval,
+        @DefaultValue("100") int promoteBatch
+) {
+}
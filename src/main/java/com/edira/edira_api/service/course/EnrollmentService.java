@@ -0,0 +1,234 @@
+package com.edira.edira_api.service.course;
+
+import com.edira.edira_api.domain.course.Course;
+import com.edira.edira_api.domain.course.Enrollment;
+import com.edira.edira_api.domain.course.EnrollmentStatus;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.course.EnrollmentRepository.HeldEnrollment;
+import com.edira.edira_api.shared.error.ConflictException;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * Cursos y matrículas con cupo por asientos (course_seat) en lugar de un contador.
+ * <p>
+ * Matricular inserta la matrícula y toma el asiento libre más bajo con {@code SKIP LOCKED}: las
+ * transacciones concurrentes sobre el mismo curso toman asientos distintos sin esperarse ni
+ * reintentar. Sin asiento, la matrícula queda en la lista de espera (o se responde FULL sin
+ * guardar nada). Un asiento que se libera pasa en la misma transacción al primero de la lista,
+ * así alguien que llega después no se lo gana a quien ya esperaba.
+ * <p>
+ * Las transacciones van en READ COMMITTED: sin gap locks de REPEATABLE READ, las lecturas con
+ * SKIP LOCKED solo bloquean las filas que devuelven.
+ */
+@Service
+public class EnrollmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentService.class);
+
+    private final EnrollmentRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final EnrollmentProperties properties;
+    private final Clock clock = Clock.systemUTC();
+
+    public EnrollmentService(EnrollmentRepository repository, PlatformTransactionManager transactionManager,
+                             EnrollmentProperties properties) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.properties = properties;
+    }
+
+    public Course createCourse(long tenantId, String code, String name, int capacity, String user) {
+        checkCapacity(capacity);
+        long id = transactionTemplate.execute(status -> {
+            long courseId = repository.insertCourse(tenantId, code, name, capacity, user);
+            repository.addSeats(courseId, 1, capacity);
+            return courseId;
+        });
+        return getCourse(tenantId, id);
+    }
+
+    public Course getCourse(long tenantId, long courseId) {
+        return repository.findCourse(tenantId, courseId)
+                .orElseThrow(() -> new NotFoundException("Curso " + courseId + " no encontrado."));
+    }
+
+    /**
+     * Sube o baja el cupo. Al subir, los asientos nuevos van primero a la lista de espera; al bajar
+     * solo se quitan asientos libres (409 si hay más matriculados que el cupo pedido).
+     */
+    public Course changeCapacity(long tenantId, long courseId, int capacity, String user) {
+        checkCapacity(capacity);
+        transactionTemplate.executeWithoutResult(status -> {
+            // La fila del curso primero: una matrícula en curso la tiene con lock compartido (FK),
+            // así que esto espera a que terminen y no hay otras tomando asientos mientras tanto
+            int current = repository.lockCourseCapacity(tenantId, courseId)
+                    .orElseThrow(() -> new NotFoundException("Curso " + courseId + " no encontrado."));
+            if (capacity > current) {
+                repository.addSeats(courseId, repository.maxSeatNo(courseId) + 1, capacity - current);
+                int promoted = promote(courseId, capacity - current);
+                log.info("COURSE_CAPACITY course={} from={} to={} promoted={}", courseId, current, capacity, promoted);
+            } else if (capacity < current) {
+                List<Integer> free = repository.lockFreeSeats(courseId, current - capacity, true);
+                if (free.size() < current - capacity) {
+                    throw new ConflictException("El curso " + courseId + " tiene " + (current - free.size())
+                            + " asientos ocupados; no se puede bajar el cupo a " + capacity + ".");
+                }
+                repository.deleteSeats(courseId, free);
+                log.info("COURSE_CAPACITY course={} from={} to={}", courseId, current, capacity);
+            }
+            repository.updateCapacity(courseId, capacity, user);
+        });
+        return getCourse(tenantId, courseId);
+    }
+
+    /**
+     * Matricula al alumno. Una matrícula repetida devuelve la existente; un curso lleno devuelve
+     * {@link EnrollmentOutcome.Result#FULL} si no se pidió lista de espera.
+     */
+    public EnrollmentOutcome enroll(long tenantId, long courseId, long studentId, boolean waitlist, String user) {
+        if (!repository.courseExists(tenantId, courseId)) {
+            throw new NotFoundException("Curso " + courseId + " no encontrado.");
+        }
+        if (!repository.studentExists(tenantId, studentId)) {
+            throw new NotFoundException("Alumno " + studentId + " no encontrado.");
+        }
+        Boolean created = transactionTemplate.execute(status -> {
+            // Primero la matrícula (toma el lock compartido del curso por la FK) y después el asiento:
+            // el mismo orden que changeCapacity, sin deadlocks entre ambos
+            OptionalLong inserted = repository.insertEnrollment(tenantId, courseId, studentId,
+                    EnrollmentStatus.WAITLISTED, user);
+            if (inserted.isEmpty()) {
+                return false;
+            }
+            long enrollmentId = inserted.getAsLong();
+            List<Integer> seat = repository.lockFreeSeats(courseId, 1, false);
+            if (seat.isEmpty()) {
+                if (!waitlist) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return true;
+            }
+            // Hay asiento, pero si alguien ya esperaba le corresponde a él y esta matrícula queda en espera
+            // (o, sin waitlist, no se guarda: para este alumno el curso está lleno). Si otra transacción
+            // tiene tomado al primero no se salta al siguiente: el asiento queda libre y promoteWaitlists
+            // lo asigna en orden
+            long taker = repository.findWaitlistHead(courseId).orElse(enrollmentId);
+            if (taker != enrollmentId) {
+                if (!waitlist) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                if (!repository.lockWaitlisted(taker)) {
+                    return true;
+                }
+            }
+            repository.assignSeat(courseId, seat.get(0), taker, clock.instant());
+            repository.updateStatus(taker, EnrollmentStatus.ENROLLED);
+            return true;
+        });
+        if (created == null) {
+            return EnrollmentOutcome.FULL;
+        }
+        Enrollment enrollment = getEnrollment(tenantId, courseId, studentId);
+        return new EnrollmentOutcome(created ? EnrollmentOutcome.Result.CREATED : EnrollmentOutcome.Result.EXISTING,
+                enrollment);
+    }
+
+    /**
+     * Matricula a varios alumnos del tenant en un curso (cargas masivas): los nuevos entran a la
+     * lista de espera y luego se llenan los asientos libres en orden de llegada, sin 409 por cupo.
+     * Si ya hay una transacción abierta se suma a ella.
+     */
+    public BatchResult enrollAll(long tenantId, long courseId, Collection<Long> studentIds, String user) {
+        return transactionTemplate.execute(status -> {
+            Set<Long> existing = repository.findEnrolledStudents(courseId, studentIds);
+            List<Long> missing = studentIds.stream().filter(id -> !existing.contains(id)).distinct().toList();
+            repository.insertWaitlisted(tenantId, courseId, missing, user);
+            // La relectura ve las filas de esta transacción, no las que otra insertó en paralelo
+            int created = repository.findEnrolledStudents(courseId, missing).size();
+            int enrolled = promote(courseId, created);
+            return new BatchResult(created, studentIds.size() - missing.size(), enrolled);
+        });
+    }
+
+    /**
+     * @param created  matrículas nuevas
+     * @param existing alumnos que ya tenían matrícula en el curso
+     * @param seated   asientos asignados (a los nuevos o a quienes ya esperaban antes)
+     */
+    public record BatchResult(int created, int existing, int seated) {
+    }
+
+    public Enrollment getEnrollment(long tenantId, long courseId, long studentId) {
+        return repository.findEnrollment(tenantId, courseId, studentId)
+                .orElseThrow(() -> new NotFoundException(
+                        "El alumno " + studentId + " no tiene matrícula en el curso " + courseId + "."));
+    }
+
+    /** Da de baja la matrícula; su asiento pasa al primero de la lista de espera, si hay. */
+    public void drop(long tenantId, long courseId, long studentId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            HeldEnrollment held = repository.lockEnrollment(tenantId, courseId, studentId)
+                    .orElseThrow(() -> new NotFoundException(
+                            "El alumno " + studentId + " no tiene matrícula en el curso " + courseId + "."));
+            if (held.seatNo() != null) {
+                OptionalLong head = repository.lockWaitlistHead(courseId);
+                if (head.isPresent()) {
+                    repository.assignSeat(courseId, held.seatNo(), head.getAsLong(), clock.instant());
+                    repository.updateStatus(head.getAsLong(), EnrollmentStatus.ENROLLED);
+                } else {
+                    repository.releaseSeat(courseId, held.seatNo());
+                }
+            }
+            repository.deleteEnrollment(held.id());
+        });
+    }
+
+    /**
+     * Pasa gente de la lista de espera a asientos libres. Normalmente no hay nada que hacer: queda
+     * algo solo si una matrícula tomó un asiento e hizo rollback mientras otra pasaba a esperar.
+     */
+    public int promoteWaitlists() {
+        int total = 0;
+        for (long courseId : repository.findCoursesWithPromotableWaitlist(properties.promoteBatch())) {
+            Integer promoted = transactionTemplate.execute(status -> promote(courseId, properties.maxCapacity()));
+            total += promoted == null ? 0 : promoted;
+        }
+        return total;
+    }
+
+    // Asientos libres y primeros de la lista de a varios: tres sentencias por curso, no por alumno
+    private int promote(long courseId, int limit) {
+        List<Integer> seats = repository.lockFreeSeats(courseId, limit, false);
+        if (seats.isEmpty()) {
+            return 0;
+        }
+        List<Long> heads = repository.lockWaitlistHeads(courseId, seats.size());
+        if (heads.isEmpty()) {
+            return 0;
+        }
+        repository.assignSeats(courseId, seats, heads, clock.instant());
+        repository.markEnrolled(heads);
+        return heads.size();
+    }
+
+    private void checkCapacity(int capacity) {
+        if (capacity < 0 || capacity > properties.maxCapacity()) {
+            throw new IllegalArgumentException("El cupo debe estar entre 0 y " + properties.maxCapacity() + ".");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.edira.edira_api.service.course;
+
+import com.edira.edira_api.shared.scheduling.ClusterScheduled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Revisión periódica de listas de espera con asientos libres (ver
+ * {@link EnrollmentService#promoteWaitlists()}). Corre en un solo nodo del cluster.
+ */
+public class WaitlistPromoter {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistPromoter.class);
+
+    private final EnrollmentService service;
+
+    public WaitlistPromoter(EnrollmentService service) {
+        this.service = service;
+    }
+
+    @ClusterScheduled
+    @Scheduled(initialDelayString = "${edira.enrollment.promote-interval:30s}",
+            fixedDelayString = "${edira.enrollment.promote-interval:30s}")
+    public void promote() {
+        int promoted = service.promoteWaitlists();
+        if (promoted > 0) {
+            log.info("WAITLIST_PROMOTE promoted={}", promoted);
+        }
+    }
+}
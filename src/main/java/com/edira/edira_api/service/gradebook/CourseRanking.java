@@ -0,0 +1,123 @@
+package com.edira.edira_api.service.gradebook;
+
+import com.edira.edira_api.domain.gradebook.Standing;
+
+/**
+ * Ranking de un curso en memoria: un árbol de Fenwick que cuenta alumnos por promedio en
+ * centésimas (1.00 a 7.00, 601 casillas). Mover a un alumno, su puesto y el k-ésimo promedio
+ * cuestan O(log 601) sin importar cuántos alumnos tenga el curso; dos promedios que redondean a
+ * la misma centésima empatan.
+ * <p>
+ * Lleva la versión de gradebook_course con que quedó al día: {@link #apply} solo avanza si viene
+ * de esa versión, si no queda atrasado y {@link GradebookService} lo reconstruye al leer.
+ */
+final class CourseRanking {
+
+    static final int MIN = 100;
+    static final int MAX = 700;
+
+    // 1-indexado: la casilla de c centésimas es c - MIN + 1
+    private final int[] tree = new int[MAX - MIN + 2];
+    private int size;
+    private long version;
+    private volatile long lastRead;
+
+    CourseRanking(long version) {
+        this.version = version;
+        this.lastRead = System.nanoTime();
+    }
+
+    /** Promedio en centésimas, redondeado hacia arriba desde la media centésima. */
+    static int hundredths(long weightedSum, long weightTotal) {
+        // weightedSum está en décimas: × 10 para centésimas, × 2 y + total para redondear
+        return (int) ((weightedSum * 20 + weightTotal) / (weightTotal * 2));
+    }
+
+    synchronized long version() {
+        return version;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void add(int hundredths) {
+        update(hundredths, 1);
+        size++;
+    }
+
+    /**
+     * Aplica los movimientos de una escritura ya confirmada si el ranking estaba en {@code from}.
+     *
+     * @param moves pares (anterior, nuevo) en centésimas; -1 = sin promedio
+     * @return false si estaba en otra versión y no se tocó
+     */
+    synchronized boolean apply(long from, long to, int[] moves) {
+        if (version != from) {
+            return false;
+        }
+        for (int i = 0; i < moves.length; i += 2) {
+            if (moves[i] >= 0) {
+                update(moves[i], -1);
+                size--;
+            }
+            if (moves[i + 1] >= 0) {
+                update(moves[i + 1], 1);
+                size++;
+            }
+        }
+        version = to;
+        return true;
+    }
+
+    synchronized Standing standing(int hundredths) {
+        int below = prefix(index(hundredths) - 1);
+        int atOrBelow = prefix(index(hundredths));
+        double percentile = size == 0 ? 0 : (below + (atOrBelow - below) / 2.0) * 100 / size;
+        return new Standing(size - atOrBelow + 1, size, Math.round(percentile * 10) / 10.0);
+    }
+
+    /** Mediana (la inferior con cantidad par) en centésimas; -1 sin alumnos. */
+    synchronized int median() {
+        return size == 0 ? -1 : select((size + 1) / 2);
+    }
+
+    void touch() {
+        lastRead = System.nanoTime();
+    }
+
+    long lastRead() {
+        return lastRead;
+    }
+
+    // k-ésimo promedio de menor a mayor (k desde 1): descenso por potencias de dos
+    private int select(int k) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] < k) {
+                position = next;
+                k -= tree[next];
+            }
+        }
+        return position + MIN;
+    }
+
+    private void update(int hundredths, int delta) {
+        for (int i = index(hundredths); i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private int prefix(int index) {
+        int count = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    private static int index(int hundredths) {
+        return Math.clamp(hundredths, MIN, MAX) - MIN + 1;
+    }
+}
@@ -0,0 +1,46 @@
+package com.edira.edira_api.service.gradebook;
+
+import com.edira.edira_api.service.job.JobContext;
+import com.edira.edira_api.service.job.JobHandler;
+import com.edira.edira_api.service.job.JobResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Job {@value #TYPE}: recalcula las notas finales con la fórmula vigente. Con
+ * {@code {"courseId": 12}} solo ese curso; sin payload, todos los cursos del tenant con fórmula,
+ * uno tras otro (cada uno ya usa todos los hilos del pool de recálculo).
+ */
+@Component
+public class FinalGradeRecomputeJob implements JobHandler {
+
+    static final String TYPE = "final-grade-recompute";
+
+    private final GradingFormulaService formulas;
+
+    public FinalGradeRecomputeJob(GradingFormulaService formulas) {
+        this.formulas = formulas;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public JobResult run(JobContext context) {
+        JsonNode courseId = context.payload().path("courseId");
+        List<Long> courses = courseId.canConvertToLong()
+                ? List.of(courseId.asLong())
+                : formulas.coursesWithFormula(context.tenantId());
+        long done = 0;
+        for (long course : courses) {
+            context.checkCancelled();
+            formulas.recompute(context.tenantId(), course);
+            context.progress(++done, (long) courses.size(), "cursos recalculados");
+        }
+        return JobResult.NONE;
+    }
+}
@@ -0,0 +1,21 @@
+package com.edira.edira_api.service.gradebook;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Evaluaciones y notas (prefijo {@code edira.gradebook}).
+ *
+ * @param rankingCourses       cursos con ranking en memoria por nodo; sobre eso sale el leído hace más tiempo
+ * @param maxTop               tope de {@code limit} en el ranking del curso
+ * @param formulaCourses       cursos con la fórmula de nota final compilada en memoria por nodo
+ * @param recomputeParallelism hilos del pool que recalcula notas finales; 0 = uno por procesador
+ */
+@ConfigurationProperties(prefix = "edira.gradebook")
+public record GradebookProperties(
+        @DefaultValue("2000") int rankingCourses,
+        @DefaultValue("100") int maxTop,
+        @DefaultValue("2000") int formulaCourses,
+        @DefaultValue("0") int recomputeParallelism
+) {
+}
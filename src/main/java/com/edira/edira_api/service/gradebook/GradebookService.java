@@ -0,0 +1,242 @@
+package com.edira.edira_api.service.gradebook;
+
+import com.edira.edira_api.domain.gradebook.CourseStanding;
+import com.edira.edira_api.domain.gradebook.Evaluation;
+import com.edira.edira_api.domain.gradebook.GradeBatch;
+import com.edira.edira_api.domain.gradebook.StudentGrades;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.gradebook.GradebookRepository;
+import com.edira.edira_api.persistence.gradebook.GradebookRepository.Aggregate;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluaciones, notas y promedios ponderados por curso (escala 1.0 a 7.0).
+ * <p>
+ * El promedio no se recalcula desde las notas: cada carga ajusta las sumas corridas de los alumnos
+ * que cambiaron (grade_aggregate), así una nota cuesta lo mismo con 3 evaluaciones que con 30.
+ * Una carga de todo el curso es una transacción con un INSERT multi-fila para las notas y otro
+ * para las sumas.
+ * <p>
+ * El puesto y el percentil salen de un {@link CourseRanking} por curso en memoria. Cada escritura
+ * sube la versión del curso y, ya confirmada, mueve a sus alumnos en el ranking local; un nodo
+ * que no hizo la escritura ve otra versión al leer y reconstruye el ranking desde la base.
+ */
+@Service
+public class GradebookService {
+
+    private static final Logger log = LoggerFactory.getLogger(GradebookService.class);
+
+    private final GradebookRepository repository;
+    private final EnrollmentRepository enrollments;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final GradebookProperties properties;
+    private final Map<Long, CourseRanking> rankings = new ConcurrentHashMap<>();
+
+    public GradebookService(GradebookRepository repository, EnrollmentRepository enrollments,
+                            PlatformTransactionManager transactionManager, GradebookProperties properties) {
+        this.repository = repository;
+        this.enrollments = enrollments;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        // La versión y las sumas del mismo snapshot: un ranking nunca queda marcado con una versión que no es la suya
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    /** 409 si el curso ya tiene una evaluación con ese código. */
+    public Evaluation createEvaluation(long tenantId, long courseId, String code, String name, int weight, String user) {
+        checkCourse(tenantId, courseId);
+        long id = repository.insertEvaluation(tenantId, courseId, code, name, weight, user);
+        return getEvaluation(tenantId, courseId, id);
+    }
+
+    public List<Evaluation> listEvaluations(long tenantId, long courseId) {
+        checkCourse(tenantId, courseId);
+        return repository.findEvaluations(tenantId, courseId);
+    }
+
+    /**
+     * Cambia código, nombre o peso. Un peso nuevo ajusta en un UPDATE las sumas de todos los alumnos
+     * con nota en la evaluación; los rankings del curso se reconstruyen en la próxima lectura.
+     */
+    public Evaluation updateEvaluation(long tenantId, long courseId, long evaluationId, String code, String name,
+                                       int weight, String user) {
+        checkCourse(tenantId, courseId);
+        transactionTemplate.executeWithoutResult(status -> {
+            long version = repository.lockVersion(courseId);
+            Evaluation current = getEvaluation(tenantId, courseId, evaluationId);
+            repository.updateEvaluation(evaluationId, code, name, weight, user);
+            if (weight != current.weight()) {
+                int students = repository.reweigh(evaluationId, weight - current.weight());
+                repository.updateVersion(courseId, version + 1);
+                log.info("GRADEBOOK_REWEIGH course={} evaluation={} weight={}->{} students={}",
+                        courseId, evaluationId, current.weight(), weight, students);
+            }
+        });
+        return getEvaluation(tenantId, courseId, evaluationId);
+    }
+
+    /**
+     * Carga o corrige notas de una evaluación para muchos alumnos a la vez (todos con matrícula
+     * ENROLLED en el curso). Solo los que cambian de nota tocan sus sumas y el ranking.
+     *
+     * @param scores alumno → nota en décimas (55 = 5.5)
+     */
+    public GradeBatch recordGrades(long tenantId, long courseId, long evaluationId, Map<Long, Integer> scores,
+                                   String user) {
+        checkCourse(tenantId, courseId);
+        long[] versions = new long[2];
+        List<Integer> moves = new ArrayList<>();
+        int changed = transactionTemplate.execute(status -> {
+            long version = repository.lockVersion(courseId);
+            Evaluation evaluation = getEvaluation(tenantId, courseId, evaluationId);
+            Set<Long> missing = new HashSet<>(scores.keySet());
+            missing.removeAll(repository.findEnrolled(courseId, scores.keySet()));
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Alumnos sin matrícula ENROLLED en el curso " + courseId + ": "
+                        + missing.stream().sorted().limit(20).toList() + ".");
+            }
+            Map<Long, Integer> previous = repository.findScores(evaluationId, scores.keySet());
+            // TreeMap: las filas de grade_aggregate se toman en orden de alumno en todas las cargas
+            Map<Long, Integer> changes = new TreeMap<>();
+            scores.forEach((studentId, score) -> {
+                if (!score.equals(previous.get(studentId))) {
+                    changes.put(studentId, score);
+                }
+            });
+            if (changes.isEmpty()) {
+                return 0;
+            }
+            Map<Long, Aggregate> before = repository.findAggregates(courseId, changes.keySet());
+            Map<Long, Aggregate> after = new TreeMap<>();
+            changes.forEach((studentId, score) -> {
+                Aggregate current = before.getOrDefault(studentId, Aggregate.EMPTY);
+                Integer old = previous.get(studentId);
+                Aggregate next = old == null
+                        ? new Aggregate(current.weightedSum() + (long) evaluation.weight() * score,
+                        current.weightTotal() + evaluation.weight(), current.gradedCount() + 1)
+                        : new Aggregate(current.weightedSum() + (long) evaluation.weight() * (score - old),
+                        current.weightTotal(), current.gradedCount());
+                after.put(studentId, next);
+                moves.add(hundredths(current));
+                moves.add(hundredths(next));
+            });
+            repository.upsertGrades(courseId, evaluationId, changes, user);
+            repository.upsertAggregates(tenantId, courseId, after);
+            repository.updateVersion(courseId, version + 1);
+            versions[0] = version;
+            versions[1] = version + 1;
+            return changes.size();
+        });
+        if (changed > 0) {
+            CourseRanking ranking = rankings.get(courseId);
+            if (ranking != null) {
+                ranking.apply(versions[0], versions[1], moves.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+        return new GradeBatch(evaluationId, scores.size(), changed);
+    }
+
+    /** Notas del alumno en el curso con su promedio y su posición. */
+    public StudentGrades studentGrades(long tenantId, long courseId, long studentId) {
+        checkCourse(tenantId, courseId);
+        if (!enrollments.studentExists(tenantId, studentId)) {
+            throw new NotFoundException("Alumno " + studentId + " no encontrado.");
+        }
+        List<StudentGrades.Entry> grades = repository.findStudentGrades(tenantId, courseId, studentId);
+        Aggregate aggregate = repository.findAggregate(courseId, studentId).orElse(Aggregate.EMPTY);
+        if (aggregate.weightTotal() == 0) {
+            return new StudentGrades(courseId, studentId, null, 0, null, grades);
+        }
+        int average = hundredths(aggregate);
+        return new StudentGrades(courseId, studentId, decimal(average), aggregate.weightTotal(),
+                ranking(courseId).standing(average), grades);
+    }
+
+    /** Ranking del curso con los {@code limit} primeros puestos. */
+    public CourseStanding standing(long tenantId, long courseId, int limit) {
+        checkCourse(tenantId, courseId);
+        if (limit < 1 || limit > properties.maxTop()) {
+            throw new IllegalArgumentException("limit debe estar entre 1 y " + properties.maxTop() + ".");
+        }
+        CourseRanking ranking = ranking(courseId);
+        List<Long> top = repository.findTopStudents(courseId, limit);
+        Map<Long, Aggregate> aggregates = repository.findAggregates(courseId, top);
+        List<CourseStanding.Entry> entries = new ArrayList<>(top.size());
+        for (long studentId : top) {
+            Aggregate aggregate = aggregates.get(studentId);
+            if (aggregate != null && aggregate.weightTotal() > 0) {
+                int average = hundredths(aggregate);
+                entries.add(new CourseStanding.Entry(studentId, decimal(average), ranking.standing(average)));
+            }
+        }
+        int median = ranking.median();
+        return new CourseStanding(courseId, ranking.size(), median < 0 ? null : decimal(median), entries);
+    }
+
+    /** Ranking del curso al día con la base: el de memoria si tiene la versión actual, si no uno nuevo. */
+    CourseRanking ranking(long courseId) {
+        CourseRanking cached = rankings.get(courseId);
+        if (cached != null && cached.version() == repository.findVersion(courseId)) {
+            cached.touch();
+            return cached;
+        }
+        CourseRanking rebuilt = snapshotTemplate.execute(status -> {
+            CourseRanking ranking = new CourseRanking(repository.findVersion(courseId));
+            repository.forEachAggregate(courseId, (studentId, weightedSum, weightTotal) ->
+                    ranking.add(CourseRanking.hundredths(weightedSum, weightTotal)));
+            return ranking;
+        });
+        rankings.put(courseId, rebuilt);
+        if (rankings.size() > properties.rankingCourses()) {
+            evictLeastRecentlyRead();
+        }
+        return rebuilt;
+    }
+
+    private void evictLeastRecentlyRead() {
+        rankings.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().lastRead()))
+                .ifPresent(oldest -> rankings.remove(oldest.getKey(), oldest.getValue()));
+    }
+
+    private Evaluation getEvaluation(long tenantId, long courseId, long evaluationId) {
+        return repository.findEvaluation(tenantId, courseId, evaluationId)
+                .orElseThrow(() -> new NotFoundException("Evaluación " + evaluationId + " no encontrada en el curso "
+                        + courseId + "."));
+    }
+
+    private void checkCourse(long tenantId, long courseId) {
+        if (!enrollments.courseExists(tenantId, courseId)) {
+            throw new NotFoundException("Curso " + courseId + " no encontrado.");
+        }
+    }
+
+    private static int hundredths(Aggregate aggregate) {
+        return aggregate.weightTotal() == 0 ? -1
+                : CourseRanking.hundredths(aggregate.weightedSum(), aggregate.weightTotal());
+    }
+
+    private static BigDecimal decimal(int hundredths) {
+        return BigDecimal.valueOf(hundredths, 2);
+    }
+}
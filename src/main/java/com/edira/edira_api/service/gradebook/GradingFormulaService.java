@@ -0,0 +1,264 @@
+package com.edira.edira_api.service.gradebook;
+
+import com.edira.edira_api.domain.gradebook.CourseFormula;
+import com.edira.edira_api.domain.gradebook.FinalGrade;
+import com.edira.edira_api.domain.gradebook.FinalGradeRun;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.gradebook.GradebookRepository;
+import com.edira.edira_api.persistence.gradebook.GradingFormulaRepository;
+import com.edira.edira_api.persistence.gradebook.GradingFormulaRepository.StoredFormula;
+import com.edira.edira_api.service.gradebook.formula.FormulaMath;
+import com.edira.edira_api.service.gradebook.formula.GradingFormula;
+import com.edira.edira_api.shared.error.NotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fórmula de nota final por curso y su recálculo.
+ * <p>
+ * La fórmula se valida contra las evaluaciones del curso al guardarla (400 con un detalle por
+ * error) y se guarda como versión nueva. Cada nodo la compila una vez por (curso, versión) y
+ * reutiliza esa instancia hasta que aparezca otra versión.
+ * <p>
+ * Recalcular un curso lee todas sus notas de un snapshot a una matriz alumno × variable (NaN =
+ * sin nota), reparte las filas en un {@link ForkJoinPool} propio (no el común, que comparten los
+ * streams paralelos de toda la JVM) y reemplaza las notas finales en una transacción.
+ */
+@Service
+public class GradingFormulaService {
+
+    /** Variable de sistema: promedio ponderado corrido del alumno (1.0 a 7.0). */
+    public static final String WEIGHTED = "weighted";
+
+    /**
+     * Filas por tarea hoja. Bajo: un curso normal (30–60 alumnos) ya se reparte en 2–4 tramos; cada
+     * fork cuesta microsegundos, nada al lado de leer el snapshot del curso.
+     */
+    static final int SPLIT_ROWS = 16;
+
+    private static final Logger log = LoggerFactory.getLogger(GradingFormulaService.class);
+
+    private record Compiled(int version, GradingFormula formula) {
+    }
+
+    private final GradingFormulaRepository repository;
+    private final GradebookRepository gradebook;
+    private final EnrollmentRepository enrollments;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final GradebookProperties properties;
+    private final ForkJoinPool pool;
+    private final Map<Long, Compiled> compiled = new ConcurrentHashMap<>();
+
+    public GradingFormulaService(GradingFormulaRepository repository, GradebookRepository gradebook,
+                                 EnrollmentRepository enrollments, PlatformTransactionManager transactionManager,
+                                 GradebookProperties properties) {
+        this.repository = repository;
+        this.gradebook = gradebook;
+        this.enrollments = enrollments;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        // Fórmula, alumnos, notas y promedios del mismo instante
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.properties = properties;
+        this.pool = new ForkJoinPool(properties.recomputeParallelism() > 0
+                ? properties.recomputeParallelism() : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Valida y guarda una versión nueva de la fórmula del curso.
+     *
+     * @throws com.edira.edira_api.shared.error.ValidationFailedException sintaxis inválida o códigos que
+     *                                                                    no son evaluaciones del curso
+     */
+    public CourseFormula saveFormula(long tenantId, long courseId, String source, String user) {
+        checkCourse(tenantId, courseId);
+        Set<String> known = new HashSet<>();
+        known.add(WEIGHTED);
+        gradebook.findEvaluations(tenantId, courseId).forEach(evaluation -> known.add(evaluation.code()));
+        GradingFormula formula = GradingFormula.compile(source, known::contains);
+        int version = transactionTemplate.execute(status -> {
+            // mismo lock que las notas del curso: dos guardados simultáneos no sacan la misma versión
+            gradebook.lockVersion(courseId);
+            int next = repository.findCurrent(tenantId, courseId).map(StoredFormula::version).orElse(0) + 1;
+            repository.insert(tenantId, courseId, next, source, user);
+            return next;
+        });
+        cache(courseId, new Compiled(version, formula));
+        log.info("GRADING_FORMULA_SAVED course={} version={} variables={}", courseId, version, formula.variables());
+        return new CourseFormula(courseId, version, source, formula.variables());
+    }
+
+    /** Fórmula vigente; 404 si el curso no tiene. */
+    public CourseFormula getFormula(long tenantId, long courseId) {
+        checkCourse(tenantId, courseId);
+        StoredFormula stored = currentFormula(tenantId, courseId);
+        return new CourseFormula(courseId, stored.version(), stored.source(),
+                compiled(courseId, stored).variables());
+    }
+
+    /** Recalcula y reemplaza las notas finales de todos los alumnos matriculados del curso. */
+    public FinalGradeRun recompute(long tenantId, long courseId) {
+        checkCourse(tenantId, courseId);
+        long start = System.nanoTime();
+        CourseMatrix matrix = snapshotTemplate.execute(status -> load(tenantId, courseId));
+        double[] results = new double[matrix.students().length];
+        pool.invoke(new EvaluateRows(0, results.length,
+                (from, to) -> matrix.formula().evaluateRows(matrix.values(), from, to, results)));
+        int[] tenths = new int[results.length];
+        int graded = 0;
+        for (int i = 0; i < results.length; i++) {
+            tenths[i] = finalTenths(results[i]);
+            if (tenths[i] >= 0) {
+                graded++;
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> repository.replaceFinalGrades(tenantId, courseId,
+                matrix.version(), matrix.students(), tenths));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("FINAL_GRADE_RECOMPUTE course={} version={} students={} graded={} ms={}",
+                courseId, matrix.version(), results.length, graded, elapsedMs);
+        return new FinalGradeRun(courseId, matrix.version(), results.length, graded, elapsedMs);
+    }
+
+    public List<FinalGrade> finalGrades(long tenantId, long courseId) {
+        checkCourse(tenantId, courseId);
+        return repository.findFinalGrades(tenantId, courseId);
+    }
+
+    public List<Long> coursesWithFormula(long tenantId) {
+        return repository.findCoursesWithFormula(tenantId);
+    }
+
+    /**
+     * Nota final en décimas: se redondea a un decimal y se acota a la escala 1.0–7.0; -1 si la
+     * fórmula no dio nota (NaN o infinito).
+     */
+    static int finalTenths(double score) {
+        if (Double.isNaN(score) || Double.isInfinite(score)) {
+            return -1;
+        }
+        return (int) Math.round(FormulaMath.clamp(FormulaMath.round(score, 1), 1.0, 7.0) * 10);
+    }
+
+    private record CourseMatrix(int version, GradingFormula formula, long[] students, double[] values) {
+    }
+
+    private CourseMatrix load(long tenantId, long courseId) {
+        StoredFormula stored = currentFormula(tenantId, courseId);
+        GradingFormula formula = compiled(courseId, stored);
+        long[] students = repository.findEnrolledStudents(courseId);
+        int width = formula.variables().size();
+        Map<String, Integer> slots = new HashMap<>();
+        for (int i = 0; i < width; i++) {
+            slots.put(formula.variables().get(i), i);
+        }
+        double[] values = new double[students.length * width];
+        Arrays.fill(values, Double.NaN);
+        repository.forEachScore(courseId, (studentId, code, tenths) -> {
+            Integer slot = slots.get(code);
+            int row = Arrays.binarySearch(students, studentId);
+            // weighted es siempre el promedio, aunque una evaluación se llame igual
+            if (slot != null && row >= 0 && !WEIGHTED.equals(code)) {
+                values[row * width + slot] = tenths / 10.0;
+            }
+        });
+        Integer weighted = slots.get(WEIGHTED);
+        if (weighted != null) {
+            gradebook.forEachAggregate(courseId, (studentId, weightedSum, weightTotal) -> {
+                int row = Arrays.binarySearch(students, studentId);
+                if (row >= 0) {
+                    values[row * width + weighted] = weightedSum / (weightTotal * 10.0);
+                }
+            });
+        }
+        return new CourseMatrix(stored.version(), formula, students, values);
+    }
+
+    private StoredFormula currentFormula(long tenantId, long courseId) {
+        return repository.findCurrent(tenantId, courseId)
+                .orElseThrow(() -> new NotFoundException("El curso " + courseId + " no tiene fórmula de nota final."));
+    }
+
+    /**
+     * Compilada de la versión pedida. Al recompilar una versión guardada no se validan los códigos:
+     * una evaluación renombrada o borrada después queda como nota faltante.
+     */
+    GradingFormula compiled(long courseId, StoredFormula stored) {
+        Compiled cached = compiled.get(courseId);
+        if (cached != null && cached.version() == stored.version()) {
+            return cached.formula();
+        }
+        GradingFormula formula = GradingFormula.compile(stored.source(), name -> true);
+        cache(courseId, new Compiled(stored.version(), formula));
+        return formula;
+    }
+
+    private void cache(long courseId, Compiled entry) {
+        // una versión vieja que llega tarde no pisa a una nueva
+        compiled.merge(courseId, entry, (current, next) -> next.version() >= current.version() ? next : current);
+        if (compiled.size() > properties.formulaCourses()) {
+            compiled.keySet().stream().filter(id -> id != courseId).findAny().ifPresent(compiled::remove);
+        }
+    }
+
+    private void checkCourse(long tenantId, long courseId) {
+        if (!enrollments.courseExists(tenantId, courseId)) {
+            throw new NotFoundException("Curso " + courseId + " no encontrado.");
+        }
+    }
+
+    /** Evalúa las filas {@code [from, to)} de la matriz. */
+    @FunctionalInterface
+    interface RowRange {
+        void evaluate(int from, int to);
+    }
+
+    /** Divide las filas en mitades hasta {@link #SPLIT_ROWS} y evalúa cada tramo en un hilo del pool. */
+    static final class EvaluateRows extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final transient RowRange leaf;
+
+        EvaluateRows(int from, int to, RowRange leaf) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_ROWS) {
+                leaf.evaluate(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluateRows(from, middle, leaf), new EvaluateRows(middle, to, leaf));
+        }
+    }
+}
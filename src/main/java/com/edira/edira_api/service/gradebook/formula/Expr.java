@@ -0,0 +1,45 @@
+package com.edira.edira_api.service.gradebook.formula;
+
+import java.util.List;
+
+/**
+ * Árbol de una fórmula ya parseada (ver {@link FormulaParser}). {@code column} es la posición en
+ * el texto (1 = primer carácter), para los errores.
+ */
+public sealed interface Expr {
+
+    int column();
+
+    record Num(double value, int column) implements Expr {
+    }
+
+    /** Código de evaluación (su nota) o variable del sistema como {@code weighted}. */
+    record Ref(String name, int column) implements Expr {
+    }
+
+    record Unary(Op op, Expr operand, int column) implements Expr {
+    }
+
+    record Binary(Op op, Expr left, Expr right, int column) implements Expr {
+    }
+
+    record Call(FormulaFunction function, List<Expr> args, int column) implements Expr {
+    }
+
+    enum Op {
+        NEG("-"), NOT("not"),
+        ADD("+"), SUB("-"), MUL("*"), DIV("/"),
+        LT("<"), LE("<="), GT(">"), GE(">="), EQ("=="), NE("!="),
+        AND("and"), OR("or");
+
+        private final String symbol;
+
+        Op(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String symbol() {
+            return symbol;
+        }
+    }
+}
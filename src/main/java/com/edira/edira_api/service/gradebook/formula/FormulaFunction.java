@@ -0,0 +1,64 @@
+package com.edira.edira_api.service.gradebook.formula;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Funciones de las fórmulas de nota. Una nota que falta es NaN: las de agregación la saltan, la
+ * aritmética la propaga y una comparación con ella es falsa.
+ */
+public enum FormulaFunction {
+
+    /** {@code if(condición, entonces, si no)}: solo evalúa la rama que corresponde. */
+    IF("if", 3, 3),
+    MIN("min", 1, Integer.MAX_VALUE),
+    MAX("max", 1, Integer.MAX_VALUE),
+    AVG("avg", 1, Integer.MAX_VALUE),
+    SUM("sum", 1, Integer.MAX_VALUE),
+    /** Cuántos de los argumentos tienen nota. */
+    COUNT("count", 1, Integer.MAX_VALUE),
+    /** {@code wavg(nota1, peso1, nota2, peso2, ...)} sobre las notas presentes. */
+    WAVG("wavg", 2, Integer.MAX_VALUE),
+    /** {@code dropLowest(n, notas...)}: promedio sin las n más bajas; n es un número fijo. */
+    DROP_LOWEST("dropLowest", 2, Integer.MAX_VALUE),
+    CLAMP("clamp", 3, 3),
+    /** {@code round(x, decimales)} hacia arriba desde la mitad; decimales es un número fijo de 0 a 3. */
+    ROUND("round", 2, 2),
+    /** {@code ifMissing(x, valor)}: valor si x no tiene nota. */
+    IF_MISSING("ifMissing", 2, 2),
+    /** 1 si x tiene nota, 0 si no. */
+    HAS("has", 1, 1);
+
+    private static final Map<String, FormulaFunction> BY_NAME = Stream.of(values())
+            .collect(Collectors.toUnmodifiableMap(f -> f.name.toLowerCase(Locale.ROOT), Function.identity()));
+
+    private final String name;
+    private final int minArgs;
+    private final int maxArgs;
+
+    FormulaFunction(String name, int minArgs, int maxArgs) {
+        this.name = name;
+        this.minArgs = minArgs;
+        this.maxArgs = maxArgs;
+    }
+
+    /** Sin distinguir mayúsculas; null si no existe. */
+    public static FormulaFunction byName(String name) {
+        return BY_NAME.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public String functionName() {
+        return name;
+    }
+
+    public int minArgs() {
+        return minArgs;
+    }
+
+    public int maxArgs() {
+        return maxArgs;
+    }
+}
@@ -0,0 +1,78 @@
+package com.edira.edira_api.service.gradebook.formula;
+
+import java.util.Arrays;
+
+/**
+ * Semántica de las fórmulas sobre doubles, con NaN como nota faltante. La usan el evaluador
+ * compilado y cualquier otro que quiera dar los mismos resultados.
+ */
+public final class FormulaMath {
+
+    private FormulaMath() {
+    }
+
+    /** Verdadero = distinto de 0 y presente; falta de nota cuenta como falso. */
+    public static boolean truthy(double value) {
+        return value != 0 && !Double.isNaN(value);
+    }
+
+    public static double bool(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    /** Comparación con una nota faltante: siempre falsa (también {@code !=}). */
+    public static double compare(Expr.Op op, double left, double right) {
+        if (Double.isNaN(left) || Double.isNaN(right)) {
+            return 0;
+        }
+        return bool(switch (op) {
+            case LT -> left < right;
+            case LE -> left <= right;
+            case GT -> left > right;
+            case GE -> left >= right;
+            case EQ -> left == right;
+            case NE -> left != right;
+            default -> throw new IllegalArgumentException(op + " no es una comparación");
+        });
+    }
+
+    /** División por cero = sin resultado (NaN), no infinito. */
+    public static double divide(double left, double right) {
+        return right == 0 ? Double.NaN : left / right;
+    }
+
+    /**
+     * Promedio de las {@code values} presentes sin las {@code drop} más bajas; NaN si no queda
+     * ninguna. Ordena {@code values} en el lugar.
+     */
+    public static double dropLowest(int drop, double[] values) {
+        // NaN queda al final al ordenar: las presentes son las primeras
+        Arrays.sort(values);
+        int present = 0;
+        while (present < values.length && !Double.isNaN(values[present])) {
+            present++;
+        }
+        if (present <= drop) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (int i = drop; i < present; i++) {
+            sum += values[i];
+        }
+        return sum / (present - drop);
+    }
+
+    public static double clamp(double value, double low, double high) {
+        return Double.isNaN(value) ? Double.NaN : Math.max(low, Math.min(high, value));
+    }
+
+    /** Hacia arriba desde la mitad, como se redondean las notas (3.95 → 4.0). */
+    public static double round(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return value;
+        }
+        double scale = Math.pow(10, decimals);
+        // el 1e-9 absorbe el error binario de valores como 3.95 (3.9499999...)
+        return Math.floor(value * scale + 0.5 + 1e-9) / scale;
+    }
+}
@@ -0,0 +1,314 @@
+package com.edira.edira_api.service.gradebook.formula;
+
+import com.edira.edira_api.service.gradebook.formula.Expr.Op;
+import com.edira.edira_api.shared.error.ValidationFailedException;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser de descenso recursivo de las fórmulas de nota:
+ * <pre>
+ *   expr    := and ('or' and)*
+ *   and     := not ('and' not)*
+ *   not     := 'not' not | cmp
+ *   cmp     := sum (('&lt;' | '&lt;=' | '&gt;' | '&gt;=' | '==' | '!=') sum)?
+ *   sum     := product (('+' | '-') product)*
+ *   product := unary (('*' | '/') unary)*
+ *   unary   := '-' unary | primary
+ *   primary := número | código | función '(' expr (',' expr)* ')' | '(' expr ')'
+ * </pre>
+ * No hay asignaciones, ciclos ni llamadas fuera de {@link FormulaFunction}, y el largo, la
+ * profundidad y la cantidad de nodos tienen tope: evaluar una fórmula siempre termina y cuesta
+ * poco. El primer error de sintaxis corta el parseo; los de aridad se juntan todos.
+ */
+public final class FormulaParser {
+
+    public static final int MAX_LENGTH = 2000;
+    static final int MAX_DEPTH = 40;
+    static final int MAX_NODES = 500;
+
+    private final String source;
+    private final List<ValidationErrorDetail> errors = new ArrayList<>();
+    private int pos;
+    private int depth;
+    private int nodes;
+
+    private FormulaParser(String source) {
+        this.source = source;
+    }
+
+    /** @throws ValidationFailedException con un detalle por error, campo {@code formula} */
+    public static Expr parse(String source) {
+        if (source == null || source.isBlank()) {
+            throw invalid(List.of(new ValidationErrorDetail("formula", "La fórmula está vacía.")));
+        }
+        if (source.length() > MAX_LENGTH) {
+            throw invalid(List.of(new ValidationErrorDetail("formula",
+                    "La fórmula supera los " + MAX_LENGTH + " caracteres.")));
+        }
+        FormulaParser parser = new FormulaParser(source);
+        Expr expr;
+        try {
+            expr = parser.expr();
+            parser.skipSpaces();
+            if (parser.pos < source.length()) {
+                throw parser.syntax("sobra '" + source.substring(parser.pos, Math.min(source.length(), parser.pos + 10)) + "'");
+            }
+        } catch (SyntaxError e) {
+            parser.errors.add(e.detail);
+            throw invalid(parser.errors);
+        }
+        if (!parser.errors.isEmpty()) {
+            throw invalid(parser.errors);
+        }
+        return expr;
+    }
+
+    static ValidationFailedException invalid(List<ValidationErrorDetail> details) {
+        return new ValidationFailedException("La fórmula no es válida.", details);
+    }
+
+    private Expr expr() {
+        enter();
+        Expr left = and();
+        while (keyword("or")) {
+            int column = column();
+            left = node(new Expr.Binary(Op.OR, left, and(), column));
+        }
+        depth--;
+        return left;
+    }
+
+    private Expr and() {
+        Expr left = not();
+        while (keyword("and")) {
+            int column = column();
+            left = node(new Expr.Binary(Op.AND, left, not(), column));
+        }
+        return left;
+    }
+
+    private Expr not() {
+        int column = peekColumn();
+        if (keyword("not")) {
+            enter();
+            Expr operand = not();
+            depth--;
+            return node(new Expr.Unary(Op.NOT, operand, column));
+        }
+        return comparison();
+    }
+
+    private Expr comparison() {
+        Expr left = sum();
+        int column = peekColumn();
+        Op op = symbol("<=") ? Op.LE : symbol(">=") ? Op.GE : symbol("==") ? Op.EQ : symbol("!=") ? Op.NE
+                : symbol("<") ? Op.LT : symbol(">") ? Op.GT : null;
+        return op == null ? left : node(new Expr.Binary(op, left, sum(), column));
+    }
+
+    private Expr sum() {
+        Expr left = product();
+        while (true) {
+            int column = peekColumn();
+            Op op = symbol("+") ? Op.ADD : symbol("-") ? Op.SUB : null;
+            if (op == null) {
+                return left;
+            }
+            left = node(new Expr.Binary(op, left, product(), column));
+        }
+    }
+
+    private Expr product() {
+        Expr left = unary();
+        while (true) {
+            int column = peekColumn();
+            Op op = symbol("*") ? Op.MUL : symbol("/") ? Op.DIV : null;
+            if (op == null) {
+                return left;
+            }
+            left = node(new Expr.Binary(op, left, unary(), column));
+        }
+    }
+
+    private Expr unary() {
+        int column = peekColumn();
+        if (symbol("-")) {
+            enter();
+            Expr operand = unary();
+            depth--;
+            return node(new Expr.Unary(Op.NEG, operand, column));
+        }
+        return primary();
+    }
+
+    private Expr primary() {
+        skipSpaces();
+        int column = column();
+        if (pos >= source.length()) {
+            throw syntax("la fórmula termina antes de tiempo");
+        }
+        char c = source.charAt(pos);
+        if (symbol("(")) {
+            Expr inner = expr();
+            expect(")");
+            return inner;
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return node(new Expr.Num(number(), column));
+        }
+        if (Character.isLetter(c)) {
+            String name = identifier();
+            if (!symbol("(")) {
+                return node(new Expr.Ref(name, column));
+            }
+            FormulaFunction function = FormulaFunction.byName(name);
+            if (function == null) {
+                throw syntax(column, "función desconocida '" + name + "'");
+            }
+            List<Expr> args = new ArrayList<>();
+            if (!symbol(")")) {
+                do {
+                    args.add(expr());
+                } while (symbol(","));
+                expect(")");
+            }
+            checkCall(function, args, column);
+            return node(new Expr.Call(function, args, column));
+        }
+        throw syntax("no se esperaba '" + c + "'");
+    }
+
+    private void checkCall(FormulaFunction function, List<Expr> args, int column) {
+        String name = function.functionName();
+        if (args.size() < function.minArgs() || args.size() > function.maxArgs()) {
+            String expected = function.minArgs() == function.maxArgs() ? String.valueOf(function.minArgs())
+                    : "al menos " + function.minArgs();
+            error(column, name + " recibe " + expected + " argumentos, no " + args.size());
+            return;
+        }
+        switch (function) {
+            case WAVG -> {
+                if (args.size() % 2 != 0) {
+                    error(column, "wavg recibe pares nota, peso");
+                }
+            }
+            case DROP_LOWEST -> {
+                if (!(args.get(0) instanceof Expr.Num n) || n.value() != Math.rint(n.value()) || n.value() < 0) {
+                    error(args.get(0).column(), "dropLowest: la cantidad a descartar es un entero fijo");
+                } else if (n.value() >= args.size() - 1) {
+                    error(column, "dropLowest descarta " + (long) n.value() + " de " + (args.size() - 1) + " notas");
+                }
+            }
+            case ROUND -> {
+                if (!(args.get(1) instanceof Expr.Num n) || n.value() != Math.rint(n.value())
+                        || n.value() < 0 || n.value() > 3) {
+                    error(args.get(1).column(), "round: los decimales son un entero fijo de 0 a 3");
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private double number() {
+        int start = pos;
+        while (pos < source.length() && (Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.')) {
+            pos++;
+        }
+        String text = source.substring(start, pos);
+        if (text.indexOf('.') != text.lastIndexOf('.') || text.equals(".")) {
+            throw syntax(start + 1, "número inválido '" + text + "'");
+        }
+        return Double.parseDouble(text);
+    }
+
+    private String identifier() {
+        int start = pos;
+        while (pos < source.length()
+                && (Character.isLetterOrDigit(source.charAt(pos)) || source.charAt(pos) == '_')) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    // Palabra reservada completa (no el comienzo de un código como "order")
+    private boolean keyword(String word) {
+        skipSpaces();
+        int end = pos + word.length();
+        if (source.startsWith(word, pos)
+                && (end == source.length() || !(Character.isLetterOrDigit(source.charAt(end)) || source.charAt(end) == '_'))) {
+            pos = end;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean symbol(String symbol) {
+        skipSpaces();
+        if (source.startsWith(symbol, pos)) {
+            pos += symbol.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String symbol) {
+        if (!symbol(symbol)) {
+            throw syntax("se esperaba '" + symbol + "'");
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private int peekColumn() {
+        skipSpaces();
+        return column();
+    }
+
+    private int column() {
+        return pos + 1;
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw syntax("la fórmula anida más de " + MAX_DEPTH + " niveles");
+        }
+    }
+
+    private Expr node(Expr expr) {
+        if (++nodes > MAX_NODES) {
+            throw syntax("la fórmula tiene más de " + MAX_NODES + " elementos");
+        }
+        return expr;
+    }
+
+    private void error(int column, String message) {
+        errors.add(new ValidationErrorDetail("formula", "col " + column + ": " + message));
+    }
+
+    private SyntaxError syntax(String message) {
+        return syntax(column(), message);
+    }
+
+    private static SyntaxError syntax(int column, String message) {
+        return new SyntaxError(new ValidationErrorDetail("formula", "col " + column + ": " + message));
+    }
+
+    // Corta el descenso en el primer error de sintaxis; no sale del parser
+    private static final class SyntaxError extends RuntimeException {
+
+        private final transient ValidationErrorDetail detail;
+
+        SyntaxError(ValidationErrorDetail detail) {
+            super(detail.message(), null, false, false);
+            this.detail = detail;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.edira.edira_api.service.gradebook.formula;
+
+import com.edira.edira_api.service.gradebook.formula.Expr.Op;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Fórmula de nota compilada: el árbol se traduce una vez a una cadena de lambdas con los códigos
+ * ya resueltos a posiciones de un {@code double[]} y las partes constantes precalculadas. Evaluar
+ * a un alumno no busca nombres, no recorre el árbol ni reserva memoria (salvo dropLowest).
+ * Inmutable: la misma instancia sirve a todos los hilos.
+ */
+public final class GradingFormula {
+
+    /** Un nodo ya compilado. */
+    @FunctionalInterface
+    private interface Node {
+        double eval(double[] values);
+    }
+
+    private record Constant(double value) implements Node {
+        @Override
+        public double eval(double[] values) {
+            return value;
+        }
+    }
+
+    private static final double[] NO_VALUES = new double[0];
+
+    private final String source;
+    private final List<String> variables;
+    private final Node root;
+
+    private GradingFormula(String source, List<String> variables, Node root) {
+        this.source = source;
+        this.variables = variables;
+        this.root = root;
+    }
+
+    /**
+     * Parsea, valida y compila.
+     *
+     * @param known nombres que la fórmula puede usar (códigos de evaluación y variables del sistema);
+     *              {@code name -> true} acepta cualquiera y el que no tenga datos queda sin nota
+     * @throws com.edira.edira_api.shared.error.ValidationFailedException un detalle por error
+     */
+    public static GradingFormula compile(String source, Predicate<String> known) {
+        Expr expr = FormulaParser.parse(source);
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        List<ValidationErrorDetail> errors = new ArrayList<>();
+        collectRefs(expr, known, slots, errors);
+        if (!errors.isEmpty()) {
+            throw FormulaParser.invalid(errors);
+        }
+        return new GradingFormula(source, List.copyOf(slots.keySet()), compile(expr, slots));
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /** Nombres que usa la fórmula, en el orden en que {@link #evaluate} espera sus valores. */
+    public List<String> variables() {
+        return variables;
+    }
+
+    /** @param values uno por {@link #variables()}, NaN = sin nota; el resultado NaN = sin nota */
+    public double evaluate(double[] values) {
+        return root.eval(values);
+    }
+
+    /**
+     * Evalúa las filas {@code [from, to)} de una matriz plana alumno × variable ({@code values}
+     * tiene {@code variables().size()} columnas) y deja cada resultado en {@code results[fila]}.
+     */
+    public void evaluateRows(double[] values, int from, int to, double[] results) {
+        int width = variables.size();
+        double[] row = new double[width];
+        for (int i = from; i < to; i++) {
+            System.arraycopy(values, i * width, row, 0, width);
+            results[i] = root.eval(row);
+        }
+    }
+
+    private static void collectRefs(Expr expr, Predicate<String> known, Map<String, Integer> slots,
+                                    List<ValidationErrorDetail> errors) {
+        switch (expr) {
+            case Expr.Ref ref -> {
+                if (!known.test(ref.name())) {
+                    errors.add(new ValidationErrorDetail("formula",
+                            "col " + ref.column() + ": '" + ref.name() + "' no es una evaluación del curso"));
+                } else {
+                    slots.putIfAbsent(ref.name(), slots.size());
+                }
+            }
+            case Expr.Unary unary -> collectRefs(unary.operand(), known, slots, errors);
+            case Expr.Binary binary -> {
+                collectRefs(binary.left(), known, slots, errors);
+                collectRefs(binary.right(), known, slots, errors);
+            }
+            case Expr.Call call -> call.args().forEach(arg -> collectRefs(arg, known, slots, errors));
+            case Expr.Num num -> {
+            }
+        }
+    }
+
+    private static Node compile(Expr expr, Map<String, Integer> slots) {
+        Node node = switch (expr) {
+            case Expr.Num num -> new Constant(num.value());
+            case Expr.Ref ref -> {
+                int slot = slots.get(ref.name());
+                yield values -> values[slot];
+            }
+            case Expr.Unary unary -> unary(unary.op(), compile(unary.operand(), slots));
+            case Expr.Binary binary -> binary(binary.op(), compile(binary.left(), slots), compile(binary.right(), slots));
+            case Expr.Call call -> call(call, call.args().stream().map(arg -> compile(arg, slots)).toArray(Node[]::new));
+        };
+        return fold(expr, node);
+    }
+
+    // Un nodo sin referencias a notas vale siempre lo mismo: se calcula acá y queda como constante
+    private static Node fold(Expr expr, Node node) {
+        if (node instanceof Constant || !isConstant(expr)) {
+            return node;
+        }
+        return new Constant(node.eval(NO_VALUES));
+    }
+
+    private static boolean isConstant(Expr expr) {
+        return switch (expr) {
+            case Expr.Num num -> true;
+            case Expr.Ref ref -> false;
+            case Expr.Unary unary -> isConstant(unary.operand());
+            case Expr.Binary binary -> isConstant(binary.left()) && isConstant(binary.right());
+            case Expr.Call call -> call.args().stream().allMatch(GradingFormula::isConstant);
+        };
+    }
+
+    private static Node unary(Op op, Node operand) {
+        return switch (op) {
+            case NEG -> values -> -operand.eval(values);
+            case NOT -> values -> FormulaMath.bool(!FormulaMath.truthy(operand.eval(values)));
+            default -> throw new IllegalStateException(op.name());
+        };
+    }
+
+    private static Node binary(Op op, Node left, Node right) {
+        return switch (op) {
+            case ADD -> values -> left.eval(values) + right.eval(values);
+            case SUB -> values -> left.eval(values) - right.eval(values);
+            case MUL -> values -> left.eval(values) * right.eval(values);
+            case DIV -> values -> FormulaMath.divide(left.eval(values), right.eval(values));
+            case LT, LE, GT, GE, EQ, NE -> values -> FormulaMath.compare(op, left.eval(values), right.eval(values));
+            // con cortocircuito
+            case AND -> values -> FormulaMath.bool(FormulaMath.truthy(left.eval(values)) && FormulaMath.truthy(right.eval(values)));
+            case OR -> values -> FormulaMath.bool(FormulaMath.truthy(left.eval(values)) || FormulaMath.truthy(right.eval(values)));
+            default -> throw new IllegalStateException(op.name());
+        };
+    }
+
+    private static Node call(Expr.Call call, Node[] args) {
+        return switch (call.function()) {
+            case IF -> {
+                Node condition = args[0];
+                Node then = args[1];
+                Node otherwise = args[2];
+                yield values -> FormulaMath.truthy(condition.eval(values)) ? then.eval(values) : otherwise.eval(values);
+            }
+            case MIN -> values -> {
+                double min = Double.NaN;
+                for (Node arg : args) {
+                    double value = arg.eval(values);
+                    if (!Double.isNaN(value) && !(value >= min)) {
+                        min = value;
+                    }
+                }
+                return min;
+            };
+            case MAX -> values -> {
+                double max = Double.NaN;
+                for (Node arg : args) {
+                    double value = arg.eval(values);
+                    if (!Double.isNaN(value) && !(value <= max)) {
+                        max = value;
+                    }
+                }
+                return max;
+            };
+            case AVG -> values -> {
+                double sum = 0;
+                int present = 0;
+                for (Node arg : args) {
+                    double value = arg.eval(values);
+                    if (!Double.isNaN(value)) {
+                        sum += value;
+                        present++;
+                    }
+                }
+                return present == 0 ? Double.NaN : sum / present;
+            };
+            case SUM -> values -> {
+                double sum = 0;
+                int present = 0;
+                for (Node arg : args) {
+                    double value = arg.eval(values);
+                    if (!Double.isNaN(value)) {
+                        sum += value;
+                        present++;
+                    }
+                }
+                return present == 0 ? Double.NaN : sum;
+            };
+            case COUNT -> values -> {
+                int present = 0;
+                for (Node arg : args) {
+                    if (!Double.isNaN(arg.eval(values))) {
+                        present++;
+                    }
+                }
+                return present;
+            };
+            case WAVG -> values -> {
+                double sum = 0;
+                double weights = 0;
+                for (int i = 0; i < args.length; i += 2) {
+                    double value = args[i].eval(values);
+                    if (!Double.isNaN(value)) {
+                        double weight = args[i + 1].eval(values);
+                        sum += value * weight;
+                        weights += weight;
+                    }
+                }
+                return FormulaMath.divide(sum, weights);
+            };
+            case DROP_LOWEST -> {
+                int drop = (int) ((Constant) args[0]).value();
+                yield values -> {
+                    double[] scores = new double[args.length - 1];
+                    for (int i = 1; i < args.length; i++) {
+                        scores[i - 1] = args[i].eval(values);
+                    }
+                    return FormulaMath.dropLowest(drop, scores);
+                };
+            }
+            case CLAMP -> values -> FormulaMath.clamp(args[0].eval(values), args[1].eval(values), args[2].eval(values));
+            case ROUND -> {
+                int decimals = (int) ((Constant) args[1]).value();
+                Node value = args[0];
+                yield values -> FormulaMath.round(value.eval(values), decimals);
+            }
+            case IF_MISSING -> values -> {
+                double value = args[0].eval(values);
+                return Double.isNaN(value) ? args[1].eval(values) : value;
+            };
+            case HAS -> values -> FormulaMath.bool(!Double.isNaN(args[0].eval(values)));
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.edira.edira_api.service.job;
+
+/**
+ * Lanzada por {@link JobContext#checkCancelled()}: el job termina CANCELLED, no FAILED.
+ */
+public class JobCancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public JobCancelledException(long jobId) {
+        super("Job " + jobId + " cancelado");
+    }
+}
@@ -0,0 +1,89 @@
+package com.edira.edira_api.service.job;
+
+import com.edira.edira_api.domain.job.JobProgress;
+import com.edira.edira_api.persistence.job.JobLease;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Lo que ve un {@link JobHandler} de su ejecución. El avance queda en memoria y el worker lo
+ * guarda en cada heartbeat (no hay un UPDATE por llamada a {@link #progress}).
+ */
+public final class JobContext {
+
+    private final long jobId;
+    private final long tenantId;
+    private final String type;
+    private final JsonNode payload;
+    private final String createdBy;
+    final JobLease lease;
+    volatile Thread thread;
+    private volatile JobProgress progress = JobProgress.NONE;
+    private volatile boolean cancelled;
+    // el lease se perdió o el nodo se apaga: no se escribe el final, otro nodo retoma el job
+    volatile boolean abandoned;
+
+    JobContext(long jobId, long tenantId, String type, JsonNode payload, String createdBy, JobLease lease) {
+        this.jobId = jobId;
+        this.tenantId = tenantId;
+        this.type = type;
+        this.payload = payload;
+        this.createdBy = createdBy;
+        this.lease = lease;
+    }
+
+    public long jobId() {
+        return jobId;
+    }
+
+    public long tenantId() {
+        return tenantId;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public JsonNode payload() {
+        return payload;
+    }
+
+    public String createdBy() {
+        return createdBy;
+    }
+
+    public void progress(long done, Long total, String message) {
+        progress = new JobProgress(done, total, message);
+    }
+
+    public JobProgress progress() {
+        return progress;
+    }
+
+    public boolean cancelled() {
+        return cancelled || abandoned;
+    }
+
+    /** Punto de corte: lanza {@link JobCancelledException} si se pidió cancelar o el job se abandonó. */
+    public void checkCancelled() {
+        if (cancelled()) {
+            throw new JobCancelledException(jobId);
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+        interrupt();
+    }
+
+    void abandon() {
+        abandoned = true;
+        interrupt();
+    }
+
+    private void interrupt() {
+        Thread running = thread;
+        if (running != null) {
+            running.interrupt();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.edira.edira_api.service.job;
+
+/**
+ * Implementación de un tipo de job. Corre en un virtual thread con {@code TenantContext} del job;
+ * debe informar avance y revisar la cancelación entre unidades de trabajo (ver {@link JobContext}).
+ * Una excepción deja el job FAILED con un ApiError (IllegalArgumentException = 400, el resto = 500).
+ */
+public interface JobHandler {
+
+    /** Nombre con el que se encola (POST /jobs {"type": ...}). */
+    String type();
+
+    JobResult run(JobContext context) throws Exception;
+}
@@ -0,0 +1,40 @@
+package com.edira.edira_api.service.job;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Jobs asíncronos (prefijo {@code edira.jobs}).
+ *
+ * @param workerEnabled          este nodo toma jobs (false = nodo solo API: encola y consulta)
+ * @param nodeId                 dueño de los leases; vacío = el de edira.cluster.node-id (ver ClusterNode)
+ * @param maxConcurrent          jobs corriendo a la vez en este nodo
+ * @param perTenantConcurrent    jobs de un mismo tenant corriendo a la vez en este nodo
+ * @param lease                  vigencia del lease; si el nodo no lo renueva, otro nodo retoma el job
+ * @param heartbeatInterval      cada cuánto se renueva el lease y se guarda el avance (bastante menor que lease)
+ * @param pollInterval           cada cuánto se buscan jobs QUEUED
+ * @param recoverInterval        cada cuánto se buscan leases vencidos y se purgan jobs viejos
+ * @param maxAttempts            tomas máximas (una caída del nodo gasta un intento)
+ * @param maxResultSize          tope del resultado guardado (MEDIUMBLOB)
+ * @param retention              cuánto se guarda un job terminado (con su resultado)
+ * @param shutdownTimeout        cuánto se espera a los jobs en curso al apagar antes de devolverlos a la cola
+ */
+@ConfigurationProperties(prefix = "edira.jobs")
+public record JobProperties(
+        @DefaultValue("true") boolean workerEnabled,
+        @DefaultValue("") String nodeId,
+        @DefaultValue("16") int maxConcurrent,
+        @DefaultValue("4") int perTenantConcurrent,
+        @DefaultValue("60s") Duration lease,
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue("1s") Duration pollInterval,
+        @DefaultValue("30s") Duration recoverInterval,
+        @DefaultValue("3") int maxAttempts,
+        @DefaultValue("16MB") DataSize maxResultSize,
+        @DefaultValue("7d") Duration retention,
+        @DefaultValue("10s") Duration shutdownTimeout
+) {
+}
@@ -0,0 +1,9 @@
+package com.edira.edira_api.service.job;
+
+/**
+ * Resultado descargable de un job (GET /jobs/{id}/result). {@link #NONE} = el job no deja archivo.
+ */
+public record JobResult(String contentType, byte[] body) {
+
+    public static final JobResult NONE = new JobResult(null, null);
+}
@@ -0,0 +1,82 @@
+package com.edira.edira_api.service.job;
+
+import com.edira.edira_api.domain.job.JobState;
+import com.edira.edira_api.persistence.job.JobRecord;
+import com.edira.edira_api.persistence.job.JobRepository;
+import com.edira.edira_api.shared.error.ConflictException;
+import com.edira.edira_api.shared.error.NotFoundException;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Encolar, consultar, cancelar y descargar jobs del tenant del request.
+ * Un job de otro tenant responde 404, igual que uno que no existe.
+ */
+@Service
+public class JobService {
+
+    private final JobRepository repository;
+    private final Map<String, JobHandler> handlers;
+    private final ObjectProvider<JobWorker> worker;
+    private final Clock clock = Clock.systemUTC();
+
+    public JobService(JobRepository repository, List<JobHandler> handlers, ObjectProvider<JobWorker> worker) {
+        this.repository = repository;
+        this.handlers = byType(handlers);
+        this.worker = worker;
+    }
+
+    public JobRecord submit(String type, JsonNode payload, String user) {
+        if (!handlers.containsKey(type)) {
+            throw new IllegalArgumentException("Tipo de job desconocido: " + type + ". Disponibles: " + handlers.keySet());
+        }
+        long id = repository.insert(TenantContext.current(), type,
+                payload == null || payload.isNull() ? null : payload.toString(), user);
+        worker.ifAvailable(JobWorker::wakeUp);
+        return get(id);
+    }
+
+    public JobRecord get(long id) {
+        return repository.find(TenantContext.current(), id)
+                .orElseThrow(() -> new NotFoundException("Job " + id + " no encontrado."));
+    }
+
+    /** Un job en cola se cancela de inmediato; uno corriendo se detiene en su próximo punto de corte. */
+    public JobRecord cancel(long id) {
+        if (repository.requestCancel(TenantContext.current(), id, clock.instant()) == 0) {
+            JobRecord job = get(id);
+            throw new ConflictException("El job " + id + " ya terminó (" + job.state() + ").");
+        }
+        return get(id);
+    }
+
+    public JobRepository.StoredResult result(long id) {
+        JobRepository.StoredResult result = repository.findResult(TenantContext.current(), id)
+                .orElseThrow(() -> new NotFoundException("Job " + id + " no encontrado."));
+        if (result.state() != JobState.SUCCEEDED) {
+            throw new ConflictException("El job " + id + " no tiene resultado: está " + result.state() + ".");
+        }
+        if (result.body() == null) {
+            throw new NotFoundException("El job " + id + " terminó sin archivo de resultado.");
+        }
+        return result;
+    }
+
+    static Map<String, JobHandler> byType(List<JobHandler> handlers) {
+        Map<String, JobHandler> byType = new TreeMap<>();
+        for (JobHandler handler : handlers) {
+            if (byType.put(handler.type(), handler) != null) {
+                throw new IllegalStateException("Dos JobHandler con el tipo " + handler.type());
+            }
+        }
+        return Collections.unmodifiableMap(byType);
+    }
+}
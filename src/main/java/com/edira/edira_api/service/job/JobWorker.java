@@ -0,0 +1,309 @@
+package com.edira.edira_api.service.job;
+
+import com.edira.edira_api.domain.job.JobState;
+import com.edira.edira_api.persistence.job.JobLease;
+import com.edira.edira_api.persistence.job.JobRecord;
+import com.edira.edira_api.persistence.job.JobRepository;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ErrorCode;
+import com.edira.edira_api.shared.scheduling.ClusterScheduled;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Corre los jobs de este nodo: toma QUEUED con SKIP LOCKED respetando el cupo global y el cupo
+ * por tenant, ejecuta cada uno en un virtual thread, renueva los leases y devuelve a la cola los
+ * jobs de nodos caídos. Los cupos son por nodo (Semaphore), no del cluster.
+ */
+public class JobWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(JobWorker.class);
+
+    private final JobRepository repository;
+    private final Map<String, JobHandler> handlers;
+    private final JobProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final String nodeId;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("job-", 0).factory());
+    private final Semaphore slots;
+    private final Map<Long, Semaphore> tenantSlots = new ConcurrentHashMap<>();
+    private final Map<Long, JobContext> running = new ConcurrentHashMap<>();
+    private final AtomicBoolean pollScheduled = new AtomicBoolean();
+    // ReentrantLock y no synchronized: poll() corre también en virtual threads (wakeUp) y hace JDBC
+    private final ReentrantLock pollLock = new ReentrantLock();
+    private volatile boolean stopping;
+
+    public JobWorker(JobRepository repository, List<JobHandler> handlers, JobProperties properties,
+                     ObjectMapper objectMapper, TransactionTemplate transactionTemplate, Clock clock, String nodeId) {
+        this.repository = repository;
+        this.handlers = JobService.byType(handlers);
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.nodeId = nodeId;
+        this.slots = new Semaphore(properties.maxConcurrent());
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public int runningCount() {
+        return running.size();
+    }
+
+    /** Un job recién encolado en este nodo no espera al próximo poll. */
+    public void wakeUp() {
+        if (!stopping && pollScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    pollScheduled.set(false);
+                    poll();
+                });
+            } catch (RejectedExecutionException e) {
+                pollScheduled.set(false);  // apagándose
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${edira.jobs.poll-interval:1s}")
+    public void poll() {
+        pollLock.lock();
+        try {
+            claim();
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private void claim() {
+        if (stopping || slots.availablePermits() == 0) {
+            return;
+        }
+        List<JobContext> claimed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                Instant now = clock.instant();
+                // los tenants con el cupo lleno no entran al SELECT: si no, sus jobs más viejos llenan
+                // la ventana y los demás esperan aunque haya cupo. Un tenant que se llena a mitad de
+                // camino se agrega y se vuelve a leer; cada vuelta suma un tenant, así que termina.
+                Set<Long> fullTenants = fullTenants();
+                boolean skipped = true;
+                while (skipped && slots.availablePermits() > 0) {
+                    skipped = false;
+                    // se leen más candidatos que cupos: los de tenants que se llenan en esta vuelta se saltan
+                    List<JobRecord> candidates = repository.lockQueued(slots.availablePermits() * 4, fullTenants);
+                    List<Long> ids = new ArrayList<>();
+                    for (JobRecord job : candidates) {
+                        if (!handlers.containsKey(job.type())) {
+                            repository.finishQueued(job.id(), JobState.FAILED, error(job.id(), 400, ErrorCode.BAD_REQUEST,
+                                    "Tipo de job desconocido: " + job.type()), now);
+                            continue;
+                        }
+                        if (!slots.tryAcquire()) {
+                            break;
+                        }
+                        if (!tenantSlot(job.tenantId()).tryAcquire()) {
+                            slots.release();
+                            skipped |= fullTenants.add(job.tenantId());
+                            continue;
+                        }
+                        ids.add(job.id());
+                        claimed.add(new JobContext(job.id(), job.tenantId(), job.type(), readPayload(job.payload()),
+                                job.createdBy(), new JobLease(job.id(), nodeId, job.attempts() + 1)));
+                    }
+                    if (!ids.isEmpty()) {
+                        repository.markRunning(ids, nodeId, now.plus(properties.lease()), now);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            claimed.forEach(this::releaseSlots);
+            log.warn("JOB_POLL_FAILED node={}", nodeId, e);
+            return;
+        }
+        for (JobContext context : claimed) {
+            running.put(context.jobId(), context);
+            executor.execute(() -> run(context));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${edira.jobs.heartbeat-interval:15s}")
+    public void heartbeat() {
+        if (running.isEmpty()) {
+            return;
+        }
+        Instant leaseUntil = clock.instant().plus(properties.lease());
+        for (JobContext context : running.values()) {
+            try {
+                if (!repository.heartbeat(context.lease, leaseUntil, context.progress())) {
+                    log.warn("JOB_LEASE_LOST job={} node={} attempt={}", context.jobId(), nodeId, context.lease.attempt());
+                    context.abandon();
+                }
+            } catch (RuntimeException e) {
+                // sin BD no se puede renovar; si dura más que el lease, otro nodo lo retoma y aquí se aborta
+                log.warn("JOB_HEARTBEAT_FAILED job={} node={}", context.jobId(), nodeId, e);
+            }
+        }
+        try {
+            for (Long id : repository.findCancelRequested(nodeId)) {
+                JobContext context = running.get(id);
+                if (context != null) {
+                    context.cancel();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("JOB_CANCEL_CHECK_FAILED node={}", nodeId, e);
+        }
+    }
+
+    // un solo nodo barre los leases vencidos; el lease de la tarea dura lo mismo que el de un job
+    @ClusterScheduled(lease = "${edira.jobs.lease:60s}")
+    @Scheduled(initialDelayString = "${edira.jobs.recover-interval:30s}", fixedDelayString = "${edira.jobs.recover-interval:30s}")
+    public void recover() {
+        Instant now = clock.instant();
+        int recovered = repository.recoverExpired(now, properties.maxAttempts(), error(0, 500, ErrorCode.INTERNAL_ERROR,
+                "El job se interrumpió " + properties.maxAttempts() + " veces (caída o reinicio del nodo) y no se reintenta más."), 500);
+        if (recovered > 0) {
+            log.warn("JOB_LEASES_EXPIRED recovered={} node={}", recovered, nodeId);
+        }
+        int deleted = repository.deleteFinishedBefore(now.minus(properties.retention()), 1000);
+        if (deleted > 0) {
+            log.info("JOB_PURGE deleted={}", deleted);
+        }
+    }
+
+    void run(JobContext context) {
+        context.thread = Thread.currentThread();
+        TenantContext.set(context.tenantId());
+        JobHandler handler = handlers.get(context.type());
+        try {
+            JobResult result = handler.run(context);
+            context.checkCancelled();
+            int size = result.body() == null ? 0 : result.body().length;
+            if (size > properties.maxResultSize().toBytes()) {
+                finish(context, JobState.FAILED, JobResult.NONE, error(context.jobId(), 500, ErrorCode.INTERNAL_ERROR,
+                        "El resultado (" + size + " bytes) supera el máximo de " + properties.maxResultSize()));
+            } else {
+                finish(context, JobState.SUCCEEDED, result, null);
+            }
+        } catch (Exception e) {
+            if (context.abandoned) {
+                log.info("JOB_ABANDONED job={} node={}", context.jobId(), nodeId);
+            } else if (context.cancelled() || e instanceof JobCancelledException) {
+                finish(context, JobState.CANCELLED, JobResult.NONE, null);
+            } else if (e instanceof IllegalArgumentException) {
+                ApiError error = error(context.jobId(), 400, ErrorCode.BAD_REQUEST, e.getMessage());
+                log.warn("400 BAD_REQUEST path={} errorId={} job={}", error.path(), error.errorId(), context.jobId());
+                finish(context, JobState.FAILED, JobResult.NONE, error);
+            } else {
+                ApiError error = error(context.jobId(), 500, ErrorCode.INTERNAL_ERROR, "El job falló. Intenta más tarde.");
+                log.error("500 INTERNAL_ERROR path={} errorId={} job={}", error.path(), error.errorId(), context.jobId(), e);
+                finish(context, JobState.FAILED, JobResult.NONE, error);
+            }
+        } finally {
+            Thread.interrupted();
+            context.thread = null;
+            TenantContext.clear();
+            running.remove(context.jobId());
+            releaseSlots(context);
+            wakeUp();
+        }
+    }
+
+    private void finish(JobContext context, JobState state, JobResult result, ApiError error) {
+        if (context.abandoned) {
+            return;
+        }
+        try {
+            if (!repository.finish(context.lease, state, context.progress(), result.contentType(), result.body(),
+                    error, clock.instant())) {
+                log.warn("JOB_LEASE_LOST job={} node={} attempt={} state={}", context.jobId(), nodeId,
+                        context.lease.attempt(), state);
+            }
+        } catch (RuntimeException e) {
+            // el lease vencerá y recover() lo reencola: el job se vuelve a correr
+            log.error("JOB_FINISH_FAILED job={} node={} state={}", context.jobId(), nodeId, state, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // poll() toma pollLock: después de esto no se toma nada nuevo
+        pollLock.lock();
+        try {
+            stopping = true;
+        } finally {
+            pollLock.unlock();
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(properties.shutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            running.values().forEach(JobContext::abandon);
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        int released = repository.releaseOwned(nodeId, clock.instant());
+        if (released > 0) {
+            log.info("JOB_RELEASED jobs={} node={}", released, nodeId);
+        }
+    }
+
+    private Set<Long> fullTenants() {
+        Set<Long> full = new HashSet<>();
+        tenantSlots.forEach((tenantId, slot) -> {
+            if (slot.availablePermits() == 0) {
+                full.add(tenantId);
+            }
+        });
+        return full;
+    }
+
+    private Semaphore tenantSlot(long tenantId) {
+        return tenantSlots.computeIfAbsent(tenantId, id -> new Semaphore(properties.perTenantConcurrent()));
+    }
+
+    private void releaseSlots(JobContext context) {
+        tenantSlot(context.tenantId()).release();
+        slots.release();
+    }
+
+    private JsonNode readPayload(String payload) {
+        if (payload == null) {
+            return objectMapper.nullNode();
+        }
+        try {
+            return objectMapper.readTree(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("payload inválido en job", e);
+        }
+    }
+
+    private static ApiError error(long jobId, int status, ErrorCode code, String message) {
+        return ApiError.of(status, code, message, "/jobs/" + jobId);
+    }
+}
@@ -0,0 +1,85 @@
+package com.edira.edira_api.service.risk;
+
+import java.util.Arrays;
+
+/**
+ * Datos de origen de un tramo de alumnos, acumulados en arreglos primitivos mientras llegan las
+ * filas: la posición {@code i} es el alumno {@code studentIds[i]}. Las notas no se guardan, solo
+ * las sumas que necesitan el promedio y la recta de mínimos cuadrados (x = días desde el inicio
+ * del período, y = nota).
+ */
+final class RiskInputs {
+
+    private static final double DAY_MILLIS = 86_400_000d;
+
+    final long[] studentIds;
+    final long termStartMillis;
+    final int[] present;
+    final int[] absent;
+    final int[] late;
+    final int[] graded;
+    final double[] sumX;
+    final double[] sumY;
+    final double[] sumXX;
+    final double[] sumXY;
+    final double[] minX;
+    final double[] maxX;
+    final int[] due;
+    final int[] missing;
+
+    RiskInputs(long[] studentIds, long termStartMillis) {
+        int size = studentIds.length;
+        this.studentIds = studentIds;
+        this.termStartMillis = termStartMillis;
+        this.present = new int[size];
+        this.absent = new int[size];
+        this.late = new int[size];
+        this.graded = new int[size];
+        this.sumX = new double[size];
+        this.sumY = new double[size];
+        this.sumXX = new double[size];
+        this.sumXY = new double[size];
+        this.minX = new double[size];
+        this.maxX = new double[size];
+        this.due = new int[size];
+        this.missing = new int[size];
+        Arrays.fill(minX, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxX, Double.NEGATIVE_INFINITY);
+    }
+
+    int size() {
+        return studentIds.length;
+    }
+
+    void attendance(long studentId, int present, int absent, int late) {
+        int i = Arrays.binarySearch(studentIds, studentId);
+        if (i >= 0) {
+            this.present[i] += present;
+            this.absent[i] += absent;
+            this.late[i] += late;
+        }
+    }
+
+    void grade(long studentId, int tenths, long evaluatedAt) {
+        int i = Arrays.binarySearch(studentIds, studentId);
+        if (i >= 0) {
+            double x = (evaluatedAt - termStartMillis) / DAY_MILLIS;
+            double y = tenths / 10.0;
+            graded[i]++;
+            sumX[i] += x;
+            sumY[i] += y;
+            sumXX[i] += x * x;
+            sumXY[i] += x * y;
+            minX[i] = Math.min(minX[i], x);
+            maxX[i] = Math.max(maxX[i], x);
+        }
+    }
+
+    void due(long studentId, int due, int missing) {
+        int i = Arrays.binarySearch(studentIds, studentId);
+        if (i >= 0) {
+            this.due[i] += due;
+            this.missing[i] += missing;
+        }
+    }
+}
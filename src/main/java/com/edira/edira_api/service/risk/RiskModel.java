@@ -0,0 +1,70 @@
+package com.edira.edira_api.service.risk;
+
+import com.edira.edira_api.persistence.risk.RiskScoreBatch;
+
+/**
+ * Puntaje de riesgo de 0 a 100: suma ponderada de cuatro señales, cada una entre 0 (sin riesgo) y
+ * 1. Una señal sin datos (sin asistencia registrada, sin notas, sin evaluaciones en corrección)
+ * no suma.
+ * <ul>
+ *   <li>asistencia: 0 desde 95% de (presentes + atrasos), 1 en 70% o menos</li>
+ *   <li>notas: 0 con promedio 5.0 o más, 1 en 3.5 o menos</li>
+ *   <li>tendencia: 0 si las notas no bajan, 1 si bajan un punto o más cada 30 días (desde
+ *       3 notas repartidas en al menos una semana)</li>
+ *   <li>evaluaciones faltantes: 0 sin faltantes, 1 desde 30% de las que ya se corrigen</li>
+ * </ul>
+ */
+final class RiskModel {
+
+    static final int ATTENDANCE_WEIGHT = 35;
+    static final int GRADE_WEIGHT = 30;
+    static final int TREND_WEIGHT = 15;
+    static final int MISSING_WEIGHT = 20;
+
+    private static final int MIN_TREND_GRADES = 3;
+    private static final double MIN_TREND_DAYS = 7;
+
+    private RiskModel() {
+    }
+
+    static RiskScoreBatch score(RiskInputs in) {
+        RiskScoreBatch batch = RiskScoreBatch.of(in.size());
+        for (int i = 0; i < in.size(); i++) {
+            int records = in.present[i] + in.absent[i] + in.late[i];
+            double rate = records == 0 ? Double.NaN : (double) (in.present[i] + in.late[i]) / records;
+            double average = in.graded[i] == 0 ? Double.NaN : in.sumY[i] / in.graded[i];
+            double trend = trend(in, i);
+            batch.studentIds()[i] = in.studentIds[i];
+            batch.attendanceRates()[i] = rate;
+            batch.gradeAverages()[i] = average;
+            batch.gradeTrends()[i] = trend;
+            batch.dueEvaluations()[i] = in.due[i];
+            batch.missingEvaluations()[i] = in.missing[i];
+            batch.scores()[i] = score(rate, average, trend, in.due[i], in.missing[i]);
+        }
+        return batch;
+    }
+
+    /** NaN = sin dato en cualquiera de los tres primeros. */
+    static int score(double attendanceRate, double gradeAverage, double gradeTrend, int due, int missing) {
+        double risk = ATTENDANCE_WEIGHT * signal((0.95 - attendanceRate) / 0.25)
+                + GRADE_WEIGHT * signal((5.0 - gradeAverage) / 1.5)
+                + TREND_WEIGHT * signal(-gradeTrend)
+                + MISSING_WEIGHT * (due == 0 ? 0 : signal((double) missing / due / 0.3));
+        return (int) Math.round(risk);
+    }
+
+    // Pendiente de la recta de mínimos cuadrados, en puntos de nota por cada 30 días
+    private static double trend(RiskInputs in, int i) {
+        int n = in.graded[i];
+        if (n < MIN_TREND_GRADES || in.maxX[i] - in.minX[i] < MIN_TREND_DAYS) {
+            return Double.NaN;
+        }
+        double denominator = n * in.sumXX[i] - in.sumX[i] * in.sumX[i];
+        return (n * in.sumXY[i] - in.sumX[i] * in.sumY[i]) / denominator * 30;
+    }
+
+    private static double signal(double value) {
+        return Double.isNaN(value) ? 0 : Math.max(0, Math.min(1, value));
+    }
+}
@@ -0,0 +1,22 @@
+package com.edira.edira_api.service.risk;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Puntaje de riesgo (prefijo {@code edira.risk}).
+ *
+ * @param chunkSize        alumnos por tramo: cada tramo se lee, se puntúa y se escribe por separado
+ * @param parallelism      tramos simultáneos (cada uno ocupa una conexión del pool mientras lee o escribe)
+ * @param watermarkOverlap cuánto antes de la última marca se buscan cambios: cubre transacciones
+ *                         que confirmaron después de la marca con un updated_at anterior
+ */
+@ConfigurationProperties(prefix = "edira.risk")
+public record RiskProperties(
+        @DefaultValue("2000") int chunkSize,
+        @DefaultValue("4") int parallelism,
+        @DefaultValue("5m") Duration watermarkOverlap
+) {
+}
@@ -0,0 +1,5 @@
+package com.edira.edira_api.service.risk;
+
+/** Resultado de una corrida: {@code students} puntuados, todos los del tenant o solo los con cambios. */
+public record RiskRun(long tenantId, boolean incremental, long students, long elapsedMs) {
+}
@@ -0,0 +1,39 @@
+package com.edira.edira_api.service.risk;
+
+import com.edira.edira_api.service.job.JobContext;
+import com.edira.edira_api.service.job.JobHandler;
+import com.edira.edira_api.service.job.JobResult;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job {@value #TYPE}: puntaje de riesgo de los alumnos del tenant, pensado para correr cada noche.
+ * Solo recalcula a los alumnos con cambios desde la corrida anterior; con {@code {"full": true}},
+ * a todos.
+ */
+@Component
+public class RiskScoringJob implements JobHandler {
+
+    static final String TYPE = "student-risk-scoring";
+
+    private final RiskScoringService service;
+
+    public RiskScoringJob(RiskScoringService service) {
+        this.service = service;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public JobResult run(JobContext context) {
+        boolean full = context.payload().path("full").asBoolean(false);
+        context.progress(0, null, "buscando alumnos");
+        service.score(context.tenantId(), full, (done, total) -> {
+            context.checkCancelled();
+            context.progress(done, total, "alumnos evaluados");
+        });
+        return JobResult.NONE;
+    }
+}
@@ -0,0 +1,191 @@
+package com.edira.edira_api.service.risk;
+
+import com.edira.edira_api.domain.risk.StudentRisk;
+import com.edira.edira_api.persistence.risk.RiskRepository;
+import com.edira.edira_api.persistence.risk.RiskRepository.RunState;
+import com.edira.edira_api.persistence.risk.RiskScoreBatch;
+import com.edira.edira_api.service.attendance.AttendanceProperties;
+import com.edira.edira_api.service.attendance.AttendanceRollupService;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Riesgo académico de los alumnos de un tenant (ver {@link RiskModel}).
+ * <p>
+ * Una corrida avanza por tramos de ids de alumno. El hilo que llama arma los tramos y
+ * {@code parallelism} workers los procesan a la vez: tres lecturas por rango de id con cursor de
+ * streaming que acumulan en arreglos primitivos ({@link RiskInputs}), el puntaje de cada alumno y
+ * un upsert multi-fila del tramo. Nunca hay más de {@code parallelism} tramos en memoria.
+ * <p>
+ * Sin {@code full}, solo se puntúa a los alumnos con datos cambiados desde la marca de la corrida
+ * anterior (hora de la base al empezarla). Un período académico nuevo fuerza la corrida completa.
+ */
+@Service
+public class RiskScoringService {
+
+    /** Avance después de cada tramo; puede lanzar para cortar la corrida. */
+    @FunctionalInterface
+    public interface Progress {
+        void update(long done, long total);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RiskScoringService.class);
+
+    private static final long[] NO_STUDENTS = new long[0];
+    private static final int MAX_TOP = 500;
+
+    private final RiskRepository repository;
+    private final AttendanceRollupService rollups;
+    private final ZoneId zone;
+    private final RiskProperties properties;
+
+    public RiskScoringService(RiskRepository repository, AttendanceRollupService rollups,
+                              AttendanceProperties attendance, RiskProperties properties) {
+        this.repository = repository;
+        this.rollups = rollups;
+        this.zone = attendance.rollupZone();
+        this.properties = properties;
+    }
+
+    public RiskRun score(long tenantId, boolean full, Progress progress) {
+        long start = System.nanoTime();
+        Instant watermark = repository.now();
+        LocalDate termStart = rollups.currentTermStart();
+        Optional<RunState> last = repository.findRun(tenantId);
+        boolean incremental = !full && last.isPresent() && last.get().termStart().equals(termStart);
+        long total;
+        Supplier<long[]> chunks;
+        if (incremental) {
+            long[] changed = repository.findChangedStudents(tenantId,
+                    last.get().watermark().minus(properties.watermarkOverlap()));
+            total = changed.length;
+            chunks = slices(changed);
+        } else {
+            total = repository.countStudents(tenantId);
+            chunks = pages(tenantId);
+        }
+        long scored = process(tenantId, termStart, chunks, total, progress);
+        // solo una corrida terminada mueve la marca: una cortada se repite desde la anterior
+        repository.saveRun(tenantId, watermark, termStart);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("RISK_SCORING tenant={} incremental={} students={} ms={}", tenantId, incremental, scored, elapsedMs);
+        return new RiskRun(tenantId, incremental, scored, elapsedMs);
+    }
+
+    public StudentRisk risk(long tenantId, long studentId) {
+        return repository.findRisk(tenantId, studentId)
+                .orElseThrow(() -> new NotFoundException("Alumno " + studentId + " sin puntaje de riesgo."));
+    }
+
+    public List<StudentRisk> top(long tenantId, int minScore, int limit) {
+        if (minScore < 0 || minScore > 100) {
+            throw new IllegalArgumentException("minScore debe estar entre 0 y 100.");
+        }
+        if (limit < 1 || limit > MAX_TOP) {
+            throw new IllegalArgumentException("limit debe estar entre 1 y " + MAX_TOP + ".");
+        }
+        return repository.findTop(tenantId, minScore, limit);
+    }
+
+    private long process(long tenantId, LocalDate termStart, Supplier<long[]> chunks, long total, Progress progress) {
+        long termStartMillis = termStart.atStartOfDay(zone).toInstant().toEpochMilli();
+        long done = 0;
+        try (ExecutorService workers = Executors.newFixedThreadPool(properties.parallelism(),
+                Thread.ofPlatform().name("risk-" + tenantId + "-", 0).factory())) {
+            CompletionService<Integer> completed = new ExecutorCompletionService<>(workers);
+            int pending = 0;
+            for (long[] chunk = chunks.get(); chunk.length > 0; chunk = chunks.get()) {
+                if (pending == properties.parallelism()) {
+                    done += await(completed);
+                    pending--;
+                    progress.update(done, Math.max(total, done));
+                }
+                long[] studentIds = chunk;
+                completed.submit(() -> scoreChunk(tenantId, termStart, termStartMillis, studentIds));
+                pending++;
+            }
+            for (; pending > 0; pending--) {
+                done += await(completed);
+                progress.update(done, Math.max(total, done));
+            }
+        }
+        return done;
+    }
+
+    private int scoreChunk(long tenantId, LocalDate termStart, long termStartMillis, long[] studentIds) {
+        RiskInputs inputs = new RiskInputs(studentIds, termStartMillis);
+        long from = studentIds[0];
+        long to = studentIds[studentIds.length - 1];
+        Instant termInstant = Instant.ofEpochMilli(termStartMillis);
+        repository.forEachAttendance(tenantId, termStart, from, to, inputs::attendance);
+        repository.forEachGrade(tenantId, termInstant, from, to, inputs::grade);
+        repository.forEachDue(tenantId, termInstant, from, to, inputs::due);
+        RiskScoreBatch batch = RiskModel.score(inputs);
+        repository.upsertScores(tenantId, batch);
+        return batch.size();
+    }
+
+    private static int await(CompletionService<Integer> completed) {
+        try {
+            return completed.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Puntaje de riesgo interrumpido.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Todos los alumnos del tenant, de a chunkSize ids
+    private Supplier<long[]> pages(long tenantId) {
+        long[] lastId = {0};
+        return () -> {
+            long[] page = repository.findStudentIdsAfter(tenantId, lastId[0], properties.chunkSize());
+            if (page.length > 0) {
+                lastId[0] = page[page.length - 1];
+            }
+            return page;
+        };
+    }
+
+    /**
+     * Tramos de una lista ordenada de ids. Un tramo se corta también cuando sus ids abarcan más de
+     * 4 × chunkSize: las lecturas van por BETWEEN y un tramo disperso recorrería el rango completo.
+     */
+    Supplier<long[]> slices(long[] studentIds) {
+        long maxSpan = 4L * properties.chunkSize();
+        int[] next = {0};
+        return () -> {
+            int start = next[0];
+            if (start >= studentIds.length) {
+                return NO_STUDENTS;
+            }
+            int end = start;
+            while (end < studentIds.length && end - start < properties.chunkSize()
+                    && studentIds[end] - studentIds[start] < maxSpan) {
+                end++;
+            }
+            next[0] = end;
+            return Arrays.copyOfRange(studentIds, start, end);
+        };
+    }
+}
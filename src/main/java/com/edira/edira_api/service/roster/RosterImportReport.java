@@ -0,0 +1,36 @@
+package com.edira.edira_api.service.roster;
+
+import com.edira.edira_api.shared.validation.LineValidationError;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Líneas de la respuesta NDJSON de POST /rosters/import: un {@code {"row":...}} por fila rechazada,
+ * un {@code {"progress":...}} por lote confirmado y un {@code {"summary":...}} al final.
+ */
+public final class RosterImportReport {
+
+    private RosterImportReport() {
+    }
+
+    /** Fila rechazada ({@code line}: línea del archivo donde empieza, 1 = encabezado). */
+    @Schema(name = "RosterRowError")
+    public record RowError(long line, List<LineValidationError> errors) {
+    }
+
+    /** Totales acumulados; el mismo registro va en progress y en summary. */
+    @Schema(name = "RosterImportProgress")
+    public record Progress(
+            @Schema(description = "Filas de datos procesadas (sin encabezado ni líneas en blanco)")
+            long rows,
+            long invalid,
+            long studentsCreated,
+            long studentsExisting,
+            long enrollmentsCreated,
+            long enrollmentsExisting,
+            @Schema(description = "true si se dejaron de informar filas rechazadas por el tope edira.ingest.max-error-details")
+            boolean errorsTruncated
+    ) {
+    }
+}
@@ -0,0 +1,286 @@
+package com.edira.edira_api.service.roster;
+
+import com.edira.edira_api.domain.student.NewStudent;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.student.StudentRepository;
+import com.edira.edira_api.service.course.EnrollmentService;
+import com.edira.edira_api.shared.ingest.CsvReader;
+import com.edira.edira_api.shared.ingest.IngestProperties;
+import com.edira.edira_api.shared.validation.LineValidationError;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Carga de nóminas CSV (alumnos y, opcionalmente, su matrícula en un curso) con memoria constante:
+ * el CSV se lee registro a registro desde el stream, cada fila pasa por Bean Validation y las
+ * válidas se escriben por lotes de {@code edira.ingest.batch-size}, una transacción por lote. Una
+ * fila mala se informa y se salta; un lote que falla no deshace los ya confirmados.
+ * <p>
+ * Columnas (encabezado obligatorio, en cualquier orden, se ignoran las desconocidas):
+ * email, first_name, last_name, external_id (opcional), course_code (opcional). Un alumno que ya
+ * existe (mismo email) se reutiliza; con course_code se matricula con lista de espera.
+ */
+@Service
+public class RosterImportService {
+
+    /** Una fila del CSV. */
+    public record Row(
+            @Size(max = 64) String externalId,
+            @NotBlank @Size(max = 120) String firstName,
+            @NotBlank @Size(max = 120) String lastName,
+            @NotBlank @Email @Size(max = 255) String email,
+            @Size(max = 50) String courseCode
+    ) {
+    }
+
+    /** Destino de la respuesta; {@code progress} se llama al confirmar cada lote. */
+    public interface Sink {
+        void rowError(RosterImportReport.RowError error) throws IOException;
+
+        void progress(RosterImportReport.Progress progress) throws IOException;
+    }
+
+    private static final Comparator<ValidationErrorDetail> BY_FIELD = Comparator.comparing(ValidationErrorDetail::field)
+            .thenComparing(ValidationErrorDetail::message);
+
+    private static final String EMAIL = "email";
+    private static final String FIRST_NAME = "firstname";
+    private static final String LAST_NAME = "lastname";
+    private static final String EXTERNAL_ID = "externalid";
+    private static final String COURSE_CODE = "coursecode";
+
+    private final StudentRepository students;
+    private final EnrollmentRepository enrollments;
+    private final EnrollmentService enrollmentService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final IngestProperties properties;
+
+    public RosterImportService(StudentRepository students, EnrollmentRepository enrollments,
+                               EnrollmentService enrollmentService, Validator validator,
+                               PlatformTransactionManager transactionManager, IngestProperties properties) {
+        this.students = students;
+        this.enrollments = enrollments;
+        this.enrollmentService = enrollmentService;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // mismo aislamiento que EnrollmentService: los asientos se toman con SKIP LOCKED
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.properties = properties;
+    }
+
+    /**
+     * Lee el encabezado antes de escribir nada: un encabezado inválido es IllegalArgumentException
+     * (400) sin cambios en la base.
+     */
+    public RosterImportReport.Progress importCsv(long tenantId, String user, InputStream body, Sink sink)
+            throws IOException {
+        CsvReader csv = new CsvReader(body, (int) properties.maxLineLength().toBytes());
+        if (!csv.next()) {
+            throw new IllegalArgumentException("El archivo está vacío: se esperaba un encabezado CSV.");
+        }
+        Map<String, Integer> columns = header(csv.fields());
+        Chunk chunk = new Chunk(tenantId, user, sink);
+        while (csv.next()) {
+            if (csv.blank()) {
+                continue;
+            }
+            long line = csv.line();
+            if (csv.tooLong()) {
+                chunk.invalid(line, List.of(new ValidationErrorDetail("$",
+                        "La fila supera el largo máximo de " + properties.maxLineLength().toBytes() + " caracteres")));
+            } else if (csv.unterminated()) {
+                chunk.invalid(line, List.of(new ValidationErrorDetail("$", "Comillas sin cerrar al final del archivo")));
+            } else {
+                validate(line, row(csv.fields(), columns), chunk);
+            }
+            if (chunk.size() >= properties.batchSize()) {
+                chunk.flush();
+            }
+        }
+        chunk.flush();
+        return chunk.progress();
+    }
+
+    private static Map<String, Integer> header(List<String> fields) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            columns.putIfAbsent(fields.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", ""), i);
+        }
+        List<String> missing = List.of(EMAIL, FIRST_NAME, LAST_NAME).stream()
+                .filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas en el encabezado: " + missing
+                    + ". Se esperan email, first_name, last_name y opcionalmente external_id, course_code.");
+        }
+        return columns;
+    }
+
+    private static Row row(List<String> fields, Map<String, Integer> columns) {
+        return new Row(value(fields, columns, EXTERNAL_ID), value(fields, columns, FIRST_NAME),
+                value(fields, columns, LAST_NAME), value(fields, columns, EMAIL), value(fields, columns, COURSE_CODE));
+    }
+
+    private static String value(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void validate(long line, Row row, Chunk chunk) throws IOException {
+        List<ValidationErrorDetail> violations = validator.validate(row).stream()
+                .map(ValidationErrorDetail::from)
+                .sorted(BY_FIELD)
+                .toList();
+        if (!violations.isEmpty()) {
+            chunk.invalid(line, violations);
+            return;
+        }
+        chunk.valid(line, new NewStudent(row.externalId(), row.firstName(), row.lastName(),
+                row.email().toLowerCase(Locale.ROOT)), row.courseCode());
+    }
+
+    /** Lote en curso: filas válidas hasta batchSize; las inválidas se informan al llegar. */
+    private final class Chunk {
+
+        private final long tenantId;
+        private final String user;
+        private final Sink sink;
+        private final List<Long> lines = new ArrayList<>();
+        private final List<NewStudent> rows = new ArrayList<>();
+        private final List<String> courseCodes = new ArrayList<>();
+        private final Map<String, Long> courseIds = new HashMap<>();
+        private int pending;
+        private long total;
+        private long invalid;
+        private long studentsCreated;
+        private long studentsExisting;
+        private long enrollmentsCreated;
+        private long enrollmentsExisting;
+        private int errorDetails;
+        private boolean truncated;
+
+        Chunk(long tenantId, String user, Sink sink) {
+            this.tenantId = tenantId;
+            this.user = user;
+            this.sink = sink;
+        }
+
+        int size() {
+            return pending;
+        }
+
+        void valid(long line, NewStudent student, String courseCode) {
+            lines.add(line);
+            rows.add(student);
+            courseCodes.add(courseCode);
+            pending++;
+        }
+
+        void invalid(long line, List<ValidationErrorDetail> details) throws IOException {
+            invalid++;
+            pending++;
+            if (errorDetails >= properties.maxErrorDetails()) {
+                truncated = true;
+                return;
+            }
+            int room = properties.maxErrorDetails() - errorDetails;
+            if (details.size() > room) {
+                truncated = true;
+            }
+            List<LineValidationError> kept = details.stream().limit(room).map(d -> LineValidationError.of(line, d)).toList();
+            errorDetails += kept.size();
+            sink.rowError(new RosterImportReport.RowError(line, kept));
+        }
+
+        void flush() throws IOException {
+            if (pending == 0) {
+                return;
+            }
+            if (!rows.isEmpty()) {
+                List<RosterImportReport.RowError> unknownCourses = transactionTemplate.execute(tx -> write());
+                for (RosterImportReport.RowError error : unknownCourses) {
+                    invalid(error.line(), List.of(new ValidationErrorDetail("courseCode",
+                            "No existe un curso con ese código")));
+                    pending--;
+                }
+            }
+            total += pending;
+            sink.progress(progress());
+            lines.clear();
+            rows.clear();
+            courseCodes.clear();
+            pending = 0;
+        }
+
+        // Sentencias por lote, no por fila: alumnos existentes, INSERT multi-fila, ids nuevos y una
+        // tanda de matrículas por curso. Devuelve las filas con un course_code que no existe.
+        private List<RosterImportReport.RowError> write() {
+            Map<String, NewStudent> byEmail = new LinkedHashMap<>();
+            rows.forEach(student -> byEmail.putIfAbsent(student.email(), student));
+            Map<String, Long> ids = students.findIdsByEmail(tenantId, byEmail.keySet());
+            List<NewStudent> missing = byEmail.values().stream().filter(s -> !ids.containsKey(s.email())).toList();
+            if (!missing.isEmpty()) {
+                students.insertAll(tenantId, missing, user);
+                Map<String, Long> inserted = students.findIdsByEmail(tenantId,
+                        missing.stream().map(NewStudent::email).toList());
+                studentsCreated += inserted.size();
+                ids.putAll(inserted);
+            }
+            studentsExisting += rows.size() - missing.size();
+
+            Set<String> unresolved = new LinkedHashSet<>();
+            courseCodes.stream().filter(code -> code != null && !courseIds.containsKey(code)).forEach(unresolved::add);
+            if (!unresolved.isEmpty()) {
+                courseIds.putAll(enrollments.findCourseIdsByCode(tenantId, unresolved));
+            }
+            Map<Long, List<Long>> byCourse = new LinkedHashMap<>();
+            List<RosterImportReport.RowError> unknown = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                String code = courseCodes.get(i);
+                if (code == null) {
+                    continue;
+                }
+                Long courseId = courseIds.get(code);
+                if (courseId == null) {
+                    unknown.add(new RosterImportReport.RowError(lines.get(i), List.of()));
+                    continue;
+                }
+                byCourse.computeIfAbsent(courseId, id -> new ArrayList<>()).add(ids.get(rows.get(i).email()));
+            }
+            byCourse.forEach((courseId, studentIds) -> {
+                EnrollmentService.BatchResult result = enrollmentService.enrollAll(tenantId, courseId, studentIds, user);
+                enrollmentsCreated += result.created();
+                enrollmentsExisting += result.existing();
+            });
+            return unknown;
+        }
+
+        RosterImportReport.Progress progress() {
+            return new RosterImportReport.Progress(total, invalid, studentsCreated, studentsExisting,
+                    enrollmentsCreated, enrollmentsExisting, truncated);
+        }
+    }
+}
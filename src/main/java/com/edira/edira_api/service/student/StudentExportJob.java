@@ -0,0 +1,79 @@
+package com.edira.edira_api.service.student;
+
+import com.edira.edira_api.domain.student.Student;
+import com.edira.edira_api.persistence.student.StudentRepository;
+import com.edira.edira_api.service.job.JobContext;
+import com.edira.edira_api.service.job.JobHandler;
+import com.edira.edira_api.service.job.JobResult;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Job {@value #TYPE}: CSV con los alumnos del tenant, leídos por páginas de id.
+ */
+@Component
+public class StudentExportJob implements JobHandler {
+
+    static final String TYPE = "student-export";
+    private static final int PAGE_SIZE = 1000;
+
+    private final StudentRepository repository;
+
+    public StudentExportJob(StudentRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public JobResult run(JobContext context) throws Exception {
+        long total = repository.countByTenant(context.tenantId());
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("id,external_id,first_name,last_name,email,status\n");
+            long lastId = 0;
+            long done = 0;
+            List<Student> page;
+            do {
+                context.checkCancelled();
+                page = repository.findPageAfter(context.tenantId(), lastId, PAGE_SIZE);
+                for (Student student : page) {
+                    writer.write(Long.toString(student.id()));
+                    for (String value : new String[]{student.externalId(), student.firstName(), student.lastName(),
+                            student.email(), student.status()}) {
+                        writer.write(',');
+                        writeField(writer, value);
+                    }
+                    writer.write('\n');
+                    lastId = student.id();
+                }
+                done += page.size();
+                context.progress(done, Math.max(total, done), "alumnos exportados");
+            } while (page.size() == PAGE_SIZE);
+        }
+        return new JobResult("text/csv;charset=UTF-8", csv.toByteArray());
+    }
+
+    // RFC 4180: comillas si hay coma, comilla o salto de línea
+    static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,36 @@
+package com.edira.edira_api.service.student;
+
+import com.edira.edira_api.shared.validation.LineValidationError;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
+
+/**
+ * Resultado de una línea del NDJSON de entrada (se devuelve una por línea, en orden).
+ */
+@Schema(name = "StudentImportResult")
+public record StudentImportResult(
+        @Schema(description = "Número de línea del archivo (1 = primera)")
+        long line,
+        Status status,
+        @Schema(description = "Errores de la línea (vacío si se llegó al tope edira.ingest.max-error-details)")
+        @JsonInclude(NON_EMPTY)
+        List<LineValidationError> errors
+) {
+
+    public enum Status { CREATED, DUPLICATE, INVALID }
+
+    static StudentImportResult of(long line, Status status) {
+        return new StudentImportResult(line, status, List.of());
+    }
+
+    /** Última línea de la respuesta ({@code lines}: líneas no vacías procesadas). */
+    @Schema(name = "StudentImportSummary")
+    public record Summary(long lines, long created, long duplicates, long invalid,
+                          @Schema(description = "true si se omitieron detalles de error por el tope")
+                          boolean errorsTruncated) {
+    }
+}
@@ -0,0 +1,282 @@
+package com.edira.edira_api.service.student;
+
+import com.edira.edira_api.domain.student.NewStudent;
+import com.edira.edira_api.persistence.student.StudentRepository;
+import com.edira.edira_api.persistence.student.StudentRepository.InsertOutcome;
+import com.edira.edira_api.service.student.StudentImportResult.Status;
+import com.edira.edira_api.shared.ingest.IngestProperties;
+import com.edira.edira_api.shared.validation.LineValidationError;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Carga de alumnos desde NDJSON (un objeto JSON por línea) con memoria constante:
+ * se lee línea a línea con tope de largo, cada línea pasa por el parser de Jackson y por
+ * Bean Validation por separado, y las válidas se insertan por lotes (una transacción por lote).
+ * Los resultados se entregan al {@link Sink} en el orden de entrada, un lote a la vez.
+ */
+@Service
+public class StudentImportService {
+
+    /** Una línea del NDJSON. */
+    public record Line(
+            @Size(max = 64) String externalId,
+            @NotBlank @Size(max = 120) String firstName,
+            @NotBlank @Size(max = 120) String lastName,
+            @NotBlank @Email @Size(max = 255) String email
+    ) {
+    }
+
+    /** Destino de los resultados por línea; {@code flush} se llama al cerrar cada lote. */
+    public interface Sink {
+        void accept(StudentImportResult result) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final Comparator<ValidationErrorDetail> BY_FIELD = Comparator.comparing(ValidationErrorDetail::field)
+            .thenComparing(ValidationErrorDetail::message);
+
+    private final StudentRepository repository;
+    private final Validator validator;
+    private final ObjectReader lineReader;
+    private final TransactionTemplate transactionTemplate;
+    private final IngestProperties properties;
+
+    public StudentImportService(StudentRepository repository, Validator validator, ObjectMapper objectMapper,
+                                TransactionTemplate transactionTemplate, IngestProperties properties) {
+        this.repository = repository;
+        this.validator = validator;
+        this.lineReader = objectMapper.readerFor(Line.class);
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    public StudentImportResult.Summary importNdjson(long tenantId, String user, InputStream body, Sink sink) throws IOException {
+        Batch batch = new Batch(tenantId, user, sink);
+        LineReader lines = new LineReader(body, (int) properties.maxLineLength().toBytes());
+        while (lines.next()) {
+            long number = lines.number();
+            if (lines.tooLong()) {
+                batch.invalid(number, List.of(new ValidationErrorDetail("$",
+                        "La línea supera el largo máximo de " + properties.maxLineLength().toBytes() + " bytes")));
+            } else if (!lines.blank()) {
+                parse(number, lines, batch);
+            }
+            if (batch.size() >= properties.batchSize()) {
+                batch.flush();
+            }
+        }
+        batch.flush();
+        return batch.summary();
+    }
+
+    private void parse(long number, LineReader lines, Batch batch) throws IOException {
+        Line line;
+        try {
+            line = lineReader.readValue(lines.buffer(), 0, lines.length());
+        } catch (MismatchedInputException e) {
+            String field = e.getPath().isEmpty() ? "$" : e.getPath().get(e.getPath().size() - 1).getFieldName();
+            batch.invalid(number, List.of(new ValidationErrorDetail(field == null ? "$" : field, "Tipo de dato inválido")));
+            return;
+        } catch (JsonProcessingException e) {
+            batch.invalid(number, List.of(new ValidationErrorDetail("$", "JSON inválido: " + e.getOriginalMessage())));
+            return;
+        }
+        if (line == null) {
+            batch.invalid(number, List.of(new ValidationErrorDetail("$", "Se esperaba un objeto JSON")));
+            return;
+        }
+        List<ValidationErrorDetail> violations = validator.validate(line).stream()
+                .map(ValidationErrorDetail::from)
+                .sorted(BY_FIELD)
+                .toList();
+        if (!violations.isEmpty()) {
+            batch.invalid(number, violations);
+            return;
+        }
+        batch.valid(number, new NewStudent(trimToNull(line.externalId()), line.firstName().trim(),
+                line.lastName().trim(), line.email().trim().toLowerCase()));
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /** Lote en curso: líneas válidas e inválidas en orden, hasta batchSize. */
+    private final class Batch {
+
+        private final long tenantId;
+        private final String user;
+        private final Sink sink;
+        private final List<Long> lineNumbers = new ArrayList<>();
+        private final List<StudentImportResult> invalid = new ArrayList<>();  // null en la posición de las válidas
+        private final List<NewStudent> students = new ArrayList<>();
+        private long total;
+        private long created;
+        private long duplicates;
+        private long invalidCount;
+        private int errorDetails;
+        private boolean truncated;
+
+        Batch(long tenantId, String user, Sink sink) {
+            this.tenantId = tenantId;
+            this.user = user;
+            this.sink = sink;
+        }
+
+        int size() {
+            return lineNumbers.size();
+        }
+
+        void valid(long line, NewStudent student) {
+            lineNumbers.add(line);
+            invalid.add(null);
+            students.add(student);
+        }
+
+        void invalid(long line, List<ValidationErrorDetail> details) {
+            int room = Math.max(0, properties.maxErrorDetails() - errorDetails);
+            if (details.size() > room) {
+                truncated = true;
+            }
+            List<LineValidationError> kept = details.stream().limit(room).map(d -> LineValidationError.of(line, d)).toList();
+            errorDetails += kept.size();
+            lineNumbers.add(line);
+            invalid.add(new StudentImportResult(line, Status.INVALID, kept));
+            invalidCount++;
+        }
+
+        void flush() throws IOException {
+            if (lineNumbers.isEmpty()) {
+                return;
+            }
+            InsertOutcome[] outcomes = students.isEmpty()
+                    ? new InsertOutcome[0]
+                    : transactionTemplate.execute(tx -> repository.insertIgnoringDuplicates(tenantId, students, user));
+            int next = 0;
+            for (int i = 0; i < lineNumbers.size(); i++) {
+                StudentImportResult result = invalid.get(i);
+                if (result == null) {
+                    InsertOutcome outcome = outcomes[next++];
+                    if (outcome == InsertOutcome.CREATED) {
+                        created++;
+                        result = StudentImportResult.of(lineNumbers.get(i), Status.CREATED);
+                    } else {
+                        duplicates++;
+                        result = new StudentImportResult(lineNumbers.get(i), Status.DUPLICATE,
+                                List.of(new LineValidationError(lineNumbers.get(i), "email", "Ya existe un alumno con ese email")));
+                    }
+                }
+                sink.accept(result);
+            }
+            total += lineNumbers.size();
+            sink.flush();
+            lineNumbers.clear();
+            invalid.clear();
+            students.clear();
+        }
+
+        StudentImportResult.Summary summary() {
+            return new StudentImportResult.Summary(total, created, duplicates, invalidCount, truncated);
+        }
+    }
+
+    /**
+     * Lee líneas (separadas por \n, tolera \r\n) sobre un buffer reutilizable de largo acotado:
+     * una línea más larga se descarta hasta el siguiente salto sin acumularla.
+     */
+    static final class LineReader {
+
+        private final InputStream in;
+        private final int maxLength;
+        private byte[] buffer;
+        private int length;
+        private long number;
+        private boolean tooLong;
+        private boolean eof;
+
+        LineReader(InputStream in, int maxLength) {
+            this.in = new BufferedInputStream(in, 64 * 1024);
+            this.maxLength = maxLength;
+            this.buffer = new byte[Math.min(maxLength, 1024)];
+        }
+
+        boolean next() throws IOException {
+            if (eof) {
+                return false;
+            }
+            length = 0;
+            tooLong = false;
+            int b;
+            boolean read = false;
+            while ((b = in.read()) != -1) {
+                read = true;
+                if (b == '\n') {
+                    break;
+                }
+                if (length >= maxLength) {
+                    tooLong = true;
+                    continue;
+                }
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.min(maxLength, buffer.length * 2));
+                }
+                buffer[length++] = (byte) b;
+            }
+            if (b == -1) {
+                eof = true;
+                if (!read) {
+                    return false;
+                }
+            }
+            if (length > 0 && buffer[length - 1] == '\r') {
+                length--;
+            }
+            number++;
+            return true;
+        }
+
+        long number() {
+            return number;
+        }
+
+        boolean tooLong() {
+            return tooLong;
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        int length() {
+            return length;
+        }
+
+        boolean blank() {
+            for (int i = 0; i < length; i++) {
+                if (!Character.isWhitespace(buffer[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
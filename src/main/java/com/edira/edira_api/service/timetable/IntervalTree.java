@@ -0,0 +1,167 @@
+package com.edira.edira_api.service.timetable;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Intervalos semiabiertos {@code [start, end)} con un id, en un treap ordenado por (start, id) donde
+ * cada nodo guarda el mayor {@code end} de su subárbol. Insertar y quitar cuestan O(log n); buscar
+ * los que se cruzan con un intervalo, O(log n) más lo que encuentra: se baja solo por subárboles
+ * cuyo mayor end pasa del inicio buscado y se corta a la derecha al pasar del fin.
+ * <p>
+ * La prioridad del treap sale de un hash del id, así el árbol no depende del orden de inserción y
+ * no hace falta un generador de azar. No es thread-safe.
+ */
+final class IntervalTree {
+
+    private static final class Node {
+        final int start;
+        final int end;
+        final long id;
+        final int priority;
+        Node left;
+        Node right;
+        int maxEnd;
+
+        Node(int start, int end, long id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = (int) mix(id);
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    void insert(int start, int end, long id) {
+        root = insert(root, new Node(start, end, id));
+        size++;
+    }
+
+    /** Quita el intervalo con ese inicio e id; false si no estaba. */
+    boolean remove(int start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /** Ids de los intervalos que se cruzan con {@code [start, end)}, en orden de inicio. */
+    void overlapping(int start, int end, LongConsumer ids) {
+        overlapping(root, start, end, ids);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node remove(Node node, int start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(start, id, node);
+        if (c == 0) {
+            size--;
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            node.left = remove(node.left, start, id);
+        } else {
+            node.right = remove(node.right, start, id);
+        }
+        update(node);
+        return node;
+    }
+
+    private static void overlapping(Node node, int start, int end, LongConsumer ids) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        overlapping(node.left, start, end, ids);
+        if (node.start >= end) {
+            // todo lo de la derecha empieza igual o después
+            return;
+        }
+        if (node.end > start) {
+            ids.accept(node.id);
+        }
+        overlapping(node.right, start, end, ids);
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        int maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int compare(int start, long id, Node node) {
+        int c = Integer.compare(start, node.start);
+        return c != 0 ? c : Long.compare(id, node.id);
+    }
+
+    // SplitMix64: ids consecutivos dan prioridades sin relación entre sí
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
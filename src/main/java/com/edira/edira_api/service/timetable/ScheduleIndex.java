@@ -0,0 +1,156 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseSection;
+import com.edira.edira_api.domain.timetable.ScheduleResource;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Índice en memoria de las secciones de cada sala y profesor, por tenant: un {@link IntervalTree}
+ * sobre los minutos de la semana (día × 1440 + minuto) más la versión de horario del recurso con
+ * la que está al día. Buscar choques cuesta O(log n) más las secciones que choca, en lugar de
+ * recorrer las secciones del recurso en SQL.
+ * <p>
+ * Quien consulta pasa la versión que leyó de la base; si el índice está atrás (o no tiene el
+ * recurso) lo recarga con una consulta por índice. {@link #apply} adelanta el índice con el evento
+ * de un cambio si es justo la versión siguiente; si falta alguno, lo deja para recargar.
+ */
+@Component
+public class ScheduleIndex {
+
+    static final int MINUTES_PER_DAY = 1440;
+
+    private record Key(long tenantId, ScheduleResource kind, long id) {
+    }
+
+    /** Las secciones de un recurso; se usa bajo su propio monitor. */
+    private static final class Entry {
+        long version = -1;
+        IntervalTree tree = new IntervalTree();
+        final Map<Long, CourseSection> sections = new HashMap<>();
+
+        void reload(long version, List<CourseSection> loaded) {
+            tree = new IntervalTree();
+            sections.clear();
+            loaded.forEach(this::put);
+            this.version = version;
+        }
+
+        void put(CourseSection section) {
+            remove(section.id());
+            sections.put(section.id(), section);
+            tree.insert(start(section), end(section), section.id());
+        }
+
+        void remove(long sectionId) {
+            CourseSection old = sections.remove(sectionId);
+            if (old != null) {
+                tree.remove(start(old), sectionId);
+            }
+        }
+    }
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxResources;
+
+    public ScheduleIndex(SectionProperties properties) {
+        this.maxResources = properties.indexResources();
+    }
+
+    /**
+     * Secciones del recurso que se cruzan con {@code [start, end)} (minutos de la semana), sin
+     * {@code excludeSectionId}, en orden de inicio. Si el índice está en una versión anterior a
+     * {@code version}, antes lo recarga con {@code loader}.
+     */
+    public List<CourseSection> overlapping(long tenantId, ScheduleResource kind, long id, long version,
+                                           int start, int end, long excludeSectionId,
+                                           Supplier<List<CourseSection>> loader) {
+        Entry entry = entry(new Key(tenantId, kind, id));
+        synchronized (entry) {
+            if (entry.version < version) {
+                entry.reload(version, loader.get());
+            }
+            List<CourseSection> found = new ArrayList<>();
+            entry.tree.overlapping(start, end, sectionId -> {
+                if (sectionId != excludeSectionId) {
+                    found.add(entry.sections.get(sectionId));
+                }
+            });
+            return found;
+        }
+    }
+
+    /**
+     * Aplica un cambio ya confirmado en la base a los recursos que el índice tiene. Repetir un
+     * evento no cambia nada; uno que llega con un hueco de versiones deja el recurso para recargar.
+     */
+    public void apply(long tenantId, SectionEvent event) {
+        for (SectionEvent.ResourceVersion resource : event.resources()) {
+            Entry entry = entries.get(new Key(tenantId, resource.kind(), resource.id()));
+            if (entry == null) {
+                continue;
+            }
+            synchronized (entry) {
+                if (entry.version >= resource.version()) {
+                    continue;
+                }
+                if (entry.version != resource.version() - 1) {
+                    entry.version = -1;
+                    continue;
+                }
+                entry.remove(event.sectionId());
+                if (event.section() != null && occupies(event.section(), resource)) {
+                    entry.put(event.section());
+                }
+                entry.version = resource.version();
+            }
+        }
+    }
+
+    /** Minuto de la semana de una hora del día. */
+    public static int weekMinute(int day, LocalTime time) {
+        return day * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Entry entry(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (entries.size() >= maxResources) {
+            // sin orden de uso: el que se suelta se recarga entero si vuelve a consultarse
+            Iterator<Key> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                entries.remove(keys.next());
+            }
+        }
+        return entries.computeIfAbsent(key, k -> new Entry());
+    }
+
+    private static boolean occupies(CourseSection section, SectionEvent.ResourceVersion resource) {
+        Long id = resource.kind() == ScheduleResource.ROOM ? section.roomId() : section.teacherId();
+        return Objects.equals(id, resource.id());
+    }
+
+    private static int start(CourseSection section) {
+        return weekMinute(section.day(), section.start());
+    }
+
+    private static int end(CourseSection section) {
+        return weekMinute(section.day(), section.end());
+    }
+}
@@ -0,0 +1,17 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseSection;
+import com.edira.edira_api.domain.timetable.ScheduleResource;
+
+import java.util.List;
+
+/**
+ * Payload de los eventos course_section de domain_event_outbox: la sección como quedó
+ * ({@code null} si se borró) y la versión nueva de cada sala y profesor que tocó, incluidos los
+ * que dejó al cambiarse.
+ */
+public record SectionEvent(long sectionId, CourseSection section, List<ResourceVersion> resources) {
+
+    public record ResourceVersion(ScheduleResource kind, long id, long version) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.persistence.timetable.SectionRepository;
+import com.edira.edira_api.persistence.timetable.SectionRepository.OutboxEvent;
+import com.edira.edira_api.shared.scheduling.ClusterScheduled;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Lleva al {@link ScheduleIndex} de este nodo los cambios de secciones hechos en otros: lee los
+ * eventos course_section de domain_event_outbox en orden de id desde el último visto. Corre en
+ * todos los nodos (cada uno tiene su índice) y no marca los eventos como procesados; la purga de
+ * los vencidos corre en uno solo.
+ * <p>
+ * Un evento que se salta (un id menor que confirma tarde) no deja el índice mal: la versión que se
+ * lee de la base en cada consulta lo hace recargar. El relay solo evita esas recargas.
+ */
+public class SectionOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(SectionOutboxRelay.class);
+
+    private final SectionRepository repository;
+    private final ScheduleIndex index;
+    private final ObjectMapper objectMapper;
+    private final SectionProperties properties;
+    private final Clock clock;
+    private long lastId = -1;
+
+    public SectionOutboxRelay(SectionRepository repository, ScheduleIndex index, ObjectMapper objectMapper,
+                              SectionProperties properties, Clock clock) {
+        this.repository = repository;
+        this.index = index;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelayString = "${edira.sections.outbox-poll-interval:1s}",
+            fixedDelayString = "${edira.sections.outbox-poll-interval:1s}")
+    public void poll() {
+        if (lastId < 0) {
+            // el índice arranca vacío: no hay nada anterior que aplicar
+            lastId = repository.maxEventId();
+            return;
+        }
+        int batch = properties.outboxBatch();
+        List<OutboxEvent> events;
+        do {
+            events = repository.findEventsAfter(lastId, batch);
+            for (OutboxEvent event : events) {
+                if (event.tenantId() != null) {
+                    try {
+                        index.apply(event.tenantId(), objectMapper.readValue(event.payload(), SectionEvent.class));
+                    } catch (JsonProcessingException e) {
+                        log.warn("SECTION_EVENT_UNREADABLE id={} type={} error={}", event.id(), event.eventType(),
+                                e.getOriginalMessage());
+                    }
+                }
+                lastId = event.id();
+            }
+        } while (events.size() == batch);
+    }
+
+    @ClusterScheduled
+    @Scheduled(initialDelayString = "${edira.sections.purge-interval:1h}",
+            fixedDelayString = "${edira.sections.purge-interval:1h}")
+    public void purge() {
+        Instant before = clock.instant().minus(properties.eventRetention());
+        int batchSize = properties.purgeBatchSize();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = repository.deleteEventsBefore(before, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        if (total > 0) {
+            log.info("SECTION_EVENTS_PURGE deleted={} batchSize={}", total, batchSize);
+        }
+    }
+}
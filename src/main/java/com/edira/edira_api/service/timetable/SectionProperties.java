@@ -0,0 +1,27 @@
+package com.edira.edira_api.service.timetable;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Secciones con horario fijo y su índice de choques (prefijo {@code edira.sections}).
+ *
+ * @param indexResources     salas y profesores con índice en memoria por nodo; al pasarse se suelta uno
+ * @param outboxPollInterval cada cuánto cada nodo lee los eventos course_section de otros nodos
+ * @param outboxBatch        eventos por lectura
+ * @param eventRetention     cuánto se guardan los eventos en domain_event_outbox
+ * @param purgeInterval      cada cuánto se borran los vencidos (en un solo nodo)
+ * @param purgeBatchSize     filas por DELETE de la purga
+ */
+@ConfigurationProperties(prefix = "edira.sections")
+public record SectionProperties(
+        @DefaultValue("20000") int indexResources,
+        @DefaultValue("1s") Duration outboxPollInterval,
+        @DefaultValue("500") int outboxBatch,
+        @DefaultValue("1d") Duration eventRetention,
+        @DefaultValue("1h") Duration purgeInterval,
+        @DefaultValue("5000") int purgeBatchSize
+) {
+}
@@ -0,0 +1,241 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseSection;
+import com.edira.edira_api.domain.timetable.ScheduleResource;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.timetable.SectionRepository;
+import com.edira.edira_api.shared.error.ConflictException;
+import com.edira.edira_api.shared.error.NotFoundException;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Secciones de curso con horario fijo, sin dos secciones a la vez en la misma sala o con el mismo
+ * profesor.
+ * <p>
+ * Crear, cambiar o borrar una sección toma FOR UPDATE las filas de las salas y profesores que toca
+ * (salas y después profesores, por id, para no cruzarse en deadlocks) y con eso su
+ * {@code schedule_version}. Los choques se buscan en el {@link ScheduleIndex} del nodo, que se
+ * recarga si está en otra versión; con las filas tomadas nadie más cambia esas secciones hasta el
+ * commit. La escritura sube las versiones y deja un evento en domain_event_outbox en la misma
+ * transacción; después del commit el cambio se aplica al índice local y los demás nodos lo toman
+ * del outbox (ver {@link SectionOutboxRelay}).
+ */
+@Service
+public class SectionService {
+
+    static final String SCHEDULED = "SECTION_SCHEDULED";
+    static final String REMOVED = "SECTION_REMOVED";
+
+    private static final Logger log = LoggerFactory.getLogger(SectionService.class);
+
+    private final SectionRepository repository;
+    private final EnrollmentRepository courses;
+    private final ScheduleIndex index;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public SectionService(SectionRepository repository, EnrollmentRepository courses, ScheduleIndex index,
+                          ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.courses = courses;
+        this.index = index;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    public CourseSection get(long tenantId, long sectionId) {
+        return repository.findSection(tenantId, sectionId)
+                .orElseThrow(() -> new NotFoundException("Sección " + sectionId + " no encontrada."));
+    }
+
+    /** Crea la sección; 409 con las secciones que choca si la sala o el profesor están ocupados. */
+    public CourseSection create(long tenantId, long courseId, String code, int day, LocalTime start, LocalTime end,
+                                Long roomId, Long teacherId, String user) {
+        LocalTime from = minutes(start);
+        LocalTime to = minutes(end);
+        checkTime(day, from, to);
+        if (!courses.courseExists(tenantId, courseId)) {
+            throw new NotFoundException("Curso " + courseId + " no encontrado.");
+        }
+        SectionEvent event = transactionTemplate.execute(status -> {
+            List<SectionEvent.ResourceVersion> locked = lock(tenantId, null, roomId, teacherId);
+            checkConflicts(tenantId, locked, 0L, day, from, to, roomId, teacherId);
+            long id = repository.insertSection(tenantId, courseId, code, roomId, teacherId, day,
+                    from.toSecondOfDay() / 60, to.toSecondOfDay() / 60, user);
+            return record(tenantId, id, new CourseSection(id, courseId, code, roomId, teacherId, day, from, to), locked);
+        });
+        index.apply(tenantId, event);
+        log.info("SECTION_SCHEDULED tenant={} section={} course={} room={} teacher={} day={} start={} end={}",
+                tenantId, event.sectionId(), courseId, roomId, teacherId, day, from, to);
+        return event.section();
+    }
+
+    /** Reemplaza horario, sala y profesor de la sección; los choques no cuentan la sección misma. */
+    public CourseSection update(long tenantId, long sectionId, String code, int day, LocalTime start, LocalTime end,
+                                Long roomId, Long teacherId, String user) {
+        LocalTime from = minutes(start);
+        LocalTime to = minutes(end);
+        checkTime(day, from, to);
+        SectionEvent event = transactionTemplate.execute(status -> {
+            CourseSection old = repository.lockSection(tenantId, sectionId)
+                    .orElseThrow(() -> new NotFoundException("Sección " + sectionId + " no encontrada."));
+            List<SectionEvent.ResourceVersion> locked = lock(tenantId, old, roomId, teacherId);
+            checkConflicts(tenantId, locked, sectionId, day, from, to, roomId, teacherId);
+            repository.updateSection(sectionId, code, roomId, teacherId, day, from.toSecondOfDay() / 60,
+                    to.toSecondOfDay() / 60, user);
+            return record(tenantId, sectionId,
+                    new CourseSection(sectionId, old.courseId(), code, roomId, teacherId, day, from, to), locked);
+        });
+        index.apply(tenantId, event);
+        log.info("SECTION_SCHEDULED tenant={} section={} room={} teacher={} day={} start={} end={}",
+                tenantId, sectionId, roomId, teacherId, day, from, to);
+        return event.section();
+    }
+
+    public void delete(long tenantId, long sectionId) {
+        SectionEvent event = transactionTemplate.execute(status -> {
+            CourseSection old = repository.lockSection(tenantId, sectionId)
+                    .orElseThrow(() -> new NotFoundException("Sección " + sectionId + " no encontrada."));
+            List<SectionEvent.ResourceVersion> locked = lock(tenantId, old, null, null);
+            repository.deleteSection(sectionId);
+            return record(tenantId, sectionId, null, locked);
+        });
+        index.apply(tenantId, event);
+        log.info("SECTION_REMOVED tenant={} section={}", tenantId, sectionId);
+    }
+
+    /**
+     * Secciones que chocarían con ese horario en la sala o con el profesor, sin guardar nada. Lee
+     * la versión de cada recurso sin tomar su fila: es una foto, no una reserva.
+     */
+    public List<CourseSection> conflicts(long tenantId, int day, LocalTime start, LocalTime end, Long roomId,
+                                         Long teacherId, long excludeSectionId) {
+        LocalTime from = minutes(start);
+        LocalTime to = minutes(end);
+        checkTime(day, from, to);
+        Map<Long, CourseSection> found = new LinkedHashMap<>();
+        if (roomId != null) {
+            long version = repository.findVersion(tenantId, ScheduleResource.ROOM, roomId)
+                    .orElseThrow(() -> new NotFoundException("Sala " + roomId + " no encontrada."));
+            overlapping(tenantId, ScheduleResource.ROOM, roomId, version, day, from, to, excludeSectionId)
+                    .forEach(section -> found.put(section.id(), section));
+        }
+        if (teacherId != null) {
+            long version = repository.findVersion(tenantId, ScheduleResource.TEACHER, teacherId)
+                    .orElseThrow(() -> new NotFoundException("Profesor " + teacherId + " no encontrado."));
+            overlapping(tenantId, ScheduleResource.TEACHER, teacherId, version, day, from, to, excludeSectionId)
+                    .forEach(section -> found.put(section.id(), section));
+        }
+        return found.values().stream().sorted(Comparator.comparing(CourseSection::start)).toList();
+    }
+
+    // Salas y después profesores, cada grupo por id: el mismo orden en todas las transacciones
+    private List<SectionEvent.ResourceVersion> lock(long tenantId, CourseSection old, Long roomId, Long teacherId) {
+        TreeSet<Long> rooms = new TreeSet<>();
+        TreeSet<Long> teachers = new TreeSet<>();
+        if (old != null && old.roomId() != null) {
+            rooms.add(old.roomId());
+        }
+        if (old != null && old.teacherId() != null) {
+            teachers.add(old.teacherId());
+        }
+        if (roomId != null) {
+            rooms.add(roomId);
+        }
+        if (teacherId != null) {
+            teachers.add(teacherId);
+        }
+        List<SectionEvent.ResourceVersion> locked = new ArrayList<>(rooms.size() + teachers.size());
+        for (long room : rooms) {
+            long version = repository.lockVersion(tenantId, ScheduleResource.ROOM, room)
+                    .orElseThrow(() -> new NotFoundException("Sala " + room + " no encontrada."));
+            locked.add(new SectionEvent.ResourceVersion(ScheduleResource.ROOM, room, version));
+        }
+        for (long teacher : teachers) {
+            long version = repository.lockVersion(tenantId, ScheduleResource.TEACHER, teacher)
+                    .orElseThrow(() -> new NotFoundException("Profesor " + teacher + " no encontrado."));
+            locked.add(new SectionEvent.ResourceVersion(ScheduleResource.TEACHER, teacher, version));
+        }
+        return locked;
+    }
+
+    private void checkConflicts(long tenantId, List<SectionEvent.ResourceVersion> locked, long sectionId, int day,
+                                LocalTime from, LocalTime to, Long roomId, Long teacherId) {
+        List<ValidationErrorDetail> details = new ArrayList<>();
+        for (SectionEvent.ResourceVersion resource : locked) {
+            boolean room = resource.kind() == ScheduleResource.ROOM;
+            Long wanted = room ? roomId : teacherId;
+            if (wanted == null || wanted != resource.id()) {
+                continue;
+            }
+            for (CourseSection clash : overlapping(tenantId, resource.kind(), resource.id(), resource.version(), day,
+                    from, to, sectionId)) {
+                details.add(new ValidationErrorDetail(room ? "roomId" : "teacherId",
+                        (room ? "Sala " : "Profesor ") + resource.id() + (room ? " ocupada" : " ocupado")
+                                + " por la sección " + clash.id()
+                                + " (curso " + clash.courseId() + ", " + clash.code() + ") el día " + clash.day()
+                                + " de " + clash.start() + " a " + clash.end() + "."));
+            }
+        }
+        if (!details.isEmpty()) {
+            throw new ConflictException("El horario choca con " + details.size()
+                    + " sección(es) en la sala o con el profesor.", details);
+        }
+    }
+
+    private List<CourseSection> overlapping(long tenantId, ScheduleResource kind, long id, long version, int day,
+                                            LocalTime from, LocalTime to, long excludeSectionId) {
+        return index.overlapping(tenantId, kind, id, version, ScheduleIndex.weekMinute(day, from),
+                ScheduleIndex.weekMinute(day, to), excludeSectionId,
+                () -> repository.findByResource(tenantId, kind, id));
+    }
+
+    // Sube la versión de cada recurso tomado y deja el evento con las versiones nuevas
+    private SectionEvent record(long tenantId, long sectionId, CourseSection section,
+                                List<SectionEvent.ResourceVersion> locked) {
+        List<SectionEvent.ResourceVersion> bumped = new ArrayList<>(locked.size());
+        for (SectionEvent.ResourceVersion resource : locked) {
+            repository.bumpVersion(resource.kind(), resource.id());
+            bumped.add(new SectionEvent.ResourceVersion(resource.kind(), resource.id(), resource.version() + 1));
+        }
+        SectionEvent event = new SectionEvent(sectionId, section, bumped);
+        try {
+            repository.insertEvent(tenantId, sectionId, section != null ? SCHEDULED : REMOVED,
+                    objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de la sección " + sectionId, e);
+        }
+        return event;
+    }
+
+    private static LocalTime minutes(LocalTime time) {
+        return time != null ? time.truncatedTo(ChronoUnit.MINUTES) : null;
+    }
+
+    private static void checkTime(int day, LocalTime start, LocalTime end) {
+        if (day < 0 || day > 6) {
+            throw new IllegalArgumentException("day debe estar entre 0 y 6.");
+        }
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new IllegalArgumentException("start debe ser anterior a end.");
+        }
+    }
+}
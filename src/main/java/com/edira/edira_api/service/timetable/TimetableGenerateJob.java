@@ -0,0 +1,54 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.service.job.JobContext;
+import com.edira.edira_api.service.job.JobHandler;
+import com.edira.edira_api.service.job.JobResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Job {@value #TYPE}: genera un horario nuevo para el tenant. Con {@code {"budgetSeconds": 120}}
+ * busca durante ese plazo (por defecto edira.timetable.default-budget). El avance (milisegundos del
+ * plazo y violaciones del mejor horario) se ve en GET /jobs/{id} y, al momento, en
+ * GET /timetables/runs/{jobId}/events.
+ */
+@Component
+public class TimetableGenerateJob implements JobHandler {
+
+    public static final String TYPE = "timetable-generate";
+
+    private final TimetableService service;
+    private final TimetableProgressRegistry registry;
+
+    public TimetableGenerateJob(TimetableService service, TimetableProgressRegistry registry) {
+        this.service = service;
+        this.registry = registry;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public JobResult run(JobContext context) {
+        JsonNode seconds = context.payload().path("budgetSeconds");
+        Duration budget = seconds.canConvertToLong() ? Duration.ofSeconds(seconds.asLong()) : service.defaultBudget();
+        long budgetMs = budget.toMillis();
+        context.progress(0, budgetMs, "cargando cursos y salas");
+        try {
+            service.generate(context.tenantId(), context.jobId(), budget, context.createdBy(),
+                    (elapsedMs, hard, soft, moves) -> {
+                        context.checkCancelled();
+                        registry.update(context.jobId(), elapsedMs, hard, soft, moves);
+                        context.progress(Math.min(elapsedMs, budgetMs), budgetMs,
+                                "violaciones duras " + hard + ", blandas " + soft);
+                    });
+        } finally {
+            registry.remove(context.jobId());
+        }
+        return JobResult.NONE;
+    }
+}
@@ -0,0 +1,132 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseDemand;
+import com.edira.edira_api.domain.timetable.Room;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Datos de una generación en arreglos por índice: un bloque (lesson) por cada clase semanal de
+ * cada curso, profesores y salas numerados desde 0. Las salas quedan ordenadas por capacidad, así
+ * las que le sirven a un bloque son un sufijo del arreglo. Inmutable: los hilos del solver la
+ * comparten sin copiarla.
+ */
+public final class TimetableProblem {
+
+    final int days;
+    final int slotsPerDay;
+    final int slots;
+    final long[] courseIds;
+    final long[] teacherIds;
+    final long[] roomIds;
+    final int[] roomCapacity;
+    final int[] lessonCourse;
+    final int[] lessonNo;
+    final int[] lessonTeacher;
+    final int[] lessonSize;
+    // primera sala (en orden de capacidad) donde cabe el bloque; rooms() = ninguna cabe
+    final int[] lessonFirstRoom;
+
+    private TimetableProblem(int days, int slotsPerDay, long[] courseIds, long[] teacherIds, long[] roomIds,
+                             int[] roomCapacity, int[] lessonCourse, int[] lessonNo, int[] lessonTeacher,
+                             int[] lessonSize, int[] lessonFirstRoom) {
+        this.days = days;
+        this.slotsPerDay = slotsPerDay;
+        this.slots = days * slotsPerDay;
+        this.courseIds = courseIds;
+        this.teacherIds = teacherIds;
+        this.roomIds = roomIds;
+        this.roomCapacity = roomCapacity;
+        this.lessonCourse = lessonCourse;
+        this.lessonNo = lessonNo;
+        this.lessonTeacher = lessonTeacher;
+        this.lessonSize = lessonSize;
+        this.lessonFirstRoom = lessonFirstRoom;
+    }
+
+    public static TimetableProblem of(List<CourseDemand> courses, List<Room> rooms, int days, int slotsPerDay) {
+        if (courses.isEmpty()) {
+            throw new IllegalArgumentException("No hay cursos con profesor y bloques semanales (PUT /courses/{id}/teaching).");
+        }
+        if (rooms.isEmpty()) {
+            throw new IllegalArgumentException("No hay salas (POST /rooms).");
+        }
+        List<Room> sorted = rooms.stream().sorted(Comparator.comparingInt(Room::capacity)).toList();
+        long[] roomIds = sorted.stream().mapToLong(Room::id).toArray();
+        int[] roomCapacity = sorted.stream().mapToInt(Room::capacity).toArray();
+
+        int lessons = courses.stream().mapToInt(CourseDemand::weeklyLessons).sum();
+        long[] courseIds = new long[courses.size()];
+        Map<Long, Integer> teachers = new HashMap<>();
+        int[] lessonCourse = new int[lessons];
+        int[] lessonNo = new int[lessons];
+        int[] lessonTeacher = new int[lessons];
+        int[] lessonSize = new int[lessons];
+        int[] lessonFirstRoom = new int[lessons];
+        int lesson = 0;
+        for (int course = 0; course < courses.size(); course++) {
+            CourseDemand demand = courses.get(course);
+            courseIds[course] = demand.courseId();
+            int teacher = teachers.computeIfAbsent(demand.teacherId(), id -> teachers.size());
+            int firstRoom = firstFit(roomCapacity, demand.students());
+            for (int no = 0; no < demand.weeklyLessons(); no++, lesson++) {
+                lessonCourse[lesson] = course;
+                lessonNo[lesson] = no;
+                lessonTeacher[lesson] = teacher;
+                lessonSize[lesson] = demand.students();
+                lessonFirstRoom[lesson] = firstRoom;
+            }
+        }
+        long[] teacherIds = new long[teachers.size()];
+        teachers.forEach((id, index) -> teacherIds[index] = id);
+        return new TimetableProblem(days, slotsPerDay, courseIds, teacherIds, roomIds, roomCapacity,
+                lessonCourse, lessonNo, lessonTeacher, lessonSize, lessonFirstRoom);
+    }
+
+    public int lessons() {
+        return lessonCourse.length;
+    }
+
+    public int courses() {
+        return courseIds.length;
+    }
+
+    public int teachers() {
+        return teacherIds.length;
+    }
+
+    public int rooms() {
+        return roomIds.length;
+    }
+
+    public int days() {
+        return days;
+    }
+
+    public int slotsPerDay() {
+        return slotsPerDay;
+    }
+
+    /** Sala al azar donde cabe el bloque; si no cabe en ninguna, la más grande. */
+    int randomRoom(int lesson, SplittableRandom random) {
+        int first = lessonFirstRoom[lesson];
+        return first == roomIds.length ? first - 1 : first + random.nextInt(roomIds.length - first);
+    }
+
+    private static int firstFit(int[] capacities, int students) {
+        int index = Arrays.binarySearch(capacities, students);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // con capacidades repetidas binarySearch devuelve cualquiera de ellas
+        while (index > 0 && capacities[index - 1] == students) {
+            index--;
+        }
+        return index;
+    }
+}
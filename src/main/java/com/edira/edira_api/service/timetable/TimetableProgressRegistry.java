@@ -0,0 +1,32 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.domain.job.JobState;
+import com.edira.edira_api.domain.timetable.TimetableProgress;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Último avance de las generaciones que corren en este nodo, por job. El job solo guarda su avance
+ * en la base en cada heartbeat; los streams de avance leen de acá para verlo al momento.
+ */
+@Component
+public class TimetableProgressRegistry {
+
+    private final ConcurrentMap<Long, TimetableProgress> running = new ConcurrentHashMap<>();
+
+    void update(long jobId, long elapsedMs, int hardViolations, int softPenalty, long moves) {
+        running.put(jobId, new TimetableProgress(jobId, JobState.RUNNING, elapsedMs, hardViolations, softPenalty,
+                moves, null, null));
+    }
+
+    void remove(long jobId) {
+        running.remove(jobId);
+    }
+
+    public Optional<TimetableProgress> find(long jobId) {
+        return Optional.ofNullable(running.get(jobId));
+    }
+}
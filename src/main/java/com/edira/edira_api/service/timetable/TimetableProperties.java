@@ -0,0 +1,37 @@
+package com.edira.edira_api.service.timetable;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Generación de horarios (prefijo {@code edira.timetable}).
+ *
+ * @param days             días de la semana del horario
+ * @param slotsPerDay      bloques por día
+ * @param defaultBudget    plazo de la búsqueda si el job no trae {@code budgetSeconds}
+ * @param maxBudget        tope de {@code budgetSeconds}
+ * @param parallelism      hilos de búsqueda por generación; 0 = uno por procesador
+ * @param lateAcceptance   pasos atrás contra los que se compara un movimiento que empeora
+ * @param stallMoves       movimientos sin mejorar tras los que un hilo sigue desde el mejor compartido
+ * @param progressInterval cada cuánto se publica el avance (job y GET /timetables/runs/{jobId}/events)
+ * @param streamTimeout    cuánto puede quedar abierto un stream de avance
+ */
+@ConfigurationProperties(prefix = "edira.timetable")
+public record TimetableProperties(
+        @DefaultValue("5") int days,
+        @DefaultValue("8") int slotsPerDay,
+        @DefaultValue("60s") Duration defaultBudget,
+        @DefaultValue("10m") Duration maxBudget,
+        @DefaultValue("0") int parallelism,
+        @DefaultValue("2000") int lateAcceptance,
+        @DefaultValue("2000000") long stallMoves,
+        @DefaultValue("1s") Duration progressInterval,
+        @DefaultValue("15m") Duration streamTimeout
+) {
+
+    public int threads() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,143 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseTeaching;
+import com.edira.edira_api.domain.timetable.Room;
+import com.edira.edira_api.domain.timetable.ScheduledLesson;
+import com.edira.edira_api.domain.timetable.Teacher;
+import com.edira.edira_api.domain.timetable.Timetable;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.timetable.TimetableRepository;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Profesores, salas, carga semanal de los cursos y generación del horario del tenant.
+ * <p>
+ * Generar carga todos los cursos con profesor en un {@link TimetableProblem}, corre el
+ * {@link TimetableSolver} en {@code parallelism} hilos hasta el plazo y guarda el mejor horario
+ * encontrado como uno nuevo, aunque tenga violaciones (la respuesta dice cuántas).
+ */
+@Service
+public class TimetableService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimetableService.class);
+
+    private final TimetableRepository repository;
+    private final EnrollmentRepository courses;
+    private final TransactionTemplate transactionTemplate;
+    private final TimetableProperties properties;
+    private final TimetableSolver solver;
+
+    public TimetableService(TimetableRepository repository, EnrollmentRepository courses,
+                            PlatformTransactionManager transactionManager, TimetableProperties properties) {
+        this.repository = repository;
+        this.courses = courses;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.solver = new TimetableSolver(properties.lateAcceptance(), properties.stallMoves(),
+                properties.progressInterval());
+    }
+
+    public Teacher createTeacher(long tenantId, String code, String name, String user) {
+        long id = repository.insertTeacher(tenantId, code, name, user);
+        return new Teacher(id, code, name);
+    }
+
+    public Room createRoom(long tenantId, String code, String name, int capacity, String user) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad de la sala debe ser mayor que 0.");
+        }
+        long id = repository.insertRoom(tenantId, code, name, capacity, user);
+        return new Room(id, code, name, capacity);
+    }
+
+    /** Fija profesor y bloques semanales del curso para las próximas generaciones. */
+    public CourseTeaching assignTeaching(long tenantId, long courseId, long teacherId, int weeklyLessons, String user) {
+        int maxLessons = properties.days() * properties.slotsPerDay();
+        if (weeklyLessons < 1 || weeklyLessons > maxLessons) {
+            throw new IllegalArgumentException("weeklyLessons debe estar entre 1 y " + maxLessons + ".");
+        }
+        if (!courses.courseExists(tenantId, courseId)) {
+            throw new NotFoundException("Curso " + courseId + " no encontrado.");
+        }
+        if (repository.findTeacher(tenantId, teacherId).isEmpty()) {
+            throw new NotFoundException("Profesor " + teacherId + " no encontrado.");
+        }
+        repository.upsertTeaching(tenantId, courseId, teacherId, weeklyLessons, user);
+        return new CourseTeaching(courseId, teacherId, weeklyLessons);
+    }
+
+    /**
+     * Genera y guarda un horario nuevo. El listener recibe el mejor puntaje cada
+     * {@code progressInterval}; si lanza, la búsqueda se corta y no se guarda nada.
+     *
+     * @param jobId job que lo generó (para encontrarlo desde el stream de avance), o null
+     * @return el horario guardado, sin sus bloques
+     */
+    public Timetable generate(long tenantId, Long jobId, Duration budget, String user, TimetableSolver.Listener listener) {
+        if (budget.isNegative() || budget.isZero() || budget.compareTo(properties.maxBudget()) > 0) {
+            throw new IllegalArgumentException("El plazo debe ser mayor que 0 y hasta " + properties.maxBudget() + ".");
+        }
+        TimetableProblem problem = TimetableProblem.of(repository.findDemands(tenantId), repository.findRooms(tenantId),
+                properties.days(), properties.slotsPerDay());
+        TimetableSolver.Solution solution = solver.solve(problem, budget, properties.threads(), System.nanoTime(),
+                false, listener);
+        List<ScheduledLesson> lessons = lessons(problem, solution);
+        long id = transactionTemplate.execute(status -> {
+            long timetableId = repository.insertTimetable(tenantId, jobId, problem.days(), problem.slotsPerDay(),
+                    solution.hardViolations(), solution.softPenalty(), solution.moves(), solution.elapsedMs(), user);
+            repository.insertLessons(timetableId, lessons);
+            return timetableId;
+        });
+        log.info("TIMETABLE_GENERATED tenant={} timetable={} lessons={} threads={} hard={} soft={} moves={} ms={}",
+                tenantId, id, lessons.size(), properties.threads(), solution.hardViolations(), solution.softPenalty(),
+                solution.moves(), solution.elapsedMs());
+        return repository.findTimetable(tenantId, id).orElseThrow();
+    }
+
+    public Timetable latest(long tenantId) {
+        Timetable timetable = repository.findLatest(tenantId)
+                .orElseThrow(() -> new NotFoundException("El tenant no tiene horarios generados."));
+        return withLessons(timetable);
+    }
+
+    public Timetable get(long tenantId, long timetableId) {
+        Timetable timetable = repository.findTimetable(tenantId, timetableId)
+                .orElseThrow(() -> new NotFoundException("Horario " + timetableId + " no encontrado."));
+        return withLessons(timetable);
+    }
+
+    public OptionalLong timetableOfJob(long tenantId, long jobId) {
+        return repository.findIdByJob(tenantId, jobId);
+    }
+
+    public Duration defaultBudget() {
+        return properties.defaultBudget();
+    }
+
+    private Timetable withLessons(Timetable timetable) {
+        return new Timetable(timetable.id(), timetable.jobId(), timetable.days(), timetable.slotsPerDay(),
+                timetable.hardViolations(), timetable.softPenalty(), timetable.moves(), timetable.elapsedMs(),
+                timetable.createdAt(), repository.findLessons(timetable.id()));
+    }
+
+    static List<ScheduledLesson> lessons(TimetableProblem problem, TimetableSolver.Solution solution) {
+        List<ScheduledLesson> lessons = new ArrayList<>(problem.lessons());
+        for (int lesson = 0; lesson < problem.lessons(); lesson++) {
+            int slot = solution.slots()[lesson];
+            lessons.add(new ScheduledLesson(problem.courseIds[problem.lessonCourse[lesson]], problem.lessonNo[lesson],
+                    slot / problem.slotsPerDay, slot % problem.slotsPerDay, problem.roomIds[solution.rooms()[lesson]],
+                    problem.teacherIds[problem.lessonTeacher[lesson]]));
+        }
+        return lessons;
+    }
+}
@@ -0,0 +1,231 @@
+package com.edira.edira_api.service.timetable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Búsqueda local con aceptación tardía (late acceptance hill climbing) en varios hilos.
+ * <p>
+ * Cada hilo parte de un horario al azar distinto y prueba movimientos al azar: mover un bloque a
+ * otro horario (a veces también a otra sala) o intercambiar dos bloques. Acepta el movimiento si
+ * el puntaje no empeora o si no es peor que el que tenía {@code lateAcceptance} pasos atrás; si no,
+ * lo deshace. El puntaje de cada movimiento sale por diferencias ({@link TimetableState}).
+ * <p>
+ * Los hilos comparten el mejor horario encontrado: quien lo mejora lo publica, y un hilo que lleva
+ * {@code stallMoves} movimientos sin mejorar su propio mejor sigue desde el publicado. La búsqueda
+ * termina al vencer el plazo, con un horario perfecto o cuando el listener lanza.
+ */
+public final class TimetableSolver {
+
+    /** Avance cada {@code progressInterval}; puede lanzar para cortar la búsqueda. */
+    @FunctionalInterface
+    public interface Listener {
+        void update(long elapsedMs, int hardViolations, int softPenalty, long moves);
+    }
+
+    /** Mejor horario encontrado: {@code slots[i]} y {@code rooms[i]} del bloque i del problema. */
+    public record Solution(int[] slots, int[] rooms, int hardViolations, int softPenalty, long moves, long elapsedMs) {
+    }
+
+    // el plazo, el corte y el mejor compartido se miran cada tantos movimientos
+    private static final int CHECK_EVERY = 1024;
+
+    private final int lateAcceptance;
+    private final long stallMoves;
+    private final Duration progressInterval;
+
+    public TimetableSolver(int lateAcceptance, long stallMoves, Duration progressInterval) {
+        this.lateAcceptance = lateAcceptance;
+        this.stallMoves = stallMoves;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * @param threads          hilos de búsqueda independientes
+     * @param stopWhenFeasible terminar con el primer horario sin violaciones duras
+     */
+    public Solution solve(TimetableProblem problem, Duration budget, int threads, long seed, boolean stopWhenFeasible,
+                          Listener listener) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        Search search = new Search(problem, deadline, stopWhenFeasible ? TimetableState.HARD_WEIGHT - 1 : 0);
+        CountDownLatch finished = new CountDownLatch(threads);
+        List<Future<?>> workers = new ArrayList<>(threads);
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("timetable-", 0).factory())) {
+            for (int worker = 0; worker < threads; worker++) {
+                long workerSeed = seed + worker * 0x9E3779B97F4A7C15L;
+                workers.add(pool.submit(() -> {
+                    try {
+                        search.run(new SplittableRandom(workerSeed));
+                    } finally {
+                        finished.countDown();
+                    }
+                }));
+            }
+            try {
+                while (!finished.await(progressInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                    long cost = search.best.cost;
+                    listener.update(elapsedMs(start), hard(cost), soft(cost), search.moves.sum());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Generación de horario interrumpida.", e);
+            } finally {
+                // también si el listener lanzó: los hilos terminan en su próximo control
+                search.stop.set(true);
+            }
+        }
+        for (Future<?> worker : workers) {
+            await(worker);
+        }
+        long cost = search.best.cost;
+        long elapsedMs = elapsedMs(start);
+        listener.update(elapsedMs, hard(cost), soft(cost), search.moves.sum());
+        return search.best.solution(search.moves.sum(), elapsedMs);
+    }
+
+    private static void await(Future<?> worker) {
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generación de horario interrumpida.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static int hard(long cost) {
+        return (int) (cost / TimetableState.HARD_WEIGHT);
+    }
+
+    private static int soft(long cost) {
+        return (int) (cost % TimetableState.HARD_WEIGHT);
+    }
+
+    private final class Search {
+
+        final TimetableProblem problem;
+        final long deadline;
+        final long target;
+        final SharedBest best = new SharedBest();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final LongAdder moves = new LongAdder();
+
+        Search(TimetableProblem problem, long deadline, long target) {
+            this.problem = problem;
+            this.deadline = deadline;
+            this.target = target;
+        }
+
+        void run(SplittableRandom random) {
+            TimetableState state = new TimetableState(problem);
+            state.randomize(random);
+            long current = state.cost();
+            long[] history = new long[lateAcceptance];
+            Arrays.fill(history, current);
+            long ownBest = current;
+            long sinceImprovement = 0;
+            publish(state);
+            int lessons = problem.lessons();
+            for (long i = 0; ; i++) {
+                if ((i & (CHECK_EVERY - 1)) == 0) {
+                    if (i > 0) {
+                        moves.add(CHECK_EVERY);
+                    }
+                    if (stop.get() || System.nanoTime() - deadline >= 0) {
+                        return;
+                    }
+                    if (sinceImprovement >= stallMoves && best.cost < current) {
+                        best.copyTo(state);
+                        current = state.cost();
+                        Arrays.fill(history, current);
+                        ownBest = current;
+                        sinceImprovement = 0;
+                    }
+                }
+                int a = random.nextInt(lessons);
+                int b = -1;
+                int fromSlot = state.slot(a);
+                int fromRoom = state.room(a);
+                long candidate;
+                if (lessons > 1 && random.nextInt(4) == 0) {
+                    b = random.nextInt(lessons);
+                    candidate = state.swap(a, b);
+                } else {
+                    int toRoom = random.nextBoolean() ? fromRoom : problem.randomRoom(a, random);
+                    candidate = state.move(a, random.nextInt(problem.slots), toRoom);
+                }
+                int v = (int) (i % lateAcceptance);
+                if (candidate <= current || candidate <= history[v]) {
+                    current = candidate;
+                } else if (b >= 0) {
+                    state.swap(a, b);
+                } else {
+                    state.move(a, fromSlot, fromRoom);
+                }
+                history[v] = current;
+                if (current < ownBest) {
+                    ownBest = current;
+                    sinceImprovement = 0;
+                    if (current < best.cost) {
+                        publish(state);
+                    }
+                } else {
+                    sinceImprovement++;
+                }
+            }
+        }
+
+        private void publish(TimetableState state) {
+            if (best.offer(state) && state.cost() <= target) {
+                stop.set(true);
+            }
+        }
+    }
+
+    private static final class SharedBest {
+
+        // lectura sin lock en el bucle de búsqueda; se escribe solo dentro de offer
+        volatile long cost = Long.MAX_VALUE;
+        private int[] slots;
+        private int[] rooms;
+
+        synchronized boolean offer(TimetableState state) {
+            if (state.cost() >= cost) {
+                return false;
+            }
+            slots = state.slots().clone();
+            rooms = state.rooms().clone();
+            cost = state.cost();
+            return true;
+        }
+
+        synchronized void copyTo(TimetableState state) {
+            state.load(slots, rooms);
+        }
+
+        synchronized Solution solution(long moves, long elapsedMs) {
+            return new Solution(slots.clone(), rooms.clone(), hard(cost), soft(cost), moves, elapsedMs);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.edira.edira_api.service.timetable;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Un horario en construcción con su puntaje mantenido por diferencias: contadores de bloques por
+ * (profesor, bloque), (sala, bloque) y (curso, día). Mover un bloque toca cuatro contadores y
+ * ajusta el puntaje en O(1); nunca se recorre el horario completo para puntuar un movimiento.
+ * <p>
+ * Restricciones duras: un profesor o una sala con dos bloques a la vez, y un bloque en una sala
+ * donde no cabe el curso. Blandas: dos bloques del mismo curso el mismo día y bloques en el último
+ * horario del día. Cada par o bloque que no cumple suma 1.
+ * <p>
+ * No es thread-safe: cada hilo del solver tiene el suyo.
+ */
+public final class TimetableState {
+
+    /** Una violación dura pesa más que cualquier cantidad de blandas. */
+    public static final long HARD_WEIGHT = 1_000_000_000L;
+
+    private final TimetableProblem problem;
+    private final int[] slot;
+    private final int[] room;
+    private final int[] teacherLoad;
+    private final int[] roomLoad;
+    private final int[] courseDay;
+    private int hard;
+    private int soft;
+
+    public TimetableState(TimetableProblem problem) {
+        this.problem = problem;
+        this.slot = new int[problem.lessons()];
+        this.room = new int[problem.lessons()];
+        this.teacherLoad = new int[problem.teachers() * problem.slots];
+        this.roomLoad = new int[problem.rooms() * problem.slots];
+        this.courseDay = new int[problem.courses() * problem.days];
+    }
+
+    /** Cada bloque en un horario y una sala donde cabe, al azar. */
+    public void randomize(SplittableRandom random) {
+        clear();
+        for (int lesson = 0; lesson < slot.length; lesson++) {
+            place(lesson, random.nextInt(problem.slots), problem.randomRoom(lesson, random));
+        }
+    }
+
+    /** Reemplaza la asignación completa (y recalcula los contadores). */
+    public void load(int[] slots, int[] rooms) {
+        clear();
+        for (int lesson = 0; lesson < slot.length; lesson++) {
+            place(lesson, slots[lesson], rooms[lesson]);
+        }
+    }
+
+    /** Mueve un bloque y devuelve el puntaje nuevo; se deshace moviéndolo de vuelta. */
+    public long move(int lesson, int toSlot, int toRoom) {
+        remove(lesson);
+        place(lesson, toSlot, toRoom);
+        return cost();
+    }
+
+    /** Intercambia horario y sala de dos bloques; se deshace repitiéndolo. */
+    public long swap(int a, int b) {
+        int slotA = slot[a];
+        int roomA = room[a];
+        remove(a);
+        remove(b);
+        place(a, slot[b], room[b]);
+        place(b, slotA, roomA);
+        return cost();
+    }
+
+    public long cost() {
+        return hard * HARD_WEIGHT + soft;
+    }
+
+    public int hardViolations() {
+        return hard;
+    }
+
+    public int softPenalty() {
+        return soft;
+    }
+
+    public int slot(int lesson) {
+        return slot[lesson];
+    }
+
+    public int room(int lesson) {
+        return room[lesson];
+    }
+
+    int[] slots() {
+        return slot;
+    }
+
+    int[] rooms() {
+        return room;
+    }
+
+    /** Puntaje de la asignación actual contado desde cero (ver {@link #fullCost}). */
+    public long recount() {
+        return fullCost(problem, slot, room);
+    }
+
+    /**
+     * Puntaje de la asignación contado desde cero, sin los contadores del estado. Es lo que
+     * costaría cada movimiento sin evaluación por diferencias; sirve para comprobarla.
+     */
+    public static long fullCost(TimetableProblem problem, int[] slots, int[] rooms) {
+        int[] teacherLoad = new int[problem.teachers() * problem.slots];
+        int[] roomLoad = new int[problem.rooms() * problem.slots];
+        int[] courseDay = new int[problem.courses() * problem.days];
+        long hard = 0;
+        long soft = 0;
+        for (int lesson = 0; lesson < slots.length; lesson++) {
+            int at = slots[lesson];
+            teacherLoad[problem.lessonTeacher[lesson] * problem.slots + at]++;
+            roomLoad[rooms[lesson] * problem.slots + at]++;
+            courseDay[problem.lessonCourse[lesson] * problem.days + at / problem.slotsPerDay]++;
+            if (problem.lessonSize[lesson] > problem.roomCapacity[rooms[lesson]]) {
+                hard++;
+            }
+            if (at % problem.slotsPerDay == problem.slotsPerDay - 1) {
+                soft++;
+            }
+        }
+        for (int load : teacherLoad) {
+            hard += Math.max(0, load - 1);
+        }
+        for (int load : roomLoad) {
+            hard += Math.max(0, load - 1);
+        }
+        for (int load : courseDay) {
+            soft += Math.max(0, load - 1);
+        }
+        return hard * HARD_WEIGHT + soft;
+    }
+
+    private void clear() {
+        Arrays.fill(teacherLoad, 0);
+        Arrays.fill(roomLoad, 0);
+        Arrays.fill(courseDay, 0);
+        hard = 0;
+        soft = 0;
+    }
+
+    // Un contador que pasa de n a n+1 con n >= 1 agrega un choque; al bajar de n >= 2, lo quita
+    private void place(int lesson, int at, int in) {
+        slot[lesson] = at;
+        room[lesson] = in;
+        if (teacherLoad[problem.lessonTeacher[lesson] * problem.slots + at]++ > 0) {
+            hard++;
+        }
+        if (roomLoad[in * problem.slots + at]++ > 0) {
+            hard++;
+        }
+        if (problem.lessonSize[lesson] > problem.roomCapacity[in]) {
+            hard++;
+        }
+        if (courseDay[problem.lessonCourse[lesson] * problem.days + at / problem.slotsPerDay]++ > 0) {
+            soft++;
+        }
+        if (at % problem.slotsPerDay == problem.slotsPerDay - 1) {
+            soft++;
+        }
+    }
+
+    private void remove(int lesson) {
+        int at = slot[lesson];
+        int in = room[lesson];
+        if (--teacherLoad[problem.lessonTeacher[lesson] * problem.slots + at] > 0) {
+            hard--;
+        }
+        if (--roomLoad[in * problem.slots + at] > 0) {
+            hard--;
+        }
+        if (problem.lessonSize[lesson] > problem.roomCapacity[in]) {
+            hard--;
+        }
+        if (--courseDay[problem.lessonCourse[lesson] * problem.days + at / problem.slotsPerDay] > 0) {
+            soft--;
+        }
+        if (at % problem.slotsPerDay == problem.slotsPerDay - 1) {
+            soft--;
+        }
+    }
+}
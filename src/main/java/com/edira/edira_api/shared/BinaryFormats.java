@@ -0,0 +1,35 @@
+package com.edira.edira_api.shared;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Formatos binarios que acepta y produce la API además de JSON (mismo modelo Jackson).
+ * Pensados para clientes móviles / sync con payloads grandes.
+ */
+public final class BinaryFormats {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    public static final List<MediaType> ALL = List.of(MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+    private BinaryFormats() {
+    }
+
+    /*
+     * Copia del ObjectMapper de Boot (módulos y configuración) sobre otro formato.
+     * Los UUID quedan como texto: CBOR/Smile los escribirían como 16 bytes y el contrato
+     * (p.ej. ApiError.errorId) dejaría de ser el mismo que en JSON.
+     */
+    public static ObjectMapper copyOf(ObjectMapper jsonMapper, JsonFactory factory) {
+        ObjectMapper copy = jsonMapper.copyWith(factory);
+        copy.configOverride(UUID.class).setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING));
+        return copy;
+    }
+}
@@ -0,0 +1,21 @@
+package com.edira.edira_api.shared.cluster;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+/**
+ * Identidad de esta instancia en el cluster (dueño de leases de jobs y de tareas periódicas).
+ * Sin {@code edira.cluster.node-id}: pid@host más un sufijo aleatorio, para que un reinicio
+ * con el mismo pid (contenedores) no herede leases de la instancia anterior.
+ */
+public record ClusterNode(String id) {
+
+    private static final int MAX_LENGTH = 100;  // columnas lease_owner / owner
+
+    public static ClusterNode of(String configured) {
+        String id = configured == null || configured.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : configured.trim();
+        return new ClusterNode(id.length() > MAX_LENGTH ? id.substring(id.length() - MAX_LENGTH) : id);
+    }
+}
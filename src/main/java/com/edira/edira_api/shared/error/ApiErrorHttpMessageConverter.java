@@ -0,0 +1,43 @@
+package com.edira.edira_api.shared.error;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/*
+ * Converter solo-escritura para los ResponseEntity<ApiError> del GlobalExceptionHandler:
+ * va antes que el de Jackson genérico y usa el ObjectWriter ya resuelto de ApiErrorWriter.
+ */
+public class ApiErrorHttpMessageConverter extends AbstractHttpMessageConverter<ApiError> {
+
+    private final ApiErrorWriter writer;
+
+    public ApiErrorHttpMessageConverter(ApiErrorWriter writer) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.writer = writer;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiError.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ApiError readInternal(Class<? extends ApiError> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ApiError es solo de salida", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ApiError body, HttpOutputMessage outputMessage) throws IOException {
+        writer.write(body, outputMessage.getBody());
+    }
+}
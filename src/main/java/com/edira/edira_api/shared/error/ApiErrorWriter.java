@@ -0,0 +1,91 @@
+package com.edira.edira_api.shared.error;
+
+import com.edira.edira_api.shared.BinaryFormats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * ObjectWriters de ApiError construidos una sola vez (serializer ya resuelto) y compartidos por
+ * GlobalExceptionHandler (vía ApiErrorHttpMessageConverter) y los handlers de seguridad,
+ * que escriben directo al response sin pasar por MVC.
+ * Los handlers de seguridad no tienen content negotiation de MVC: el formato (JSON, CBOR o Smile)
+ * se elige acá a partir del Accept.
+ */
+@Component
+public class ApiErrorWriter {
+
+    private final ObjectWriter json;
+    private final ObjectWriter cbor;
+    private final ObjectWriter smile;
+
+    public ApiErrorWriter(ObjectMapper objectMapper) {
+        this.json = objectMapper.writerFor(ApiError.class);
+        this.cbor = BinaryFormats.copyOf(objectMapper, new CBORFactory()).writerFor(ApiError.class);
+        this.smile = BinaryFormats.copyOf(objectMapper, new SmileFactory()).writerFor(ApiError.class);
+    }
+
+    public void write(ApiError body, OutputStream out) throws IOException {
+        json.writeValue(out, body);
+    }
+
+    //Para los handlers de Spring Security (401/403)
+    public void write(ApiError body, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaType mediaType = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        response.setStatus(body.status());
+        response.setContentType(mediaType.toString());
+        if (MediaType.APPLICATION_JSON.equals(mediaType)) {
+            response.setCharacterEncoding("UTF-8");
+        }
+        writerFor(mediaType).writeValue(response.getOutputStream(), body);
+    }
+
+    // JSON salvo que el cliente prefiera explícitamente CBOR o Smile
+    static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed()); // estable: respeta especificidad
+        for (MediaType candidate : accepted) {
+            if (candidate.isWildcardType() || candidate.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            for (MediaType binary : BinaryFormats.ALL) {
+                if (candidate.isCompatibleWith(binary)) {
+                    return binary;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private ObjectWriter writerFor(MediaType mediaType) {
+        if (MediaType.APPLICATION_CBOR.equals(mediaType)) {
+            return cbor;
+        }
+        if (BinaryFormats.APPLICATION_SMILE.equals(mediaType)) {
+            return smile;
+        }
+        return json;
+    }
+}
@@ -0,0 +1,38 @@
+package com.edira.edira_api.shared.error;
+
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+/**
+ * Excepción lanzada cuando la operación choca con el estado actual del recurso.
+ * Se mapea a HTTP 409 CONFLICT; si trae detalles (p. ej. las secciones con las que choca un
+ * horario), van en {@code details} como los de una validación.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<ValidationErrorDetail> details;
+
+    public ConflictException(String message) {
+        super(message);
+        this.details = List.of();
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+        this.details = List.of();
+    }
+
+    public ConflictException(String message, List<ValidationErrorDetail> details) {
+        super(message);
+        this.details = List.copyOf(details);
+    }
+
+    public List<ValidationErrorDetail> getDetails() {
+        return details != null ? details : List.of();
+    }
+}
@@ -1,5 +1,6 @@
 package com.edira.edira_api.shared.error;
 
+import com.edira.edira_api.persistence.diagnostics.SqlRequestContext;
 import com.edira.edira_api.shared.validation.ValidationErrorDetail;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,18 +14,22 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.List;
 
-/*Para leer el archivo y para mi yo del futuro:
-        Linea 37: Error 400 body (MethodArgumentNotValidException)
-        Linea 69: Error 400 params (ConstraintViolationException)
-        Linea 103: Error 404 (NotFoundException)
-        Linea 127: Error 400 (IllegalArgumentException)
-        Linea 145: Error 409 (DataIntegrityViolation)
-        Linea 159: Error 401 (UnauthorizedException)
-        Linea 182: Error 403 (ForbiddenException)
-        Linea 204: Error 500 (fallback)
+/*Para leer el archivo y para mi yo del futuro (en el orden de los handlers):
+        Error 400 body (MethodArgumentNotValidException)
+        Error 400 params (ConstraintViolationException)
+        Error 404 (NotFoundException)
+        Error 400 con detalles (ValidationFailedException)
+        Error 400 (IllegalArgumentException)
+        Error 413 (MaxUploadSizeExceededException)
+        Error 409 (DataIntegrityViolation)
+        Error 409 (ConflictException)
+        Error 401 (UnauthorizedException)
+        Error 403 (ForbiddenException)
+        Error 500 (fallback)
  */
 
 @RestControllerAdvice
@@ -53,8 +58,8 @@ public class GlobalExceptionHandler {
 
         ApiError body = ApiError.validation(status, code, message, path, details);
 
-        log.warn("400 VALIDATION_ERROR path={} errorId={} invalidFields={}",
-                path, body.errorId(), details.size());
+        log.warn("400 VALIDATION_ERROR path={} errorId={} invalidFields={} sql={}",
+                path, body.errorId(), details.size(), SqlRequestContext.summary());
 
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
@@ -85,8 +90,8 @@ public class GlobalExceptionHandler {
 
         ApiError body = ApiError.validation(status, code, message, path, details);
 
-        log.warn("400 VALIDATION_ERROR path={} errorId={} invalidParams={}",
-                path, body.errorId(), details.size());
+        log.warn("400 VALIDATION_ERROR path={} errorId={} invalidParams={} sql={}",
+                path, body.errorId(), details.size(), SqlRequestContext.summary());
 
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
@@ -114,7 +119,7 @@ public class GlobalExceptionHandler {
 
         ApiError body = ApiError.of(status, code, message, path);
 
-        log.warn("404 NOT_FOUND path={} errorId={}", path, body.errorId());
+        log.warn("404 NOT_FOUND path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary());
 
         return ResponseEntity
                 .status(HttpStatus.NOT_FOUND)
@@ -122,6 +127,25 @@ public class GlobalExceptionHandler {
 
     }
 
+    //Datos validados en el servicio (fórmulas, archivos), con el detalle de cada error
+
+    @ExceptionHandler(ValidationFailedException.class)
+    public ResponseEntity<ApiError> handleValidationFailed(ValidationFailedException ex,
+                                                           HttpServletRequest request) {
+
+        String path = request.getRequestURI();
+
+        int status = HttpStatus.BAD_REQUEST.value();
+        ErrorCode code = ErrorCode.VALIDATION_ERROR;
+        String message = (ex.getMessage() != null && !ex.getMessage().isBlank()) ? ex.getMessage() : "La solicitud tiene datos inválidos.";
+        ApiError body = ApiError.validation(status, code, message, path, ex.getDetails());
+
+        log.warn("400 VALIDATION_ERROR path={} errorId={} invalidFields={} sql={}",
+                path, body.errorId(), ex.getDetails().size(), SqlRequestContext.summary());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
     //Datos que no deberian ir ahi.
 
     @ExceptionHandler(IllegalArgumentException.class)
@@ -135,11 +159,27 @@ public class GlobalExceptionHandler {
         String message = (ex.getMessage() != null && !ex.getMessage().isBlank()) ? ex.getMessage() : "Solicitud inválida.";
         ApiError body = ApiError.of(status, code, message, path);
 
-        log.warn("400 BAD_REQUEST path={} errorId={}", path, body.errorId());
+        log.warn("400 BAD_REQUEST path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary());
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
 
+    //Archivo más grande que spring.servlet.multipart.max-file-size / max-request-size
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ApiError> handleMaxUploadSize(MaxUploadSizeExceededException ex, HttpServletRequest request) {
+
+        String path = request.getRequestURI();
+        int status = HttpStatus.PAYLOAD_TOO_LARGE.value();
+        ErrorCode code = ErrorCode.BAD_REQUEST;
+        String message = ex.getMaxUploadSize() > 0
+                ? "El archivo supera el tamaño máximo (" + ex.getMaxUploadSize() + " bytes)."
+                : "El archivo supera el tamaño máximo.";
+        ApiError body = ApiError.of(status, code, message, path);
+        log.warn("413 BAD_REQUEST path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(body);
+    }
+
     //Exception al INSERT/UPDATE/DELETE y la db rechaza
 
     @ExceptionHandler({DataIntegrityViolationException.class, org.hibernate.exception.ConstraintViolationException.class})
@@ -150,11 +190,29 @@ public class GlobalExceptionHandler {
         ErrorCode code = ErrorCode.CONFLICT;
         String message = "Conflicto con el estado actual del recurso";
         ApiError body = ApiError.of(status, code, message, path);
-        log.warn("409 CONFLICT path={} errorId={}", path, body.errorId());
+        log.warn("409 CONFLICT path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary());
         return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
 
     }
 
+    //Estado del recurso que no permite la operación (job sin terminar, cupo tomado...)
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiError> handleConflict(ConflictException ex, HttpServletRequest request) {
+
+        String path = request.getRequestURI();
+        int status = HttpStatus.CONFLICT.value();
+        ErrorCode code = ErrorCode.CONFLICT;
+        String message = (ex.getMessage() != null && !ex.getMessage().isBlank())
+                ? ex.getMessage()
+                : "Conflicto con el estado actual del recurso";
+        ApiError body = ex.getDetails().isEmpty()
+                ? ApiError.of(status, code, message, path)
+                : ApiError.validation(status, code, message, path, ex.getDetails());
+        log.warn("409 CONFLICT path={} errorId={} details={} sql={}", path, body.errorId(), ex.getDetails().size(),
+                SqlRequestContext.summary());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
     //Para errores de autenticación (401 UNAUTHORIZED)
     @ExceptionHandler(UnauthorizedException.class)
     public ResponseEntity<ApiError> handleUnauthorized(
@@ -170,7 +228,7 @@ public class GlobalExceptionHandler {
 
         ApiError body = ApiError.of(status, code, message, path);
 
-        log.warn("401 UNAUTHORIZED path={} errorId={}", path, body.errorId());
+        log.warn("401 UNAUTHORIZED path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary());
 
         return ResponseEntity
                 .status(HttpStatus.UNAUTHORIZED)
@@ -192,7 +250,7 @@ public class GlobalExceptionHandler {
 
         ApiError body = ApiError.of(status, code, message, path);
 
-        log.warn("403 FORBIDDEN path={} errorId={}", path, body.errorId());
+        log.warn("403 FORBIDDEN path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary());
 
         return ResponseEntity
                 .status(HttpStatus.FORBIDDEN)
@@ -208,8 +266,8 @@ public class GlobalExceptionHandler {
         ErrorCode code = ErrorCode.INTERNAL_ERROR;
         String message = "Algo salió mal. Intenta más tarde.";
         ApiError body = ApiError.of(status, code, message, path);
-        // 5xx → ERROR con stacktrace
-        log.error("500 INTERNAL_ERROR path={} errorId={}", path, body.errorId(), ex);
+        // 5xx → ERROR con stacktrace; sql= resume lo que alcanzó a ejecutar el request
+        log.error("500 INTERNAL_ERROR path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary(), ex);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
     }
 
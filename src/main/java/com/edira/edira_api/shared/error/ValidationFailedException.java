@@ -0,0 +1,28 @@
+package com.edira.edira_api.shared.error;
+
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+/**
+ * Excepción lanzada cuando un dato que no pasa por Bean Validation (una fórmula, un archivo) es
+ * inválido. Lleva el detalle de cada error, como un @Valid que falla.
+ * Se mapea a HTTP 400 VALIDATION_ERROR.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ValidationFailedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<ValidationErrorDetail> details;
+
+    public ValidationFailedException(String message, List<ValidationErrorDetail> details) {
+        super(message);
+        this.details = List.copyOf(details);
+    }
+
+    public List<ValidationErrorDetail> getDetails() {
+        return details;
+    }
+}
@@ -0,0 +1,249 @@
+package com.edira.edira_api.shared.health;
+
+import com.edira.edira_api.shared.health.HealthSnapshot.Component;
+import com.edira.edira_api.shared.health.HealthSnapshot.Status;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Chequea MySQL, Flyway y el pool en background y publica el último resultado. Los probes
+ * ({@link #liveness()}, {@link #readiness()}) solo leen una referencia volatile y devuelven
+ * bytes ya serializados: nunca piden una conexión ni esperan a la base.
+ * <p>
+ * Readiness cae sola si el pool está saturado, si la réplica se atrasa (opcional), si el
+ * último chequeo quedó viejo o si Spring pasó a REFUSING_TRAFFIC (warm-up, apagado).
+ * Liveness no depende de la base: reiniciar el pod no arregla un MySQL caído.
+ * <p>
+ * El chequeo corre en un hilo propio y no en el scheduler de Spring: si los jobs {@code @Scheduled}
+ * lo ocupan, readiness no debe caer por STALE_CHECK con la base sana.
+ */
+public class HealthChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(HealthChecker.class);
+
+    private static final byte[] LIVE_UP = json("{\"status\":\"UP\"}");
+    private static final byte[] LIVE_BROKEN = json("{\"status\":\"DOWN\",\"reason\":\"BROKEN\"}");
+    private static final byte[] READY_STARTING = json("{\"status\":\"DOWN\",\"reason\":\"STARTING\"}");
+    private static final byte[] READY_REFUSING = json("{\"status\":\"DOWN\",\"reason\":\"REFUSING_TRAFFIC\"}");
+    private static final byte[] READY_STALE = json("{\"status\":\"DOWN\",\"reason\":\"STALE_CHECK\"}");
+
+    /** Respuesta de un probe: status HTTP y body JSON listo para escribir. */
+    public record Probe(int status, byte[] body) {
+    }
+
+    /** Estado del pool sin pedir conexión (HikariPoolMXBean). */
+    public interface PoolStats {
+        int active();
+
+        int idle();
+
+        int waiting();
+
+        int max();
+    }
+
+    /** Estado del esquema (Flyway); un UP se guarda y no se vuelve a consultar. */
+    public interface SchemaCheck {
+        Component check() throws Exception;
+    }
+
+    private final DataSource dataSource;
+    private final Supplier<PoolStats> pool;
+    private final SchemaCheck schemaCheck;
+    private final ApplicationAvailability availability;
+    private final HealthProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("health-check").daemon().factory());
+    private volatile HealthSnapshot snapshot;
+    private Component schemaUp;
+    private Status lastStatus;
+
+    public HealthChecker(DataSource dataSource, Supplier<PoolStats> pool, SchemaCheck schemaCheck,
+                         ApplicationAvailability availability, HealthProperties properties, ObjectMapper objectMapper,
+                         Clock clock) {
+        this.dataSource = dataSource;
+        this.pool = pool;
+        this.schemaCheck = schemaCheck;
+        this.availability = availability;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public HealthSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public Probe liveness() {
+        return availability.getLivenessState() == LivenessState.BROKEN ? new Probe(503, LIVE_BROKEN) : new Probe(200, LIVE_UP);
+    }
+
+    public Probe readiness() {
+        if (availability.getReadinessState() == ReadinessState.REFUSING_TRAFFIC) {
+            return new Probe(503, READY_REFUSING);
+        }
+        HealthSnapshot current = snapshot;
+        if (current == null) {
+            return new Probe(503, READY_STARTING);
+        }
+        if (Duration.between(current.checkedAt(), clock.instant()).compareTo(properties.maxStaleness()) > 0) {
+            return new Probe(503, READY_STALE);
+        }
+        return new Probe(current.ready() ? 200 : 503, current.readyBody());
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = properties.interval().toNanos();
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                check();
+            } catch (RuntimeException e) {
+                // una excepción cancelaría las siguientes ejecuciones; readiness caerá por STALE_CHECK
+                log.error("HEALTH_CHECK_FAILED", e);
+            }
+        }, 0, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    public void check() {
+        Map<String, Component> components = new LinkedHashMap<>();
+        Component poolComponent = checkPool();
+        components.put("pool", poolComponent);
+        if (poolComponent.status() == Status.DEGRADED) {
+            // pedir una conexión ahora sería hacer fila detrás del tráfico real
+            components.put("db", new Component(Status.UNKNOWN, Map.of("reason", "pool saturado: no se pide conexión")));
+        } else {
+            checkDatabase(components);
+        }
+        components.put("schema", checkSchema());
+
+        // UNKNOWN no degrada (pool sin iniciar, réplica sin privilegio); db solo queda UNKNOWN con el pool saturado
+        boolean ready = components.values().stream()
+                .allMatch(component -> component.status() == Status.UP || component.status() == Status.UNKNOWN);
+        Instant checkedAt = clock.instant();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", ready ? Status.UP : Status.DOWN);
+        body.put("checkedAt", checkedAt);
+        body.put("components", components);
+        try {
+            snapshot = new HealthSnapshot(checkedAt, ready, Map.copyOf(components), objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        Status status = ready ? Status.UP : Status.DOWN;
+        if (status != lastStatus) {
+            // solo los cambios: un probe cada pocos segundos no debe llenar el log
+            if (ready) {
+                log.info("HEALTH_READY components={}", summary(components));
+            } else {
+                log.warn("HEALTH_NOT_READY components={}", summary(components));
+            }
+            lastStatus = status;
+        }
+    }
+
+    private Component checkPool() {
+        PoolStats stats = pool.get();
+        if (stats == null) {
+            return new Component(Status.UNKNOWN, Map.of("reason", "pool sin iniciar"));
+        }
+        int saturationAt = (int) Math.ceil(stats.max() * properties.poolSaturation());
+        boolean saturated = stats.waiting() > 0 || stats.active() >= saturationAt;
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("active", stats.active());
+        details.put("idle", stats.idle());
+        details.put("waiting", stats.waiting());
+        details.put("max", stats.max());
+        return new Component(saturated ? Status.DEGRADED : Status.UP, details);
+    }
+
+    private void checkDatabase(Map<String, Component> components) {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean valid = connection.isValid((int) Math.max(1, properties.timeout().toSeconds()));
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("latencyMs", Duration.ofNanos(System.nanoTime() - start).toMillis());
+            components.put("db", new Component(valid ? Status.UP : Status.DOWN, details));
+            if (valid && properties.replicaLagEnabled()) {
+                components.put("replica", checkReplica(connection));
+            }
+        } catch (SQLException | RuntimeException e) {
+            components.put("db", new Component(Status.DOWN, Map.of("error", e.getClass().getSimpleName())));
+        }
+    }
+
+    private Component checkReplica(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, properties.timeout().toSeconds()));
+            try (ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+                if (!rs.next()) {
+                    return new Component(Status.UP, Map.of("role", "source"));
+                }
+                long lag = rs.getLong("Seconds_Behind_Source");
+                if (rs.wasNull()) {
+                    return new Component(Status.DOWN, Map.of("role", "replica", "reason", "replicación detenida"));
+                }
+                boolean behind = lag > properties.replicaLagThreshold().toSeconds();
+                return new Component(behind ? Status.DEGRADED : Status.UP, Map.of("role", "replica", "lagSeconds", lag));
+            }
+        } catch (SQLException e) {
+            // sin privilegio REPLICATION CLIENT no se puede saber: no se degrada por eso
+            return new Component(Status.UNKNOWN, Map.of("error", e.getClass().getSimpleName()));
+        }
+    }
+
+    private Component checkSchema() {
+        if (schemaUp != null) {
+            return schemaUp;
+        }
+        try {
+            Component schema = schemaCheck.check();
+            if (schema.status() == Status.UP) {
+                schemaUp = schema;
+            }
+            return schema;
+        } catch (Exception e) {
+            return new Component(Status.DOWN, Map.of("error", e.getClass().getSimpleName()));
+        }
+    }
+
+    private static String summary(Map<String, Component> components) {
+        StringBuilder summary = new StringBuilder();
+        components.forEach((name, component) -> summary.append(name).append('=').append(component.status()).append(' '));
+        return summary.toString().trim();
+    }
+
+    private static byte[] json(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
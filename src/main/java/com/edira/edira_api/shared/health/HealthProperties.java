@@ -0,0 +1,29 @@
+package com.edira.edira_api.shared.health;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Chequeo de salud en background (prefijo {@code edira.health}).
+ *
+ * @param interval            cada cuánto se chequea MySQL, Flyway y el pool
+ * @param timeout             tope del ping a MySQL ({@code Connection.isValid})
+ * @param maxStaleness        si el último chequeo es más viejo que esto, readiness responde DOWN
+ *                            (el checker quedó pegado, p.ej. esperando una conexión)
+ * @param poolSaturation      fracción de conexiones activas sobre el máximo a partir de la cual el pool
+ *                            se considera saturado (también si hay threads esperando conexión)
+ * @param replicaLagEnabled   consulta SHOW REPLICA STATUS (solo si el datasource apunta a una réplica)
+ * @param replicaLagThreshold atraso máximo de la réplica antes de degradar readiness
+ */
+@ConfigurationProperties(prefix = "edira.health")
+public record HealthProperties(
+        @DefaultValue("5s") Duration interval,
+        @DefaultValue("2s") Duration timeout,
+        @DefaultValue("30s") Duration maxStaleness,
+        @DefaultValue("0.9") double poolSaturation,
+        @DefaultValue("false") boolean replicaLagEnabled,
+        @DefaultValue("30s") Duration replicaLagThreshold
+) {
+}
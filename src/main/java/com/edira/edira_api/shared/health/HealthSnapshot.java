@@ -0,0 +1,17 @@
+package com.edira.edira_api.shared.health;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Resultado de un chequeo completo, con el body de readiness ya serializado.
+ * Se publica de una vez (referencia volatile): un probe nunca ve un chequeo a medias.
+ */
+public record HealthSnapshot(Instant checkedAt, boolean ready, Map<String, Component> components, byte[] readyBody) {
+
+    public enum Status { UP, DEGRADED, DOWN, UNKNOWN }
+
+    /** Estado de una dependencia y sus datos (latencia, conexiones, versión...). */
+    public record Component(Status status, Map<String, Object> details) {
+    }
+}
@@ -0,0 +1,252 @@
+package com.edira.edira_api.shared.idempotency;
+
+import com.edira.edira_api.persistence.idempotency.IdempotencyRecord;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
+import com.edira.edira_api.shared.error.ErrorCode;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+
+/**
+ * Idempotency-Key para POST/PUT/PATCH/DELETE. Corre después de Spring Security: los 401/403
+ * no se guardan y el usuario entra en el hash del request, así una key reutilizada por otro
+ * usuario da 409 en vez de devolverle la respuesta ajena.
+ * <ul>
+ *   <li>primera vez: ejecuta y guarda status, Content-Type, Location y body (si no es 5xx);</li>
+ *   <li>reintento con el mismo request: responde lo guardado sin pasar por el handler;</li>
+ *   <li>misma key con otro request, o el primero sigue en curso: 409 con el contrato ApiError.</li>
+ * </ul>
+ * Multipart, NDJSON y formularios quedan fuera: el body se lee completo para el hash.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final ApiErrorWriter apiErrorWriter;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties,
+                             ApiErrorWriter apiErrorWriter, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.properties = properties;
+        this.apiErrorWriter = apiErrorWriter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!METHODS.contains(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return false; // lo rechaza MVC con 415
+        }
+        return mediaType.isCompatibleWith(MediaType.MULTIPART_FORM_DATA)
+                || mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                || mediaType.isCompatibleWith(MediaType.APPLICATION_FORM_URLENCODED);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(request, response, HttpServletResponse.SC_BAD_REQUEST, ErrorCode.BAD_REQUEST,
+                    HEADER + " debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres.", "invalid");
+            return;
+        }
+
+        // Con la key el body se guarda entero en memoria: se corta antes de leer de más
+        long maxBody = properties.maxRequestBody().toBytes();
+        byte[] body = request.getContentLengthLong() > maxBody
+                ? null : request.getInputStream().readNBytes((int) Math.min(maxBody + 1, Integer.MAX_VALUE - 8));
+        if (body == null || body.length > maxBody) {
+            reject(request, response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, ErrorCode.BAD_REQUEST,
+                    "El cuerpo de una solicitud con " + HEADER + " no puede superar " + maxBody + " bytes.", "too_large");
+            return;
+        }
+        IdempotencyStore.Scope scope = new IdempotencyStore.Scope(TenantContext.current(), key);
+        byte[] requestHash = requestHash(request, body);
+        IdempotencyStore.Decision decision;
+        try {
+            decision = store.begin(scope, requestHash);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrumpido esperando un request en curso con la misma " + HEADER, e);
+        }
+
+        switch (decision) {
+            case IdempotencyStore.Replay replay -> {
+                count("replayed");
+                replay(replay.response(), response);
+            }
+            case IdempotencyStore.Conflict conflict when conflict.inProgress() -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                reject(request, response, HttpServletResponse.SC_CONFLICT, ErrorCode.CONFLICT,
+                        "Hay una solicitud en curso con la misma " + HEADER + ". Reintenta en unos segundos.", "in_progress");
+            }
+            case IdempotencyStore.Conflict conflict -> reject(request, response, HttpServletResponse.SC_CONFLICT, ErrorCode.CONFLICT,
+                    HEADER + " ya se usó con una solicitud distinta.", "mismatch");
+            case IdempotencyStore.Execute execute -> execute(new CachedBodyRequest(request, body), response, chain, execute, requestHash);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         IdempotencyStore.Execute execute, byte[] requestHash) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        IdempotencyRecord stored = null;
+        try {
+            chain.doFilter(request, wrapper);
+            stored = storable(execute.scope(), requestHash, request, wrapper);
+        } finally {
+            store.complete(execute, stored);
+            count(stored != null ? "executed" : "executed_not_stored");
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private IdempotencyRecord storable(IdempotencyStore.Scope scope, byte[] requestHash, HttpServletRequest request,
+                                       ContentCachingResponseWrapper wrapper) {
+        if (wrapper.getStatus() >= 500 || request.isAsyncStarted()
+                || wrapper.getContentSize() > properties.maxStoredBody().toBytes()) {
+            return null;
+        }
+        return IdempotencyRecord.completed(scope.tenantId(), scope.key(), requestHash, wrapper.getStatus(),
+                wrapper.getContentType(), wrapper.getHeader(HttpHeaders.LOCATION),
+                wrapper.getContentAsByteArray(), store.expiresAt());
+    }
+
+    private void replay(IdempotencyRecord stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        byte[] body = stored.body() == null ? new byte[0] : stored.body();
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, int status, ErrorCode code,
+                        String message, String outcome) throws IOException {
+        ApiError body = ApiError.of(status, code, message, request.getRequestURI());
+        log.warn("{} {} path={} errorId={} idempotency={}", status, code, body.path(), body.errorId(), outcome);
+        count(outcome);
+        apiErrorWriter.write(body, request, response);
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("edira.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    // Método, ruta, query, usuario y body: cualquier diferencia es "otra solicitud"
+    private static byte[] requestHash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + '\n' + request.getRequestURI() + '?' + request.getQueryString()
+                    + '\n' + request.getRemoteUser() + '\n').getBytes(StandardCharsets.UTF_8));
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Re-sirve el body ya leído para calcular el hash. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Lectura no bloqueante no soportada");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
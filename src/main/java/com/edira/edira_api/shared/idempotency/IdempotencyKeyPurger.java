@@ -0,0 +1,47 @@
+package com.edira.edira_api.shared.idempotency;
+
+import com.edira.edira_api.persistence.idempotency.IdempotencyKeyRepository;
+import com.edira.edira_api.shared.scheduling.ClusterScheduled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Borra las keys vencidas por lotes (un DELETE ... LIMIT por vuelta) para no tomar
+ * locks largos sobre idempotency_key ni inflar el binlog con un solo DELETE gigante.
+ * Corre en un solo nodo del cluster.
+ */
+public class IdempotencyKeyPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyPurger.class);
+
+    private final IdempotencyKeyRepository repository;
+    private final IdempotencyProperties properties;
+    private final Clock clock;
+
+    public IdempotencyKeyPurger(IdempotencyKeyRepository repository, IdempotencyProperties properties, Clock clock) {
+        this.repository = repository;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @ClusterScheduled
+    @Scheduled(initialDelayString = "${edira.idempotency.purge-interval:5m}",
+            fixedDelayString = "${edira.idempotency.purge-interval:5m}")
+    public void purge() {
+        Instant now = clock.instant();
+        int batchSize = properties.purgeBatchSize();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = repository.deleteExpired(now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        if (total > 0) {
+            log.info("IDEMPOTENCY_PURGE deleted={} batchSize={}", total, batchSize);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.edira.edira_api.shared.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Idempotency-Key en endpoints que mutan (prefijo {@code edira.idempotency}).
+ *
+ * @param enabled         activa el filtro
+ * @param ttl             cuánto se guarda la primera respuesta para servir reintentos
+ * @param inFlightTimeout cuánto espera un duplicado concurrente a que termine el primero
+ * @param lease           vigencia de la fila IN_PROGRESS en MySQL; se renueva cada {@code lease/3}
+ *                        mientras el handler corre, así que solo vence si el nodo muere
+ * @param cacheSize       entradas en la caché en memoria delante de MySQL
+ * @param maxStoredBody   respuestas más grandes no se guardan (la key se libera)
+ * @param maxRequestBody  requests más grandes reciben 413: el body se lee entero en memoria para el hash
+ * @param purgeInterval   cada cuánto se purgan las keys vencidas
+ * @param purgeBatchSize  filas por DELETE en la purga
+ */
+@ConfigurationProperties(prefix = "edira.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("30s") Duration inFlightTimeout,
+        @DefaultValue("60s") Duration lease,
+        @DefaultValue("10000") int cacheSize,
+        @DefaultValue("512KB") DataSize maxStoredBody,
+        @DefaultValue("1MB") DataSize maxRequestBody,
+        @DefaultValue("5m") Duration purgeInterval,
+        @DefaultValue("1000") int purgeBatchSize
+) {
+}
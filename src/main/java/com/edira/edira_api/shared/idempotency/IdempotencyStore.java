@@ -0,0 +1,216 @@
+package com.edira.edira_api.shared.idempotency;
+
+import com.edira.edira_api.persistence.idempotency.IdempotencyKeyRepository;
+import com.edira.edira_api.persistence.idempotency.IdempotencyRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decide qué hacer con un request que trae Idempotency-Key.
+ * <ul>
+ *   <li>caché en memoria (LRU acotada) con las respuestas ya completadas;</li>
+ *   <li>futures por key en vuelo: un duplicado en este nodo espera al primero en vez de ejecutar;</li>
+ *   <li>MySQL como fuente de verdad entre nodos (INSERT sobre la PK reclama la key).</li>
+ * </ul>
+ * El lease de la fila IN_PROGRESS se renueva mientras el handler corre: solo vence (y otro
+ * nodo puede reclamar la key) si este nodo deja de renovarlo.
+ */
+public class IdempotencyStore {
+
+    record Scope(long tenantId, String key) {
+    }
+
+    sealed interface Decision permits Execute, Replay, Conflict {
+    }
+
+    /** Este request es el primero: ejecutar y después {@link #complete}. */
+    record Execute(Scope scope, CompletableFuture<IdempotencyRecord> inFlight, String claimToken,
+                   ScheduledFuture<?> renewal) implements Decision {
+    }
+
+    record Replay(IdempotencyRecord response) implements Decision {
+    }
+
+    /** {@code inProgress}: otro request con la misma key sigue corriendo (otro nodo o espera agotada). */
+    record Conflict(boolean inProgress) implements Decision {
+    }
+
+    // Si el primero no dejó respuesta (5xx, excepción) los que esperaban vuelven a intentar
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyKeyRepository repository;
+    private final IdempotencyProperties properties;
+    private final Clock clock;
+    private final Map<Scope, IdempotencyRecord> completed;
+    private final ConcurrentHashMap<Scope, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IdempotencyStore(IdempotencyKeyRepository repository, IdempotencyProperties properties, Clock clock) {
+        this.repository = repository;
+        this.properties = properties;
+        this.clock = clock;
+        int maxEntries = properties.cacheSize();
+        this.completed = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Scope, IdempotencyRecord> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    Decision begin(Scope scope, byte[] requestHash) throws InterruptedException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            IdempotencyRecord cached = cached(scope);
+            if (cached != null) {
+                return replayOrConflict(cached, requestHash);
+            }
+
+            CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> other = inFlight.putIfAbsent(scope, mine);
+            if (other != null) {
+                Optional<IdempotencyRecord> result;
+                try {
+                    result = await(other);
+                } catch (TimeoutException e) {
+                    return new Conflict(true);
+                }
+                if (result.isPresent()) {
+                    return replayOrConflict(result.get(), requestHash);
+                }
+                continue;
+            }
+
+            String claimToken = UUID.randomUUID().toString();
+            Optional<IdempotencyRecord> existing;
+            try {
+                Instant now = clock.instant();
+                existing = repository.claim(scope.tenantId(), scope.key(), requestHash, claimToken, now,
+                        now.plus(properties.lease()));
+            } catch (RuntimeException e) {
+                finish(scope, mine, null);
+                throw e;
+            }
+            if (existing.isEmpty()) {
+                return new Execute(scope, mine, claimToken, scheduleRenewal(scope, claimToken));
+            }
+            IdempotencyRecord record = existing.get();
+            if (record.completed()) {
+                cache(scope, record);
+                finish(scope, mine, record);
+                return replayOrConflict(record, requestHash);
+            }
+            // IN_PROGRESS en otro nodo: no hay future que esperar acá
+            finish(scope, mine, null);
+            return new Conflict(true);
+        }
+        return new Conflict(true);
+    }
+
+    /** {@code response} null = nada que guardar; la key se libera para un reintento. */
+    void complete(Execute execute, IdempotencyRecord response) {
+        Scope scope = execute.scope();
+        execute.renewal().cancel(false);
+        try {
+            if (response == null) {
+                repository.release(scope.tenantId(), scope.key(), execute.claimToken());
+            } else if (repository.complete(response, execute.claimToken())) {
+                cache(scope, response);
+            } else {
+                log.warn("IDEMPOTENCY_LEASE_LOST tenant={} key={}: la respuesta no se guardó", scope.tenantId(), scope.key());
+            }
+        } finally {
+            finish(scope, execute.inFlight(), response);
+        }
+    }
+
+    /** Lo llama Spring al cerrar el contexto (destroy method inferido). */
+    public void shutdown() {
+        leaseRenewer.shutdownNow();
+    }
+
+    Instant expiresAt() {
+        return clock.instant().plus(properties.ttl());
+    }
+
+    int cachedEntries() {
+        synchronized (completed) {
+            return completed.size();
+        }
+    }
+
+    private ScheduledFuture<?> scheduleRenewal(Scope scope, String claimToken) {
+        long periodMillis = Math.max(1, properties.lease().toMillis() / 3);
+        return leaseRenewer.scheduleAtFixedRate(() -> renew(scope, claimToken), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void renew(Scope scope, String claimToken) {
+        try {
+            if (!repository.renew(scope.tenantId(), scope.key(), claimToken, clock.instant().plus(properties.lease()))) {
+                log.warn("IDEMPOTENCY_LEASE_LOST tenant={} key={}: otro request reclamó la key", scope.tenantId(), scope.key());
+                throw new IllegalStateException("lease perdido"); // corta la renovación periódica
+            }
+        } catch (DataAccessException e) {
+            // Un fallo puntual de MySQL no corta la renovación: el próximo intento llega antes de que venza
+            log.warn("IDEMPOTENCY_LEASE_RENEW_FAILED tenant={} key={}: {}", scope.tenantId(), scope.key(), e.getMessage());
+        }
+    }
+
+    private Decision replayOrConflict(IdempotencyRecord record, byte[] requestHash) {
+        return record.sameRequest(requestHash) ? new Replay(record) : new Conflict(false);
+    }
+
+    // vacío = el primero terminó sin respuesta guardada
+    private Optional<IdempotencyRecord> await(CompletableFuture<IdempotencyRecord> other)
+            throws InterruptedException, TimeoutException {
+        try {
+            return Optional.ofNullable(other.get(properties.inFlightTimeout().toMillis(), TimeUnit.MILLISECONDS));
+        } catch (ExecutionException | CancellationException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void finish(Scope scope, CompletableFuture<IdempotencyRecord> future, IdempotencyRecord response) {
+        inFlight.remove(scope, future);
+        future.complete(response);
+    }
+
+    private IdempotencyRecord cached(Scope scope) {
+        synchronized (completed) {
+            IdempotencyRecord record = completed.get(scope);
+            if (record != null && record.expired(clock.instant())) {
+                completed.remove(scope);
+                return null;
+            }
+            return record;
+        }
+    }
+
+    private void cache(Scope scope, IdempotencyRecord record) {
+        synchronized (completed) {
+            completed.put(scope, record);
+        }
+    }
+}
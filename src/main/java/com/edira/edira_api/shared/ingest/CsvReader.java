@@ -0,0 +1,148 @@
+package com.edira.edira_api.shared.ingest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV (RFC 4180: separador coma, comillas dobles, "" como comilla escapada, saltos de línea
+ * dentro de comillas) que entrega un registro a la vez sobre buffers reutilizables. Un registro
+ * más largo que el tope se consume hasta su fin sin acumularlo y queda marcado {@link #tooLong()}.
+ * Acepta \n y \r\n, y descarta el BOM de UTF-8 al inicio.
+ */
+public final class CsvReader {
+
+    private static final int BOM = 0xFEFF;
+
+    private final Reader in;
+    private final int maxRecordLength;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private int pending = -2;
+    private long record;
+    private long line = 1;
+    private long recordLine;
+    private int length;
+    private boolean tooLong;
+    private boolean unterminated;
+    private boolean eof;
+
+    public CsvReader(InputStream in, int maxRecordLength) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /** Avanza al siguiente registro; {@code false} al final del archivo. */
+    public boolean next() throws IOException {
+        if (eof) {
+            return false;
+        }
+        fields.clear();
+        field.setLength(0);
+        length = 0;
+        tooLong = false;
+        unterminated = false;
+        recordLine = line;
+        boolean read = false;
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (c == BOM && record == 0 && !read) {
+                continue;
+            }
+            if (c == -1) {
+                eof = true;
+                if (!read) {
+                    return false;
+                }
+                unterminated = quoted;
+                endField();
+                break;
+            }
+            read = true;
+            if (quoted) {
+                if (c == '"') {
+                    int after = read();
+                    if (after == '"') {
+                        append('"');
+                    } else {
+                        quoted = false;
+                        pending = after;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                endField();
+            } else if (c == '\n') {
+                line++;
+                endField();
+                break;
+            } else if (c != '\r') {
+                append((char) c);
+            }
+        }
+        record++;
+        return true;
+    }
+
+    /** Campos del registro actual; la lista se reutiliza en el siguiente {@link #next()}. */
+    public List<String> fields() {
+        return fields;
+    }
+
+    /** Número de registro (1 = primero, normalmente el encabezado). */
+    public long record() {
+        return record;
+    }
+
+    /** Línea del archivo donde empieza el registro actual (difiere de record() con saltos entre comillas). */
+    public long line() {
+        return recordLine;
+    }
+
+    public boolean tooLong() {
+        return tooLong;
+    }
+
+    /** El archivo terminó dentro de un campo entre comillas. */
+    public boolean unterminated() {
+        return unterminated;
+    }
+
+    public boolean blank() {
+        return fields.size() == 1 && fields.get(0).isBlank();
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void append(char c) {
+        if (++length > maxRecordLength) {
+            tooLong = true;
+            return;
+        }
+        field.append(c);
+    }
+
+    private void endField() {
+        fields.add(tooLong ? "" : field.toString());
+        field.setLength(0);
+    }
+}
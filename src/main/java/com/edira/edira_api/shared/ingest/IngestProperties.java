@@ -0,0 +1,21 @@
+package com.edira.edira_api.shared.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Cargas masivas por streaming (prefijo {@code edira.ingest}).
+ *
+ * @param batchSize       registros por INSERT / transacción
+ * @param maxErrorDetails detalles de error que se informan; pasado el tope, las líneas inválidas
+ *                        se siguen contando y marcando, pero sin detalle
+ * @param maxLineLength   largo máximo de una línea (una línea más larga es inválida, no se carga en memoria)
+ */
+@ConfigurationProperties(prefix = "edira.ingest")
+public record IngestProperties(
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("1000") int maxErrorDetails,
+        @DefaultValue("16KB") DataSize maxLineLength
+) {
+}
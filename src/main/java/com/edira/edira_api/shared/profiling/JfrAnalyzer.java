@@ -0,0 +1,140 @@
+package com.edira.edira_api.shared.profiling;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lee un .jfr evento por evento (sin cargar la grabación completa) y agrega por frame:
+ * jdk.ExecutionSample, jdk.ObjectAllocationSample, jdk.JavaMonitorEnter y jdk.GarbageCollection.
+ */
+final class JfrAnalyzer {
+
+    private JfrAnalyzer() {
+    }
+
+    private record LockKey(String monitorClass, String frame) {
+    }
+
+    private static final class LockStats {
+        long count;
+        long totalNanos;
+        long maxNanos;
+    }
+
+    private static final class AllocationStats {
+        long bytes;
+        final Map<String, Long> byClass = new HashMap<>();
+    }
+
+    static JfrSummary summarize(long recordingId, Instant startedAt, Instant stoppedAt, Path file, int topN)
+            throws IOException {
+        Map<String, Long> samples = new HashMap<>();
+        Map<String, AllocationStats> allocations = new HashMap<>();
+        Map<LockKey, LockStats> locks = new HashMap<>();
+        Map<String, Long> collectors = new TreeMap<>();
+        long totalSamples = 0;
+        long totalAllocated = 0;
+        long gcCount = 0;
+        long gcTotalNanos = 0;
+        long gcMaxNanos = 0;
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        samples.merge(topFrame(event.getStackTrace()), 1L, Long::sum);
+                        totalSamples++;
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        long weight = event.getLong("weight");
+                        RecordedClass objectClass = event.getClass("objectClass");
+                        AllocationStats stats = allocations.computeIfAbsent(topFrame(event.getStackTrace()),
+                                frame -> new AllocationStats());
+                        stats.bytes += weight;
+                        stats.byClass.merge(objectClass == null ? "?" : objectClass.getName(), weight, Long::sum);
+                        totalAllocated += weight;
+                    }
+                    case "jdk.JavaMonitorEnter" -> {
+                        RecordedClass monitorClass = event.getClass("monitorClass");
+                        LockKey key = new LockKey(monitorClass == null ? "?" : monitorClass.getName(),
+                                topFrame(event.getStackTrace()));
+                        LockStats stats = locks.computeIfAbsent(key, k -> new LockStats());
+                        long nanos = event.getDuration().toNanos();
+                        stats.count++;
+                        stats.totalNanos += nanos;
+                        stats.maxNanos = Math.max(stats.maxNanos, nanos);
+                    }
+                    case "jdk.GarbageCollection" -> {
+                        long pauses = event.getDuration("sumOfPauses").toNanos();
+                        gcCount++;
+                        gcTotalNanos += pauses;
+                        gcMaxNanos = Math.max(gcMaxNanos, event.getDuration("longestPause").toNanos());
+                        collectors.merge(event.getString("name"), 1L, Long::sum);
+                    }
+                    default -> {
+                        // otros eventos de la configuración no entran al resumen
+                    }
+                }
+            }
+        }
+
+        long sampleTotal = totalSamples;
+        long allocatedTotal = totalAllocated;
+        List<JfrSummary.HotMethod> hotMethods = samples.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(topN)
+                .map(e -> new JfrSummary.HotMethod(e.getKey(), e.getValue(), percent(e.getValue(), sampleTotal)))
+                .toList();
+        List<JfrSummary.AllocationSite> allocationSites = allocations.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, AllocationStats> e) -> e.getValue().bytes).reversed())
+                .limit(topN)
+                .map(e -> new JfrSummary.AllocationSite(e.getKey(), topClass(e.getValue()), e.getValue().bytes,
+                        percent(e.getValue().bytes, allocatedTotal)))
+                .toList();
+        List<JfrSummary.LockContention> lockContention = locks.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<LockKey, LockStats> e) -> e.getValue().totalNanos).reversed())
+                .limit(topN)
+                .map(e -> new JfrSummary.LockContention(e.getKey().monitorClass(), e.getKey().frame(),
+                        e.getValue().count, millis(e.getValue().totalNanos), millis(e.getValue().maxNanos)))
+                .toList();
+        return new JfrSummary(recordingId, startedAt, stoppedAt, file.toFile().length(), hotMethods, allocationSites,
+                lockContention, new JfrSummary.GcPauses(gcCount, millis(gcTotalNanos), millis(gcMaxNanos), collectors));
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "?";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame()) {
+                return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+            }
+        }
+        return "?";
+    }
+
+    private static String topClass(AllocationStats stats) {
+        return stats.byClass.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse("?");
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : Math.round(part * 1000.0 / total) / 10.0;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.edira.edira_api.shared.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Grabaciones JFR bajo demanda (prefijo {@code edira.profiling.jfr}).
+ *
+ * @param enabled         habilita /admin/diagnostics/jfr
+ * @param directory       dónde queda el .jfr; solo se guarda la última grabación
+ * @param defaultDuration duración si el request no la indica
+ * @param maxDuration     duración máxima (JFR detiene la grabación solo al cumplirla)
+ * @param maxSize         tope en disco de la grabación (JFR descarta lo más viejo al llegar)
+ * @param minFreeSpace    no se inicia si el disco queda con menos que esto libre además de maxSize
+ * @param topN            filas por sección del resumen
+ */
+@ConfigurationProperties(prefix = "edira.profiling.jfr")
+public record JfrProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("${java.io.tmpdir}/edira-jfr") Path directory,
+        @DefaultValue("60s") Duration defaultDuration,
+        @DefaultValue("5m") Duration maxDuration,
+        @DefaultValue("100MB") DataSize maxSize,
+        @DefaultValue("500MB") DataSize minFreeSpace,
+        @DefaultValue("20") int topN
+) {
+}
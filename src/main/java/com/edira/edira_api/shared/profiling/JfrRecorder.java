@@ -0,0 +1,247 @@
+package com.edira.edira_api.shared.profiling;
+
+import com.edira.edira_api.shared.error.ConflictException;
+import com.edira.edira_api.shared.error.NotFoundException;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Una sola grabación JFR a la vez, acotada en duración y tamaño. JFR la detiene solo al cumplir
+ * la duración y escribe el .jfr en {@link JfrProperties#directory()}; se conserva únicamente la
+ * última grabación (iniciar otra borra el archivo anterior).
+ */
+public class JfrRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecorder.class);
+
+    /** Configuraciones que trae el JDK: "default" (~1% overhead) y "profile" (~2%, más muestras). */
+    public enum Profile {
+        DEFAULT("default"),
+        PROFILE("profile");
+
+        private final String configuration;
+
+        Profile(String configuration) {
+            this.configuration = configuration;
+        }
+    }
+
+    @Schema(name = "JfrStatus")
+    public record Status(
+            boolean recording,
+            Long recordingId,
+            Profile profile,
+            Instant startedAt,
+            Instant endsAt,
+            Instant stoppedAt,
+            long sizeBytes
+    ) {
+        static final Status IDLE = new Status(false, null, null, null, null, null, 0);
+    }
+
+    private static final class Session {
+        final Recording recording;
+        final Profile profile;
+        final Path file;
+        final Instant startedAt;
+        final Instant endsAt;
+        Instant stoppedAt;
+        JfrSummary summary;
+
+        Session(Recording recording, Profile profile, Path file, Instant startedAt, Instant endsAt) {
+            this.recording = recording;
+            this.profile = profile;
+            this.file = file;
+            this.startedAt = startedAt;
+            this.endsAt = endsAt;
+        }
+    }
+
+    private final JfrProperties properties;
+    private final Clock clock;
+    private Session current;
+
+    public JfrRecorder(JfrProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public synchronized Status start(Duration duration, Profile profile) {
+        Duration effective = duration == null ? properties.defaultDuration() : duration;
+        if (effective.isNegative() || effective.isZero() || effective.compareTo(properties.maxDuration()) > 0) {
+            throw new IllegalArgumentException("La duración debe estar entre 1s y " + properties.maxDuration() + ".");
+        }
+        if (current != null && running(current)) {
+            throw new ConflictException("Ya hay una grabación JFR en curso (id " + current.recording.getId() + ").");
+        }
+        Path file = prepareDirectory();
+        discardPrevious();
+
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(profile.configuration));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("No se pudo cargar la configuración JFR " + profile.configuration, e);
+        }
+        recording.setName("edira-" + profile.configuration);
+        recording.setToDisk(true);
+        recording.setMaxSize(properties.maxSize().toBytes());
+        recording.setDuration(effective);
+        try {
+            recording.setDestination(file);
+        } catch (IOException e) {
+            recording.close();
+            throw new UncheckedIOException(e);
+        }
+        recording.start();
+
+        Instant now = clock.instant();
+        current = new Session(recording, profile, file, now, now.plus(effective));
+        log.info("JFR START id={} profile={} duration={} file={}", recording.getId(), profile, effective, file);
+        return status();
+    }
+
+    public synchronized Status stop() {
+        if (current == null || !running(current)) {
+            throw new ConflictException("No hay una grabación JFR en curso.");
+        }
+        current.recording.stop();
+        finish(current);
+        log.info("JFR STOP id={} size={}", current.recording.getId(), sizeOf(current));
+        return status();
+    }
+
+    public synchronized Status status() {
+        if (current == null) {
+            return Status.IDLE;
+        }
+        boolean running = running(current);
+        return new Status(running, current.recording.getId(), current.profile, current.startedAt, current.endsAt,
+                current.stoppedAt, running ? 0 : sizeOf(current));
+    }
+
+    /** Archivo de la última grabación ya terminada. */
+    public synchronized Path recordingFile() {
+        return finishedSession().file;
+    }
+
+    /**
+     * Resumen de la última grabación; se calcula una vez y queda en memoria. El análisis (hasta
+     * {@code maxSize} de JFR) corre fuera del monitor para no bloquear status/stop/start: se toma
+     * la sesión bajo el lock, se analiza y se guarda solo si sigue siendo la actual.
+     */
+    public JfrSummary summary() {
+        Session session;
+        synchronized (this) {
+            session = finishedSession();
+            if (session.summary != null) {
+                return session.summary;
+            }
+        }
+        JfrSummary summary;
+        try {
+            summary = JfrAnalyzer.summarize(session.recording.getId(), session.startedAt, session.stoppedAt,
+                    session.file, properties.topN());
+        } catch (IOException e) {
+            synchronized (this) {
+                if (current != session) {
+                    throw new NotFoundException("La grabación JFR fue reemplazada por otra mientras se analizaba.");
+                }
+            }
+            throw new UncheckedIOException(e);
+        }
+        synchronized (this) {
+            if (current == session && session.summary == null) {
+                session.summary = summary;
+            }
+        }
+        return summary;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (current != null) {
+            current.recording.close();
+        }
+    }
+
+    private Session finishedSession() {
+        if (current == null) {
+            throw new NotFoundException("No hay grabaciones JFR.");
+        }
+        if (running(current)) {
+            throw new ConflictException("La grabación JFR sigue en curso; detenerla o esperar a que termine.");
+        }
+        if (!Files.exists(current.file)) {
+            throw new NotFoundException("La grabación JFR ya no está en disco.");
+        }
+        return current;
+    }
+
+    // La detención por duración la hace JFR: se detecta acá al consultar el estado
+    private boolean running(Session session) {
+        RecordingState state = session.recording.getState();
+        if (state == RecordingState.NEW || state == RecordingState.DELAYED || state == RecordingState.RUNNING) {
+            return true;
+        }
+        finish(session);
+        return false;
+    }
+
+    private void finish(Session session) {
+        if (session.stoppedAt == null) {
+            Instant stopTime = session.recording.getStopTime();
+            session.stoppedAt = stopTime != null ? stopTime : clock.instant();
+        }
+    }
+
+    private Path prepareDirectory() {
+        try {
+            Path directory = Files.createDirectories(properties.directory());
+            long needed = properties.maxSize().toBytes() + properties.minFreeSpace().toBytes();
+            long usable = Files.getFileStore(directory).getUsableSpace();
+            if (usable < needed) {
+                throw new ConflictException("Espacio en disco insuficiente para grabar JFR (libre " + usable
+                        + " bytes, se requieren " + needed + ").");
+            }
+            return directory.resolve("edira-" + clock.millis() + ".jfr");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void discardPrevious() {
+        if (current == null) {
+            return;
+        }
+        current.recording.close();
+        try {
+            Files.deleteIfExists(current.file);
+        } catch (IOException e) {
+            log.warn("JFR no se pudo borrar {}: {}", current.file, e.toString());
+        }
+        current = null;
+    }
+
+    private static long sizeOf(Session session) {
+        try {
+            return Files.exists(session.file) ? Files.size(session.file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.edira.edira_api.shared.profiling;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumen de una grabación JFR: dónde se fue la CPU, quién asigna memoria, qué locks se
+ * disputan y cuánto pausó el GC. Los frames son "Clase.metodo" del tope del stack.
+ */
+@Schema(name = "JfrSummary")
+public record JfrSummary(
+        long recordingId,
+        Instant startedAt,
+        Instant stoppedAt,
+        long sizeBytes,
+        List<HotMethod> hotMethods,
+        List<AllocationSite> allocationSites,
+        List<LockContention> lockContention,
+        GcPauses gc
+) {
+
+    public record HotMethod(String frame, long samples, double percent) {
+    }
+
+    public record AllocationSite(String frame, String topClass, long bytes, double percent) {
+    }
+
+    public record LockContention(String monitorClass, String frame, long count, double totalMs, double maxMs) {
+    }
+
+    public record GcPauses(long count, double totalPauseMs, double maxPauseMs, Map<String, Long> byCollector) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.edira.edira_api.shared.scheduling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método {@code @Scheduled} para que no corra en todos los nodos a la vez
+ * (ver {@link ClusterScheduledAspect}). Dentro del método, {@link ClusterTaskContext#current()}
+ * entrega el token de fencing y, en {@link Mode#SHARDED_BY_TENANT}, qué tenants le tocan al nodo.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClusterScheduled {
+
+    /** Nombre del lease; vacío = Clase.metodo. */
+    String name() default "";
+
+    Mode mode() default Mode.SINGLETON;
+
+    /**
+     * Vigencia del lease (acepta placeholders, p.ej. {@code ${edira.idempotency.purge-interval}}); vacío =
+     * {@code edira.scheduling.lease}. Conviene que sea mayor que el intervalo de la tarea: así el mismo
+     * nodo la sigue corriendo y solo cambia de dueño si ese nodo deja de renovar.
+     */
+    String lease() default "";
+
+    enum Mode {
+        /** Un solo nodo del cluster corre la tarea. */
+        SINGLETON,
+        /** Los tenants se reparten en edira.scheduling.shards shards; cada nodo corre los suyos. */
+        SHARDED_BY_TENANT
+    }
+}
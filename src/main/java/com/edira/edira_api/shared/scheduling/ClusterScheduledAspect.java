@@ -0,0 +1,130 @@
+package com.edira.edira_api.shared.scheduling;
+
+import com.edira.edira_api.persistence.scheduling.SchedulerLeaseRepository;
+import com.edira.edira_api.shared.cluster.ClusterNode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.PropertyResolver;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.OptionalLong;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Antes de cada corrida de un método {@link ClusterScheduled} toma (o renueva) su lease en
+ * scheduler_lease; si el lease es de otro nodo, la corrida se salta en este.
+ * <ul>
+ *   <li>SINGLETON: un lease por tarea; el nodo que lo tiene lo renueva en cada corrida.</li>
+ *   <li>SHARDED_BY_TENANT: un lease por shard. Cada nodo se queda con a lo más
+ *       ceil(shards / nodos vivos) y suelta el excedente, así al sumar un nodo los shards se
+ *       redistribuyen solos en las corridas siguientes.</li>
+ * </ul>
+ * Si MySQL no responde, la corrida se salta (no se arriesga a duplicarla).
+ */
+@Aspect
+public class ClusterScheduledAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterScheduledAspect.class);
+
+    private static final Duration STALE_NODE_RETENTION = Duration.ofDays(1);
+
+    private final SchedulerLeaseRepository repository;
+    private final SchedulingProperties properties;
+    private final ClusterNode node;
+    private final PropertyResolver propertyResolver;
+    private final Clock clock;
+
+    public ClusterScheduledAspect(SchedulerLeaseRepository repository, SchedulingProperties properties, ClusterNode node,
+                                  PropertyResolver propertyResolver, Clock clock) {
+        this.repository = repository;
+        this.properties = properties;
+        this.node = node;
+        this.propertyResolver = propertyResolver;
+        this.clock = clock;
+    }
+
+    @Around("@annotation(clusterScheduled)")
+    public Object run(ProceedingJoinPoint joinPoint, ClusterScheduled clusterScheduled) throws Throwable {
+        String name = clusterScheduled.name().isEmpty()
+                ? joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName()
+                : clusterScheduled.name();
+        Duration lease = clusterScheduled.lease().isEmpty()
+                ? properties.lease()
+                : DurationStyle.detectAndParse(propertyResolver.resolveRequiredPlaceholders(clusterScheduled.lease()));
+        boolean sharded = clusterScheduled.mode() == ClusterScheduled.Mode.SHARDED_BY_TENANT;
+        int shardCount = sharded ? properties.shards() : 1;
+
+        SortedMap<Integer, Long> tokens;
+        if (!properties.clusterEnabled()) {
+            tokens = new TreeMap<>();
+            for (int shard = 0; shard < shardCount; shard++) {
+                tokens.put(shard, 0L);
+            }
+        } else {
+            try {
+                tokens = sharded ? acquireShards(name, shardCount, lease) : acquireSingleton(name, lease);
+            } catch (RuntimeException e) {
+                log.warn("CLUSTER_TASK_SKIPPED task={} node={} reason=lease-error", name, node.id(), e);
+                return null;
+            }
+            if (tokens.isEmpty()) {
+                log.debug("CLUSTER_TASK_SKIPPED task={} node={} reason=held-elsewhere", name, node.id());
+                return null;
+            }
+        }
+
+        ClusterTaskContext previous = ClusterTaskContext.current();
+        ClusterTaskContext.set(new ClusterTaskContext(name, shardCount, tokens, lease, this::renew));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (previous == null) {
+                ClusterTaskContext.clear();
+            } else {
+                ClusterTaskContext.set(previous);
+            }
+        }
+    }
+
+    private SortedMap<Integer, Long> acquireSingleton(String name, Duration lease) {
+        Instant now = clock.instant();
+        SortedMap<Integer, Long> tokens = new TreeMap<>();
+        repository.tryAcquire(name, node.id(), now, now.plus(lease)).ifPresent(token -> tokens.put(0, token));
+        return tokens;
+    }
+
+    private SortedMap<Integer, Long> acquireShards(String name, int shardCount, Duration lease) {
+        Instant now = clock.instant();
+        repository.touchNode(node.id(), now.plus(lease));
+        repository.deleteStaleNodes(now.minus(STALE_NODE_RETENTION));
+        int liveNodes = Math.max(1, repository.countLiveNodes(now));
+        int fairShare = (shardCount + liveNodes - 1) / liveNodes;
+        // cada nodo parte de un shard distinto: menos choques cuando varios piden a la vez
+        int start = Math.floorMod(node.id().hashCode(), shardCount);
+        SortedMap<Integer, Long> tokens = new TreeMap<>();
+        for (int i = 0; i < shardCount; i++) {
+            int shard = (start + i) % shardCount;
+            String leaseName = ClusterTaskContext.leaseName(name, shardCount, shard);
+            if (tokens.size() < fairShare) {
+                OptionalLong token = repository.tryAcquire(leaseName, node.id(), now, now.plus(lease));
+                if (token.isPresent()) {
+                    tokens.put(shard, token.getAsLong());
+                }
+            } else {
+                repository.releaseIfOwned(leaseName, node.id(), now);
+            }
+        }
+        return tokens;
+    }
+
+    private boolean renew(String leaseName, long token, Duration lease) {
+        return repository.renew(leaseName, node.id(), token, clock.instant().plus(lease));
+    }
+}
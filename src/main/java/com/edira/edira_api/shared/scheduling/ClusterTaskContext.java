@@ -0,0 +1,114 @@
+package com.edira.edira_api.shared.scheduling;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Tenencia con la que corre una tarea {@link ClusterScheduled}. Una tarea SINGLETON es un
+ * único shard (0 de 1) y por lo tanto le tocan todos los tenants.
+ */
+public final class ClusterTaskContext {
+
+    private static final ThreadLocal<ClusterTaskContext> CURRENT = new ThreadLocal<>();
+
+    interface Renewer {
+        boolean renew(String leaseName, long token, Duration lease);
+    }
+
+    private final String name;
+    private final int shardCount;
+    private final SortedMap<Integer, Long> tokens;
+    private final Duration lease;
+    private final Renewer renewer;
+
+    ClusterTaskContext(String name, int shardCount, SortedMap<Integer, Long> tokens, Duration lease, Renewer renewer) {
+        this.name = name;
+        this.shardCount = shardCount;
+        this.tokens = new TreeMap<>(tokens);
+        this.lease = lease;
+        this.renewer = renewer;
+    }
+
+    /** Contexto de la tarea en curso en este thread; null fuera de una tarea {@link ClusterScheduled}. */
+    public static ClusterTaskContext current() {
+        return CURRENT.get();
+    }
+
+    static void set(ClusterTaskContext context) {
+        CURRENT.set(context);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Token de fencing (SINGLETON); en SHARDED_BY_TENANT, el del primer shard. */
+    public long token() {
+        if (tokens.isEmpty()) {
+            throw new IllegalStateException("La tarea " + name + " perdió su lease");
+        }
+        return tokens.get(tokens.firstKey());
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public SortedSet<Integer> shards() {
+        return Collections.unmodifiableSortedSet(new TreeSet<>(tokens.keySet()));
+    }
+
+    public long tokenForShard(int shard) {
+        Long token = tokens.get(shard);
+        if (token == null) {
+            throw new IllegalArgumentException("El shard " + shard + " no es de este nodo");
+        }
+        return token;
+    }
+
+    public static int shardOf(long tenantId, int shardCount) {
+        return (int) Math.floorMod(tenantId, (long) shardCount);
+    }
+
+    public boolean ownsTenant(long tenantId) {
+        return tokens.containsKey(shardOf(tenantId, shardCount));
+    }
+
+    /** Filtro SQL para los tenants de este nodo, p.ej. {@code MOD(tenant_id, 16) IN (3,7)}. */
+    public String tenantPredicate(String column) {
+        if (shardCount == 1) {
+            return "1 = 1";
+        }
+        return "MOD(" + column + ", " + shardCount + ") IN ("
+                + tokens.keySet().stream().map(String::valueOf).collect(Collectors.joining(",")) + ")";
+    }
+
+    /**
+     * Para tareas largas: extiende los leases. Los shards que ya no son de este nodo (el lease
+     * venció y otro nodo lo tomó) se sueltan; false si se perdió alguno y la tarea debería cortar.
+     */
+    public boolean renew() {
+        boolean all = true;
+        for (var iterator = tokens.entrySet().iterator(); iterator.hasNext(); ) {
+            var entry = iterator.next();
+            if (!renewer.renew(leaseName(name, shardCount, entry.getKey()), entry.getValue(), lease)) {
+                iterator.remove();
+                all = false;
+            }
+        }
+        return all;
+    }
+
+    static String leaseName(String name, int shardCount, int shard) {
+        return shardCount == 1 ? name : name + "#" + shard;
+    }
+}
@@ -0,0 +1,22 @@
+package com.edira.edira_api.shared.scheduling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Tareas periódicas en cluster (prefijo {@code edira.scheduling}).
+ *
+ * @param clusterEnabled coordina las tareas {@link ClusterScheduled} por MySQL; false = cada nodo
+ *                       corre todo (una sola instancia, desarrollo)
+ * @param lease          vigencia por defecto del lease de una tarea
+ * @param shards         shards de tenants para {@link ClusterScheduled.Mode#SHARDED_BY_TENANT}
+ */
+@ConfigurationProperties(prefix = "edira.scheduling")
+public record SchedulingProperties(
+        @DefaultValue("true") boolean clusterEnabled,
+        @DefaultValue("5m") Duration lease,
+        @DefaultValue("16") int shards
+) {
+}
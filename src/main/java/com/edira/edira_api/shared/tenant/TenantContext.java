@@ -0,0 +1,58 @@
+package com.edira.edira_api.shared.tenant;
+
+/**
+ * Tenant del request en curso, tomado del header {@value #HEADER} por {@link TenantFilter}.
+ * Mientras la autenticación no salga de user_account, el header es la única fuente;
+ * sin header se usa {@link #NONE} (instalación de un solo tenant).
+ */
+public final class TenantContext {
+
+    public static final String HEADER = "X-Tenant-Id";
+    public static final long NONE = 0L;
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static long current() {
+        Long tenant = CURRENT.get();
+        return tenant == null ? NONE : tenant;
+    }
+
+    /**
+     * Tenant del request para un módulo que no funciona sin él; sin header responde 400
+     * ("El header X-Tenant-Id es obligatorio para {@code feature}.").
+     */
+    public static long require(String feature) {
+        long tenantId = current();
+        if (tenantId == NONE) {
+            throw new IllegalArgumentException("El header " + HEADER + " es obligatorio para " + feature + ".");
+        }
+        return tenantId;
+    }
+
+    public static void set(long tenantId) {
+        CURRENT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    // null/vacío = NONE; cualquier cosa que no sea un id positivo es error del cliente
+    public static long parse(String header) {
+        if (header == null || header.isBlank()) {
+            return NONE;
+        }
+        try {
+            long id = Long.parseLong(header.trim());
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException ignored) {
+            // cae al error de abajo
+        }
+        throw new IllegalArgumentException(HEADER + " debe ser un id de tenant numérico positivo.");
+    }
+}
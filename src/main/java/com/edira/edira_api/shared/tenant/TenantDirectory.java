@@ -0,0 +1,50 @@
+package com.edira.edira_api.shared.tenant;
+
+import com.edira.edira_api.persistence.tenant.TenantRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estado de los tenants para {@link TenantFilter}, en memoria por {@code ttl}: un request con
+ * {@value TenantContext#HEADER} no consulta la tabla cada vez. Un tenant que se desactiva deja de
+ * aceptarse a más tardar en {@code ttl}. Los ids que no existen no se guardan, así el mapa queda
+ * acotado por la tabla tenant y no por lo que manden los clientes.
+ */
+public class TenantDirectory {
+
+    public enum Status { ACTIVE, INACTIVE, UNKNOWN }
+
+    private record Entry(Status status, Instant expiresAt) {
+    }
+
+    private final TenantRepository repository;
+    private final Duration ttl;
+    private final Clock clock;
+    private final ConcurrentHashMap<Long, Entry> cache = new ConcurrentHashMap<>();
+
+    public TenantDirectory(TenantRepository repository, Duration ttl, Clock clock) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public Status status(long tenantId) {
+        Instant now = clock.instant();
+        Entry cached = cache.get(tenantId);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return cached.status();
+        }
+        Status status = repository.findStatus(tenantId)
+                .map(value -> "ACTIVE".equals(value) ? Status.ACTIVE : Status.INACTIVE)
+                .orElse(Status.UNKNOWN);
+        if (status == Status.UNKNOWN) {
+            cache.remove(tenantId);
+        } else {
+            cache.put(tenantId, new Entry(status, now.plus(ttl)));
+        }
+        return status;
+    }
+}
@@ -0,0 +1,69 @@
+package com.edira.edira_api.shared.tenant;
+
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
+import com.edira.edira_api.shared.error.ErrorCode;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Fija {@link TenantContext} para el request. Un {@value TenantContext#HEADER} mal formado o de un
+ * tenant que no existe se responde con 400, y uno de un tenant inactivo con 403, con el contrato
+ * ApiError y sin llegar a los controllers.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantFilter.class);
+
+    private final ApiErrorWriter apiErrorWriter;
+    private final TenantDirectory tenants;
+
+    public TenantFilter(ApiErrorWriter apiErrorWriter, TenantDirectory tenants) {
+        this.apiErrorWriter = apiErrorWriter;
+        this.tenants = tenants;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        long tenantId;
+        try {
+            tenantId = TenantContext.parse(request.getHeader(TenantContext.HEADER));
+        } catch (IllegalArgumentException e) {
+            reject(request, response, HttpServletResponse.SC_BAD_REQUEST, ErrorCode.BAD_REQUEST, e.getMessage(), "invalid");
+            return;
+        }
+        TenantDirectory.Status status = tenantId == TenantContext.NONE
+                ? TenantDirectory.Status.ACTIVE : tenants.status(tenantId);
+        if (status == TenantDirectory.Status.UNKNOWN) {
+            reject(request, response, HttpServletResponse.SC_BAD_REQUEST, ErrorCode.BAD_REQUEST,
+                    "No existe un tenant con id " + tenantId + ".", "unknown");
+            return;
+        }
+        if (status == TenantDirectory.Status.INACTIVE) {
+            reject(request, response, HttpServletResponse.SC_FORBIDDEN, ErrorCode.FORBIDDEN,
+                    "El tenant " + tenantId + " está inactivo.", "inactive");
+            return;
+        }
+        TenantContext.set(tenantId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, int status, ErrorCode code,
+                        String message, String outcome) throws IOException {
+        ApiError body = ApiError.of(status, code, message, request.getRequestURI());
+        log.warn("{} {} path={} errorId={} tenantHeader={}", status, code, body.path(), body.errorId(), outcome);
+        apiErrorWriter.write(body, request, response);
+    }
+}
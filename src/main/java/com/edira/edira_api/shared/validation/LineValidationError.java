@@ -0,0 +1,11 @@
+package com.edira.edira_api.shared.validation;
+
+/* Error de validación de una línea en una carga masiva:
+mismo contrato que ValidationErrorDetail (field, message) más el número de línea (1 = primera)
+ */
+public record LineValidationError(long line, String field, String message) {
+
+    public static LineValidationError of(long line, ValidationErrorDetail detail) {
+        return new LineValidationError(line, detail.field(), detail.message());
+    }
+}
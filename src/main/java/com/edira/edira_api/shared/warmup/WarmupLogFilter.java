@@ -0,0 +1,20 @@
+package com.edira.edira_api.shared.warmup;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+/**
+ * Descarta cualquier evento de log emitido desde un hilo que atiende warm-up
+ * (los 401/403/404 sintéticos no deben ensuciar los logs). Solo está instalado
+ * mientras corre el warm-up.
+ */
+class WarmupLogFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        return WarmupTraffic.isActive() ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,27 @@
+package com.edira.edira_api.shared.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Warm-up del JIT antes de declararse listo (prefijo {@code edira.warmup}).
+ *
+ * @param enabled    corre el warm-up al arrancar
+ * @param timeBudget tiempo máximo; si se acaba, la app se declara lista igual
+ * @param iterations vueltas completas a la lista de requests por cada worker
+ * @param workers    requests en paralelo (para que compilen también los caminos concurrentes)
+ * @param requests   "METODO /ruta [anon|cuerpo-json]"; anon = sin autenticación (camino 401)
+ */
+@ConfigurationProperties(prefix = "edira.warmup")
+public record WarmupProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("30s") Duration timeBudget,
+        @DefaultValue("300") int iterations,
+        @DefaultValue("4") int workers,
+        @DefaultValue({"GET /ping", "GET /ping anon", "GET /admin/ping", "GET /warmup/not-found"})
+        List<String> requests
+) {
+}
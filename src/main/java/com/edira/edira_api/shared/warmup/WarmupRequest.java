@@ -0,0 +1,21 @@
+package com.edira.edira_api.shared.warmup;
+
+import java.util.Locale;
+
+/**
+ * Un request sintético de warm-up, parseado desde "METODO /ruta [anon|cuerpo-json]".
+ */
+record WarmupRequest(String method, String path, boolean anonymous, String body) {
+
+    static WarmupRequest parse(String spec) {
+        String[] parts = spec.trim().split("\\s+", 3);
+        if (parts.length < 2 || !parts[1].startsWith("/")) {
+            throw new IllegalArgumentException("Request de warm-up inválido (se espera 'METODO /ruta'): " + spec);
+        }
+        String method = parts[0].toUpperCase(Locale.ROOT);
+        String rest = parts.length == 3 ? parts[2].trim() : "";
+        boolean anonymous = rest.equalsIgnoreCase("anon");
+        String body = anonymous || rest.isEmpty() ? null : rest;
+        return new WarmupRequest(method, parts[1], anonymous, body);
+    }
+}
@@ -0,0 +1,120 @@
+package com.edira.edira_api.shared.warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pega requests sintéticos contra el propio Tomcat (loopback) para que el JIT compile los
+ * caminos calientes — Jackson, filtros de seguridad, GlobalExceptionHandler — antes de
+ * recibir tráfico real.
+ *
+ * Corre como {@link ApplicationRunner}: Spring Boot publica ReadinessState.ACCEPTING_TRAFFIC
+ * recién cuando terminan los runners, así que la app no se declara lista hasta que el
+ * warm-up termina o se le acaba el presupuesto de tiempo.
+ */
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ApplicationContext context;
+    private final WarmupProperties properties;
+
+    public WarmupRunner(ApplicationContext context, WarmupProperties properties) {
+        this.context = context;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!(context instanceof WebServerApplicationContext web) || web.getWebServer() == null) {
+            return; // sin servidor real (tests MockMvc)
+        }
+        List<WarmupRequest> requests = properties.requests().stream().map(WarmupRequest::parse).toList();
+        String baseUrl = "http://127.0.0.1:" + web.getWebServer().getPort();
+        long deadline = System.nanoTime() + properties.timeBudget().toNanos();
+        AtomicLong sent = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        LoggerContext logging = (LoggerContext) LoggerFactory.getILoggerFactory();
+        WarmupLogFilter logFilter = new WarmupLogFilter();
+        logging.addTurboFilter(logFilter);
+        long start = System.nanoTime();
+        boolean timedOut;
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build()) {
+            for (int w = 0; w < Math.max(1, properties.workers()); w++) {
+                workers.submit(() -> loop(client, baseUrl, requests, deadline, sent, failed));
+            }
+            workers.shutdown();
+            timedOut = !workers.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (timedOut) {
+                workers.shutdownNow();
+                workers.awaitTermination(REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            logging.getTurboFilterList().remove(logFilter);
+        }
+        log.info("WARMUP_DONE requests={} failed={} ms={} budgetExhausted={}", sent.get(), failed.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), timedOut);
+    }
+
+    private void loop(HttpClient client, String baseUrl, List<WarmupRequest> requests, long deadline,
+                      AtomicLong sent, AtomicLong failed) {
+        for (int i = 0; i < properties.iterations(); i++) {
+            for (WarmupRequest request : requests) {
+                if (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                try {
+                    client.send(toHttp(baseUrl, request), HttpResponse.BodyHandlers.discarding());
+                    sent.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    // El warm-up nunca debe impedir el arranque: se cuenta y se sigue
+                    failed.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static HttpRequest toHttp(String baseUrl, WarmupRequest request) {
+        HttpRequest.BodyPublisher body = request.body() == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(request.body());
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + request.path()))
+                .timeout(REQUEST_TIMEOUT)
+                .header(WarmupTraffic.HEADER, WarmupTraffic.token())
+                .header("Accept", "application/json")
+                .method(request.method(), body);
+        if (request.body() != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (request.anonymous()) {
+            builder.header(WarmupTraffic.ANONYMOUS_HEADER, "true");
+        }
+        return builder.build();
+    }
+}
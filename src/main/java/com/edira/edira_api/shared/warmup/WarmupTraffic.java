@@ -0,0 +1,51 @@
+package com.edira.edira_api.shared.warmup;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.UUID;
+
+/**
+ * Marca del tráfico sintético de warm-up. El token es aleatorio por arranque y solo lo conoce
+ * {@link WarmupRunner}; {@link WarmupTrafficFilter} lo valida (y exige loopback) antes de
+ * marcar el hilo, así un cliente externo no puede hacerse pasar por warm-up.
+ */
+public final class WarmupTraffic {
+
+    public static final String HEADER = "X-Edira-Warmup";
+    /** Con "true" el request de warm-up va sin autenticar (ejercita el camino 401). */
+    public static final String ANONYMOUS_HEADER = "X-Edira-Warmup-Anonymous";
+    static final String REQUEST_ATTRIBUTE = WarmupTraffic.class.getName() + ".ACTIVE";
+
+    private static final String TOKEN = UUID.randomUUID().toString();
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private WarmupTraffic() {
+    }
+
+    static String token() {
+        return TOKEN;
+    }
+
+    static boolean hasValidToken(HttpServletRequest request) {
+        return TOKEN.equals(request.getHeader(HEADER));
+    }
+
+    static void enter(HttpServletRequest request) {
+        ACTIVE.set(Boolean.TRUE);
+        request.setAttribute(REQUEST_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    static void exit() {
+        ACTIVE.remove();
+    }
+
+    /** ¿El hilo actual está atendiendo un request de warm-up? */
+    public static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+
+    /** ¿Este request ya fue validado como warm-up por el filtro? */
+    public static boolean isWarmup(HttpServletRequest request) {
+        return request.getAttribute(REQUEST_ATTRIBUTE) != null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.edira.edira_api.shared.warmup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * Primer filtro de la cadena: si el request trae el token de warm-up válido y viene de
+ * loopback, marca el hilo para que logs y métricas lo ignoren.
+ */
+public class WarmupTrafficFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(WarmupTraffic.HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        if (!WarmupTraffic.hasValidToken(request) || !isLoopback(request.getRemoteAddr())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        WarmupTraffic.enter(request);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            WarmupTraffic.exit();
+        }
+    }
+
+    private static boolean isLoopback(String address) {
+        try {
+            return address != null && InetAddress.getByName(address).isLoopbackAddress();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
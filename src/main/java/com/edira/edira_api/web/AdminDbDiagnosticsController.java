@@ -0,0 +1,47 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.persistence.diagnostics.ConnectionUsageRegistry;
+import com.edira.edira_api.persistence.diagnostics.ConnectionUsageReport;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.NotFoundException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/db")
+@Tag(name = "admin-db-diagnostics")
+public class AdminDbDiagnosticsController {
+
+    private final ObjectProvider<ConnectionUsageRegistry> registry;
+
+    public AdminDbDiagnosticsController(ObjectProvider<ConnectionUsageRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Operation(summary = "Uso de conexiones JDBC",
+            description = "Espera de adquisición, tiempo retenido y sentencias por endpoint y método @Transactional, "
+                    + "más las conexiones tomadas ahora mismo. Requiere rol ADMIN")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Rastreo deshabilitado (edira.db.tracking.enabled=false)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @SecurityRequirement(name = "basicAuth")
+    @GetMapping("/connections")
+    public ConnectionUsageReport connections() {
+        ConnectionUsageRegistry usage = registry.getIfAvailable();
+        if (usage == null) {
+            throw new NotFoundException("El rastreo de conexiones está deshabilitado.");
+        }
+        return usage.snapshot();
+    }
+}
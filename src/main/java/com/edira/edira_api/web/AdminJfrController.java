@@ -0,0 +1,117 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.NotFoundException;
+import com.edira.edira_api.shared.profiling.JfrRecorder;
+import com.edira.edira_api.shared.profiling.JfrSummary;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/admin/diagnostics/jfr")
+@Tag(name = "admin-jfr")
+@SecurityRequirement(name = "basicAuth")
+public class AdminJfrController {
+
+    private final ObjectProvider<JfrRecorder> recorder;
+
+    public AdminJfrController(ObjectProvider<JfrRecorder> recorder) {
+        this.recorder = recorder;
+    }
+
+    @Operation(summary = "Iniciar grabación JFR",
+            description = "Una sola grabación a la vez; se detiene sola al cumplir la duración. Requiere rol ADMIN")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Grabación iniciada"),
+            @ApiResponse(responseCode = "400", description = "Duración fuera de rango (edira.profiling.jfr.max-duration)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "Ya hay una grabación en curso o no hay espacio en disco",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/start")
+    public JfrRecorder.Status start(
+            @Parameter(description = "Duración en segundos; por defecto edira.profiling.jfr.default-duration")
+            @RequestParam(required = false) Long durationSeconds,
+            @RequestParam(defaultValue = "PROFILE") JfrRecorder.Profile profile) {
+        return recorder().start(durationSeconds == null ? null : Duration.ofSeconds(durationSeconds), profile);
+    }
+
+    @Operation(summary = "Detener la grabación JFR en curso")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Detenida; el archivo queda disponible"),
+            @ApiResponse(responseCode = "409", description = "No hay grabación en curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/stop")
+    public JfrRecorder.Status stop() {
+        return recorder().stop();
+    }
+
+    @Operation(summary = "Estado de la grabación JFR")
+    @GetMapping
+    public JfrRecorder.Status status() {
+        return recorder().status();
+    }
+
+    @Operation(summary = "Descargar la última grabación", description = "Archivo .jfr para JDK Mission Control o `jfr print`")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(mediaType = "application/octet-stream")),
+            @ApiResponse(responseCode = "404", description = "No hay grabaciones o JFR deshabilitado",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "La grabación sigue en curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/recording")
+    public ResponseEntity<Resource> recording() {
+        Path file = recorder().recordingFile();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+
+    @Operation(summary = "Resumen de la última grabación",
+            description = "Métodos calientes, sitios de asignación, contención de locks y pausas de GC")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "No hay grabaciones o JFR deshabilitado",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "La grabación sigue en curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/summary")
+    public JfrSummary summary() {
+        return recorder().summary();
+    }
+
+    private JfrRecorder recorder() {
+        JfrRecorder jfr = recorder.getIfAvailable();
+        if (jfr == null) {
+            throw new NotFoundException("Las grabaciones JFR están deshabilitadas.");
+        }
+        return jfr;
+    }
+}
@@ -0,0 +1,205 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.domain.attendance.AttendanceStatus;
+import com.edira.edira_api.domain.attendance.CheckInReceipt;
+import com.edira.edira_api.domain.attendance.ClassSession;
+import com.edira.edira_api.domain.attendance.SessionAttendance;
+import com.edira.edira_api.domain.attendance.StudentAttendance;
+import com.edira.edira_api.persistence.diagnostics.SqlRequestContext;
+import com.edira.edira_api.service.attendance.AttendanceService;
+import com.edira.edira_api.service.attendance.CheckInBuffer;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ErrorCode;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.edira.edira_api.web.attendance.CheckInRequest;
+import com.edira.edira_api.web.attendance.MarkRequest;
+import com.edira.edira_api.web.attendance.SessionCreateRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@RestController
+@RequestMapping("/courses/{courseId}/attendance")
+@Tag(name = "attendance")
+@SecurityRequirement(name = "basicAuth")
+public class AttendanceController {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceController.class);
+    private static final String FEATURE = "la asistencia";
+
+    private final AttendanceService attendanceService;
+    private final CheckInBuffer checkInBuffer;
+
+    public AttendanceController(AttendanceService attendanceService,
+                                CheckInBuffer checkInBuffer) {
+        this.attendanceService = attendanceService;
+        this.checkInBuffer = checkInBuffer;
+    }
+
+    @Operation(summary = "Crear una sesión de clase", description = "Requiere X-Tenant-Id.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Creada, sin registros"),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "El curso ya tiene una sesión a esa hora",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/sessions")
+    public ResponseEntity<ClassSession> createSession(@PathVariable long courseId,
+                                                      @Valid @RequestBody SessionCreateRequest create,
+                                                      HttpServletRequest request) {
+        long tenantId = TenantContext.require(FEATURE);
+        ClassSession session = attendanceService.createSession(tenantId, courseId, create.startsAt(),
+                request.getRemoteUser());
+        return ResponseEntity.created(URI.create("/courses/" + courseId + "/attendance/sessions/" + session.id()))
+                .body(session);
+    }
+
+    @Operation(summary = "Sesiones del curso con sus totales", description = "Rango [from, to) sobre startsAt.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/sessions")
+    public List<ClassSession> listSessions(@PathVariable long courseId,
+                                           @Parameter(example = "2025-03-01T00:00:00Z") @RequestParam(required = false) Instant from,
+                                           @Parameter(example = "2025-07-31T00:00:00Z") @RequestParam(required = false) Instant to) {
+        return attendanceService.listSessions(TenantContext.require(FEATURE), courseId, from, to);
+    }
+
+    @Operation(summary = "Asistencia de una sesión, alumno por alumno",
+            description = "Solo los alumnos registrados; el resto no tiene estado en la sesión.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Sesión inexistente en el curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/sessions/{sessionId}")
+    public SessionAttendance getSession(@PathVariable long courseId, @PathVariable long sessionId) {
+        return attendanceService.getSession(TenantContext.require(FEATURE), courseId, sessionId);
+    }
+
+    @Operation(summary = "Registrar asistencia",
+            description = "Reemplaza el estado de los alumnos enviados; el resto de la sesión no cambia. "
+                    + "Un alumno sin registros previos en el curso debe estar matriculado (ENROLLED).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Totales de la sesión"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos o alumnos sin matrícula",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Sesión inexistente en el curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PutMapping("/sessions/{sessionId}/marks")
+    public ClassSession mark(@PathVariable long courseId, @PathVariable long sessionId,
+                             @Valid @RequestBody MarkRequest marks, HttpServletRequest request) {
+        Map<Long, AttendanceStatus> byStudent = new LinkedHashMap<>();
+        marks.marks().forEach(mark -> byStudent.put(mark.studentId(), mark.status()));
+        long tenantId = TenantContext.require(FEATURE);
+        return attendanceService.mark(tenantId, courseId, sessionId, byStudent, request.getRemoteUser());
+    }
+
+    @Operation(summary = "Check-in de un alumno",
+            description = "Los check-ins de la sesión se escriben de a lote cada pocos milisegundos; la respuesta "
+                    + "llega después de que el lote quedó confirmado. PRESENT, o LATE pasado el margen de atraso. "
+                    + "Un toque repetido responde 200 con el estado ya registrado.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Registrado"),
+            @ApiResponse(responseCode = "200", description = "Ya tenía check-in en la sesión"),
+            @ApiResponse(responseCode = "400", description = "El alumno no está matriculado en el curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Sesión inexistente en el curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "503", description = "Buffer lleno o sin confirmación a tiempo; reintentar",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/sessions/{sessionId}/check-ins")
+    public CompletableFuture<ResponseEntity<?>> checkIn(@PathVariable long courseId, @PathVariable long sessionId,
+                                                        @Valid @RequestBody CheckInRequest checkIn,
+                                                        HttpServletRequest request) {
+        String path = request.getRequestURI();
+        CompletableFuture<CheckInReceipt> ack;
+        try {
+            ack = checkInBuffer.submit(TenantContext.require(FEATURE), courseId, sessionId, checkIn.studentId());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(unavailable(path, e.getMessage()));
+        }
+        // copy(): un toque repetido comparte el future del primero y el timeout es de cada request
+        return ack.copy().orTimeout(checkInBuffer.ackTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((receipt, error) -> {
+                    if (error == null) {
+                        return switch (receipt.result()) {
+                            case CHECKED_IN -> ResponseEntity.status(HttpStatus.CREATED).body(receipt);
+                            case ALREADY_CHECKED_IN -> ResponseEntity.ok(receipt);
+                            case NOT_ENROLLED -> badRequest(path, "El alumno " + checkIn.studentId()
+                                    + " no está matriculado en el curso " + courseId + ".");
+                        };
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        return unavailable(path, "El check-in no se confirmó a tiempo; reintentar.");
+                    }
+                    // NotFound y demás van al GlobalExceptionHandler en el dispatch asíncrono
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(cause);
+                });
+    }
+
+    @Operation(summary = "Historial de asistencia de un alumno en el curso",
+            description = "Una entrada por sesión del rango [from, to), sin status si no fue registrado.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Curso o alumno inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/students/{studentId}")
+    public StudentAttendance studentHistory(@PathVariable long courseId, @PathVariable long studentId,
+                                            @RequestParam(required = false) Instant from,
+                                            @RequestParam(required = false) Instant to) {
+        return attendanceService.studentHistory(TenantContext.require(FEATURE), courseId, studentId, from, to);
+    }
+
+    // Respuestas esperadas en una ráfaga de check-ins: se arman acá, sin lanzar una excepción por request
+    private static ResponseEntity<ApiError> badRequest(String path, String message) {
+        ApiError body = ApiError.of(HttpStatus.BAD_REQUEST.value(), ErrorCode.BAD_REQUEST, message, path);
+        log.warn("400 BAD_REQUEST path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary());
+        return ResponseEntity.badRequest().body(body);
+    }
+
+    private static ResponseEntity<ApiError> unavailable(String path, String message) {
+        ApiError body = ApiError.of(HttpStatus.SERVICE_UNAVAILABLE.value(), ErrorCode.INTERNAL_ERROR, message, path);
+        log.warn("503 SERVICE_UNAVAILABLE path={} errorId={}", path, body.errorId());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(body);
+    }
+}
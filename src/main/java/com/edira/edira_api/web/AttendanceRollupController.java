@@ -0,0 +1,117 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.domain.attendance.AttendanceRollup;
+import com.edira.edira_api.domain.attendance.AttendanceRollup.Point;
+import com.edira.edira_api.domain.attendance.RollupGranularity;
+import com.edira.edira_api.service.attendance.AttendanceRollupService;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Totales de asistencia para dashboards. Se leen ya sumados de attendance_rollup; la respuesta
+ * lleva ETag y un If-None-Match que coincide responde 304 sin cuerpo.
+ */
+@RestController
+@Tag(name = "attendance")
+@SecurityRequirement(name = "basicAuth")
+public class AttendanceRollupController {
+
+    private static final String FEATURE = "la asistencia";
+
+    // El dashboard puede guardar la respuesta pero la revalida siempre: la asistencia cambia durante la clase
+    private static final CacheControl CACHE = CacheControl.noCache().cachePrivate();
+
+    private final AttendanceRollupService rollupService;
+
+    public AttendanceRollupController(AttendanceRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @Operation(summary = "Totales de asistencia del tenant por período",
+            description = "Suma de todos los cursos. Rango [from, to] sobre el inicio del período.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado")
+    })
+    @GetMapping("/attendance/rollups")
+    public ResponseEntity<AttendanceRollup> tenant(
+            @RequestParam(defaultValue = "WEEK") RollupGranularity granularity,
+            @Parameter(example = "2025-03-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(example = "2025-07-31") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return withETag(rollupService.tenant(TenantContext.require(FEATURE), granularity, from, to));
+    }
+
+    @Operation(summary = "Totales de asistencia de un curso por período",
+            description = "Rango [from, to] sobre el inicio del período.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/courses/{courseId}/attendance/rollups")
+    public ResponseEntity<AttendanceRollup> course(
+            @PathVariable long courseId,
+            @RequestParam(defaultValue = "WEEK") RollupGranularity granularity,
+            @Parameter(example = "2025-03-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(example = "2025-07-31") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return withETag(rollupService.course(TenantContext.require(FEATURE), courseId, granularity, from, to));
+    }
+
+    @Operation(summary = "Totales de asistencia de un alumno por período",
+            description = "Suma de todos sus cursos del tenant; por WEEK, MONTH o TERM (el detalle por sesión "
+                    + "está en /courses/{courseId}/attendance/students/{studentId}).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado"),
+            @ApiResponse(responseCode = "400", description = "Granularidad DAY",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Alumno inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/students/{studentId}/attendance/rollups")
+    public ResponseEntity<AttendanceRollup> student(
+            @PathVariable long studentId,
+            @RequestParam(defaultValue = "WEEK") RollupGranularity granularity,
+            @Parameter(example = "2025-03-01") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(example = "2025-07-31") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return withETag(rollupService.student(TenantContext.require(FEATURE), studentId, granularity, from, to));
+    }
+
+    // Spring compara el ETag con If-None-Match y responde 304 solo (HttpEntityMethodProcessor)
+    private static ResponseEntity<AttendanceRollup> withETag(AttendanceRollup rollup) {
+        return ResponseEntity.ok().eTag(etag(rollup)).cacheControl(CACHE).body(rollup);
+    }
+
+    /** Hash de 64 bits del contenido: igual mientras los totales no cambien. */
+    static String etag(AttendanceRollup rollup) {
+        long hash = 1125899906842597L;
+        hash = 31 * hash + rollup.scope().ordinal();
+        hash = 31 * hash + rollup.id();
+        hash = 31 * hash + rollup.granularity().ordinal();
+        for (Point point : rollup.points()) {
+            hash = 31 * hash + point.periodStart().toEpochDay();
+            hash = 31 * hash + point.present();
+            hash = 31 * hash + point.absent();
+            hash = 31 * hash + point.late();
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+}
@@ -0,0 +1,52 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.NotFoundException;
+import com.edira.edira_api.web.batch.BatchDispatcher;
+import com.edira.edira_api.web.batch.BatchRequest;
+import com.edira.edira_api.web.batch.BatchResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Tag(name = "batch")
+public class BatchController {
+
+    private final ObjectProvider<BatchDispatcher> dispatcher;
+
+    public BatchController(ObjectProvider<BatchDispatcher> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Operation(summary = "Varias operaciones en un round trip",
+            description = "Cada operación pasa por el mismo controller, validación y manejo de errores que una llamada "
+                    + "directa, con el usuario autenticado del batch y las mismas reglas de acceso. "
+                    + "Cada resultado trae su propio status y, si falló, su ApiError.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Resultados por operación (aunque alguna haya fallado)"),
+            @ApiResponse(responseCode = "400", description = "Batch inválido (vacío, demasiadas operaciones, /batch anidado)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @SecurityRequirement(name = "basicAuth")
+    @PostMapping("/batch")
+    public BatchResponse batch(@Valid @RequestBody BatchRequest batch, HttpServletRequest request,
+                               HttpServletResponse response) {
+        BatchDispatcher batchDispatcher = dispatcher.getIfAvailable();
+        if (batchDispatcher == null) {
+            throw new NotFoundException("El endpoint /batch está deshabilitado.");
+        }
+        return batchDispatcher.execute(batch, request, response);
+    }
+}
@@ -0,0 +1,152 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.domain.course.Course;
+import com.edira.edira_api.domain.course.Enrollment;
+import com.edira.edira_api.persistence.diagnostics.SqlRequestContext;
+import com.edira.edira_api.service.course.EnrollmentOutcome;
+import com.edira.edira_api.service.course.EnrollmentService;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ErrorCode;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.edira.edira_api.web.course.CapacityRequest;
+import com.edira.edira_api.web.course.CourseCreateRequest;
+import com.edira.edira_api.web.course.EnrollRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/courses")
+@Tag(name = "courses")
+@SecurityRequirement(name = "basicAuth")
+public class CourseController {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseController.class);
+    private static final String FEATURE = "cursos y matrículas";
+
+    private final EnrollmentService enrollmentService;
+
+    public CourseController(EnrollmentService enrollmentService) {
+        this.enrollmentService = enrollmentService;
+    }
+
+    @Operation(summary = "Crear un curso", description = "Requiere X-Tenant-Id.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Creado"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos, cupo sobre el máximo o falta X-Tenant-Id",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "Ya existe un curso con ese código",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping
+    public ResponseEntity<Course> create(@Valid @RequestBody CourseCreateRequest create, HttpServletRequest request) {
+        Course course = enrollmentService.createCourse(TenantContext.require(FEATURE), create.code(), create.name(),
+                create.capacity(), request.getRemoteUser());
+        return ResponseEntity.created(URI.create("/courses/" + course.id())).body(course);
+    }
+
+    @Operation(summary = "Curso con cupo, matriculados y lista de espera")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "No existe (o es de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/{id}")
+    public Course get(@PathVariable long id) {
+        return enrollmentService.getCourse(TenantContext.require(FEATURE), id);
+    }
+
+    @Operation(summary = "Cambiar el cupo",
+            description = "Los asientos nuevos pasan primero a la lista de espera, en orden de llegada.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "No existe (o es de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "Hay más matriculados que el cupo pedido",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PutMapping("/{id}/capacity")
+    public Course changeCapacity(@PathVariable long id, @Valid @RequestBody CapacityRequest capacity,
+                                 HttpServletRequest request) {
+        long tenantId = TenantContext.require(FEATURE);
+        return enrollmentService.changeCapacity(tenantId, id, capacity.capacity(), request.getRemoteUser());
+    }
+
+    @Operation(summary = "Matricular a un alumno",
+            description = "201 con la matrícula nueva (ENROLLED con asiento, o WAITLISTED con su posición); "
+                    + "200 si el alumno ya estaba. Sin cupo y con waitlist=false responde 409 sin guardar nada.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Matriculado o en lista de espera"),
+            @ApiResponse(responseCode = "200", description = "Ya estaba matriculado o esperando"),
+            @ApiResponse(responseCode = "404", description = "Curso o alumno inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "Curso sin cupo (waitlist=false)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/{id}/enrollments")
+    public ResponseEntity<?> enroll(@PathVariable long id, @Valid @RequestBody EnrollRequest enroll,
+                                    HttpServletRequest request) {
+        boolean waitlist = enroll.waitlist() == null || enroll.waitlist();
+        long tenantId = TenantContext.require(FEATURE);
+        EnrollmentOutcome outcome = enrollmentService.enroll(tenantId, id, enroll.studentId(), waitlist,
+                request.getRemoteUser());
+        return switch (outcome.result()) {
+            case CREATED -> ResponseEntity
+                    .created(URI.create("/courses/" + id + "/enrollments/" + enroll.studentId()))
+                    .body(outcome.enrollment());
+            case EXISTING -> ResponseEntity.ok(outcome.enrollment());
+            // Caso esperado en una apertura de matrículas: se arma el 409 acá, sin lanzar una excepción por request
+            case FULL -> {
+                String path = request.getRequestURI();
+                ApiError body = ApiError.of(HttpStatus.CONFLICT.value(), ErrorCode.CONFLICT,
+                        "El curso " + id + " no tiene cupo.", path);
+                log.warn("409 CONFLICT path={} errorId={} sql={}", path, body.errorId(), SqlRequestContext.summary());
+                yield ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+            }
+        };
+    }
+
+    @Operation(summary = "Matrícula de un alumno en el curso")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Sin matrícula",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/{id}/enrollments/{studentId}")
+    public Enrollment getEnrollment(@PathVariable long id, @PathVariable long studentId) {
+        return enrollmentService.getEnrollment(TenantContext.require(FEATURE), id, studentId);
+    }
+
+    @Operation(summary = "Dar de baja una matrícula",
+            description = "El asiento pasa en el acto al primero de la lista de espera.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Dada de baja"),
+            @ApiResponse(responseCode = "404", description = "Sin matrícula",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @DeleteMapping("/{id}/enrollments/{studentId}")
+    public ResponseEntity<Void> drop(@PathVariable long id, @PathVariable long studentId) {
+        enrollmentService.drop(TenantContext.require(FEATURE), id, studentId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.domain.gradebook.CourseFormula;
+import com.edira.edira_api.domain.gradebook.CourseStanding;
+import com.edira.edira_api.domain.gradebook.Evaluation;
+import com.edira.edira_api.domain.gradebook.FinalGrade;
+import com.edira.edira_api.domain.gradebook.FinalGradeRun;
+import com.edira.edira_api.domain.gradebook.GradeBatch;
+import com.edira.edira_api.domain.gradebook.StudentGrades;
+import com.edira.edira_api.service.gradebook.GradebookService;
+import com.edira.edira_api.service.gradebook.GradingFormulaService;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.edira.edira_api.web.gradebook.EvaluationRequest;
+import com.edira.edira_api.web.gradebook.FormulaRequest;
+import com.edira.edira_api.web.gradebook.GradesRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/courses/{courseId}")
+@Tag(name = "gradebook")
+@SecurityRequirement(name = "basicAuth")
+public class GradebookController {
+
+    private static final String FEATURE = "las notas";
+
+    private final GradebookService gradebookService;
+    private final GradingFormulaService formulaService;
+
+    public GradebookController(GradebookService gradebookService,
+                               GradingFormulaService formulaService) {
+        this.gradebookService = gradebookService;
+        this.formulaService = formulaService;
+    }
+
+    @Operation(summary = "Crear una evaluación", description = "Requiere X-Tenant-Id.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Creada"),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "El curso ya tiene una evaluación con ese código",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/evaluations")
+    public ResponseEntity<Evaluation> createEvaluation(@PathVariable long courseId,
+                                                       @Valid @RequestBody EvaluationRequest create,
+                                                       HttpServletRequest request) {
+        long tenantId = TenantContext.require(FEATURE);
+        Evaluation evaluation = gradebookService.createEvaluation(tenantId, courseId, create.code(),
+                create.name(), create.weight(), request.getRemoteUser());
+        return ResponseEntity.created(URI.create("/courses/" + courseId + "/evaluations/" + evaluation.id()))
+                .body(evaluation);
+    }
+
+    @Operation(summary = "Evaluaciones del curso")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/evaluations")
+    public List<Evaluation> listEvaluations(@PathVariable long courseId) {
+        return gradebookService.listEvaluations(TenantContext.require(FEATURE), courseId);
+    }
+
+    @Operation(summary = "Cambiar una evaluación",
+            description = "Un peso nuevo ajusta los promedios de todos los alumnos con nota en ella.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Evaluación inexistente en el curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "El curso ya tiene una evaluación con ese código",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PutMapping("/evaluations/{evaluationId}")
+    public Evaluation updateEvaluation(@PathVariable long courseId, @PathVariable long evaluationId,
+                                       @Valid @RequestBody EvaluationRequest update, HttpServletRequest request) {
+        return gradebookService.updateEvaluation(TenantContext.require(FEATURE), courseId, evaluationId, update.code(),
+                update.name(), update.weight(), request.getRemoteUser());
+    }
+
+    @Operation(summary = "Cargar notas de una evaluación",
+            description = "Para uno o todos los alumnos del curso en una sola escritura; reemplaza la nota que "
+                    + "tuvieran. Todos deben estar matriculados (ENROLLED).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Notas recibidas y cuántas cambiaron"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos o alumnos sin matrícula",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Evaluación inexistente en el curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PutMapping("/evaluations/{evaluationId}/grades")
+    public GradeBatch recordGrades(@PathVariable long courseId, @PathVariable long evaluationId,
+                                   @Valid @RequestBody GradesRequest grades, HttpServletRequest request) {
+        Map<Long, Integer> scores = new LinkedHashMap<>();
+        grades.grades().forEach(grade -> scores.put(grade.studentId(), grade.score().movePointRight(1).intValueExact()));
+        return gradebookService.recordGrades(TenantContext.require(FEATURE), courseId, evaluationId, scores,
+                request.getRemoteUser());
+    }
+
+    @Operation(summary = "Notas, promedio y posición de un alumno en el curso",
+            description = "Sin notas no hay promedio ni posición. Los promedios que redondean a la misma "
+                    + "centésima comparten puesto.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Curso o alumno inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/gradebook/students/{studentId}")
+    public StudentGrades studentGrades(@PathVariable long courseId, @PathVariable long studentId) {
+        return gradebookService.studentGrades(TenantContext.require(FEATURE), courseId, studentId);
+    }
+
+    @Operation(summary = "Ranking del curso", description = "Alumnos con promedio, mediana y los primeros puestos.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "limit fuera de rango",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/gradebook/ranking")
+    public CourseStanding ranking(@PathVariable long courseId, @RequestParam(defaultValue = "10") int limit) {
+        return gradebookService.standing(TenantContext.require(FEATURE), courseId, limit);
+    }
+
+    @Operation(summary = "Guardar la fórmula de nota final",
+            description = "Se valida contra las evaluaciones del curso y queda como versión nueva. "
+                    + "Una nota faltante se propaga salvo en avg, wavg, dropLowest, count, has e ifMissing.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Guardada, con su versión"),
+            @ApiResponse(responseCode = "400", description = "Fórmula inválida: un detalle por error con su columna",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PutMapping("/grading-formula")
+    public CourseFormula saveFormula(@PathVariable long courseId, @Valid @RequestBody FormulaRequest formula,
+                                     HttpServletRequest request) {
+        long tenantId = TenantContext.require(FEATURE);
+        return formulaService.saveFormula(tenantId, courseId, formula.formula(), request.getRemoteUser());
+    }
+
+    @Operation(summary = "Fórmula de nota final vigente")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente o sin fórmula",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/grading-formula")
+    public CourseFormula getFormula(@PathVariable long courseId) {
+        return formulaService.getFormula(TenantContext.require(FEATURE), courseId);
+    }
+
+    @Operation(summary = "Recalcular las notas finales del curso",
+            description = "Con la fórmula vigente, para todos los alumnos matriculados. Para muchos cursos, "
+                    + "el job final-grade-recompute.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Recalculadas"),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente o sin fórmula",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/final-grades/recompute")
+    public FinalGradeRun recompute(@PathVariable long courseId) {
+        return formulaService.recompute(TenantContext.require(FEATURE), courseId);
+    }
+
+    @Operation(summary = "Notas finales del último recálculo")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Curso inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/final-grades")
+    public List<FinalGrade> finalGrades(@PathVariable long courseId) {
+        return formulaService.finalGrades(TenantContext.require(FEATURE), courseId);
+    }
+}
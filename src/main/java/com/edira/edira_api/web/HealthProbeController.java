@@ -0,0 +1,54 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.shared.health.HealthChecker;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/health")
+@Tag(name = "health")
+public class HealthProbeController {
+
+    private final HealthChecker checker;
+
+    public HealthProbeController(HealthChecker checker) {
+        this.checker = checker;
+    }
+
+    @Operation(summary = "Liveness", description = "No consulta la base: solo indica si el proceso está sano")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "UP"),
+            @ApiResponse(responseCode = "503", description = "DOWN (estado BROKEN)")
+    })
+    @GetMapping(path = "/live", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> live() {
+        return respond(checker.liveness());
+    }
+
+    @Operation(summary = "Readiness",
+            description = "Último chequeo en background de MySQL, Flyway y el pool (y réplica si está habilitado). "
+                    + "No hace un round trip a la base por probe")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Listo para recibir tráfico"),
+            @ApiResponse(responseCode = "503", description = "No listo: dependencia caída, pool saturado, chequeo viejo o apagándose")
+    })
+    @GetMapping(path = "/ready", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> ready() {
+        return respond(checker.readiness());
+    }
+
+    private static ResponseEntity<byte[]> respond(HealthChecker.Probe probe) {
+        return ResponseEntity.status(probe.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noStore())
+                .body(probe.body());
+    }
+}
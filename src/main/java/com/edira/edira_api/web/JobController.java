@@ -0,0 +1,113 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.persistence.job.JobRecord;
+import com.edira.edira_api.persistence.job.JobRepository;
+import com.edira.edira_api.service.job.JobService;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.web.job.JobSubmitRequest;
+import com.edira.edira_api.web.job.JobView;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/jobs")
+@Tag(name = "jobs")
+public class JobController {
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @Operation(summary = "Encolar un job",
+            description = "Responde 202 de inmediato con Location /jobs/{id}; el job corre en segundo plano.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Encolado"),
+            @ApiResponse(responseCode = "400", description = "Tipo desconocido o request inválido",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @SecurityRequirement(name = "basicAuth")
+    @PostMapping
+    public ResponseEntity<JobView> submit(@Valid @RequestBody JobSubmitRequest submit, HttpServletRequest request) {
+        JobRecord job = jobService.submit(submit.type(), submit.payload(), request.getRemoteUser());
+        return ResponseEntity.accepted().location(URI.create("/jobs/" + job.id())).body(JobView.from(job));
+    }
+
+    @Operation(summary = "Estado y avance de un job")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "No existe (o es de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @SecurityRequirement(name = "basicAuth")
+    @GetMapping("/{id}")
+    public JobView get(@PathVariable long id) {
+        return JobView.from(jobService.get(id));
+    }
+
+    @Operation(summary = "Cancelar un job",
+            description = "Un job en cola queda CANCELLED de inmediato; uno corriendo se detiene en su próximo punto de corte.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Cancelación registrada"),
+            @ApiResponse(responseCode = "404", description = "No existe (o es de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "El job ya terminó",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @SecurityRequirement(name = "basicAuth")
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<JobView> cancel(@PathVariable long id) {
+        return ResponseEntity.accepted().body(JobView.from(jobService.cancel(id)));
+    }
+
+    @Operation(summary = "Descargar el resultado de un job")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Archivo generado por el job",
+                    content = @Content(mediaType = "application/octet-stream")),
+            @ApiResponse(responseCode = "404", description = "No existe o terminó sin archivo",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "El job no terminó con éxito",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @SecurityRequirement(name = "basicAuth")
+    @GetMapping("/{id}/result")
+    public ResponseEntity<byte[]> result(@PathVariable long id) {
+        JobRepository.StoredResult result = jobService.result(id);
+        MediaType contentType = result.contentType() == null
+                ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(result.contentType());
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("job-" + id + extension(contentType)).build().toString())
+                .body(result.body());
+    }
+
+    private static String extension(MediaType contentType) {
+        return switch (contentType.getSubtype()) {
+            case "csv" -> ".csv";
+            case "json" -> ".json";
+            case "x-ndjson" -> ".ndjson";
+            default -> "";
+        };
+    }
+}
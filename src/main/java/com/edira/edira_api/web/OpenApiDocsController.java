@@ -0,0 +1,112 @@
+package com.edira.edira_api.web;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Sirve el OpenAPI generado en build (src/main/resources/openapi, comprimido por antrun)
+ * en las mismas rutas que springdoc. Se activa en prod junto con springdoc.api-docs.enabled=false,
+ * así no hay escaneo de controllers en runtime. Los bytes y los ETag (uno por codificación) se
+ * calculan una vez.
+ */
+@Hidden
+@RestController
+@ConditionalOnProperty(prefix = "edira.openapi", name = "static-docs", havingValue = "true")
+public class OpenApiDocsController {
+
+    private static final MediaType YAML = MediaType.parseMediaType("application/vnd.oai.openapi");
+    private static final CacheControl CACHE = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    private final StaticDoc json = StaticDoc.load("openapi/openapi.json", MediaType.APPLICATION_JSON);
+    private final StaticDoc yaml = StaticDoc.load("openapi/openapi.yaml", YAML);
+
+    @GetMapping("/v3/api-docs")
+    public ResponseEntity<byte[]> json(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return json.serve(ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping("/v3/api-docs.yaml")
+    public ResponseEntity<byte[]> yaml(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return yaml.serve(ifNoneMatch, acceptEncoding);
+    }
+
+    // Cada codificación tiene su ETag: los bytes gzip y los planos no son la misma representación
+    private record StaticDoc(byte[] plain, byte[] gzipped, String etag, String gzipEtag, MediaType mediaType) {
+
+        static StaticDoc load(String path, MediaType mediaType) {
+            byte[] plain = read(path);
+            ClassPathResource gz = new ClassPathResource(path + ".gz");
+            // Sin el .gz (p.ej. corriendo desde el IDE sin pasar por maven) se comprime al arrancar
+            byte[] gzipped = gz.exists() ? read(path + ".gz") : gzip(plain);
+            String hash = sha256(plain);
+            return new StaticDoc(plain, gzipped, "\"" + hash + "\"", "\"" + hash + "-gzip\"", mediaType);
+        }
+
+        ResponseEntity<byte[]> serve(String ifNoneMatch, String acceptEncoding) {
+            boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+            String tag = gzip ? gzipEtag : etag;
+            if (ifNoneMatch != null && (ifNoneMatch.contains(tag) || ifNoneMatch.trim().equals("*"))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).cacheControl(CACHE)
+                        .varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+            }
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(mediaType)
+                    .eTag(tag)
+                    .cacheControl(CACHE)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return builder.body(gzip ? gzipped : plain);
+        }
+
+        private static byte[] read(String path) {
+            try (InputStream in = new ClassPathResource(path).getInputStream()) {
+                return StreamUtils.copyToByteArray(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se encontró " + path + " en el classpath (¿se corrió el build?)", e);
+            }
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+
+        private static String sha256(byte[] data) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+                return HexFormat.of().formatHex(digest, 0, 16);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.domain.risk.StudentRisk;
+import com.edira.edira_api.service.risk.RiskScoringService;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Riesgo académico calculado por el job student-risk-scoring (POST /jobs).
+ */
+@RestController
+@Tag(name = "risk")
+@SecurityRequirement(name = "basicAuth")
+public class RiskController {
+
+    private static final String FEATURE = "el riesgo académico";
+
+    private final RiskScoringService riskService;
+
+    public RiskController(RiskScoringService riskService) {
+        this.riskService = riskService;
+    }
+
+    @Operation(summary = "Alumnos con más riesgo del tenant",
+            description = "Desde minScore, de mayor a menor puntaje. Los datos son los de la última corrida del job.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "minScore o limit fuera de rango",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/students/risk")
+    public List<StudentRisk> top(@RequestParam(defaultValue = "60") int minScore,
+                                 @RequestParam(defaultValue = "50") int limit) {
+        return riskService.top(TenantContext.require(FEATURE), minScore, limit);
+    }
+
+    @Operation(summary = "Riesgo de un alumno", description = "Puntaje y las señales que lo explican.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "Alumno sin puntaje (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/students/{studentId}/risk")
+    public StudentRisk student(@PathVariable long studentId) {
+        return riskService.risk(TenantContext.require(FEATURE), studentId);
+    }
+}
@@ -0,0 +1,175 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.service.roster.RosterImportReport;
+import com.edira.edira_api.service.roster.RosterImportService;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ErrorCode;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.SchemaProperty;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.apache.tomcat.util.http.fileupload.impl.FileUploadIOException;
+import org.apache.tomcat.util.http.fileupload.impl.SizeException;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import static com.edira.edira_api.web.StudentImportController.NDJSON;
+
+/*
+ * El multipart se lee como stream con el parser de Tomcat (FileItemIterator) en vez de
+ * MultipartFile: MultipartFile exige que el archivo completo esté en disco o memoria antes de
+ * llegar al controller. Por eso spring.servlet.multipart.resolve-lazily=true. Como Spring no
+ * parsea este request, los topes spring.servlet.multipart.max-file-size / max-request-size se
+ * aplican acá al parser.
+ */
+@RestController
+@Tag(name = "students")
+public class RosterImportController {
+
+    static final String FILE_PART = "file";
+
+    private static final Logger log = LoggerFactory.getLogger(RosterImportController.class);
+
+    private final RosterImportService importService;
+    private final ObjectMapper objectMapper;
+    private final MultipartProperties multipart;
+
+    public RosterImportController(RosterImportService importService, ObjectMapper objectMapper,
+                                  MultipartProperties multipart) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+        this.multipart = multipart;
+    }
+
+    @Operation(summary = "Carga de nómina CSV (alumnos y matrículas)",
+            description = "multipart/form-data con la parte \"file\": CSV con encabezado email, first_name, last_name "
+                    + "y opcionalmente external_id y course_code. Se procesa a medida que llega, por lotes de "
+                    + "edira.ingest.batch-size filas (una transacción por lote). La respuesta es NDJSON: "
+                    + "{\"row\":{...}} por fila rechazada, {\"progress\":{...}} por lote confirmado y una última "
+                    + "línea {\"summary\":{...}}. Requiere X-Tenant-Id.",
+            requestBody = @RequestBody(required = true, content = @Content(mediaType = MediaType.MULTIPART_FORM_DATA_VALUE,
+                    schema = @Schema(type = "object"),
+                    schemaProperties = @SchemaProperty(name = FILE_PART,
+                            schema = @Schema(type = "string", format = "binary")))))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Avance y filas rechazadas (aunque haya filas inválidas)",
+                    content = @Content(mediaType = NDJSON,
+                            schema = @Schema(implementation = RosterImportReport.Progress.class))),
+            @ApiResponse(responseCode = "400", description = "Falta X-Tenant-Id, la parte \"file\" o columnas del encabezado",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "413", description = "El CSV o el request superan spring.servlet.multipart.max-file-size / max-request-size",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @SecurityRequirement(name = "basicAuth")
+    @PostMapping(path = "/rosters/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public void importRoster(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long tenantId = TenantContext.require("la carga masiva");
+        try (InputStream file = filePart(request)) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(NDJSON);
+            response.setCharacterEncoding("UTF-8");
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try {
+                RosterImportReport.Progress summary = importService.importCsv(tenantId, request.getRemoteUser(), file,
+                        new RosterImportService.Sink() {
+                            @Override
+                            public void rowError(RosterImportReport.RowError error) throws IOException {
+                                writeLine(generator, Map.of("row", error));
+                            }
+
+                            @Override
+                            public void progress(RosterImportReport.Progress progress) throws IOException {
+                                writeLine(generator, Map.of("progress", progress));
+                                generator.flush();
+                            }
+                        });
+                writeLine(generator, Map.of("summary", summary));
+            } catch (FileUploadIOException e) {
+                if (!(e.getCause() instanceof SizeException size)) {
+                    throw e;
+                }
+                if (!response.isCommitted()) {
+                    throw tooLarge(size);
+                }
+                // El tope se pasó a mitad de archivo, con avance ya enviado: el 413 va como última línea
+                ApiError body = ApiError.of(HttpStatus.PAYLOAD_TOO_LARGE.value(), ErrorCode.BAD_REQUEST,
+                        "El archivo supera el tamaño máximo (" + size.getPermittedSize() + " bytes); los lotes informados "
+                                + "en progress antes de este error quedaron confirmados.", request.getRequestURI());
+                log.warn("413 BAD_REQUEST path={} errorId={} (nómina cortada)", body.path(), body.errorId());
+                writeLine(generator, Map.of("error", body));
+            } catch (RuntimeException e) {
+                if (!response.isCommitted()) {
+                    throw e;
+                }
+                // Ya salió avance: no se puede cambiar el status, el error va como última línea
+                ApiError body = ApiError.of(HttpStatus.INTERNAL_SERVER_ERROR.value(), ErrorCode.INTERNAL_ERROR,
+                        "La carga se interrumpió; los lotes informados en progress antes de este error quedaron confirmados.",
+                        request.getRequestURI());
+                log.error("500 INTERNAL_ERROR path={} errorId={} (nómina interrumpida)", body.path(), body.errorId(), e);
+                writeLine(generator, Map.of("error", body));
+            }
+            generator.close();
+        }
+    }
+
+    // Avanza por las partes hasta "file" sin leer su contenido; las partes anteriores se descartan
+    private InputStream filePart(HttpServletRequest request) throws IOException {
+        FileUpload upload = new FileUpload();
+        upload.setSizeMax(multipart.getMaxRequestSize().toBytes());
+        upload.setFileSizeMax(multipart.getMaxFileSize().toBytes());
+        try {
+            FileItemIterator parts = upload.getItemIterator(new ServletRequestContext(request));
+            while (parts.hasNext()) {
+                FileItemStream part = parts.next();
+                if (!part.isFormField() && FILE_PART.equals(part.getFieldName())) {
+                    return part.openStream();
+                }
+            }
+        } catch (SizeException e) {
+            throw tooLarge(e);
+        } catch (FileUploadIOException e) {
+            if (e.getCause() instanceof SizeException size) {
+                throw tooLarge(size);
+            }
+            throw e;
+        } catch (FileUploadException e) {
+            throw new IllegalArgumentException("multipart/form-data inválido: " + e.getMessage(), e);
+        }
+        throw new IllegalArgumentException("Falta la parte \"" + FILE_PART + "\" con el CSV.");
+    }
+
+    private static MaxUploadSizeExceededException tooLarge(SizeException e) {
+        return new MaxUploadSizeExceededException(e.getPermittedSize(), e);
+    }
+
+    private static void writeLine(JsonGenerator generator, Object value) throws IOException {
+        generator.writeObject(value);
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,131 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.domain.timetable.CourseSection;
+import com.edira.edira_api.service.timetable.SectionService;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.edira.edira_api.web.timetable.SectionRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Secciones de curso con horario fijo. Crear o cambiar una sección que choca con otra en la misma
+ * sala o con el mismo profesor responde 409 CONFLICT con una entrada en {@code details} por choque.
+ */
+@RestController
+@Tag(name = "sections")
+@SecurityRequirement(name = "basicAuth")
+public class SectionController {
+
+    private static final String FEATURE = "las secciones";
+
+    private final SectionService sectionService;
+
+    public SectionController(SectionService sectionService) {
+        this.sectionService = sectionService;
+    }
+
+    @Operation(summary = "Crear una sección del curso")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Creada"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos (start no es anterior a end) o falta X-Tenant-Id",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Curso, sala o profesor inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "Choca con otras secciones (en details) o el código ya existe en el curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/courses/{courseId}/sections")
+    public ResponseEntity<CourseSection> create(@PathVariable long courseId, @Valid @RequestBody SectionRequest create,
+                                                HttpServletRequest request) {
+        long tenantId = TenantContext.require(FEATURE);
+        CourseSection section = sectionService.create(tenantId, courseId, create.code(), create.day(),
+                create.start(), create.end(), create.roomId(), create.teacherId(), request.getRemoteUser());
+        return ResponseEntity.created(URI.create("/sections/" + section.id())).body(section);
+    }
+
+    @Operation(summary = "Una sección")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "No existe (o es de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/sections/{id}")
+    public CourseSection get(@PathVariable long id) {
+        return sectionService.get(TenantContext.require(FEATURE), id);
+    }
+
+    @Operation(summary = "Cambiar horario, sala o profesor de una sección",
+            description = "Reemplaza todos los campos; la sección no choca consigo misma.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Sección, sala o profesor inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "Choca con otras secciones (en details) o el código ya existe en el curso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PutMapping("/sections/{id}")
+    public CourseSection update(@PathVariable long id, @Valid @RequestBody SectionRequest update,
+                                HttpServletRequest request) {
+        return sectionService.update(TenantContext.require(FEATURE), id, update.code(), update.day(), update.start(),
+                update.end(), update.roomId(), update.teacherId(), request.getRemoteUser());
+    }
+
+    @Operation(summary = "Borrar una sección")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Borrada"),
+            @ApiResponse(responseCode = "404", description = "No existe (o es de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @DeleteMapping("/sections/{id}")
+    public ResponseEntity<Void> delete(@PathVariable long id) {
+        sectionService.delete(TenantContext.require(FEATURE), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Secciones que chocarían con un horario",
+            description = "Revisa la sala y el profesor indicados sin guardar nada; vacío si el horario está libre.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Horario inválido",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Sala o profesor inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/sections/conflicts")
+    public List<CourseSection> conflicts(
+            @Parameter(example = "0") @RequestParam int day,
+            @Parameter(example = "08:30") @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime start,
+            @Parameter(example = "10:00") @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime end,
+            @RequestParam(required = false) Long roomId,
+            @RequestParam(required = false) Long teacherId,
+            @Parameter(description = "Sección que no cuenta (la que se está moviendo)")
+            @RequestParam(defaultValue = "0") long excludeSectionId) {
+        long tenantId = TenantContext.require(FEATURE);
+        return sectionService.conflicts(tenantId, day, start, end, roomId, teacherId, excludeSectionId);
+    }
+}
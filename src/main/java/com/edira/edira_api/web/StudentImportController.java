@@ -0,0 +1,100 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.service.student.StudentImportResult;
+import com.edira.edira_api.service.student.StudentImportService;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ErrorCode;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@Tag(name = "students")
+public class StudentImportController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final Logger log = LoggerFactory.getLogger(StudentImportController.class);
+
+    private final StudentImportService importService;
+    private final ObjectMapper objectMapper;
+
+    public StudentImportController(StudentImportService importService, ObjectMapper objectMapper) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Operation(summary = "Carga masiva de alumnos (NDJSON)",
+            description = "Un alumno por línea ({externalId, firstName, lastName, email}). Cada línea se valida por "
+                    + "separado y las válidas se insertan por lotes; la respuesta es NDJSON con un resultado por línea "
+                    + "(CREATED, DUPLICATE o INVALID con sus errores) a medida que se confirma cada lote, y una última "
+                    + "línea {\"summary\":{...}}. Requiere X-Tenant-Id.",
+            requestBody = @RequestBody(required = true, content = @Content(mediaType = NDJSON,
+                    schema = @Schema(implementation = StudentImportService.Line.class))))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Resultados por línea (aunque haya líneas inválidas)",
+                    content = @Content(mediaType = NDJSON, schema = @Schema(implementation = StudentImportResult.class))),
+            @ApiResponse(responseCode = "400", description = "Falta X-Tenant-Id",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @SecurityRequirement(name = "basicAuth")
+    @PostMapping(path = "/students/import", consumes = NDJSON)
+    public void importStudents(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long tenantId = TenantContext.require("la carga masiva");
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            StudentImportResult.Summary summary = importService.importNdjson(tenantId, request.getRemoteUser(),
+                    request.getInputStream(), new StudentImportService.Sink() {
+                        @Override
+                        public void accept(StudentImportResult result) throws IOException {
+                            writeLine(generator, result);
+                        }
+
+                        @Override
+                        public void flush() throws IOException {
+                            generator.flush();
+                        }
+                    });
+            writeLine(generator, Map.of("summary", summary));
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                throw e;
+            }
+            // Ya salieron resultados: no se puede cambiar el status, el error va como última línea
+            ApiError body = ApiError.of(HttpStatus.INTERNAL_SERVER_ERROR.value(), ErrorCode.INTERNAL_ERROR,
+                    "La carga se interrumpió; las líneas informadas antes de este error quedaron confirmadas.",
+                    request.getRequestURI());
+            log.error("500 INTERNAL_ERROR path={} errorId={} (import interrumpido)", body.path(), body.errorId(), e);
+            writeLine(generator, Map.of("error", body));
+        }
+        generator.close();
+    }
+
+    private static void writeLine(JsonGenerator generator, Object value) throws IOException {
+        generator.writeObject(value);
+        generator.writeRaw('\n');
+    }
+}
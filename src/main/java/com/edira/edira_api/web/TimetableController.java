@@ -0,0 +1,151 @@
+package com.edira.edira_api.web;
+
+import com.edira.edira_api.domain.timetable.CourseTeaching;
+import com.edira.edira_api.domain.timetable.Room;
+import com.edira.edira_api.domain.timetable.Teacher;
+import com.edira.edira_api.domain.timetable.Timetable;
+import com.edira.edira_api.domain.timetable.TimetableProgress;
+import com.edira.edira_api.persistence.job.JobRecord;
+import com.edira.edira_api.service.job.JobService;
+import com.edira.edira_api.service.timetable.TimetableGenerateJob;
+import com.edira.edira_api.service.timetable.TimetableService;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.NotFoundException;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.edira.edira_api.web.timetable.RoomRequest;
+import com.edira.edira_api.web.timetable.TeacherRequest;
+import com.edira.edira_api.web.timetable.TeachingRequest;
+import com.edira.edira_api.web.timetable.TimetableEventStreams;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+
+/**
+ * Profesores, salas, carga semanal de los cursos y horarios generados por el job
+ * timetable-generate (POST /jobs).
+ */
+@RestController
+@Tag(name = "timetable")
+@SecurityRequirement(name = "basicAuth")
+public class TimetableController {
+
+    private static final String FEATURE = "los horarios";
+
+    private final TimetableService timetableService;
+    private final TimetableEventStreams eventStreams;
+    private final JobService jobService;
+
+    public TimetableController(TimetableService timetableService,
+                               TimetableEventStreams eventStreams,
+                               JobService jobService) {
+        this.timetableService = timetableService;
+        this.eventStreams = eventStreams;
+        this.jobService = jobService;
+    }
+
+    @Operation(summary = "Crear un profesor")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Creado"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos o falta X-Tenant-Id",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "Ya existe un profesor con ese código",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/teachers")
+    public ResponseEntity<Teacher> createTeacher(@Valid @RequestBody TeacherRequest create, HttpServletRequest request) {
+        Teacher teacher = timetableService.createTeacher(TenantContext.require(FEATURE), create.code(), create.name(),
+                request.getRemoteUser());
+        return ResponseEntity.created(URI.create("/teachers/" + teacher.id())).body(teacher);
+    }
+
+    @Operation(summary = "Crear una sala")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Creada"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos o falta X-Tenant-Id",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "Ya existe una sala con ese código",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PostMapping("/rooms")
+    public ResponseEntity<Room> createRoom(@Valid @RequestBody RoomRequest create, HttpServletRequest request) {
+        long tenantId = TenantContext.require(FEATURE);
+        Room room = timetableService.createRoom(tenantId, create.code(), create.name(), create.capacity(),
+                request.getRemoteUser());
+        return ResponseEntity.created(URI.create("/rooms/" + room.id())).body(room);
+    }
+
+    @Operation(summary = "Profesor y bloques semanales del curso",
+            description = "Solo los cursos con esto entran en el horario; cambia desde la próxima generación.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "weeklyLessons fuera de rango",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Curso o profesor inexistente (o de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @PutMapping("/courses/{courseId}/teaching")
+    public CourseTeaching assignTeaching(@PathVariable long courseId, @Valid @RequestBody TeachingRequest teaching,
+                                         HttpServletRequest request) {
+        return timetableService.assignTeaching(TenantContext.require(FEATURE), courseId, teaching.teacherId(),
+                teaching.weeklyLessons(), request.getRemoteUser());
+    }
+
+    @Operation(summary = "Horario vigente", description = "El último generado, con todos sus bloques.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "El tenant no tiene horarios",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/timetables/latest")
+    public Timetable latest() {
+        return timetableService.latest(TenantContext.require(FEATURE));
+    }
+
+    @Operation(summary = "Un horario generado, con todos sus bloques")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "404", description = "No existe (o es de otro tenant)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping("/timetables/{id}")
+    public Timetable get(@PathVariable long id) {
+        return timetableService.get(TenantContext.require(FEATURE), id);
+    }
+
+    @Operation(summary = "Avance de una generación (Server-Sent Events)",
+            description = "Un evento progress cada vez que mejora el mejor horario; el último trae el estado final "
+                    + "del job y, si terminó bien, timetableId. El stream se cierra solo.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream de eventos progress",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = TimetableProgress.class))),
+            @ApiResponse(responseCode = "404", description = "No existe, es de otro tenant o no es timetable-generate",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    })
+    @GetMapping(value = "/timetables/runs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable long jobId) {
+        long tenantId = TenantContext.require(FEATURE);
+        JobRecord job = jobService.get(jobId);
+        if (!TimetableGenerateJob.TYPE.equals(job.type())) {
+            throw new NotFoundException("El job " + jobId + " no es una generación de horario.");
+        }
+        return eventStreams.open(tenantId, jobId);
+    }
+}
@@ -0,0 +1,10 @@
+package com.edira.edira_api.web.attendance;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(name = "CheckInRequest")
+public record CheckInRequest(
+        @Schema(example = "42") @NotNull Long studentId
+) {
+}
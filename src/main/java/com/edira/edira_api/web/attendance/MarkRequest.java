@@ -0,0 +1,24 @@
+package com.edira.edira_api.web.attendance;
+
+import com.edira.edira_api.domain.attendance.AttendanceStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(name = "MarkRequest")
+public record MarkRequest(
+        @Schema(description = "Si un alumno aparece más de una vez queda el último estado")
+        @NotEmpty @Size(max = 5000) List<@Valid @NotNull Mark> marks
+) {
+
+    @Schema(name = "AttendanceMarkRequest")
+    public record Mark(
+            @Schema(example = "42") @NotNull Long studentId,
+            @NotNull AttendanceStatus status
+    ) {
+    }
+}
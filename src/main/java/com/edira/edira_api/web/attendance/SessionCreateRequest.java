@@ -0,0 +1,12 @@
+package com.edira.edira_api.web.attendance;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+
+@Schema(name = "SessionCreateRequest")
+public record SessionCreateRequest(
+        @Schema(description = "Inicio de la clase (UTC)", example = "2025-03-10T11:30:00Z") @NotNull Instant startsAt
+) {
+}
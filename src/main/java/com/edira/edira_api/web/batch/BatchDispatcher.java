@@ -0,0 +1,271 @@
+package com.edira.edira_api.web.batch;
+
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ErrorCode;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.servlet.Servlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.security.web.firewall.HttpFirewall;
+import org.springframework.security.web.firewall.RequestRejectedException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Ejecuta las operaciones de un {@link BatchRequest} pasando cada una por el DispatcherServlet
+ * (mismos controllers, validación, conversión y GlobalExceptionHandler), sin volver a recorrer
+ * la cadena de filtros: el principal ya está autenticado y cada ruta se autoriza con las mismas
+ * reglas de SecurityConfig vía {@link WebInvocationPrivilegeEvaluator}. Antes de autorizar, la
+ * ruta pasa por el mismo {@link HttpFirewall} que la cadena de filtros (rechaza {@code %2F},
+ * {@code ..}, {@code ;}, {@code //}...) y se autoriza la ruta ya decodificada que se despacha.
+ * <p>
+ * Los filtros propios de la app tampoco corren por operación: el tenant es el del request
+ * externo (TenantFilter ya lo resolvió), la Idempotency-Key aplica al POST /batch entero y las
+ * sentencias SQL cuentan en el request externo (las de lecturas en paralelo, que corren en otro
+ * hilo, no se cuentan).
+ * <ul>
+ *   <li>modo normal: los GET consecutivos corren en paralelo (virtual threads, con
+ *       SecurityContext y tenant propagados); las escrituras, en orden;</li>
+ *   <li>modo atómico: todo en orden en el hilo del request dentro de una transacción; la primera
+ *       operación con status &gt;= 400 la revierte y las siguientes no se ejecutan.</li>
+ * </ul>
+ */
+public class BatchDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchDispatcher.class);
+    private static final String BATCH_PATH = "/batch";
+
+    private final Servlet dispatcher;
+    private final WebInvocationPrivilegeEvaluator privilegeEvaluator;
+    private final HttpFirewall firewall;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchProperties properties;
+
+    public BatchDispatcher(Servlet dispatcher, WebInvocationPrivilegeEvaluator privilegeEvaluator, HttpFirewall firewall,
+                           ObjectMapper objectMapper, TransactionTemplate transactionTemplate, BatchProperties properties) {
+        this.dispatcher = dispatcher;
+        this.privilegeEvaluator = privilegeEvaluator;
+        this.firewall = firewall;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    public BatchResponse execute(BatchRequest batch, HttpServletRequest outer, HttpServletResponse outerResponse) {
+        List<BatchRequest.Operation> operations = batch.operations();
+        if (operations.size() > properties.maxOperations()) {
+            throw new IllegalArgumentException("Un batch admite hasta " + properties.maxOperations() + " operaciones.");
+        }
+        for (BatchRequest.Operation operation : operations) {
+            if (isBatchPath(operation.path())) {
+                throw new IllegalArgumentException("No se puede anidar /batch.");
+            }
+        }
+        return batch.atomic()
+                ? executeAtomic(operations, outer, outerResponse)
+                : executeConcurrentReads(operations, outer, outerResponse);
+    }
+
+    private BatchResponse executeConcurrentReads(List<BatchRequest.Operation> operations, HttpServletRequest outer,
+                                                 HttpServletResponse outerResponse) {
+        BatchResponse.Result[] results = new BatchResponse.Result[operations.size()];
+        int i = 0;
+        while (i < operations.size()) {
+            int end = i;
+            while (end < operations.size() && isRead(operations.get(end))) {
+                end++;
+            }
+            if (end - i > 1) {
+                runReadsInParallel(operations, i, end, outer, outerResponse, results);
+                i = end;
+            } else {
+                results[i] = dispatch(operations.get(i), outer, outerResponse);
+                i++;
+            }
+        }
+        return new BatchResponse(Arrays.asList(results), null);
+    }
+
+    private void runReadsInParallel(List<BatchRequest.Operation> operations, int from, int to,
+                                    HttpServletRequest outer, HttpServletResponse outerResponse,
+                                    BatchResponse.Result[] results) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        long tenantId = TenantContext.current();
+        Semaphore permits = new Semaphore(Math.max(1, properties.maxParallel()));
+        List<Future<BatchResponse.Result>> futures = new ArrayList<>(to - from);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = from; i < to; i++) {
+                BatchRequest.Operation operation = operations.get(i);
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    SecurityContextHolder.setContext(securityContext);
+                    TenantContext.set(tenantId);
+                    try {
+                        return dispatch(operation, outer, outerResponse);
+                    } finally {
+                        TenantContext.clear();
+                        SecurityContextHolder.clearContext();
+                        permits.release();
+                    }
+                }));
+            }
+            for (int i = from; i < to; i++) {
+                results[i] = await(futures.get(i - from), operations.get(i), outer);
+            }
+        }
+    }
+
+    private BatchResponse executeAtomic(List<BatchRequest.Operation> operations, HttpServletRequest outer,
+                                        HttpServletResponse outerResponse) {
+        List<BatchResponse.Result> results = new ArrayList<>(operations.size());
+        boolean committed;
+        try {
+            committed = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+                for (BatchRequest.Operation operation : operations) {
+                    BatchResponse.Result result = dispatch(operation, outer, outerResponse);
+                    results.add(result);
+                    if (result.status() >= 400) {
+                        tx.setRollbackOnly();
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        } catch (TransactionException e) {
+            // p.ej. un @Transactional interno marcó rollback-only: la transacción no se confirmó
+            log.warn("BATCH_ROLLBACK path={} reason={}", outer.getRequestURI(), e.toString());
+            committed = false;
+        }
+        for (int i = results.size(); i < operations.size(); i++) {
+            BatchRequest.Operation skipped = operations.get(i);
+            results.add(error(skipped, HttpStatus.FAILED_DEPENDENCY.value(), ErrorCode.CONFLICT,
+                    "No se ejecutó: una operación anterior falló y la transacción del batch se revirtió.", outer));
+        }
+        return new BatchResponse(results, committed);
+    }
+
+    private BatchResponse.Result dispatch(BatchRequest.Operation operation, HttpServletRequest outer,
+                                          HttpServletResponse outerResponse) {
+        String method = operation.method();
+        String path = operation.path();
+        HttpServletRequest request;
+        try {
+            request = firewall.getFirewalledRequest(new SubRequest(outer, method, path, bodyBytes(operation.body())));
+        } catch (RequestRejectedException e) {
+            return error(operation, HttpServletResponse.SC_BAD_REQUEST, ErrorCode.BAD_REQUEST, "Ruta inválida.", outer);
+        } catch (IOException e) {
+            return error(operation, HttpServletResponse.SC_BAD_REQUEST, ErrorCode.BAD_REQUEST, "Body inválido.", outer);
+        }
+        if (isBatchPath(request.getServletPath())) {
+            // p.ej. /%62atch: llega a /batch recién al decodificar
+            return error(operation, HttpServletResponse.SC_BAD_REQUEST, ErrorCode.BAD_REQUEST, "No se puede anidar /batch.", outer);
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!privilegeEvaluator.isAllowed(outer.getContextPath(), request.getServletPath(), method, authentication)) {
+            boolean anonymous = authentication == null || authentication instanceof AnonymousAuthenticationToken;
+            return anonymous
+                    ? error(operation, HttpServletResponse.SC_UNAUTHORIZED, ErrorCode.UNAUTHORIZED, "No autenticado. Inicia sesión.", outer)
+                    : error(operation, HttpServletResponse.SC_FORBIDDEN, ErrorCode.FORBIDDEN, "Acceso denegado", outer);
+        }
+
+        SubResponse response = new SubResponse(outerResponse);
+        try {
+            dispatcher.service(request, response);
+        } catch (Exception e) {
+            ApiError body = ApiError.of(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ErrorCode.INTERNAL_ERROR,
+                    "Algo salió mal. Intenta más tarde.", path);
+            log.error("500 INTERNAL_ERROR path={} errorId={} batch=true", path, body.errorId(), e);
+            return new BatchResponse.Result(operation.id(), body.status(), objectMapper.valueToTree(body));
+        }
+        if (response.isError()) {
+            int status = response.getStatus();
+            String message = response.errorMessage() != null ? response.errorMessage() : HttpStatus.valueOf(status).getReasonPhrase();
+            return error(operation, status, codeFor(status), message, outer);
+        }
+        return new BatchResponse.Result(operation.id(), response.getStatus(), readBody(response));
+    }
+
+    private BatchResponse.Result await(Future<BatchResponse.Result> future, BatchRequest.Operation operation,
+                                       HttpServletRequest outer) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error(operation, HttpServletResponse.SC_SERVICE_UNAVAILABLE, ErrorCode.INTERNAL_ERROR, "Batch interrumpido.", outer);
+        } catch (ExecutionException e) {
+            ApiError body = ApiError.of(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ErrorCode.INTERNAL_ERROR,
+                    "Algo salió mal. Intenta más tarde.", operation.path());
+            log.error("500 INTERNAL_ERROR path={} errorId={} batch=true", operation.path(), body.errorId(), e.getCause());
+            return new BatchResponse.Result(operation.id(), body.status(), objectMapper.valueToTree(body));
+        }
+    }
+
+    private BatchResponse.Result error(BatchRequest.Operation operation, int status, ErrorCode code, String message,
+                                       HttpServletRequest outer) {
+        ApiError body = ApiError.of(status, code, message, operation.path());
+        log.warn("{} {} path={} errorId={} batch={}", status, code, operation.path(), body.errorId(), outer.getRequestURI());
+        return new BatchResponse.Result(operation.id(), status, objectMapper.valueToTree(body));
+    }
+
+    private JsonNode readBody(SubResponse response) {
+        byte[] bytes = response.body();
+        if (bytes.length == 0) {
+            return null;
+        }
+        String contentType = response.getContentType();
+        try {
+            if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return objectMapper.readTree(bytes);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no era JSON válido: se devuelve como texto
+        }
+        return TextNode.valueOf(new String(bytes, Charset.forName(response.getCharacterEncoding())));
+    }
+
+    private byte[] bodyBytes(JsonNode body) throws IOException {
+        return body == null || body.isNull() ? new byte[0] : objectMapper.writeValueAsBytes(body);
+    }
+
+    private static boolean isBatchPath(String path) {
+        return path.equals(BATCH_PATH) || path.startsWith(BATCH_PATH + "/") || path.startsWith(BATCH_PATH + "?");
+    }
+
+    private static boolean isRead(BatchRequest.Operation operation) {
+        return "GET".equals(operation.method());
+    }
+
+    private static ErrorCode codeFor(int status) {
+        return switch (status) {
+            case 401 -> ErrorCode.UNAUTHORIZED;
+            case 403 -> ErrorCode.FORBIDDEN;
+            case 404 -> ErrorCode.NOT_FOUND;
+            case 409 -> ErrorCode.CONFLICT;
+            default -> status >= 500 ? ErrorCode.INTERNAL_ERROR : ErrorCode.BAD_REQUEST;
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.edira.edira_api.web.batch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Endpoint /batch (prefijo {@code edira.batch}).
+ *
+ * @param maxOperations      operaciones por batch
+ * @param maxParallel        lecturas (GET) en paralelo dentro de un mismo batch
+ * @param transactionTimeout timeout de la transacción en modo atómico
+ */
+@ConfigurationProperties(prefix = "edira.batch")
+public record BatchProperties(
+        @DefaultValue("50") int maxOperations,
+        @DefaultValue("8") int maxParallel,
+        @DefaultValue("10s") Duration transactionTimeout
+) {
+}
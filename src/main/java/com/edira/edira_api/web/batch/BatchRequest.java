@@ -0,0 +1,37 @@
+package com.edira.edira_api.web.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.List;
+
+@Schema(name = "BatchRequest", description = "Varias operaciones en un solo round trip")
+public record BatchRequest(
+        @Schema(description = "Operaciones; las lecturas (GET) consecutivas corren en paralelo, el resto en orden")
+        @NotEmpty
+        List<@Valid Operation> operations,
+        @Schema(description = "true = todas en orden dentro de una sola transacción; la primera que falla revierte todo")
+        boolean atomic
+) {
+
+    @Schema(name = "BatchOperation")
+    public record Operation(
+            @Schema(description = "Id opcional del cliente para correlacionar el resultado")
+            String id,
+            @Schema(description = "GET, POST, PUT, PATCH o DELETE", example = "GET")
+            @NotBlank
+            @Pattern(regexp = "GET|POST|PUT|PATCH|DELETE", message = "debe ser GET, POST, PUT, PATCH o DELETE")
+            String method,
+            @Schema(description = "Ruta relativa a la API, con query si aplica", example = "/ping")
+            @NotBlank
+            @Pattern(regexp = "/.*", message = "debe empezar con /")
+            String path,
+            @Schema(description = "Body JSON de la operación (si aplica)")
+            JsonNode body
+    ) {
+    }
+}
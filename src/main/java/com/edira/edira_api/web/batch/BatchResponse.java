@@ -0,0 +1,30 @@
+package com.edira.edira_api.web.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+@Schema(name = "BatchResponse")
+public record BatchResponse(
+        @Schema(description = "Un resultado por operación, en el mismo orden")
+        List<Result> results,
+        @Schema(description = "Solo en modo atómico: si la transacción se confirmó")
+        @JsonInclude(NON_NULL)
+        Boolean committed
+) {
+
+    @Schema(name = "BatchResult")
+    public record Result(
+            String id,
+            @Schema(description = "Código HTTP de la operación")
+            int status,
+            @Schema(description = "Body de la operación; en errores, el contrato ApiError")
+            @JsonInclude(NON_NULL)
+            JsonNode body
+    ) {
+    }
+}
@@ -0,0 +1,298 @@
+package com.edira.edira_api.web.batch;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.Part;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request interno de una operación del batch. Hereda del request externo solo lo que es
+ * del cliente (host, locale, headers no relacionados al body); método, ruta, query, body y
+ * atributos son propios, así varias operaciones pueden pasar por el DispatcherServlet
+ * a la vez sin pisarse (los atributos de MVC viven en el request).
+ */
+class SubRequest extends HttpServletRequestWrapper {
+
+    private static final Set<String> OWN_HEADERS = Set.of(
+            HttpHeaders.CONTENT_TYPE.toLowerCase(), HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.ACCEPT.toLowerCase());
+
+    private final String method;
+    private final String servletPath;
+    private final String requestUri;
+    private final String queryString;
+    private final Map<String, String[]> parameters;
+    private final byte[] body;
+    private final Map<String, String> headers = new LinkedCaseInsensitiveMap<>();
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    SubRequest(HttpServletRequest outer, String method, String path, byte[] body) {
+        super(outer);
+        int query = path.indexOf('?');
+        String rawPath = query < 0 ? path : path.substring(0, query);
+        this.method = method;
+        this.queryString = query < 0 ? null : path.substring(query + 1);
+        this.requestUri = outer.getContextPath() + rawPath;
+        this.servletPath = UriUtils.decode(rawPath, StandardCharsets.UTF_8);
+        this.parameters = parseQuery(queryString);
+        this.body = body;
+        // Las respuestas se devuelven dentro del JSON del batch
+        headers.put(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (body.length > 0) {
+            headers.put(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            headers.put(HttpHeaders.CONTENT_LENGTH, Integer.toString(body.length));
+        }
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return requestUri;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer();
+        url.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort()).append(requestUri);
+        return url;
+    }
+
+    @Override
+    public String getServletPath() {
+        return servletPath;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    // ---- parámetros (solo query: el body va como JSON) ----
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values == null || values.length == 0 ? null : values[0];
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    // ---- headers ----
+
+    @Override
+    public String getHeader(String name) {
+        if (OWN_HEADERS.contains(name.toLowerCase())) {
+            return headers.get(name);
+        }
+        return super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        if (OWN_HEADERS.contains(name.toLowerCase())) {
+            String value = headers.get(name);
+            return Collections.enumeration(value == null ? List.of() : List.of(value));
+        }
+        return super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        Set<String> names = new LinkedHashSet<>(headers.keySet());
+        for (String name : Collections.list(super.getHeaderNames())) {
+            if (!OWN_HEADERS.contains(name.toLowerCase())) {
+                names.add(name);
+            }
+        }
+        return Collections.enumeration(names);
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value == null ? -1 : Integer.parseInt(value);
+    }
+
+    // ---- body ----
+
+    @Override
+    public String getContentType() {
+        return headers.get(HttpHeaders.CONTENT_TYPE);
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public void setCharacterEncoding(String encoding) {
+        // siempre UTF-8 (JSON)
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                throw new UnsupportedOperationException("Lectura no bloqueante no soportada en /batch");
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Collection<Part> getParts() {
+        throw new IllegalStateException("multipart no está soportado en /batch");
+    }
+
+    @Override
+    public Part getPart(String name) {
+        throw new IllegalStateException("multipart no está soportado en /batch");
+    }
+
+    // ---- atributos propios ----
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(Set.copyOf(attributes.keySet()));
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    // ---- sin async: la respuesta tiene que estar completa al volver del dispatcher ----
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Operaciones asíncronas no soportadas en /batch");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest request, ServletResponse response) {
+        throw new IllegalStateException("Operaciones asíncronas no soportadas en /batch");
+    }
+
+    private static Map<String, String[]> parseQuery(String query) {
+        if (query == null || query.isEmpty()) {
+            return Map.of();
+        }
+        MultiValueMap<String, String> params = UriComponentsBuilder.newInstance().query(query).build().getQueryParams();
+        Map<String, String[]> decoded = new LinkedHashMap<>();
+        params.forEach((name, values) -> decoded.put(UriUtils.decode(name, StandardCharsets.UTF_8),
+                values.stream().map(v -> v == null ? "" : UriUtils.decode(v, StandardCharsets.UTF_8)).toArray(String[]::new)));
+        return decoded;
+    }
+}
@@ -0,0 +1,11 @@
+package com.edira.edira_api.web.course;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+@Schema(name = "CapacityRequest")
+public record CapacityRequest(
+        @Schema(description = "Nuevo cupo", example = "150") @NotNull @PositiveOrZero Integer capacity
+) {
+}
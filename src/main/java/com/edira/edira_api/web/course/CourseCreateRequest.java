@@ -0,0 +1,15 @@
+package com.edira.edira_api.web.course;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+@Schema(name = "CourseCreateRequest")
+public record CourseCreateRequest(
+        @Schema(example = "MAT-101") @NotBlank @Size(max = 50) String code,
+        @Schema(example = "Cálculo I") @NotBlank @Size(max = 200) String name,
+        @Schema(description = "Asientos disponibles", example = "120") @NotNull @PositiveOrZero Integer capacity
+) {
+}
@@ -0,0 +1,12 @@
+package com.edira.edira_api.web.course;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(name = "EnrollRequest")
+public record EnrollRequest(
+        @Schema(example = "42") @NotNull Long studentId,
+        @Schema(description = "Sin cupo, quedar en lista de espera (por defecto) o recibir 409", defaultValue = "true")
+        Boolean waitlist
+) {
+}
@@ -0,0 +1,18 @@
+package com.edira.edira_api.web.gradebook;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+@Schema(name = "EvaluationRequest")
+public record EvaluationRequest(
+        @Schema(description = "Identificador corto, único en el curso", example = "P1")
+        @NotBlank @Pattern(regexp = "[A-Za-z][A-Za-z0-9_]{0,29}") String code,
+        @Schema(example = "Prueba 1") @NotBlank @Size(max = 200) String name,
+        @Schema(description = "Peso relativo dentro del curso", example = "30") @NotNull @Min(1) @Max(1000) Integer weight
+) {
+}
@@ -0,0 +1,15 @@
+package com.edira.edira_api.web.gradebook;
+
+import com.edira.edira_api.service.gradebook.formula.FormulaParser;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+@Schema(name = "FormulaRequest")
+public record FormulaRequest(
+        @Schema(description = "Expresión sobre los códigos de evaluación del curso y weighted (promedio ponderado). "
+                + "Funciones: if, min, max, avg, sum, count, wavg, dropLowest, clamp, round, ifMissing, has.",
+                example = "if(EXAMEN < 4.0, min(weighted, 3.9), 0.7 * dropLowest(1, P1, P2, P3) + 0.3 * EXAMEN)")
+        @NotBlank @Size(max = FormulaParser.MAX_LENGTH) String formula
+) {
+}
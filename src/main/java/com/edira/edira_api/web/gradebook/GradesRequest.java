@@ -0,0 +1,28 @@
+package com.edira.edira_api.web.gradebook;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(name = "GradesRequest")
+public record GradesRequest(
+        @Schema(description = "Si un alumno aparece más de una vez queda la última nota")
+        @NotEmpty @Size(max = 5000) List<@Valid @NotNull Grade> grades
+) {
+
+    @Schema(name = "GradeRequest")
+    public record Grade(
+            @Schema(example = "42") @NotNull Long studentId,
+            @Schema(description = "De 1.0 a 7.0, un decimal", example = "5.5")
+            @NotNull @DecimalMin("1.0") @DecimalMax("7.0") @Digits(integer = 1, fraction = 1) BigDecimal score
+    ) {
+    }
+}
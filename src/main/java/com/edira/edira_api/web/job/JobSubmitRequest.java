@@ -0,0 +1,15 @@
+package com.edira.edira_api.web.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+@Schema(name = "JobSubmitRequest")
+public record JobSubmitRequest(
+        @Schema(description = "Tipo de job", example = "student-export")
+        @NotBlank @Size(max = 64) String type,
+        @Schema(description = "Parámetros del job (dependen del tipo)")
+        JsonNode payload
+) {
+}
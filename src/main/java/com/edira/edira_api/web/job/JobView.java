@@ -0,0 +1,38 @@
+package com.edira.edira_api.web.job;
+
+import com.edira.edira_api.domain.job.JobProgress;
+import com.edira.edira_api.domain.job.JobState;
+import com.edira.edira_api.persistence.job.JobRecord;
+import com.edira.edira_api.shared.error.ApiError;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+@Schema(name = "Job", description = "Estado de un job asíncrono (consultar hasta que state sea SUCCEEDED, FAILED o CANCELLED)")
+@JsonInclude(NON_NULL)
+public record JobView(
+        long id,
+        String type,
+        JobState state,
+        JobProgress progress,
+        @Schema(description = "Tomas del job (una caída del nodo lo reintenta)")
+        int attempts,
+        boolean cancelRequested,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        @Schema(description = "Motivo del fallo (solo FAILED)")
+        ApiError error,
+        @Schema(description = "Descarga del resultado (solo SUCCEEDED con archivo)")
+        String resultUrl
+) {
+
+    public static JobView from(JobRecord job) {
+        return new JobView(job.id(), job.type(), job.state(), job.progress(), job.attempts(), job.cancelRequested(),
+                job.createdAt(), job.startedAt(), job.finishedAt(), job.error(),
+                job.state() == JobState.SUCCEEDED && job.hasResult() ? "/jobs/" + job.id() + "/result" : null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.edira.edira_api.web.timetable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+@Schema(name = "RoomRequest")
+public record RoomRequest(
+        @Schema(example = "B-204") @NotBlank @Size(max = 50) String code,
+        @Schema(example = "Sala B-204") @NotBlank @Size(max = 200) String name,
+        @Schema(description = "Alumnos que caben", example = "45") @NotNull @Positive Integer capacity
+) {
+}
@@ -0,0 +1,21 @@
+package com.edira.edira_api.web.timetable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalTime;
+
+@Schema(name = "SectionRequest")
+public record SectionRequest(
+        @Schema(example = "A") @NotBlank @Size(max = 50) String code,
+        @Schema(description = "0 = primer día de la semana", example = "0") @NotNull @Min(0) @Max(6) Integer day,
+        @Schema(type = "string", example = "08:30") @NotNull LocalTime start,
+        @Schema(type = "string", example = "10:00") @NotNull LocalTime end,
+        @Schema(description = "Sala; sin sala no se revisan choques de sala", example = "3") Long roomId,
+        @Schema(description = "Profesor; sin profesor no se revisan choques de profesor", example = "17") Long teacherId
+) {
+}
@@ -0,0 +1,12 @@
+package com.edira.edira_api.web.timetable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+@Schema(name = "TeacherRequest")
+public record TeacherRequest(
+        @Schema(example = "PROF-017") @NotBlank @Size(max = 50) String code,
+        @Schema(example = "María Soto") @NotBlank @Size(max = 200) String name
+) {
+}
@@ -0,0 +1,12 @@
+package com.edira.edira_api.web.timetable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+@Schema(name = "TeachingRequest")
+public record TeachingRequest(
+        @Schema(example = "17") @NotNull Long teacherId,
+        @Schema(description = "Bloques por semana", example = "3") @NotNull @Positive Integer weeklyLessons
+) {
+}
@@ -0,0 +1,137 @@
+package com.edira.edira_api.web.timetable;
+
+import com.edira.edira_api.domain.job.JobProgress;
+import com.edira.edira_api.domain.job.JobState;
+import com.edira.edira_api.domain.timetable.TimetableProgress;
+import com.edira.edira_api.persistence.job.JobRecord;
+import com.edira.edira_api.persistence.job.JobRepository;
+import com.edira.edira_api.service.timetable.TimetableProgressRegistry;
+import com.edira.edira_api.service.timetable.TimetableProperties;
+import com.edira.edira_api.service.timetable.TimetableService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams SSE del avance de una generación de horario. Cada stream mira el avance cada
+ * {@code progressInterval} y manda un evento {@code progress} solo cuando cambió: al momento si el
+ * job corre en este nodo ({@link TimetableProgressRegistry}); si corre en otro o sigue en cola, el
+ * último guardado en la base. Con el job terminado manda el estado final y cierra.
+ * <p>
+ * Los streams no ocupan hilos del servidor: los atiende un par de hilos programados.
+ */
+@Component
+public class TimetableEventStreams {
+
+    private static final Logger log = LoggerFactory.getLogger(TimetableEventStreams.class);
+
+    private final JobRepository jobs;
+    private final TimetableProgressRegistry registry;
+    private final TimetableService timetables;
+    private final TimetableProperties properties;
+    private final ScheduledExecutorService ticker = Executors.newScheduledThreadPool(2,
+            Thread.ofPlatform().name("timetable-events-", 0).daemon().factory());
+
+    public TimetableEventStreams(JobRepository jobs, TimetableProgressRegistry registry, TimetableService timetables,
+                                 TimetableProperties properties) {
+        this.jobs = jobs;
+        this.registry = registry;
+        this.timetables = timetables;
+        this.properties = properties;
+    }
+
+    /** Abre el stream de un job ya validado (existe, es del tenant y es una generación). */
+    public SseEmitter open(long tenantId, long jobId) {
+        SseEmitter emitter = new SseEmitter(properties.streamTimeout().toMillis());
+        Stream stream = new Stream(tenantId, jobId, emitter);
+        stream.future = ticker.scheduleWithFixedDelay(stream::tick, 0, properties.progressInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+        emitter.onCompletion(stream::stop);
+        emitter.onTimeout(stream::stop);
+        emitter.onError(e -> stream.stop());
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private final class Stream {
+
+        private final long tenantId;
+        private final long jobId;
+        private final SseEmitter emitter;
+        private volatile ScheduledFuture<?> future;
+        private TimetableProgress last;
+
+        Stream(long tenantId, long jobId, SseEmitter emitter) {
+            this.tenantId = tenantId;
+            this.jobId = jobId;
+            this.emitter = emitter;
+        }
+
+        // una excepción acá cancelaría la tarea sin cerrar el stream: se atrapa todo
+        void tick() {
+            try {
+                Optional<TimetableProgress> progress = registry.find(jobId).or(this::stored);
+                if (progress.isEmpty()) {
+                    emitter.complete();
+                    stop();
+                    return;
+                }
+                if (!progress.get().equals(last)) {
+                    last = progress.get();
+                    emitter.send(SseEmitter.event().name("progress").data(last, MediaType.APPLICATION_JSON));
+                }
+                if (last.state().finished()) {
+                    emitter.complete();
+                    stop();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // el cliente se fue o el emitter ya se cerró
+                stop();
+            } catch (RuntimeException e) {
+                log.warn("TIMETABLE_EVENTS_FAILED job={}", jobId, e);
+                emitter.completeWithError(e);
+                stop();
+            }
+        }
+
+        private Optional<TimetableProgress> stored() {
+            return jobs.find(tenantId, jobId).map(job -> {
+                JobProgress progress = job.progress();
+                Long timetableId = job.state() == JobState.SUCCEEDED
+                        ? boxed(timetables.timetableOfJob(tenantId, jobId)) : null;
+                return new TimetableProgress(jobId, job.state(), job.state() == JobState.QUEUED ? null : progress.done(),
+                        null, null, null, message(job), timetableId);
+            });
+        }
+
+        private static String message(JobRecord job) {
+            return job.error() != null ? job.error().message() : job.progress().message();
+        }
+
+        private static Long boxed(OptionalLong id) {
+            return id.isPresent() ? id.getAsLong() : null;
+        }
+
+        void stop() {
+            ScheduledFuture<?> running = future;
+            if (running != null) {
+                running.cancel(false);
+            }
+        }
+    }
+}
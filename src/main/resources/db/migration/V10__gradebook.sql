@@ -0,0 +1,69 @@
+-- V10: Evaluaciones y notas por curso (ver GradebookService)
+-- Escala chilena de 1.0 a 7.0. El promedio ponderado de cada alumno no se recalcula desde sus
+-- notas: grade_aggregate guarda las sumas corridas (Σ peso × nota y Σ peso de lo evaluado) y cada
+-- escritura de notas las ajusta en la misma transacción. Las sumas son enteras (notas en décimas)
+-- para que ajustarlas una y otra vez no acumule error.
+--
+-- gradebook_course.version sube con cada cambio de notas o pesos del curso: serializa las
+-- escrituras del curso (lock de esa fila) y le dice a cada nodo si su ranking en memoria está al día.
+
+CREATE TABLE evaluation (
+  id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id    BIGINT       NOT NULL,
+  course_id    BIGINT       NOT NULL,
+  code         VARCHAR(30)  NOT NULL,      -- identificador corto (P1, EXAMEN)
+  name         VARCHAR(200) NOT NULL,
+  weight       INT          NOT NULL,      -- peso relativo dentro del curso (no tiene que sumar 100)
+  created_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  updated_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  created_by   VARCHAR(100) NULL,
+  updated_by   VARCHAR(100) NULL,
+  CONSTRAINT uk_evaluation_code_per_course UNIQUE (course_id, code),
+  INDEX idx_evaluation_tenant (tenant_id),
+  CONSTRAINT fk_evaluation_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT fk_evaluation_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT chk_evaluation_weight CHECK (weight BETWEEN 1 AND 1000)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE grade (
+  evaluation_id  BIGINT       NOT NULL,
+  student_id     BIGINT       NOT NULL,
+  course_id      BIGINT       NOT NULL,
+  score          DECIMAL(2,1) NOT NULL,
+  updated_at     TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  updated_by     VARCHAR(100) NULL,
+  PRIMARY KEY (evaluation_id, student_id),
+  -- notas de un alumno en el curso
+  INDEX idx_grade_course_student (course_id, student_id),
+  CONSTRAINT fk_grade_evaluation FOREIGN KEY (evaluation_id)
+      REFERENCES evaluation (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT fk_grade_student FOREIGN KEY (student_id)
+      REFERENCES student (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT chk_grade_score CHECK (score BETWEEN 1.0 AND 7.0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE grade_aggregate (
+  course_id      BIGINT       NOT NULL,
+  student_id     BIGINT       NOT NULL,
+  tenant_id      BIGINT       NOT NULL,
+  weighted_sum   BIGINT       NOT NULL,    -- Σ peso × nota en décimas
+  weight_total   BIGINT       NOT NULL,    -- Σ peso de las evaluaciones con nota
+  graded_count   INT          NOT NULL,
+  updated_at     TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (course_id, student_id),
+  CONSTRAINT fk_grade_aggregate_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT fk_grade_aggregate_student FOREIGN KEY (student_id)
+      REFERENCES student (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Tabla aparte (y no una columna de course), como course_roster_size: el lock de escritura de
+-- notas no compite con el lock compartido que toman las matrículas sobre la fila del curso.
+CREATE TABLE gradebook_course (
+  course_id    BIGINT       NOT NULL PRIMARY KEY,
+  version      BIGINT       NOT NULL DEFAULT 0,
+  CONSTRAINT fk_gradebook_course_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,36 @@
+-- V11: Fórmula de nota final por curso (ver GradingFormulaService)
+-- Cada cambio de fórmula es una versión nueva; la vigente es la de número más alto. Los nodos
+-- guardan la fórmula compilada por (curso, versión), así que una versión nunca se modifica.
+--
+-- final_grade es el resultado del último recálculo del curso: se reemplaza completo y dice con
+-- qué versión de la fórmula se calculó. score NULL = la fórmula no da nota con lo evaluado hasta ahora.
+
+CREATE TABLE grading_formula (
+  course_id    BIGINT        NOT NULL,
+  version      INT           NOT NULL,
+  tenant_id    BIGINT        NOT NULL,
+  source       VARCHAR(2000) NOT NULL,
+  created_at   TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  created_by   VARCHAR(100)  NULL,
+  PRIMARY KEY (course_id, version),
+  INDEX idx_grading_formula_tenant (tenant_id),
+  CONSTRAINT fk_grading_formula_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT fk_grading_formula_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE final_grade (
+  course_id        BIGINT       NOT NULL,
+  student_id       BIGINT       NOT NULL,
+  tenant_id        BIGINT       NOT NULL,
+  formula_version  INT          NOT NULL,
+  score            DECIMAL(2,1) NULL,
+  computed_at      TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (course_id, student_id),
+  CONSTRAINT fk_final_grade_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT fk_final_grade_student FOREIGN KEY (student_id)
+      REFERENCES student (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT chk_final_grade_score CHECK (score BETWEEN 1.0 AND 7.0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
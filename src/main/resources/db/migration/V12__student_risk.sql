@@ -0,0 +1,43 @@
+-- V12: Riesgo académico por alumno (ver RiskScoringService)
+-- Un puntaje de 0 a 100 por alumno para el período académico en curso, a partir de su asistencia
+-- (totales TERM de attendance_rollup), el nivel y la tendencia de sus notas, y las evaluaciones
+-- que ya se están corrigiendo en sus cursos y él no tiene. Lo calcula el job student-risk-scoring.
+--
+-- risk_run guarda hasta dónde llegó la última corrida del tenant: la siguiente solo recalcula a
+-- los alumnos con datos cambiados desde entonces (updated_at), salvo que cambie el período.
+
+CREATE TABLE student_risk (
+  student_id           BIGINT        NOT NULL PRIMARY KEY,
+  tenant_id            BIGINT        NOT NULL,
+  score                TINYINT       NOT NULL,
+  level                VARCHAR(6)    NOT NULL,
+  attendance_rate      DECIMAL(4,3)  NULL,      -- (presentes + atrasos) / registros; NULL sin registros
+  grade_average        DECIMAL(3,2)  NULL,
+  grade_trend          DECIMAL(4,2)  NULL,      -- puntos de nota por cada 30 días (pendiente)
+  due_evaluations      INT           NOT NULL,
+  missing_evaluations  INT           NOT NULL,
+  computed_at          TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  -- los de más riesgo del tenant: tenant_id = ? AND score >= ? ORDER BY score DESC
+  INDEX idx_student_risk_tenant_score (tenant_id, score),
+  CONSTRAINT fk_student_risk_student FOREIGN KEY (student_id)
+      REFERENCES student (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT chk_student_risk_score CHECK (score BETWEEN 0 AND 100),
+  CONSTRAINT chk_student_risk_level CHECK (level IN ('LOW','MEDIUM','HIGH'))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE risk_run (
+  tenant_id    BIGINT        NOT NULL PRIMARY KEY,
+  watermark    TIMESTAMP(3)  NOT NULL,   -- hora de la base al empezar la última corrida completa sin errores
+  term_start   DATE          NOT NULL,
+  finished_at  TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  CONSTRAINT fk_risk_run_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Lectura por rangos de id de alumno y detección de cambios por updated_at
+ALTER TABLE student ADD INDEX idx_student_tenant_id (tenant_id, id);
+ALTER TABLE grade ADD INDEX idx_grade_student (student_id, evaluation_id);
+ALTER TABLE grade ADD INDEX idx_grade_updated (updated_at);
+ALTER TABLE enrollment ADD INDEX idx_enrollment_updated (tenant_id, updated_at);
+ALTER TABLE attendance_rollup ADD INDEX idx_attendance_rollup_updated (tenant_id, updated_at);
+ALTER TABLE evaluation ADD INDEX idx_evaluation_updated (tenant_id, updated_at);
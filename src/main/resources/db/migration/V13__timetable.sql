@@ -0,0 +1,79 @@
+-- V13: Horario semanal por tenant (ver TimetableService)
+-- Un curso con fila en course_teaching tiene profesor y weekly_lessons bloques por semana. El
+-- solver reparte esos bloques en (día, bloque del día, sala) y guarda cada horario generado en
+-- timetable + timetable_lesson; el vigente es el de id más alto. Un horario nunca se modifica.
+
+CREATE TABLE teacher (
+  id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id    BIGINT       NOT NULL,
+  code         VARCHAR(50)  NOT NULL,
+  name         VARCHAR(200) NOT NULL,
+  created_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  updated_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  created_by   VARCHAR(100) NULL,
+  CONSTRAINT uk_teacher_code_per_tenant UNIQUE (tenant_id, code),
+  CONSTRAINT fk_teacher_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE room (
+  id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id    BIGINT       NOT NULL,
+  code         VARCHAR(50)  NOT NULL,
+  name         VARCHAR(200) NOT NULL,
+  capacity     INT          NOT NULL,
+  created_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  updated_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  created_by   VARCHAR(100) NULL,
+  CONSTRAINT uk_room_code_per_tenant UNIQUE (tenant_id, code),
+  CONSTRAINT fk_room_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT chk_room_capacity CHECK (capacity > 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE course_teaching (
+  course_id      BIGINT       NOT NULL PRIMARY KEY,
+  tenant_id      BIGINT       NOT NULL,
+  teacher_id     BIGINT       NOT NULL,
+  weekly_lessons INT          NOT NULL,
+  updated_at     TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  updated_by     VARCHAR(100) NULL,
+  INDEX idx_course_teaching_tenant (tenant_id, course_id),
+  CONSTRAINT fk_course_teaching_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT fk_course_teaching_teacher FOREIGN KEY (teacher_id)
+      REFERENCES teacher (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT chk_course_teaching_lessons CHECK (weekly_lessons > 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- hard_violations 0 = sin choques de profesor o sala ni salas chicas; soft_penalty = preferencias no cumplidas
+CREATE TABLE timetable (
+  id               BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id        BIGINT       NOT NULL,
+  job_id           BIGINT       NULL,
+  days             TINYINT      NOT NULL,
+  slots_per_day    TINYINT      NOT NULL,
+  hard_violations  INT          NOT NULL,
+  soft_penalty     INT          NOT NULL,
+  moves            BIGINT       NOT NULL,
+  elapsed_ms       BIGINT       NOT NULL,
+  created_at       TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  created_by       VARCHAR(100) NULL,
+  INDEX idx_timetable_tenant (tenant_id, id),
+  INDEX idx_timetable_job (job_id),
+  CONSTRAINT fk_timetable_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE timetable_lesson (
+  timetable_id  BIGINT   NOT NULL,
+  course_id     BIGINT   NOT NULL,
+  lesson_no     SMALLINT NOT NULL,
+  day_of_week   TINYINT  NOT NULL,      -- 0 = primer día de la semana del horario
+  slot          TINYINT  NOT NULL,      -- bloque dentro del día, desde 0
+  room_id       BIGINT   NOT NULL,
+  teacher_id    BIGINT   NOT NULL,
+  PRIMARY KEY (timetable_id, course_id, lesson_no),
+  CONSTRAINT fk_timetable_lesson_timetable FOREIGN KEY (timetable_id)
+      REFERENCES timetable (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
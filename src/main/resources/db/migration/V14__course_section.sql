@@ -0,0 +1,41 @@
+-- V14: Secciones de curso con horario fijo y detección de choques (ver SectionService)
+-- Una sección ocupa su sala y su profesor un día de la semana entre start_minute y end_minute
+-- (minutos desde las 00:00, intervalo semiabierto). Los choques se buscan en un índice de
+-- intervalos en memoria por sala y por profesor; schedule_version sube con cada cambio de las
+-- secciones del recurso y dice si el índice de un nodo está al día. Quien cambia secciones toma
+-- la fila de la sala y del profesor FOR UPDATE y deja un evento course_section en
+-- domain_event_outbox, que los demás nodos leen por id para actualizar su índice.
+
+ALTER TABLE room    ADD COLUMN schedule_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE teacher ADD COLUMN schedule_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE course_section (
+  id            BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id     BIGINT       NOT NULL,
+  course_id     BIGINT       NOT NULL,
+  code          VARCHAR(50)  NOT NULL,
+  room_id       BIGINT       NULL,
+  teacher_id    BIGINT       NULL,
+  day_of_week   TINYINT      NOT NULL,      -- 0 = primer día de la semana
+  start_minute  SMALLINT     NOT NULL,
+  end_minute    SMALLINT     NOT NULL,
+  created_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  updated_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  created_by    VARCHAR(100) NULL,
+  updated_by    VARCHAR(100) NULL,
+  CONSTRAINT uk_course_section_code UNIQUE (course_id, code),
+  INDEX idx_course_section_room (room_id),
+  INDEX idx_course_section_teacher (teacher_id),
+  INDEX idx_course_section_tenant (tenant_id, id),
+  CONSTRAINT fk_course_section_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT fk_course_section_room FOREIGN KEY (room_id)
+      REFERENCES room (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT fk_course_section_teacher FOREIGN KEY (teacher_id)
+      REFERENCES teacher (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT chk_course_section_day CHECK (day_of_week BETWEEN 0 AND 6),
+  CONSTRAINT chk_course_section_time CHECK (start_minute >= 0 AND start_minute < end_minute AND end_minute < 1440)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- lectura de eventos por tipo de agregado en orden de id (relay y purga)
+CREATE INDEX idx_outbox_aggregate ON domain_event_outbox (aggregate_type, id);
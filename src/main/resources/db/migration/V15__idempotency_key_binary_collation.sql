@@ -0,0 +1,8 @@
+-- V15: idem_key se compara byte a byte (ver IdempotencyStore)
+-- Con utf8mb4_0900_ai_ci "abc" y "ABC" (o "é" y "e") eran la misma clave primaria, mientras que la
+-- caché en memoria las trata como distintas: un request podía recibir la respuesta guardada de otro.
+-- utf8mb4_0900_bin es NO PAD: tampoco iguala "abc" con "abc ".
+-- Va en una migración aparte para no cambiar el checksum de V3 en bases ya migradas.
+
+ALTER TABLE idempotency_key
+  MODIFY idem_key VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_bin NOT NULL;
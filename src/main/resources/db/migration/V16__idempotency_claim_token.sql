@@ -0,0 +1,6 @@
+-- V16: token del request que reclamó la key (ver IdempotencyKeyRepository)
+-- Si el lease de una fila IN_PROGRESS vence y otro request la reclama, el primero ya no puede
+-- completarla, renovarla ni borrarla: complete/release/renew filtran por claim_token.
+
+ALTER TABLE idempotency_key
+  ADD COLUMN claim_token CHAR(36) NULL AFTER state;
@@ -0,0 +1,20 @@
+-- V3: Idempotency-Key para endpoints que mutan (ver IdempotencyFilter)
+-- Una fila por (tenant, key): IN_PROGRESS mientras el primer request corre, COMPLETED con la respuesta.
+-- tenant_id sin FK: 0 = sin X-Tenant-Id (instalación de un solo tenant).
+
+CREATE TABLE idempotency_key (
+  tenant_id     BIGINT        NOT NULL,
+  idem_key      VARCHAR(255)  NOT NULL,
+  request_hash  BINARY(32)    NOT NULL,
+  state         VARCHAR(20)   NOT NULL,
+  status_code   SMALLINT      NULL,
+  content_type  VARCHAR(255)  NULL,
+  location      VARCHAR(1024) NULL,
+  body          MEDIUMBLOB    NULL,
+  created_at    TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  expires_at    TIMESTAMP(3)  NOT NULL,
+  PRIMARY KEY (tenant_id, idem_key),
+  -- purga por lotes: DELETE ... WHERE expires_at < ? LIMIT ?
+  INDEX idx_idempotency_expires (expires_at),
+  CONSTRAINT chk_idempotency_state CHECK (state IN ('IN_PROGRESS','COMPLETED'))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
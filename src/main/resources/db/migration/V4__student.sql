@@ -0,0 +1,20 @@
+-- V4: Alumnos por tenant (carga masiva vía POST /students/import, NDJSON)
+
+CREATE TABLE student (
+  id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id    BIGINT       NOT NULL,
+  external_id  VARCHAR(64)  NULL,           -- id en el sistema de origen (RUT, n° de matrícula)
+  first_name   VARCHAR(120) NOT NULL,
+  last_name    VARCHAR(120) NOT NULL,
+  email        VARCHAR(255) NOT NULL,
+  status       VARCHAR(20)  NOT NULL DEFAULT 'ACTIVE',
+  created_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  updated_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  created_by   VARCHAR(100) NULL,
+  updated_by   VARCHAR(100) NULL,
+  CONSTRAINT uk_student_email_per_tenant UNIQUE (tenant_id, email),
+  INDEX idx_student_external (tenant_id, external_id),
+  CONSTRAINT fk_student_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT chk_student_status CHECK (status IN ('ACTIVE','INACTIVE'))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
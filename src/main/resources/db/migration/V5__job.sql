@@ -0,0 +1,34 @@
+-- V5: Jobs asíncronos (imports, exports, recálculos) fuera del thread del request (ver JobWorker)
+-- Un nodo toma un job QUEUED con SELECT ... FOR UPDATE SKIP LOCKED y lo marca RUNNING con un lease
+-- (lease_owner + lease_expires_at) que renueva mientras corre. Si el nodo muere, el lease vence y
+-- otro nodo lo vuelve a encolar. attempts se incrementa en cada toma y sirve de token: un nodo que
+-- perdió el lease ya no puede escribir progreso ni resultado.
+-- tenant_id sin FK: 0 = sin X-Tenant-Id (instalación de un solo tenant), igual que idempotency_key.
+
+CREATE TABLE job (
+  id                 BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id          BIGINT        NOT NULL,
+  type               VARCHAR(64)   NOT NULL,
+  state              VARCHAR(20)   NOT NULL DEFAULT 'QUEUED',
+  payload            JSON          NULL,
+  progress_done      BIGINT        NOT NULL DEFAULT 0,
+  progress_total     BIGINT        NULL,
+  progress_message   VARCHAR(255)  NULL,
+  cancel_requested   BOOLEAN       NOT NULL DEFAULT FALSE,
+  attempts           INT           NOT NULL DEFAULT 0,
+  lease_owner        VARCHAR(100)  NULL,
+  lease_expires_at   TIMESTAMP(3)  NULL,
+  result_type        VARCHAR(255)  NULL,
+  result             MEDIUMBLOB    NULL,
+  error              JSON          NULL,     -- ApiError del fallo
+  created_by         VARCHAR(100)  NULL,
+  created_at         TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  started_at         TIMESTAMP(3)  NULL,
+  finished_at        TIMESTAMP(3)  NULL,
+  updated_at         TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  -- toma: state = QUEUED ORDER BY id; recuperación: state = RUNNING AND lease_expires_at < ?; purga: finished_at < ?
+  INDEX idx_job_queue (state, id),
+  INDEX idx_job_state_lease (state, lease_expires_at),
+  INDEX idx_job_finished (finished_at),
+  CONSTRAINT chk_job_state CHECK (state IN ('QUEUED','RUNNING','SUCCEEDED','FAILED','CANCELLED'))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
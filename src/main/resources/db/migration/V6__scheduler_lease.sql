@@ -0,0 +1,13 @@
+-- V6: Leases de tareas periódicas en cluster (ver ClusterScheduledAspect)
+-- Una fila por tarea (o por tarea#shard): el nodo dueño corre la tarea mientras no venza expires_at.
+-- token sube cada vez que la fila cambia de dueño (fencing): quien escribe con un token viejo
+-- sabe que ya no es el dueño. Las filas node:<id> son el latido de cada nodo (para repartir shards).
+
+CREATE TABLE scheduler_lease (
+  name         VARCHAR(190)  NOT NULL PRIMARY KEY,
+  owner        VARCHAR(100)  NULL,
+  token        BIGINT        NOT NULL DEFAULT 1,
+  expires_at   TIMESTAMP(3)  NOT NULL,
+  acquired_at  TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  updated_at   TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
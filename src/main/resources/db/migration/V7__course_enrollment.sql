@@ -0,0 +1,60 @@
+-- V7: Cursos y matrículas por tenant (ver EnrollmentService)
+-- El cupo no es un contador: cada curso tiene una fila por asiento en course_seat. Matricular toma
+-- un asiento libre con SELECT ... FOR UPDATE SKIP LOCKED, así cientos de matrículas simultáneas al
+-- mismo curso toman asientos distintos sin esperar un lock común. Un asiento con enrollment_id
+-- NULL está libre. Sin asiento, la matrícula queda WAITLISTED; la lista de espera se atiende por id
+-- (orden de llegada) cuando se libera un asiento o aumenta el cupo.
+
+CREATE TABLE course (
+  id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id    BIGINT       NOT NULL,
+  code         VARCHAR(50)  NOT NULL,
+  name         VARCHAR(200) NOT NULL,
+  capacity     INT          NOT NULL,      -- = filas en course_seat; se cambia junto con ellas
+  created_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  updated_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  created_by   VARCHAR(100) NULL,
+  updated_by   VARCHAR(100) NULL,
+  CONSTRAINT uk_course_code_per_tenant UNIQUE (tenant_id, code),
+  CONSTRAINT fk_course_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT chk_course_capacity CHECK (capacity >= 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE enrollment (
+  id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id    BIGINT       NOT NULL,
+  course_id    BIGINT       NOT NULL,
+  student_id   BIGINT       NOT NULL,
+  status       VARCHAR(20)  NOT NULL,
+  created_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  updated_at   TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  created_by   VARCHAR(100) NULL,
+  CONSTRAINT uk_enrollment_course_student UNIQUE (course_id, student_id),
+  -- cabeza de la lista de espera: course_id = ? AND status = 'WAITLISTED' ORDER BY id
+  INDEX idx_enrollment_waitlist (course_id, status, id),
+  INDEX idx_enrollment_student (tenant_id, student_id),
+  CONSTRAINT fk_enrollment_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT fk_enrollment_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT fk_enrollment_student FOREIGN KEY (student_id)
+      REFERENCES student (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT chk_enrollment_status CHECK (status IN ('ENROLLED','WAITLISTED'))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE course_seat (
+  course_id      BIGINT       NOT NULL,
+  seat_no        INT          NOT NULL,
+  enrollment_id  BIGINT       NULL,
+  claimed_at     TIMESTAMP(3) NULL,
+  PRIMARY KEY (course_id, seat_no),
+  -- un asiento por matrícula (varios NULL permitidos)
+  CONSTRAINT uk_course_seat_enrollment UNIQUE (enrollment_id),
+  -- asiento libre: course_id = ? AND enrollment_id IS NULL ORDER BY seat_no
+  INDEX idx_course_seat_free (course_id, enrollment_id, seat_no),
+  CONSTRAINT fk_course_seat_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT fk_course_seat_enrollment FOREIGN KEY (enrollment_id)
+      REFERENCES enrollment (id) ON DELETE SET NULL ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,55 @@
+-- V8: Asistencia por sesión de clase (ver AttendanceService)
+-- No hay una fila por alumno y sesión: cada sesión guarda tres bitmaps Roaring (presentes,
+-- ausentes, atrasados) sobre el ordinal del alumno en el curso. Un alumno sin bit en ninguno de
+-- los tres no fue registrado en esa sesión. Los bitmaps son disjuntos.
+--
+-- course_roster asigna los ordinales: se agregan al final (roster_size del curso) y no se
+-- reutilizan ni se renumeran, así un alumno que entra a mitad de semestre no corre los bits de
+-- las sesiones anteriores y uno que se da de baja conserva su historial.
+
+CREATE TABLE course_roster (
+  course_id    BIGINT       NOT NULL,
+  ordinal      INT          NOT NULL,      -- posición del bit en los bitmaps de class_session
+  student_id   BIGINT       NOT NULL,
+  joined_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (course_id, ordinal),
+  CONSTRAINT uk_course_roster_student UNIQUE (course_id, student_id),
+  CONSTRAINT fk_course_roster_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT fk_course_roster_student FOREIGN KEY (student_id)
+      REFERENCES student (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Próximo ordinal por curso. Tabla aparte (y no una columna de course) para que asignar ordinales
+-- no compita con el lock compartido que toman las matrículas sobre la fila del curso.
+CREATE TABLE course_roster_size (
+  course_id    BIGINT       NOT NULL PRIMARY KEY,
+  size         INT          NOT NULL DEFAULT 0,
+  CONSTRAINT fk_course_roster_size_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE class_session (
+  id             BIGINT AUTO_INCREMENT PRIMARY KEY,
+  tenant_id      BIGINT       NOT NULL,
+  course_id      BIGINT       NOT NULL,
+  starts_at      TIMESTAMP(3) NOT NULL,
+  present        MEDIUMBLOB   NOT NULL,    -- RoaringBitmap serializado (formato portable)
+  absent         MEDIUMBLOB   NOT NULL,
+  late           MEDIUMBLOB   NOT NULL,
+  -- cardinalidades de los bitmaps, para listar sesiones sin leer los blobs
+  present_count  INT          NOT NULL DEFAULT 0,
+  absent_count   INT          NOT NULL DEFAULT 0,
+  late_count     INT          NOT NULL DEFAULT 0,
+  created_at     TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  updated_at     TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  created_by     VARCHAR(100) NULL,
+  updated_by     VARCHAR(100) NULL,
+  -- historial de un alumno: course_id = ? AND starts_at BETWEEN ? AND ? ORDER BY starts_at
+  CONSTRAINT uk_class_session_course_start UNIQUE (course_id, starts_at),
+  INDEX idx_class_session_tenant (tenant_id),
+  CONSTRAINT fk_class_session_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT fk_class_session_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
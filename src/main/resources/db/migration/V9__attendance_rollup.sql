@@ -0,0 +1,29 @@
+-- V9: Totales de asistencia por período para dashboards (ver AttendanceRollupService)
+-- Se mantienen en la misma transacción que cambia los bitmaps de class_session, sumando la
+-- diferencia (estado anterior → nuevo) de cada alumno; un rebuild por curso los recalcula desde
+-- los bitmaps. Leerlos no depende del largo del historial.
+--
+-- student_id = 0 es el total del curso (DAY, WEEK, MONTH, TERM); los de cada alumno van por
+-- WEEK, MONTH y TERM: por día serían tantas filas como la asistencia misma. Los totales del
+-- tenant y de un alumno en todos sus cursos se suman al leer por idx_attendance_rollup_tenant.
+-- Sin FK a student por el 0: las filas de un alumno borrado quedan hasta el próximo rebuild.
+
+CREATE TABLE attendance_rollup (
+  course_id     BIGINT       NOT NULL,
+  student_id    BIGINT       NOT NULL,
+  granularity   VARCHAR(5)   NOT NULL,
+  period_start  DATE         NOT NULL,   -- día, lunes, primero del mes o inicio del período académico
+  tenant_id     BIGINT       NOT NULL,
+  present       INT          NOT NULL DEFAULT 0,
+  absent        INT          NOT NULL DEFAULT 0,
+  late          INT          NOT NULL DEFAULT 0,
+  updated_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (course_id, student_id, granularity, period_start),
+  -- tenant (student_id = 0) o alumno en todos sus cursos, sin ir a la tabla: cubre los contadores
+  INDEX idx_attendance_rollup_tenant (tenant_id, student_id, granularity, period_start, present, absent, late),
+  CONSTRAINT fk_attendance_rollup_tenant FOREIGN KEY (tenant_id)
+      REFERENCES tenant (id) ON DELETE RESTRICT ON UPDATE CASCADE,
+  CONSTRAINT fk_attendance_rollup_course FOREIGN KEY (course_id)
+      REFERENCES course (id) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT chk_attendance_rollup_granularity CHECK (granularity IN ('DAY','WEEK','MONTH','TERM'))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,87 @@
+package com.edira.edira_api.bench;
+
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ErrorCode;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Serialización de ApiError: ObjectMapper de Boot por reflexión (antes) vs Blackbird + ObjectWriter
+ * pre-construido (después). En el setup imprime los bytes por respuesta en JSON y gzip,
+ * para ver desde qué tamaño conviene server.compression.min-response-size.
+ *   ./mvnw -Pbench -DskipTests test -Djmh.args="ApiErrorSerialization"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiErrorSerializationBenchmark {
+
+    // simple = 404 típico; validation = 400 con 25 detalles por campo
+    @Param({"simple", "validation"})
+    String payload;
+
+    private ApiError body;
+    private ObjectMapper reflective;
+    private ObjectWriter tuned;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        body = switch (payload) {
+            case "simple" -> ApiError.of(404, ErrorCode.NOT_FOUND, "Recurso no encontrado.", "/students/42", UUID.randomUUID());
+            default -> ApiError.validation(400, ErrorCode.VALIDATION_ERROR, "La solicitud tiene datos inválidos.", "/students/import",
+                    IntStream.range(0, 25)
+                            .mapToObj(i -> new ValidationErrorDetail("rows[" + i + "].email", "debe ser una dirección de correo válida"))
+                            .toList());
+        };
+        reflective = Jackson2ObjectMapperBuilder.json().build();
+        tuned = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build()
+                .writerFor(ApiError.class);
+
+        byte[] json = tuned.writeValueAsBytes(body);
+        System.out.printf("%n[%s] bytes/respuesta json=%d gzip=%d%n", payload, json.length, gzip(json).length);
+    }
+
+    @Benchmark
+    public byte[] reflectiveMapper() throws IOException {
+        return reflective.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] blackbirdPrebuiltWriter() throws IOException {
+        return tuned.writeValueAsBytes(body);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.edira.edira_api.bench;
+
+import com.edira.edira_api.persistence.diagnostics.ConnectionUsageReport;
+import com.edira.edira_api.persistence.diagnostics.ConnectionUsageReport.HeldConnection;
+import com.edira.edira_api.persistence.diagnostics.ConnectionUsageReport.OwnerUsage;
+import com.edira.edira_api.shared.BinaryFormats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * JSON vs CBOR vs Smile para una respuesta de lista (mismo ObjectMapper de Boot + Blackbird,
+ * como en JacksonConfig). Mide CPU de escritura/lectura; en el setup imprime los bytes
+ * crudos y con gzip.
+ *   ./mvnw -Pbench -DskipTests test -Djmh.args="ListPayloadFormat"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListPayloadFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"50", "1000"})
+    int rows;
+
+    private ConnectionUsageReport report;
+    private byte[] encoded;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        ObjectMapper mapper = switch (format) {
+            case "cbor" -> BinaryFormats.copyOf(json, new CBORFactory());
+            case "smile" -> BinaryFormats.copyOf(json, new SmileFactory());
+            default -> json;
+        };
+        report = report(rows);
+        writer = mapper.writerFor(ConnectionUsageReport.class);
+        reader = mapper.readerFor(ConnectionUsageReport.class);
+        encoded = writer.writeValueAsBytes(report);
+        System.out.printf("%n[%s rows=%d] bytes=%d gzip=%d%n", format, rows, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return writer.writeValueAsBytes(report);
+    }
+
+    @Benchmark
+    public ConnectionUsageReport read() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    // Lista con nombres de campo repetidos y mezcla de números/strings/fechas
+    private static ConnectionUsageReport report(int rows) {
+        Instant now = Instant.parse("2025-09-01T12:00:00Z");
+        List<OwnerUsage> owners = IntStream.range(0, rows)
+                .mapToObj(i -> new OwnerUsage("GET /courses/{id}/students/" + i, "CourseService.roster",
+                        1_000L + i, 0.35 + i % 7, 12.5, 4.2 + i % 11, 180.0, 9_000L + i, i % 3))
+                .toList();
+        List<HeldConnection> active = IntStream.range(0, Math.max(1, rows / 10))
+                .mapToObj(i -> new HeldConnection(i, "POST /attendance", "AttendanceService.checkIn",
+                        "http-nio-8080-exec-" + i, now.minusMillis(i * 37L), i * 37L, i % 5, List.of()))
+                .toList();
+        return new ConnectionUsageReport(now, 2_000, owners, active, List.of());
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+}
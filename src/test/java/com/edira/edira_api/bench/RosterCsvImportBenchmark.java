@@ -0,0 +1,151 @@
+package com.edira.edira_api.bench;
+
+import com.edira.edira_api.domain.student.NewStudent;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.student.StudentRepository;
+import com.edira.edira_api.service.course.EnrollmentProperties;
+import com.edira.edira_api.service.course.EnrollmentService;
+import com.edira.edira_api.service.roster.RosterImportReport;
+import com.edira.edira_api.service.roster.RosterImportService;
+import com.edira.edira_api.shared.ingest.IngestProperties;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Nómina CSV de 100k filas (10% inválidas, la mitad con course_code) leída desde disco por
+ * RosterImportService con repositorios que no van a la base: mide lectura CSV + Bean Validation +
+ * armado de lotes. Al final imprime el pico de heap por pool; con -prof gc se ve la asignación por
+ * operación. El pico no debería moverse al pasar de 10k a 100k filas.
+ *   ./mvnw -Pbench -DskipTests test -Djmh.args="RosterCsvImport -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx128m")
+public class RosterCsvImportBenchmark {
+
+    @Param({"10000", "100000"})
+    int rows;
+
+    private Path file;
+    private RosterImportService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("roster-", ".csv");
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("external_id,first_name,last_name,email,course_code\n");
+            for (int i = 0; i < rows; i++) {
+                String email = i % 10 == 9 ? "no-es-email" : "alumno" + i + "@colegio.cl";
+                out.write("R-" + i + ",\"Nombre " + i + "\",Apellido," + email + "," + (i % 2 == 0 ? "MAT-101" : "") + "\n");
+            }
+        }
+        EnrollmentRepository courses = new EnrollmentRepository(null) {
+            @Override
+            public Map<String, Long> findCourseIdsByCode(long tenantId, Collection<String> codes) {
+                return Map.of("MAT-101", 1L);
+            }
+        };
+        AbstractPlatformTransactionManager noTransactions = new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        };
+        EnrollmentService enrollments = new EnrollmentService(courses, noTransactions,
+                new EnrollmentProperties(5000, Duration.ofSeconds(30), 100)) {
+            @Override
+            public BatchResult enrollAll(long tenantId, long courseId, Collection<Long> studentIds, String user) {
+                return new BatchResult(studentIds.size(), 0, 0);
+            }
+        };
+        StudentRepository students = new StudentRepository(null) {
+            private long nextId = 1;
+
+            @Override
+            public void insertAll(long tenantId, List<NewStudent> batch, String createdBy) {
+            }
+
+            @Override
+            public Map<String, Long> findIdsByEmail(long tenantId, Collection<String> emails) {
+                Map<String, Long> ids = new HashMap<>();
+                emails.forEach(email -> ids.put(email, nextId++));
+                return ids;
+            }
+        };
+        service = new RosterImportService(students, courses, enrollments,
+                Validation.buildDefaultValidatorFactory().getValidator(), noTransactions,
+                new IngestProperties(500, 1000, DataSize.ofKilobytes(16)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                System.out.printf("%n  heap peak %s: %d KB", pool.getName(), pool.getPeakUsage().getUsed() / 1024);
+            }
+        }
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public RosterImportReport.Progress importCsv() throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return service.importCsv(1L, "bench", in, new RosterImportService.Sink() {
+                @Override
+                public void rowError(RosterImportReport.RowError error) {
+                }
+
+                @Override
+                public void progress(RosterImportReport.Progress progress) {
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.edira.edira_api.bench;
+
+import com.edira.edira_api.domain.timetable.CourseDemand;
+import com.edira.edira_api.domain.timetable.Room;
+import com.edira.edira_api.service.timetable.TimetableProblem;
+import com.edira.edira_api.service.timetable.TimetableSolver;
+import com.edira.edira_api.service.timetable.TimetableState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Colegio sintético de 1.000 cursos (2 a 4 bloques por semana, 3.000 bloques en total), 120
+ * profesores y 100 salas de 30 a 50 alumnos, en una semana de 5 días × 8 bloques.
+ *   - deltaMove / fullRescoreMove: un movimiento puntuado por diferencias (TimetableState) vs
+ *     contando el horario completo de nuevo, y deshecho.
+ *   - solveToFeasible: tiempo hasta el primer horario sin violaciones duras con 1 hilo y con uno
+ *     por procesador (threads=0).
+ *   ./mvnw -Pbench -DskipTests test -Djmh.args="TimetableSolver"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimetableSolverBenchmark {
+
+    private TimetableProblem problem;
+    private TimetableState state;
+    private SplittableRandom random;
+    private int slots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        problem = school();
+        slots = problem.days() * problem.slotsPerDay();
+        state = new TimetableState(problem);
+        random = new SplittableRandom(7);
+        state.randomize(random);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long deltaMove() {
+        int lesson = random.nextInt(problem.lessons());
+        int from = state.slot(lesson);
+        long cost = state.move(lesson, random.nextInt(slots), state.room(lesson));
+        state.move(lesson, from, state.room(lesson));
+        return cost;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long fullRescoreMove() {
+        int lesson = random.nextInt(problem.lessons());
+        int from = state.slot(lesson);
+        state.move(lesson, random.nextInt(slots), state.room(lesson));
+        long cost = state.recount();
+        state.move(lesson, from, state.room(lesson));
+        return cost;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Solve {
+
+        @Param({"1", "0"})
+        int threads;
+
+        TimetableProblem problem;
+        TimetableSolver solver;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            problem = school();
+            solver = new TimetableSolver(2000, 2_000_000, Duration.ofSeconds(1));
+            if (threads == 0) {
+                threads = Runtime.getRuntime().availableProcessors();
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public int solveToFeasible(Solve solve) {
+        TimetableSolver.Solution solution = solve.solver.solve(solve.problem, Duration.ofMinutes(2), solve.threads,
+                System.nanoTime(), true, (elapsedMs, hard, soft, moves) -> {
+                });
+        return solution.hardViolations();
+    }
+
+    static TimetableProblem school() {
+        SplittableRandom random = new SplittableRandom(1000);
+        List<CourseDemand> courses = new ArrayList<>(1000);
+        for (int course = 0; course < 1000; course++) {
+            courses.add(new CourseDemand(course + 1, 1 + course % 120, 2 + course % 3, 20 + random.nextInt(26)));
+        }
+        List<Room> rooms = new ArrayList<>(100);
+        for (int room = 0; room < 100; room++) {
+            rooms.add(new Room(room + 1, "R" + room, "Sala " + room, room < 20 ? 50 : 30 + random.nextInt(21)));
+        }
+        return TimetableProblem.of(courses, rooms, 5, 8);
+    }
+}
@@ -0,0 +1,140 @@
+package com.edira.edira_api.config;
+
+import com.edira.edira_api.service.attendance.AttendanceRollupService;
+import com.edira.edira_api.service.attendance.AttendanceService;
+import com.edira.edira_api.service.attendance.CheckInBuffer;
+import com.edira.edira_api.service.course.EnrollmentService;
+import com.edira.edira_api.service.gradebook.GradebookService;
+import com.edira.edira_api.service.gradebook.GradingFormulaService;
+import com.edira.edira_api.service.job.JobService;
+import com.edira.edira_api.service.risk.RiskScoringService;
+import com.edira.edira_api.service.roster.RosterImportService;
+import com.edira.edira_api.service.student.StudentImportService;
+import com.edira.edira_api.service.timetable.SectionService;
+import com.edira.edira_api.service.timetable.TimetableService;
+import com.edira.edira_api.shared.health.HealthChecker;
+import com.edira.edira_api.web.timetable.TimetableEventStreams;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springdoc.core.configuration.SpringDocConfiguration;
+import org.springdoc.core.configuration.SpringDocSpecPropertiesConfiguration;
+import org.springdoc.core.properties.SpringDocConfigProperties;
+import org.springdoc.webmvc.core.configuration.SpringDocWebMvcConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Genera el documento OpenAPI en build (sin DB: slice MVC con todos los controllers de main
+ * + springdoc) y lo compara con el que va dentro del jar (src/main/resources/openapi).
+ * Si un controller cambió y el archivo no, el build falla.
+ *
+ * Para regenerar después de cambiar un controller:
+ *   ./mvnw test -Dtest=OpenApiSpecTest -Dopenapi.update=true
+ *
+ * Si un controller nuevo depende de servicios, agregarlos a @MockitoBean(types = ...) en esta clase.
+ */
+@WebMvcTest(excludeFilters = @ComponentScan.Filter(type = FilterType.CUSTOM,
+        classes = OpenApiSpecTest.TestSourcesFilter.class))
+@ImportAutoConfiguration({
+        SpringDocConfiguration.class,
+        SpringDocConfigProperties.class,
+        SpringDocSpecPropertiesConfiguration.class,
+        SpringDocWebMvcConfiguration.class,
+        MultipartAutoConfiguration.class
+})
+@Import(OpenApiConfig.class)
+@AutoConfigureMockMvc(addFilters = false)
+@MockitoBean(types = {
+        AttendanceService.class, CheckInBuffer.class, AttendanceRollupService.class, EnrollmentService.class,
+        GradebookService.class, GradingFormulaService.class, HealthChecker.class, JobService.class,
+        RiskScoringService.class, RosterImportService.class, SectionService.class, StudentImportService.class,
+        TimetableService.class, TimetableEventStreams.class
+})
+class OpenApiSpecTest {
+
+    private static final Path SPEC_DIR = Path.of("src", "main", "resources", "openapi");
+    private static final String UPDATE_FLAG = "openapi.update";
+
+    @Autowired MockMvc mvc;
+
+    @Test
+    void specJson_coincideConLosControllers() throws Exception {
+        String generated = fetch("/v3/api-docs");
+        Path file = SPEC_DIR.resolve("openapi.json");
+        if (updateRequested()) {
+            write(file, generated);
+            return;
+        }
+        assertTrue(Files.exists(file), "Falta " + file + ". " + hint());
+        ObjectMapper json = new ObjectMapper();
+        JsonNode expected = json.readTree(Files.readString(file));
+        assertEquals(expected, json.readTree(generated),
+                "El OpenAPI generado no coincide con " + file + ". " + hint());
+    }
+
+    @Test
+    void specYaml_coincideConLosControllers() throws Exception {
+        String generated = fetch("/v3/api-docs.yaml");
+        Path file = SPEC_DIR.resolve("openapi.yaml");
+        if (updateRequested()) {
+            write(file, generated);
+            return;
+        }
+        assertTrue(Files.exists(file), "Falta " + file + ". " + hint());
+        assertEquals(normalize(Files.readString(file)), normalize(generated),
+                "El OpenAPI (YAML) generado no coincide con " + file + ". " + hint());
+    }
+
+    private String fetch(String path) throws Exception {
+        return mvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static boolean updateRequested() {
+        return Boolean.getBoolean(UPDATE_FLAG);
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, normalize(content), StandardCharsets.UTF_8);
+    }
+
+    private static String normalize(String text) {
+        String unix = text.replace("\r\n", "\n").strip();
+        return unix + "\n";
+    }
+
+    private static String hint() {
+        return "Regenerar con: ./mvnw test -Dtest=OpenApiSpecTest -D" + UPDATE_FLAG + "=true";
+    }
+
+    // Deja afuera los controllers de prueba (TestDummyController, los internos de los IT)
+    static class TestSourcesFilter implements TypeFilter {
+        @Override
+        public boolean match(MetadataReader reader, MetadataReaderFactory factory) throws IOException {
+            return reader.getResource().getURL().getPath().contains("/test-classes/");
+        }
+    }
+}
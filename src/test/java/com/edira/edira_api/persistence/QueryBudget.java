@@ -0,0 +1,34 @@
+package com.edira.edira_api.persistence;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Presupuesto de queries para un test de integración. Si el test (todas sus llamadas
+ * MockMvc / servicios en el mismo hilo) ejecuta más sentencias de las declaradas,
+ * o repite una misma forma de sentencia más veces de lo permitido (N+1), falla.
+ *
+ * <pre>
+ * &#64;Test
+ * &#64;QueryBudget(maxStatements = 3, maxRepeats = 1)
+ * void listarCursos_noHaceNMasUno() { ... }
+ * </pre>
+ *
+ * Requiere que el DataSource esté envuelto por el rastreo (edira.db.tracking.enabled=true,
+ * el default). Se puede poner en la clase para aplicarlo a todos sus tests.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    /** Máximo de sentencias ejecutadas por el test. */
+    int maxStatements();
+
+    /** Máximo de ejecuciones de una misma forma de sentencia; por defecto sin límite. */
+    int maxRepeats() default Integer.MAX_VALUE;
+}
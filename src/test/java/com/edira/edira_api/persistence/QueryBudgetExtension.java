@@ -0,0 +1,53 @@
+package com.edira.edira_api.persistence;
+
+import com.edira.edira_api.persistence.diagnostics.RequestSqlStats;
+import com.edira.edira_api.persistence.diagnostics.SqlRequestContext;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Abre un scope de {@link SqlRequestContext} alrededor de cada test anotado con
+ * {@link QueryBudget} y lo compara contra el presupuesto al terminar.
+ * Los scopes que abre {@code SqlStatsFilter} en cada request MockMvc quedan anidados
+ * dentro de este, así que el total incluye todas las llamadas del test.
+ */
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), SqlRequestContext.begin());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        RequestSqlStats stats = context.getStore(NAMESPACE).remove(context.getUniqueId(), RequestSqlStats.class);
+        if (stats == null) {
+            return;
+        }
+        SqlRequestContext.end(stats);
+        if (context.getExecutionException().isPresent()) {
+            return; // el test ya falló por otra razón
+        }
+        QueryBudget budget = findBudget(context);
+        if (stats.statements() > budget.maxStatements()) {
+            throw new AssertionFailedError("Presupuesto de queries excedido: " + stats.statements()
+                    + " sentencias (máximo " + budget.maxStatements() + "). " + stats.summary());
+        }
+        if (stats.maxRepeats() > budget.maxRepeats()) {
+            throw new AssertionFailedError("Posible N+1: la sentencia \"" + stats.mostRepeatedShape() + "\" se ejecutó "
+                    + stats.maxRepeats() + " veces (máximo " + budget.maxRepeats() + ").");
+        }
+    }
+
+    private static QueryBudget findBudget(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryBudget.class))
+                .orElseThrow();
+    }
+}
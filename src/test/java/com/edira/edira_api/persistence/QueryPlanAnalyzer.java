@@ -0,0 +1,134 @@
+package com.edira.edira_api.persistence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Lee la salida de {@code EXPLAIN FORMAT=JSON} de MySQL 8 y encuentra accesos problemáticos
+ * sobre tablas grandes. No depende de Spring ni de la base, para poder testearlo aparte.
+ */
+public final class QueryPlanAnalyzer {
+
+    public enum Problem {
+        /** access_type ALL (lee la tabla completa) o index (recorre el índice completo). */
+        FULL_SCAN,
+        /** using_filesort: ordena en memoria/disco en vez de leer en orden de índice. */
+        FILESORT
+    }
+
+    public record Violation(String table, Problem problem, String detail) {
+        @Override
+        public String toString() {
+            return problem + " en " + table + " (" + detail + ")";
+        }
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private QueryPlanAnalyzer() {
+    }
+
+    public static List<Violation> analyze(String explainJson, Collection<String> largeTables) {
+        Set<String> large = largeTables.stream().map(t -> t.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        List<Violation> violations = new ArrayList<>();
+        try {
+            walk(JSON.readTree(explainJson), large, violations);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("EXPLAIN JSON inválido: " + e.getMessage(), e);
+        }
+        return violations;
+    }
+
+    private static void walk(JsonNode node, Set<String> large, List<Violation> out) {
+        if (node.isArray()) {
+            node.forEach(child -> walk(child, large, out));
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+        if (node.hasNonNull("table_name") && node.hasNonNull("access_type")) {
+            String table = node.get("table_name").asText().toLowerCase(Locale.ROOT);
+            String access = node.get("access_type").asText();
+            if (large.contains(table) && ("ALL".equals(access) || "index".equals(access))) {
+                out.add(new Violation(table, Problem.FULL_SCAN, "access_type=" + access
+                        + ", rows=" + node.path("rows_examined_per_scan").asText("?")));
+            }
+        }
+        if (node.path("using_filesort").asBoolean(false)) {
+            List<String> tables = new ArrayList<>();
+            collectTables(node, tables);
+            tables.stream()
+                    .filter(large::contains)
+                    .distinct()
+                    .forEach(t -> out.add(new Violation(t, Problem.FILESORT, "using_filesort")));
+        }
+        node.properties().forEach(e -> walk(e.getValue(), large, out));
+    }
+
+    private static void collectTables(JsonNode node, List<String> out) {
+        if (node.isObject() && node.hasNonNull("table_name")) {
+            out.add(node.get("table_name").asText().toLowerCase(Locale.ROOT));
+        }
+        if (node.isContainerNode()) {
+            node.forEach(child -> collectTables(child, out));
+        }
+    }
+
+    /**
+     * Reemplaza los {@code ?} (fuera de comillas) por literales SQL, para poder hacer
+     * EXPLAIN de una sentencia preparada tal como la ejecutó el test.
+     */
+    public static String inline(String sql, List<Object> parameters) {
+        StringBuilder out = new StringBuilder(sql.length() + parameters.size() * 8);
+        int param = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                out.append(c);
+                if (c == '\\' && i + 1 < sql.length()) {
+                    out.append(sql.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+                out.append(c);
+            } else if (c == '?' && param < parameters.size()) {
+                out.append(literal(parameters.get(param++)));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String literal(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        if (value instanceof Boolean b) {
+            return b ? "1" : "0";
+        }
+        if (value instanceof byte[] bytes) {
+            return "X'" + HexFormat.of().formatHex(bytes) + "'";
+        }
+        String text = value instanceof Temporal || value instanceof java.util.Date
+                ? value.toString().replace('T', ' ')
+                : value.toString();
+        return "'" + text.replace("\\", "\\\\").replace("'", "''") + "'";
+    }
+}
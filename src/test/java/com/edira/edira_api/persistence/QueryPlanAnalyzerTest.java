@@ -0,0 +1,83 @@
+package com.edira.edira_api.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del analizador de EXPLAIN FORMAT=JSON (sin base de datos).
+ * Los JSON son recortes reales de MySQL 8.
+ */
+class QueryPlanAnalyzerTest {
+
+    private static final String LOOKUP_POR_INDICE = """
+            {"query_block": {"select_id": 1,
+              "table": {"table_name": "user_account", "access_type": "const",
+                        "possible_keys": ["uk_user_email_per_tenant"], "key": "uk_user_email_per_tenant",
+                        "rows_examined_per_scan": 1}}}
+            """;
+
+    private static final String FULL_SCAN_CON_FILESORT = """
+            {"query_block": {"select_id": 1,
+              "ordering_operation": {"using_filesort": true,
+                "table": {"table_name": "user_account", "access_type": "ALL",
+                          "rows_examined_per_scan": 120000, "attached_condition": "(status = 'ACTIVE')"}}}}
+            """;
+
+    private static final String JOIN_CON_SCAN_EN_TABLA_CHICA = """
+            {"query_block": {"select_id": 1,
+              "nested_loop": [
+                {"table": {"table_name": "tenant", "access_type": "ALL", "rows_examined_per_scan": 3}},
+                {"table": {"table_name": "user_account", "access_type": "ref", "key": "uk_user_email_per_tenant"}}
+              ]}}
+            """;
+
+    @Test
+    void lookupPorIndiceUnico_noTieneViolaciones() {
+        assertTrue(QueryPlanAnalyzer.analyze(LOOKUP_POR_INDICE, Set.of("user_account")).isEmpty());
+    }
+
+    @Test
+    void fullScanYFilesort_enTablaGrande_seReportanAmbos() {
+        // Ejecutar
+        List<QueryPlanAnalyzer.Violation> violations =
+                QueryPlanAnalyzer.analyze(FULL_SCAN_CON_FILESORT, Set.of("USER_ACCOUNT"));
+
+        // Verificar
+        assertEquals(2, violations.size());
+        assertTrue(violations.stream().anyMatch(v -> v.problem() == QueryPlanAnalyzer.Problem.FULL_SCAN));
+        assertTrue(violations.stream().anyMatch(v -> v.problem() == QueryPlanAnalyzer.Problem.FILESORT));
+        assertTrue(violations.stream().allMatch(v -> v.table().equals("user_account")));
+    }
+
+    @Test
+    void fullScan_enTablaNoMarcada_seIgnora() {
+        assertTrue(QueryPlanAnalyzer.analyze(JOIN_CON_SCAN_EN_TABLA_CHICA, Set.of("user_account")).isEmpty());
+        assertEquals(1, QueryPlanAnalyzer.analyze(JOIN_CON_SCAN_EN_TABLA_CHICA, Set.of("tenant")).size());
+    }
+
+    @Test
+    void inline_reemplazaParametrosFueraDeComillas() {
+        // Preparar
+        String sql = "select * from user_account where tenant_id = ? and email = ? and display_name <> '?' and created_at > ?";
+        List<Object> params = Arrays.asList(7L, "o'brien@x.cl", LocalDate.of(2025, 3, 1));
+
+        // Ejecutar
+        String inlined = QueryPlanAnalyzer.inline(sql, params);
+
+        // Verificar
+        assertEquals("select * from user_account where tenant_id = 7 and email = 'o''brien@x.cl'"
+                + " and display_name <> '?' and created_at > '2025-03-01'", inlined);
+    }
+
+    @Test
+    void inline_nullYBooleanos() {
+        assertEquals("update t set a = NULL, b = 1 where id = 3",
+                QueryPlanAnalyzer.inline("update t set a = ?, b = ? where id = ?", Arrays.asList(null, true, 3)));
+    }
+}
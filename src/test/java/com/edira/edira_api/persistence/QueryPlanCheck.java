@@ -0,0 +1,36 @@
+package com.edira.edira_api.persistence;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Revisa el plan de ejecución de cada sentencia que corre el test (EXPLAIN FORMAT=JSON
+ * contra el MySQL de Testcontainers) y falla si hay full scans o filesorts sobre tablas
+ * marcadas como grandes. Sirve para que un índice faltante (p.ej. un lookup en
+ * user_account que no usa uk_user_email_per_tenant) no llegue a prod sin que nadie lo note.
+ *
+ * <pre>
+ * &#64;Test
+ * &#64;QueryPlanCheck(largeTables = "user_account",
+ *         waivers = &#64;QueryPlanWaiver(sqlContains = "from user_account where status", reason = "reporte nocturno"))
+ * void buscarPorEmail_usaIndice() { ... }
+ * </pre>
+ *
+ * Necesita un contexto Spring (SpringExtension) con el DataSource rastreado; las sentencias
+ * se capturan en el hilo del test, así que cubre MockMvc y llamadas directas a servicios.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryPlanExtension.class)
+public @interface QueryPlanCheck {
+
+    /** Tablas donde un full scan o filesort no es aceptable (nombre físico, sin schema). */
+    String[] largeTables();
+
+    /** Excepciones explícitas, cada una con su razón. */
+    QueryPlanWaiver[] waivers() default {};
+}
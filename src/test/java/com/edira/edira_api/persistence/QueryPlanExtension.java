@@ -0,0 +1,89 @@
+package com.edira.edira_api.persistence;
+
+import com.edira.edira_api.persistence.diagnostics.CapturedStatement;
+import com.edira.edira_api.persistence.diagnostics.RequestSqlStats;
+import com.edira.edira_api.persistence.diagnostics.SqlRequestContext;
+import com.edira.edira_api.persistence.diagnostics.SqlShape;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Captura las sentencias del test (con sus parámetros) y, al terminar, corre
+ * {@code EXPLAIN FORMAT=JSON} sobre cada forma distinta que sea SELECT/UPDATE/DELETE.
+ */
+public class QueryPlanExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(QueryPlanExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        RequestSqlStats stats = SqlRequestContext.begin();
+        stats.captureStatements();
+        context.getStore(NAMESPACE).put(context.getUniqueId(), stats);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        RequestSqlStats stats = context.getStore(NAMESPACE).remove(context.getUniqueId(), RequestSqlStats.class);
+        if (stats == null) {
+            return;
+        }
+        SqlRequestContext.end(stats);
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        QueryPlanCheck check = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryPlanCheck.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryPlanCheck.class))
+                .orElseThrow();
+        JdbcTemplate jdbc = new JdbcTemplate(SpringExtension.getApplicationContext(context).getBean(DataSource.class));
+
+        // Una sola vez por forma: el plan no cambia entre ids distintos del mismo SELECT
+        Map<String, CapturedStatement> byShape = new LinkedHashMap<>();
+        for (CapturedStatement st : stats.captured()) {
+            byShape.putIfAbsent(SqlShape.of(st.sql()), st);
+        }
+
+        List<String> failures = new ArrayList<>();
+        byShape.forEach((shape, st) -> {
+            if (!explainable(shape)) {
+                return;
+            }
+            String sql = QueryPlanAnalyzer.inline(st.sql(), st.parameters());
+            String plan = jdbc.queryForObject("EXPLAIN FORMAT=JSON " + sql, String.class);
+            for (QueryPlanAnalyzer.Violation v : QueryPlanAnalyzer.analyze(plan, Arrays.asList(check.largeTables()))) {
+                if (!waived(check.waivers(), shape, v.problem())) {
+                    failures.add(v + "\n    " + sql);
+                }
+            }
+        });
+        if (!failures.isEmpty()) {
+            throw new AssertionFailedError("Planes de ejecución no permitidos sobre tablas grandes:\n  - "
+                    + String.join("\n  - ", failures));
+        }
+    }
+
+    private static boolean explainable(String shape) {
+        String s = shape.toLowerCase(Locale.ROOT);
+        return s.startsWith("select") || s.startsWith("with") || s.startsWith("update") || s.startsWith("delete");
+    }
+
+    private static boolean waived(QueryPlanWaiver[] waivers, String shape, QueryPlanAnalyzer.Problem problem) {
+        return Arrays.stream(waivers).anyMatch(w ->
+                shape.contains(SqlShape.of(w.sqlContains()))
+                        && Arrays.asList(w.allow()).contains(problem));
+    }
+}
@@ -0,0 +1,24 @@
+package com.edira.edira_api.persistence;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Permite un plan "malo" puntual dentro de un {@link QueryPlanCheck}. Se compara contra
+ * la forma normalizada de la sentencia (minúsculas, literales como {@code ?}); el fragmento
+ * se normaliza igual, así que se puede escribir con literales.
+ */
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryPlanWaiver {
+
+    /** Fragmento de la forma normalizada de la sentencia, p.ej. {@code "from user_account where status = ?"}. */
+    String sqlContains();
+
+    /** Qué problemas se permiten; por defecto ambos. */
+    QueryPlanAnalyzer.Problem[] allow() default {QueryPlanAnalyzer.Problem.FULL_SCAN, QueryPlanAnalyzer.Problem.FILESORT};
+
+    /** Por qué está bien (queda en el código para la próxima persona que lo lea). */
+    String reason();
+}
@@ -0,0 +1,46 @@
+package com.edira.edira_api.persistence;
+
+import com.edira.edira_api.TestcontainersConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Ejemplo de uso de @QueryPlanCheck contra el MySQL de Testcontainers (requiere Docker).
+ * user_account se marca como tabla grande: el lookup por (tenant_id, email) tiene que ir
+ * por uk_user_email_per_tenant; el listado por status no tiene índice y queda como waiver.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class UserAccountQueryPlanIT {
+
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void datos() {
+        jdbc.update("INSERT IGNORE INTO tenant (id, code, name) VALUES (1, 'demo', 'Demo')");
+        jdbc.update("INSERT IGNORE INTO user_account (tenant_id, email, password_hash) VALUES (1, 'ana@demo.cl', 'x')");
+        jdbc.update("INSERT IGNORE INTO user_account (tenant_id, email, password_hash) VALUES (1, 'beto@demo.cl', 'x')");
+    }
+
+    @Test
+    @QueryPlanCheck(largeTables = "user_account")
+    void buscarPorTenantYEmail_usaIndiceUnico() {
+        Long id = jdbc.queryForObject("SELECT id FROM user_account WHERE tenant_id = ? AND email = ?",
+                Long.class, 1L, "ana@demo.cl");
+        assertEquals(1, jdbc.queryForList("SELECT id FROM user_account WHERE id = ?", id).size());
+    }
+
+    @Test
+    @QueryPlanCheck(largeTables = "user_account", waivers = @QueryPlanWaiver(
+            sqlContains = "from user_account where status = ?",
+            reason = "listado administrativo paginado, sin índice por status a propósito"))
+    void listarPorStatus_sinIndice_quedaCubiertoPorWaiver() {
+        jdbc.queryForList("SELECT id FROM user_account WHERE status = ? ORDER BY email", "ACTIVE");
+    }
+}
@@ -0,0 +1,114 @@
+package com.edira.edira_api.persistence.attendance;
+
+import com.edira.edira_api.TestcontainersConfiguration;
+import com.edira.edira_api.domain.attendance.CheckInReceipt;
+import com.edira.edira_api.domain.attendance.ClassSession;
+import com.edira.edira_api.domain.course.Course;
+import com.edira.edira_api.service.attendance.AttendanceService;
+import com.edira.edira_api.service.attendance.CheckInBuffer;
+import com.edira.edira_api.service.course.EnrollmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Ráfaga de check-ins contra MySQL real (requiere Docker): 2000 alumnos del mismo curso hacen
+ * check-in a la vez, la mitad dos veces. Verifica que todos quedan registrados una sola vez y
+ * deja en el log el throughput y la latencia hasta la confirmación.
+ *   ./mvnw test -Dtest=CheckInLoadIT
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class CheckInLoadIT {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckInLoadIT.class);
+
+    private static final long TENANT = 44L;
+    private static final int STUDENTS = 2000;
+
+    @Autowired EnrollmentService enrollmentService;
+    @Autowired AttendanceService attendanceService;
+    @Autowired CheckInBuffer buffer;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void datos() {
+        jdbc.update("INSERT IGNORE INTO tenant (id, code, name) VALUES (?, 'checkin-it', 'Check-in IT')", TENANT);
+        jdbc.update("DELETE FROM course WHERE tenant_id = ?", TENANT);
+        jdbc.update("DELETE FROM student WHERE tenant_id = ?", TENANT);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            rows.add(new Object[]{TENANT, "Alumno", String.valueOf(i), "alumno" + i + "@checkin.it"});
+        }
+        jdbc.batchUpdate("INSERT INTO student (tenant_id, first_name, last_name, email) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void checkIn_dosMilSimultaneos_unaSesion_todosRegistradosUnaVez() throws Exception {
+        // Preparar
+        Course course = enrollmentService.createCourse(TENANT, "AULA-1", "Auditorio", STUDENTS, "it");
+        List<Long> studentIds = jdbc.queryForList("SELECT id FROM student WHERE tenant_id = ? ORDER BY id",
+                Long.class, TENANT);
+        enrollmentService.enrollAll(TENANT, course.id(), studentIds, "it");
+        ClassSession session = attendanceService.createSession(TENANT, course.id(), Instant.now(), "it");
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> latencies = new ArrayList<>();
+
+        // Ejecutar
+        long began;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < STUDENTS * 3 / 2; i++) {
+                long studentId = studentIds.get(i % STUDENTS);
+                latencies.add(executor.submit(() -> {
+                    start.await();
+                    long t0 = System.nanoTime();
+                    CheckInReceipt receipt = buffer.submit(TENANT, course.id(), session.id(), studentId)
+                            .get(30, TimeUnit.SECONDS);
+                    assertEquals(studentId, receipt.studentId());
+                    return System.nanoTime() - t0;
+                }));
+            }
+            began = System.nanoTime();
+            start.countDown();
+        }
+        long elapsed = System.nanoTime() - began;
+
+        // Verificar
+        ClassSession result = attendanceService.getSession(TENANT, course.id(), session.id()).session();
+        assertEquals(STUDENTS, result.present());
+        assertEquals(STUDENTS, jdbc.queryForObject("SELECT COUNT(*) FROM course_roster WHERE course_id = ?",
+                Integer.class, course.id()));
+
+        long[] sorted = new long[latencies.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = latencies.get(i).get();
+        }
+        Arrays.sort(sorted);
+        log.info("CHECK_IN_BENCH checkIns={} students={} elapsedMs={} throughput={}/s p50Ms={} p99Ms={} maxMs={}",
+                sorted.length, STUDENTS, elapsed / 1_000_000, Math.round(sorted.length / (elapsed / 1e9)),
+                millis(sorted[sorted.length / 2]), millis(sorted[(int) (sorted.length * 0.99)]),
+                millis(sorted[sorted.length - 1]));
+    }
+
+    // nanos a milisegundos con un decimal
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e5) / 10.0;
+    }
+}
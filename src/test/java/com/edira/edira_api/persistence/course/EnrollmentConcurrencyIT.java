@@ -0,0 +1,108 @@
+package com.edira.edira_api.persistence.course;
+
+import com.edira.edira_api.TestcontainersConfiguration;
+import com.edira.edira_api.domain.course.Course;
+import com.edira.edira_api.service.course.EnrollmentOutcome;
+import com.edira.edira_api.service.course.EnrollmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Apertura de matrículas contra MySQL real (requiere Docker): cientos de matrículas simultáneas
+ * al mismo curso. Verifica cupo exacto, asientos sin repetir y lista de espera sin huecos, y
+ * deja en el log el throughput y la latencia por matrícula.
+ *   ./mvnw test -Dtest=EnrollmentConcurrencyIT
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class EnrollmentConcurrencyIT {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentConcurrencyIT.class);
+
+    private static final long TENANT = 41L;
+    private static final int STUDENTS = 600;
+    private static final int CAPACITY = 150;
+
+    @Autowired EnrollmentService service;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void datos() {
+        jdbc.update("INSERT IGNORE INTO tenant (id, code, name) VALUES (?, 'enroll-it', 'Enrollment IT')", TENANT);
+        jdbc.update("DELETE FROM course WHERE tenant_id = ?", TENANT);
+        jdbc.update("DELETE FROM student WHERE tenant_id = ?", TENANT);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            rows.add(new Object[]{TENANT, "Alumno", String.valueOf(i), "alumno" + i + "@enroll.it"});
+        }
+        jdbc.batchUpdate("INSERT INTO student (tenant_id, first_name, last_name, email) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void enroll_cientosSimultaneos_enUnCurso_cupoExactoYListaDeEsperaOrdenada() throws Exception {
+        // Preparar
+        Course course = service.createCourse(TENANT, "BENCH-1", "Apertura", CAPACITY, "it");
+        List<Long> studentIds = jdbc.queryForList("SELECT id FROM student WHERE tenant_id = ? ORDER BY id",
+                Long.class, TENANT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> latencies = new ArrayList<>();
+
+        // Ejecutar
+        long began;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long studentId : studentIds) {
+                latencies.add(executor.submit(() -> {
+                    start.await();
+                    long t0 = System.nanoTime();
+                    EnrollmentOutcome outcome = service.enroll(TENANT, course.id(), studentId, true, "it");
+                    assertEquals(EnrollmentOutcome.Result.CREATED, outcome.result());
+                    return System.nanoTime() - t0;
+                }));
+            }
+            began = System.nanoTime();
+            start.countDown();
+        }
+        long elapsed = System.nanoTime() - began;
+
+        // Verificar
+        Course result = service.getCourse(TENANT, course.id());
+        assertEquals(CAPACITY, result.enrolled());
+        assertEquals(STUDENTS - CAPACITY, result.waitlisted());
+        assertEquals(CAPACITY, jdbc.queryForObject(
+                "SELECT COUNT(DISTINCT enrollment_id) FROM course_seat WHERE course_id = ? AND enrollment_id IS NOT NULL",
+                Integer.class, course.id()));
+        assertEquals(CAPACITY, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM enrollment WHERE course_id = ? AND status = 'ENROLLED'", Integer.class, course.id()));
+
+        long[] sorted = new long[latencies.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = latencies.get(i).get();
+        }
+        Arrays.sort(sorted);
+        log.info("ENROLL_BENCH students={} capacity={} elapsedMs={} throughput={}/s p50Ms={} p99Ms={} maxMs={}",
+                STUDENTS, CAPACITY, elapsed / 1_000_000, Math.round(STUDENTS / (elapsed / 1e9)),
+                millis(sorted[sorted.length / 2]), millis(sorted[(int) (sorted.length * 0.99)]),
+                millis(sorted[sorted.length - 1]));
+    }
+
+    // nanos a milisegundos con un decimal
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e5) / 10.0;
+    }
+}
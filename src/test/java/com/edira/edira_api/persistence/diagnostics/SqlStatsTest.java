@@ -0,0 +1,136 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de las estadísticas SQL por request: normalización de formas,
+ * detección de repeticiones (N+1) y anidamiento de scopes.
+ */
+class SqlStatsTest {
+
+    @AfterEach
+    void tearDown() {
+        while (SqlRequestContext.current() != null) {
+            SqlRequestContext.end(SqlRequestContext.current());
+        }
+    }
+
+    @Test
+    void sqlShape_literalesYListasIn_seNormalizan() {
+        assertEquals("select * from user_account where tenant_id = ? and email = ?",
+                SqlShape.of("SELECT *  FROM user_account WHERE tenant_id = 42 AND email = 'a''b@x.cl'"));
+        assertEquals("select id from course where id in (?)",
+                SqlShape.of("select id from course where id in (1, 2, 3)"));
+        assertEquals("select t1.col2 from tabla_2 t1 limit ?",
+                SqlShape.of("select t1.col2 from tabla_2 t1 limit 10"));
+    }
+
+    @Test
+    void sqlShape_mismoSelectDistintoId_tieneLaMismaForma() {
+        assertEquals(SqlShape.of("select * from role where id = 1"), SqlShape.of("select * from role where id = 77"));
+    }
+
+    @Test
+    void scopeAnidado_sumaEnElPadre() {
+        // Preparar
+        RequestSqlStats outer = SqlRequestContext.begin();
+        RequestSqlStats inner = SqlRequestContext.begin();
+
+        // Ejecutar
+        SqlRequestContext.record("select 1", 1_000_000);
+        SqlRequestContext.end(inner);
+        SqlRequestContext.record("select 2", 1_000_000);
+        SqlRequestContext.end(outer);
+
+        // Verificar
+        assertEquals(1, inner.statements());
+        assertEquals(2, outer.statements());
+        assertNull(SqlRequestContext.current());
+        assertEquals("-", SqlRequestContext.summary());
+    }
+
+    @Test
+    void sentenciasPreparadasRepetidas_seDetectanComoRepeticion() throws Exception {
+        // Preparar
+        DataSource pool = mock(DataSource.class);
+        Connection raw = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(raw);
+        when(raw.prepareStatement(anyString())).thenAnswer(inv -> mock(PreparedStatement.class));
+        TrackingDataSource dataSource = new TrackingDataSource(pool, new ConnectionUsageRegistry(
+                new SimpleMeterRegistry(), new ConnectionTrackingProperties(true, Duration.ofSeconds(5), 0.0, 10)));
+        RequestSqlStats stats = SqlRequestContext.begin();
+
+        // Ejecutar: un N+1 de libro
+        try (Connection c = dataSource.getConnection()) {
+            c.prepareStatement("select * from course").executeQuery();
+            for (int i = 0; i < 5; i++) {
+                try (PreparedStatement ps = c.prepareStatement("select * from enrollment where course_id = ?")) {
+                    ps.setLong(1, i);
+                    ps.executeQuery();
+                }
+            }
+        }
+        SqlRequestContext.end(stats);
+
+        // Verificar
+        assertEquals(6, stats.statements());
+        assertEquals(2, stats.distinctShapes());
+        assertEquals(5, stats.maxRepeats());
+        assertEquals("select * from enrollment where course_id = ?", stats.mostRepeatedShape());
+    }
+
+    @Test
+    void scopeCapturando_guardaSentenciaConParametros() throws Exception {
+        // Preparar
+        DataSource pool = mock(DataSource.class);
+        Connection raw = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(raw);
+        when(raw.prepareStatement(anyString())).thenAnswer(inv -> mock(PreparedStatement.class));
+        TrackingDataSource dataSource = new TrackingDataSource(pool, new ConnectionUsageRegistry(
+                new SimpleMeterRegistry(), new ConnectionTrackingProperties(true, Duration.ofSeconds(5), 0.0, 10)));
+        RequestSqlStats stats = SqlRequestContext.begin();
+        stats.captureStatements();
+
+        // Ejecutar
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("select id from user_account where tenant_id = ? and email = ?")) {
+            ps.setLong(1, 3L);
+            ps.setNull(2, java.sql.Types.VARCHAR);
+            ps.executeQuery();
+        }
+        SqlRequestContext.end(stats);
+
+        // Verificar
+        assertEquals(1, stats.captured().size());
+        CapturedStatement captured = stats.captured().get(0);
+        assertEquals("select id from user_account where tenant_id = ? and email = ?", captured.sql());
+        assertEquals(java.util.Arrays.asList(3L, null), captured.parameters());
+    }
+
+    @Test
+    void sinScopeAbierto_noSeEnvuelvenLasSentencias() throws Exception {
+        // Preparar
+        DataSource pool = mock(DataSource.class);
+        Connection raw = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(pool.getConnection()).thenReturn(raw);
+        when(raw.prepareStatement(anyString())).thenReturn(ps);
+        TrackingDataSource dataSource = new TrackingDataSource(pool, new ConnectionUsageRegistry(
+                new SimpleMeterRegistry(), new ConnectionTrackingProperties(true, Duration.ofSeconds(5), 0.0, 10)));
+
+        // Ejecutar y verificar
+        try (Connection c = dataSource.getConnection()) {
+            assertSame(ps, c.prepareStatement("select 1"));
+        }
+    }
+}
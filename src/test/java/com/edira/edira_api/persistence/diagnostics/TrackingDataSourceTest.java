@@ -0,0 +1,116 @@
+package com.edira.edira_api.persistence.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests del rastreo de conexiones: atribución por ruta, conteo de sentencias,
+ * conexiones activas y retenciones largas.
+ * Se usa Preparar/Ejecutar/Verificar igual que en el resto de tests unitarios.
+ */
+class TrackingDataSourceTest {
+
+    private SimpleMeterRegistry meters;
+    private DataSource pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meters = new SimpleMeterRegistry();
+        pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(inv -> mock(Connection.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConnectionOwnerContext.clear();
+    }
+
+    @Test
+    void conexion_cerrada_registraRutaYSentencias() throws Exception {
+        // Preparar
+        ConnectionUsageRegistry registry = registry(Duration.ofSeconds(10), 0.0);
+        TrackingDataSource dataSource = new TrackingDataSource(pool, registry);
+        ConnectionOwnerContext.setRoute("GET /cursos/{id}");
+
+        // Ejecutar
+        try (Connection c = dataSource.getConnection()) {
+            c.prepareStatement("select 1");
+            c.prepareStatement("select 2");
+            c.createStatement();
+        }
+
+        // Verificar
+        ConnectionUsageReport report = registry.snapshot();
+        assertTrue(report.active().isEmpty());
+        assertEquals(1, report.owners().size());
+        ConnectionUsageReport.OwnerUsage usage = report.owners().get(0);
+        assertEquals("GET /cursos/{id}", usage.route());
+        assertEquals(ConnectionLease.NO_TRANSACTION, usage.transaction());
+        assertEquals(1, usage.acquisitions());
+        assertEquals(3, usage.statements());
+        assertEquals(1, meters.find("edira.db.connection.hold").tag("route", "GET /cursos/{id}").timer().count());
+        assertEquals(1, meters.find("edira.db.connection.acquire").timer().count());
+    }
+
+    @Test
+    void conexion_abierta_apareceComoActiva() throws Exception {
+        // Preparar
+        ConnectionUsageRegistry registry = registry(Duration.ofSeconds(10), 1.0);
+        TrackingDataSource dataSource = new TrackingDataSource(pool, registry);
+
+        // Ejecutar
+        Connection c = dataSource.getConnection();
+        ConnectionUsageReport report = registry.snapshot();
+        c.close();
+
+        // Verificar
+        assertEquals(1, report.active().size());
+        assertEquals(ConnectionOwnerContext.BACKGROUND, report.active().get(0).route());
+        assertFalse(report.active().get(0).callSite().isEmpty(), "con muestreo 1.0 siempre se captura el stack");
+        assertTrue(registry.snapshot().active().isEmpty());
+    }
+
+    @Test
+    void retencionSobreUmbral_quedaEnRecientesYContador() throws Exception {
+        // Preparar
+        ConnectionUsageRegistry registry = registry(Duration.ZERO, 0.0);
+        TrackingDataSource dataSource = new TrackingDataSource(pool, registry);
+
+        // Ejecutar
+        dataSource.getConnection().close();
+
+        // Verificar
+        ConnectionUsageReport report = registry.snapshot();
+        assertEquals(1, report.recentLongHolds().size());
+        assertEquals(1, report.owners().get(0).longHolds());
+        assertEquals(1.0, meters.find("edira.db.connection.long.holds").counter().count());
+    }
+
+    @Test
+    void dobleClose_noDuplicaEstadisticas() throws Exception {
+        // Preparar
+        ConnectionUsageRegistry registry = registry(Duration.ofSeconds(10), 0.0);
+        Connection c = new TrackingDataSource(pool, registry).getConnection();
+
+        // Ejecutar
+        c.close();
+        c.close();
+
+        // Verificar
+        assertEquals(1, registry.snapshot().owners().get(0).acquisitions());
+    }
+
+    private ConnectionUsageRegistry registry(Duration longHold, double sampleRate) {
+        return new ConnectionUsageRegistry(meters,
+                new ConnectionTrackingProperties(true, longHold, sampleRate, 10));
+    }
+}
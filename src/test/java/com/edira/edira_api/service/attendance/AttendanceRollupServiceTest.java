@@ -0,0 +1,202 @@
+package com.edira.edira_api.service.attendance;
+
+import com.edira.edira_api.domain.attendance.AttendanceRollup;
+import com.edira.edira_api.domain.attendance.AttendanceRollup.Point;
+import com.edira.edira_api.domain.attendance.AttendanceStatus;
+import com.edira.edira_api.domain.attendance.ClassSession;
+import com.edira.edira_api.domain.attendance.RollupGranularity;
+import com.edira.edira_api.persistence.attendance.AttendanceRollupRepository;
+import com.edira.edira_api.service.attendance.AttendanceServiceTest.CourseLookup;
+import com.edira.edira_api.service.attendance.AttendanceServiceTest.InMemoryAttendanceRepository;
+import com.edira.edira_api.service.attendance.AttendanceServiceTest.NoOpTransactionManager;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import static com.edira.edira_api.service.attendance.AttendanceServiceTest.COURSE;
+import static com.edira.edira_api.service.attendance.AttendanceServiceTest.PROPERTIES;
+import static com.edira.edira_api.service.attendance.AttendanceServiceTest.TENANT;
+import static com.edira.edira_api.service.attendance.AttendanceServiceTest.marks;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Totales de asistencia mantenidos en cada registro contra los mismos fakes en memoria de
+ * {@link AttendanceServiceTest}, comparados con un rebuild desde los bitmaps.
+ */
+class AttendanceRollupServiceTest {
+
+    private static final LocalDate WEEK_OF_MARCH_10 = LocalDate.of(2025, 3, 10);
+
+    private final InMemoryAttendanceRepository attendance = new InMemoryAttendanceRepository();
+    private final InMemoryRollupRepository repository = new InMemoryRollupRepository();
+    private final AttendanceRollupService rollups = new AttendanceRollupService(repository, attendance,
+            new CourseLookup(), new NoOpTransactionManager(), PROPERTIES);
+    private final AttendanceService service = new AttendanceService(attendance, new CourseLookup(), rollups,
+            new NoOpTransactionManager(), PROPERTIES);
+
+    @Test
+    void periodStart_termSegunMesesDeInicio_tomaElUltimoPeriodoEmpezado() {
+        // Ejecutar + Verificar (períodos desde marzo y agosto)
+        assertEquals(LocalDate.of(2024, 8, 1), rollups.periodStart(RollupGranularity.TERM, LocalDate.of(2025, 2, 28)));
+        assertEquals(LocalDate.of(2025, 3, 1), rollups.periodStart(RollupGranularity.TERM, LocalDate.of(2025, 3, 1)));
+        assertEquals(LocalDate.of(2025, 3, 1), rollups.periodStart(RollupGranularity.TERM, LocalDate.of(2025, 7, 31)));
+        assertEquals(LocalDate.of(2025, 8, 1), rollups.periodStart(RollupGranularity.TERM, LocalDate.of(2025, 12, 31)));
+        assertEquals(WEEK_OF_MARCH_10, rollups.periodStart(RollupGranularity.WEEK, LocalDate.of(2025, 3, 16)));
+        assertEquals(LocalDate.of(2025, 3, 1), rollups.periodStart(RollupGranularity.MONTH, LocalDate.of(2025, 3, 16)));
+    }
+
+    @Test
+    void record_sesionDeMadrugadaUtc_cuentaEnElDiaLocal() {
+        // Preparar: 02:00 UTC del lunes 10 es domingo 9 en Santiago (UTC-3)
+        attendance.enrolled.add(10L);
+        ClassSession session = service.createSession(TENANT, COURSE, Instant.parse("2025-03-10T02:00:00Z"), "prof");
+
+        // Ejecutar
+        service.mark(TENANT, COURSE, session.id(), marks(10L, AttendanceStatus.PRESENT), "prof");
+
+        // Verificar
+        AttendanceRollup days = rollups.course(TENANT, COURSE, RollupGranularity.DAY, null, null);
+        assertEquals(List.of(Point.of(LocalDate.of(2025, 3, 9), 1, 0, 0)), days.points());
+        AttendanceRollup weeks = rollups.course(TENANT, COURSE, RollupGranularity.WEEK, null, null);
+        assertEquals(LocalDate.of(2025, 3, 3), weeks.points().get(0).periodStart());
+    }
+
+    @Test
+    void mark_cambioDeEstado_mueveElTotalSinContarDosVeces() {
+        // Preparar
+        attendance.enrolled.addAll(List.of(10L, 11L));
+        ClassSession session = service.createSession(TENANT, COURSE, Instant.parse("2025-03-12T12:00:00Z"), "prof");
+        service.mark(TENANT, COURSE, session.id(), marks(10L, AttendanceStatus.ABSENT, 11L, AttendanceStatus.PRESENT), "prof");
+
+        // Ejecutar: el 10 llegó tarde, el 11 se vuelve a enviar igual
+        service.mark(TENANT, COURSE, session.id(), marks(10L, AttendanceStatus.LATE, 11L, AttendanceStatus.PRESENT), "prof");
+
+        // Verificar
+        assertEquals(List.of(Point.of(WEEK_OF_MARCH_10, 1, 0, 1)),
+                rollups.course(TENANT, COURSE, RollupGranularity.WEEK, null, null).points());
+        assertEquals(List.of(Point.of(WEEK_OF_MARCH_10, 0, 0, 1)),
+                rollups.student(TENANT, 10L, RollupGranularity.WEEK, null, null).points());
+        assertEquals(List.of(Point.of(LocalDate.of(2025, 3, 1), 1, 0, 1)),
+                rollups.tenant(TENANT, RollupGranularity.TERM, null, null).points());
+        List<AttendanceRollupRepository.RollupRow> last = repository.lastDeltas;
+        assertEquals(last.stream().sorted((a, b) -> Long.compare(a.studentId(), b.studentId())).toList(), last);
+    }
+
+    @Test
+    void rebuildCourse_despuesDeRegistrar_dejaLosMismosTotalesQueElIncremental() {
+        // Preparar: tres sesiones en dos semanas y dos meses, con marcas, cambios y check-ins
+        attendance.enrolled.addAll(List.of(10L, 11L, 12L, 13L));
+        ClassSession first = service.createSession(TENANT, COURSE, Instant.parse("2025-03-28T12:00:00Z"), "prof");
+        ClassSession second = service.createSession(TENANT, COURSE, Instant.parse("2025-04-01T12:00:00Z"), "prof");
+        ClassSession third = service.createSession(TENANT, COURSE, Instant.parse("2025-04-02T12:00:00Z"), "prof");
+        service.mark(TENANT, COURSE, first.id(), marks(10L, AttendanceStatus.PRESENT, 11L, AttendanceStatus.ABSENT,
+                12L, AttendanceStatus.LATE), "prof");
+        service.mark(TENANT, COURSE, first.id(), marks(11L, AttendanceStatus.PRESENT), "prof");
+        service.checkIn(TENANT, COURSE, second.id(), Map.of(10L, second.startsAt(), 13L, second.startsAt().plusSeconds(3600)));
+        service.mark(TENANT, COURSE, third.id(), marks(12L, AttendanceStatus.ABSENT, 13L, AttendanceStatus.ABSENT), "prof");
+        service.checkIn(TENANT, COURSE, third.id(), Map.of(13L, third.startsAt()));
+        Map<String, int[]> incremental = repository.snapshot();
+
+        // Ejecutar
+        int rows = rollups.rebuildCourse(TENANT, COURSE);
+
+        // Verificar
+        assertEquals(incremental.size(), rows);
+        assertEquals(render(incremental), render(repository.snapshot()));
+    }
+
+    @Test
+    void student_granularidadDia_rechaza() {
+        // Ejecutar + Verificar
+        assertThrows(IllegalArgumentException.class,
+                () -> rollups.student(TENANT, 10L, RollupGranularity.DAY, null, null));
+    }
+
+    private static String render(Map<String, int[]> rows) {
+        StringBuilder text = new StringBuilder();
+        rows.forEach((key, counts) -> text.append(key).append('=').append(counts[0]).append('/')
+                .append(counts[1]).append('/').append(counts[2]).append('\n'));
+        return text.toString();
+    }
+
+    /** attendance_rollup en memoria; la clave sigue el orden de la PK. */
+    static final class InMemoryRollupRepository extends AttendanceRollupRepository {
+
+        private final Map<String, int[]> rows = new TreeMap<>();
+        private final Map<String, Long> tenants = new TreeMap<>();
+        List<RollupRow> lastDeltas = List.of();
+
+        InMemoryRollupRepository() {
+            super(null);
+        }
+
+        @Override
+        public void addDeltas(long tenantId, long courseId, List<RollupRow> deltas) {
+            lastDeltas = new ArrayList<>(deltas);
+            for (RollupRow delta : deltas) {
+                int[] counts = rows.computeIfAbsent(key(courseId, delta.studentId(), delta.granularity(),
+                        delta.periodStart()), k -> new int[3]);
+                counts[0] += delta.present();
+                counts[1] += delta.absent();
+                counts[2] += delta.late();
+                tenants.put(key(courseId, delta.studentId(), delta.granularity(), delta.periodStart()), tenantId);
+            }
+        }
+
+        @Override
+        public void replaceCourse(long tenantId, long courseId, List<RollupRow> totals) {
+            rows.keySet().removeIf(key -> key.startsWith(courseId + "|"));
+            tenants.keySet().removeIf(key -> key.startsWith(courseId + "|"));
+            addDeltas(tenantId, courseId, totals);
+        }
+
+        @Override
+        public List<Point> findCourse(long courseId, long studentId, RollupGranularity granularity,
+                                      LocalDate from, LocalDate to) {
+            String prefix = courseId + "|" + studentId + "|" + granularity + "|";
+            return points(prefix, from, to, key -> true);
+        }
+
+        @Override
+        public List<Point> sumOverCourses(long tenantId, long studentId, RollupGranularity granularity,
+                                          LocalDate from, LocalDate to) {
+            String suffix = "|" + studentId + "|" + granularity + "|";
+            return points(null, from, to, key -> key.contains(suffix) && tenants.get(key) == tenantId
+                    && key.indexOf(suffix) == key.indexOf('|'));
+        }
+
+        Map<String, int[]> snapshot() {
+            Map<String, int[]> copy = new TreeMap<>();
+            rows.forEach((key, counts) -> copy.put(key, counts.clone()));
+            return copy;
+        }
+
+        private List<Point> points(String prefix, LocalDate from, LocalDate to,
+                                   Predicate<String> filter) {
+            Map<LocalDate, long[]> sums = new TreeMap<>();
+            rows.forEach((key, counts) -> {
+                LocalDate period = LocalDate.parse(key.substring(key.lastIndexOf('|') + 1));
+                if ((prefix == null || key.startsWith(prefix)) && filter.test(key)
+                        && !period.isBefore(from) && !period.isAfter(to)) {
+                    long[] sum = sums.computeIfAbsent(period, p -> new long[3]);
+                    for (int i = 0; i < 3; i++) {
+                        sum[i] += counts[i];
+                    }
+                }
+            });
+            List<Point> points = new ArrayList<>();
+            sums.forEach((period, sum) -> points.add(Point.of(period, sum[0], sum[1], sum[2])));
+            return points;
+        }
+
+        private static String key(long courseId, long studentId, RollupGranularity granularity, LocalDate period) {
+            return courseId + "|" + studentId + "|" + granularity + "|" + period;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.edira.edira_api.service.attendance;
+
+import com.edira.edira_api.domain.attendance.AttendanceMark;
+import com.edira.edira_api.domain.attendance.AttendanceStatus;
+import com.edira.edira_api.domain.attendance.CheckInReceipt;
+import com.edira.edira_api.domain.attendance.ClassSession;
+import com.edira.edira_api.domain.attendance.SessionAttendance;
+import com.edira.edira_api.domain.attendance.StudentAttendance;
+import com.edira.edira_api.persistence.attendance.AttendanceRepository;
+import com.edira.edira_api.persistence.attendance.SessionBitmaps;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Asistencia con tablas en memoria que guardan los bitmaps serializados, como los blobs de
+ * class_session: cada lectura vuelve a pasar por el formato portable de Roaring.
+ */
+class AttendanceServiceTest {
+
+    static final long TENANT = 7L;
+    static final long COURSE = 1L;
+    private static final Instant MONDAY = Instant.parse("2025-03-10T11:30:00Z");
+    private static final Instant TUESDAY = Instant.parse("2025-03-11T11:30:00Z");
+
+    static final AttendanceProperties PROPERTIES = new AttendanceProperties(Duration.ofMinutes(10),
+            Duration.ofMillis(10), 500, 20000, 4, Duration.ofSeconds(5), ZoneId.of("America/Santiago"), List.of(3, 8));
+
+    private final InMemoryAttendanceRepository repository = new InMemoryAttendanceRepository();
+    private final AttendanceRollupService rollups = new AttendanceRollupService(
+            new AttendanceRollupServiceTest.InMemoryRollupRepository(), repository, new CourseLookup(),
+            new NoOpTransactionManager(), PROPERTIES);
+    private final AttendanceService service = new AttendanceService(repository, new CourseLookup(), rollups,
+            new NoOpTransactionManager(), PROPERTIES);
+
+    @Test
+    void mark_variosAlumnos_guardaUnEstadoPorAlumno() {
+        // Preparar
+        repository.enrolled.addAll(List.of(10L, 11L, 12L));
+        ClassSession session = service.createSession(TENANT, COURSE, MONDAY, "prof");
+
+        // Ejecutar
+        ClassSession marked = service.mark(TENANT, COURSE, session.id(),
+                marks(10L, AttendanceStatus.PRESENT, 11L, AttendanceStatus.LATE, 12L, AttendanceStatus.ABSENT), "prof");
+        SessionAttendance view = service.getSession(TENANT, COURSE, session.id());
+
+        // Verificar
+        assertEquals(1, marked.present());
+        assertEquals(1, marked.late());
+        assertEquals(1, marked.absent());
+        assertEquals(List.of(new AttendanceMark(10L, AttendanceStatus.PRESENT),
+                new AttendanceMark(11L, AttendanceStatus.LATE),
+                new AttendanceMark(12L, AttendanceStatus.ABSENT)), view.marks());
+    }
+
+    @Test
+    void mark_cambioDeEstado_quedaEnUnSoloBitmap() {
+        // Preparar
+        repository.enrolled.addAll(List.of(10L, 11L));
+        ClassSession session = service.createSession(TENANT, COURSE, MONDAY, "prof");
+        service.mark(TENANT, COURSE, session.id(),
+                marks(10L, AttendanceStatus.ABSENT, 11L, AttendanceStatus.PRESENT), "prof");
+
+        // Ejecutar: el alumno 10 llegó tarde; el 11 no se toca
+        ClassSession marked = service.mark(TENANT, COURSE, session.id(), marks(10L, AttendanceStatus.LATE), "prof");
+
+        // Verificar
+        assertEquals(0, marked.absent());
+        assertEquals(1, marked.late());
+        assertEquals(1, marked.present());
+    }
+
+    @Test
+    void mark_alumnoQueEntraAMitadDeSemestre_noCambiaLasSesionesAnteriores() {
+        // Preparar
+        repository.enrolled.addAll(List.of(10L, 11L));
+        ClassSession monday = service.createSession(TENANT, COURSE, MONDAY, "prof");
+        service.mark(TENANT, COURSE, monday.id(),
+                marks(10L, AttendanceStatus.PRESENT, 11L, AttendanceStatus.ABSENT), "prof");
+        ClassSession tuesday = service.createSession(TENANT, COURSE, TUESDAY, "prof");
+
+        // Ejecutar: entra el 5 (id menor que los demás) y el 11 se da de baja
+        repository.enrolled.add(5L);
+        repository.enrolled.remove(11L);
+        service.mark(TENANT, COURSE, tuesday.id(),
+                marks(5L, AttendanceStatus.PRESENT, 10L, AttendanceStatus.LATE, 11L, AttendanceStatus.ABSENT), "prof");
+
+        // Verificar: ordinal nuevo al final, el 11 conserva el suyo y el lunes no cambia
+        assertEquals(Map.of(10L, 0, 11L, 1, 5L, 2), repository.roster);
+        assertEquals(List.of(new AttendanceMark(10L, AttendanceStatus.PRESENT),
+                new AttendanceMark(11L, AttendanceStatus.ABSENT)), service.getSession(TENANT, COURSE, monday.id()).marks());
+        StudentAttendance newcomer = service.studentHistory(TENANT, COURSE, 5L, null, null);
+        assertEquals(2, newcomer.sessions());
+        assertEquals(1, newcomer.present());
+        assertEquals(1, newcomer.unmarked());
+        assertNull(newcomer.history().get(0).status());
+        assertEquals(AttendanceStatus.PRESENT, newcomer.history().get(1).status());
+    }
+
+    @Test
+    void mark_alumnoSinMatricula_lanzaIllegalArgumentSinTocarLaSesion() {
+        // Preparar
+        repository.enrolled.add(10L);
+        ClassSession session = service.createSession(TENANT, COURSE, MONDAY, "prof");
+
+        // Ejecutar
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> service.mark(TENANT,
+                COURSE, session.id(), marks(10L, AttendanceStatus.PRESENT, 99L, AttendanceStatus.PRESENT), "prof"));
+
+        // Verificar
+        assertTrue(error.getMessage().contains("99"));
+        assertEquals(0, service.getSession(TENANT, COURSE, session.id()).marks().size());
+        assertTrue(repository.roster.isEmpty());
+    }
+
+    @Test
+    void checkIn_aTiempoTardeYRepetido_resuelveCadaAlumnoEnUnaEscritura() {
+        // Preparar
+        repository.enrolled.addAll(List.of(10L, 11L, 12L));
+        ClassSession session = service.createSession(TENANT, COURSE, MONDAY, "prof");
+        service.mark(TENANT, COURSE, session.id(), marks(12L, AttendanceStatus.ABSENT), "prof");
+        service.checkIn(TENANT, COURSE, session.id(), Map.of(10L, MONDAY.plusSeconds(30)));
+        int writes = repository.writes;
+
+        // Ejecutar
+        Map<Long, CheckInReceipt> receipts = service.checkIn(TENANT, COURSE, session.id(), Map.of(
+                10L, MONDAY.plusSeconds(1200),
+                11L, MONDAY.plusSeconds(1200),
+                12L, MONDAY.plusSeconds(60),
+                99L, MONDAY));
+
+        // Verificar
+        assertEquals(writes + 1, repository.writes);
+        assertEquals(new CheckInReceipt(session.id(), 10L, AttendanceStatus.PRESENT,
+                CheckInReceipt.Result.ALREADY_CHECKED_IN), receipts.get(10L));
+        assertEquals(AttendanceStatus.LATE, receipts.get(11L).status());
+        assertEquals(CheckInReceipt.Result.CHECKED_IN, receipts.get(12L).result());
+        assertEquals(AttendanceStatus.PRESENT, receipts.get(12L).status());
+        assertEquals(CheckInReceipt.Result.NOT_ENROLLED, receipts.get(99L).result());
+        ClassSession after = service.getSession(TENANT, COURSE, session.id()).session();
+        assertEquals(2, after.present());
+        assertEquals(1, after.late());
+        assertEquals(0, after.absent());
+    }
+
+    @Test
+    void studentHistory_rango_cuentaSoloLasSesionesDelRango() {
+        // Preparar
+        repository.enrolled.add(10L);
+        ClassSession monday = service.createSession(TENANT, COURSE, MONDAY, "prof");
+        ClassSession tuesday = service.createSession(TENANT, COURSE, TUESDAY, "prof");
+        service.mark(TENANT, COURSE, monday.id(), marks(10L, AttendanceStatus.ABSENT), "prof");
+        service.mark(TENANT, COURSE, tuesday.id(), marks(10L, AttendanceStatus.PRESENT), "prof");
+
+        // Ejecutar
+        StudentAttendance all = service.studentHistory(TENANT, COURSE, 10L, null, null);
+        StudentAttendance fromTuesday = service.studentHistory(TENANT, COURSE, 10L, TUESDAY, null);
+
+        // Verificar
+        assertEquals(2, all.sessions());
+        assertEquals(1, all.absent());
+        assertEquals(1, all.present());
+        assertEquals(1, fromTuesday.sessions());
+        assertEquals(0, fromTuesday.absent());
+        assertEquals(tuesday.id(), fromTuesday.history().get(0).sessionId());
+    }
+
+    @Test
+    void getSession_deOtroCurso_lanzaNotFound() {
+        // Preparar
+        ClassSession session = service.createSession(TENANT, COURSE, MONDAY, "prof");
+
+        // Ejecutar + Verificar
+        assertThrows(NotFoundException.class, () -> service.getSession(TENANT, 2L, session.id()));
+        assertThrows(NotFoundException.class, () -> service.mark(99L, COURSE, session.id(),
+                marks(10L, AttendanceStatus.PRESENT), "prof"));
+    }
+
+    static Map<Long, AttendanceStatus> marks(Object... pairs) {
+        Map<Long, AttendanceStatus> marks = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            marks.put((Long) pairs[i], (AttendanceStatus) pairs[i + 1]);
+        }
+        return marks;
+    }
+
+    /** Un único curso y tenant: cualquier otro no existe. */
+    static final class CourseLookup extends EnrollmentRepository {
+
+        CourseLookup() {
+            super(null);
+        }
+
+        @Override
+        public boolean courseExists(long tenantId, long courseId) {
+            return tenantId == TENANT && courseId == COURSE;
+        }
+
+        @Override
+        public boolean studentExists(long tenantId, long studentId) {
+            return tenantId == TENANT;
+        }
+    }
+
+    static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    static final class InMemoryAttendanceRepository extends AttendanceRepository {
+
+        private record Row(long tenantId, long courseId, Instant startsAt, byte[] present, byte[] absent,
+                           byte[] late) {
+        }
+
+        private final Map<Long, Row> sessions = new TreeMap<>();
+        private final Map<Long, Integer> roster = new HashMap<>();
+        final Set<Long> enrolled = new HashSet<>();
+        private int writes;
+
+        InMemoryAttendanceRepository() {
+            super(null);
+        }
+
+        @Override
+        public long insertSession(long tenantId, long courseId, Instant startsAt, String createdBy) {
+            byte[] empty = SessionBitmaps.serialize(SessionBitmaps.empty().present());
+            long id = sessions.size() + 1;
+            sessions.put(id, new Row(tenantId, courseId, startsAt, empty, empty, empty));
+            return id;
+        }
+
+        @Override
+        public Optional<ClassSession> findSession(long tenantId, long courseId, long sessionId) {
+            Row row = sessions.get(sessionId);
+            if (row == null || row.tenantId() != tenantId || row.courseId() != courseId) {
+                return Optional.empty();
+            }
+            SessionBitmaps bitmaps = SessionBitmaps.wrap(row.present(), row.absent(), row.late());
+            return Optional.of(new ClassSession(sessionId, courseId, row.startsAt(), bitmaps.present().getCardinality(),
+                    bitmaps.absent().getCardinality(), bitmaps.late().getCardinality()));
+        }
+
+        @Override
+        public Optional<SessionBitmaps> findBitmaps(long sessionId) {
+            return Optional.ofNullable(sessions.get(sessionId))
+                    .map(row -> SessionBitmaps.wrap(row.present(), row.absent(), row.late()));
+        }
+
+        @Override
+        public Optional<SessionBitmaps> lockBitmaps(long tenantId, long courseId, long sessionId) {
+            return findSession(tenantId, courseId, sessionId).flatMap(session -> findBitmaps(sessionId));
+        }
+
+        @Override
+        public void updateBitmaps(long sessionId, SessionBitmaps bitmaps, String updatedBy) {
+            writes++;
+            Row row = sessions.get(sessionId);
+            sessions.put(sessionId, new Row(row.tenantId(), row.courseId(), row.startsAt(),
+                    SessionBitmaps.serialize(bitmaps.present()), SessionBitmaps.serialize(bitmaps.absent()),
+                    SessionBitmaps.serialize(bitmaps.late())));
+        }
+
+        @Override
+        public void forEachSession(long courseId, Instant from, Instant to, SessionHandler handler) {
+            sessions.keySet().stream()
+                    .map(id -> findSession(sessions.get(id).tenantId(), courseId, id))
+                    .flatMap(Optional::stream)
+                    .filter(s -> !s.startsAt().isBefore(from) && s.startsAt().isBefore(to))
+                    .forEach(s -> handler.accept(s, findBitmaps(s.id()).orElseThrow()));
+        }
+
+        @Override
+        public void forEachSessionLocked(long courseId, SessionHandler handler) {
+            forEachSession(courseId, Instant.EPOCH, Instant.MAX, handler);
+        }
+
+        @Override
+        public OptionalInt findOrdinal(long courseId, long studentId) {
+            Integer ordinal = roster.get(studentId);
+            return ordinal == null ? OptionalInt.empty() : OptionalInt.of(ordinal);
+        }
+
+        @Override
+        public Map<Long, Integer> findOrdinals(long courseId, Collection<Long> studentIds) {
+            Map<Long, Integer> found = new HashMap<>();
+            studentIds.stream().filter(roster::containsKey).forEach(id -> found.put(id, roster.get(id)));
+            return found;
+        }
+
+        @Override
+        public long[] findRoster(long courseId) {
+            long[] byOrdinal = new long[roster.size()];
+            roster.forEach((studentId, ordinal) -> byOrdinal[ordinal] = studentId);
+            return byOrdinal;
+        }
+
+        @Override
+        public int lockRosterSize(long courseId) {
+            return roster.size();
+        }
+
+        @Override
+        public void appendToRoster(long courseId, int firstOrdinal, List<Long> studentIds) {
+            for (int i = 0; i < studentIds.size(); i++) {
+                roster.put(studentIds.get(i), firstOrdinal + i);
+            }
+        }
+
+        @Override
+        public Set<Long> findEnrolled(long courseId, Collection<Long> studentIds) {
+            return new HashSet<>(studentIds.stream().filter(enrolled::contains).toList());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.edira.edira_api.service.attendance;
+
+import com.edira.edira_api.domain.attendance.AttendanceStatus;
+import com.edira.edira_api.domain.attendance.CheckInReceipt;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Buffer de check-ins contra un {@link AttendanceService} falso que tarda como una escritura real
+ * y cuenta lotes, escrituras simultáneas y alumnos escritos.
+ */
+class CheckInBufferTest {
+
+    private static final long TENANT = 7L;
+    private static final long COURSE = 1L;
+
+    private CheckInBuffer buffer;
+
+    @AfterEach
+    void cerrar() {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void submit_dosMilCheckInsSimultaneos_seEscribenEnPocosLotesConfirmados() throws Exception {
+        // Preparar: 2000 alumnos en 20 sesiones, cada uno toca dos veces
+        SlowService service = new SlowService(Duration.ofMillis(5));
+        buffer = new CheckInBuffer(service, properties(200, 20000, 2), Clock.systemUTC());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CheckInReceipt>> acks = new ArrayList<>();
+
+        // Ejecutar
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 4000; i++) {
+                long studentId = i % 2000;
+                long sessionId = studentId % 20;
+                acks.add(executor.submit(() -> {
+                    start.await();
+                    return buffer.submit(TENANT, COURSE, sessionId, studentId).get(10, TimeUnit.SECONDS);
+                }));
+            }
+            start.countDown();
+        }
+
+        // Verificar: cada alumno escrito una vez y con confirmación; muchos menos lotes que check-ins
+        for (Future<CheckInReceipt> ack : acks) {
+            assertNotNull(ack.get().status());
+        }
+        assertEquals(2000, service.written.size());
+        assertEquals(0, buffer.pendingCount());
+        assertTrue(service.batches.get() < 400, "lotes=" + service.batches.get());
+        assertTrue(service.maxConcurrent.get() <= 2, "simultáneas=" + service.maxConcurrent.get());
+        assertTrue(service.maxConcurrentPerSession.values().stream().allMatch(max -> max.get() == 1));
+    }
+
+    @Test
+    void submit_bufferLleno_rechazaSinEncolar() {
+        // Preparar: la escritura no termina hasta que el test la suelta
+        SlowService service = new SlowService(Duration.ofSeconds(2));
+        buffer = new CheckInBuffer(service, properties(1, 3, 1), Clock.systemUTC());
+        for (long studentId = 1; studentId <= 3; studentId++) {
+            buffer.submit(TENANT, COURSE, 1, studentId);
+        }
+
+        // Ejecutar + Verificar
+        assertThrows(RejectedExecutionException.class, () -> buffer.submit(TENANT, COURSE, 1, 4));
+        assertEquals(3, buffer.pendingCount());
+    }
+
+    @Test
+    void submit_escrituraFalla_completaLosFuturesDelLoteConElError() {
+        // Preparar
+        SlowService service = new SlowService(Duration.ZERO);
+        service.failing = true;
+        buffer = new CheckInBuffer(service, properties(500, 20000, 1), Clock.systemUTC());
+
+        // Ejecutar
+        CompletableFuture<CheckInReceipt> first = buffer.submit(TENANT, COURSE, 9, 1);
+        CompletableFuture<CheckInReceipt> repeated = buffer.submit(TENANT, COURSE, 9, 1);
+
+        // Verificar
+        assertSame(first, repeated);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NotFoundException.class, error.getCause());
+    }
+
+    private static AttendanceProperties properties(int maxBatch, int maxPending, int concurrency) {
+        return new AttendanceProperties(Duration.ofMinutes(10), Duration.ofMillis(5), maxBatch, maxPending,
+                concurrency, Duration.ofSeconds(5), ZoneId.of("America/Santiago"), List.of(3, 8));
+    }
+
+    private static final class SlowService extends AttendanceService {
+
+        private final Duration latency;
+        private final Set<Long> written = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final Map<Long, AtomicInteger> perSession = new ConcurrentHashMap<>();
+        private final Map<Long, AtomicInteger> maxConcurrentPerSession = new ConcurrentHashMap<>();
+        private volatile boolean failing;
+
+        SlowService(Duration latency) {
+            super(null, null, null, null, null);
+            this.latency = latency;
+        }
+
+        @Override
+        public Map<Long, CheckInReceipt> checkIn(long tenantId, long courseId, long sessionId, Map<Long, Instant> arrivals) {
+            if (failing) {
+                throw new NotFoundException("Sesión " + sessionId + " no encontrada en el curso " + courseId + ".");
+            }
+            batches.incrementAndGet();
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            int inSession = perSession.computeIfAbsent(sessionId, id -> new AtomicInteger()).incrementAndGet();
+            maxConcurrentPerSession.computeIfAbsent(sessionId, id -> new AtomicInteger()).accumulateAndGet(inSession, Math::max);
+            try {
+                Thread.sleep(latency);
+                Map<Long, CheckInReceipt> receipts = new HashMap<>();
+                arrivals.forEach((studentId, at) -> receipts.put(studentId, written.add(studentId)
+                        ? new CheckInReceipt(sessionId, studentId, AttendanceStatus.PRESENT, CheckInReceipt.Result.CHECKED_IN)
+                        : new CheckInReceipt(sessionId, studentId, AttendanceStatus.PRESENT,
+                        CheckInReceipt.Result.ALREADY_CHECKED_IN)));
+                return receipts;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                perSession.get(sessionId).decrementAndGet();
+                concurrent.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,643 @@
+package com.edira.edira_api.service.course;
+
+import com.edira.edira_api.domain.course.Course;
+import com.edira.edira_api.domain.course.Enrollment;
+import com.edira.edira_api.domain.course.EnrollmentStatus;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.shared.error.ConflictException;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Matrículas con una base en memoria que imita lo que importa de InnoDB: locks de fila hasta el
+ * fin de la transacción, {@code SKIP LOCKED} y rollback (ver {@link InMemoryEnrollmentRepository}).
+ */
+class EnrollmentServiceTest {
+
+    private static final long TENANT = 7L;
+
+    private final InMemoryEnrollmentRepository repository = new InMemoryEnrollmentRepository();
+    private final EnrollmentService service = new EnrollmentService(repository, repository.transactionManager(),
+            new EnrollmentProperties(5000, Duration.ofSeconds(30), 100));
+
+    @Test
+    void enroll_conCupo_tomaElAsientoMasBajo() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 2, "admin");
+
+        // Ejecutar
+        EnrollmentOutcome first = service.enroll(TENANT, course.id(), student(1), false, "admin");
+        EnrollmentOutcome second = service.enroll(TENANT, course.id(), student(2), false, "admin");
+
+        // Verificar
+        assertEquals(EnrollmentOutcome.Result.CREATED, first.result());
+        assertEquals(EnrollmentStatus.ENROLLED, first.enrollment().status());
+        assertEquals(1, first.enrollment().seatNo());
+        assertEquals(2, second.enrollment().seatNo());
+        assertNull(first.enrollment().waitlistPosition());
+        assertEquals(2, service.getCourse(TENANT, course.id()).enrolled());
+    }
+
+    @Test
+    void enroll_cursoLlenoSinListaDeEspera_devuelveFullSinGuardarNada() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 1, "admin");
+        service.enroll(TENANT, course.id(), student(1), false, "admin");
+
+        // Ejecutar
+        EnrollmentOutcome outcome = service.enroll(TENANT, course.id(), student(2), false, "admin");
+
+        // Verificar
+        assertEquals(EnrollmentOutcome.Result.FULL, outcome.result());
+        assertNull(outcome.enrollment());
+        assertThrows(NotFoundException.class, () -> service.getEnrollment(TENANT, course.id(), 2));
+        assertEquals(0, service.getCourse(TENANT, course.id()).waitlisted());
+    }
+
+    @Test
+    void enroll_cursoLleno_quedaEnEsperaConPosicion() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 1, "admin");
+        service.enroll(TENANT, course.id(), student(1), true, "admin");
+
+        // Ejecutar
+        EnrollmentOutcome second = service.enroll(TENANT, course.id(), student(2), true, "admin");
+        EnrollmentOutcome third = service.enroll(TENANT, course.id(), student(3), true, "admin");
+
+        // Verificar
+        assertEquals(EnrollmentStatus.WAITLISTED, second.enrollment().status());
+        assertNull(second.enrollment().seatNo());
+        assertEquals(1, second.enrollment().waitlistPosition());
+        assertEquals(2, third.enrollment().waitlistPosition());
+    }
+
+    @Test
+    void enroll_repetido_devuelveLaMatriculaExistente() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 5, "admin");
+        Enrollment first = service.enroll(TENANT, course.id(), student(1), true, "admin").enrollment();
+
+        // Ejecutar
+        EnrollmentOutcome again = service.enroll(TENANT, course.id(), 1, true, "admin");
+
+        // Verificar
+        assertEquals(EnrollmentOutcome.Result.EXISTING, again.result());
+        assertEquals(first, again.enrollment());
+        assertEquals(1, service.getCourse(TENANT, course.id()).enrolled());
+    }
+
+    @Test
+    void enroll_cursoOAlumnoDeOtroTenant_lanzaNotFound() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 5, "admin");
+        repository.addStudent(99L, 50);
+
+        // Ejecutar / Verificar
+        assertThrows(NotFoundException.class, () -> service.enroll(99L, course.id(), 50, true, "admin"));
+        assertThrows(NotFoundException.class, () -> service.enroll(TENANT, course.id(), 50, true, "admin"));
+    }
+
+    @Test
+    void drop_matriculado_elAsientoPasaAlPrimeroEnEspera() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 1, "admin");
+        service.enroll(TENANT, course.id(), student(1), true, "admin");
+        service.enroll(TENANT, course.id(), student(2), true, "admin");
+        service.enroll(TENANT, course.id(), student(3), true, "admin");
+
+        // Ejecutar
+        service.drop(TENANT, course.id(), 1);
+
+        // Verificar
+        Enrollment promoted = service.getEnrollment(TENANT, course.id(), 2);
+        assertEquals(EnrollmentStatus.ENROLLED, promoted.status());
+        assertEquals(1, promoted.seatNo());
+        assertEquals(1, service.getEnrollment(TENANT, course.id(), 3).waitlistPosition());
+        assertThrows(NotFoundException.class, () -> service.getEnrollment(TENANT, course.id(), 1));
+    }
+
+    @Test
+    void enroll_asientoLibreConGenteEsperando_elAsientoEsDelPrimeroEnEspera() {
+        // Preparar: el asiento 1 quedó libre con alguien esperando (como tras un rollback concurrente)
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 1, "admin");
+        service.enroll(TENANT, course.id(), student(1), true, "admin");
+        service.enroll(TENANT, course.id(), student(2), true, "admin");
+        repository.forceDelete(course.id(), 1);
+
+        // Ejecutar
+        EnrollmentOutcome late = service.enroll(TENANT, course.id(), student(3), true, "admin");
+
+        // Verificar
+        assertEquals(EnrollmentStatus.WAITLISTED, late.enrollment().status());
+        assertEquals(1, late.enrollment().waitlistPosition());
+        assertEquals(EnrollmentStatus.ENROLLED, service.getEnrollment(TENANT, course.id(), 2).status());
+    }
+
+    @Test
+    void enroll_asientoLibreConGenteEsperandoSinListaDeEspera_devuelveFullSinGuardarNada() {
+        // Preparar: asiento 1 libre con el alumno 2 esperando
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 1, "admin");
+        service.enroll(TENANT, course.id(), student(1), true, "admin");
+        service.enroll(TENANT, course.id(), student(2), true, "admin");
+        repository.forceDelete(course.id(), 1);
+
+        // Ejecutar
+        EnrollmentOutcome outcome = service.enroll(TENANT, course.id(), student(3), false, "admin");
+
+        // Verificar: no se guarda la matrícula y el asiento queda para el primero en espera
+        assertEquals(EnrollmentOutcome.Result.FULL, outcome.result());
+        assertThrows(NotFoundException.class, () -> service.getEnrollment(TENANT, course.id(), 3));
+        assertEquals(EnrollmentStatus.WAITLISTED, service.getEnrollment(TENANT, course.id(), 2).status());
+        assertEquals(1, service.promoteWaitlists());
+        assertEquals(EnrollmentStatus.ENROLLED, service.getEnrollment(TENANT, course.id(), 2).status());
+    }
+
+    @Test
+    void enroll_asientoLibreConElPrimeroTomado_noSeLoDaAlSegundoYQuedaParaElPromotor() {
+        // Preparar: asiento 1 libre; el primero en espera (alumno 2) lo tiene tomado otra transacción
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 1, "admin");
+        service.enroll(TENANT, course.id(), student(1), true, "admin");
+        long head = service.enroll(TENANT, course.id(), student(2), true, "admin").enrollment().id();
+        service.enroll(TENANT, course.id(), student(3), true, "admin");
+        repository.forceDelete(course.id(), 1);
+        Thread other = new Thread(() -> { });
+        repository.hold(head, other);
+
+        // Ejecutar
+        EnrollmentOutcome late = service.enroll(TENANT, course.id(), student(4), true, "admin");
+
+        // Verificar: nadie se salta al primero; al soltarlo, el promotor le da el asiento
+        assertEquals(EnrollmentStatus.WAITLISTED, late.enrollment().status());
+        assertEquals(EnrollmentStatus.WAITLISTED, service.getEnrollment(TENANT, course.id(), 3).status());
+        assertEquals(0, service.getCourse(TENANT, course.id()).enrolled());
+        repository.release(other);
+        assertEquals(1, service.promoteWaitlists());
+        assertEquals(EnrollmentStatus.ENROLLED, service.getEnrollment(TENANT, course.id(), 2).status());
+    }
+
+    @Test
+    void changeCapacity_subir_promueveLaListaDeEsperaEnOrden() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 1, "admin");
+        for (long s = 1; s <= 4; s++) {
+            service.enroll(TENANT, course.id(), student(s), true, "admin");
+        }
+
+        // Ejecutar
+        Course updated = service.changeCapacity(TENANT, course.id(), 3, "admin");
+
+        // Verificar
+        assertEquals(new Course(course.id(), "MAT-101", "Cálculo I", 3, 3, 1), updated);
+        assertEquals(EnrollmentStatus.ENROLLED, service.getEnrollment(TENANT, course.id(), 3).status());
+        assertEquals(EnrollmentStatus.WAITLISTED, service.getEnrollment(TENANT, course.id(), 4).status());
+    }
+
+    @Test
+    void changeCapacity_bajarBajoLosMatriculados_lanzaConflictSinCambios() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 3, "admin");
+        service.enroll(TENANT, course.id(), student(1), true, "admin");
+        service.enroll(TENANT, course.id(), student(2), true, "admin");
+
+        // Ejecutar / Verificar
+        assertThrows(ConflictException.class, () -> service.changeCapacity(TENANT, course.id(), 1, "admin"));
+        assertEquals(3, service.getCourse(TENANT, course.id()).capacity());
+        assertEquals(2, service.changeCapacity(TENANT, course.id(), 2, "admin").capacity());
+    }
+
+    @Test
+    void enrollAll_lote_llenaElCupoEnOrdenYSaltaLosYaMatriculados() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 3, "admin");
+        service.enroll(TENANT, course.id(), student(1), true, "admin");
+
+        // Ejecutar
+        EnrollmentService.BatchResult result = service.enrollAll(TENANT, course.id(),
+                List.of(student(1), student(2), student(3), student(4), student(5)), "admin");
+
+        // Verificar
+        assertEquals(new EnrollmentService.BatchResult(4, 1, 2), result);
+        assertEquals(EnrollmentStatus.ENROLLED, service.getEnrollment(TENANT, course.id(), 3).status());
+        assertEquals(1, service.getEnrollment(TENANT, course.id(), 4).waitlistPosition());
+        assertEquals(2, service.getEnrollment(TENANT, course.id(), 5).waitlistPosition());
+    }
+
+    @Test
+    void promoteWaitlists_asientoLibreConEspera_loAsigna() {
+        // Preparar
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", 1, "admin");
+        service.enroll(TENANT, course.id(), student(1), true, "admin");
+        service.enroll(TENANT, course.id(), student(2), true, "admin");
+        repository.forceDelete(course.id(), 1);
+
+        // Ejecutar
+        int promoted = service.promoteWaitlists();
+
+        // Verificar
+        assertEquals(1, promoted);
+        assertEquals(EnrollmentStatus.ENROLLED, service.getEnrollment(TENANT, course.id(), 2).status());
+        assertEquals(0, service.promoteWaitlists());
+    }
+
+    @Test
+    void enroll_500Concurrentes_enUnCurso_llenanElCupoSinRepetirAsientos() throws Exception {
+        // Preparar
+        int capacity = 100;
+        int students = 500;
+        Course course = service.createCourse(TENANT, "MAT-101", "Cálculo I", capacity, "admin");
+        for (long s = 1; s <= students; s++) {
+            student(s);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<EnrollmentOutcome>> futures = new ArrayList<>();
+
+        // Ejecutar
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long s = 1; s <= students; s++) {
+                long studentId = s;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return service.enroll(TENANT, course.id(), studentId, studentId % 2 == 0, "admin");
+                }));
+            }
+            start.countDown();
+        }
+
+        // Verificar: cupo exacto, asientos únicos, FULL solo sin lista de espera y lista de espera 1..n
+        Set<Integer> seats = new HashSet<>();
+        int full = 0;
+        for (Future<EnrollmentOutcome> future : futures) {
+            EnrollmentOutcome outcome = future.get();
+            if (outcome.result() == EnrollmentOutcome.Result.FULL) {
+                full++;
+            }
+        }
+        List<Integer> positions = new ArrayList<>();
+        for (long s = 1; s <= students; s++) {
+            Optional<Enrollment> enrollment = repository.findEnrollment(TENANT, course.id(), s);
+            if (enrollment.isEmpty()) {
+                assertEquals(1, s % 2, "solo se rechaza a quien no pidió lista de espera");
+                continue;
+            }
+            if (enrollment.get().status() == EnrollmentStatus.ENROLLED) {
+                assertTrue(seats.add(enrollment.get().seatNo()));
+            } else {
+                positions.add(enrollment.get().waitlistPosition());
+            }
+        }
+        Course result = service.getCourse(TENANT, course.id());
+        assertEquals(capacity, seats.size());
+        assertEquals(capacity, result.enrolled());
+        assertEquals(students - capacity - full, result.waitlisted());
+        assertEquals(result.waitlisted(), new HashSet<>(positions).size());
+        assertTrue(positions.stream().allMatch(p -> p >= 1 && p <= result.waitlisted()));
+    }
+
+    private long student(long id) {
+        repository.addStudent(TENANT, id);
+        return id;
+    }
+
+    /**
+     * Tablas en memoria con la semántica de locks que usa el servicio: cada fila tomada queda del
+     * hilo de la transacción hasta commit/rollback, {@code SKIP LOCKED} salta las de otros hilos y
+     * el rollback deshace las escrituras en orden inverso.
+     */
+    static final class InMemoryEnrollmentRepository extends EnrollmentRepository {
+
+        private record CourseRow(long tenantId, String code, String name, int capacity) {
+        }
+
+        private record Row(long id, long tenantId, long courseId, long studentId, EnrollmentStatus status,
+                           Instant createdAt) {
+            Row with(EnrollmentStatus newStatus) {
+                return new Row(id, tenantId, courseId, studentId, newStatus, createdAt);
+            }
+        }
+
+        private final Map<Long, CourseRow> courses = new HashMap<>();
+        private final Map<Long, TreeMap<Integer, Long>> seats = new HashMap<>();
+        private final Map<Long, Row> enrollments = new TreeMap<>();
+        private final Set<String> students = ConcurrentHashMap.newKeySet();
+        private final Map<String, Thread> locks = new HashMap<>();
+        private final ThreadLocal<Deque<Runnable>> undo = ThreadLocal.withInitial(ArrayDeque::new);
+        private long nextCourseId = 1;
+        private long nextEnrollmentId = 1;
+
+        InMemoryEnrollmentRepository() {
+            super(null);
+        }
+
+        AbstractPlatformTransactionManager transactionManager() {
+            return new AbstractPlatformTransactionManager() {
+                @Override
+                protected Object doGetTransaction() {
+                    return new Object();
+                }
+
+                @Override
+                protected void doBegin(Object transaction, TransactionDefinition definition) {
+                }
+
+                @Override
+                protected void doCommit(DefaultTransactionStatus status) {
+                    end(false);
+                }
+
+                @Override
+                protected void doRollback(DefaultTransactionStatus status) {
+                    end(true);
+                }
+            };
+        }
+
+        void addStudent(long tenantId, long studentId) {
+            students.add(tenantId + ":" + studentId);
+        }
+
+        // Borra una matrícula por fuera del servicio, dejando su asiento libre
+        synchronized void forceDelete(long courseId, long studentId) {
+            Row row = enrollments.values().stream()
+                    .filter(r -> r.courseId() == courseId && r.studentId() == studentId).findFirst().orElseThrow();
+            enrollments.remove(row.id());
+            seats.get(courseId).replaceAll((seat, holder) -> holder != null && holder == row.id() ? null : holder);
+        }
+
+        // Deja la matrícula tomada por otra transacción (la de owner) hasta release(owner)
+        synchronized void hold(long enrollmentId, Thread owner) {
+            locks.put("enrollment:" + enrollmentId, owner);
+        }
+
+        synchronized void release(Thread owner) {
+            locks.values().removeIf(holder -> holder == owner);
+        }
+
+        private synchronized void end(boolean rollback) {
+            Deque<Runnable> actions = undo.get();
+            if (rollback) {
+                while (!actions.isEmpty()) {
+                    actions.pop().run();
+                }
+            }
+            actions.clear();
+            locks.values().removeIf(owner -> owner == Thread.currentThread());
+        }
+
+        private boolean tryLock(String key) {
+            Thread owner = locks.putIfAbsent(key, Thread.currentThread());
+            return owner == null || owner == Thread.currentThread();
+        }
+
+        @Override
+        public synchronized long insertCourse(long tenantId, String code, String name, int capacity, String createdBy) {
+            long id = nextCourseId++;
+            courses.put(id, new CourseRow(tenantId, code, name, capacity));
+            seats.put(id, new TreeMap<>());
+            undo.get().push(() -> {
+                courses.remove(id);
+                seats.remove(id);
+            });
+            return id;
+        }
+
+        @Override
+        public synchronized Optional<Course> findCourse(long tenantId, long courseId) {
+            CourseRow row = courses.get(courseId);
+            if (row == null || row.tenantId() != tenantId) {
+                return Optional.empty();
+            }
+            int enrolled = (int) seats.get(courseId).values().stream().filter(holder -> holder != null).count();
+            int waitlisted = (int) enrollments.values().stream()
+                    .filter(r -> r.courseId() == courseId && r.status() == EnrollmentStatus.WAITLISTED).count();
+            return Optional.of(new Course(courseId, row.code(), row.name(), row.capacity(), enrolled, waitlisted));
+        }
+
+        @Override
+        public synchronized boolean courseExists(long tenantId, long courseId) {
+            CourseRow row = courses.get(courseId);
+            return row != null && row.tenantId() == tenantId;
+        }
+
+        @Override
+        public boolean studentExists(long tenantId, long studentId) {
+            return students.contains(tenantId + ":" + studentId);
+        }
+
+        @Override
+        public synchronized OptionalInt lockCourseCapacity(long tenantId, long courseId) {
+            return courseExists(tenantId, courseId) ? OptionalInt.of(courses.get(courseId).capacity()) : OptionalInt.empty();
+        }
+
+        @Override
+        public synchronized void updateCapacity(long courseId, int capacity, String updatedBy) {
+            CourseRow previous = courses.get(courseId);
+            courses.put(courseId, new CourseRow(previous.tenantId(), previous.code(), previous.name(), capacity));
+            undo.get().push(() -> courses.put(courseId, previous));
+        }
+
+        @Override
+        public synchronized int maxSeatNo(long courseId) {
+            TreeMap<Integer, Long> courseSeats = seats.get(courseId);
+            return courseSeats.isEmpty() ? 0 : courseSeats.lastKey();
+        }
+
+        @Override
+        public synchronized void addSeats(long courseId, int firstSeatNo, int count) {
+            for (int seat = firstSeatNo; seat < firstSeatNo + count; seat++) {
+                int added = seat;
+                seats.get(courseId).put(added, null);
+                undo.get().push(() -> seats.get(courseId).remove(added));
+            }
+        }
+
+        @Override
+        public synchronized List<Integer> lockFreeSeats(long courseId, int limit, boolean highestFirst) {
+            TreeMap<Integer, Long> courseSeats = seats.get(courseId);
+            List<Integer> locked = new ArrayList<>();
+            for (Integer seat : highestFirst ? courseSeats.descendingKeySet() : courseSeats.navigableKeySet()) {
+                if (locked.size() == limit) {
+                    break;
+                }
+                if (courseSeats.get(seat) == null && tryLock("seat:" + courseId + ":" + seat)) {
+                    locked.add(seat);
+                }
+            }
+            return locked;
+        }
+
+        @Override
+        public synchronized void deleteSeats(long courseId, List<Integer> seatNos) {
+            for (Integer seat : seatNos) {
+                seats.get(courseId).remove(seat);
+                undo.get().push(() -> seats.get(courseId).put(seat, null));
+            }
+        }
+
+        @Override
+        public synchronized void assignSeat(long courseId, int seatNo, long enrollmentId, Instant now) {
+            assignSeatTo(courseId, seatNo, enrollmentId);
+        }
+
+        @Override
+        public synchronized void releaseSeat(long courseId, int seatNo) {
+            assignSeatTo(courseId, seatNo, null);
+        }
+
+        private void assignSeatTo(long courseId, int seatNo, Long enrollmentId) {
+            Long previous = seats.get(courseId).put(seatNo, enrollmentId);
+            undo.get().push(() -> seats.get(courseId).put(seatNo, previous));
+        }
+
+        @Override
+        public synchronized OptionalLong insertEnrollment(long tenantId, long courseId, long studentId,
+                                                          EnrollmentStatus status, String createdBy) {
+            boolean duplicate = enrollments.values().stream()
+                    .anyMatch(r -> r.courseId() == courseId && r.studentId() == studentId);
+            if (duplicate) {
+                return OptionalLong.empty();
+            }
+            long id = nextEnrollmentId++;
+            enrollments.put(id, new Row(id, tenantId, courseId, studentId, status, Instant.EPOCH.plusSeconds(id)));
+            tryLock("enrollment:" + id);
+            undo.get().push(() -> enrollments.remove(id));
+            return OptionalLong.of(id);
+        }
+
+        @Override
+        public synchronized void updateStatus(long enrollmentId, EnrollmentStatus status) {
+            Row previous = enrollments.get(enrollmentId);
+            enrollments.put(enrollmentId, previous.with(status));
+            undo.get().push(() -> enrollments.put(enrollmentId, previous));
+        }
+
+        @Override
+        public synchronized void deleteEnrollment(long enrollmentId) {
+            Row previous = enrollments.remove(enrollmentId);
+            undo.get().push(() -> enrollments.put(enrollmentId, previous));
+        }
+
+        @Override
+        public synchronized Optional<Enrollment> findEnrollment(long tenantId, long courseId, long studentId) {
+            return enrollments.values().stream()
+                    .filter(r -> r.tenantId() == tenantId && r.courseId() == courseId && r.studentId() == studentId)
+                    .findFirst()
+                    .map(r -> new Enrollment(r.id(), courseId, studentId, r.status(), seatOf(courseId, r.id()),
+                            r.status() == EnrollmentStatus.WAITLISTED ? position(courseId, r.id()) : null,
+                            r.createdAt()));
+        }
+
+        @Override
+        public synchronized Optional<HeldEnrollment> lockEnrollment(long tenantId, long courseId, long studentId) {
+            return enrollments.values().stream()
+                    .filter(r -> r.tenantId() == tenantId && r.courseId() == courseId && r.studentId() == studentId)
+                    .findFirst()
+                    .map(r -> {
+                        assertTrue(tryLock("enrollment:" + r.id()), "las pruebas no compiten por la misma baja");
+                        return new HeldEnrollment(r.id(), r.status(), seatOf(courseId, r.id()));
+                    });
+        }
+
+        @Override
+        public synchronized OptionalLong findWaitlistHead(long courseId) {
+            return enrollments.values().stream()
+                    .filter(r -> r.courseId() == courseId && r.status() == EnrollmentStatus.WAITLISTED)
+                    .mapToLong(Row::id).findFirst();
+        }
+
+        @Override
+        public synchronized boolean lockWaitlisted(long enrollmentId) {
+            Row row = enrollments.get(enrollmentId);
+            return row != null && row.status() == EnrollmentStatus.WAITLISTED && tryLock("enrollment:" + enrollmentId);
+        }
+
+        @Override
+        public synchronized List<Long> lockWaitlistHeads(long courseId, int limit) {
+            List<Long> heads = new ArrayList<>();
+            for (Row row : enrollments.values()) {
+                if (heads.size() == limit) {
+                    break;
+                }
+                if (row.courseId() == courseId && row.status() == EnrollmentStatus.WAITLISTED
+                        && tryLock("enrollment:" + row.id())) {
+                    heads.add(row.id());
+                }
+            }
+            return heads;
+        }
+
+        @Override
+        public synchronized void assignSeats(long courseId, List<Integer> seatNos, List<Long> enrollmentIds, Instant now) {
+            for (int i = 0; i < enrollmentIds.size(); i++) {
+                assignSeatTo(courseId, seatNos.get(i), enrollmentIds.get(i));
+            }
+        }
+
+        @Override
+        public synchronized void markEnrolled(Collection<Long> enrollmentIds) {
+            enrollmentIds.forEach(id -> updateStatus(id, EnrollmentStatus.ENROLLED));
+        }
+
+        @Override
+        public synchronized Set<Long> findEnrolledStudents(long courseId, Collection<Long> studentIds) {
+            Set<Long> found = new HashSet<>();
+            enrollments.values().stream().filter(r -> r.courseId() == courseId && studentIds.contains(r.studentId()))
+                    .forEach(r -> found.add(r.studentId()));
+            return found;
+        }
+
+        @Override
+        public synchronized void insertWaitlisted(long tenantId, long courseId, Collection<Long> studentIds,
+                                                  String createdBy) {
+            for (long studentId : studentIds) {
+                insertEnrollment(tenantId, courseId, studentId, EnrollmentStatus.WAITLISTED, createdBy);
+            }
+        }
+
+        @Override
+        public synchronized List<Long> findCoursesWithPromotableWaitlist(int limit) {
+            return courses.keySet().stream().sorted()
+                    .filter(id -> seats.get(id).containsValue(null))
+                    .filter(id -> enrollments.values().stream()
+                            .anyMatch(r -> r.courseId() == id && r.status() == EnrollmentStatus.WAITLISTED))
+                    .limit(limit)
+                    .toList();
+        }
+
+        private Integer seatOf(long courseId, long enrollmentId) {
+            return seats.get(courseId).entrySet().stream()
+                    .filter(e -> e.getValue() != null && e.getValue() == enrollmentId)
+                    .map(Map.Entry::getKey).findFirst().orElse(null);
+        }
+
+        private int position(long courseId, long enrollmentId) {
+            return (int) enrollments.values().stream().filter(r -> r.courseId() == courseId
+                    && r.status() == EnrollmentStatus.WAITLISTED && r.id() <= enrollmentId).count();
+        }
+    }
+}
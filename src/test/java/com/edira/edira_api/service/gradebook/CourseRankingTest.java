@@ -0,0 +1,89 @@
+package com.edira.edira_api.service.gradebook;
+
+import com.edira.edira_api.domain.gradebook.Standing;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CourseRankingTest {
+
+    @Test
+    void hundredths_promedioPonderado_redondeaALaCentesima() {
+        // Ejecutar + Verificar (sumas en décimas)
+        assertEquals(555, CourseRanking.hundredths(55 + 56, 2));
+        assertEquals(533, CourseRanking.hundredths(2 * 50 + 60, 3));
+        assertEquals(567, CourseRanking.hundredths(50 + 2 * 60, 3));
+        assertEquals(700, CourseRanking.hundredths(70 * 30, 30));
+    }
+
+    @Test
+    void standing_empates_compartenPuestoYPercentil() {
+        // Preparar
+        CourseRanking ranking = new CourseRanking(0);
+        for (int average : new int[]{700, 550, 550, 400}) {
+            ranking.add(average);
+        }
+
+        // Ejecutar + Verificar
+        assertEquals(new Standing(1, 4, 87.5), ranking.standing(700));
+        assertEquals(new Standing(2, 4, 50.0), ranking.standing(550));
+        assertEquals(new Standing(4, 4, 12.5), ranking.standing(400));
+        assertEquals(550, ranking.median());
+    }
+
+    @Test
+    void apply_desdeOtraVersion_noTocaElRanking() {
+        // Preparar
+        CourseRanking ranking = new CourseRanking(3);
+        ranking.add(500);
+
+        // Ejecutar
+        boolean applied = ranking.apply(2, 3, new int[]{500, 650});
+
+        // Verificar
+        assertFalse(applied);
+        assertEquals(3, ranking.version());
+        assertEquals(new Standing(1, 1, 50.0), ranking.standing(500));
+    }
+
+    @Test
+    void apply_movimientosAlAzar_coincideConOrdenarTodo() {
+        // Preparar: 300 alumnos que entran, cambian de promedio y se comparan contra una lista ordenada
+        Random random = new Random(46);
+        CourseRanking ranking = new CourseRanking(0);
+        int[] averages = new int[300];
+        Arrays.fill(averages, -1);
+        long version = 0;
+
+        // Ejecutar
+        for (int round = 0; round < 2000; round++) {
+            int student = random.nextInt(averages.length);
+            int next = CourseRanking.MIN + random.nextInt(CourseRanking.MAX - CourseRanking.MIN + 1);
+            assertTrue(ranking.apply(version, version + 1, new int[]{averages[student], next}));
+            averages[student] = next;
+            version++;
+        }
+
+        // Verificar
+        List<Integer> sorted = new ArrayList<>();
+        for (int average : averages) {
+            if (average >= 0) {
+                sorted.add(average);
+            }
+        }
+        sorted.sort(null);
+        assertEquals(sorted.size(), ranking.size());
+        assertEquals(sorted.get((sorted.size() + 1) / 2 - 1), ranking.median());
+        for (int average : averages) {
+            if (average >= 0) {
+                long above = sorted.stream().filter(other -> other > average).count();
+                assertEquals(above + 1, ranking.standing(average).rank());
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.edira.edira_api.service.gradebook;
+
+import com.edira.edira_api.domain.gradebook.CourseStanding;
+import com.edira.edira_api.domain.gradebook.Evaluation;
+import com.edira.edira_api.domain.gradebook.GradeBatch;
+import com.edira.edira_api.domain.gradebook.Standing;
+import com.edira.edira_api.domain.gradebook.StudentGrades;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.gradebook.GradebookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Notas y rankings con tablas en memoria que cuentan las reconstrucciones del ranking.
+ */
+class GradebookServiceTest {
+
+    static final long TENANT = 7L;
+    static final long COURSE = 1L;
+
+    private final InMemoryGradebookRepository repository = new InMemoryGradebookRepository();
+    private final GradebookService service = new GradebookService(repository, new CourseLookup(),
+            new NoOpTransactionManager(), new GradebookProperties(2000, 100, 2000, 0));
+
+    @Test
+    void recordGrades_cargaDelCurso_promedioPonderadoYPuesto() {
+        // Preparar: P1 pesa 30 y P2 70
+        repository.enrolled.addAll(List.of(10L, 11L, 12L));
+        Evaluation p1 = service.createEvaluation(TENANT, COURSE, "P1", "Prueba 1", 30, "prof");
+        Evaluation p2 = service.createEvaluation(TENANT, COURSE, "P2", "Prueba 2", 70, "prof");
+
+        // Ejecutar
+        service.recordGrades(TENANT, COURSE, p1.id(), scores(10L, 70, 11L, 40, 12L, 55), "prof");
+        GradeBatch batch = service.recordGrades(TENANT, COURSE, p2.id(), scores(10L, 50, 11L, 60, 12L, 55), "prof");
+
+        // Verificar: 10 → 0.3·7.0 + 0.7·5.0 = 5.6; 11 → 5.4; 12 → 5.5
+        assertEquals(new GradeBatch(p2.id(), 3, 3), batch);
+        StudentGrades grades = service.studentGrades(TENANT, COURSE, 10L);
+        assertEquals(new BigDecimal("5.60"), grades.average());
+        assertEquals(100, grades.gradedWeight());
+        assertEquals(new Standing(1, 3, 83.3), grades.standing());
+        assertEquals(List.of(new BigDecimal("7.0"), new BigDecimal("5.0")),
+                grades.grades().stream().map(StudentGrades.Entry::score).toList());
+        assertEquals(new Standing(3, 3, 16.7), service.studentGrades(TENANT, COURSE, 11L).standing());
+    }
+
+    @Test
+    void recordGrades_correccion_mueveAlAlumnoSinReconstruirElRanking() {
+        // Preparar
+        repository.enrolled.addAll(List.of(10L, 11L));
+        Evaluation p1 = service.createEvaluation(TENANT, COURSE, "P1", "Prueba 1", 1, "prof");
+        service.recordGrades(TENANT, COURSE, p1.id(), scores(10L, 60, 11L, 50), "prof");
+        assertEquals(1, service.studentGrades(TENANT, COURSE, 10L).standing().rank());
+        int rebuilds = repository.rebuilds;
+
+        // Ejecutar: corrección de la nota del 11, el 10 se reenvía igual
+        GradeBatch batch = service.recordGrades(TENANT, COURSE, p1.id(), scores(10L, 60, 11L, 65), "prof");
+
+        // Verificar
+        assertEquals(1, batch.changed());
+        assertEquals(new BigDecimal("6.50"), service.studentGrades(TENANT, COURSE, 11L).average());
+        assertEquals(1, service.studentGrades(TENANT, COURSE, 11L).standing().rank());
+        assertEquals(2, service.studentGrades(TENANT, COURSE, 10L).standing().rank());
+        assertEquals(rebuilds, repository.rebuilds);
+    }
+
+    @Test
+    void recordGrades_alumnoSinMatricula_rechazaSinEscribir() {
+        // Preparar
+        repository.enrolled.add(10L);
+        Evaluation p1 = service.createEvaluation(TENANT, COURSE, "P1", "Prueba 1", 1, "prof");
+
+        // Ejecutar + Verificar
+        assertThrows(IllegalArgumentException.class,
+                () -> service.recordGrades(TENANT, COURSE, p1.id(), scores(10L, 60, 99L, 50), "prof"));
+        assertTrue(repository.grades.isEmpty());
+        assertEquals(0, repository.findVersion(COURSE));
+    }
+
+    @Test
+    void updateEvaluation_cambioDePeso_ajustaLosPromedios() {
+        // Preparar
+        repository.enrolled.addAll(List.of(10L, 11L));
+        Evaluation p1 = service.createEvaluation(TENANT, COURSE, "P1", "Prueba 1", 50, "prof");
+        Evaluation p2 = service.createEvaluation(TENANT, COURSE, "P2", "Prueba 2", 50, "prof");
+        service.recordGrades(TENANT, COURSE, p1.id(), scores(10L, 70, 11L, 40), "prof");
+        service.recordGrades(TENANT, COURSE, p2.id(), scores(10L, 40, 11L, 60), "prof");
+        assertEquals(new BigDecimal("5.50"), service.studentGrades(TENANT, COURSE, 10L).average());
+
+        // Ejecutar: P2 pasa a pesar el triple que P1
+        service.updateEvaluation(TENANT, COURSE, p2.id(), "P2", "Prueba 2", 150, "prof");
+
+        // Verificar: 10 → (7.0 + 3·4.0) / 4 = 4.75; 11 → (4.0 + 3·6.0) / 4 = 5.5
+        assertEquals(new BigDecimal("4.75"), service.studentGrades(TENANT, COURSE, 10L).average());
+        assertEquals(new BigDecimal("5.50"), service.studentGrades(TENANT, COURSE, 11L).average());
+        assertEquals(1, service.studentGrades(TENANT, COURSE, 11L).standing().rank());
+    }
+
+    @Test
+    void standing_escrituraDeOtroNodo_reconstruyeDesdeLaBase() {
+        // Preparar
+        repository.enrolled.addAll(List.of(10L, 11L, 12L));
+        Evaluation p1 = service.createEvaluation(TENANT, COURSE, "P1", "Prueba 1", 1, "prof");
+        service.recordGrades(TENANT, COURSE, p1.id(), scores(10L, 40, 11L, 50), "prof");
+        service.standing(TENANT, COURSE, 10);
+        int rebuilds = repository.rebuilds;
+        // otro nodo escribe: las sumas y la versión cambian sin pasar por este servicio
+        repository.aggregates.put(12L, new GradebookRepository.Aggregate(70, 1, 1));
+        repository.versions.merge(COURSE, 1L, Long::sum);
+
+        // Ejecutar
+        CourseStanding standing = service.standing(TENANT, COURSE, 2);
+
+        // Verificar
+        assertEquals(rebuilds + 1, repository.rebuilds);
+        assertEquals(3, standing.ranked());
+        assertEquals(new BigDecimal("5.00"), standing.median());
+        assertEquals(List.of(12L, 11L), standing.top().stream().map(CourseStanding.Entry::studentId).toList());
+        assertEquals(1, standing.top().get(0).standing().rank());
+    }
+
+    static Map<Long, Integer> scores(Object... pairs) {
+        Map<Long, Integer> scores = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            scores.put((Long) pairs[i], (Integer) pairs[i + 1]);
+        }
+        return scores;
+    }
+
+    /** Un único curso y tenant: cualquier otro no existe. */
+    static final class CourseLookup extends EnrollmentRepository {
+
+        CourseLookup() {
+            super(null);
+        }
+
+        @Override
+        public boolean courseExists(long tenantId, long courseId) {
+            return tenantId == TENANT && courseId == COURSE;
+        }
+
+        @Override
+        public boolean studentExists(long tenantId, long studentId) {
+            return tenantId == TENANT;
+        }
+    }
+
+    static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    /** Un solo curso: las notas van por (evaluación, alumno) y las sumas por alumno. */
+    static final class InMemoryGradebookRepository extends GradebookRepository {
+
+        final Map<Long, Evaluation> evaluations = new TreeMap<>();
+        final Map<List<Long>, Integer> grades = new HashMap<>();
+        private final Map<Long, Aggregate> aggregates = new TreeMap<>();
+        private final Map<Long, Long> versions = new HashMap<>();
+        final Set<Long> enrolled = new HashSet<>();
+        private int rebuilds;
+
+        InMemoryGradebookRepository() {
+            super(null);
+        }
+
+        @Override
+        public long insertEvaluation(long tenantId, long courseId, String code, String name, int weight, String createdBy) {
+            long id = evaluations.size() + 1;
+            evaluations.put(id, new Evaluation(id, courseId, code, name, weight));
+            return id;
+        }
+
+        @Override
+        public Optional<Evaluation> findEvaluation(long tenantId, long courseId, long evaluationId) {
+            return Optional.ofNullable(evaluations.get(evaluationId)).filter(e -> e.courseId() == courseId);
+        }
+
+        @Override
+        public List<Evaluation> findEvaluations(long tenantId, long courseId) {
+            return new ArrayList<>(evaluations.values());
+        }
+
+        @Override
+        public void updateEvaluation(long evaluationId, String code, String name, int weight, String updatedBy) {
+            evaluations.put(evaluationId, new Evaluation(evaluationId, COURSE, code, name, weight));
+        }
+
+        @Override
+        public long lockVersion(long courseId) {
+            return findVersion(courseId);
+        }
+
+        @Override
+        public void updateVersion(long courseId, long version) {
+            versions.put(courseId, version);
+        }
+
+        @Override
+        public long findVersion(long courseId) {
+            return versions.getOrDefault(courseId, 0L);
+        }
+
+        @Override
+        public Map<Long, Integer> findScores(long evaluationId, Collection<Long> studentIds) {
+            Map<Long, Integer> found = new HashMap<>();
+            studentIds.forEach(id -> {
+                Integer score = grades.get(List.of(evaluationId, id));
+                if (score != null) {
+                    found.put(id, score);
+                }
+            });
+            return found;
+        }
+
+        @Override
+        public void upsertGrades(long courseId, long evaluationId, Map<Long, Integer> scores, String updatedBy) {
+            scores.forEach((studentId, score) -> grades.put(List.of(evaluationId, studentId), score));
+        }
+
+        @Override
+        public Map<Long, Aggregate> findAggregates(long courseId, Collection<Long> studentIds) {
+            Map<Long, Aggregate> found = new HashMap<>();
+            studentIds.stream().filter(aggregates::containsKey).forEach(id -> found.put(id, aggregates.get(id)));
+            return found;
+        }
+
+        @Override
+        public void upsertAggregates(long tenantId, long courseId, Map<Long, Aggregate> rows) {
+            aggregates.putAll(rows);
+        }
+
+        @Override
+        public int reweigh(long evaluationId, int weightDelta) {
+            int[] students = {0};
+            grades.forEach((key, score) -> {
+                if (key.get(0) == evaluationId) {
+                    Aggregate current = aggregates.get(key.get(1));
+                    aggregates.put(key.get(1), new Aggregate(current.weightedSum() + (long) weightDelta * score,
+                            current.weightTotal() + weightDelta, current.gradedCount()));
+                    students[0]++;
+                }
+            });
+            return students[0];
+        }
+
+        @Override
+        public Optional<Aggregate> findAggregate(long courseId, long studentId) {
+            return Optional.ofNullable(aggregates.get(studentId));
+        }
+
+        @Override
+        public void forEachAggregate(long courseId, AggregateHandler handler) {
+            rebuilds++;
+            aggregates.forEach((studentId, aggregate) -> {
+                if (aggregate.weightTotal() > 0) {
+                    handler.accept(studentId, aggregate.weightedSum(), aggregate.weightTotal());
+                }
+            });
+        }
+
+        @Override
+        public List<Long> findTopStudents(long courseId, int limit) {
+            return aggregates.entrySet().stream()
+                    .filter(entry -> entry.getValue().weightTotal() > 0)
+                    .sorted(Comparator.comparingDouble((Map.Entry<Long, Aggregate> entry) ->
+                            -(double) entry.getValue().weightedSum() / entry.getValue().weightTotal()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        @Override
+        public List<StudentGrades.Entry> findStudentGrades(long tenantId, long courseId, long studentId) {
+            List<StudentGrades.Entry> entries = new ArrayList<>();
+            evaluations.values().forEach(e -> {
+                Integer score = grades.get(List.of(e.id(), studentId));
+                entries.add(new StudentGrades.Entry(e.id(), e.code(), e.name(), e.weight(),
+                        score == null ? null : BigDecimal.valueOf(score, 1)));
+            });
+            return entries;
+        }
+
+        @Override
+        public Set<Long> findEnrolled(long courseId, Collection<Long> studentIds) {
+            return new HashSet<>(studentIds.stream().filter(enrolled::contains).toList());
+        }
+    }
+}
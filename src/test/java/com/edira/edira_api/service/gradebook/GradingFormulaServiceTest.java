@@ -0,0 +1,225 @@
+package com.edira.edira_api.service.gradebook;
+
+import com.edira.edira_api.domain.gradebook.CourseFormula;
+import com.edira.edira_api.domain.gradebook.Evaluation;
+import com.edira.edira_api.domain.gradebook.FinalGrade;
+import com.edira.edira_api.domain.gradebook.FinalGradeRun;
+import com.edira.edira_api.persistence.gradebook.GradingFormulaRepository;
+import com.edira.edira_api.service.gradebook.GradebookServiceTest.CourseLookup;
+import com.edira.edira_api.service.gradebook.GradebookServiceTest.InMemoryGradebookRepository;
+import com.edira.edira_api.service.gradebook.GradebookServiceTest.NoOpTransactionManager;
+import com.edira.edira_api.shared.error.NotFoundException;
+import com.edira.edira_api.shared.error.ValidationFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+import static com.edira.edira_api.service.gradebook.GradebookServiceTest.COURSE;
+import static com.edira.edira_api.service.gradebook.GradebookServiceTest.TENANT;
+import static com.edira.edira_api.service.gradebook.GradebookServiceTest.scores;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fórmulas de nota final sobre las mismas tablas en memoria que {@link GradebookServiceTest}.
+ */
+class GradingFormulaServiceTest {
+
+    private final InMemoryGradebookRepository gradebook = new InMemoryGradebookRepository();
+    private final InMemoryFormulaRepository repository = new InMemoryFormulaRepository(gradebook);
+    private final GradebookProperties properties = new GradebookProperties(2000, 100, 2000, 4);
+    private final GradebookService grades = new GradebookService(gradebook, new CourseLookup(),
+            new NoOpTransactionManager(), properties);
+    private final GradingFormulaService service = new GradingFormulaService(repository, gradebook, new CourseLookup(),
+            new NoOpTransactionManager(), properties);
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void saveFormula_codigoQueNoEsDelCurso_400SinGuardar() {
+        // Preparar
+        grades.createEvaluation(TENANT, COURSE, "P1", "Prueba 1", 1, "prof");
+
+        // Ejecutar
+        ValidationFailedException ex = assertThrows(ValidationFailedException.class,
+                () -> service.saveFormula(TENANT, COURSE, "0.5 * P1 + 0.5 * P2", "prof"));
+
+        // Verificar
+        assertEquals("col 18: 'P2' no es una evaluación del curso", ex.getDetails().get(0).message());
+        assertTrue(repository.formulas.isEmpty());
+        assertThrows(NotFoundException.class, () -> service.getFormula(TENANT, COURSE));
+    }
+
+    @Test
+    void recompute_cursoCompleto_notaFinalRedondeadaYAcotada() {
+        // Preparar: 2000 alumnos (muchos tramos de SPLIT_ROWS en el pool); el alumno 3 sin examen
+        long[] students = LongStream.rangeClosed(1, 2000).toArray();
+        for (long student : students) {
+            gradebook.enrolled.add(student);
+        }
+        Evaluation p1 = grades.createEvaluation(TENANT, COURSE, "P1", "Prueba 1", 60, "prof");
+        Evaluation ex = grades.createEvaluation(TENANT, COURSE, "EX", "Examen", 40, "prof");
+        Map<Long, Integer> p1Scores = new HashMap<>();
+        Map<Long, Integer> exScores = new HashMap<>();
+        for (long student : students) {
+            p1Scores.put(student, (int) (10 + student % 61));
+            if (student != 3) {
+                exScores.put(student, (int) (70 - student % 61));
+            }
+        }
+        grades.recordGrades(TENANT, COURSE, p1.id(), p1Scores, "prof");
+        grades.recordGrades(TENANT, COURSE, ex.id(), exScores, "prof");
+        CourseFormula formula = service.saveFormula(TENANT, COURSE, "if(has(EX), weighted + 0.55, P1 * 2)", "prof");
+
+        // Ejecutar
+        FinalGradeRun run = service.recompute(TENANT, COURSE);
+
+        // Verificar: alumno 1 → 0.6·1.1 + 0.4·6.9 = 3.42 + 0.55 = 3.97 → 4.0; alumno 3 → 1.3·2 = 2.6
+        assertEquals(new FinalGradeRun(COURSE, 1, 2000, 2000, run.elapsedMs()), run);
+        assertEquals(List.of("EX", "weighted", "P1"), formula.variables());
+        List<FinalGrade> finals = service.finalGrades(TENANT, COURSE);
+        assertEquals(2000, finals.size());
+        assertEquals(new FinalGrade(1, new BigDecimal("4.0"), 1), finals.get(0));
+        assertEquals(new FinalGrade(3, new BigDecimal("2.6"), 1), finals.get(2));
+        // alumno 60 → P1 7.0 y EX 1.0: 4.6 + 0.55 = 5.15 → 5.2; alumno 61 → P1 1.0 y EX 7.0: 3.95 → 4.0
+        assertEquals(new BigDecimal("5.2"), finals.get(59).score());
+        assertEquals(new BigDecimal("4.0"), finals.get(60).score());
+    }
+
+    @Test
+    void evaluateRows_cursoDe40Alumnos_seRepartePorTramosQueCubrenTodasLasFilas() {
+        // Preparar
+        List<int[]> leaves = Collections.synchronizedList(new ArrayList<>());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Ejecutar
+            pool.invoke(new GradingFormulaService.EvaluateRows(0, 40, (from, to) -> leaves.add(new int[]{from, to})));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Verificar: 4 tramos de 10 filas, sin huecos ni solapes
+        leaves.sort(Comparator.comparingInt(range -> range[0]));
+        assertEquals(4, leaves.size());
+        int next = 0;
+        for (int[] range : leaves) {
+            assertEquals(next, range[0]);
+            assertTrue(range[1] - range[0] <= GradingFormulaService.SPLIT_ROWS);
+            next = range[1];
+        }
+        assertEquals(40, next);
+    }
+
+    @Test
+    void recompute_sinNotaOFueraDeEscala_nullOAcotada() {
+        // Preparar
+        gradebook.enrolled.addAll(List.of(10L, 11L, 12L));
+        Evaluation p1 = grades.createEvaluation(TENANT, COURSE, "P1", "Prueba 1", 1, "prof");
+        grades.recordGrades(TENANT, COURSE, p1.id(), scores(10L, 70, 11L, 10), "prof");
+        service.saveFormula(TENANT, COURSE, "P1 * 2 - 3", "prof");
+
+        // Ejecutar
+        FinalGradeRun run = service.recompute(TENANT, COURSE);
+
+        // Verificar: 11.0 → 7.0, -1.0 → 1.0, el 12 sin nota
+        assertEquals(2, run.graded());
+        assertEquals(List.of(new FinalGrade(10, new BigDecimal("7.0"), 1), new FinalGrade(11, new BigDecimal("1.0"), 1),
+                new FinalGrade(12, null, 1)), service.finalGrades(TENANT, COURSE));
+    }
+
+    @Test
+    void compiled_nuevaVersion_reemplazaLaCompiladaYUnCodigoRenombradoQuedaSinNota() {
+        // Preparar
+        gradebook.enrolled.add(10L);
+        Evaluation p1 = grades.createEvaluation(TENANT, COURSE, "P1", "Prueba 1", 1, "prof");
+        grades.recordGrades(TENANT, COURSE, p1.id(), scores(10L, 50), "prof");
+        service.saveFormula(TENANT, COURSE, "P1", "prof");
+        CourseFormula second = service.saveFormula(TENANT, COURSE, "ifMissing(P1, 1.0) + 1", "prof");
+        GradingFormulaRepository.StoredFormula stored = repository.findCurrent(TENANT, COURSE).orElseThrow();
+
+        // Ejecutar: P1 pasa a llamarse C1 después de guardar la fórmula
+        grades.updateEvaluation(TENANT, COURSE, p1.id(), "C1", "Control 1", 1, "prof");
+        FinalGradeRun run = service.recompute(TENANT, COURSE);
+
+        // Verificar: la misma instancia compilada mientras no haya otra versión
+        assertEquals(2, second.version());
+        assertSame(service.compiled(COURSE, stored), service.compiled(COURSE, stored));
+        assertEquals(2, run.formulaVersion());
+        assertEquals(new BigDecimal("2.0"), service.finalGrades(TENANT, COURSE).get(0).score());
+    }
+
+    @Test
+    void finalTenths_limites_redondeaYAcota() {
+        // Ejecutar / Verificar
+        assertEquals(40, GradingFormulaService.finalTenths(3.95));
+        assertEquals(70, GradingFormulaService.finalTenths(7.04));
+        assertEquals(10, GradingFormulaService.finalTenths(0.2));
+        assertEquals(-1, GradingFormulaService.finalTenths(Double.NaN));
+        assertEquals(-1, GradingFormulaService.finalTenths(Double.POSITIVE_INFINITY));
+    }
+
+    /** Fórmulas en una lista; notas y matrículas leídas del gradebook en memoria. */
+    private static final class InMemoryFormulaRepository extends GradingFormulaRepository {
+
+        private final InMemoryGradebookRepository gradebook;
+        private final List<StoredFormula> formulas = new ArrayList<>();
+        private final Map<Long, FinalGrade> finals = new HashMap<>();
+
+        InMemoryFormulaRepository(InMemoryGradebookRepository gradebook) {
+            super(null);
+            this.gradebook = gradebook;
+        }
+
+        @Override
+        public Optional<StoredFormula> findCurrent(long tenantId, long courseId) {
+            return formulas.isEmpty() ? Optional.empty() : Optional.of(formulas.get(formulas.size() - 1));
+        }
+
+        @Override
+        public void insert(long tenantId, long courseId, int version, String source, String createdBy) {
+            formulas.add(new StoredFormula(version, source));
+        }
+
+        @Override
+        public List<Long> findCoursesWithFormula(long tenantId) {
+            return formulas.isEmpty() ? List.of() : List.of(COURSE);
+        }
+
+        @Override
+        public long[] findEnrolledStudents(long courseId) {
+            return gradebook.enrolled.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        @Override
+        public void forEachScore(long courseId, ScoreHandler handler) {
+            gradebook.grades.forEach((key, tenths) ->
+                    handler.accept(key.get(1), gradebook.evaluations.get(key.get(0)).code(), tenths));
+        }
+
+        @Override
+        public void replaceFinalGrades(long tenantId, long courseId, int formulaVersion, long[] studentIds, int[] tenths) {
+            finals.clear();
+            for (int i = 0; i < studentIds.length; i++) {
+                finals.put(studentIds[i], new FinalGrade(studentIds[i],
+                        tenths[i] < 0 ? null : BigDecimal.valueOf(tenths[i], 1), formulaVersion));
+            }
+        }
+
+        @Override
+        public List<FinalGrade> findFinalGrades(long tenantId, long courseId) {
+            return finals.values().stream().sorted((a, b) -> Long.compare(a.studentId(), b.studentId())).toList();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.edira.edira_api.service.gradebook.formula;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.DoubleStream;
+
+/**
+ * Evaluador ingenuo de referencia: recorre el árbol en cada llamada y busca cada código en un
+ * mapa. Sirve para comprobar que {@link GradingFormula} da lo mismo y como línea base del
+ * benchmark.
+ */
+public final class FormulaInterpreter {
+
+    private final Expr root;
+
+    public FormulaInterpreter(String source) {
+        this.root = FormulaParser.parse(source);
+    }
+
+    /** @param values código → nota; un código ausente es una nota faltante */
+    public double evaluate(Map<String, Double> values) {
+        return eval(root, values);
+    }
+
+    private static double eval(Expr expr, Map<String, Double> values) {
+        return switch (expr) {
+            case Expr.Num num -> num.value();
+            case Expr.Ref ref -> values.getOrDefault(ref.name(), Double.NaN);
+            case Expr.Unary unary -> unary.op() == Expr.Op.NEG
+                    ? -eval(unary.operand(), values)
+                    : FormulaMath.bool(!FormulaMath.truthy(eval(unary.operand(), values)));
+            case Expr.Binary binary -> binary(binary, values);
+            case Expr.Call call -> call(call, values);
+        };
+    }
+
+    private static double binary(Expr.Binary binary, Map<String, Double> values) {
+        if (binary.op() == Expr.Op.AND) {
+            return FormulaMath.bool(FormulaMath.truthy(eval(binary.left(), values))
+                    && FormulaMath.truthy(eval(binary.right(), values)));
+        }
+        if (binary.op() == Expr.Op.OR) {
+            return FormulaMath.bool(FormulaMath.truthy(eval(binary.left(), values))
+                    || FormulaMath.truthy(eval(binary.right(), values)));
+        }
+        double left = eval(binary.left(), values);
+        double right = eval(binary.right(), values);
+        return switch (binary.op()) {
+            case ADD -> left + right;
+            case SUB -> left - right;
+            case MUL -> left * right;
+            case DIV -> FormulaMath.divide(left, right);
+            default -> FormulaMath.compare(binary.op(), left, right);
+        };
+    }
+
+    private static double call(Expr.Call call, Map<String, Double> values) {
+        double[] args = call.args().stream().mapToDouble(arg -> eval(arg, values)).toArray();
+        return switch (call.function()) {
+            case IF -> FormulaMath.truthy(args[0]) ? eval(call.args().get(1), values) : eval(call.args().get(2), values);
+            case MIN -> present(args).min().orElse(Double.NaN);
+            case MAX -> present(args).max().orElse(Double.NaN);
+            case AVG -> present(args).count() == 0 ? Double.NaN : sum(args) / present(args).count();
+            case SUM -> present(args).count() == 0 ? Double.NaN : sum(args);
+            case COUNT -> present(args).count();
+            case WAVG -> {
+                double sum = 0;
+                double weights = 0;
+                for (int i = 0; i < args.length; i += 2) {
+                    if (!Double.isNaN(args[i])) {
+                        sum += args[i] * args[i + 1];
+                        weights += args[i + 1];
+                    }
+                }
+                yield FormulaMath.divide(sum, weights);
+            }
+            case DROP_LOWEST -> FormulaMath.dropLowest((int) args[0], Arrays.copyOfRange(args, 1, args.length));
+            case CLAMP -> FormulaMath.clamp(args[0], args[1], args[2]);
+            case ROUND -> FormulaMath.round(args[0], (int) args[1]);
+            case IF_MISSING -> Double.isNaN(args[0]) ? args[1] : args[0];
+            case HAS -> FormulaMath.bool(!Double.isNaN(args[0]));
+        };
+    }
+
+    // suma simple, en orden (DoubleStream.sum compensa el error y no daría los mismos bits)
+    private static double sum(double[] args) {
+        double sum = 0;
+        for (double value : args) {
+            if (!Double.isNaN(value)) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    private static DoubleStream present(double[] args) {
+        return Arrays.stream(args).filter(value -> !Double.isNaN(value));
+    }
+}
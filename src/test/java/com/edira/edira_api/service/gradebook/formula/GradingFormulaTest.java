@@ -0,0 +1,112 @@
+package com.edira.edira_api.service.gradebook.formula;
+
+import com.edira.edira_api.shared.error.ValidationFailedException;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parser, validación y evaluador compilado de las fórmulas de nota.
+ */
+class GradingFormulaTest {
+
+    private static final Set<String> CODES = Set.of("P1", "P2", "P3", "EXAMEN", "weighted");
+
+    @Test
+    void compile_sintaxisInvalida_detalleConColumna() {
+        // Ejecutar
+        ValidationFailedException ex = assertThrows(ValidationFailedException.class,
+                () -> GradingFormula.compile("0.6 * P1 + * P2", CODES::contains));
+
+        // Verificar
+        assertEquals(List.of(new ValidationErrorDetail("formula", "col 12: no se esperaba '*'")), ex.getDetails());
+    }
+
+    @Test
+    void compile_codigosDesconocidosYAridad_juntaTodosLosErrores() {
+        // Ejecutar
+        ValidationFailedException ex = assertThrows(ValidationFailedException.class,
+                () -> GradingFormula.compile("clamp(P1, 1) + dropLowest(P2, P1, P3) + P9", CODES::contains));
+
+        // Verificar: la aridad se junta en el parseo; el código desconocido después
+        assertEquals(List.of("col 1: clamp recibe 3 argumentos, no 2",
+                        "col 27: dropLowest: la cantidad a descartar es un entero fijo"),
+                ex.getDetails().stream().map(ValidationErrorDetail::message).toList());
+        ValidationFailedException unknown = assertThrows(ValidationFailedException.class,
+                () -> GradingFormula.compile("avg(P1, TAREA) + funcion(P1)", CODES::contains));
+        assertEquals("col 18: función desconocida 'funcion'", unknown.getDetails().get(0).message());
+        ValidationFailedException code = assertThrows(ValidationFailedException.class,
+                () -> GradingFormula.compile("avg(P1, TAREA)", CODES::contains));
+        assertEquals(List.of(new ValidationErrorDetail("formula", "col 9: 'TAREA' no es una evaluación del curso")),
+                code.getDetails());
+    }
+
+    @Test
+    void evaluate_reglasTipicas_notaFaltanteSegunFuncion() {
+        // Preparar: reprueba con examen bajo 4.0; si no, 70% pruebas sin la peor y 30% examen
+        GradingFormula formula = GradingFormula.compile(
+                "if(EXAMEN < 4.0, min(weighted, 3.9), round(0.7 * dropLowest(1, P1, P2, P3) + 0.3 * EXAMEN, 1))",
+                CODES::contains);
+        List<String> variables = formula.variables();
+
+        // Ejecutar / Verificar
+        assertEquals(List.of("EXAMEN", "weighted", "P1", "P2", "P3"), variables);
+        assertEquals(3.9, formula.evaluate(new double[]{3.0, 5.5, 7.0, 7.0, 7.0}));
+        // (6.0 + 7.0) / 2 · 0.7 + 5.0 · 0.3 = 6.05 → 6.1
+        assertEquals(6.1, formula.evaluate(new double[]{5.0, 6.0, 2.0, 6.0, 7.0}));
+        // una prueba sin nota: dropLowest descarta la peor de las que tienen
+        assertEquals(6.4, formula.evaluate(new double[]{5.0, 6.0, Double.NaN, 6.0, 7.0}));
+        // sin examen la comparación es falsa y la suma no tiene nota
+        assertTrue(Double.isNaN(formula.evaluate(new double[]{Double.NaN, 6.0, 5.0, 6.0, 7.0})));
+        GradingFormula fallback = GradingFormula.compile("ifMissing(EXAMEN, 1.0) * has(P1) + count(P1, P2) / 0",
+                CODES::contains);
+        assertTrue(Double.isNaN(fallback.evaluate(new double[]{Double.NaN, 4.0, Double.NaN})));
+        GradingFormula noDivision = GradingFormula.compile("ifMissing(EXAMEN, 1.0) * has(P1)", CODES::contains);
+        assertEquals(1.0, noDivision.evaluate(new double[]{Double.NaN, 4.0}));
+    }
+
+    @Test
+    void evaluate_soloConstantes_noNecesitaValores() {
+        // Ejecutar: todo se precalcula al compilar
+        GradingFormula formula = GradingFormula.compile("round(max(4, 2 * 3) / 4, 1) + clamp(9, 1, 7)", name -> false);
+
+        // Verificar
+        assertEquals(List.of(), formula.variables());
+        assertEquals(8.5, formula.evaluate(new double[0]));
+    }
+
+    @Test
+    void evaluate_entradasAleatorias_mismoResultadoQueElInterprete() {
+        // Preparar
+        List<String> sources = List.of(
+                "wavg(P1, 2, P2, 3, P3, 5) * 0.8 + 0.2 * ifMissing(EXAMEN, weighted)",
+                "if(not has(EXAMEN) or P1 >= 6 and P2 != P3, max(P1, P2, P3), avg(P1, P2, EXAMEN) - -1)",
+                "clamp(sum(P1, P2) / count(P1, P2, P3) + dropLowest(2, P1, P2, P3, EXAMEN), 1, 7)",
+                "round((P1 + P2) / (P3 - P3), 2) + min(weighted, 4.0)");
+        Random random = new Random(42);
+        for (String source : sources) {
+            GradingFormula compiled = GradingFormula.compile(source, CODES::contains);
+            FormulaInterpreter interpreter = new FormulaInterpreter(source);
+            for (int i = 0; i < 2000; i++) {
+                double[] values = new double[compiled.variables().size()];
+                Map<String, Double> byCode = new HashMap<>();
+                for (int slot = 0; slot < values.length; slot++) {
+                    values[slot] = random.nextInt(5) == 0 ? Double.NaN : (10 + random.nextInt(61)) / 10.0;
+                    if (!Double.isNaN(values[slot])) {
+                        byCode.put(compiled.variables().get(slot), values[slot]);
+                    }
+                }
+
+                // Ejecutar / Verificar
+                assertEquals(interpreter.evaluate(byCode), compiled.evaluate(values), source + " " + byCode);
+            }
+        }
+    }
+}
@@ -0,0 +1,562 @@
+package com.edira.edira_api.service.job;
+
+import com.edira.edira_api.domain.job.JobProgress;
+import com.edira.edira_api.domain.job.JobState;
+import com.edira.edira_api.persistence.job.JobLease;
+import com.edira.edira_api.persistence.job.JobRecord;
+import com.edira.edira_api.persistence.job.JobRepository;
+import com.edira.edira_api.shared.error.ApiError;
+import com.edira.edira_api.shared.error.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Worker de jobs sobre un repositorio en memoria que imita las condiciones de los UPDATE
+ * (lease_owner + attempts). Given/When/Then: éxito, cupo por tenant, cancelación, fallo,
+ * tipo desconocido y nodo caído cuyo lease vence.
+ */
+class JobWorkerTest {
+
+    private final InMemoryJobRepository repository = new InMemoryJobRepository();
+    private final MutableClock clock = new MutableClock();
+    private final List<JobWorker> workers = new ArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger concurrentTenantOne = new AtomicInteger();
+    private final AtomicInteger maxConcurrentTenantOne = new AtomicInteger();
+
+    private final JobHandler export = handler("export", context -> {
+        context.progress(10, 10L, "listo");
+        return new JobResult("text/csv", "a,b\n".getBytes(StandardCharsets.UTF_8));
+    });
+    private final JobHandler blocking = handler("blocking", context -> {
+        int now = context.tenantId() == 1 ? concurrentTenantOne.incrementAndGet() : 0;
+        maxConcurrentTenantOne.accumulateAndGet(now, Math::max);
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } finally {
+            if (context.tenantId() == 1) {
+                concurrentTenantOne.decrementAndGet();
+            }
+        }
+        return JobResult.NONE;
+    });
+    private final JobHandler loop = handler("loop", context -> {
+        for (long i = 0; ; i++) {
+            context.checkCancelled();
+            context.progress(i, null, null);
+            Thread.sleep(5);
+        }
+    });
+    private final JobHandler failing = handler("failing", context -> {
+        throw new IllegalStateException("se cayó el servicio externo");
+    });
+
+    @AfterEach
+    void stopWorkers() throws Exception {
+        release.countDown();
+        for (JobWorker worker : workers) {
+            worker.shutdown();
+        }
+    }
+
+    @Test
+    void poll_jobEncolado_terminaSucceededConResultadoYAvance() {
+        // Given
+        JobWorker worker = worker("node-a", 4, 4);
+        long id = repository.insert(1, "export", null, "ana");
+
+        // When
+        worker.poll();
+
+        // Then
+        JobRecord job = awaitFinished(id);
+        assertEquals(JobState.SUCCEEDED, job.state());
+        assertEquals(new JobProgress(10, 10L, "listo"), job.progress());
+        assertEquals(1, job.attempts());
+        assertEquals("a,b\n", new String(repository.findResult(1, id).orElseThrow().body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void poll_cupoPorTenant_noCorreMasDeLoPermitidoYNoBloqueaAOtroTenant() throws Exception {
+        // Given: cupo 1 por tenant, 3 jobs del tenant 1 y 1 del tenant 2
+        JobWorker worker = worker("node-a", 8, 1);
+        long first = repository.insert(1, "blocking", null, null);
+        long second = repository.insert(1, "blocking", null, null);
+        repository.insert(1, "blocking", null, null);
+        long other = repository.insert(2, "blocking", null, null);
+
+        // When
+        worker.poll();
+
+        // Then
+        assertEquals(JobState.RUNNING, repository.state(first));
+        assertEquals(JobState.QUEUED, repository.state(second));
+        assertEquals(JobState.RUNNING, repository.state(other));
+        release.countDown();
+        awaitFinished(first);
+        for (int i = 0; i < 50 && repository.countIn(JobState.SUCCEEDED) < 4; i++) {
+            worker.poll();
+            Thread.sleep(20);
+        }
+        assertEquals(4, repository.countIn(JobState.SUCCEEDED));
+        assertEquals(1, maxConcurrentTenantOne.get());
+    }
+
+    @Test
+    void poll_tenantConMasJobsQueLaVentana_noDejaSinCupoAOtroTenant() {
+        // Given: 2 cupos (ventana de 8 filas), 1 por tenant; el tenant 1 tiene 10 jobs antes que el del tenant 2
+        JobWorker worker = worker("node-a", 2, 1);
+        long first = repository.insert(1, "blocking", null, null);
+        for (int i = 0; i < 9; i++) {
+            repository.insert(1, "blocking", null, null);
+        }
+        long other = repository.insert(2, "blocking", null, null);
+
+        // When
+        worker.poll();
+
+        // Then
+        assertEquals(JobState.RUNNING, repository.state(first));
+        assertEquals(JobState.RUNNING, repository.state(other));
+        assertEquals(2, repository.countIn(JobState.RUNNING));
+    }
+
+    @Test
+    void cancel_jobCorriendo_seDetieneEnElHeartbeatYQuedaCancelled() throws Exception {
+        // Given
+        JobWorker worker = worker("node-a", 4, 4);
+        long id = repository.insert(1, "loop", null, null);
+        worker.poll();
+        Thread.sleep(30);
+
+        // When
+        assertEquals(1, repository.requestCancel(1, id, clock.instant()));
+        worker.heartbeat();
+
+        // Then
+        JobRecord job = awaitFinished(id);
+        assertEquals(JobState.CANCELLED, job.state());
+        assertTrue(job.progress().done() > 0, "el heartbeat/finish guarda el avance alcanzado");
+    }
+
+    @Test
+    void cancel_jobEnCola_quedaCancelledSinCorrer() {
+        // Given
+        JobWorker worker = worker("node-a", 4, 4);
+        long id = repository.insert(1, "export", null, null);
+
+        // When
+        repository.requestCancel(1, id, clock.instant());
+        worker.poll();
+
+        // Then
+        assertEquals(JobState.CANCELLED, repository.state(id));
+        assertEquals(0, repository.find(1, id).orElseThrow().attempts());
+    }
+
+    @Test
+    void run_handlerLanzaExcepcion_quedaFailedConApiError500() {
+        // Given
+        JobWorker worker = worker("node-a", 4, 4);
+        long id = repository.insert(1, "failing", null, null);
+
+        // When
+        worker.poll();
+
+        // Then
+        JobRecord job = awaitFinished(id);
+        assertEquals(JobState.FAILED, job.state());
+        assertEquals(500, job.error().status());
+        assertEquals(ErrorCode.INTERNAL_ERROR, job.error().code());
+        assertEquals("/jobs/" + id, job.error().path());
+        assertNotNull(job.error().errorId());
+    }
+
+    @Test
+    void poll_tipoDesconocido_quedaFailedConApiError400() {
+        // Given
+        JobWorker worker = worker("node-a", 4, 4);
+        long id = repository.insert(1, "no-existe", null, null);
+
+        // When
+        worker.poll();
+
+        // Then
+        JobRecord job = repository.find(1, id).orElseThrow();
+        assertEquals(JobState.FAILED, job.state());
+        assertEquals(ErrorCode.BAD_REQUEST, job.error().code());
+    }
+
+    @Test
+    void recover_nodoCaido_otroNodoRetomaElJobYElPrimeroYaNoPuedeEscribir() {
+        // Given: node-a toma el job y "muere" (nunca renueva el lease)
+        long id = repository.insert(1, "export", null, null);
+        repository.markRunning(List.of(id), "node-a", clock.instant().plusSeconds(60), clock.instant());
+        JobLease staleLease = new JobLease(id, "node-a", 1);
+        JobWorker nodeB = worker("node-b", 4, 4);
+
+        // When: vence el lease, node-b recupera y corre el job
+        clock.advance(Duration.ofSeconds(61));
+        nodeB.recover();
+        nodeB.poll();
+
+        // Then
+        JobRecord job = awaitFinished(id);
+        assertEquals(JobState.SUCCEEDED, job.state());
+        assertEquals(2, job.attempts());
+        assertFalse(repository.finish(staleLease, JobState.FAILED, JobProgress.NONE, null, null, null, clock.instant()),
+                "node-a revive tarde: su lease (intento 1) ya no vale");
+        assertFalse(repository.heartbeat(staleLease, clock.instant(), JobProgress.NONE));
+    }
+
+    @Test
+    void recover_agotaIntentos_quedaFailed() {
+        // Given: el job ya se tomó tantas veces como el máximo
+        long id = repository.insert(1, "export", null, null);
+        JobWorker worker = worker("node-b", 4, 4);
+        for (int attempt = 0; attempt < 3; attempt++) {
+            repository.markRunning(List.of(id), "node-a", clock.instant().plusSeconds(60), clock.instant());
+            clock.advance(Duration.ofSeconds(61));
+            worker.recover();
+        }
+
+        // Then
+        JobRecord job = repository.find(1, id).orElseThrow();
+        assertEquals(JobState.FAILED, job.state());
+        assertEquals("/jobs/" + id, job.error().path());
+    }
+
+    @Test
+    void shutdown_jobEnCurso_vuelveALaColaSinGastarIntento() throws Exception {
+        // Given
+        JobWorker worker = new JobWorker(repository, List.of(loop), properties(4, 4, Duration.ofMillis(100)),
+                new ObjectMapper(), new TransactionTemplate(new NoOpTransactionManager()), clock, "node-a");
+        long id = repository.insert(1, "loop", null, null);
+        worker.poll();
+        Thread.sleep(20);
+
+        // When
+        worker.shutdown();
+
+        // Then
+        JobRecord job = repository.find(1, id).orElseThrow();
+        assertEquals(JobState.QUEUED, job.state());
+        assertEquals(0, job.attempts());
+    }
+
+    private JobWorker worker(String nodeId, int maxConcurrent, int perTenant) {
+        JobWorker worker = new JobWorker(repository, List.of(export, blocking, loop, failing),
+                properties(maxConcurrent, perTenant, Duration.ofSeconds(2)), new ObjectMapper(),
+                new TransactionTemplate(new NoOpTransactionManager()), clock, nodeId);
+        workers.add(worker);
+        return worker;
+    }
+
+    private static JobProperties properties(int maxConcurrent, int perTenant, Duration shutdownTimeout) {
+        return new JobProperties(true, "", maxConcurrent, perTenant, Duration.ofSeconds(60), Duration.ofSeconds(15),
+                Duration.ofSeconds(1), Duration.ofSeconds(30), 3, DataSize.ofMegabytes(16), Duration.ofDays(7),
+                shutdownTimeout);
+    }
+
+    private JobRecord awaitFinished(long id) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            JobRecord job = repository.find(repository.tenantOf(id), id).orElseThrow();
+            if (job.state().finished()) {
+                return job;
+            }
+            Thread.onSpinWait();
+        }
+        fail("el job " + id + " no terminó");
+        return null;
+    }
+
+    interface Body {
+        JobResult run(JobContext context) throws Exception;
+    }
+
+    private static JobHandler handler(String type, Body body) {
+        return new JobHandler() {
+            @Override
+            public String type() {
+                return type;
+            }
+
+            @Override
+            public JobResult run(JobContext context) throws Exception {
+                return body.run(context);
+            }
+        };
+    }
+
+    static final class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    /** Misma semántica que los UPDATE de JobRepository, sobre un mapa sincronizado. */
+    static final class InMemoryJobRepository extends JobRepository {
+
+        private static final class Row {
+            long id;
+            long tenantId;
+            String type;
+            JobState state = JobState.QUEUED;
+            JobProgress progress = JobProgress.NONE;
+            boolean cancelRequested;
+            int attempts;
+            String leaseOwner;
+            Instant leaseExpiresAt;
+            String resultType;
+            byte[] result;
+            ApiError error;
+            String createdBy;
+            Instant createdAt;
+            Instant startedAt;
+            Instant finishedAt;
+
+            JobRecord toRecord() {
+                return new JobRecord(id, tenantId, type, state, null, progress, cancelRequested, attempts, leaseOwner,
+                        result != null, resultType, error, createdBy, createdAt, startedAt, finishedAt);
+            }
+        }
+
+        private final Map<Long, Row> rows = new TreeMap<>();
+        private long sequence;
+
+        InMemoryJobRepository() {
+            super(null, new ObjectMapper());
+        }
+
+        synchronized JobState state(long id) {
+            return rows.get(id).state;
+        }
+
+        synchronized long tenantOf(long id) {
+            return rows.get(id).tenantId;
+        }
+
+        synchronized long countIn(JobState state) {
+            return rows.values().stream().filter(row -> row.state == state).count();
+        }
+
+        @Override
+        public synchronized long insert(long tenantId, String type, String payload, String createdBy) {
+            Row row = new Row();
+            row.id = ++sequence;
+            row.tenantId = tenantId;
+            row.type = type;
+            row.createdBy = createdBy;
+            row.createdAt = Instant.EPOCH;
+            rows.put(row.id, row);
+            return row.id;
+        }
+
+        @Override
+        public synchronized Optional<JobRecord> find(long tenantId, long id) {
+            Row row = rows.get(id);
+            return row == null || row.tenantId != tenantId ? Optional.empty() : Optional.of(row.toRecord());
+        }
+
+        @Override
+        public synchronized Optional<StoredResult> findResult(long tenantId, long id) {
+            Row row = rows.get(id);
+            return row == null || row.tenantId != tenantId ? Optional.empty()
+                    : Optional.of(new StoredResult(row.state, row.resultType, row.result));
+        }
+
+        @Override
+        public synchronized List<JobRecord> lockQueued(int limit, Collection<Long> skipTenants) {
+            return rows.values().stream()
+                    .filter(row -> row.state == JobState.QUEUED && !skipTenants.contains(row.tenantId)).limit(limit)
+                    .map(Row::toRecord).toList();
+        }
+
+        @Override
+        public synchronized void markRunning(List<Long> ids, String owner, Instant leaseUntil, Instant now) {
+            for (Long id : ids) {
+                Row row = rows.get(id);
+                if (row.state == JobState.QUEUED) {
+                    row.state = JobState.RUNNING;
+                    row.leaseOwner = owner;
+                    row.leaseExpiresAt = leaseUntil;
+                    row.attempts++;
+                    row.startedAt = row.startedAt == null ? now : row.startedAt;
+                }
+            }
+        }
+
+        @Override
+        public synchronized boolean heartbeat(JobLease lease, Instant leaseUntil, JobProgress progress) {
+            Row row = owned(lease);
+            if (row == null) {
+                return false;
+            }
+            row.leaseExpiresAt = leaseUntil;
+            row.progress = progress;
+            return true;
+        }
+
+        @Override
+        public synchronized List<Long> findCancelRequested(String owner) {
+            return rows.values().stream()
+                    .filter(row -> owner.equals(row.leaseOwner) && row.state == JobState.RUNNING && row.cancelRequested)
+                    .map(row -> row.id).toList();
+        }
+
+        @Override
+        public synchronized boolean finish(JobLease lease, JobState state, JobProgress progress, String resultType,
+                                           byte[] result, ApiError error, Instant now) {
+            Row row = owned(lease);
+            if (row == null) {
+                return false;
+            }
+            row.state = state;
+            row.progress = progress;
+            row.resultType = resultType;
+            row.result = result;
+            row.error = error;
+            row.finishedAt = now;
+            row.leaseOwner = null;
+            row.leaseExpiresAt = null;
+            return true;
+        }
+
+        @Override
+        public synchronized void finishQueued(long id, JobState state, ApiError error, Instant now) {
+            Row row = rows.get(id);
+            if (row.state == JobState.QUEUED) {
+                row.state = state;
+                row.error = error;
+                row.finishedAt = now;
+            }
+        }
+
+        @Override
+        public synchronized int requestCancel(long tenantId, long id, Instant now) {
+            Row row = rows.get(id);
+            if (row == null || row.tenantId != tenantId || row.state.finished()) {
+                return 0;
+            }
+            if (row.state == JobState.QUEUED) {
+                row.state = JobState.CANCELLED;
+                row.finishedAt = now;
+            }
+            row.cancelRequested = true;
+            return 1;
+        }
+
+        @Override
+        public synchronized int recoverExpired(Instant now, int maxAttempts, ApiError exhausted, int limit) {
+            int recovered = 0;
+            for (Row row : rows.values()) {
+                if (row.state != JobState.RUNNING || !row.leaseExpiresAt.isBefore(now)) {
+                    continue;
+                }
+                if (row.cancelRequested) {
+                    row.state = JobState.CANCELLED;
+                } else if (row.attempts >= maxAttempts) {
+                    row.state = JobState.FAILED;
+                    row.error = new ApiError(exhausted.timestamp(), "/jobs/" + row.id, exhausted.status(),
+                            exhausted.code(), exhausted.message(), exhausted.details(), exhausted.errorId());
+                } else {
+                    row.state = JobState.QUEUED;
+                }
+                row.finishedAt = row.state == JobState.QUEUED ? null : now;
+                row.leaseOwner = null;
+                row.leaseExpiresAt = null;
+                recovered++;
+            }
+            return recovered;
+        }
+
+        @Override
+        public synchronized int releaseOwned(String owner, Instant now) {
+            int released = 0;
+            for (Row row : rows.values()) {
+                if (owner.equals(row.leaseOwner) && row.state == JobState.RUNNING) {
+                    row.state = row.cancelRequested ? JobState.CANCELLED : JobState.QUEUED;
+                    row.finishedAt = row.cancelRequested ? now : null;
+                    row.attempts = Math.max(row.attempts - 1, 0);
+                    row.leaseOwner = null;
+                    row.leaseExpiresAt = null;
+                    released++;
+                }
+            }
+            return released;
+        }
+
+        @Override
+        public synchronized int deleteFinishedBefore(Instant cutoff, int batchSize) {
+            return 0;
+        }
+
+        private Row owned(JobLease lease) {
+            Row row = rows.get(lease.jobId());
+            return row != null && row.state == JobState.RUNNING && lease.owner().equals(row.leaseOwner)
+                    && row.attempts == lease.attempt() ? row : null;
+        }
+    }
+}
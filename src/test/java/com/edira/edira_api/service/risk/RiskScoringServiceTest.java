@@ -0,0 +1,253 @@
+package com.edira.edira_api.service.risk;
+
+import com.edira.edira_api.persistence.risk.RiskRepository;
+import com.edira.edira_api.persistence.risk.RiskScoreBatch;
+import com.edira.edira_api.service.attendance.AttendanceProperties;
+import com.edira.edira_api.service.attendance.AttendanceRollupService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Corridas de puntaje de riesgo con un repositorio en memoria que registra los tramos leídos.
+ */
+class RiskScoringServiceTest {
+
+    private static final long TENANT = 7L;
+    private static final ZoneId ZONE = ZoneId.of("America/Santiago");
+    private static final LocalDate TERM = LocalDate.of(2025, 3, 1);
+    private static final long TERM_MILLIS = TERM.atStartOfDay(ZONE).toInstant().toEpochMilli();
+    private static final long DAY = 86_400_000L;
+    private static final AttendanceProperties ATTENDANCE = new AttendanceProperties(Duration.ofMinutes(10),
+            Duration.ofMillis(10), 500, 20000, 4, Duration.ofSeconds(5), ZONE, List.of(3, 8));
+
+    private final InMemoryRiskRepository repository = new InMemoryRiskRepository();
+    private final RiskScoringService service = new RiskScoringService(repository, new FixedTerm(),
+            ATTENDANCE, new RiskProperties(1000, 4, Duration.ofMinutes(5)));
+
+    @Test
+    void score_primeraCorrida_todosLosAlumnosPorTramos() {
+        // Preparar
+        repository.students.addAll(LongStream.rangeClosed(1, 10_000).boxed().toList());
+        List<long[]> progress = Collections.synchronizedList(new ArrayList<>());
+
+        // Ejecutar
+        RiskRun run = service.score(TENANT, false, (done, total) -> progress.add(new long[]{done, total}));
+
+        // Verificar: 10 tramos de 1000, cada alumno escrito una vez, la marca guardada al final
+        assertFalse(run.incremental());
+        assertEquals(10_000, run.students());
+        assertEquals(10, repository.chunks.size());
+        assertEquals(10_000, repository.upserts.get());
+        assertEquals(10_000, repository.rows.size());
+        assertArrayEquals(new long[]{10_000, 10_000}, progress.get(progress.size() - 1));
+        assertEquals(new RiskRepository.RunState(InMemoryRiskRepository.NOW, TERM), repository.run);
+    }
+
+    @Test
+    void score_conDatos_puntajeYSenales() {
+        // Preparar: alumno 1 con 70% de asistencia, notas 6.0 → 5.0 → 4.0 en cuatro semanas y 3 de
+        // 10 evaluaciones sin nota; alumno 2 sin datos
+        repository.students.addAll(List.of(1L, 2L));
+        repository.attendance.put(1L, new int[]{12, 6, 2});
+        repository.grades.add(new long[]{1, 60, TERM_MILLIS});
+        repository.grades.add(new long[]{1, 50, TERM_MILLIS + 14 * DAY});
+        repository.grades.add(new long[]{1, 40, TERM_MILLIS + 28 * DAY});
+        repository.due.put(1L, new int[]{10, 3});
+
+        // Ejecutar
+        service.score(TENANT, false, (done, total) -> {
+        });
+
+        // Verificar: 35 (asistencia) + 0 (promedio 5.0) + 15 (baja 2.1 puntos cada 30 días) + 20 (30% faltante)
+        Row first = repository.rows.get(1L);
+        assertEquals(70, first.score());
+        assertEquals(0.70, first.attendanceRate(), 1e-9);
+        assertEquals(5.0, first.gradeAverage(), 1e-9);
+        assertEquals(-30.0 / 14, first.gradeTrend(), 1e-9);
+        assertEquals(3, first.missing());
+        Row second = repository.rows.get(2L);
+        assertEquals(0, second.score());
+        assertTrue(Double.isNaN(second.attendanceRate()) && Double.isNaN(second.gradeAverage())
+                && Double.isNaN(second.gradeTrend()));
+    }
+
+    @Test
+    void score_segundaCorrida_soloLosCambiadosEnTramosAcotados() {
+        // Preparar
+        repository.students.addAll(LongStream.rangeClosed(1, 10_000).boxed().toList());
+        service.score(TENANT, false, (done, total) -> {
+        });
+        repository.chunks.clear();
+        repository.upserts.set(0);
+        repository.changed = new long[]{5, 6, 9_000};
+
+        // Ejecutar
+        RiskRun run = service.score(TENANT, false, (done, total) -> {
+        });
+
+        // Verificar: cambios desde la marca menos el margen; 9000 queda fuera del rango de 5 y 6
+        assertTrue(run.incremental());
+        assertEquals(3, run.students());
+        assertEquals(InMemoryRiskRepository.NOW.minus(Duration.ofMinutes(5)), repository.changedSince);
+        assertEquals(3, repository.upserts.get());
+        assertEquals(List.of(List.of(5L, 6L), List.of(9_000L, 9_000L)),
+                repository.chunks.stream().sorted((a, b) -> Long.compare(a.get(0), b.get(0))).toList());
+    }
+
+    @Test
+    void score_periodoNuevoOFull_corridaCompleta() {
+        // Preparar: la corrida anterior fue en el período de agosto
+        repository.students.addAll(List.of(1L, 2L, 3L));
+        repository.run = new RiskRepository.RunState(InMemoryRiskRepository.NOW, LocalDate.of(2024, 8, 1));
+
+        // Ejecutar / Verificar
+        assertFalse(service.score(TENANT, false, (done, total) -> {
+        }).incremental());
+        assertTrue(service.score(TENANT, false, (done, total) -> {
+        }).incremental());
+        assertFalse(service.score(TENANT, true, (done, total) -> {
+        }).incremental());
+    }
+
+    @Test
+    void score_cancelado_noMueveLaMarca() {
+        // Preparar
+        repository.students.addAll(LongStream.rangeClosed(1, 10_000).boxed().toList());
+
+        // Ejecutar
+        assertThrows(IllegalStateException.class, () -> service.score(TENANT, false, (done, total) -> {
+            throw new IllegalStateException("cancelado");
+        }));
+
+        // Verificar
+        assertNull(repository.run);
+    }
+
+    @Test
+    void riskModel_senalesParciales_sumaPonderada() {
+        // Ejecutar / Verificar: asistencia 82.5% = media señal, promedio 4.25 = media señal
+        assertEquals(33, RiskModel.score(0.825, 4.25, Double.NaN, 0, 0));
+        assertEquals(0, RiskModel.score(1.0, 6.5, 0.5, 4, 0));
+        assertEquals(100, RiskModel.score(0.5, 2.0, -3, 4, 4));
+    }
+
+    private record Row(int score, double attendanceRate, double gradeAverage, double gradeTrend, int missing) {
+    }
+
+    private static final class FixedTerm extends AttendanceRollupService {
+
+        FixedTerm() {
+            super(null, null, null, null, ATTENDANCE);
+        }
+
+        @Override
+        public LocalDate currentTermStart() {
+            return TERM;
+        }
+    }
+
+    /** Alumnos del tenant y datos de origen en colecciones; los workers solo leen mientras corren. */
+    private static final class InMemoryRiskRepository extends RiskRepository {
+
+        static final Instant NOW = Instant.parse("2025-04-01T06:00:00Z");
+
+        private final List<Long> students = new ArrayList<>();
+        private final Map<Long, int[]> attendance = new ConcurrentHashMap<>();
+        private final List<long[]> grades = new ArrayList<>();
+        private final Map<Long, int[]> due = new ConcurrentHashMap<>();
+        private final List<List<Long>> chunks = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Long, Row> rows = new ConcurrentHashMap<>();
+        private final AtomicInteger upserts = new AtomicInteger();
+        private long[] changed = new long[0];
+        private Instant changedSince;
+        private RunState run;
+
+        InMemoryRiskRepository() {
+            super(null);
+        }
+
+        @Override
+        public Instant now() {
+            return NOW;
+        }
+
+        @Override
+        public Optional<RunState> findRun(long tenantId) {
+            return Optional.ofNullable(run);
+        }
+
+        @Override
+        public void saveRun(long tenantId, Instant watermark, LocalDate termStart) {
+            run = new RunState(watermark, termStart);
+        }
+
+        @Override
+        public long countStudents(long tenantId) {
+            return students.size();
+        }
+
+        @Override
+        public long[] findStudentIdsAfter(long tenantId, long afterId, int limit) {
+            return students.stream().mapToLong(Long::longValue).filter(id -> id > afterId).sorted().limit(limit).toArray();
+        }
+
+        @Override
+        public long[] findChangedStudents(long tenantId, Instant since) {
+            changedSince = since;
+            return changed;
+        }
+
+        @Override
+        public void forEachAttendance(long tenantId, LocalDate termStart, long fromStudent, long toStudent,
+                                      AttendanceHandler handler) {
+            chunks.add(List.of(fromStudent, toStudent));
+            attendance.forEach((studentId, counts) -> {
+                if (studentId >= fromStudent && studentId <= toStudent) {
+                    handler.accept(studentId, counts[0], counts[1], counts[2]);
+                }
+            });
+        }
+
+        @Override
+        public void forEachGrade(long tenantId, Instant termStart, long fromStudent, long toStudent,
+                                 GradeHandler handler) {
+            for (long[] grade : grades) {
+                if (grade[0] >= fromStudent && grade[0] <= toStudent) {
+                    handler.accept(grade[0], (int) grade[1], grade[2]);
+                }
+            }
+        }
+
+        @Override
+        public void forEachDue(long tenantId, Instant termStart, long fromStudent, long toStudent, DueHandler handler) {
+            due.forEach((studentId, counts) -> {
+                if (studentId >= fromStudent && studentId <= toStudent) {
+                    handler.accept(studentId, counts[0], counts[1]);
+                }
+            });
+        }
+
+        @Override
+        public void upsertScores(long tenantId, RiskScoreBatch batch) {
+            upserts.addAndGet(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                rows.put(batch.studentIds()[i], new Row(batch.scores()[i], batch.attendanceRates()[i],
+                        batch.gradeAverages()[i], batch.gradeTrends()[i], batch.missingEvaluations()[i]));
+            }
+        }
+    }
+}
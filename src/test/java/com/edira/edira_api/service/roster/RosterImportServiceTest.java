@@ -0,0 +1,205 @@
+package com.edira.edira_api.service.roster;
+
+import com.edira.edira_api.domain.student.NewStudent;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.student.StudentRepository;
+import com.edira.edira_api.service.course.EnrollmentProperties;
+import com.edira.edira_api.service.course.EnrollmentService;
+import com.edira.edira_api.shared.ingest.IngestProperties;
+import com.edira.edira_api.shared.validation.LineValidationError;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Nómina CSV con repositorios en memoria: validación por fila, lotes y avance.
+ */
+class RosterImportServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final FakeStudents students = new FakeStudents();
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+    private final Map<Long, List<Long>> enrolled = new LinkedHashMap<>();
+    private final List<RosterImportReport.RowError> errors = new ArrayList<>();
+    private final List<RosterImportReport.Progress> progress = new ArrayList<>();
+
+    @Test
+    void importCsv_filasMixtas_informaErroresConNumeroDeLineaYCarga() throws Exception {
+        // Preparar
+        String csv = """
+                first_name,last_name,email,course_code
+                Ana,Rojas,ANA@edira.cl,MAT-101
+                ,Soto,no-es-email,
+                "Luis ""Lucho""\",Pérez,luis@edira.cl,
+                "Eva
+                María",Díaz,eva@edira.cl,FIS-999
+                Ana,Rojas,ana@edira.cl,MAT-101
+                """;
+
+        // Ejecutar
+        RosterImportReport.Progress summary = service(500, 100).importCsv(7L, "admin", stream(csv), sink());
+
+        // Verificar: la fila de Eva empieza en la línea 5 y ocupa dos; Ana repetida se reutiliza
+        assertEquals(List.of(3L, 5L), errors.stream().map(RosterImportReport.RowError::line).toList());
+        assertEquals(List.of("email", "firstName"),
+                errors.get(0).errors().stream().map(LineValidationError::field).toList());
+        assertEquals("courseCode", errors.get(1).errors().get(0).field());
+        assertEquals(new RosterImportReport.Progress(5, 2, 3, 1, 1, 1, false), summary);
+        assertEquals(List.of("ana@edira.cl", "luis@edira.cl", "eva@edira.cl"), List.copyOf(students.ids.keySet()));
+        assertEquals("Luis \"Lucho\"", students.rows.get(1).firstName());
+        assertEquals(Map.of(101L, List.of(1L, 1L)), enrolled);
+    }
+
+    @Test
+    void importCsv_variosLotes_unaTransaccionYUnAvancePorLote() throws Exception {
+        // Preparar
+        StringBuilder csv = new StringBuilder("email,first_name,last_name\n");
+        for (int i = 1; i <= 5; i++) {
+            csv.append("a").append(i).append("@edira.cl,A,B\n");
+        }
+
+        // Ejecutar
+        service(2, 100).importCsv(7L, "admin", stream(csv.toString()), sink());
+
+        // Verificar
+        assertEquals(List.of(2L, 4L, 5L), progress.stream().map(RosterImportReport.Progress::rows).toList());
+        assertEquals(3, transactionManager.commits);
+        assertEquals(5, students.ids.size());
+    }
+
+    @Test
+    void importCsv_topeDeErrores_dejaDeInformarYMarcaTruncado() throws Exception {
+        // Preparar
+        String csv = "email,first_name,last_name\nmalo,A,B\nmalo,A,B\nmalo,A,B\n";
+
+        // Ejecutar
+        RosterImportReport.Progress summary = service(500, 2).importCsv(7L, "admin", stream(csv), sink());
+
+        // Verificar
+        assertEquals(2, errors.size());
+        assertEquals(3, summary.invalid());
+        assertTrue(summary.errorsTruncated());
+        assertEquals(0, transactionManager.commits);
+    }
+
+    @Test
+    void importCsv_encabezadoIncompleto_lanzaIllegalArgumentSinEscribir() {
+        // Preparar
+        String csv = "correo,nombre\nana@edira.cl,Ana\n";
+
+        // Ejecutar / Verificar
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service(500, 100).importCsv(7L, "admin", stream(csv), sink()));
+        assertTrue(e.getMessage().contains("email"));
+        assertTrue(progress.isEmpty());
+        assertTrue(students.ids.isEmpty());
+    }
+
+    private RosterImportService service(int batchSize, int maxErrorDetails) {
+        EnrollmentRepository courses = new EnrollmentRepository(null) {
+            @Override
+            public Map<String, Long> findCourseIdsByCode(long tenantId, Collection<String> codes) {
+                Map<String, Long> ids = new HashMap<>();
+                if (codes.contains("MAT-101")) {
+                    ids.put("MAT-101", 101L);
+                }
+                return ids;
+            }
+        };
+        EnrollmentService enrollmentService = new EnrollmentService(courses, transactionManager,
+                new EnrollmentProperties(5000, Duration.ofSeconds(30), 100)) {
+            @Override
+            public BatchResult enrollAll(long tenantId, long courseId, Collection<Long> studentIds, String user) {
+                enrolled.computeIfAbsent(courseId, id -> new ArrayList<>()).addAll(studentIds);
+                return new BatchResult(1, studentIds.size() - 1, 1);
+            }
+        };
+        return new RosterImportService(students, courses, enrollmentService, VALIDATOR, transactionManager,
+                new IngestProperties(batchSize, maxErrorDetails, DataSize.ofKilobytes(16)));
+    }
+
+    private RosterImportService.Sink sink() {
+        return new RosterImportService.Sink() {
+            @Override
+            public void rowError(RosterImportReport.RowError error) {
+                errors.add(error);
+            }
+
+            @Override
+            public void progress(RosterImportReport.Progress p) {
+                progress.add(p);
+            }
+        };
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static final class FakeStudents extends StudentRepository {
+
+        final Map<String, Long> ids = new LinkedHashMap<>();
+        final List<NewStudent> rows = new ArrayList<>();
+
+        FakeStudents() {
+            super(null);
+        }
+
+        @Override
+        public void insertAll(long tenantId, List<NewStudent> students, String createdBy) {
+            for (NewStudent student : students) {
+                if (ids.putIfAbsent(student.email(), ids.size() + 1L) == null) {
+                    rows.add(student);
+                }
+            }
+        }
+
+        @Override
+        public Map<String, Long> findIdsByEmail(long tenantId, Collection<String> emails) {
+            Map<String, Long> found = new HashMap<>();
+            emails.stream().filter(ids::containsKey).forEach(email -> found.put(email, ids.get(email)));
+            return found;
+        }
+    }
+
+    static final class CountingTransactionManager extends AbstractPlatformTransactionManager {
+
+        int commits;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.edira.edira_api.service.student;
+
+import com.edira.edira_api.domain.student.NewStudent;
+import com.edira.edira_api.persistence.student.StudentRepository;
+import com.edira.edira_api.service.student.StudentImportResult.Status;
+import com.edira.edira_api.shared.ingest.IngestProperties;
+import com.edira.edira_api.shared.validation.LineValidationError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Carga NDJSON con un repositorio en memoria que imita el INSERT IGNORE sobre (tenant_id, email).
+ */
+class StudentImportServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final FakeRepository repository = new FakeRepository();
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+    private final List<StudentImportResult> results = new ArrayList<>();
+    private final List<Integer> flushedAt = new ArrayList<>();
+
+    @Test
+    void importNdjson_lineasMixtas_resultadoPorLineaEnOrden() throws Exception {
+        // Preparar
+        String body = """
+                {"firstName":"Ana","lastName":"Rojas","email":"ana@edira.cl"}
+
+                {"firstName":"","lastName":"Soto","email":"no-es-email"}
+                {"firstName":"Luis","lastName":"Pérez","email":"ANA@edira.cl"}
+                {no es json
+                {"firstName":"Eva","lastName":"Díaz","email":"eva@edira.cl","externalId":"X-1"}\r
+                """;
+
+        // Ejecutar
+        StudentImportResult.Summary summary = service(500, 1000).importNdjson(7L, "admin", stream(body), sink());
+
+        // Verificar: la línea en blanco cuenta para la numeración pero no genera resultado
+        assertEquals(List.of(1L, 3L, 4L, 5L, 6L), results.stream().map(StudentImportResult::line).toList());
+        assertEquals(List.of(Status.CREATED, Status.INVALID, Status.DUPLICATE, Status.INVALID, Status.CREATED),
+                results.stream().map(StudentImportResult::status).toList());
+        assertEquals(List.of("email", "firstName"),
+                results.get(1).errors().stream().map(LineValidationError::field).toList());
+        assertTrue(results.get(1).errors().stream().allMatch(e -> e.line() == 3));
+        assertEquals("$", results.get(3).errors().get(0).field());
+        assertEquals(new StudentImportResult.Summary(5, 2, 1, 2, false), summary);
+        assertEquals("X-1", repository.inserted.get(1).externalId());
+        assertEquals(7L, repository.tenantId);
+    }
+
+    @Test
+    void importNdjson_cargaGrande_lotesAcotadosYUnaTransaccionPorLote() throws Exception {
+        // Preparar: 10.000 líneas generadas al vuelo (no hay un String con todo el archivo)
+        int total = 10_000;
+
+        // Ejecutar
+        StudentImportResult.Summary summary = service(500, 1000)
+                .importNdjson(1L, "admin", new GeneratedInput(total), sink());
+
+        // Verificar
+        assertEquals(total, summary.created());
+        assertEquals(total / 500, repository.batchSizes.size());
+        assertTrue(repository.batchSizes.stream().allMatch(size -> size == 500));
+        assertEquals(total / 500, transactionManager.commits);
+        assertEquals(total / 500, flushedAt.size());
+        assertEquals(500, flushedAt.get(0));
+        assertEquals(total, results.get(total - 1).line());
+    }
+
+    @Test
+    void importNdjson_superaTopeDeErrores_siguenContandoSinDetalle() throws Exception {
+        // Preparar: cada línea inválida aporta 2 detalles; tope de 5
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            body.append("{\"firstName\":\"\",\"lastName\":\"\",\"email\":\"a@b.cl\"}\n");
+        }
+
+        // Ejecutar
+        StudentImportResult.Summary summary = service(500, 5).importNdjson(1L, "admin", stream(body.toString()), sink());
+
+        // Verificar
+        assertEquals(List.of(2, 2, 1, 0), results.stream().map(r -> r.errors().size()).toList());
+        assertTrue(results.stream().allMatch(r -> r.status() == Status.INVALID));
+        assertEquals(4, summary.invalid());
+        assertTrue(summary.errorsTruncated());
+    }
+
+    @Test
+    void importNdjson_lineaDemasiadoLarga_invalidaSinCortarLaCarga() throws Exception {
+        // Preparar
+        String longLine = "{\"firstName\":\"" + "x".repeat(200) + "\",\"lastName\":\"B\",\"email\":\"b@edira.cl\"}";
+        String body = longLine + "\n{\"firstName\":\"A\",\"lastName\":\"B\",\"email\":\"a@edira.cl\"}";
+
+        // Ejecutar
+        StudentImportService service = new StudentImportService(repository, VALIDATOR, new ObjectMapper(),
+                new TransactionTemplate(transactionManager), new IngestProperties(500, 1000, DataSize.ofBytes(100)));
+        service.importNdjson(1L, "admin", stream(body), sink());
+
+        // Verificar: la última línea sin \n final también se procesa
+        assertEquals(List.of(Status.INVALID, Status.CREATED), results.stream().map(StudentImportResult::status).toList());
+        assertEquals(2L, results.get(1).line());
+    }
+
+    @Test
+    void importNdjson_soloInvalidas_noAbreTransaccion() throws Exception {
+        // Ejecutar
+        service(500, 1000).importNdjson(1L, "admin", stream("[]\n\"texto\"\n"), sink());
+
+        // Verificar
+        assertEquals(0, transactionManager.commits);
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(r -> r.status() == Status.INVALID));
+    }
+
+    private StudentImportService service(int batchSize, int maxErrorDetails) {
+        return new StudentImportService(repository, VALIDATOR, new ObjectMapper(),
+                new TransactionTemplate(transactionManager),
+                new IngestProperties(batchSize, maxErrorDetails, DataSize.ofKilobytes(16)));
+    }
+
+    private StudentImportService.Sink sink() {
+        return new StudentImportService.Sink() {
+            @Override
+            public void accept(StudentImportResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public void flush() {
+                flushedAt.add(results.size());
+            }
+        };
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Genera líneas válidas bajo demanda, byte a byte. */
+    private static final class GeneratedInput extends InputStream {
+
+        private final int lines;
+        private int current;
+        private byte[] line = new byte[0];
+        private int position;
+
+        GeneratedInput(int lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (current == lines) {
+                    return -1;
+                }
+                current++;
+                line = ("{\"firstName\":\"N" + current + "\",\"lastName\":\"A\",\"email\":\"s" + current + "@edira.cl\"}\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++];
+        }
+    }
+
+    private static final class FakeRepository extends StudentRepository {
+
+        final Set<String> emails = new HashSet<>();
+        final List<NewStudent> inserted = new ArrayList<>();
+        final List<Integer> batchSizes = new ArrayList<>();
+        long tenantId;
+
+        FakeRepository() {
+            super(null);
+        }
+
+        @Override
+        public InsertOutcome[] insertIgnoringDuplicates(long tenantId, List<NewStudent> students, String createdBy) {
+            this.tenantId = tenantId;
+            batchSizes.add(students.size());
+            InsertOutcome[] outcomes = new InsertOutcome[students.size()];
+            for (int i = 0; i < outcomes.length; i++) {
+                if (emails.add(students.get(i).email())) {
+                    inserted.add(students.get(i));
+                    outcomes[i] = InsertOutcome.CREATED;
+                } else {
+                    outcomes[i] = InsertOutcome.DUPLICATE;
+                }
+            }
+            return outcomes;
+        }
+    }
+
+    private static final class CountingTransactionManager extends AbstractPlatformTransactionManager {
+
+        int commits;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.edira.edira_api.service.timetable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Búsqueda de intervalos que se cruzan contra recorrer todos.
+ */
+class IntervalTreeTest {
+
+    @Test
+    void overlapping_insertarYQuitarAlAzar_mismosIdsQueFuerzaBruta() {
+        // Preparar
+        IntervalTree tree = new IntervalTree();
+        Map<Long, int[]> all = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+
+        // Ejecutar / Verificar: la semana en minutos, intervalos de 30 a 180 minutos
+        for (int i = 0; i < 5_000; i++) {
+            if (!all.isEmpty() && random.nextInt(3) == 0) {
+                long id = all.keySet().stream().skip(random.nextInt(all.size())).findFirst().orElseThrow();
+                assertTrue(tree.remove(all.remove(id)[0], id));
+            } else {
+                int start = random.nextInt(7 * 1440 - 180);
+                int[] interval = {start, start + 30 + random.nextInt(151)};
+                long id = i + 1;
+                tree.insert(interval[0], interval[1], id);
+                all.put(id, interval);
+            }
+            int from = random.nextInt(7 * 1440);
+            int to = from + 1 + random.nextInt(240);
+            List<Long> found = new ArrayList<>();
+            tree.overlapping(from, to, found::add);
+            List<Long> expected = all.entrySet().stream()
+                    .filter(e -> e.getValue()[0] < to && e.getValue()[1] > from)
+                    .sorted(Comparator.<Map.Entry<Long, int[]>>comparingInt(e -> e.getValue()[0])
+                            .thenComparing(Map.Entry::getKey))
+                    .map(Map.Entry::getKey).toList();
+            assertEquals(expected, found);
+        }
+        assertEquals(all.size(), tree.size());
+    }
+
+    @Test
+    void overlapping_intervalosQueSoloSeTocan_noChocan() {
+        // Preparar: 08:00-09:30 y 09:30-10:00
+        IntervalTree tree = new IntervalTree();
+        tree.insert(480, 570, 1);
+        tree.insert(570, 600, 2);
+        List<Long> found = new ArrayList<>();
+
+        // Ejecutar
+        tree.overlapping(600, 660, found::add);
+        tree.overlapping(569, 571, found::add);
+
+        // Verificar
+        assertEquals(List.of(1L, 2L), found);
+    }
+
+    @Test
+    void remove_idInexistente_false() {
+        // Preparar
+        IntervalTree tree = new IntervalTree();
+        tree.insert(480, 570, 1);
+
+        // Ejecutar / Verificar
+        assertFalse(tree.remove(480, 2));
+        assertFalse(tree.remove(481, 1));
+        assertTrue(tree.remove(480, 1));
+        assertEquals(0, tree.size());
+    }
+}
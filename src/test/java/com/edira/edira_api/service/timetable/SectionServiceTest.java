@@ -0,0 +1,248 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseSection;
+import com.edira.edira_api.domain.timetable.ScheduleResource;
+import com.edira.edira_api.persistence.timetable.SectionRepository;
+import com.edira.edira_api.shared.error.ConflictException;
+import com.edira.edira_api.shared.error.NotFoundException;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import static com.edira.edira_api.service.timetable.TimetableServiceTest.TENANT;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Secciones con horario fijo: choques por sala y profesor, recarga del índice cuando otro nodo
+ * cambió la base y propagación por el outbox, con un repositorio en memoria.
+ */
+class SectionServiceTest {
+
+    static final SectionProperties PROPERTIES = new SectionProperties(100, Duration.ofSeconds(1), 500,
+            Duration.ofDays(1), Duration.ofHours(1), 5000);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final InMemorySectionRepository repository = new InMemorySectionRepository();
+    private final SectionService service = node(new ScheduleIndex(PROPERTIES));
+
+    @Test
+    void create_salaOProfesorOcupados_409ConCadaSeccionQueChoca() {
+        // Preparar: lunes 08:00-09:30 en la sala 3 con el profesor 10
+        CourseSection first = service.create(TENANT, 1, "A", 0, time("08:00"), time("09:30"), 3L, 10L, "admin");
+
+        // Ejecutar
+        ConflictException teacher = assertThrows(ConflictException.class,
+                () -> service.create(TENANT, 2, "A", 0, time("09:00"), time("10:00"), 4L, 10L, "admin"));
+        ConflictException both = assertThrows(ConflictException.class,
+                () -> service.create(TENANT, 2, "A", 0, time("09:29"), time("11:00"), 3L, 10L, "admin"));
+        CourseSection touching = service.create(TENANT, 2, "A", 0, time("09:30"), time("10:00"), 3L, 10L, "admin");
+        CourseSection otherDay = service.create(TENANT, 2, "B", 1, time("08:00"), time("09:30"), 3L, 10L, "admin");
+
+        // Verificar
+        assertEquals(List.of("teacherId"), teacher.getDetails().stream().map(ValidationErrorDetail::field).toList());
+        assertTrue(teacher.getDetails().get(0).message().contains("sección " + first.id()));
+        assertEquals(List.of("roomId", "teacherId"), both.getDetails().stream().map(ValidationErrorDetail::field).toList());
+        assertNotEquals(first.id(), touching.id());
+        assertNotEquals(touching.id(), otherDay.id());
+        assertEquals(3, repository.sections.size());
+        // tres secciones guardadas: tres eventos y tres cambios de versión en la sala y en el profesor
+        assertEquals(3, repository.events.size());
+        assertEquals(3L, repository.versions.get(key(ScheduleResource.ROOM, 3)));
+        assertEquals(3L, repository.versions.get(key(ScheduleResource.TEACHER, 10)));
+        // el índice se cargó una vez por recurso y después se mantuvo con cada escritura
+        assertEquals(3, repository.loads);
+    }
+
+    @Test
+    void create_otroNodoCambioLaSala_recargaYVeElChoque() {
+        // Preparar: índice de la sala 3 al día, y otra sección guardada por otro nodo sin pasar por él
+        service.create(TENANT, 1, "A", 0, time("08:00"), time("09:00"), 3L, null, "admin");
+        long foreign = repository.insertSection(TENANT, 2, "A", 3L, null, 2, 600, 690, "admin");
+        repository.bumpVersion(ScheduleResource.ROOM, 3);
+        int loads = repository.loads;
+
+        // Ejecutar
+        ConflictException conflict = assertThrows(ConflictException.class,
+                () -> service.create(TENANT, 3, "A", 2, time("11:00"), time("12:00"), 3L, null, "admin"));
+
+        // Verificar
+        assertTrue(conflict.getDetails().get(0).message().contains("sección " + foreign));
+        assertEquals(loads + 1, repository.loads);
+    }
+
+    @Test
+    void updateYDelete_liberanElHorarioAnteriorSinRecargar() {
+        // Preparar
+        CourseSection section = service.create(TENANT, 1, "A", 0, time("08:00"), time("09:30"), 3L, 10L, "admin");
+        service.conflicts(TENANT, 0, time("08:00"), time("09:00"), 4L, null, 0);
+        int loads = repository.loads;
+
+        // Ejecutar: a la sala 4, media hora después (se cruza con su propio horario anterior)
+        CourseSection moved = service.update(TENANT, section.id(), "A", 0, time("08:30"), time("10:00"), 4L, 10L, "admin");
+
+        // Verificar
+        assertEquals(1L, moved.courseId());
+        assertEquals(List.of(), service.conflicts(TENANT, 0, time("08:00"), time("09:30"), 3L, null, 0));
+        assertEquals(List.of(moved), service.conflicts(TENANT, 0, time("09:00"), time("09:15"), 4L, null, 0));
+        assertEquals(List.of(), service.conflicts(TENANT, 0, time("09:00"), time("09:15"), 4L, 10L, section.id()));
+        service.delete(TENANT, section.id());
+        assertEquals(List.of(), service.conflicts(TENANT, 0, time("09:00"), time("09:15"), 4L, 10L, 0));
+        assertEquals(loads, repository.loads);
+        assertEquals(List.of(SectionService.SCHEDULED, SectionService.SCHEDULED, SectionService.REMOVED),
+                repository.events.stream().map(SectionRepository.OutboxEvent::eventType).toList());
+        assertThrows(NotFoundException.class, () -> service.get(TENANT, section.id()));
+    }
+
+    @Test
+    void poll_eventoDeOtroNodo_actualizaElIndiceSinRecargar() {
+        // Preparar: dos nodos con la misma base; el segundo ya tiene la sala 3 en su índice
+        ScheduleIndex otherIndex = new ScheduleIndex(PROPERTIES);
+        SectionService other = node(otherIndex);
+        SectionOutboxRelay relay = new SectionOutboxRelay(repository, otherIndex, objectMapper, PROPERTIES,
+                Clock.systemUTC());
+        relay.poll();
+        assertEquals(List.of(), other.conflicts(TENANT, 0, time("08:00"), time("09:00"), 3L, null, 0));
+        CourseSection section = service.create(TENANT, 1, "A", 0, time("08:00"), time("09:30"), 3L, 10L, "admin");
+        int loads = repository.loads;
+
+        // Ejecutar
+        relay.poll();
+
+        // Verificar: el segundo nodo ve la sección con lo que trajo el evento
+        assertEquals(List.of(section), other.conflicts(TENANT, 0, time("08:00"), time("09:00"), 3L, null, 0));
+        assertEquals(loads, repository.loads);
+    }
+
+    @Test
+    void create_datosInvalidosORecursoInexistente_rechaza() {
+        // Ejecutar / Verificar
+        assertThrows(IllegalArgumentException.class,
+                () -> service.create(TENANT, 1, "A", 0, time("10:00"), time("10:00"), 3L, 10L, "admin"));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.create(TENANT, 1, "A", 7, time("08:00"), time("09:00"), 3L, 10L, "admin"));
+        assertThrows(NotFoundException.class,
+                () -> service.create(TENANT, 9, "A", 0, time("08:00"), time("09:00"), 3L, 10L, "admin"));
+        assertThrows(NotFoundException.class,
+                () -> service.create(TENANT, 1, "A", 0, time("08:00"), time("09:00"), 99L, 10L, "admin"));
+        assertTrue(repository.sections.isEmpty());
+        assertTrue(repository.events.isEmpty());
+    }
+
+    private SectionService node(ScheduleIndex index) {
+        return new SectionService(repository, new TimetableServiceTest.CourseLookup(new HashSet<>(Set.of(1L, 2L, 3L))),
+                index, objectMapper, new TimetableServiceTest.NoOpTransactionManager());
+    }
+
+    private static LocalTime time(String text) {
+        return LocalTime.parse(text);
+    }
+
+    static String key(ScheduleResource kind, long id) {
+        return kind + ":" + id;
+    }
+
+    /** Salas 3 y 4, profesores 10 y 11. */
+    static class InMemorySectionRepository extends SectionRepository {
+
+        final Map<String, Long> versions = new HashMap<>(Map.of(key(ScheduleResource.ROOM, 3), 0L,
+                key(ScheduleResource.ROOM, 4), 0L, key(ScheduleResource.TEACHER, 10), 0L,
+                key(ScheduleResource.TEACHER, 11), 0L));
+        final Map<Long, CourseSection> sections = new HashMap<>();
+        final List<OutboxEvent> events = new ArrayList<>();
+        int loads;
+        private long nextId = 1;
+
+        InMemorySectionRepository() {
+            super(null);
+        }
+
+        @Override
+        public OptionalLong lockVersion(long tenantId, ScheduleResource kind, long id) {
+            return findVersion(tenantId, kind, id);
+        }
+
+        @Override
+        public OptionalLong findVersion(long tenantId, ScheduleResource kind, long id) {
+            Long version = versions.get(key(kind, id));
+            return version != null ? OptionalLong.of(version) : OptionalLong.empty();
+        }
+
+        @Override
+        public void bumpVersion(ScheduleResource kind, long id) {
+            versions.merge(key(kind, id), 1L, Long::sum);
+        }
+
+        @Override
+        public long insertSection(long tenantId, long courseId, String code, Long roomId, Long teacherId, int day,
+                                  int startMinute, int endMinute, String createdBy) {
+            long id = nextId++;
+            sections.put(id, new CourseSection(id, courseId, code, roomId, teacherId, day,
+                    LocalTime.ofSecondOfDay(startMinute * 60L), LocalTime.ofSecondOfDay(endMinute * 60L)));
+            return id;
+        }
+
+        @Override
+        public void updateSection(long sectionId, String code, Long roomId, Long teacherId, int day, int startMinute,
+                                  int endMinute, String updatedBy) {
+            CourseSection old = sections.get(sectionId);
+            sections.put(sectionId, new CourseSection(sectionId, old.courseId(), code, roomId, teacherId, day,
+                    LocalTime.ofSecondOfDay(startMinute * 60L), LocalTime.ofSecondOfDay(endMinute * 60L)));
+        }
+
+        @Override
+        public void deleteSection(long sectionId) {
+            sections.remove(sectionId);
+        }
+
+        @Override
+        public Optional<CourseSection> findSection(long tenantId, long sectionId) {
+            return Optional.ofNullable(sections.get(sectionId));
+        }
+
+        @Override
+        public Optional<CourseSection> lockSection(long tenantId, long sectionId) {
+            return findSection(tenantId, sectionId);
+        }
+
+        @Override
+        public List<CourseSection> findByResource(long tenantId, ScheduleResource kind, long id) {
+            loads++;
+            return sections.values().stream()
+                    .filter(s -> Long.valueOf(id).equals(kind == ScheduleResource.ROOM ? s.roomId() : s.teacherId()))
+                    .toList();
+        }
+
+        @Override
+        public void insertEvent(long tenantId, long sectionId, String eventType, String payload) {
+            events.add(new OutboxEvent(events.size() + 1, tenantId, eventType, payload));
+        }
+
+        @Override
+        public List<OutboxEvent> findEventsAfter(long afterId, int limit) {
+            return events.stream().filter(e -> e.id() > afterId).limit(limit).toList();
+        }
+
+        @Override
+        public long maxEventId() {
+            return events.size();
+        }
+
+        @Override
+        public int deleteEventsBefore(Instant before, int limit) {
+            return 0;
+        }
+    }
+}
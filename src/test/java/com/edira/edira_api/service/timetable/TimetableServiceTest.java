@@ -0,0 +1,229 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseDemand;
+import com.edira.edira_api.domain.timetable.Room;
+import com.edira.edira_api.domain.timetable.ScheduledLesson;
+import com.edira.edira_api.domain.timetable.Teacher;
+import com.edira.edira_api.domain.timetable.Timetable;
+import com.edira.edira_api.persistence.course.EnrollmentRepository;
+import com.edira.edira_api.persistence.timetable.TimetableRepository;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Carga semanal de los cursos y generación del horario con un repositorio en memoria.
+ */
+class TimetableServiceTest {
+
+    static final long TENANT = 7L;
+    static final TimetableProperties PROPERTIES = new TimetableProperties(5, 8, Duration.ofSeconds(2),
+            Duration.ofSeconds(30), 2, 500, 200_000, Duration.ofMillis(50), Duration.ofMinutes(1));
+
+    final InMemoryTimetableRepository repository = new InMemoryTimetableRepository();
+    final Set<Long> courses = new HashSet<>(Set.of(1L, 2L, 3L));
+    private final TimetableService service = new TimetableService(repository, new CourseLookup(courses),
+            new NoOpTransactionManager(), PROPERTIES);
+
+    @Test
+    void generate_conCursosYSalas_guardaCadaBloqueConSusIds() {
+        // Preparar: tres cursos de dos profesores en dos salas
+        repository.demands.addAll(List.of(new CourseDemand(1, 50, 3, 30), new CourseDemand(2, 50, 2, 25),
+                new CourseDemand(3, 51, 4, 40)));
+        repository.rooms.addAll(List.of(new Room(20, "A", "A", 45), new Room(21, "B", "B", 30)));
+        List<Integer> hardSeen = new ArrayList<>();
+
+        // Ejecutar
+        Timetable timetable = service.generate(TENANT, 99L, Duration.ofMillis(300), "admin",
+                (elapsedMs, hard, soft, moves) -> hardSeen.add(hard));
+
+        // Verificar
+        assertEquals(0, timetable.hardViolations());
+        assertEquals(99L, timetable.jobId());
+        assertFalse(hardSeen.isEmpty());
+        List<ScheduledLesson> lessons = repository.lessons.get(timetable.id());
+        assertEquals(9, lessons.size());
+        Map<Long, Long> perCourse = lessons.stream().collect(Collectors.groupingBy(ScheduledLesson::courseId,
+                Collectors.counting()));
+        assertEquals(Map.of(1L, 3L, 2L, 2L, 3L, 4L), perCourse);
+        for (ScheduledLesson lesson : lessons) {
+            assertEquals(lesson.courseId() == 3 ? 51L : 50L, lesson.teacherId());
+            assertTrue(lesson.day() >= 0 && lesson.day() < 5 && lesson.slot() >= 0 && lesson.slot() < 8);
+            // el curso 3 (40 alumnos) solo cabe en la sala 20
+            if (lesson.courseId() == 3) {
+                assertEquals(20L, lesson.roomId());
+            }
+        }
+        assertEquals(timetable.id(), service.latest(TENANT).id());
+        assertEquals(OptionalLong.of(timetable.id()), service.timetableOfJob(TENANT, 99L));
+    }
+
+    @Test
+    void generate_plazoFueraDeRangoOSinDatos_rechaza() {
+        // Ejecutar / Verificar
+        assertThrows(IllegalArgumentException.class, () -> service.generate(TENANT, null, Duration.ZERO, "admin",
+                (elapsedMs, hard, soft, moves) -> {
+                }));
+        assertThrows(IllegalArgumentException.class, () -> service.generate(TENANT, null, Duration.ofMinutes(1),
+                "admin", (elapsedMs, hard, soft, moves) -> {
+                }));
+        assertThrows(IllegalArgumentException.class, () -> service.generate(TENANT, null, Duration.ofSeconds(1),
+                "admin", (elapsedMs, hard, soft, moves) -> {
+                }));
+        assertTrue(repository.lessons.isEmpty());
+    }
+
+    @Test
+    void assignTeaching_validaCursoProfesorYBloques() {
+        // Preparar
+        Teacher teacher = service.createTeacher(TENANT, "PROF-1", "María Soto", "admin");
+
+        // Ejecutar / Verificar
+        assertThrows(IllegalArgumentException.class, () -> service.assignTeaching(TENANT, 1, teacher.id(), 0, "admin"));
+        assertThrows(IllegalArgumentException.class, () -> service.assignTeaching(TENANT, 1, teacher.id(), 41, "admin"));
+        assertThrows(NotFoundException.class, () -> service.assignTeaching(TENANT, 9, teacher.id(), 3, "admin"));
+        assertThrows(NotFoundException.class, () -> service.assignTeaching(TENANT, 1, 12345, 3, "admin"));
+        service.assignTeaching(TENANT, 1, teacher.id(), 3, "admin");
+        assertEquals(Map.of(1L, List.of(teacher.id(), 3L)), repository.teaching);
+    }
+
+    static final class CourseLookup extends EnrollmentRepository {
+
+        private final Set<Long> courses;
+
+        CourseLookup(Set<Long> courses) {
+            super(null);
+            this.courses = courses;
+        }
+
+        @Override
+        public boolean courseExists(long tenantId, long courseId) {
+            return courses.contains(courseId);
+        }
+    }
+
+    static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    static class InMemoryTimetableRepository extends TimetableRepository {
+
+        final List<CourseDemand> demands = new ArrayList<>();
+        final List<Room> rooms = new ArrayList<>();
+        final Map<Long, Teacher> teachers = new HashMap<>();
+        final Map<Long, List<Long>> teaching = new HashMap<>();
+        final Map<Long, Timetable> timetables = new HashMap<>();
+        final Map<Long, List<ScheduledLesson>> lessons = new HashMap<>();
+        private long nextId = 1;
+
+        InMemoryTimetableRepository() {
+            super(null);
+        }
+
+        @Override
+        public long insertTeacher(long tenantId, String code, String name, String createdBy) {
+            long id = nextId++;
+            teachers.put(id, new Teacher(id, code, name));
+            return id;
+        }
+
+        @Override
+        public Optional<Teacher> findTeacher(long tenantId, long teacherId) {
+            return Optional.ofNullable(teachers.get(teacherId));
+        }
+
+        @Override
+        public long insertRoom(long tenantId, String code, String name, int capacity, String createdBy) {
+            long id = nextId++;
+            rooms.add(new Room(id, code, name, capacity));
+            return id;
+        }
+
+        @Override
+        public Optional<Room> findRoom(long tenantId, long roomId) {
+            return rooms.stream().filter(room -> room.id() == roomId).findFirst();
+        }
+
+        @Override
+        public List<Room> findRooms(long tenantId) {
+            return List.copyOf(rooms);
+        }
+
+        @Override
+        public void upsertTeaching(long tenantId, long courseId, long teacherId, int weeklyLessons, String updatedBy) {
+            teaching.put(courseId, List.of(teacherId, (long) weeklyLessons));
+        }
+
+        @Override
+        public List<CourseDemand> findDemands(long tenantId) {
+            return List.copyOf(demands);
+        }
+
+        @Override
+        public long insertTimetable(long tenantId, Long jobId, int days, int slotsPerDay, int hardViolations,
+                                    int softPenalty, long moves, long elapsedMs, String createdBy) {
+            long id = nextId++;
+            timetables.put(id, new Timetable(id, jobId, days, slotsPerDay, hardViolations, softPenalty, moves,
+                    elapsedMs, Instant.now(), null));
+            return id;
+        }
+
+        @Override
+        public void insertLessons(long timetableId, List<ScheduledLesson> scheduled) {
+            lessons.put(timetableId, List.copyOf(scheduled));
+        }
+
+        @Override
+        public Optional<Timetable> findTimetable(long tenantId, long timetableId) {
+            return Optional.ofNullable(timetables.get(timetableId));
+        }
+
+        @Override
+        public Optional<Timetable> findLatest(long tenantId) {
+            return timetables.keySet().stream().max(Long::compare).map(timetables::get);
+        }
+
+        @Override
+        public OptionalLong findIdByJob(long tenantId, long jobId) {
+            return timetables.values().stream().filter(t -> t.jobId() != null && t.jobId() == jobId)
+                    .mapToLong(Timetable::id).findFirst();
+        }
+
+        @Override
+        public List<ScheduledLesson> findLessons(long timetableId) {
+            return lessons.getOrDefault(timetableId, List.of());
+        }
+    }
+}
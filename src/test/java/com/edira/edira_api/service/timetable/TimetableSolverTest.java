@@ -0,0 +1,137 @@
+package com.edira.edira_api.service.timetable;
+
+import com.edira.edira_api.domain.timetable.CourseDemand;
+import com.edira.edira_api.domain.timetable.Room;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Puntaje por diferencias contra el conteo completo, y búsqueda en varios hilos con plazo.
+ */
+class TimetableSolverTest {
+
+    private final TimetableSolver solver = new TimetableSolver(500, 200_000, Duration.ofMillis(50));
+
+    @Test
+    void move_yRevertir_mismoPuntajeQueElConteoCompleto() {
+        // Preparar
+        TimetableProblem problem = school(60, 8, 6, 3);
+        TimetableState state = new TimetableState(problem);
+        SplittableRandom random = new SplittableRandom(11);
+        state.randomize(random);
+
+        // Ejecutar / Verificar: cada movimiento, aceptado o deshecho, deja el puntaje exacto
+        for (int i = 0; i < 20_000; i++) {
+            int a = random.nextInt(problem.lessons());
+            if (random.nextBoolean()) {
+                int b = random.nextInt(problem.lessons());
+                long cost = state.swap(a, b);
+                assertEquals(TimetableState.fullCost(problem, state.slots(), state.rooms()), cost);
+                if (random.nextBoolean()) {
+                    state.swap(a, b);
+                }
+            } else {
+                int fromSlot = state.slot(a);
+                int fromRoom = state.room(a);
+                long cost = state.move(a, random.nextInt(problem.slots), problem.randomRoom(a, random));
+                assertEquals(TimetableState.fullCost(problem, state.slots(), state.rooms()), cost);
+                if (random.nextBoolean()) {
+                    state.move(a, fromSlot, fromRoom);
+                }
+            }
+        }
+        assertEquals(TimetableState.fullCost(problem, state.slots(), state.rooms()), state.cost());
+    }
+
+    @Test
+    void fullCost_choquesYSalaChica_cuentaCadaViolacion() {
+        // Preparar: dos cursos del mismo profesor, 40 alumnos; salas de 30 y 50
+        TimetableProblem problem = TimetableProblem.of(
+                List.of(new CourseDemand(1, 100, 2, 40), new CourseDemand(2, 100, 1, 40)),
+                List.of(new Room(10, "A", "A", 50), new Room(11, "B", "B", 30)), 5, 8);
+
+        // Ejecutar: los tres bloques el lunes a primera hora; uno en la sala chica (índice 0 = la de 30)
+        long cost = TimetableState.fullCost(problem, new int[]{0, 0, 0}, new int[]{1, 1, 0});
+
+        // Verificar: profesor 2 choques + sala 1 choque + sala chica 1; mismo curso dos veces el lunes
+        assertEquals(4 * TimetableState.HARD_WEIGHT + 1, cost);
+    }
+
+    @Test
+    void solve_colegioHolgado_horarioSinViolacionesDuras() {
+        // Preparar
+        TimetableProblem problem = school(120, 20, 12, 3);
+
+        // Ejecutar
+        TimetableSolver.Solution solution = solver.solve(problem, Duration.ofSeconds(20), 4, 7, true,
+                (elapsedMs, hard, soft, moves) -> {
+                });
+
+        // Verificar: paró al encontrarlo, mucho antes del plazo
+        assertEquals(0, solution.hardViolations());
+        assertTrue(solution.elapsedMs() < 20_000);
+        assertEquals(0, TimetableState.fullCost(problem, solution.slots(), solution.rooms()) / TimetableState.HARD_WEIGHT);
+        for (int lesson = 0; lesson < problem.lessons(); lesson++) {
+            assertTrue(problem.lessonSize[lesson] <= problem.roomCapacity[solution.rooms()[lesson]]);
+        }
+    }
+
+    @Test
+    void solve_imposible_terminaAlPlazoConElMejor() {
+        // Preparar: un profesor con 45 bloques y 40 horarios en la semana
+        TimetableProblem problem = TimetableProblem.of(
+                List.of(new CourseDemand(1, 100, 25, 20), new CourseDemand(2, 100, 20, 20)),
+                List.of(new Room(10, "A", "A", 30), new Room(11, "B", "B", 30)), 5, 8);
+        AtomicInteger updates = new AtomicInteger();
+
+        // Ejecutar
+        TimetableSolver.Solution solution = solver.solve(problem, Duration.ofMillis(400), 2, 3, false,
+                (elapsedMs, hard, soft, moves) -> updates.incrementAndGet());
+
+        // Verificar: 5 choques de profesor inevitables, y el mejor horario es coherente con su puntaje
+        assertEquals(5, solution.hardViolations());
+        assertTrue(solution.elapsedMs() >= 400);
+        assertTrue(solution.moves() > 0);
+        assertTrue(updates.get() >= 2);
+        assertEquals(solution.hardViolations() * TimetableState.HARD_WEIGHT + solution.softPenalty(),
+                TimetableState.fullCost(problem, solution.slots(), solution.rooms()));
+    }
+
+    @Test
+    void solve_listenerLanza_cortaLaBusqueda() {
+        // Preparar
+        TimetableProblem problem = school(60, 8, 6, 3);
+
+        // Ejecutar / Verificar: sin esperar los 30 s del plazo
+        long start = System.nanoTime();
+        assertThrows(IllegalStateException.class, () -> solver.solve(problem, Duration.ofSeconds(30), 2, 5, false,
+                (elapsedMs, hard, soft, moves) -> {
+                    throw new IllegalStateException("cancelado");
+                }));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+    }
+
+    /**
+     * Colegio sintético: cursos de 20 a 45 alumnos con {@code lessons} bloques, repartidos en
+     * {@code teachers} profesores, y {@code rooms} salas de 30 a 50.
+     */
+    static TimetableProblem school(int courses, int teachers, int rooms, int lessons) {
+        SplittableRandom random = new SplittableRandom(courses);
+        List<CourseDemand> demands = new ArrayList<>();
+        for (int course = 0; course < courses; course++) {
+            demands.add(new CourseDemand(1000 + course, 500 + course % teachers, lessons, 20 + random.nextInt(26)));
+        }
+        List<Room> roomList = new ArrayList<>();
+        for (int room = 0; room < rooms; room++) {
+            roomList.add(new Room(100 + room, "R" + room, "Sala " + room, room == 0 ? 50 : 30 + random.nextInt(21)));
+        }
+        return TimetableProblem.of(demands, roomList, 5, 8);
+    }
+}
@@ -0,0 +1,104 @@
+package com.edira.edira_api.shared.error;
+
+import com.edira.edira_api.shared.BinaryFormats;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios de ApiErrorWriter y ApiErrorHttpMessageConverter.
+ * Cubre también la negociación JSON/CBOR/Smile de los handlers de seguridad.
+ * El camino rápido (Blackbird + writer pre-construido) tiene que producir el mismo contrato
+ * que el ObjectMapper de Boot sin módulos extra.
+ */
+class ApiErrorWriterTest {
+
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json().build();
+    private final ApiErrorWriter writer = new ApiErrorWriter(
+            Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build());
+
+    @Test
+    void write_conBlackbird_mismoJsonQueReflexion() throws Exception {
+        // Preparar
+        ApiError body = ApiError.validation(400, ErrorCode.VALIDATION_ERROR, "Datos inválidos", "/students",
+                List.of(new ValidationErrorDetail("email", "formato inválido")));
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+
+        // Ejecutar
+        writer.write(body, out.getBody());
+
+        // Verificar
+        JsonNode expected = reflective.readTree(reflective.writeValueAsBytes(body));
+        assertEquals(expected, reflective.readTree(out.getBodyAsBytes()));
+    }
+
+    @Test
+    void write_aResponse_fijaStatusYContentType() throws Exception {
+        // Preparar
+        ApiError body = ApiError.of(401, ErrorCode.UNAUTHORIZED, "No autenticado", "/ping");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Ejecutar
+        writer.write(body, new MockHttpServletRequest(), response);
+
+        // Verificar
+        assertEquals(401, response.getStatus());
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+        JsonNode json = reflective.readTree(response.getContentAsByteArray());
+        assertEquals("UNAUTHORIZED", json.get("code").asText());
+        assertFalse(json.has("details")); // NON_EMPTY se respeta
+    }
+
+    @Test
+    void write_acceptCbor_escribeCborLegible() throws Exception {
+        // Preparar
+        ApiError body = ApiError.of(403, ErrorCode.FORBIDDEN, "Acceso denegado", "/admin/ping");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT, "application/cbor");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Ejecutar
+        writer.write(body, request, response);
+
+        // Verificar
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, response.getContentType());
+        JsonNode cbor = new CBORMapper().readTree(response.getContentAsByteArray());
+        assertEquals("FORBIDDEN", cbor.get("code").asText());
+        assertEquals(body.errorId().toString(), cbor.get("errorId").asText());
+    }
+
+    @Test
+    void negotiate_respetaCalidadYComodines() {
+        assertEquals(MediaType.APPLICATION_JSON, ApiErrorWriter.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, ApiErrorWriter.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_JSON, ApiErrorWriter.negotiate("text/html, no/valido;;"));
+        assertEquals(BinaryFormats.APPLICATION_SMILE,
+                ApiErrorWriter.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(MediaType.APPLICATION_CBOR, ApiErrorWriter.negotiate("application/cbor, */*;q=0.1"));
+    }
+
+    @Test
+    void converter_soloEscribeApiError() {
+        // Preparar
+        ApiErrorHttpMessageConverter converter = new ApiErrorHttpMessageConverter(writer);
+
+        // Verificar
+        assertTrue(converter.canWrite(ApiError.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(ApiError.class, MediaType.parseMediaType("application/problem+json")));
+        assertFalse(converter.canWrite(ValidationErrorDetail.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(ApiError.class, MediaType.APPLICATION_JSON));
+    }
+}
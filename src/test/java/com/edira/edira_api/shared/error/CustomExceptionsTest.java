@@ -1,7 +1,11 @@
 package com.edira.edira_api.shared.error;
 
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -180,4 +184,35 @@ class CustomExceptionsTest {
             assertNull(exception.getMessage());
         });
     }
+
+    @Test
+    void conflictException_conMensajeYCausa_creaExcepcionCorrectamente() {
+        // Preparar
+        String mensaje = "El job todavía no termina";
+        Throwable causa = new IllegalStateException("RUNNING");
+
+        // Ejecutar
+        ConflictException exception = new ConflictException(mensaje, causa);
+
+        // Verificar
+        assertEquals(mensaje, exception.getMessage());
+        assertEquals(causa, exception.getCause());
+        assertTrue(exception instanceof RuntimeException);
+    }
+
+    @Test
+    void validationFailedException_conDetalles_losGuardaInmutables() {
+        // Preparar
+        List<ValidationErrorDetail> detalles = new ArrayList<>(List.of(
+                new ValidationErrorDetail("formula", "col 5: se esperaba ')'")));
+
+        // Ejecutar
+        ValidationFailedException exception = new ValidationFailedException("Fórmula inválida.", detalles);
+        detalles.clear();
+
+        // Verificar
+        assertEquals("Fórmula inválida.", exception.getMessage());
+        assertEquals(1, exception.getDetails().size());
+        assertThrows(UnsupportedOperationException.class, () -> exception.getDetails().clear());
+    }
 }
@@ -0,0 +1,221 @@
+package com.edira.edira_api.shared.health;
+
+import com.edira.edira_api.shared.health.HealthSnapshot.Component;
+import com.edira.edira_api.shared.health.HealthSnapshot.Status;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Chequeo en background y probes que solo leen el último resultado.
+ * Preparar/Ejecutar/Verificar con un DataSource mock y un pool falso.
+ */
+class HealthCheckerTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final FakePool pool = new FakePool();
+    private final AtomicInteger schemaChecks = new AtomicInteger();
+    private final ApplicationAvailabilityBean availability = new ApplicationAvailabilityBean();
+    private final MutableClock clock = new MutableClock();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private HealthChecker checker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        availability.onApplicationEvent(new AvailabilityChangeEvent<>(this, LivenessState.CORRECT));
+        availability.onApplicationEvent(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+        checker = new HealthChecker(dataSource, () -> pool, () -> {
+            schemaChecks.incrementAndGet();
+            return new Component(Status.UP, Map.of("version", "6"));
+        }, availability, new HealthProperties(Duration.ofSeconds(5), Duration.ofSeconds(2), Duration.ofSeconds(30),
+                0.9, false, Duration.ofSeconds(30)), objectMapper, clock);
+    }
+
+    @Test
+    void readiness_antesDelPrimerChequeo_devuelve503Starting() throws Exception {
+        // Ejecutar
+        HealthChecker.Probe probe = checker.readiness();
+
+        // Verificar
+        assertEquals(503, probe.status());
+        assertEquals("STARTING", body(probe).get("reason").asText());
+    }
+
+    @Test
+    void readiness_todoArriba_devuelve200ConComponentes() throws Exception {
+        // Ejecutar
+        checker.check();
+        HealthChecker.Probe probe = checker.readiness();
+
+        // Verificar
+        assertEquals(200, probe.status());
+        JsonNode body = body(probe);
+        assertEquals("UP", body.get("status").asText());
+        assertEquals("UP", body.at("/components/db/status").asText());
+        assertEquals(10, body.at("/components/pool/details/max").asInt());
+        assertEquals("6", body.at("/components/schema/details/version").asText());
+    }
+
+    @Test
+    void probes_noTocanLaBase() throws Exception {
+        // Preparar
+        checker.check();
+        clearInvocations(dataSource, connection);
+
+        // Ejecutar
+        for (int i = 0; i < 1_000; i++) {
+            checker.readiness();
+            checker.liveness();
+        }
+
+        // Verificar
+        verifyNoInteractions(dataSource, connection);
+    }
+
+    @Test
+    void readiness_poolSaturado_devuelve503SinPedirConexion() throws Exception {
+        // Preparar
+        pool.active = 10;
+        pool.waiting = 3;
+
+        // Ejecutar
+        checker.check();
+        HealthChecker.Probe probe = checker.readiness();
+
+        // Verificar
+        assertEquals(503, probe.status());
+        assertEquals("DEGRADED", body(probe).at("/components/pool/status").asText());
+        assertEquals("UNKNOWN", body(probe).at("/components/db/status").asText());
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    void readiness_mysqlCaido_503PeroLivenessSigue200() throws Exception {
+        // Preparar
+        when(dataSource.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+
+        // Ejecutar
+        checker.check();
+
+        // Verificar
+        assertEquals(503, checker.readiness().status());
+        assertEquals("SQLTransientConnectionException", body(checker.readiness()).at("/components/db/details/error").asText());
+        assertEquals(200, checker.liveness().status());
+    }
+
+    @Test
+    void readiness_chequeoViejo_devuelve503Stale() throws Exception {
+        // Preparar: el checker quedó pegado y no vuelve a publicar
+        checker.check();
+        clock.advance(Duration.ofSeconds(31));
+
+        // Ejecutar
+        HealthChecker.Probe probe = checker.readiness();
+
+        // Verificar
+        assertEquals(503, probe.status());
+        assertEquals("STALE_CHECK", body(probe).get("reason").asText());
+    }
+
+    @Test
+    void readiness_apagandose_devuelve503Refusing() throws Exception {
+        // Preparar
+        checker.check();
+        availability.onApplicationEvent(new AvailabilityChangeEvent<>(this, ReadinessState.REFUSING_TRAFFIC));
+
+        // Ejecutar
+        HealthChecker.Probe probe = checker.readiness();
+
+        // Verificar
+        assertEquals(503, probe.status());
+        assertEquals("REFUSING_TRAFFIC", body(probe).get("reason").asText());
+    }
+
+    @Test
+    void check_esquemaUp_noVuelveAConsultarFlyway() {
+        // Ejecutar
+        checker.check();
+        checker.check();
+        checker.check();
+
+        // Verificar
+        assertEquals(1, schemaChecks.get());
+    }
+
+    private JsonNode body(HealthChecker.Probe probe) throws Exception {
+        return objectMapper.readTree(probe.body());
+    }
+
+    static final class FakePool implements HealthChecker.PoolStats {
+
+        volatile int active = 2;
+        volatile int waiting;
+
+        @Override
+        public int active() {
+            return active;
+        }
+
+        @Override
+        public int idle() {
+            return 10 - active;
+        }
+
+        @Override
+        public int waiting() {
+            return waiting;
+        }
+
+        @Override
+        public int max() {
+            return 10;
+        }
+    }
+
+    static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
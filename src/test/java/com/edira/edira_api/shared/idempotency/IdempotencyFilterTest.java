@@ -0,0 +1,420 @@
+package com.edira.edira_api.shared.idempotency;
+
+import com.edira.edira_api.persistence.idempotency.IdempotencyKeyRepository;
+import com.edira.edira_api.persistence.idempotency.IdempotencyRecord;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del filtro Idempotency-Key con un repositorio en memoria que imita la PK de MySQL.
+ * Given/When/Then: primera ejecución, reintento, key reutilizada, duplicados concurrentes y 5xx.
+ */
+class IdempotencyFilterTest {
+
+    private final InMemoryRepository repository = new InMemoryRepository();
+    private final IdempotencyProperties properties = properties();
+    private final IdempotencyStore store = new IdempotencyStore(repository, properties, Clock.systemUTC());
+    private final IdempotencyFilter filter = new IdempotencyFilter(store, properties,
+            new ApiErrorWriter(new ObjectMapper().findAndRegisterModules()), new SimpleMeterRegistry());
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void reintento_mismaKeyYBody_devuelveRespuestaGuardadaSinEjecutar() throws Exception {
+        // Given
+        FilterChain chain = created("{\"id\":1}");
+        filter.doFilter(post("k-1", "{\"name\":\"Ana\"}"), new MockHttpServletResponse(), chain);
+
+        // When
+        MockHttpServletResponse replay = new MockHttpServletResponse();
+        filter.doFilter(post("k-1", "{\"name\":\"Ana\"}"), replay, chain);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(201, replay.getStatus());
+        assertEquals("{\"id\":1}", replay.getContentAsString());
+        assertEquals("/students/1", replay.getHeader("Location"));
+        assertEquals("true", replay.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void reintento_desdeMySqlSinCache_tambienReplay() throws Exception {
+        // Given: otra instancia (caché vacía) sobre la misma tabla
+        FilterChain chain = created("{\"id\":1}");
+        filter.doFilter(post("k-db", "{}"), new MockHttpServletResponse(), chain);
+        IdempotencyFilter otherNode = new IdempotencyFilter(new IdempotencyStore(repository, properties, Clock.systemUTC()),
+                properties, new ApiErrorWriter(new ObjectMapper().findAndRegisterModules()), new SimpleMeterRegistry());
+
+        // When
+        MockHttpServletResponse replay = new MockHttpServletResponse();
+        otherNode.doFilter(post("k-db", "{}"), replay, chain);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals("{\"id\":1}", replay.getContentAsString());
+    }
+
+    @Test
+    void mismaKey_otroBody_devuelve409() throws Exception {
+        // Given
+        FilterChain chain = created("{\"id\":1}");
+        filter.doFilter(post("k-2", "{\"name\":\"Ana\"}"), new MockHttpServletResponse(), chain);
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("k-2", "{\"name\":\"Bea\"}"), response, chain);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(409, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"code\":\"CONFLICT\""));
+    }
+
+    @Test
+    void mismaKey_otroTenant_ejecutaAparte() throws Exception {
+        // Given
+        FilterChain chain = created("{\"id\":1}");
+        filter.doFilter(post("k-t", "{}"), new MockHttpServletResponse(), chain);
+
+        // When
+        TenantContext.set(7);
+        try {
+            filter.doFilter(post("k-t", "{}"), new MockHttpServletResponse(), chain);
+        } finally {
+            TenantContext.clear();
+        }
+
+        // Then
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void duplicadosConcurrentes_esperanAlPrimero_yEjecutaUnaSolaVez() throws Exception {
+        // Given: el handler queda bloqueado hasta que lleguen los duplicados
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            executions.incrementAndGet();
+            await(release);
+            ((HttpServletResponse) res).setStatus(201);
+            res.getOutputStream().write("{\"id\":9}".getBytes(StandardCharsets.UTF_8));
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            // When
+            Future<MockHttpServletResponse>[] results = new Future[4];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = pool.submit(() -> {
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    filter.doFilter(post("k-3", "{}"), response, slow);
+                    return response;
+                });
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            // Then
+            for (Future<MockHttpServletResponse> result : results) {
+                MockHttpServletResponse response = result.get(5, TimeUnit.SECONDS);
+                assertEquals(201, response.getStatus());
+                assertEquals("{\"id\":9}", response.getContentAsString());
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void error5xx_noSeGuarda_yElReintentoEjecuta() throws Exception {
+        // Given
+        FilterChain failing = (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(503);
+        };
+        filter.doFilter(post("k-4", "{}"), new MockHttpServletResponse(), failing);
+
+        // When
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        filter.doFilter(post("k-4", "{}"), retry, created("{\"id\":2}"));
+
+        // Then
+        assertEquals(2, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertTrue(repository.rows.get("0/k-4").completed());
+    }
+
+    @Test
+    void handlerMasLargoQueElLease_renuevaYOtroNodoNoLaReclama() throws Exception {
+        // Given: lease de 300ms y un handler que tarda 1s
+        IdempotencyProperties shortLease = properties(Map.of("edira.idempotency.lease", "300ms"));
+        IdempotencyStore store = new IdempotencyStore(repository, shortLease, Clock.systemUTC());
+        IdempotencyFilter node = new IdempotencyFilter(store, shortLease,
+                new ApiErrorWriter(new ObjectMapper().findAndRegisterModules()), new SimpleMeterRegistry());
+        IdempotencyFilter otherNode = new IdempotencyFilter(new IdempotencyStore(repository, shortLease, Clock.systemUTC()),
+                shortLease, new ApiErrorWriter(new ObjectMapper().findAndRegisterModules()), new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            executions.incrementAndGet();
+            started.countDown();
+            sleep(1000);
+            ((HttpServletResponse) res).setStatus(201);
+        };
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = pool.submit(() -> {
+                node.doFilter(post("k-lease", "{}"), new MockHttpServletResponse(), slow);
+                return null;
+            });
+            await(started);
+            sleep(700);
+
+            // When: el reintento llega a otro nodo después de que el lease original habría vencido
+            MockHttpServletResponse retry = new MockHttpServletResponse();
+            otherNode.doFilter(post("k-lease", "{}"), retry, created("{}"));
+            first.get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(409, retry.getStatus());
+            assertEquals(1, executions.get());
+            assertTrue(repository.renewals.get() > 0);
+            assertTrue(repository.rows.get("0/k-lease").completed());
+        } finally {
+            pool.shutdownNow();
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void leasePerdido_elPrimeroNoPisaNiBorraLaFilaDelSegundo() throws Exception {
+        // Given: el primero reclamó la key, su lease venció y un segundo request la reclamó
+        IdempotencyStore.Scope scope = new IdempotencyStore.Scope(0, "k-token");
+        IdempotencyStore.Execute first = (IdempotencyStore.Execute) store.begin(scope, new byte[32]);
+        repository.rows.computeIfPresent("0/k-token", (id, row) -> new IdempotencyRecord(
+                0, "k-token", row.requestHash(), false, 0, null, null, null, Instant.EPOCH));
+        IdempotencyStore otherNode = new IdempotencyStore(repository, properties, Clock.systemUTC());
+        IdempotencyStore.Execute second = (IdempotencyStore.Execute) otherNode.begin(scope, new byte[32]);
+
+        // When: el primero termina, con y sin respuesta
+        store.complete(first, null);
+        store.complete(first, IdempotencyRecord.completed(0, "k-token", new byte[32], 201, null, null,
+                new byte[0], store.expiresAt()));
+
+        // Then: la fila sigue siendo del segundo
+        assertFalse(repository.rows.get("0/k-token").completed());
+        assertEquals(second.claimToken(), repository.tokens.get("0/k-token"));
+        otherNode.complete(second, null);
+        assertFalse(repository.rows.containsKey("0/k-token"));
+    }
+
+    @Test
+    void keyDemasiadoLarga_devuelve400() throws Exception {
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("x".repeat(256), "{}"), response, created("{}"));
+
+        // Then
+        assertEquals(400, response.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void bodySobreElLimite_devuelve413SinEjecutar() throws Exception {
+        // Given: límite de 16 bytes; uno declara Content-Length y otro llega sin él (chunked)
+        IdempotencyProperties small = properties(Map.of("edira.idempotency.max-request-body", "16B"));
+        IdempotencyFilter limited = new IdempotencyFilter(store, small,
+                new ApiErrorWriter(new ObjectMapper().findAndRegisterModules()), new SimpleMeterRegistry());
+        String big = "{\"name\":\"" + "x".repeat(64) + "\"}";
+        HttpServletRequest chunked = new HttpServletRequestWrapper(post("k-big-2", big)) {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+
+        // When
+        MockHttpServletResponse declared = new MockHttpServletResponse();
+        limited.doFilter(post("k-big-1", big), declared, created("{}"));
+        MockHttpServletResponse streamed = new MockHttpServletResponse();
+        limited.doFilter(chunked, streamed, created("{}"));
+
+        // Then
+        assertEquals(413, declared.getStatus());
+        assertEquals(413, streamed.getStatus());
+        assertTrue(declared.getContentAsString().contains("\"code\":\"BAD_REQUEST\""));
+        assertEquals(0, executions.get());
+        assertTrue(repository.rows.isEmpty());
+    }
+
+    @Test
+    void getOSinHeader_pasaDeLargo() throws Exception {
+        // Given
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/students");
+        get.addHeader(IdempotencyFilter.HEADER, "k-5");
+
+        // When
+        filter.doFilter(get, new MockHttpServletResponse(), created("{}"));
+        filter.doFilter(get, new MockHttpServletResponse(), created("{}"));
+
+        // Then
+        assertEquals(2, executions.get());
+        assertTrue(repository.rows.isEmpty());
+    }
+
+    @Test
+    void purger_borraPorLotesHastaVaciar() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        IdempotencyKeyRepository batches = new InMemoryRepository() {
+            @Override
+            public int deleteExpired(Instant now, int batchSize) {
+                return calls.incrementAndGet() < 3 ? batchSize : 7;
+            }
+        };
+
+        // When
+        new IdempotencyKeyPurger(batches, properties, Clock.systemUTC()).purge();
+
+        // Then
+        assertEquals(3, calls.get());
+    }
+
+    private FilterChain created(String body) {
+        return (req, res) -> {
+            executions.incrementAndGet();
+            HttpServletResponse http = (HttpServletResponse) res;
+            http.setStatus(201);
+            http.setContentType("application/json");
+            http.setHeader("Location", "/students/1");
+            http.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static MockHttpServletRequest post(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/students");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static IdempotencyProperties properties() {
+        return properties(Map.of());
+    }
+
+    private static IdempotencyProperties properties(Map<String, String> overrides) {
+        Map<String, String> values = new HashMap<>(Map.of("edira.idempotency.in-flight-timeout", "5s"));
+        values.putAll(overrides);
+        return new Binder(new MapConfigurationPropertySource(values))
+                .bindOrCreate("edira.idempotency", Bindable.of(IdempotencyProperties.class));
+    }
+
+    /** Misma semántica que la PK (tenant_id, idem_key) de MySQL. */
+    static class InMemoryRepository extends IdempotencyKeyRepository {
+
+        final Map<String, IdempotencyRecord> rows = new ConcurrentHashMap<>();
+        final Map<String, String> tokens = new ConcurrentHashMap<>();
+        final AtomicInteger renewals = new AtomicInteger();
+
+        InMemoryRepository() {
+            super(null);
+        }
+
+        @Override
+        public Optional<IdempotencyRecord> find(long tenantId, String key) {
+            return Optional.ofNullable(rows.get(tenantId + "/" + key));
+        }
+
+        @Override
+        public synchronized Optional<IdempotencyRecord> claim(long tenantId, String key, byte[] requestHash,
+                                                              String claimToken, Instant now, Instant leaseUntil) {
+            String id = tenantId + "/" + key;
+            IdempotencyRecord existing = rows.get(id);
+            if (existing != null && !existing.expired(now)) {
+                return Optional.of(existing);
+            }
+            rows.put(id, new IdempotencyRecord(tenantId, key, requestHash, false, 0, null, null, null, leaseUntil));
+            tokens.put(id, claimToken);
+            return Optional.empty();
+        }
+
+        @Override
+        public synchronized boolean complete(IdempotencyRecord record, String claimToken) {
+            String id = record.tenantId() + "/" + record.key();
+            if (!claimToken.equals(tokens.get(id))) {
+                return false;
+            }
+            rows.put(id, record);
+            tokens.remove(id);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean renew(long tenantId, String key, String claimToken, Instant leaseUntil) {
+            String id = tenantId + "/" + key;
+            if (!claimToken.equals(tokens.get(id))) {
+                return false;
+            }
+            renewals.incrementAndGet();
+            IdempotencyRecord row = rows.get(id);
+            rows.put(id, new IdempotencyRecord(tenantId, key, row.requestHash(), false, 0, null, null, null, leaseUntil));
+            return true;
+        }
+
+        @Override
+        public synchronized void release(long tenantId, String key, String claimToken) {
+            String id = tenantId + "/" + key;
+            if (claimToken.equals(tokens.get(id))) {
+                rows.remove(id);
+                tokens.remove(id);
+            }
+        }
+
+        @Override
+        public int deleteExpired(Instant now, int batchSize) {
+            return 0;
+        }
+    }
+}
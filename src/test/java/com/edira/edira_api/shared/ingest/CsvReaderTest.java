@@ -0,0 +1,80 @@
+package com.edira.edira_api.shared.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void next_comillasEscapesYSaltosEntreComillas_respetaRfc4180() throws IOException {
+        // Preparar
+        CsvReader csv = reader("\uFEFFa,b,c\r\n\"x, y\",\"dijo \"\"hola\"\"\",\"dos\nlíneas\"\r\nfin,,\n");
+
+        // Ejecutar / Verificar
+        assertTrue(csv.next());
+        assertEquals(List.of("a", "b", "c"), csv.fields());
+        assertTrue(csv.next());
+        assertEquals(List.of("x, y", "dijo \"hola\"", "dos\nlíneas"), csv.fields());
+        assertEquals(2, csv.line());
+        assertTrue(csv.next());
+        assertEquals(List.of("fin", "", ""), csv.fields());
+        assertEquals(3, csv.record());
+        assertEquals(4, csv.line());
+        assertFalse(csv.next());
+    }
+
+    @Test
+    void next_lineaEnBlancoYSinSaltoFinal_seDetectan() throws IOException {
+        // Preparar
+        CsvReader csv = reader("a\n\nb");
+
+        // Ejecutar / Verificar
+        assertTrue(csv.next());
+        assertTrue(csv.next());
+        assertTrue(csv.blank());
+        assertTrue(csv.next());
+        assertEquals(List.of("b"), csv.fields());
+        assertFalse(csv.next());
+    }
+
+    @Test
+    void next_registroSobreElTope_seMarcaYSigueConElSiguiente() throws IOException {
+        // Preparar
+        CsvReader csv = reader("corto\n" + "x".repeat(50) + ",\"" + "y".repeat(50) + "\"\nsigue\n", 20);
+
+        // Ejecutar / Verificar
+        assertTrue(csv.next());
+        assertFalse(csv.tooLong());
+        assertTrue(csv.next());
+        assertTrue(csv.tooLong());
+        assertTrue(csv.next());
+        assertFalse(csv.tooLong());
+        assertEquals(List.of("sigue"), csv.fields());
+    }
+
+    @Test
+    void next_comillasSinCerrar_marcaUnterminated() throws IOException {
+        // Preparar
+        CsvReader csv = reader("a\n\"abierta,b\nc");
+
+        // Ejecutar / Verificar
+        assertTrue(csv.next());
+        assertTrue(csv.next());
+        assertTrue(csv.unterminated());
+        assertFalse(csv.next());
+    }
+
+    private static CsvReader reader(String content) {
+        return reader(content, 1024);
+    }
+
+    private static CsvReader reader(String content, int max) {
+        return new CsvReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), max);
+    }
+}
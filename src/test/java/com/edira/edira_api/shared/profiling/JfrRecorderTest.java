@@ -0,0 +1,154 @@
+package com.edira.edira_api.shared.profiling;
+
+import com.edira.edira_api.shared.error.ConflictException;
+import com.edira.edira_api.shared.error.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Grabación JFR real contra un directorio temporal: límites, una sola grabación a la vez y resumen.
+ */
+class JfrRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    private JfrRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new JfrRecorder(new JfrProperties(true, directory, Duration.ofSeconds(30), Duration.ofMinutes(1),
+                DataSize.ofMegabytes(20), DataSize.ofMegabytes(1), 10), Clock.systemUTC());
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.shutdown();
+    }
+
+    @Test
+    void start_duracionSobreElMaximo_lanzaIllegalArgument() {
+        // Ejecutar / Verificar
+        assertThrows(IllegalArgumentException.class,
+                () -> recorder.start(Duration.ofMinutes(2), JfrRecorder.Profile.DEFAULT));
+        assertFalse(recorder.status().recording());
+    }
+
+    @Test
+    void start_conGrabacionEnCurso_lanzaConflict() {
+        // Preparar
+        recorder.start(Duration.ofSeconds(30), JfrRecorder.Profile.DEFAULT);
+
+        // Ejecutar / Verificar
+        assertThrows(ConflictException.class, () -> recorder.start(null, JfrRecorder.Profile.DEFAULT));
+        assertThrows(ConflictException.class, recorder::summary);
+        assertTrue(recorder.status().recording());
+    }
+
+    @Test
+    void start_sinEspacioSuficiente_lanzaConflict() {
+        // Preparar
+        JfrRecorder greedy = new JfrRecorder(new JfrProperties(true, directory, Duration.ofSeconds(30),
+                Duration.ofMinutes(1), DataSize.ofMegabytes(20), DataSize.ofTerabytes(1024), 10), Clock.systemUTC());
+
+        // Ejecutar / Verificar
+        assertThrows(ConflictException.class, () -> greedy.start(null, JfrRecorder.Profile.DEFAULT));
+        assertFalse(greedy.status().recording());
+    }
+
+    @Test
+    void stop_sinGrabacion_lanzaConflictYSinArchivoNotFound() {
+        // Ejecutar / Verificar
+        assertThrows(ConflictException.class, recorder::stop);
+        assertThrows(NotFoundException.class, recorder::recordingFile);
+    }
+
+    @Test
+    void summary_trasGrabarTrabajo_reportaMetodosAsignacionesLocksYGc() throws Exception {
+        // Preparar
+        recorder.start(Duration.ofSeconds(30), JfrRecorder.Profile.PROFILE);
+        busyWork(Duration.ofMillis(1500));
+        contend();
+        System.gc();
+
+        // Ejecutar
+        JfrRecorder.Status stopped = recorder.stop();
+        JfrSummary summary = recorder.summary();
+
+        // Verificar
+        assertFalse(stopped.recording());
+        assertTrue(stopped.sizeBytes() > 0);
+        assertTrue(Files.exists(recorder.recordingFile()));
+        assertFalse(summary.hotMethods().isEmpty());
+        assertTrue(summary.hotMethods().size() <= 10);
+        assertFalse(summary.allocationSites().isEmpty());
+        assertTrue(summary.lockContention().stream().anyMatch(l -> l.monitorClass().equals(Object.class.getName())));
+        assertTrue(summary.gc().count() > 0);
+        assertSame(summary, recorder.summary());
+    }
+
+    @Test
+    void start_nuevaGrabacion_borraElArchivoAnterior() {
+        // Preparar
+        recorder.start(Duration.ofSeconds(30), JfrRecorder.Profile.DEFAULT);
+        recorder.stop();
+        Path previous = recorder.recordingFile();
+
+        // Ejecutar
+        recorder.start(Duration.ofSeconds(30), JfrRecorder.Profile.DEFAULT);
+
+        // Verificar
+        assertFalse(Files.exists(previous));
+    }
+
+    private static long busyWork(Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long acc = 0;
+        List<byte[]> keep = new ArrayList<>();
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 10_000; i++) {
+                acc += Long.hashCode(acc * 31 + i);
+            }
+            keep.add(new byte[4096]);
+            if (keep.size() > 1000) {
+                keep.clear();
+            }
+        }
+        return acc;
+    }
+
+    // Un hilo retiene el monitor 100ms mientras otro espera: supera el umbral de 10ms de "profile"
+    private static void contend() throws InterruptedException {
+        Object monitor = new Object();
+        CountDownLatch held = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            synchronized (monitor) {
+                held.countDown();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        holder.start();
+        held.await();
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+        holder.join();
+    }
+}
@@ -0,0 +1,266 @@
+package com.edira.edira_api.shared.scheduling;
+
+import com.edira.edira_api.persistence.scheduling.SchedulerLeaseRepository;
+import com.edira.edira_api.shared.cluster.ClusterNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Leases de tareas @ClusterScheduled con dos "nodos" (dos aspectos con distinto node id)
+ * sobre un repositorio en memoria con la misma semántica que los UPDATE condicionales.
+ */
+class ClusterScheduledAspectTest {
+
+    private final InMemoryLeaseRepository repository = new InMemoryLeaseRepository();
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void singleton_dosNodos_soloUnoCorreYLoSigueCorriendo() {
+        // Given
+        Node nodeA = node("node-a", true);
+        Node nodeB = node("node-b", true);
+
+        // When
+        nodeA.singleton();
+        nodeB.singleton();
+        clock.advance(Duration.ofMinutes(1));
+        nodeB.singleton();
+        nodeA.singleton();
+
+        // Then
+        assertEquals(List.of(1L, 1L), nodeA.target().singletonTokens);
+        assertTrue(nodeB.target().singletonTokens.isEmpty());
+    }
+
+    @Test
+    void singleton_nodoDejaDeRenovar_otroLoTomaConTokenMayorYElViejoNoRenueva() {
+        // Given
+        Node nodeA = node("node-a", true);
+        Node nodeB = node("node-b", true);
+        nodeA.singleton();
+        ClusterTaskContext stale = nodeA.target().lastContext;
+
+        // When: node-a no vuelve a correr y el lease (5m) vence
+        clock.advance(Duration.ofMinutes(6));
+        nodeB.singleton();
+
+        // Then
+        assertEquals(List.of(2L), nodeB.target().singletonTokens);
+        assertFalse(stale.renew(), "fencing: el token 1 ya no vale");
+    }
+
+    @Test
+    void shardedByTenant_dosNodos_repartenLosShardsSinSolaparse() {
+        // Given: node-a corre solo y toma los 16 shards
+        Node nodeA = node("node-a", true);
+        Node nodeB = node("node-b", true);
+        nodeA.sharded();
+        assertEquals(16, nodeA.target().lastShards.size());
+
+        // When: aparece node-b; en las corridas siguientes node-a suelta el excedente
+        nodeB.sharded();
+        nodeA.sharded();
+        nodeB.sharded();
+
+        // Then
+        Set<Integer> a = nodeA.target().lastShards;
+        Set<Integer> b = nodeB.target().lastShards;
+        assertEquals(8, a.size());
+        assertEquals(8, b.size());
+        Set<Integer> union = new TreeSet<>(a);
+        union.addAll(b);
+        assertEquals(16, union.size());
+        ClusterTaskContext contextA = nodeA.target().lastContext;
+        long tenant = 40;
+        assertNotEquals(contextA.ownsTenant(tenant), nodeB.target().lastContext.ownsTenant(tenant));
+        assertTrue(contextA.tenantPredicate("tenant_id").startsWith("MOD(tenant_id, 16) IN ("));
+    }
+
+    @Test
+    void clusterDeshabilitado_correSiempreConTodosLosTenants() {
+        // Given
+        Node nodeA = node("node-a", false);
+
+        // When
+        nodeA.sharded();
+        nodeA.singleton();
+
+        // Then
+        assertEquals(16, nodeA.target().lastShards.size());
+        assertEquals(List.of(0L), nodeA.target().singletonTokens);
+        assertEquals(0, repository.leases.size());
+    }
+
+    @Test
+    void mysqlCaido_laCorridaSeSalta() {
+        // Given
+        Node nodeA = node("node-a", true);
+        repository.failing = true;
+
+        // When
+        nodeA.singleton();
+
+        // Then
+        assertTrue(nodeA.target().singletonTokens.isEmpty());
+        assertNull(ClusterTaskContext.current());
+    }
+
+    /** Proxy con el aspecto (lo que invoca el scheduler) y el objeto real (para leer lo que registró). */
+    record Node(Tasks proxy, Tasks target) {
+
+        void singleton() {
+            proxy.singleton();
+        }
+
+        void sharded() {
+            proxy.sharded();
+        }
+    }
+
+    private Node node(String id, boolean clusterEnabled) {
+        MockEnvironment environment = new MockEnvironment().withProperty("task.lease", "5m");
+        ClusterScheduledAspect aspect = new ClusterScheduledAspect(repository,
+                new SchedulingProperties(clusterEnabled, Duration.ofMinutes(10), 16), new ClusterNode(id),
+                environment, clock);
+        Tasks target = new Tasks();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return new Node(factory.getProxy(), target);
+    }
+
+    static class Tasks {
+
+        final List<Long> singletonTokens = new ArrayList<>();
+        Set<Integer> lastShards = Set.of();
+        ClusterTaskContext lastContext;
+
+        @ClusterScheduled(name = "purge", lease = "${task.lease}")
+        public void singleton() {
+            lastContext = ClusterTaskContext.current();
+            singletonTokens.add(lastContext.token());
+        }
+
+        @ClusterScheduled(name = "rollup", mode = ClusterScheduled.Mode.SHARDED_BY_TENANT)
+        public void sharded() {
+            lastContext = ClusterTaskContext.current();
+            lastShards = lastContext.shards();
+        }
+
+    }
+
+    static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    static final class InMemoryLeaseRepository extends SchedulerLeaseRepository {
+
+        record Lease(String owner, long token, Instant expiresAt) {
+        }
+
+        final Map<String, Lease> leases = new HashMap<>();
+        final Map<String, Instant> nodes = new HashMap<>();
+        boolean failing;
+
+        InMemoryLeaseRepository() {
+            super(null);
+        }
+
+        @Override
+        public OptionalLong tryAcquire(String name, String owner, Instant now, Instant until) {
+            check();
+            Lease lease = leases.get(name);
+            if (lease == null) {
+                leases.put(name, new Lease(owner, 1, until));
+                return OptionalLong.of(1);
+            }
+            if (owner.equals(lease.owner())) {
+                leases.put(name, new Lease(owner, lease.token(), until));
+                return OptionalLong.of(lease.token());
+            }
+            if (!lease.expiresAt().isAfter(now)) {
+                leases.put(name, new Lease(owner, lease.token() + 1, until));
+                return OptionalLong.of(lease.token() + 1);
+            }
+            return OptionalLong.empty();
+        }
+
+        @Override
+        public boolean renew(String name, String owner, long token, Instant until) {
+            Lease lease = leases.get(name);
+            if (lease == null || !owner.equals(lease.owner()) || lease.token() != token) {
+                return false;
+            }
+            leases.put(name, new Lease(owner, token, until));
+            return true;
+        }
+
+        @Override
+        public void releaseIfOwned(String name, String owner, Instant now) {
+            Lease lease = leases.get(name);
+            if (lease != null && owner.equals(lease.owner())) {
+                leases.put(name, new Lease(null, lease.token(), now));
+            }
+        }
+
+        @Override
+        public void touchNode(String owner, Instant until) {
+            check();
+            nodes.put(owner, until);
+        }
+
+        @Override
+        public int deleteStaleNodes(Instant cutoff) {
+            return 0;
+        }
+
+        @Override
+        public int countLiveNodes(Instant now) {
+            return (int) nodes.values().stream().filter(until -> until.isAfter(now)).count();
+        }
+
+        private void check() {
+            if (failing) {
+                throw new DataAccessResourceFailureException("sin conexión");
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.edira.edira_api.shared.tenant;
+
+import com.edira.edira_api.persistence.tenant.TenantRepository;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de TenantFilter con la tabla tenant en memoria.
+ * Given/When/Then: tenant activo, inexistente, inactivo, sin header y caché del estado.
+ */
+class TenantFilterTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final TenantRepository repository = new TenantRepository(null) {
+        private final Map<Long, String> tenants = Map.of(1L, "ACTIVE", 2L, "INACTIVE");
+
+        @Override
+        public Optional<String> findStatus(long tenantId) {
+            lookups.incrementAndGet();
+            return Optional.ofNullable(tenants.get(tenantId));
+        }
+    };
+    private final TenantFilter filter = new TenantFilter(new ApiErrorWriter(new ObjectMapper().findAndRegisterModules()),
+            new TenantDirectory(repository, Duration.ofMinutes(1), Clock.systemUTC()));
+    private final AtomicLong seen = new AtomicLong(-1);
+    private final FilterChain chain = (req, res) -> seen.set(TenantContext.current());
+
+    @Test
+    void tenantActivo_fijaElContextoYCacheaElEstado() throws Exception {
+        // When
+        filter.doFilter(request("1"), new MockHttpServletResponse(), chain);
+        filter.doFilter(request("1"), new MockHttpServletResponse(), chain);
+
+        // Then
+        assertEquals(1, seen.get());
+        assertEquals(1, lookups.get());
+        assertEquals(TenantContext.NONE, TenantContext.current());
+    }
+
+    @Test
+    void tenantInexistente_devuelve400SinLlegarAlHandler() throws Exception {
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("99"), response, chain);
+
+        // Then
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"code\":\"BAD_REQUEST\""));
+        assertEquals(-1, seen.get());
+    }
+
+    @Test
+    void tenantInactivo_devuelve403SinLlegarAlHandler() throws Exception {
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("2"), response, chain);
+
+        // Then
+        assertEquals(403, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"code\":\"FORBIDDEN\""));
+        assertEquals(-1, seen.get());
+    }
+
+    @Test
+    void sinHeader_usaNoneSinConsultarLaTabla() throws Exception {
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/courses"), new MockHttpServletResponse(), chain);
+
+        // Then
+        assertEquals(TenantContext.NONE, seen.get());
+        assertEquals(0, lookups.get());
+    }
+
+    private static MockHttpServletRequest request(String tenant) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/courses");
+        request.addHeader(TenantContext.HEADER, tenant);
+        return request;
+    }
+}
@@ -0,0 +1,67 @@
+package com.edira.edira_api.shared.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del marcado de tráfico de warm-up: solo token válido + loopback marca el hilo.
+ */
+class WarmupTrafficTest {
+
+    private final WarmupTrafficFilter filter = new WarmupTrafficFilter();
+
+    @Test
+    void tokenValidoDesdeLoopback_marcaHiloYRequest() throws Exception {
+        // Preparar
+        MockHttpServletRequest request = request("127.0.0.1", WarmupTraffic.token());
+        AtomicBoolean activeInChain = new AtomicBoolean();
+
+        // Ejecutar
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> activeInChain.set(WarmupTraffic.isActive()));
+
+        // Verificar
+        assertTrue(activeInChain.get());
+        assertTrue(WarmupTraffic.isWarmup(request));
+        assertFalse(WarmupTraffic.isActive(), "el hilo se limpia al salir del filtro");
+    }
+
+    @Test
+    void tokenInvalido_noMarca() throws Exception {
+        assertNotMarked(request("127.0.0.1", "otro-token"));
+    }
+
+    @Test
+    void tokenValidoDesdeRedExterna_noMarca() throws Exception {
+        assertNotMarked(request("10.1.2.3", WarmupTraffic.token()));
+    }
+
+    @Test
+    void parse_requestsDeConfiguracion() {
+        assertEquals(new WarmupRequest("GET", "/ping", false, null), WarmupRequest.parse("get /ping"));
+        assertEquals(new WarmupRequest("GET", "/ping", true, null), WarmupRequest.parse("GET /ping anon"));
+        assertEquals(new WarmupRequest("POST", "/global/validation", false, "{\"name\": \"\"}"),
+                WarmupRequest.parse("POST /global/validation {\"name\": \"\"}"));
+        assertThrows(IllegalArgumentException.class, () -> WarmupRequest.parse("/ping"));
+    }
+
+    private void assertNotMarked(MockHttpServletRequest request) throws Exception {
+        AtomicBoolean activeInChain = new AtomicBoolean(true);
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> activeInChain.set(WarmupTraffic.isActive()));
+        assertFalse(activeInChain.get());
+        assertFalse(WarmupTraffic.isWarmup(request));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ping");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader(WarmupTraffic.HEADER, token);
+        return request;
+    }
+}
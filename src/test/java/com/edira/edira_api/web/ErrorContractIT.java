@@ -1,6 +1,8 @@
 package com.edira.edira_api.web;
 
+import com.edira.edira_api.shared.error.ConflictException;
 import com.edira.edira_api.shared.error.GlobalExceptionHandler;
+import com.edira.edira_api.shared.validation.ValidationErrorDetail;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -15,10 +17,13 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.List;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -70,6 +75,17 @@ class ErrorContractIT {
             throw new RuntimeException("Conflicto de datos");
         }
 
+        @GetMapping("/schedule-conflict")
+        public String scheduleConflict() {
+            throw new ConflictException("El horario choca con 1 sección(es)",
+                    List.of(new ValidationErrorDetail("roomId", "Sala 3 ocupada por la sección 45")));
+        }
+
+        @PostMapping("/too-large")
+        public String tooLarge() {
+            throw new MaxUploadSizeExceededException(1024);
+        }
+
         @PostMapping("/validation")
         public String validation(@Valid @RequestBody TestDto dto) {
             return "valid: " + dto.name();
@@ -155,7 +171,33 @@ class ErrorContractIT {
                 .andExpect(jsonPath("$.errorId").exists());
     }
 
-    // Test 6: Verificar estructura completa del contrato (sin details para errores no de validación)
+    // Test 6: Error 409 - CONFLICT con las secciones que choca en details
+    @Test
+    void conflictConDetalles_devuelve409_yListaDetalles() throws Exception {
+        mvc.perform(get("/test-errors/schedule-conflict"))
+                .andExpect(status().isConflict())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("CONFLICT"))
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.details.length()").value(1))
+                .andExpect(jsonPath("$.details[0].field").value("roomId"))
+                .andExpect(jsonPath("$.details[0].message").value("Sala 3 ocupada por la sección 45"))
+                .andExpect(jsonPath("$.errorId").exists());
+    }
+
+    // Test 7: Error 413 - archivo sobre spring.servlet.multipart.max-file-size
+    @Test
+    void archivoDemasiadoGrande_devuelve413_yContratoCorrecto() throws Exception {
+        mvc.perform(post("/test-errors/too-large"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.status").value(413))
+                .andExpect(jsonPath("$.message").value("El archivo supera el tamaño máximo (1024 bytes)."))
+                .andExpect(jsonPath("$.errorId").exists());
+    }
+
+    // Test 8: Verificar estructura completa del contrato (sin details para errores no de validación)
     @Test
     void todosLosErrores_tienenEstructuraCompleta() throws Exception {
         mvc.perform(get("/test-errors/not-found"))
@@ -0,0 +1,35 @@
+package com.edira.edira_api.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ETag por codificación del OpenAPI estático.
+ */
+class OpenApiDocsControllerTest {
+
+    private final OpenApiDocsController controller = new OpenApiDocsController();
+
+    @Test
+    void json_gzipYPlano_etagsDistintosYCadaUnoValidaSuRepresentacion() {
+        // Ejecutar
+        ResponseEntity<byte[]> plain = controller.json(null, null);
+        ResponseEntity<byte[]> gzip = controller.json(null, "gzip, deflate");
+
+        // Verificar
+        String plainTag = plain.getHeaders().getETag();
+        String gzipTag = gzip.getHeaders().getETag();
+        assertNotNull(plainTag);
+        assertNotEquals(plainTag, gzipTag);
+        assertEquals("gzip", gzip.getHeaders().getFirst("Content-Encoding"));
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.json(gzipTag, "gzip").getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.json(plainTag, null).getStatusCode());
+        // el ETag de la versión gzip no valida la plana ni al revés
+        assertEquals(HttpStatus.OK, controller.json(gzipTag, null).getStatusCode());
+        assertEquals(HttpStatus.OK, controller.json(plainTag, "gzip").getStatusCode());
+        assertTrue(controller.json(plainTag, "gzip").getHeaders().getVary().contains("Accept-Encoding"));
+    }
+}
@@ -3,14 +3,24 @@ package com.edira.edira_api.web;
 import com.edira.edira_api.security.SecurityConfig;
 import com.edira.edira_api.security.ApiErrorAccessDeniedHandler;
 import com.edira.edira_api.security.ApiErrorAuthenticationEntryPoint;
+import com.edira.edira_api.shared.error.ApiErrorWriter;
+import com.edira.edira_api.shared.health.HealthChecker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -18,12 +28,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Test de integración para la seguridad de las rutas públicas y administrativas.
  */
 
-@WebMvcTest(controllers = {PublicProbeController.class, AdminProbeController.class})
-@Import({SecurityConfig.class, ApiErrorAccessDeniedHandler.class, ApiErrorAuthenticationEntryPoint.class})
+@WebMvcTest(controllers = {PublicProbeController.class, AdminProbeController.class, HealthProbeController.class})
+@Import({SecurityConfig.class, ApiErrorAccessDeniedHandler.class, ApiErrorAuthenticationEntryPoint.class, ApiErrorWriter.class})
 class ProbeSecurityIT {
 
     @Autowired MockMvc mvc;
 
+    @MockitoBean HealthChecker healthChecker;
+
     @Test
     void apiPing_sinAuth_devuelve401_yContrato() throws Exception {
         mvc.perform(get("/ping"))
@@ -60,4 +72,28 @@ class ProbeSecurityIT {
                 .andExpect(status().isOk())
                 .andExpect(content().string("todo ok admin"));
     }
+
+    @Test
+    void apiPing_sinAuth_acceptCbor_devuelve401EnCbor() throws Exception {
+        byte[] body = mvc.perform(get("/ping").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode json = new CBORMapper().readTree(body);
+        assertEquals("UNAUTHORIZED", json.get("code").asText());
+        assertEquals("/ping", json.get("path").asText());
+        assertTrue(json.get("errorId").isTextual());
+    }
+
+    @Test
+    void healthReady_sinAuth_devuelveElChequeoCacheado() throws Exception {
+        when(healthChecker.readiness()).thenReturn(new HealthChecker.Probe(503,
+                "{\"status\":\"DOWN\",\"reason\":\"STALE_CHECK\"}".getBytes(StandardCharsets.UTF_8)));
+
+        mvc.perform(get("/health/ready"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.reason").value("STALE_CHECK"));
+    }
 }
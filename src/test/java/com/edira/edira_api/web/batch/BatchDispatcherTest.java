@@ -0,0 +1,320 @@
+package com.edira.edira_api.web.batch;
+
+import com.edira.edira_api.shared.error.GlobalExceptionHandler;
+import com.edira.edira_api.shared.error.NotFoundException;
+import com.edira.edira_api.shared.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.security.web.firewall.StrictHttpFirewall;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del BatchDispatcher contra un DispatcherServlet real (controllers de prueba +
+ * GlobalExceptionHandler): resultados por operación, autorización por ruta, lecturas
+ * en paralelo con el principal propagado y modo atómico.
+ */
+class BatchDispatcherTest {
+
+    private static AnnotationConfigWebApplicationContext context;
+    private static DispatcherServlet servlet;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+    // Igual que SecurityConfig: /admin/** solo para ADMIN
+    private final WebInvocationPrivilegeEvaluator evaluator = new WebInvocationPrivilegeEvaluator() {
+        @Override
+        public boolean isAllowed(String uri, Authentication authentication) {
+            return isAllowed("", uri, "GET", authentication);
+        }
+
+        @Override
+        public boolean isAllowed(String contextPath, String uri, String method,
+                                 Authentication authentication) {
+            return !uri.startsWith("/admin/") || authentication.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        }
+    };
+    private final BatchDispatcher dispatcher = new BatchDispatcher(servlet, evaluator, new StrictHttpFirewall(), objectMapper,
+            new TransactionTemplate(transactionManager), new BatchProperties(5, 8, Duration.ofSeconds(5)));
+
+    @BeforeAll
+    static void startDispatcher() throws Exception {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(TestWebConfig.class);
+        context.refresh();
+        servlet = new DispatcherServlet(context);
+        servlet.init(new MockServletConfig());
+    }
+
+    @AfterAll
+    static void stopDispatcher() {
+        servlet.destroy();
+        context.close();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+        TenantContext.clear();
+    }
+
+    @Test
+    void batch_operacionesMixtas_cadaUnaConSuStatusYBody() throws Exception {
+        // Given
+        login("ana", "ROLE_USER");
+        BatchRequest batch = new BatchRequest(List.of(
+                op("1", "GET", "/t/echo?value=hola%20mundo", null),
+                op("2", "POST", "/t/items", "{\"name\":\"Cálculo\"}"),
+                op("3", "POST", "/t/items", "{\"name\":\"\"}"),
+                op("4", "GET", "/t/items/99", null)
+        ), false);
+
+        // When
+        BatchResponse response = execute(batch);
+
+        // Then
+        List<BatchResponse.Result> results = response.results();
+        assertNull(response.committed());
+        assertEquals(200, results.get(0).status());
+        assertEquals("hola mundo", results.get(0).body().get("value").asText());
+        assertEquals(201, results.get(1).status());
+        assertEquals("Cálculo", results.get(1).body().get("name").asText());
+        assertEquals(400, results.get(2).status());
+        assertEquals("VALIDATION_ERROR", results.get(2).body().get("code").asText());
+        assertEquals("name", results.get(2).body().get("details").get(0).get("field").asText());
+        assertEquals(404, results.get(3).status());
+        assertEquals("NOT_FOUND", results.get(3).body().get("code").asText());
+        assertEquals("/t/items/99", results.get(3).body().get("path").asText());
+    }
+
+    @Test
+    void batch_rutaSinPermiso_403ConApiError_sinEjecutar() throws Exception {
+        // Given
+        login("ana", "ROLE_USER");
+
+        // When
+        BatchResponse response = execute(new BatchRequest(List.of(op("a", "GET", "/admin/secret", null)), false));
+
+        // Then
+        BatchResponse.Result result = response.results().get(0);
+        assertEquals(403, result.status());
+        assertEquals("FORBIDDEN", result.body().get("code").asText());
+        assertEquals("a", result.id());
+    }
+
+    @Test
+    void batch_rutaNoNormalizadaOCodificada_400SinEjecutar_yAutorizaLaRutaDecodificada() throws Exception {
+        // Given
+        login("ana", "ROLE_USER");
+        BatchRequest batch = new BatchRequest(List.of(
+                op("1", "GET", "/t/..%2Fadmin/secret", null),
+                op("2", "GET", "/t/../admin/secret", null),
+                op("3", "GET", "//admin;x=1/secret", null),
+                op("4", "GET", "/%61dmin/secret", null),
+                op("5", "GET", "/%62atch", null)
+        ), false);
+
+        // When
+        List<BatchResponse.Result> results = execute(batch).results();
+
+        // Then: 1-3 los frena el firewall; 4 se autoriza como /admin/secret; 5 es /batch anidado
+        for (int i = 0; i < 3; i++) {
+            assertEquals(400, results.get(i).status(), "operación " + results.get(i).id());
+            assertEquals("BAD_REQUEST", results.get(i).body().get("code").asText());
+        }
+        assertEquals(403, results.get(3).status());
+        assertEquals(400, results.get(4).status());
+    }
+
+    @Test
+    void batch_lecturasConsecutivas_corrienEnParalelo_conPrincipalYTenant() throws Exception {
+        // Given: 4 GET de 300 ms cada uno
+        login("bea", "ROLE_USER");
+        TenantContext.set(7);
+        List<BatchRequest.Operation> reads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            reads.add(op(Integer.toString(i), "GET", "/t/whoami?sleepMs=300", null));
+        }
+
+        // When
+        long start = System.nanoTime();
+        BatchResponse response = execute(new BatchRequest(reads, false));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertTrue(elapsedMs < 1000, "las lecturas debieron correr en paralelo, tomó " + elapsedMs + " ms");
+        for (BatchResponse.Result result : response.results()) {
+            assertEquals(200, result.status());
+            assertEquals("bea", result.body().get("user").asText());
+            assertEquals(7, result.body().get("tenant").asLong());
+        }
+    }
+
+    @Test
+    void batchAtomico_falloIntermedio_revierteYNoEjecutaLoQueSigue() throws Exception {
+        // Given
+        login("ana", "ROLE_USER");
+        BatchRequest batch = new BatchRequest(List.of(
+                op("1", "POST", "/t/items", "{\"name\":\"A\"}"),
+                op("2", "GET", "/t/items/99", null),
+                op("3", "POST", "/t/items", "{\"name\":\"C\"}")
+        ), true);
+
+        // When
+        BatchResponse response = execute(batch);
+
+        // Then
+        assertEquals(Boolean.FALSE, response.committed());
+        assertEquals(201, response.results().get(0).status());
+        assertEquals(404, response.results().get(1).status());
+        assertEquals(HttpStatus.FAILED_DEPENDENCY.value(), response.results().get(2).status());
+        assertEquals(List.of("begin", "rollback"), transactionManager.events);
+        assertFalse(TestController.created.contains("C"));
+    }
+
+    @Test
+    void batchAtomico_todoOk_confirma() throws Exception {
+        // Given
+        login("ana", "ROLE_USER");
+
+        // When
+        BatchResponse response = execute(new BatchRequest(List.of(
+                op("1", "POST", "/t/items", "{\"name\":\"X\"}"),
+                op("2", "GET", "/t/echo?value=y", null)), true));
+
+        // Then
+        assertEquals(Boolean.TRUE, response.committed());
+        assertEquals(List.of("begin", "commit"), transactionManager.events);
+    }
+
+    @Test
+    void batch_anidadoODemasiadasOperaciones_esInvalido() throws Exception {
+        login("ana", "ROLE_USER");
+        BatchRequest nested = new BatchRequest(List.of(op("1", "POST", "/batch", "{}")), false);
+        assertThrows(IllegalArgumentException.class, () -> execute(nested));
+        List<BatchRequest.Operation> many = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            many.add(op(null, "GET", "/t/echo", null));
+        }
+        assertThrows(IllegalArgumentException.class, () -> execute(new BatchRequest(many, false)));
+    }
+
+    private BatchResponse execute(BatchRequest batch) {
+        return dispatcher.execute(batch, new MockHttpServletRequest("POST", "/batch"), new MockHttpServletResponse());
+    }
+
+    private BatchRequest.Operation op(String id, String method, String path, String json) throws Exception {
+        return new BatchRequest.Operation(id, method, path, json == null ? null : objectMapper.readTree(json));
+    }
+
+    private static void login(String user, String role) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, "n/a", AuthorityUtils.createAuthorityList(role)));
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import({TestController.class, GlobalExceptionHandler.class})
+    static class TestWebConfig {
+    }
+
+    @RestController
+    static class TestController {
+
+        static final List<String> created = Collections.synchronizedList(new ArrayList<>());
+
+        record Item(@NotBlank String name) {
+        }
+
+        @GetMapping("/t/echo")
+        Map<String, String> echo(@RequestParam(defaultValue = "") String value) {
+            return Map.of("value", value);
+        }
+
+        @PostMapping("/t/items")
+        @ResponseStatus(HttpStatus.CREATED)
+        Item create(@Valid @RequestBody Item item) {
+            created.add(item.name());
+            return item;
+        }
+
+        @GetMapping("/t/items/{id}")
+        Item find(@PathVariable long id) {
+            throw new NotFoundException("Item " + id + " no existe");
+        }
+
+        @GetMapping("/t/whoami")
+        Map<String, Object> whoami(Principal principal, @RequestParam long sleepMs) throws InterruptedException {
+            Thread.sleep(sleepMs);
+            String user = SecurityContextHolder.getContext().getAuthentication().getName();
+            return Map.of("user", user, "tenant", TenantContext.current(), "principal", String.valueOf(principal));
+        }
+    }
+
+    /** Registra begin/commit/rollback sin recursos reales. */
+    static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            events.add("begin");
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            events.add("commit");
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            events.add("rollback");
+        }
+    }
+}